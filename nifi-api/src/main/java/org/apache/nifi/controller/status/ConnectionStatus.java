@@ -257,6 +257,7 @@ public class ConnectionStatus implements Cloneable {
 
         clonedObj.backPressureDataSizeThreshold = backPressureDataSizeThreshold;
         clonedObj.backPressureObjectThreshold = backPressureObjectThreshold;
+        clonedObj.backPressureBytesThreshold = backPressureBytesThreshold;
         clonedObj.maxQueuedBytes = maxQueuedBytes;
         clonedObj.maxQueuedCount = maxQueuedCount;
         clonedObj.totalQueuedDuration = totalQueuedDuration;
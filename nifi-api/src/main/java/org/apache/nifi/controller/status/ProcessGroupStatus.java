@@ -279,11 +279,13 @@ public class ProcessGroupStatus implements Cloneable {
 
         clonedObj.id = id;
         clonedObj.name = name;
+        clonedObj.versionedFlowState = versionedFlowState;
         clonedObj.outputContentSize = outputContentSize;
         clonedObj.outputCount = outputCount;
         clonedObj.inputContentSize = inputContentSize;
         clonedObj.inputCount = inputCount;
         clonedObj.activeThreadCount = activeThreadCount;
+        clonedObj.statelessActiveThreadCount = statelessActiveThreadCount;
         clonedObj.terminatedThreadCount = terminatedThreadCount;
         clonedObj.queuedContentSize = queuedContentSize;
         clonedObj.queuedCount = queuedCount;
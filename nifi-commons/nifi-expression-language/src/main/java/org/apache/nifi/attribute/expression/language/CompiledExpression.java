@@ -18,22 +18,38 @@
 package org.apache.nifi.attribute.expression.language;
 
 import org.antlr.runtime.tree.Tree;
+import org.apache.nifi.attribute.expression.language.compile.BytecodeExpressionCompiler;
+import org.apache.nifi.attribute.expression.language.compile.CompiledEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.expression.AttributeValueDecorator;
 
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CompiledExpression implements Expression {
     private final Evaluator<?> rootEvaluator;
     private final Tree tree;
     private final String expression;
     private final Set<Evaluator<?>> allEvaluators;
+    private final int bytecodeCompileThreshold;
+    private final AtomicInteger evaluationCount = new AtomicInteger(0);
+    private volatile boolean bytecodeCompilationAttempted = false;
+    private volatile CompiledEvaluator compiledEvaluator;
 
     public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators) {
+        this(expression, rootEvaluator, tree, allEvaluators, -1);
+    }
+
+    /**
+     * @param bytecodeCompileThreshold the number of times that the Expression is interpreted before it is compiled into bytecode by the
+     * {@link BytecodeExpressionCompiler}, or a negative number if the Expression is always to be interpreted
+     */
+    public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators, final int bytecodeCompileThreshold) {
         this.rootEvaluator = rootEvaluator;
         this.tree = tree;
         this.expression = expression;
         this.allEvaluators = allEvaluators;
+        this.bytecodeCompileThreshold = bytecodeCompileThreshold;
     }
 
     public Evaluator<?> getRootEvaluator() {
@@ -54,6 +70,37 @@ public class CompiledExpression implements Expression {
 
     @Override
     public String evaluate(final EvaluationContext evaluationContext, final AttributeValueDecorator decorator) {
-        return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
+        final CompiledEvaluator compiled = getCompiledEvaluator();
+        if (compiled == null) {
+            return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
+        }
+
+        final Object evaluated = compiled.evaluate(evaluationContext);
+        if (evaluated == null) {
+            return null;
+        }
+
+        final String value = evaluated.toString();
+        return decorator == null ? value : decorator.decorate(value);
+    }
+
+    private CompiledEvaluator getCompiledEvaluator() {
+        if (bytecodeCompileThreshold < 0 || bytecodeCompilationAttempted) {
+            return compiledEvaluator;
+        }
+
+        if (evaluationCount.incrementAndGet() <= bytecodeCompileThreshold) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (!bytecodeCompilationAttempted) {
+                // If the Expression cannot be compiled, it continues to be interpreted
+                compiledEvaluator = BytecodeExpressionCompiler.compile(rootEvaluator, expression);
+                bytecodeCompilationAttempted = true;
+            }
+        }
+
+        return compiledEvaluator;
     }
 }
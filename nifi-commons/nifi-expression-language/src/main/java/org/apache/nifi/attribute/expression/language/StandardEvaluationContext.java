@@ -27,7 +27,7 @@ public class StandardEvaluationContext implements EvaluationContext {
     private final ValueLookup valueLookup;
     private final Map<String, String> stateMap;
     private final ParameterLookup parameterLookup;
-    private final EvaluatorState evaluatorState = new EvaluatorState();
+    private EvaluatorState evaluatorState;
 
     public StandardEvaluationContext(final Map<String, String> variables) {
         this(variables, null, ParameterLookup.EMPTY);
@@ -65,6 +65,10 @@ public class StandardEvaluationContext implements EvaluationContext {
 
     @Override
     public EvaluatorState getEvaluatorState() {
+        // Created on first use, as most Expressions never store any state
+        if (evaluatorState == null) {
+            evaluatorState = new EvaluatorState();
+        }
         return evaluatorState;
     }
 }
@@ -21,6 +21,7 @@ import org.apache.nifi.registry.VariableDescriptor;
 import org.apache.nifi.registry.EnvironmentVariables;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,13 +34,31 @@ import java.util.Set;
  * A convenience class to encapsulate the logic of variable substitution
  * based first on any additional variable maps, then flow file properties,
  * then flow file attributes, and finally the provided system and env
- * variable registry.
+ * variable registry. Values are resolved lazily, by name, at the time that
+ * they are looked up so that evaluating an Expression does not require
+ * copying any of the underlying maps.
  */
 final class ValueLookup implements Map<String, String> {
 
-    private final List<Map<String, String>> maps = new ArrayList<>();
+    private static final List<String> FLOWFILE_PROPERTY_NAMES = Arrays.asList(
+        "flowFileId", "fileSize", "entryDate", "lineageStartDate", "lastQueueDate", "queueDateIndex");
+
+    private final Map<String, String>[] additionalMaps;
+    private final FlowFile flowFile;
     private final EnvironmentVariables environmentVariables = EnvironmentVariables.ENVIRONMENT_VARIABLES;
 
+    /**
+     * Constructs a ValueLookup where values are looked up first based on the
+     * flowfile properties, then flowfile attributes, then based on the
+     * provided system and env variable registry.
+     *
+     * @param flowFile the flowFile to pull attributes from; may be null
+     */
+    ValueLookup(final FlowFile flowFile) {
+        this.flowFile = flowFile;
+        this.additionalMaps = null;
+    }
+
     /**
      * Constructs a ValueLookup where values are looked up first based any
      * provided additional maps, then flowfile properties, then flowfile
@@ -52,27 +71,55 @@ final class ValueLookup implements Map<String, String> {
      */
     @SuppressWarnings("unchecked")
     ValueLookup(final FlowFile flowFile, final Map<String, String>... additionalMaps) {
-        for (final Map<String, String> map : additionalMaps) {
-            if (map != null && !map.isEmpty()) {
-                maps.add(map);
+        this.flowFile = flowFile;
+        this.additionalMaps = additionalMaps;
+    }
+
+    static final Map<String, String> extractFlowFileProperties(final FlowFile flowFile) {
+        final Map<String, String> flowFileProps = new HashMap<>();
+        for (final String propertyName : FLOWFILE_PROPERTY_NAMES) {
+            flowFileProps.put(propertyName, getFlowFileProperty(flowFile, propertyName));
+        }
+        return flowFileProps;
+    }
+
+    private static String getFlowFileProperty(final FlowFile flowFile, final String propertyName) {
+        switch (propertyName) {
+            case "flowFileId":
+                return String.valueOf(flowFile.getId());
+            case "fileSize":
+                return String.valueOf(flowFile.getSize());
+            case "entryDate":
+                return String.valueOf(flowFile.getEntryDate());
+            case "lineageStartDate":
+                return String.valueOf(flowFile.getLineageStartDate());
+            case "lastQueueDate":
+                return String.valueOf(flowFile.getLastQueueDate());
+            case "queueDateIndex":
+                return String.valueOf(flowFile.getQueueDateIndex());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the maps that values are looked up from, in order of precedence, not including the environment variables
+     */
+    private List<Map<String, String>> getMaps() {
+        final List<Map<String, String>> maps = new ArrayList<>();
+        if (additionalMaps != null) {
+            for (final Map<String, String> map : additionalMaps) {
+                if (map != null && !map.isEmpty()) {
+                    maps.add(map);
+                }
             }
         }
 
         if (flowFile != null) {
-            maps.add(ValueLookup.extractFlowFileProperties(flowFile));
+            maps.add(extractFlowFileProperties(flowFile));
             maps.add(flowFile.getAttributes());
         }
-    }
-
-    static final Map<String, String> extractFlowFileProperties(final FlowFile flowFile) {
-        final Map<String, String> flowFileProps = new HashMap<>();
-        flowFileProps.put("flowFileId", String.valueOf(flowFile.getId()));
-        flowFileProps.put("fileSize", String.valueOf(flowFile.getSize()));
-        flowFileProps.put("entryDate", String.valueOf(flowFile.getEntryDate()));
-        flowFileProps.put("lineageStartDate", String.valueOf(flowFile.getLineageStartDate()));
-        flowFileProps.put("lastQueueDate", String.valueOf(flowFile.getLastQueueDate()));
-        flowFileProps.put("queueDateIndex", String.valueOf(flowFile.getQueueDateIndex()));
-        return flowFileProps;
+        return maps;
     }
 
     @Override
@@ -82,7 +129,7 @@ final class ValueLookup implements Map<String, String> {
 
     @Override
     public boolean isEmpty() {
-        for (final Map<String, String> map : maps) {
+        for (final Map<String, String> map : getMaps()) {
             if (!map.isEmpty()) {
                 return false;
             }
@@ -95,7 +142,7 @@ final class ValueLookup implements Map<String, String> {
         if (key == null) {
             return false;
         }
-        if (maps.stream().anyMatch((map) -> (map.containsKey(key)))) {
+        if (getMaps().stream().anyMatch((map) -> (map.containsKey(key)))) {
             return true;
         }
         return environmentVariables.getEnvironmentVariableKey(key.toString()) != null;
@@ -117,13 +164,30 @@ final class ValueLookup implements Map<String, String> {
             return null;
         }
 
-        for (final Map<String, String> map : maps) {
-            final String val = map.get(key.toString());
-            if (val != null) {
-                return val;
+        final String name = key.toString();
+        if (additionalMaps != null) {
+            for (final Map<String, String> map : additionalMaps) {
+                if (map != null) {
+                    final String val = map.get(name);
+                    if (val != null) {
+                        return val;
+                    }
+                }
+            }
+        }
+
+        if (flowFile != null) {
+            final String propertyValue = getFlowFileProperty(flowFile, name);
+            if (propertyValue != null) {
+                return propertyValue;
+            }
+
+            final String attributeValue = flowFile.getAttributes().get(name);
+            if (attributeValue != null) {
+                return attributeValue;
             }
         }
-        return environmentVariables.getEnvironmentVariableValue(key.toString());
+        return environmentVariables.getEnvironmentVariableValue(name);
     }
 
     @Override
@@ -148,7 +212,7 @@ final class ValueLookup implements Map<String, String> {
 
     public Set<String> getKeysAddressableByMultiMatch() {
         final Set<String> keys = new HashSet<>();
-        for (final Map<String, String> map : maps) {
+        for (final Map<String, String> map : getMaps()) {
             keys.addAll(map.keySet());
         }
         return keys;
@@ -180,7 +244,7 @@ final class ValueLookup implements Map<String, String> {
             newMap.put(entry.getKey().getName(), entry.getValue());
         }
         //put attribute maps in reverse order
-        final List<Map<String,String>> listOfMaps = new ArrayList<>(maps);
+        final List<Map<String,String>> listOfMaps = getMaps();
         Collections.reverse(listOfMaps);
         for(final Map<String,String> map : listOfMaps){
             for(final Map.Entry<String, String> entry : map.entrySet()){
@@ -0,0 +1,729 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.Label;
+import org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.MethodWriter;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.BooleanCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.NumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.StringCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.WholeNumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ContainsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.DivideEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EndsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsIgnoreCaseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IfElseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LengthEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.MinusEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ModEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.MultiplyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PlusEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PrependEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToLowerEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.DecimalLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ACC_FINAL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ACC_PRIVATE;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ACC_PUBLIC;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ACONST_NULL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.AALOAD;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ALOAD;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ARETURN;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.ASTORE;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.CHECKCAST;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DADD;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DCMPG;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DCMPL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DDIV;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DMUL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DREM;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DSUB;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.DUP;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.GETFIELD;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.GETSTATIC;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.I2L;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFEQ;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFGE;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFGT;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFLE;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFLT;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFNE;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFNONNULL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.IFNULL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.INSTANCEOF;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.INVOKEINTERFACE;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.INVOKESPECIAL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.INVOKESTATIC;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.INVOKEVIRTUAL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.LADD;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.LCMP;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.LDIV;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.LMUL;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.LREM;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.LSUB;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.NEW;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.PUTFIELD;
+import static org.apache.nifi.attribute.expression.language.compile.ClassFileWriter.RETURN;
+
+/**
+ * <p>
+ * Compiles the tree of {@link Evaluator}s that make up an Expression into JVM bytecode, which is loaded as a hidden class. Each Evaluator in the tree
+ * becomes a method of the generated class, which reads attributes directly from the {@link org.apache.nifi.attribute.expression.language.EvaluationContext},
+ * performs arithmetic and comparisons on primitive values, and does not create a {@link org.apache.nifi.attribute.expression.language.evaluation.QueryResult}
+ * for intermediate values. Literals are folded into the generated code.
+ * </p>
+ *
+ * <p>
+ * Only the most commonly used functions are compiled. Any other Evaluator, along with the Evaluators beneath it, is invoked from the generated code as it
+ * would be by the interpreter, so every Expression can be compiled and gives the same results as it does when it is interpreted.
+ * </p>
+ */
+public final class BytecodeExpressionCompiler {
+    /**
+     * System property that enables compilation of Expressions into bytecode. The property is set from <code>nifi.properties</code> when NiFi starts.
+     */
+    public static final String BYTECODE_ENABLED_PROPERTY = "nifi.expression.language.bytecode.enabled";
+
+    /**
+     * System property that specifies how many times an Expression is interpreted before it is compiled into bytecode, so that the cost of compiling
+     * is paid only for Expressions that are evaluated repeatedly.
+     */
+    public static final String COMPILE_THRESHOLD_PROPERTY = "nifi.expression.language.bytecode.compile.threshold";
+    public static final int DEFAULT_COMPILE_THRESHOLD = 100;
+
+    /**
+     * System property that causes an Expression that cannot be compiled to fail with an {@link IllegalStateException} instead of being interpreted.
+     * This is intended for tests, which would otherwise pass by interpreting every Expression if the compiler were broken.
+     */
+    public static final String STRICT_PROPERTY = "nifi.expression.language.bytecode.strict";
+
+    private static final Logger logger = LoggerFactory.getLogger(BytecodeExpressionCompiler.class);
+
+    private static final String GENERATED_CLASS_NAME = BytecodeExpressionCompiler.class.getPackageName().replace('.', '/') + "/GeneratedEvaluator";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String STRING = "java/lang/String";
+    private static final String BOOLEAN = "java/lang/Boolean";
+    private static final String LONG = "java/lang/Long";
+    private static final String DOUBLE = "java/lang/Double";
+    private static final String NUMBER = "java/lang/Number";
+    private static final String EVALUATION_CONTEXT = "org/apache/nifi/attribute/expression/language/EvaluationContext";
+    private static final String EVALUATOR = "org/apache/nifi/attribute/expression/language/evaluation/Evaluator";
+    private static final String EVALUATOR_STATE = "org/apache/nifi/attribute/expression/language/evaluation/EvaluatorState";
+    private static final String QUERY_RESULT = "org/apache/nifi/attribute/expression/language/evaluation/QueryResult";
+    private static final String BOOLEAN_QUERY_RESULT = "org/apache/nifi/attribute/expression/language/evaluation/BooleanQueryResult";
+    private static final String RESULT_TYPE = "org/apache/nifi/expression/AttributeExpression$ResultType";
+    private static final String NODE_DESCRIPTOR = "(L" + EVALUATION_CONTEXT + ";)L" + OBJECT + ";";
+
+    private final ClassFileWriter classWriter = new ClassFileWriter(GENERATED_CLASS_NAME, OBJECT, CompiledEvaluator.class.getName().replace('.', '/'));
+    private final List<Object> constants = new ArrayList<>();
+    private int methodCount = 0;
+
+    private BytecodeExpressionCompiler() {
+    }
+
+    /**
+     * @return the number of times that an Expression is interpreted before it is compiled into bytecode, or <code>-1</code> if Expressions are not
+     * to be compiled into bytecode
+     */
+    public static int getCompileThreshold() {
+        if (!Boolean.getBoolean(BYTECODE_ENABLED_PROPERTY)) {
+            return -1;
+        }
+
+        return Math.max(0, Integer.getInteger(COMPILE_THRESHOLD_PROPERTY, DEFAULT_COMPILE_THRESHOLD));
+    }
+
+    /**
+     * Compiles the given tree of Evaluators into bytecode
+     *
+     * @param rootEvaluator the root of the tree of Evaluators that make up an Expression
+     * @param expression the text of the Expression, for logging
+     * @return the compiled Expression, or <code>null</code> if the Expression could not be compiled, in which case it must be interpreted
+     * @throws IllegalStateException if the Expression could not be compiled and the {@link #STRICT_PROPERTY} system property is <code>true</code>
+     */
+    public static CompiledEvaluator compile(final Evaluator<?> rootEvaluator, final String expression) {
+        try {
+            return new BytecodeExpressionCompiler().generate(rootEvaluator);
+        } catch (final Throwable t) {
+            if (Boolean.getBoolean(STRICT_PROPERTY)) {
+                throw new IllegalStateException("Failed to compile Expression " + expression + " into bytecode", t);
+            }
+
+            logger.warn("Failed to compile Expression {} into bytecode; the Expression will be interpreted instead", expression, t);
+            return null;
+        }
+    }
+
+    private CompiledEvaluator generate(final Evaluator<?> rootEvaluator) throws ReflectiveOperationException {
+        classWriter.addField(ACC_PRIVATE | ACC_FINAL, "constants", "[L" + OBJECT + ";");
+
+        final MethodWriter constructor = classWriter.addMethod(ACC_PUBLIC, "<init>", "([L" + OBJECT + ";)V", Collections.singletonList("[L" + OBJECT + ";"), 0);
+        constructor.varInsn(ALOAD, 0);
+        constructor.methodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V");
+        constructor.varInsn(ALOAD, 0);
+        constructor.varInsn(ALOAD, 1);
+        constructor.fieldInsn(PUTFIELD, GENERATED_CLASS_NAME, "constants", "[L" + OBJECT + ";");
+        constructor.insn(RETURN);
+
+        final String rootMethod = compileNode(rootEvaluator);
+        final MethodWriter evaluate = classWriter.addMethod(ACC_PUBLIC, "evaluate", NODE_DESCRIPTOR, Collections.singletonList(EVALUATION_CONTEXT), 0);
+        evaluate.varInsn(ALOAD, 0);
+        evaluate.varInsn(ALOAD, 1);
+        evaluate.methodInsn(INVOKESPECIAL, GENERATED_CLASS_NAME, rootMethod, NODE_DESCRIPTOR);
+        evaluate.insn(ARETURN);
+
+        final byte[] classBytes = classWriter.toByteArray();
+        final Class<?> generatedClass = MethodHandles.lookup().defineHiddenClass(classBytes, true).lookupClass();
+        return (CompiledEvaluator) generatedClass.getConstructor(Object[].class).newInstance((Object) constants.toArray());
+    }
+
+    /**
+     * Generates a method that evaluates the given Evaluator
+     *
+     * @return the name of the method
+     */
+    private String compileNode(final Evaluator<?> evaluator) {
+        final String methodName = "evaluate" + methodCount++;
+        final MethodWriter method = classWriter.addMethod(ACC_PRIVATE, methodName, NODE_DESCRIPTOR, Collections.singletonList(EVALUATION_CONTEXT), 2);
+
+        // All local variables must be assigned before the first jump target; see ClassFileWriter.
+        final int subjectVar = method.firstVariable();
+        final int argumentVar = subjectVar + 1;
+        method.insn(ACONST_NULL);
+        method.varInsn(ASTORE, subjectVar);
+        method.insn(ACONST_NULL);
+        method.varInsn(ASTORE, argumentVar);
+
+        if (isLiteral(evaluator) || evaluator instanceof AttributeEvaluator) {
+            loadValue(method, evaluator);
+            method.insn(ARETURN);
+        } else if (evaluator instanceof EqualsEvaluator) {
+            final EqualsEvaluator equals = (EqualsEvaluator) evaluator;
+            compileEquals(method, equals.getSubjectEvaluator(), equals.getCompareToEvaluator(), subjectVar, argumentVar);
+        } else if (evaluator instanceof EqualsIgnoreCaseEvaluator) {
+            final EqualsIgnoreCaseEvaluator equals = (EqualsIgnoreCaseEvaluator) evaluator;
+            compileEqualsIgnoreCase(method, equals.getSubjectEvaluator(), equals.getCompareToEvaluator(), subjectVar, argumentVar);
+        } else if (evaluator instanceof IsNullEvaluator || evaluator instanceof NotNullEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator());
+            final Label notNull = method.newLabel();
+            method.jump(IFNONNULL, notNull);
+            returnBoolean(method, evaluator instanceof IsNullEvaluator);
+            method.mark(notNull);
+            returnBoolean(method, evaluator instanceof NotNullEvaluator);
+        } else if (evaluator instanceof IsEmptyEvaluator) {
+            compileIsEmpty(method, evaluator.getSubjectEvaluator(), subjectVar);
+        } else if (evaluator instanceof NotEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator(), BOOLEAN);
+            method.methodInsn(INVOKEVIRTUAL, BOOLEAN, "booleanValue", "()Z");
+            final Label isTrue = method.newLabel();
+            method.jump(IFNE, isTrue);
+            returnBoolean(method, true);
+            method.mark(isTrue);
+            returnBoolean(method, false);
+        } else if (evaluator instanceof AndEvaluator) {
+            compileShortCircuit(method, evaluator, ((AndEvaluator) evaluator).getRhsEvaluator(), false, subjectVar, argumentVar);
+        } else if (evaluator instanceof OrEvaluator) {
+            compileShortCircuit(method, evaluator, ((OrEvaluator) evaluator).getRhsEvaluator(), true, subjectVar, argumentVar);
+        } else if (evaluator instanceof IfElseEvaluator) {
+            final IfElseEvaluator ifElse = (IfElseEvaluator) evaluator;
+            method.fieldInsn(GETSTATIC, BOOLEAN, "TRUE", "L" + BOOLEAN + ";");
+            loadValue(method, ifElse.getSubjectEvaluator());
+            method.methodInsn(INVOKEVIRTUAL, BOOLEAN, "equals", "(L" + OBJECT + ";)Z");
+            final Label isFalse = method.newLabel();
+            method.jump(IFEQ, isFalse);
+            loadValue(method, ifElse.getTrueEvaluator(), STRING);
+            method.insn(ARETURN);
+            method.mark(isFalse);
+            loadValue(method, ifElse.getFalseEvaluator(), STRING);
+            method.insn(ARETURN);
+        } else if (evaluator instanceof ContainsEvaluator) {
+            compileStringPredicate(method, evaluator.getSubjectEvaluator(), ((ContainsEvaluator) evaluator).getSearchEvaluator(), "contains", "(Ljava/lang/CharSequence;)Z",
+                subjectVar, argumentVar);
+        } else if (evaluator instanceof StartsWithEvaluator) {
+            compileStringPredicate(method, evaluator.getSubjectEvaluator(), ((StartsWithEvaluator) evaluator).getSearchEvaluator(), "startsWith", "(L" + STRING + ";)Z",
+                subjectVar, argumentVar);
+        } else if (evaluator instanceof EndsWithEvaluator) {
+            compileStringPredicate(method, evaluator.getSubjectEvaluator(), ((EndsWithEvaluator) evaluator).getSearchEvaluator(), "endsWith", "(L" + STRING + ";)Z",
+                subjectVar, argumentVar);
+        } else if (evaluator instanceof GreaterThanEvaluator) {
+            compileComparison(method, evaluator.getSubjectEvaluator(), ((GreaterThanEvaluator) evaluator).getComparisonEvaluator(), IFLE, DCMPL, subjectVar, argumentVar);
+        } else if (evaluator instanceof GreaterThanOrEqualEvaluator) {
+            compileComparison(method, evaluator.getSubjectEvaluator(), ((GreaterThanOrEqualEvaluator) evaluator).getComparisonEvaluator(), IFLT, DCMPL, subjectVar, argumentVar);
+        } else if (evaluator instanceof LessThanEvaluator) {
+            compileComparison(method, evaluator.getSubjectEvaluator(), ((LessThanEvaluator) evaluator).getComparisonEvaluator(), IFGE, DCMPG, subjectVar, argumentVar);
+        } else if (evaluator instanceof LessThanOrEqualEvaluator) {
+            compileComparison(method, evaluator.getSubjectEvaluator(), ((LessThanOrEqualEvaluator) evaluator).getComparisonEvaluator(), IFGT, DCMPG, subjectVar, argumentVar);
+        } else if (evaluator instanceof PlusEvaluator) {
+            compileArithmetic(method, evaluator.getSubjectEvaluator(), ((PlusEvaluator) evaluator).getPlusValueEvaluator(), LADD, DADD, subjectVar, argumentVar);
+        } else if (evaluator instanceof MinusEvaluator) {
+            compileArithmetic(method, evaluator.getSubjectEvaluator(), ((MinusEvaluator) evaluator).getMinusValueEvaluator(), LSUB, DSUB, subjectVar, argumentVar);
+        } else if (evaluator instanceof MultiplyEvaluator) {
+            compileArithmetic(method, evaluator.getSubjectEvaluator(), ((MultiplyEvaluator) evaluator).getMultiplyValueEvaluator(), LMUL, DMUL, subjectVar, argumentVar);
+        } else if (evaluator instanceof DivideEvaluator) {
+            compileArithmetic(method, evaluator.getSubjectEvaluator(), ((DivideEvaluator) evaluator).getDivideValueEvaluator(), LDIV, DDIV, subjectVar, argumentVar);
+        } else if (evaluator instanceof ModEvaluator) {
+            compileArithmetic(method, evaluator.getSubjectEvaluator(), ((ModEvaluator) evaluator).getModValueEvaluator(), LREM, DREM, subjectVar, argumentVar);
+        } else if (evaluator instanceof ToUpperEvaluator) {
+            compileStringFunction(method, evaluator.getSubjectEvaluator(), "toUpperCase", subjectVar);
+        } else if (evaluator instanceof ToLowerEvaluator) {
+            compileStringFunction(method, evaluator.getSubjectEvaluator(), "toLowerCase", subjectVar);
+        } else if (evaluator instanceof TrimEvaluator) {
+            compileStringFunction(method, evaluator.getSubjectEvaluator(), "trim", subjectVar);
+        } else if (evaluator instanceof LengthEvaluator) {
+            compileLength(method, evaluator.getSubjectEvaluator(), subjectVar);
+        } else if (evaluator instanceof AppendEvaluator) {
+            compileConcatenation(method, evaluator.getSubjectEvaluator(), ((AppendEvaluator) evaluator).getAppendEvaluator(), false, subjectVar, argumentVar);
+        } else if (evaluator instanceof PrependEvaluator) {
+            compileConcatenation(method, evaluator.getSubjectEvaluator(), ((PrependEvaluator) evaluator).getPrependEvaluator(), true, subjectVar, argumentVar);
+        } else if (evaluator instanceof ReplaceNullEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator(), STRING);
+            method.varInsn(ASTORE, subjectVar);
+            method.varInsn(ALOAD, subjectVar);
+            final Label isNull = method.newLabel();
+            method.jump(IFNULL, isNull);
+            method.varInsn(ALOAD, subjectVar);
+            method.insn(ARETURN);
+            method.mark(isNull);
+            loadValue(method, ((ReplaceNullEvaluator) evaluator).getResultEvaluator(), STRING);
+            method.insn(ARETURN);
+        } else if (evaluator instanceof ReplaceEmptyEvaluator) {
+            compileReplaceEmpty(method, evaluator.getSubjectEvaluator(), ((ReplaceEmptyEvaluator) evaluator).getReplacementEvaluator(), subjectVar);
+        } else if (evaluator instanceof StringCastEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator());
+            method.varInsn(ASTORE, subjectVar);
+            returnNullIfNull(method, subjectVar);
+            method.varInsn(ALOAD, subjectVar);
+            method.methodInsn(INVOKESTATIC, STRING, "valueOf", "(L" + OBJECT + ";)L" + STRING + ";");
+            method.insn(ARETURN);
+        } else if (evaluator instanceof BooleanCastEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator(), STRING);
+            method.varInsn(ASTORE, subjectVar);
+            returnNullIfNull(method, subjectVar);
+            loadVariable(method, subjectVar, STRING);
+            method.methodInsn(INVOKEVIRTUAL, STRING, "trim", "()L" + STRING + ";");
+            method.methodInsn(INVOKESTATIC, BOOLEAN, "valueOf", "(L" + STRING + ";)L" + BOOLEAN + ";");
+            method.insn(ARETURN);
+        } else if (evaluator instanceof NumberCastEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator());
+            method.methodInsn(INVOKESTATIC, internalName(NumberCastEvaluator.class), "toNumber", "(L" + OBJECT + ";)L" + NUMBER + ";");
+            method.insn(ARETURN);
+        } else if (evaluator instanceof WholeNumberCastEvaluator) {
+            loadValue(method, evaluator.getSubjectEvaluator());
+            method.methodInsn(INVOKESTATIC, internalName(WholeNumberCastEvaluator.class), "toWholeNumber", "(L" + OBJECT + ";)L" + LONG + ";");
+            method.insn(ARETURN);
+        } else {
+            // Any other function is evaluated by its Evaluator, exactly as it would be if the Expression were interpreted
+            loadConstant(method, evaluator, EVALUATOR);
+            method.varInsn(ALOAD, 1);
+            method.methodInsn(INVOKEINTERFACE, EVALUATOR, "evaluate", "(L" + EVALUATION_CONTEXT + ";)L" + QUERY_RESULT + ";");
+            method.methodInsn(INVOKEINTERFACE, QUERY_RESULT, "getValue", "()L" + OBJECT + ";");
+            method.insn(ARETURN);
+        }
+
+        return methodName;
+    }
+
+    private void compileEquals(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> compareTo, final int subjectVar, final int argumentVar) {
+        loadOperands(method, subject, compareTo, null, subjectVar, argumentVar, () -> returnBoolean(method, false));
+
+        if (subject.getResultType() == compareTo.getResultType()) {
+            method.varInsn(ALOAD, subjectVar);
+            method.varInsn(ALOAD, argumentVar);
+            method.methodInsn(INVOKEVIRTUAL, OBJECT, "equals", "(L" + OBJECT + ";)Z");
+        } else {
+            method.fieldInsn(GETSTATIC, RESULT_TYPE, subject.getResultType().name(), "L" + RESULT_TYPE + ";");
+            method.varInsn(ALOAD, subjectVar);
+            method.fieldInsn(GETSTATIC, RESULT_TYPE, compareTo.getResultType().name(), "L" + RESULT_TYPE + ";");
+            method.varInsn(ALOAD, argumentVar);
+            method.methodInsn(INVOKESTATIC, internalName(EqualsEvaluator.class), "isNormalizedValueEqual",
+                "(L" + RESULT_TYPE + ";L" + OBJECT + ";L" + RESULT_TYPE + ";L" + OBJECT + ";)Z");
+        }
+        returnBooleanValue(method);
+    }
+
+    private void compileEqualsIgnoreCase(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> compareTo, final int subjectVar, final int argumentVar) {
+        loadOperands(method, subject, compareTo, null, subjectVar, argumentVar, () -> returnBoolean(method, false));
+
+        final Label notStrings = method.newLabel();
+        method.varInsn(ALOAD, subjectVar);
+        method.typeInsn(INSTANCEOF, STRING);
+        method.jump(IFEQ, notStrings);
+        method.varInsn(ALOAD, argumentVar);
+        method.typeInsn(INSTANCEOF, STRING);
+        method.jump(IFEQ, notStrings);
+        loadVariable(method, subjectVar, STRING);
+        loadVariable(method, argumentVar, STRING);
+        method.methodInsn(INVOKEVIRTUAL, STRING, "equalsIgnoreCase", "(L" + STRING + ";)Z");
+        returnBooleanValue(method);
+
+        method.mark(notStrings);
+        method.varInsn(ALOAD, subjectVar);
+        method.varInsn(ALOAD, argumentVar);
+        method.methodInsn(INVOKEVIRTUAL, OBJECT, "equals", "(L" + OBJECT + ";)Z");
+        returnBooleanValue(method);
+    }
+
+    private void compileIsEmpty(final MethodWriter method, final Evaluator<?> subject, final int subjectVar) {
+        loadValue(method, subject);
+        method.varInsn(ASTORE, subjectVar);
+
+        final Label isEmpty = method.newLabel();
+        method.varInsn(ALOAD, subjectVar);
+        method.jump(IFNULL, isEmpty);
+        method.varInsn(ALOAD, subjectVar);
+        method.methodInsn(INVOKEVIRTUAL, OBJECT, "toString", "()L" + STRING + ";");
+        method.methodInsn(INVOKEVIRTUAL, STRING, "trim", "()L" + STRING + ";");
+        method.methodInsn(INVOKEVIRTUAL, STRING, "isEmpty", "()Z");
+        returnBooleanValue(method);
+
+        method.mark(isEmpty);
+        returnBoolean(method, true);
+    }
+
+    /**
+     * Compiles an And or an Or function. As with the interpreted {@link AndEvaluator} and {@link OrEvaluator}, the result of the right-hand side is kept in the
+     * EvaluatorState so that it is evaluated only once when the function is evaluated for each of several attributes.
+     */
+    private void compileShortCircuit(final MethodWriter method, final Evaluator<?> evaluator, final Evaluator<?> rhs, final boolean shortCircuitValue,
+                                     final int subjectVar, final int argumentVar) {
+        final String shortCircuitConstant = shortCircuitValue ? "TRUE" : "FALSE";
+        method.fieldInsn(GETSTATIC, BOOLEAN, shortCircuitConstant, "L" + BOOLEAN + ";");
+        loadValue(method, evaluator.getSubjectEvaluator());
+        method.methodInsn(INVOKEVIRTUAL, BOOLEAN, "equals", "(L" + OBJECT + ";)Z");
+        final Label evaluateRhs = method.newLabel();
+        method.jump(IFEQ, evaluateRhs);
+        returnBoolean(method, shortCircuitValue);
+
+        method.mark(evaluateRhs);
+        method.varInsn(ALOAD, 1);
+        method.methodInsn(INVOKEINTERFACE, EVALUATION_CONTEXT, "getEvaluatorState", "()L" + EVALUATOR_STATE + ";");
+        loadConstant(method, evaluator, EVALUATOR);
+        method.ldcClass(BOOLEAN_QUERY_RESULT);
+        method.methodInsn(INVOKEVIRTUAL, EVALUATOR_STATE, "getState", "(L" + EVALUATOR + ";Ljava/lang/Class;)L" + OBJECT + ";");
+        method.varInsn(ASTORE, argumentVar);
+        method.varInsn(ALOAD, argumentVar);
+        final Label noState = method.newLabel();
+        method.jump(IFNULL, noState);
+        loadVariable(method, argumentVar, BOOLEAN_QUERY_RESULT);
+        method.methodInsn(INVOKEVIRTUAL, BOOLEAN_QUERY_RESULT, "getValue", "()L" + BOOLEAN + ";");
+        method.insn(ARETURN);
+
+        method.mark(noState);
+        loadValue(method, rhs, BOOLEAN);
+        method.varInsn(ASTORE, argumentVar);
+        method.varInsn(ALOAD, 1);
+        method.methodInsn(INVOKEINTERFACE, EVALUATION_CONTEXT, "getEvaluatorState", "()L" + EVALUATOR_STATE + ";");
+        loadConstant(method, evaluator, EVALUATOR);
+        method.typeInsn(NEW, BOOLEAN_QUERY_RESULT);
+        method.insn(DUP);
+        loadVariable(method, argumentVar, BOOLEAN);
+        method.methodInsn(INVOKESPECIAL, BOOLEAN_QUERY_RESULT, "<init>", "(L" + BOOLEAN + ";)V");
+        method.methodInsn(INVOKEVIRTUAL, EVALUATOR_STATE, "putState", "(L" + EVALUATOR + ";L" + OBJECT + ";)V");
+        method.varInsn(ALOAD, argumentVar);
+        method.insn(ARETURN);
+    }
+
+    private void compileStringPredicate(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> search, final String methodName, final String descriptor,
+                                        final int subjectVar, final int argumentVar) {
+        loadOperands(method, subject, search, STRING, subjectVar, argumentVar, () -> returnBoolean(method, false));
+
+        loadVariable(method, subjectVar, STRING);
+        loadVariable(method, argumentVar, STRING);
+        method.methodInsn(INVOKEVIRTUAL, STRING, methodName, descriptor);
+        returnBooleanValue(method);
+    }
+
+    /**
+     * Compiles a numeric comparison, using the given instructions to jump when the comparison is <code>false</code>
+     *
+     * @param jumpIfFalse the instruction that jumps if the result of LCMP or of the double comparison indicates that the comparison is false
+     * @param doubleComparison DCMPL or DCMPG, chosen so that a comparison against NaN is false
+     */
+    private void compileComparison(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> comparison, final int jumpIfFalse, final int doubleComparison,
+                                   final int subjectVar, final int argumentVar) {
+        loadOperands(method, subject, comparison, NUMBER, subjectVar, argumentVar, () -> returnBoolean(method, false));
+
+        final Label isDecimal = method.newLabel();
+        final Label isFalse = method.newLabel();
+        jumpIfEitherIsDouble(method, subjectVar, argumentVar, isDecimal);
+        loadNumber(method, subjectVar, "longValue", "()J");
+        loadNumber(method, argumentVar, "longValue", "()J");
+        method.insn(LCMP);
+        method.jump(jumpIfFalse, isFalse);
+        returnBoolean(method, true);
+
+        method.mark(isDecimal);
+        loadNumber(method, subjectVar, "doubleValue", "()D");
+        loadNumber(method, argumentVar, "doubleValue", "()D");
+        method.insn(doubleComparison);
+        method.jump(jumpIfFalse, isFalse);
+        returnBoolean(method, true);
+
+        method.mark(isFalse);
+        returnBoolean(method, false);
+    }
+
+    private void compileArithmetic(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> argument, final int longOperation, final int doubleOperation,
+                                   final int subjectVar, final int argumentVar) {
+        loadOperands(method, subject, argument, NUMBER, subjectVar, argumentVar, () -> {
+            method.insn(ACONST_NULL);
+            method.insn(ARETURN);
+        });
+
+        final Label isDecimal = method.newLabel();
+        jumpIfEitherIsDouble(method, subjectVar, argumentVar, isDecimal);
+        loadNumber(method, subjectVar, "longValue", "()J");
+        loadNumber(method, argumentVar, "longValue", "()J");
+        method.insn(longOperation);
+        method.methodInsn(INVOKESTATIC, LONG, "valueOf", "(J)L" + LONG + ";");
+        method.insn(ARETURN);
+
+        method.mark(isDecimal);
+        loadNumber(method, subjectVar, "doubleValue", "()D");
+        loadNumber(method, argumentVar, "doubleValue", "()D");
+        method.insn(doubleOperation);
+        method.methodInsn(INVOKESTATIC, DOUBLE, "valueOf", "(D)L" + DOUBLE + ";");
+        method.insn(ARETURN);
+    }
+
+    private void compileStringFunction(final MethodWriter method, final Evaluator<?> subject, final String methodName, final int subjectVar) {
+        loadValue(method, subject, STRING);
+        method.varInsn(ASTORE, subjectVar);
+        returnNullIfNull(method, subjectVar);
+        loadVariable(method, subjectVar, STRING);
+        method.methodInsn(INVOKEVIRTUAL, STRING, methodName, "()L" + STRING + ";");
+        method.insn(ARETURN);
+    }
+
+    private void compileLength(final MethodWriter method, final Evaluator<?> subject, final int subjectVar) {
+        loadValue(method, subject, STRING);
+        method.varInsn(ASTORE, subjectVar);
+
+        final Label notNull = method.newLabel();
+        method.varInsn(ALOAD, subjectVar);
+        method.jump(IFNONNULL, notNull);
+        method.pushInt(0);
+        method.insn(I2L);
+        method.methodInsn(INVOKESTATIC, LONG, "valueOf", "(J)L" + LONG + ";");
+        method.insn(ARETURN);
+
+        method.mark(notNull);
+        loadVariable(method, subjectVar, STRING);
+        method.methodInsn(INVOKEVIRTUAL, STRING, "length", "()I");
+        method.insn(I2L);
+        method.methodInsn(INVOKESTATIC, LONG, "valueOf", "(J)L" + LONG + ";");
+        method.insn(ARETURN);
+    }
+
+    /**
+     * Compiles an Append or a Prepend function, both of which evaluate the subject before the argument and treat <code>null</code> as an empty String
+     */
+    private void compileConcatenation(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> argument, final boolean prepend,
+                                      final int subjectVar, final int argumentVar) {
+        loadValue(method, subject, STRING);
+        method.varInsn(ASTORE, subjectVar);
+        loadValue(method, argument, STRING);
+        method.varInsn(ASTORE, argumentVar);
+        replaceNullWithEmptyString(method, subjectVar);
+        replaceNullWithEmptyString(method, argumentVar);
+
+        loadVariable(method, prepend ? argumentVar : subjectVar, STRING);
+        loadVariable(method, prepend ? subjectVar : argumentVar, STRING);
+        method.methodInsn(INVOKEVIRTUAL, STRING, "concat", "(L" + STRING + ";)L" + STRING + ";");
+        method.insn(ARETURN);
+    }
+
+    private void compileReplaceEmpty(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> replacement, final int subjectVar) {
+        loadValue(method, subject, STRING);
+        method.varInsn(ASTORE, subjectVar);
+
+        final Label isEmpty = method.newLabel();
+        method.varInsn(ALOAD, subjectVar);
+        method.jump(IFNULL, isEmpty);
+        method.varInsn(ALOAD, subjectVar);
+        method.methodInsn(INVOKEVIRTUAL, OBJECT, "toString", "()L" + STRING + ";");
+        method.methodInsn(INVOKEVIRTUAL, STRING, "trim", "()L" + STRING + ";");
+        method.methodInsn(INVOKEVIRTUAL, STRING, "isEmpty", "()Z");
+        method.jump(IFNE, isEmpty);
+        method.varInsn(ALOAD, subjectVar);
+        method.insn(ARETURN);
+
+        method.mark(isEmpty);
+        loadValue(method, replacement);
+        method.insn(ARETURN);
+    }
+
+    /**
+     * Evaluates the subject and then the argument of a function into the given variables, running the given code to return from the method as soon as
+     * either of them is <code>null</code>
+     */
+    private void loadOperands(final MethodWriter method, final Evaluator<?> subject, final Evaluator<?> argument, final String type, final int subjectVar,
+                              final int argumentVar, final Runnable returnIfNull) {
+        loadValue(method, subject, type);
+        method.varInsn(ASTORE, subjectVar);
+        final Label subjectNotNull = method.newLabel();
+        method.varInsn(ALOAD, subjectVar);
+        method.jump(IFNONNULL, subjectNotNull);
+        returnIfNull.run();
+
+        method.mark(subjectNotNull);
+        loadValue(method, argument, type);
+        method.varInsn(ASTORE, argumentVar);
+        final Label argumentNotNull = method.newLabel();
+        method.varInsn(ALOAD, argumentVar);
+        method.jump(IFNONNULL, argumentNotNull);
+        returnIfNull.run();
+
+        method.mark(argumentNotNull);
+    }
+
+    private void jumpIfEitherIsDouble(final MethodWriter method, final int subjectVar, final int argumentVar, final Label target) {
+        method.varInsn(ALOAD, subjectVar);
+        method.typeInsn(INSTANCEOF, DOUBLE);
+        method.jump(IFNE, target);
+        method.varInsn(ALOAD, argumentVar);
+        method.typeInsn(INSTANCEOF, DOUBLE);
+        method.jump(IFNE, target);
+    }
+
+    private void loadNumber(final MethodWriter method, final int variable, final String methodName, final String descriptor) {
+        loadVariable(method, variable, NUMBER);
+        method.methodInsn(INVOKEVIRTUAL, NUMBER, methodName, descriptor);
+    }
+
+    private void loadVariable(final MethodWriter method, final int variable, final String type) {
+        // Every variable is declared as an Object in the stack map frames, so it must be cast before it is used as anything else.
+        method.varInsn(ALOAD, variable);
+        method.typeInsn(CHECKCAST, type);
+    }
+
+    private void replaceNullWithEmptyString(final MethodWriter method, final int variable) {
+        final Label notNull = method.newLabel();
+        method.varInsn(ALOAD, variable);
+        method.jump(IFNONNULL, notNull);
+        method.ldcString("");
+        method.varInsn(ASTORE, variable);
+        method.mark(notNull);
+    }
+
+    private void returnNullIfNull(final MethodWriter method, final int variable) {
+        final Label notNull = method.newLabel();
+        method.varInsn(ALOAD, variable);
+        method.jump(IFNONNULL, notNull);
+        method.insn(ACONST_NULL);
+        method.insn(ARETURN);
+        method.mark(notNull);
+    }
+
+    private void returnBoolean(final MethodWriter method, final boolean value) {
+        method.fieldInsn(GETSTATIC, BOOLEAN, value ? "TRUE" : "FALSE", "L" + BOOLEAN + ";");
+        method.insn(ARETURN);
+    }
+
+    private void returnBooleanValue(final MethodWriter method) {
+        method.methodInsn(INVOKESTATIC, BOOLEAN, "valueOf", "(Z)L" + BOOLEAN + ";");
+        method.insn(ARETURN);
+    }
+
+    /**
+     * Pushes the value of the given Evaluator onto the stack, casting it to the given type, as the interpreted Evaluator does implicitly when it assigns
+     * the value of a typed Evaluator to a local variable
+     */
+    private void loadValue(final MethodWriter method, final Evaluator<?> evaluator, final String type) {
+        loadValue(method, evaluator);
+        if (type != null) {
+            method.typeInsn(CHECKCAST, type);
+        }
+    }
+
+    /**
+     * Pushes the value of the given Evaluator onto the stack. Literals and attribute references are generated inline; anything else is generated as a separate method.
+     */
+    private void loadValue(final MethodWriter method, final Evaluator<?> evaluator) {
+        if (isLiteral(evaluator)) {
+            final Object value = evaluator.evaluate(null).getValue();
+            if (value == null) {
+                method.insn(ACONST_NULL);
+            } else if (value instanceof String) {
+                method.ldcString((String) value);
+            } else {
+                loadConstant(method, value, OBJECT);
+            }
+        } else if (evaluator instanceof AttributeEvaluator) {
+            final Evaluator<String> nameEvaluator = ((AttributeEvaluator) evaluator).getNameEvaluator();
+            method.varInsn(ALOAD, 1);
+            loadValue(method, nameEvaluator, isLiteral(nameEvaluator) ? null : STRING);
+            method.methodInsn(INVOKEINTERFACE, EVALUATION_CONTEXT, "getExpressionValue", "(L" + STRING + ";)L" + STRING + ";");
+        } else {
+            final String methodName = compileNode(evaluator);
+            method.varInsn(ALOAD, 0);
+            method.varInsn(ALOAD, 1);
+            method.methodInsn(INVOKESPECIAL, GENERATED_CLASS_NAME, methodName, NODE_DESCRIPTOR);
+        }
+    }
+
+    private void loadConstant(final MethodWriter method, final Object value, final String type) {
+        final int index = constants.size();
+        constants.add(value);
+
+        method.varInsn(ALOAD, 0);
+        method.fieldInsn(GETFIELD, GENERATED_CLASS_NAME, "constants", "[L" + OBJECT + ";");
+        method.pushInt(index);
+        method.insn(AALOAD);
+        if (!OBJECT.equals(type)) {
+            method.typeInsn(CHECKCAST, type);
+        }
+    }
+
+    private static boolean isLiteral(final Evaluator<?> evaluator) {
+        return evaluator instanceof StringLiteralEvaluator || evaluator instanceof WholeNumberLiteralEvaluator
+            || evaluator instanceof DecimalLiteralEvaluator || evaluator instanceof BooleanLiteralEvaluator;
+    }
+
+    private static String internalName(final Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+}
@@ -0,0 +1,636 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * A minimal writer of Java class files, providing only what is needed by the {@link BytecodeExpressionCompiler}: a single field, methods whose
+ * local variables all hold references, and forward or backward jumps between instructions.
+ * </p>
+ *
+ * <p>
+ * Every method is written so that the operand stack is empty whenever a jump is taken and so that all local variables are assigned before the first
+ * jump target. As a result, the stack map frame is the same at every jump target, which keeps the StackMapTable that is required by the verifier trivial.
+ * The {@link MethodWriter} tracks the depth of the operand stack and the local variables that have been assigned as instructions are added, and throws an
+ * {@link IllegalStateException} as soon as an instruction would break either rule, rather than producing a class that fails verification when it is loaded.
+ * </p>
+ */
+final class ClassFileWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int ASTORE = 0x3a;
+    static final int DUP = 0x59;
+    static final int LADD = 0x61;
+    static final int DADD = 0x63;
+    static final int LSUB = 0x65;
+    static final int DSUB = 0x67;
+    static final int LMUL = 0x69;
+    static final int DMUL = 0x6b;
+    static final int LDIV = 0x6d;
+    static final int DDIV = 0x6f;
+    static final int LREM = 0x71;
+    static final int DREM = 0x73;
+    static final int I2L = 0x85;
+    static final int LCMP = 0x94;
+    static final int DCMPL = 0x97;
+    static final int DCMPG = 0x98;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int GOTO = 0xa7;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETSTATIC = 0xb2;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int NEW = 0xbb;
+    static final int CHECKCAST = 0xc0;
+    static final int INSTANCEOF = 0xc1;
+    static final int IFNULL = 0xc6;
+    static final int IFNONNULL = 0xc7;
+
+    // Java 17 class files; nothing newer is needed.
+    private static final int MAJOR_VERSION = 61;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int ITEM_OBJECT = 7;
+    private static final int SAME_FRAME_EXTENDED = 251;
+    private static final int FULL_FRAME = 255;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constantIndices = new HashMap<>();
+    private int constantCount = 1;
+
+    private final String className;
+    private final String superName;
+    private final String interfaceName;
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<MethodWriter> methods = new ArrayList<>();
+
+    ClassFileWriter(final String className, final String superName, final String interfaceName) {
+        this.className = className;
+        this.superName = superName;
+        this.interfaceName = interfaceName;
+    }
+
+    void addField(final int access, final String name, final String descriptor) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(0);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        fields.add(baos.toByteArray());
+    }
+
+    /**
+     * Adds a method to the class. The method's local variables are <code>this</code>, followed by the method's reference parameters,
+     * followed by the given number of variables of type Object, which the caller must assign before the first jump target.
+     */
+    MethodWriter addMethod(final int access, final String name, final String descriptor, final List<String> parameterTypes, final int variableCount) {
+        final MethodWriter method = new MethodWriter(access, name, descriptor, parameterTypes, variableCount);
+        methods.add(method);
+        return method;
+    }
+
+    byte[] toByteArray() {
+        // Resolve every constant before the constant pool is written.
+        final int thisClassIndex = classRef(className);
+        final int superClassIndex = classRef(superName);
+        final int interfaceIndex = classRef(interfaceName);
+        final List<byte[]> methodBytes = new ArrayList<>();
+        for (final MethodWriter method : methods) {
+            methodBytes.add(method.toByteArray());
+        }
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constantCount);
+            constantPool.flush();
+            constantPoolBytes.writeTo(out);
+
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClassIndex);
+            out.writeShort(superClassIndex);
+            out.writeShort(1);
+            out.writeShort(interfaceIndex);
+
+            out.writeShort(fields.size());
+            for (final byte[] field : fields) {
+                out.write(field);
+            }
+
+            out.writeShort(methodBytes.size());
+            for (final byte[] method : methodBytes) {
+                out.write(method);
+            }
+
+            out.writeShort(0);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return baos.toByteArray();
+    }
+
+    int utf8(final String value) {
+        final String key = "U" + value;
+        final Integer existing = constantIndices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            constantPool.writeByte(CONSTANT_UTF8);
+            constantPool.writeUTF(value);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return register(key);
+    }
+
+    int classRef(final String internalName) {
+        return reference("C" + internalName, CONSTANT_CLASS, utf8(internalName));
+    }
+
+    int stringRef(final String value) {
+        return reference("S" + value, CONSTANT_STRING, utf8(value));
+    }
+
+    int fieldRef(final String owner, final String name, final String descriptor) {
+        return memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(final String owner, final String name, final String descriptor, final boolean isInterface) {
+        return memberRef(isInterface ? CONSTANT_INTERFACE_METHODREF : CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    private int memberRef(final int tag, final String owner, final String name, final String descriptor) {
+        final String key = tag + owner + "." + name + ":" + descriptor;
+        final Integer existing = constantIndices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int classIndex = classRef(owner);
+        final int nameAndTypeIndex = reference("N" + name + ":" + descriptor, CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+        return reference(key, tag, classIndex, nameAndTypeIndex);
+    }
+
+    private int reference(final String key, final int tag, final int... indices) {
+        final Integer existing = constantIndices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            constantPool.writeByte(tag);
+            for (final int index : indices) {
+                constantPool.writeShort(index);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return register(key);
+    }
+
+    private int register(final String key) {
+        if (constantCount >= 0xFFFF) {
+            throw new IllegalStateException("Too many constants in class " + className);
+        }
+
+        final int index = constantCount++;
+        constantIndices.put(key, index);
+        return index;
+    }
+
+    static final class Label {
+        private int offset = -1;
+        private final List<Integer> jumpOffsets = new ArrayList<>();
+    }
+
+    final class MethodWriter {
+        private final int access;
+        private final String name;
+        private final String descriptor;
+        private final List<String> localTypes = new ArrayList<>();
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final List<Label> labels = new ArrayList<>();
+        private final int firstVariable;
+        private final BitSet assignedVariables = new BitSet();
+        private int stackDepth = 0;
+        private int maxStackDepth = 0;
+        private boolean reachable = true;
+
+        private MethodWriter(final int access, final String name, final String descriptor, final List<String> parameterTypes, final int variableCount) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+
+            localTypes.add(className);
+            localTypes.addAll(parameterTypes);
+            firstVariable = localTypes.size();
+            for (int i = 0; i < variableCount; i++) {
+                localTypes.add("java/lang/Object");
+            }
+        }
+
+        /**
+         * @return the index of the first local variable that is not <code>this</code> or a parameter
+         */
+        int firstVariable() {
+            return firstVariable;
+        }
+
+        void insn(final int opcode) {
+            switch (opcode) {
+                case ACONST_NULL, DUP, I2L -> push(1);
+                case AALOAD -> pop(1);
+                case LADD, LSUB, LMUL, LDIV, LREM, DADD, DSUB, DMUL, DDIV, DREM -> pop(2);
+                case LCMP, DCMPL, DCMPG -> {
+                    pop(4);
+                    push(1);
+                }
+                case ARETURN -> {
+                    pop(1);
+                    endOfBlock();
+                }
+                case RETURN -> endOfBlock();
+                default -> throw new IllegalArgumentException("Instruction " + opcode + " is not supported");
+            }
+
+            code.write(opcode);
+        }
+
+        void varInsn(final int opcode, final int index) {
+            if (opcode == ASTORE) {
+                pop(1);
+                assignedVariables.set(index);
+            } else if (opcode == ALOAD) {
+                if (index >= firstVariable && !assignedVariables.get(index)) {
+                    throw new IllegalStateException("Local variable " + index + " in method " + name + " is read before it is assigned");
+                }
+                push(1);
+            } else {
+                throw new IllegalArgumentException("Instruction " + opcode + " is not supported");
+            }
+
+            code.write(opcode);
+            code.write(index);
+        }
+
+        void typeInsn(final int opcode, final String internalName) {
+            if (opcode == NEW) {
+                push(1);
+            } else if (opcode == CHECKCAST || opcode == INSTANCEOF) {
+                pop(1);
+                push(1);
+            } else {
+                throw new IllegalArgumentException("Instruction " + opcode + " is not supported");
+            }
+
+            code.write(opcode);
+            writeShort(classRef(internalName));
+        }
+
+        void fieldInsn(final int opcode, final String owner, final String fieldName, final String fieldDescriptor) {
+            final int fieldSlots = typeSlots(fieldDescriptor.charAt(0));
+            switch (opcode) {
+                case GETSTATIC -> push(fieldSlots);
+                case GETFIELD -> {
+                    pop(1);
+                    push(fieldSlots);
+                }
+                case PUTFIELD -> pop(1 + fieldSlots);
+                default -> throw new IllegalArgumentException("Instruction " + opcode + " is not supported");
+            }
+
+            code.write(opcode);
+            writeShort(fieldRef(owner, fieldName, fieldDescriptor));
+        }
+
+        void methodInsn(final int opcode, final String owner, final String methodName, final String methodDescriptor) {
+            final boolean isInterface = opcode == INVOKEINTERFACE;
+            pop(argumentSlots(methodDescriptor) + (opcode == INVOKESTATIC ? 0 : 1));
+            push(typeSlots(methodDescriptor.charAt(methodDescriptor.indexOf(')') + 1)));
+
+            code.write(opcode);
+            writeShort(methodRef(owner, methodName, methodDescriptor, isInterface));
+            if (isInterface) {
+                code.write(argumentSlots(methodDescriptor) + 1);
+                code.write(0);
+            }
+        }
+
+        void ldcString(final String value) {
+            ldc(stringRef(value));
+        }
+
+        void ldcClass(final String internalName) {
+            ldc(classRef(internalName));
+        }
+
+        private void ldc(final int index) {
+            push(1);
+            if (index <= 0xFF) {
+                code.write(LDC);
+                code.write(index);
+            } else {
+                code.write(LDC_W);
+                writeShort(index);
+            }
+        }
+
+        void pushInt(final int value) {
+            push(1);
+            if (value >= -1 && value <= 5) {
+                code.write(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.write(0x10);
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.write(0x11);
+                writeShort(value);
+            } else {
+                throw new IllegalArgumentException("Integer constant " + value + " is out of range");
+            }
+        }
+
+        Label newLabel() {
+            final Label label = new Label();
+            labels.add(label);
+            return label;
+        }
+
+        void jump(final int opcode, final Label label) {
+            if (opcode != GOTO) {
+                pop(1);
+            }
+            requireFrameAtJump("Jump");
+
+            label.jumpOffsets.add(code.size());
+            code.write(opcode);
+            writeShort(0);
+
+            if (opcode == GOTO) {
+                endOfBlock();
+            }
+        }
+
+        void mark(final Label label) {
+            if (reachable) {
+                requireFrameAtJump("Jump target");
+            }
+
+            label.offset = code.size();
+            stackDepth = 0;
+            reachable = true;
+        }
+
+        /**
+         * Ensures that the frame at a jump or jump target is the one frame that is used for every jump target of the method: an empty operand stack
+         * and every local variable assigned
+         */
+        private void requireFrameAtJump(final String description) {
+            if (stackDepth != 0) {
+                throw new IllegalStateException(description + " at offset " + code.size() + " in method " + name + " has " + stackDepth
+                    + " slots on the operand stack but the operand stack must be empty");
+            }
+
+            final int unassigned = assignedVariables.nextClearBit(firstVariable);
+            if (unassigned < localTypes.size()) {
+                throw new IllegalStateException(description + " at offset " + code.size() + " in method " + name + " comes before local variable "
+                    + unassigned + " is assigned");
+            }
+        }
+
+        private void push(final int slots) {
+            requireReachable();
+            stackDepth += slots;
+            maxStackDepth = Math.max(maxStackDepth, stackDepth);
+        }
+
+        private void pop(final int slots) {
+            requireReachable();
+            if (slots > stackDepth) {
+                throw new IllegalStateException("Instruction at offset " + code.size() + " in method " + name + " pops " + slots
+                    + " slots from an operand stack that holds " + stackDepth);
+            }
+
+            stackDepth -= slots;
+        }
+
+        private void requireReachable() {
+            if (!reachable) {
+                throw new IllegalStateException("Instruction at offset " + code.size() + " in method " + name + " is unreachable because it follows a return or jump");
+            }
+        }
+
+        private void endOfBlock() {
+            requireReachable();
+            if (stackDepth != 0) {
+                throw new IllegalStateException("Method " + name + " leaves " + stackDepth + " slots on the operand stack at offset " + code.size());
+            }
+            reachable = false;
+        }
+
+        private void writeShort(final int value) {
+            code.write((value >> 8) & 0xFF);
+            code.write(value & 0xFF);
+        }
+
+        private byte[] toByteArray() {
+            if (reachable) {
+                throw new IllegalStateException("Method " + name + " does not end with a return or jump");
+            }
+
+            final byte[] instructions = code.toByteArray();
+            if (instructions.length >= 0x7FFF) {
+                throw new IllegalStateException("Method " + name + " is too large");
+            }
+
+            final TreeSet<Integer> frameOffsets = new TreeSet<>();
+            for (final Label label : labels) {
+                if (label.jumpOffsets.isEmpty()) {
+                    continue;
+                }
+                if (label.offset < 0) {
+                    throw new IllegalStateException("Label in method " + name + " was never marked");
+                }
+
+                frameOffsets.add(label.offset);
+                for (final int jumpOffset : label.jumpOffsets) {
+                    final int delta = label.offset - jumpOffset;
+                    instructions[jumpOffset + 1] = (byte) (delta >> 8);
+                    instructions[jumpOffset + 2] = (byte) delta;
+                }
+            }
+
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            final int codeIndex = utf8("Code");
+            final byte[] stackMapTable = frameOffsets.isEmpty() ? null : createStackMapTable(frameOffsets);
+            final int stackMapTableIndex = stackMapTable == null ? 0 : utf8("StackMapTable");
+
+            final ByteArrayOutputStream codeAttribute = new ByteArrayOutputStream();
+            try (final DataOutputStream out = new DataOutputStream(codeAttribute)) {
+                out.writeShort(maxStackDepth);
+                out.writeShort(localTypes.size());
+                out.writeInt(instructions.length);
+                out.write(instructions);
+                out.writeShort(0);
+                if (stackMapTable == null) {
+                    out.writeShort(0);
+                } else {
+                    out.writeShort(1);
+                    out.writeShort(stackMapTableIndex);
+                    out.writeInt(stackMapTable.length);
+                    out.write(stackMapTable);
+                }
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (final DataOutputStream out = new DataOutputStream(baos)) {
+                out.writeShort(access);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+                out.writeShort(1);
+                out.writeShort(codeIndex);
+                out.writeInt(codeAttribute.size());
+                codeAttribute.writeTo(out);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return baos.toByteArray();
+        }
+
+        private byte[] createStackMapTable(final TreeSet<Integer> frameOffsets) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (final DataOutputStream out = new DataOutputStream(baos)) {
+                out.writeShort(frameOffsets.size());
+
+                int previousOffset = -1;
+                for (final int offset : frameOffsets) {
+                    final int offsetDelta = previousOffset < 0 ? offset : offset - previousOffset - 1;
+                    if (previousOffset < 0) {
+                        out.writeByte(FULL_FRAME);
+                        out.writeShort(offsetDelta);
+                        out.writeShort(localTypes.size());
+                        for (final String localType : localTypes) {
+                            out.writeByte(ITEM_OBJECT);
+                            out.writeShort(classRef(localType));
+                        }
+                        out.writeShort(0);
+                    } else if (offsetDelta < 64) {
+                        out.writeByte(offsetDelta);
+                    } else {
+                        out.writeByte(SAME_FRAME_EXTENDED);
+                        out.writeShort(offsetDelta);
+                    }
+
+                    previousOffset = offset;
+                }
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return baos.toByteArray();
+        }
+    }
+
+    private static int typeSlots(final char descriptor) {
+        return switch (descriptor) {
+            case 'V' -> 0;
+            case 'J', 'D' -> 2;
+            default -> 1;
+        };
+    }
+
+    private static int argumentSlots(final String methodDescriptor) {
+        int slots = 0;
+        int i = 1;
+        while (methodDescriptor.charAt(i) != ')') {
+            final char c = methodDescriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+                i++;
+            } else if (c == 'L') {
+                slots++;
+                i = methodDescriptor.indexOf(';', i) + 1;
+            } else if (c == '[') {
+                while (methodDescriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (methodDescriptor.charAt(i) == 'L') {
+                    i = methodDescriptor.indexOf(';', i) + 1;
+                } else {
+                    i++;
+                }
+                slots++;
+            } else {
+                slots++;
+                i++;
+            }
+        }
+
+        return slots;
+    }
+}
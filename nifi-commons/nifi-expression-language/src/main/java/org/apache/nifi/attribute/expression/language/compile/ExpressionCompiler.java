@@ -287,7 +287,7 @@ public class ExpressionCompiler {
             final Set<Evaluator<?>> allEvaluators = new HashSet<>(evaluators);
             this.evaluators.clear();
 
-            return new CompiledExpression(expression, evaluator, tree, allEvaluators);
+            return new CompiledExpression(expression, evaluator, tree, allEvaluators, BytecodeExpressionCompiler.getCompileThreshold());
         } catch (final AttributeExpressionLanguageParsingException e) {
             throw e;
         } catch (final Exception e) {
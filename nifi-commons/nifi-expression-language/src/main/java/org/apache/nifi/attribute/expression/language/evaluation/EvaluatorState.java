@@ -28,7 +28,8 @@ import java.util.Map;
  */
 public class EvaluatorState {
 
-    private final Map<Evaluator<?>, Object> statePerEvaluator = new HashMap<>();
+    // Created only when state is first stored, as most Expressions never store any state
+    private Map<Evaluator<?>, Object> statePerEvaluator;
 
     /**
      * Fetches state for the given evaluator, casting it into the given type
@@ -38,6 +39,9 @@ public class EvaluatorState {
      * @return the state for the given Evaluator, or <code>null</code> if no state has been stored
      */
     public <T> T getState(Evaluator<?> evaluator, Class<T> clazz) {
+        if (statePerEvaluator == null) {
+            return null;
+        }
         return clazz.cast(statePerEvaluator.get(evaluator));
     }
 
@@ -47,6 +51,9 @@ public class EvaluatorState {
      * @param state the state to store
      */
     public void putState(Evaluator<?> evaluator, Object state) {
+        if (statePerEvaluator == null) {
+            statePerEvaluator = new HashMap<>();
+        }
         statePerEvaluator.put(evaluator, state);
     }
 
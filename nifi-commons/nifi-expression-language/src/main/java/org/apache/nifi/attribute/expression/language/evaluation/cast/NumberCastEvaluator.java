@@ -17,19 +17,17 @@
 package org.apache.nifi.attribute.expression.language.evaluation.cast;
 
 import org.apache.nifi.attribute.expression.language.EvaluationContext;
-import org.apache.nifi.attribute.expression.language.evaluation.DateQueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.DecimalQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
-import org.apache.nifi.attribute.expression.language.evaluation.InstantQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.NumberEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.NumberQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.QueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.StringQueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.WholeNumberQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.util.NumberParsing;
 import org.apache.nifi.attribute.expression.language.exception.AttributeExpressionLanguageParsingException;
 import org.apache.nifi.expression.AttributeExpression.ResultType;
 
+import java.time.Instant;
+import java.util.Date;
+
 public class NumberCastEvaluator extends NumberEvaluator {
 
     private final Evaluator<?> subjectEvaluator;
@@ -44,45 +42,51 @@ public class NumberCastEvaluator extends NumberEvaluator {
     @Override
     public QueryResult<Number> evaluate(final EvaluationContext evaluationContext) {
         final QueryResult<?> result = subjectEvaluator.evaluate(evaluationContext);
-        if (result.getValue() == null) {
-            return new NumberQueryResult(null);
+        return new NumberQueryResult(toNumber(result.getValue()));
+    }
+
+    /**
+     * Converts the value of a Whole Number, Decimal, Number, String, Date, or Instant to a Number
+     *
+     * @param value the value to convert
+     * @return the converted value, or <code>null</code> if the value is <code>null</code> or cannot be converted
+     */
+    public static Number toNumber(final Object value) {
+        if (value == null) {
+            return null;
         }
 
-        switch (result.getResultType()) {
-            case NUMBER:
-                return (NumberQueryResult) result;
-            case WHOLE_NUMBER:
-                Long longValue = ((WholeNumberQueryResult) result).getValue();
-                return new NumberQueryResult(longValue);
-            case DECIMAL:
-                Double doubleValue = ((DecimalQueryResult) result).getValue();
-                return new NumberQueryResult(doubleValue);
-            case STRING:
-                final String trimmed = ((StringQueryResult) result).getValue().trim();
-                NumberParsing.ParseResultType parseType = NumberParsing.parse(trimmed);
-                switch (parseType) {
-                    case DECIMAL:
-                        return new NumberQueryResult(Double.valueOf(trimmed));
-                    case WHOLE_NUMBER:
-                        Long resultValue;
-                        try {
-                            resultValue = Long.valueOf(trimmed);
-                        } catch (NumberFormatException e) {
-                            // Will only occur if trimmed is a hex number
-                            resultValue = Long.decode(trimmed);
-                        }
-                        return new NumberQueryResult(resultValue);
-                    case NOT_NUMBER:
-                    default:
-                        return new NumberQueryResult(null);
-                }
-            case DATE:
-                return new NumberQueryResult(((DateQueryResult) result).getValue().getTime());
-            case INSTANT:
-                return new NumberQueryResult(((InstantQueryResult) result).getValue().toEpochMilli());
-            default:
-                return new NumberQueryResult(null);
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value instanceof String) {
+            final String trimmed = ((String) value).trim();
+            NumberParsing.ParseResultType parseType = NumberParsing.parse(trimmed);
+            switch (parseType) {
+                case DECIMAL:
+                    return Double.valueOf(trimmed);
+                case WHOLE_NUMBER:
+                    Long resultValue;
+                    try {
+                        resultValue = Long.valueOf(trimmed);
+                    } catch (NumberFormatException e) {
+                        // Will only occur if trimmed is a hex number
+                        resultValue = Long.decode(trimmed);
+                    }
+                    return resultValue;
+                case NOT_NUMBER:
+                default:
+                    return null;
+            }
         }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Instant) {
+            return ((Instant) value).toEpochMilli();
+        }
+
+        return null;
     }
 
     @Override
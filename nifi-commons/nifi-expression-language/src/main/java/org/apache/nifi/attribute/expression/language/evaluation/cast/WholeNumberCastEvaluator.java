@@ -17,19 +17,17 @@
 package org.apache.nifi.attribute.expression.language.evaluation.cast;
 
 import org.apache.nifi.attribute.expression.language.EvaluationContext;
-import org.apache.nifi.attribute.expression.language.evaluation.DateQueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.DecimalQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
-import org.apache.nifi.attribute.expression.language.evaluation.InstantQueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.NumberQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.QueryResult;
-import org.apache.nifi.attribute.expression.language.evaluation.StringQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.WholeNumberEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.WholeNumberQueryResult;
 import org.apache.nifi.attribute.expression.language.evaluation.util.NumberParsing;
 import org.apache.nifi.attribute.expression.language.exception.AttributeExpressionLanguageParsingException;
 import org.apache.nifi.expression.AttributeExpression.ResultType;
 
+import java.time.Instant;
+import java.util.Date;
+
 public class WholeNumberCastEvaluator extends WholeNumberEvaluator {
 
     private final Evaluator<?> subjectEvaluator;
@@ -44,46 +42,55 @@ public class WholeNumberCastEvaluator extends WholeNumberEvaluator {
     @Override
     public QueryResult<Long> evaluate(final EvaluationContext evaluationContext) {
         final QueryResult<?> result = subjectEvaluator.evaluate(evaluationContext);
-        if (result.getValue() == null) {
-            return new WholeNumberQueryResult(null);
+        return new WholeNumberQueryResult(toWholeNumber(result.getValue()));
+    }
+
+    /**
+     * Converts the value of a Whole Number, Decimal, Number, String, Date, or Instant to a Whole Number
+     *
+     * @param value the value to convert
+     * @return the converted value, or <code>null</code> if the value is <code>null</code> or cannot be converted
+     */
+    public static Long toWholeNumber(final Object value) {
+        if (value == null) {
+            return null;
         }
 
-        switch (result.getResultType()) {
-            case WHOLE_NUMBER:
-                return (WholeNumberQueryResult) result;
-            case STRING:
-                final String trimmed = ((StringQueryResult) result).getValue().trim();
-                NumberParsing.ParseResultType parseType = NumberParsing.parse(trimmed);
-                switch (parseType){
-                    case DECIMAL:
-                        final Double doubleResultValue = Double.valueOf(trimmed);
-                        return new WholeNumberQueryResult(doubleResultValue.longValue());
-                    case WHOLE_NUMBER:
-                        Long longResultValue;
-                        try {
-                            longResultValue = Long.valueOf(trimmed);
-                        } catch (NumberFormatException e){
-                            // Will only occur if trimmed is a hex number
-                            longResultValue = Long.decode(trimmed);
-                        }
-                        return new WholeNumberQueryResult(longResultValue);
-                    case NOT_NUMBER:
-                    default:
-                        return new WholeNumberQueryResult(null);
-                }
-            case DATE:
-                return new WholeNumberQueryResult(((DateQueryResult) result).getValue().getTime());
-            case INSTANT:
-                return new WholeNumberQueryResult(((InstantQueryResult) result).getValue().toEpochMilli());
-            case DECIMAL:
-                final Double resultValue = ((DecimalQueryResult) result).getValue();
-                return new WholeNumberQueryResult(resultValue.longValue());
-            case NUMBER:
-                final Number numberValue = ((NumberQueryResult) result).getValue();
-                return new WholeNumberQueryResult(numberValue.longValue());
-            default:
-                return new WholeNumberQueryResult(null);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        if (value instanceof String) {
+            final String trimmed = ((String) value).trim();
+            NumberParsing.ParseResultType parseType = NumberParsing.parse(trimmed);
+            switch (parseType){
+                case DECIMAL:
+                    final Double doubleResultValue = Double.valueOf(trimmed);
+                    return doubleResultValue.longValue();
+                case WHOLE_NUMBER:
+                    Long longResultValue;
+                    try {
+                        longResultValue = Long.valueOf(trimmed);
+                    } catch (NumberFormatException e){
+                        // Will only occur if trimmed is a hex number
+                        longResultValue = Long.decode(trimmed);
+                    }
+                    return longResultValue;
+                case NOT_NUMBER:
+                default:
+                    return null;
+            }
         }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Instant) {
+            return ((Instant) value).toEpochMilli();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
+        return null;
     }
 
     @Override
@@ -46,4 +46,8 @@ public class AppendEvaluator extends StringEvaluator {
     public Evaluator<?> getSubjectEvaluator() {
         return subject;
     }
+
+    public Evaluator<String> getAppendEvaluator() {
+        return appendEvaluator;
+    }
 }
@@ -51,20 +51,33 @@ public class EqualsEvaluator extends BooleanEvaluator {
             return new BooleanQueryResult(a.equals(b));
         }
 
-        final String normalizedSubjectValue = normalizeValue(subject.getResultType(), a);
+        return new BooleanQueryResult(isNormalizedValueEqual(subject.getResultType(), a, compareTo.getResultType(), b));
+    }
+
+    /**
+     * Compares two values of different Data Types by converting each of them to a String
+     *
+     * @param subjectType the Data Type of the subject value
+     * @param subjectValue the subject value
+     * @param compareToType the Data Type of the value to compare to
+     * @param compareToValue the value to compare to
+     * @return <code>true</code> if both values are non-null and their String representations are equal
+     */
+    public static boolean isNormalizedValueEqual(final ResultType subjectType, final Object subjectValue, final ResultType compareToType, final Object compareToValue) {
+        final String normalizedSubjectValue = normalizeValue(subjectType, subjectValue);
         if (normalizedSubjectValue == null) {
-            return new BooleanQueryResult(false);
+            return false;
         }
 
-        final String normalizedCompareToValue = normalizeValue(compareTo.getResultType(), b);
+        final String normalizedCompareToValue = normalizeValue(compareToType, compareToValue);
         if (normalizedCompareToValue == null) {
-            return new BooleanQueryResult(false);
+            return false;
         }
 
-        return new BooleanQueryResult(normalizedSubjectValue.equals(normalizedCompareToValue));
+        return normalizedSubjectValue.equals(normalizedCompareToValue);
     }
 
-    private String normalizeValue(final ResultType type, final Object value) {
+    private static String normalizeValue(final ResultType type, final Object value) {
         if (value == null) {
             return null;
         }
@@ -86,4 +99,8 @@ public class EqualsEvaluator extends BooleanEvaluator {
         return subject;
     }
 
+    public Evaluator<?> getCompareToEvaluator() {
+        return compareTo;
+    }
+
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import org.apache.nifi.attribute.expression.language.compile.BytecodeExpressionCompiler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+/**
+ * Runs all of the tests in {@link TestQuery} with every Expression compiled into bytecode the first time that it is evaluated,
+ * in order to verify that compiled Expressions give the same results as interpreted Expressions. Compilation is strict, so an Expression that
+ * cannot be compiled fails the test rather than being interpreted.
+ */
+public class TestQueryWithBytecodeCompilation extends TestQuery {
+
+    @BeforeAll
+    public static void enableBytecodeCompilation() {
+        System.setProperty(BytecodeExpressionCompiler.BYTECODE_ENABLED_PROPERTY, "true");
+        System.setProperty(BytecodeExpressionCompiler.COMPILE_THRESHOLD_PROPERTY, "0");
+        System.setProperty(BytecodeExpressionCompiler.STRICT_PROPERTY, "true");
+    }
+
+    @AfterAll
+    public static void disableBytecodeCompilation() {
+        System.clearProperty(BytecodeExpressionCompiler.BYTECODE_ENABLED_PROPERTY);
+        System.clearProperty(BytecodeExpressionCompiler.COMPILE_THRESHOLD_PROPERTY);
+        System.clearProperty(BytecodeExpressionCompiler.STRICT_PROPERTY);
+    }
+}
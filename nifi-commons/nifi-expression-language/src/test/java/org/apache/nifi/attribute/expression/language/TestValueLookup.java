@@ -17,13 +17,19 @@
 package org.apache.nifi.attribute.expression.language;
 
 import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.parameter.ParameterLookup;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestValueLookup {
@@ -83,7 +89,68 @@ public class TestValueLookup {
         assertEquals("done you are now overridden", newOverriddenLookup.get("override me"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlowFilePropertiesResolvedByName() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("fileSize", "attribute value");
+        final ValueLookup lookup = new ValueLookup(createFlowFile(), null, Collections.emptyMap(), attributes);
+
+        // Additional maps take precedence over FlowFile properties, which take precedence over FlowFile attributes
+        assertEquals("attribute value", lookup.get("fileSize"));
+        assertEquals("null", lookup.get("lastQueueDate"));
+        assertEquals("0", lookup.get("queueDateIndex"));
+        assertEquals("original", lookup.get("override me"));
+        assertNull(lookup.get("fake.property.3"));
+        assertNull(lookup.get(null));
+
+        final Set<String> keys = lookup.getKeysAddressableByMultiMatch();
+        assertTrue(keys.containsAll(ValueLookup.extractFlowFileProperties(createFlowFile()).keySet()));
+        assertTrue(keys.contains("filename"));
+        assertTrue(keys.contains("fileSize"));
+        assertEquals("attribute value", lookup.entrySet().stream()
+            .filter(entry -> entry.getKey().equals("fileSize"))
+            .findFirst()
+            .map(Map.Entry::getValue)
+            .orElse(null));
+    }
+
+    /**
+     * Reports the number of bytes allocated per evaluation of a simple Expression against a FlowFile
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testEvaluationAllocationRate() {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+        final PreparedQuery query = Query.prepare("${filename:endsWith('.csv')}");
+        final FlowFile flowFile = createFlowFile();
+        final int evaluations = 10_000_000;
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            final long start = System.nanoTime();
+            int matches = 0;
+            for (int i = 0; i < evaluations; i++) {
+                final ValueLookup lookup = new ValueLookup(flowFile);
+                final String result = query.evaluateExpressions(new StandardEvaluationContext(lookup, Collections.emptyMap(), ParameterLookup.EMPTY), null);
+                if (Boolean.parseBoolean(result)) {
+                    matches++;
+                }
+            }
+            final long nanos = System.nanoTime() - start;
+            final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            System.out.printf("Evaluated %,d times (%,d matches): %,d nanos and %,d bytes allocated per evaluation%n",
+                evaluations, matches, nanos / evaluations, allocated / evaluations);
+        }
+    }
+
     private FlowFile createFlowFile() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "fakefile.txt");
+        attributes.put("override me", "original");
+
         return new FlowFile() {
             @Override
             public long getId() {
@@ -132,9 +199,6 @@ public class TestValueLookup {
 
             @Override
             public Map<String, String> getAttributes() {
-                Map<String, String> attributes = new HashMap<>();
-                attributes.put("filename", "fakefile.txt");
-                attributes.put("override me", "original");
                 return attributes;
             }
 
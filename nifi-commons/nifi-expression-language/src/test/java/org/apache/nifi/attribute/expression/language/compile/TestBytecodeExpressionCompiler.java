@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestBytecodeExpressionCompiler {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+        "${id}",
+        "${status:equals('OK'):or(${status:equalsIgnoreCase('success')})}",
+        "${filename:endsWith('.csv'):and(${fileSize:gt(1024)})}",
+        "${name:contains('ab'):and(${name:startsWith('a')}):or(${name:endsWith('z')})}",
+        "${count:equals(5)}",
+        "${count:toNumber():equals(5)}",
+        "${count:toNumber():mod(7):ge(3)}",
+        "${count:plus(1):multiply(2):minus(${fileSize}):divide(3)}",
+        "${fileSize:toDecimal():divide(3):lt(1.5E3)}",
+        "${fileSize:le(${count})}",
+        "${name:trim():toUpper():append('-'):append(${id})}",
+        "${name:toLower():prepend(${status})}",
+        "${name:length():lt(5)}",
+        "${name:isEmpty():not()}",
+        "${id:isNull()}",
+        "${id:notNull():and(${id:isEmpty()})}",
+        "${missing:replaceNull('default'):prepend('x')}",
+        "${name:replaceEmpty(${id})}",
+        "${flag:ifElse('yes', 'no')}",
+        "${status:equals('OK'):ifElse(${name}, ${id})}",
+        "${name:substring(1):equals('bc')}",
+        "${anyAttribute('name', 'id'):contains('a'):and(${count:gt(2)})}",
+        "${allAttributes('name', 'status'):isEmpty():or(${flag})}",
+        "${literal(5):plus(${count})}",
+        "${${reference}:toUpper()}"
+    );
+
+    private static final List<Map<String, String>> ATTRIBUTE_MAPS = createAttributeMaps();
+
+    private String lastValue;
+
+    @AfterEach
+    public void clearProperties() {
+        System.clearProperty(BytecodeExpressionCompiler.BYTECODE_ENABLED_PROPERTY);
+        System.clearProperty(BytecodeExpressionCompiler.COMPILE_THRESHOLD_PROPERTY);
+        System.clearProperty(BytecodeExpressionCompiler.STRICT_PROPERTY);
+    }
+
+    @Test
+    public void testCompiledExpressionsMatchInterpretedExpressions() {
+        for (final String expression : EXPRESSIONS) {
+            final Evaluator<?> rootEvaluator = new ExpressionCompiler().compile(expression).getRootEvaluator();
+            final CompiledEvaluator compiledEvaluator = BytecodeExpressionCompiler.compile(rootEvaluator, expression);
+            assertNotNull(compiledEvaluator, "Failed to compile " + expression);
+
+            for (final Map<String, String> attributes : ATTRIBUTE_MAPS) {
+                final String interpreted = describe(() -> rootEvaluator.evaluate(new StandardEvaluationContext(attributes)).getValue());
+                final String compiled = describe(() -> compiledEvaluator.evaluate(new StandardEvaluationContext(attributes)));
+                assertEquals(interpreted, compiled, "Unexpected result for " + expression + " with attributes " + attributes);
+            }
+        }
+    }
+
+    @Test
+    public void testCompileThreshold() {
+        assertEquals(-1, BytecodeExpressionCompiler.getCompileThreshold());
+
+        System.setProperty(BytecodeExpressionCompiler.BYTECODE_ENABLED_PROPERTY, "true");
+        assertEquals(BytecodeExpressionCompiler.DEFAULT_COMPILE_THRESHOLD, BytecodeExpressionCompiler.getCompileThreshold());
+
+        System.setProperty(BytecodeExpressionCompiler.COMPILE_THRESHOLD_PROPERTY, "2");
+        assertEquals(2, BytecodeExpressionCompiler.getCompileThreshold());
+
+        final CompiledExpression expression = new ExpressionCompiler().compile("${count:plus(1)}");
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            attributes.put("count", String.valueOf(i));
+            assertEquals(String.valueOf(i + 1), expression.evaluate(new StandardEvaluationContext(attributes), null));
+        }
+    }
+
+    @Test
+    public void testStrictCompilation() {
+        final Evaluator<?> rootEvaluator = new ExpressionCompiler().compile("${id}").getRootEvaluator();
+        // An Equals function without a subject cannot be compiled
+        final Evaluator<?> invalidEvaluator = new EqualsEvaluator(null, new StringLiteralEvaluator("id"));
+
+        System.setProperty(BytecodeExpressionCompiler.STRICT_PROPERTY, "true");
+        assertThrows(IllegalStateException.class, () -> BytecodeExpressionCompiler.compile(invalidEvaluator, "${:equals('id')}"));
+        assertNotNull(BytecodeExpressionCompiler.compile(rootEvaluator, "${id}"));
+
+        System.clearProperty(BytecodeExpressionCompiler.STRICT_PROPERTY);
+        assertNull(BytecodeExpressionCompiler.compile(invalidEvaluator, "${:equals('id')}"));
+    }
+
+    @Test
+    public void testJumpWithValueOnOperandStack() {
+        final ClassFileWriter.MethodWriter method = createMethod(1);
+        method.insn(ClassFileWriter.ACONST_NULL);
+        method.varInsn(ClassFileWriter.ASTORE, method.firstVariable());
+        method.insn(ClassFileWriter.ACONST_NULL);
+        method.insn(ClassFileWriter.ACONST_NULL);
+
+        final ClassFileWriter.Label label = method.newLabel();
+        assertThrows(IllegalStateException.class, () -> method.jump(ClassFileWriter.IFNULL, label));
+    }
+
+    @Test
+    public void testJumpBeforeLocalVariablesAssigned() {
+        final ClassFileWriter.MethodWriter method = createMethod(2);
+        method.insn(ClassFileWriter.ACONST_NULL);
+        method.varInsn(ClassFileWriter.ASTORE, method.firstVariable());
+        method.insn(ClassFileWriter.ACONST_NULL);
+
+        final ClassFileWriter.Label label = method.newLabel();
+        assertThrows(IllegalStateException.class, () -> method.jump(ClassFileWriter.IFNULL, label));
+    }
+
+    @Test
+    public void testJumpTargetWithValueOnOperandStack() {
+        final ClassFileWriter.MethodWriter method = createMethod(0);
+        method.insn(ClassFileWriter.ACONST_NULL);
+
+        final ClassFileWriter.Label label = method.newLabel();
+        assertThrows(IllegalStateException.class, () -> method.mark(label));
+    }
+
+    private ClassFileWriter.MethodWriter createMethod(final int variableCount) {
+        final ClassFileWriter classWriter = new ClassFileWriter("Generated", "java/lang/Object", CompiledEvaluator.class.getName().replace('.', '/'));
+        return classWriter.addMethod(ClassFileWriter.ACC_PUBLIC, "evaluate", "()Ljava/lang/Object;", Collections.emptyList(), variableCount);
+    }
+
+    /**
+     * Compares the time taken to evaluate representative Expressions when they are interpreted and when they are compiled into bytecode
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testEvaluationPerformance() {
+        final int evaluations = 5_000_000;
+        final Map<String, String> attributes = ATTRIBUTE_MAPS.get(1);
+
+        for (final String expressionText : EXPRESSIONS) {
+            final CompiledExpression interpreted = new ExpressionCompiler().compile(expressionText);
+
+            System.setProperty(BytecodeExpressionCompiler.BYTECODE_ENABLED_PROPERTY, "true");
+            System.setProperty(BytecodeExpressionCompiler.COMPILE_THRESHOLD_PROPERTY, "0");
+            final CompiledExpression compiled = new ExpressionCompiler().compile(expressionText);
+            clearProperties();
+
+            for (int iteration = 0; iteration < 3; iteration++) {
+                final long interpretedNanos = time(interpreted, attributes, evaluations);
+                final long compiledNanos = time(compiled, attributes, evaluations);
+                System.out.printf("%s: interpreted %,d nanos per evaluation, compiled %,d nanos per evaluation%n",
+                    expressionText, interpretedNanos / evaluations, compiledNanos / evaluations);
+            }
+        }
+    }
+
+    private long time(final CompiledExpression expression, final Map<String, String> attributes, final int evaluations) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < evaluations; i++) {
+            // Each FlowFile is evaluated with its own EvaluationContext, whose EvaluatorState must not be shared
+            lastValue = expression.evaluate(new StandardEvaluationContext(attributes), null);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private String describe(final Supplier<Object> supplier) {
+        try {
+            final Object value = supplier.get();
+            return value == null ? "null" : value.getClass().getSimpleName() + ":" + value;
+        } catch (final Exception e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static List<Map<String, String>> createAttributeMaps() {
+        final List<Map<String, String>> attributeMaps = new ArrayList<>();
+        attributeMaps.add(new HashMap<>());
+
+        final String[][] values = {
+            {"id", "abc", "", null, " a1 "},
+            {"status", "OK", "success", "FAILED", null},
+            {"filename", "data.csv", "data.json", null, ".csv"},
+            {"fileSize", "2048", "1024", "1.5", "0x10", "oops", null},
+            {"name", "abz", " hello ", "", "abc", null},
+            {"count", "5", "5.0", "-3", "0", " 12 ", null},
+            {"flag", "true", " TRUE ", "no", null},
+            {"reference", "name", "missing", null}
+        };
+
+        // Vary one attribute at a time from a base set of attributes, as well as using each value of every attribute together
+        for (int valueIndex = 1; valueIndex < 7; valueIndex++) {
+            final Map<String, String> attributes = new HashMap<>();
+            for (final String[] attributeValues : values) {
+                final String value = attributeValues[1 + valueIndex % (attributeValues.length - 1)];
+                if (value != null) {
+                    attributes.put(attributeValues[0], value);
+                }
+            }
+            attributeMaps.add(attributes);
+        }
+
+        for (final String[] attributeValues : values) {
+            for (int i = 1; i < attributeValues.length; i++) {
+                final Map<String, String> attributes = new HashMap<>(attributeMaps.get(1));
+                if (attributeValues[i] == null) {
+                    attributes.remove(attributeValues[0]);
+                } else {
+                    attributes.put(attributeValues[0], attributeValues[i]);
+                }
+                attributeMaps.add(attributes);
+            }
+        }
+
+        return attributeMaps;
+    }
+}
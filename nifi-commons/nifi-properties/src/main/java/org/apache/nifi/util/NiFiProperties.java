@@ -78,6 +78,10 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String H2_URL_APPEND = "nifi.h2.url.append";
     public static final String REMOTE_INPUT_HOST = "nifi.remote.input.host";
     public static final String REMOTE_INPUT_PORT = "nifi.remote.input.socket.port";
+    public static final String REMOTE_INPUT_SOCKET_THREAD_MODEL = "nifi.remote.input.socket.thread.model";
+    public static final String REMOTE_INPUT_SOCKET_MAX_SESSIONS = "nifi.remote.input.socket.max.sessions";
+    public static final String REMOTE_INPUT_SOCKET_MAX_QUEUED_SESSIONS = "nifi.remote.input.socket.max.queued.sessions";
+    public static final String REMOTE_INPUT_SOCKET_QUEUED_SESSION_TIMEOUT = "nifi.remote.input.socket.queued.session.timeout";
     public static final String SITE_TO_SITE_SECURE = "nifi.remote.input.secure";
     public static final String SITE_TO_SITE_HTTP_ENABLED = "nifi.remote.input.http.enabled";
     public static final String SITE_TO_SITE_HTTP_TRANSACTION_TTL = "nifi.remote.input.http.transaction.ttl";
@@ -85,6 +89,14 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
+    public static final String PROCESSOR_SCHEDULING_MODE = "nifi.processor.scheduling.mode";
+    public static final String PROCESSOR_SCHEDULING_EVENT_DRIVEN_THREAD_PERCENTAGE = "nifi.processor.scheduling.event.driven.thread.percentage";
+    public static final String PROCESSOR_VIRTUAL_THREAD_TYPES = "nifi.processor.virtual.thread.types";
+    public static final String PROCESSOR_SESSION_BATCH_DURATION = "nifi.processor.session.batch.duration";
+    public static final String PROCESSOR_SESSION_BATCH_SIZE = "nifi.processor.session.batch.size";
+    public static final String EXPRESSION_LANGUAGE_BYTECODE_ENABLED = "nifi.expression.language.bytecode.enabled";
+    public static final String EXPRESSION_LANGUAGE_BYTECODE_COMPILE_THRESHOLD = "nifi.expression.language.bytecode.compile.threshold";
+    public static final String RECORD_ARRAY_BACKED_ENABLED = "nifi.record.array.backed.enabled";
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
     public static final String LISTENER_BOOTSTRAP_PORT = "nifi.listener.bootstrap.port";
@@ -115,6 +127,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String SWAP_MANAGER_COMPRESSION_ENABLED = "nifi.swap.manager.compression.enabled";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -127,15 +140,18 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String PROVENANCE_QUERY_THREAD_POOL_SIZE = "nifi.provenance.repository.query.threads";
     public static final String PROVENANCE_INDEX_THREAD_POOL_SIZE = "nifi.provenance.repository.index.threads";
     public static final String PROVENANCE_COMPRESS_ON_ROLLOVER = "nifi.provenance.repository.compress.on.rollover";
+    public static final String PROVENANCE_COMPRESSION_CODEC = "nifi.provenance.repository.compression.codec";
     public static final String PROVENANCE_INDEXED_FIELDS = "nifi.provenance.repository.indexed.fields";
     public static final String PROVENANCE_INDEXED_ATTRIBUTES = "nifi.provenance.repository.indexed.attributes";
     public static final String PROVENANCE_INDEX_SHARD_SIZE = "nifi.provenance.repository.index.shard.size";
+    public static final String PROVENANCE_INDEX_IMPLEMENTATION = "nifi.provenance.repository.index.implementation";
     public static final String PROVENANCE_JOURNAL_COUNT = "nifi.provenance.repository.journal.count";
     public static final String PROVENANCE_REPO_DEBUG_FREQUENCY = "nifi.provenance.repository.debug.frequency";
 
     // status repository properties
     public static final String COMPONENT_STATUS_REPOSITORY_IMPLEMENTATION = "nifi.components.status.repository.implementation";
     public static final String COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "nifi.components.status.snapshot.frequency";
+    public static final String COMPONENT_STATUS_STRIPED_ACCUMULATION = "nifi.components.status.striped.accumulation";
 
     // questdb status storage properties
     public static final String STATUS_REPOSITORY_QUESTDB_PERSIST_NODE_DAYS = "nifi.status.repository.questdb.persist.node.days";
@@ -235,6 +251,8 @@ public class NiFiProperties extends ApplicationProperties {
     // cluster common properties
     public static final String CLUSTER_PROTOCOL_HEARTBEAT_INTERVAL = "nifi.cluster.protocol.heartbeat.interval";
     public static final String CLUSTER_PROTOCOL_HEARTBEAT_MISSABLE_MAX = "nifi.cluster.protocol.heartbeat.missable.max";
+    public static final String CLUSTER_PROTOCOL_HEARTBEAT_STATUS_ENABLED = "nifi.cluster.protocol.heartbeat.status.enabled";
+    public static final String CLUSTER_PROTOCOL_BINARY_ENABLED = "nifi.cluster.protocol.binary.enabled";
     public static final String CLUSTER_PROTOCOL_IS_SECURE = "nifi.cluster.protocol.is.secure";
     public static final String CLUSTER_LEADER_ELECTION_IMPLEMENTATION = "nifi.cluster.leader.election.implementation";
 
@@ -256,6 +274,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String LOAD_BALANCE_CONNECTIONS_PER_NODE = "nifi.cluster.load.balance.connections.per.node";
     public static final String LOAD_BALANCE_MAX_THREAD_COUNT = "nifi.cluster.load.balance.max.thread.count";
     public static final String LOAD_BALANCE_COMMS_TIMEOUT = "nifi.cluster.load.balance.comms.timeout";
+    public static final String LOAD_BALANCE_SERVER_THREAD_MODEL = "nifi.cluster.load.balance.server.thread.model";
 
     // zookeeper properties
     public static final String ZOOKEEPER_CONNECT_STRING = "nifi.zookeeper.connect.string";
@@ -346,6 +365,10 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_AUTHORIZER_CONFIGURATION_FILE = "conf/authorizers.xml";
     public static final String DEFAULT_LOGIN_IDENTITY_PROVIDER_CONFIGURATION_FILE = "conf/login-identity-providers.xml";
     public static final Integer DEFAULT_REMOTE_INPUT_PORT = null;
+    public static final String DEFAULT_REMOTE_INPUT_SOCKET_THREAD_MODEL = "PLATFORM";
+    public static final int DEFAULT_REMOTE_INPUT_SOCKET_MAX_SESSIONS = 0;
+    public static final int DEFAULT_REMOTE_INPUT_SOCKET_MAX_QUEUED_SESSIONS = 100;
+    public static final String DEFAULT_REMOTE_INPUT_SOCKET_QUEUED_SESSION_TIMEOUT = "30 secs";
     private static final String DEFAULT_WEB_HTTPS_APPLICATION_PROTOCOLS = "h2 http/1.1";
     public static final int DEFAULT_WEB_THREADS = 200;
     public static final String DEFAULT_WEB_MAX_HEADER_SIZE = "16 KB";
@@ -366,7 +389,15 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
+    public static final boolean DEFAULT_COMPONENT_STATUS_STRIPED_ACCUMULATION = false;
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final String DEFAULT_PROCESSOR_SCHEDULING_MODE = "POLLING";
+    public static final int DEFAULT_PROCESSOR_SCHEDULING_EVENT_DRIVEN_THREAD_PERCENTAGE = 75;
+    public static final String DEFAULT_PROCESSOR_SESSION_BATCH_DURATION = "0 millis";
+    public static final int DEFAULT_PROCESSOR_SESSION_BATCH_SIZE = 0;
+    public static final boolean DEFAULT_EXPRESSION_LANGUAGE_BYTECODE_ENABLED = false;
+    public static final int DEFAULT_EXPRESSION_LANGUAGE_BYTECODE_COMPILE_THRESHOLD = 100;
+    public static final boolean DEFAULT_RECORD_ARRAY_BACKED_ENABLED = false;
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -404,6 +435,8 @@ public class NiFiProperties extends ApplicationProperties {
     // cluster common defaults
     public static final String DEFAULT_CLUSTER_PROTOCOL_HEARTBEAT_INTERVAL = "5 sec";
     public static final int DEFAULT_CLUSTER_PROTOCOL_HEARTBEAT_MISSABLE_MAX = 8;
+    public static final boolean DEFAULT_CLUSTER_PROTOCOL_HEARTBEAT_STATUS_ENABLED = true;
+    public static final boolean DEFAULT_CLUSTER_PROTOCOL_BINARY_ENABLED = true;
     public static final String DEFAULT_CLUSTER_NODE_READ_TIMEOUT = "5 sec";
     public static final String DEFAULT_CLUSTER_NODE_CONNECTION_TIMEOUT = "5 sec";
     public static final int DEFAULT_CLUSTER_NODE_MAX_CONCURRENT_REQUESTS = 100;
@@ -419,6 +452,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final int DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE = 4;
     public static final int DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT = 8;
     public static final String DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT = "30 sec";
+    public static final String DEFAULT_LOAD_BALANCE_SERVER_THREAD_MODEL = "PLATFORM";
 
 
     // state management defaults
@@ -513,6 +547,14 @@ public class NiFiProperties extends ApplicationProperties {
         }
     }
 
+    /**
+     * @return whether the Swap Manager compresses the swap files that it writes. Swap files that are compressed cannot be read by
+     *         versions of NiFi that do not support compressed swap files.
+     */
+    public boolean isSwapManagerCompressionEnabled() {
+        return Boolean.parseBoolean(getProperty(SWAP_MANAGER_COMPRESSION_ENABLED, "false").trim());
+    }
+
     public Integer getIntegerProperty(final String propertyName, final Integer defaultValue) {
         final String value = getProperty(propertyName);
         if (value == null || value.trim().isEmpty()) {
@@ -878,6 +920,26 @@ public class NiFiProperties extends ApplicationProperties {
         return getClusterProtocolHeartbeatInterval();
     }
 
+    /**
+     * Returns true if nodes should include the status of their components in heartbeats, so that the Cluster Coordinator
+     * can serve the status of the flow across the cluster without replicating requests to each node.
+     *
+     * @return true if component status should be included in heartbeats
+     */
+    public boolean isClusterProtocolHeartbeatStatusEnabled() {
+        return Boolean.parseBoolean(getProperty(CLUSTER_PROTOCOL_HEARTBEAT_STATUS_ENABLED, String.valueOf(DEFAULT_CLUSTER_PROTOCOL_HEARTBEAT_STATUS_ENABLED)));
+    }
+
+    /**
+     * Returns true if heartbeats may be exchanged using the binary representation over persistent connections with nodes
+     * that support it. If false, every cluster protocol message is exchanged as XML over a connection of its own.
+     *
+     * @return true if the binary cluster protocol is enabled
+     */
+    public boolean isClusterProtocolBinaryEnabled() {
+        return Boolean.parseBoolean(getProperty(CLUSTER_PROTOCOL_BINARY_ENABLED, String.valueOf(DEFAULT_CLUSTER_PROTOCOL_BINARY_ENABLED)));
+    }
+
     public String getClusterNodeReadTimeout() {
         return getProperty(CLUSTER_NODE_READ_TIMEOUT, DEFAULT_CLUSTER_NODE_READ_TIMEOUT);
     }
@@ -1554,6 +1616,96 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    public String getProcessorSchedulingMode() {
+        return getProperty(PROCESSOR_SCHEDULING_MODE, DEFAULT_PROCESSOR_SCHEDULING_MODE).trim();
+    }
+
+    /**
+     * Returns the percentage of the Maximum Timer Driven Thread Count that is used to run components that are triggered by events, when the
+     * Processor Scheduling Mode is <code>EVENT_DRIVEN</code>. The remaining threads are used to run the components that are still polled.
+     *
+     * @return the percentage of the Maximum Timer Driven Thread Count used to run components that are triggered by events, between 1 and 99
+     */
+    public int getProcessorSchedulingEventDrivenThreadPercentage() {
+        final int percentage = getIntegerProperty(PROCESSOR_SCHEDULING_EVENT_DRIVEN_THREAD_PERCENTAGE, DEFAULT_PROCESSOR_SCHEDULING_EVENT_DRIVEN_THREAD_PERCENTAGE);
+        return Math.min(99, Math.max(1, percentage));
+    }
+
+    /**
+     * Returns the types of the Processors that should be run on virtual threads rather than on the threads of the Timer Driven Thread Pool.
+     * Each type may be either the fully qualified class name or the simple class name of the Processor.
+     *
+     * @return the Processor types that should be run on virtual threads, or an empty set if no Processors should be run on virtual threads
+     */
+    public Set<String> getProcessorVirtualThreadTypes() {
+        final String types = getProperty(PROCESSOR_VIRTUAL_THREAD_TYPES);
+        if (types == null || types.isBlank()) {
+            return Collections.emptySet();
+        }
+
+        return Arrays.stream(types.split(","))
+            .map(String::trim)
+            .filter(type -> !type.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the length of time for which the sessions of consecutive invocations of a Processor that supports batching are combined into a single
+     * commit, for Processors whose Run Duration is not configured
+     *
+     * @return the session batch duration, such as <code>25 millis</code>, or <code>0 millis</code> if sessions should not be batched by default
+     */
+    public String getProcessorSessionBatchDuration() {
+        return getProperty(PROCESSOR_SESSION_BATCH_DURATION, DEFAULT_PROCESSOR_SESSION_BATCH_DURATION).trim();
+    }
+
+    /**
+     * Returns the maximum number of FlowFiles that may be included in a single batched session commit
+     *
+     * @return the maximum number of FlowFiles in a batched session commit, or 0 if the number of FlowFiles is not limited
+     */
+    public int getProcessorSessionBatchSize() {
+        return Math.max(0, getIntegerProperty(PROCESSOR_SESSION_BATCH_SIZE, DEFAULT_PROCESSOR_SESSION_BATCH_SIZE));
+    }
+
+    /**
+     * Returns whether or not Expression Language Expressions that are evaluated repeatedly should be compiled into JVM bytecode rather than interpreted
+     *
+     * @return <code>true</code> if Expressions should be compiled into bytecode, <code>false</code> otherwise
+     */
+    public boolean isExpressionLanguageBytecodeEnabled() {
+        return Boolean.parseBoolean(getProperty(EXPRESSION_LANGUAGE_BYTECODE_ENABLED, String.valueOf(DEFAULT_EXPRESSION_LANGUAGE_BYTECODE_ENABLED)).trim());
+    }
+
+    /**
+     * Returns the number of times that an Expression Language Expression is interpreted before it is compiled into JVM bytecode
+     *
+     * @return the number of times that an Expression is interpreted before it is compiled
+     */
+    public int getExpressionLanguageBytecodeCompileThreshold() {
+        return Math.max(0, getIntegerProperty(EXPRESSION_LANGUAGE_BYTECODE_COMPILE_THRESHOLD, DEFAULT_EXPRESSION_LANGUAGE_BYTECODE_COMPILE_THRESHOLD));
+    }
+
+    /**
+     * Returns whether or not the Record Readers that support it should create Records whose values are stored in an array indexed by the position
+     * of each field in the schema, rather than in a Map keyed by field name
+     *
+     * @return <code>true</code> if array-backed Records should be created, <code>false</code> otherwise
+     */
+    public boolean isRecordArrayBackedEnabled() {
+        return Boolean.parseBoolean(getProperty(RECORD_ARRAY_BACKED_ENABLED, String.valueOf(DEFAULT_RECORD_ARRAY_BACKED_ENABLED)).trim());
+    }
+
+    /**
+     * Returns whether or not the FlowFile events of each component should be accumulated separately for each thread and merged when the component's
+     * status is read, rather than being added to totals that are shared by all threads
+     *
+     * @return <code>true</code> if FlowFile events should be accumulated separately for each thread, <code>false</code> otherwise
+     */
+    public boolean isComponentStatusStripedAccumulation() {
+        return Boolean.parseBoolean(getProperty(COMPONENT_STATUS_STRIPED_ACCUMULATION, String.valueOf(DEFAULT_COMPONENT_STATUS_STRIPED_ACCUMULATION)).trim());
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
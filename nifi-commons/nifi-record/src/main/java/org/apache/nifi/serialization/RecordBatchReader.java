@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization;
+
+import org.apache.nifi.serialization.record.RecordBatch;
+
+import java.io.IOException;
+
+/**
+ * A {@link RecordReader} that is able to read many records at a time into the columns of a {@link RecordBatch}, without creating
+ * a {@link org.apache.nifi.serialization.record.Record} for each of them. Record Readers that do not implement this interface can
+ * be read in batches by using {@link #of(RecordReader)}.
+ */
+public interface RecordBatchReader extends RecordReader {
+
+    /**
+     * Clears the given batch and then reads records into it until the batch is full or no more records are available. Values are coerced
+     * to the types of the batch's schema, which is typically the schema returned by {@link #getSchema()}, and any field that is not part
+     * of the batch's schema is dropped.
+     *
+     * @param batch the batch to fill
+     * @return the number of records that were read into the batch, which is <code>0</code> if no more records are available
+     *
+     * @throws IOException if unable to read from the underlying data
+     * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse a record, or a record contains a field
+     *             that violates the schema and cannot be coerced into the appropriate field type
+     */
+    int nextBatch(RecordBatch batch) throws IOException, MalformedRecordException;
+
+    /**
+     * Returns the given Record Reader if it supports reading batches natively, or else a Record Reader that fills batches by reading
+     * one record at a time from the given Record Reader
+     *
+     * @param reader the Record Reader
+     * @return a Record Batch Reader that reads from the given Record Reader
+     */
+    static RecordBatchReader of(final RecordReader reader) {
+        if (reader instanceof RecordBatchReader) {
+            return (RecordBatchReader) reader;
+        }
+
+        return new RowRecordBatchReader(reader);
+    }
+}
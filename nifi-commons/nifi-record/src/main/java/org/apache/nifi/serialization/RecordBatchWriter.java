@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization;
+
+import org.apache.nifi.serialization.record.RecordBatch;
+
+import java.io.IOException;
+
+/**
+ * A {@link RecordSetWriter} that is able to write the rows of a {@link RecordBatch} from its columns, without creating
+ * a {@link org.apache.nifi.serialization.record.Record} for each of them. Record Set Writers that do not implement this interface
+ * can be given batches by using {@link #of(RecordSetWriter)}.
+ */
+public interface RecordBatchWriter extends RecordSetWriter {
+
+    /**
+     * Writes each of the rows of the given batch
+     *
+     * @param batch the batch to write
+     * @return the results of writing the data
+     * @throws IOException if unable to write to the underlying stream
+     */
+    WriteResult writeBatch(RecordBatch batch) throws IOException;
+
+    /**
+     * Returns the given Record Set Writer if it supports writing batches natively, or else a Record Set Writer that writes batches
+     * by creating a Record for each row and writing it to the given Record Set Writer
+     *
+     * @param writer the Record Set Writer
+     * @return a Record Batch Writer that writes to the given Record Set Writer
+     */
+    static RecordBatchWriter of(final RecordSetWriter writer) {
+        if (writer instanceof RecordBatchWriter) {
+            return (RecordBatchWriter) writer;
+        }
+
+        return new RowRecordBatchWriter(writer);
+    }
+}
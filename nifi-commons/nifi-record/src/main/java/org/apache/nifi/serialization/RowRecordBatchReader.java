@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization;
+
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.RecordSet;
+
+import java.io.IOException;
+
+/**
+ * Adapts a {@link RecordReader} that reads one record at a time into a {@link RecordBatchReader}
+ */
+class RowRecordBatchReader implements RecordBatchReader {
+    private final RecordReader reader;
+
+    RowRecordBatchReader(final RecordReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public int nextBatch(final RecordBatch batch) throws IOException, MalformedRecordException {
+        batch.clear();
+
+        Record record;
+        while (!batch.isFull() && (record = reader.nextRecord(true, true)) != null) {
+            batch.addRecord(record);
+        }
+
+        return batch.getRowCount();
+    }
+
+    @Override
+    public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) throws IOException, MalformedRecordException {
+        return reader.nextRecord(coerceTypes, dropUnknownFields);
+    }
+
+    @Override
+    public RecordSchema getSchema() throws MalformedRecordException {
+        return reader.getSchema();
+    }
+
+    @Override
+    public RecordSet createRecordSet() {
+        return reader.createRecordSet();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
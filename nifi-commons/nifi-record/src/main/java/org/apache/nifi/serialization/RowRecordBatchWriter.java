@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization;
+
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
+import org.apache.nifi.serialization.record.RecordSet;
+
+import java.io.IOException;
+
+/**
+ * Adapts a {@link RecordSetWriter} that writes one record at a time into a {@link RecordBatchWriter}
+ */
+class RowRecordBatchWriter implements RecordBatchWriter {
+    private final RecordSetWriter writer;
+
+    RowRecordBatchWriter(final RecordSetWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        WriteResult writeResult = WriteResult.EMPTY;
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            writeResult = writer.write(batch.getRecord(row));
+        }
+
+        return writeResult;
+    }
+
+    @Override
+    public WriteResult write(final RecordSet recordSet) throws IOException {
+        return writer.write(recordSet);
+    }
+
+    @Override
+    public WriteResult write(final Record record) throws IOException {
+        return writer.write(record);
+    }
+
+    @Override
+    public void beginRecordSet() throws IOException {
+        writer.beginRecordSet();
+    }
+
+    @Override
+    public WriteResult finishRecordSet() throws IOException {
+        return writer.finishRecordSet();
+    }
+
+    @Override
+    public String getMimeType() {
+        return writer.getMimeType();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,881 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.type.ArrayDataType;
+import org.apache.nifi.serialization.record.type.MapDataType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * A Record whose values are stored in an array that is indexed by the position of each field in the Record's schema, rather than in a Map
+ * that is keyed by field name as {@link MapRecord} does. Values of INT, LONG, DOUBLE and BOOLEAN fields that are set through the
+ * primitive setters of the {@link Builder} are stored without being boxed. Values for fields that are not part of the schema are held
+ * separately, so an ArrayRecord behaves in the same way as a MapRecord that was created with the same values, except that a value given
+ * for one of a field's aliases is held under the field's name.
+ * </p>
+ *
+ * <p>
+ * If the fields of the schema change, for instance because a field is removed from the schema or because the schema is replaced
+ * by {@link #incorporateSchema(RecordSchema)}, the values are rearranged to match the new fields the next time that the Record is accessed.
+ * </p>
+ */
+public class ArrayRecord implements Record {
+
+    /**
+     * The name of the system property that indicates whether Record Readers that support it should create ArrayRecords rather than MapRecords
+     */
+    public static final String ARRAY_RECORDS_ENABLED_PROPERTY = "nifi.record.array.backed.enabled";
+
+    // Marks a field whose value was explicitly set to null, as opposed to a field whose value was never set
+    private static final Object NULL_VALUE = new Object();
+
+    private RecordSchema schema;
+    private List<RecordField> fields;
+    private Object[] values;
+    private long[] primitiveValues;
+    private Map<String, Object> unknownValues;
+    private Optional<SerializedForm> serializedForm;
+    private final boolean checkTypes;
+    private final boolean dropUnknownFields;
+    private Set<RecordField> inactiveFields = null;
+
+    public ArrayRecord(final RecordSchema schema, final Map<String, Object> values) {
+        this(schema, values, null, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Map<String, Object> values, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, checkTypes, dropUnknownFields);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Map<String, Object> values, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        Objects.requireNonNull(values);
+
+        this.schema = Objects.requireNonNull(schema);
+        this.fields = schema.getFields();
+        this.values = new Object[fields.size()];
+        this.serializedForm = Optional.ofNullable(serializedForm);
+        this.checkTypes = checkTypes;
+        this.dropUnknownFields = dropUnknownFields;
+
+        // As with a MapRecord, the first non-null value of the field's name and then its aliases, in the order in which they are defined, is used
+        for (int i = 0; i < fields.size(); i++) {
+            final RecordField field = fields.get(i);
+            Object value = values.get(field.getFieldName());
+            boolean present = value != null || values.containsKey(field.getFieldName());
+
+            if (value == null) {
+                for (final String alias : field.getAliases()) {
+                    value = values.get(alias);
+                    present = present || value != null || values.containsKey(alias);
+                    if (value != null) {
+                        break;
+                    }
+                }
+            }
+
+            if (present) {
+                this.values[i] = wrap(value);
+            }
+        }
+
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            if (schema.getFieldIndex(entry.getKey()) < 0) {
+                getUnknownValues().put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (checkTypes) {
+            checkTypes();
+        }
+    }
+
+    private ArrayRecord(final Builder builder, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        this.schema = builder.schema;
+        this.fields = builder.fields;
+        this.values = builder.values;
+        this.primitiveValues = builder.primitiveValues;
+        this.unknownValues = builder.unknownValues;
+        this.serializedForm = Optional.ofNullable(serializedForm);
+        this.checkTypes = checkTypes;
+        this.dropUnknownFields = dropUnknownFields;
+
+        if (checkTypes) {
+            checkTypes();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if Record Readers should create ArrayRecords rather than MapRecords, <code>false</code> otherwise
+     */
+    public static boolean isArrayRecordsEnabled() {
+        return Boolean.getBoolean(ARRAY_RECORDS_ENABLED_PROPERTY);
+    }
+
+    private void checkTypes() {
+        for (int i = 0; i < fields.size(); i++) {
+            final RecordField field = fields.get(i);
+            final Object value = getExplicitValue(i);
+
+            if (value == null) {
+                if (field.isNullable() || field.getDefaultValue() != null) {
+                    continue;
+                }
+
+                throw new SchemaValidationException("Field " + field.getFieldName() + " cannot be null");
+            }
+
+            if (!DataTypeUtils.isCompatibleDataType(value, field.getDataType())) {
+                throw new SchemaValidationException("Field " + field.getFieldName() + " has a value of " + value
+                    + ", which cannot be coerced into the appropriate data type of " + field.getDataType());
+            }
+        }
+    }
+
+    private static Object wrap(final Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private Map<String, Object> getUnknownValues() {
+        if (unknownValues == null) {
+            unknownValues = new LinkedHashMap<>();
+        }
+
+        return unknownValues;
+    }
+
+    /**
+     * Ensures that the values are arranged according to the current fields of the schema, which may have changed since the values were set
+     */
+    private void alignWithSchema() {
+        final List<RecordField> schemaFields = schema.getFields();
+        if (schemaFields == fields) {
+            return;
+        }
+
+        if (!schemaFields.equals(fields)) {
+            final Object[] alignedValues = new Object[schemaFields.size()];
+            final long[] alignedPrimitiveValues = primitiveValues == null ? null : new long[schemaFields.size()];
+
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+
+                final String fieldName = fields.get(i).getFieldName();
+                final int index = schema.getFieldIndex(fieldName);
+                if (index >= 0 && alignedValues[index] == null) {
+                    alignedValues[index] = values[i];
+                    if (alignedPrimitiveValues != null) {
+                        alignedPrimitiveValues[index] = primitiveValues[i];
+                    }
+                } else {
+                    getUnknownValues().put(fieldName, getExplicitValue(i));
+                }
+            }
+
+            if (unknownValues != null) {
+                final Iterator<Map.Entry<String, Object>> itr = unknownValues.entrySet().iterator();
+                while (itr.hasNext()) {
+                    final Map.Entry<String, Object> entry = itr.next();
+                    final int index = schema.getFieldIndex(entry.getKey());
+                    if (index >= 0 && alignedValues[index] == null) {
+                        alignedValues[index] = wrap(entry.getValue());
+                        itr.remove();
+                    }
+                }
+            }
+
+            values = alignedValues;
+            primitiveValues = alignedPrimitiveValues;
+        }
+
+        fields = schemaFields;
+    }
+
+    private Object getExplicitValue(final int index) {
+        final Object value = values[index];
+        if (value == null || value == NULL_VALUE) {
+            return null;
+        }
+        if (value instanceof PrimitiveSlot) {
+            return ((PrimitiveSlot) value).box(primitiveValues[index]);
+        }
+
+        return value;
+    }
+
+    private Object getExplicitValue(final RecordField field) {
+        // As with a MapRecord, the value of the field's name is used before the values of its aliases, in the order in which they are defined
+        Object value = getExplicitValue(field.getFieldName());
+        if (value != null) {
+            return value;
+        }
+
+        for (final String alias : field.getAliases()) {
+            value = getExplicitValue(alias);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    private Object getExplicitValue(final String fieldName) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index >= 0) {
+            return getExplicitValue(index);
+        }
+
+        return unknownValues == null ? null : unknownValues.get(fieldName);
+    }
+
+    @Override
+    public boolean isDropUnknownFields() {
+        return dropUnknownFields;
+    }
+
+    @Override
+    public boolean isTypeChecked() {
+        return checkTypes;
+    }
+
+    @Override
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public Object[] getValues() {
+        alignWithSchema();
+
+        final Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = getExplicitValue(i);
+            if (value == null) {
+                value = fields.get(i).getDefaultValue();
+            }
+
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the value of the field at the given position in the schema, or the field's default value if the Record has no value for it
+     *
+     * @param index the index of the field in the list of fields of the schema
+     * @return the value of the field
+     */
+    public Object getValue(final int index) {
+        alignWithSchema();
+
+        final Object value = getExplicitValue(index);
+        return value == null ? fields.get(index).getDefaultValue() : value;
+    }
+
+    /**
+     * Returns the value of the INT field at the given position in the schema without boxing it, if it was set as an int
+     *
+     * @param index the index of the field in the list of fields of the schema
+     * @return the value of the field
+     * @throws IllegalTypeConversionException if the field has no value or its value cannot be converted to an int
+     */
+    public int getInt(final int index) {
+        alignWithSchema();
+        if (values[index] == PrimitiveSlot.INT) {
+            return (int) primitiveValues[index];
+        }
+
+        return requireValue(DataTypeUtils.toInteger(getValue(index), fields.get(index).getFieldName()), index);
+    }
+
+    /**
+     * Returns the value of the LONG field at the given position in the schema without boxing it, if it was set as a long
+     *
+     * @param index the index of the field in the list of fields of the schema
+     * @return the value of the field
+     * @throws IllegalTypeConversionException if the field has no value or its value cannot be converted to a long
+     */
+    public long getLong(final int index) {
+        alignWithSchema();
+        if (values[index] == PrimitiveSlot.LONG || values[index] == PrimitiveSlot.INT) {
+            return primitiveValues[index];
+        }
+
+        return requireValue(DataTypeUtils.toLong(getValue(index), fields.get(index).getFieldName()), index);
+    }
+
+    /**
+     * Returns the value of the DOUBLE field at the given position in the schema without boxing it, if it was set as a double
+     *
+     * @param index the index of the field in the list of fields of the schema
+     * @return the value of the field
+     * @throws IllegalTypeConversionException if the field has no value or its value cannot be converted to a double
+     */
+    public double getDouble(final int index) {
+        alignWithSchema();
+        if (values[index] == PrimitiveSlot.DOUBLE) {
+            return Double.longBitsToDouble(primitiveValues[index]);
+        }
+
+        return requireValue(DataTypeUtils.toDouble(getValue(index), fields.get(index).getFieldName()), index);
+    }
+
+    /**
+     * Returns the value of the BOOLEAN field at the given position in the schema without boxing it, if it was set as a boolean
+     *
+     * @param index the index of the field in the list of fields of the schema
+     * @return the value of the field
+     * @throws IllegalTypeConversionException if the field has no value or its value cannot be converted to a boolean
+     */
+    public boolean getBoolean(final int index) {
+        alignWithSchema();
+        if (values[index] == PrimitiveSlot.BOOLEAN) {
+            return primitiveValues[index] != 0L;
+        }
+
+        return requireValue(DataTypeUtils.toBoolean(getValue(index), fields.get(index).getFieldName()), index);
+    }
+
+    private <T> T requireValue(final T value, final int index) {
+        if (value == null) {
+            throw new IllegalTypeConversionException("Field " + fields.get(index).getFieldName() + " has no value");
+        }
+
+        return value;
+    }
+
+    @Override
+    public Object getValue(final String fieldName) {
+        alignWithSchema();
+
+        final int index = schema.getFieldIndex(fieldName);
+        if (index >= 0) {
+            return getValue(fields.get(index));
+        }
+
+        if (dropUnknownFields || unknownValues == null) {
+            return null;
+        }
+
+        return unknownValues.get(fieldName);
+    }
+
+    @Override
+    public Object getValue(final RecordField field) {
+        alignWithSchema();
+
+        Object explicitValue = getExplicitValue(field);
+        if (explicitValue != null) {
+            return explicitValue;
+        }
+
+        final Optional<RecordField> resolvedField = resolveField(field);
+        final boolean resolvedFieldDifferent = resolvedField.isPresent() && !resolvedField.get().equals(field);
+        if (resolvedFieldDifferent) {
+            explicitValue = getExplicitValue(resolvedField.get());
+            if (explicitValue != null) {
+                return explicitValue;
+            }
+        }
+
+        final Object defaultValue = field.getDefaultValue();
+        if (defaultValue != null) {
+            return defaultValue;
+        }
+
+        if (resolvedFieldDifferent) {
+            return resolvedField.get().getDefaultValue();
+        }
+
+        return null;
+    }
+
+    private Optional<RecordField> resolveField(final RecordField field) {
+        Optional<RecordField> resolved = schema.getField(field.getFieldName());
+        if (resolved.isPresent()) {
+            return resolved;
+        }
+
+        for (final String alias : field.getAliases()) {
+            resolved = schema.getField(alias);
+            if (resolved.isPresent()) {
+                return resolved;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public String getAsString(final String fieldName) {
+        final Optional<DataType> dataTypeOption = schema.getDataType(fieldName);
+        if (dataTypeOption.isPresent()) {
+            return convertToString(getValue(fieldName), dataTypeOption.get().getFormat());
+        }
+
+        return DataTypeUtils.toString(getValue(fieldName), (Supplier<DateFormat>) null);
+    }
+
+    @Override
+    public String getAsString(final String fieldName, final String format) {
+        return convertToString(getValue(fieldName), format);
+    }
+
+    @Override
+    public String getAsString(final RecordField field, final String format) {
+        return convertToString(getValue(field), format);
+    }
+
+    private String convertToString(final Object value, final String format) {
+        if (value == null) {
+            return null;
+        }
+
+        return DataTypeUtils.toString(value, format);
+    }
+
+    @Override
+    public Long getAsLong(final String fieldName) {
+        return DataTypeUtils.toLong(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Integer getAsInt(final String fieldName) {
+        return DataTypeUtils.toInteger(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Double getAsDouble(final String fieldName) {
+        return DataTypeUtils.toDouble(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Float getAsFloat(final String fieldName) {
+        return DataTypeUtils.toFloat(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Record getAsRecord(final String fieldName, final RecordSchema schema) {
+        return DataTypeUtils.toRecord(getValue(fieldName), schema, fieldName);
+    }
+
+    @Override
+    public Boolean getAsBoolean(final String fieldName) {
+        return DataTypeUtils.toBoolean(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Date getAsDate(final String fieldName, final String format) {
+        return DataTypeUtils.toDate(getValue(fieldName), () -> DataTypeUtils.getDateFormat(format), fieldName);
+    }
+
+    @Override
+    public Object[] getAsArray(final String fieldName) {
+        return DataTypeUtils.toArray(getValue(fieldName), fieldName, null, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int hashCode() {
+        return RecordValues.hashCode(this);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return RecordValues.equals(this, obj);
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayRecord[" + toMap() + "]";
+    }
+
+    @Override
+    public Optional<SerializedForm> getSerializedForm() {
+        return serializedForm;
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        return toMap(false);
+    }
+
+    public Map<String, Object> toMap(final boolean convertSubRecords) {
+        if (convertSubRecords) {
+            return RecordValues.toMap(this);
+        }
+
+        alignWithSchema();
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                map.put(fields.get(i).getFieldName(), getExplicitValue(i));
+            }
+        }
+        if (unknownValues != null) {
+            map.putAll(unknownValues);
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public void setValue(final RecordField field, final Object value) {
+        final Optional<RecordField> existingField = setValueAndGetField(field.getFieldName(), value);
+
+        if (!existingField.isPresent()) {
+            if (inactiveFields == null) {
+                inactiveFields = new LinkedHashSet<>();
+            }
+
+            inactiveFields.add(field);
+        }
+    }
+
+    @Override
+    public void remove(final RecordField field) {
+        alignWithSchema();
+
+        final Optional<RecordField> existingField = resolveField(field);
+        existingField.ifPresent(recordField -> values[schema.getFieldIndex(recordField.getFieldName())] = null);
+    }
+
+    @Override
+    public void regenerateSchema() {
+        final List<RecordField> schemaFields = new ArrayList<>(schema.getFieldCount());
+
+        for (final RecordField schemaField : schema.getFields()) {
+            final Object fieldValue = getValue(schemaField);
+            if (schemaField.getDataType().getFieldType() == RecordFieldType.CHOICE) {
+                schemaFields.add(schemaField);
+            } else if (fieldValue instanceof Record) {
+                final Record childRecord = (Record) fieldValue;
+                schemaFields.add(new RecordField(schemaField.getFieldName(), RecordFieldType.RECORD.getRecordDataType(childRecord.getSchema()), schemaField.isNullable()));
+            } else {
+                schemaFields.add(schemaField);
+            }
+        }
+
+        schema = new SimpleRecordSchema(schemaFields);
+    }
+
+    @Override
+    public void setValue(final String fieldName, final Object value) {
+        final Optional<RecordField> existingField = setValueAndGetField(fieldName, value);
+
+        if (!existingField.isPresent()) {
+            if (inactiveFields == null) {
+                inactiveFields = new LinkedHashSet<>();
+            }
+
+            final DataType inferredDataType = DataTypeUtils.inferDataType(value, RecordFieldType.STRING.getDataType());
+            final RecordField field = new RecordField(fieldName, inferredDataType);
+            inactiveFields.add(field);
+        }
+    }
+
+    private Optional<RecordField> setValueAndGetField(final String fieldName, final Object value) {
+        alignWithSchema();
+
+        final Optional<RecordField> field = getSchema().getField(fieldName);
+        if (!field.isPresent()) {
+            if (dropUnknownFields) {
+                return field;
+            }
+
+            final Object previousValue = getUnknownValues().put(fieldName, value);
+            if (!Objects.equals(value, previousValue)) {
+                serializedForm = Optional.empty();
+            }
+
+            return field;
+        }
+
+        final RecordField recordField = field.get();
+        final Object coerced = isTypeChecked() ? DataTypeUtils.convertType(value, recordField.getDataType(), fieldName) : value;
+        final int index = schema.getFieldIndex(fieldName);
+        final Object previousValue = getExplicitValue(index);
+        values[index] = wrap(coerced);
+        if (!Objects.equals(coerced, previousValue)) {
+            serializedForm = Optional.empty();
+        }
+
+        return field;
+    }
+
+    @Override
+    public void setArrayValue(final String fieldName, final int arrayIndex, final Object value) {
+        final Optional<RecordField> field = getSchema().getField(fieldName);
+        if (!field.isPresent()) {
+            return;
+        }
+
+        final RecordField recordField = field.get();
+        final DataType dataType = recordField.getDataType();
+        if (dataType.getFieldType() != RecordFieldType.ARRAY) {
+            throw new IllegalTypeConversionException("Cannot set the value of an array index on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an ARRAY type");
+        }
+
+        alignWithSchema();
+        final Object arrayObject = getExplicitValue(schema.getFieldIndex(fieldName));
+        if (!(arrayObject instanceof Object[])) {
+            return;
+        }
+
+        final Object[] array = (Object[]) arrayObject;
+        if (arrayIndex >= array.length) {
+            return;
+        }
+
+        final ArrayDataType arrayDataType = (ArrayDataType) dataType;
+        final DataType elementType = arrayDataType.getElementType();
+        final Object coerced = DataTypeUtils.convertType(value, elementType, fieldName);
+
+        final boolean update = !Objects.equals(coerced, array[arrayIndex]);
+        if (update) {
+            array[arrayIndex] = coerced;
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setMapValue(final String fieldName, final String mapKey, final Object value) {
+        final Optional<RecordField> field = getSchema().getField(fieldName);
+        if (!field.isPresent()) {
+            return;
+        }
+
+        final RecordField recordField = field.get();
+        final DataType dataType = recordField.getDataType();
+        if (dataType.getFieldType() != RecordFieldType.MAP) {
+            throw new IllegalTypeConversionException("Cannot set the value of map entry on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an MAP type");
+        }
+
+        alignWithSchema();
+        Object mapObject = getExplicitValue(schema.getFieldIndex(fieldName));
+        if (mapObject == null) {
+            mapObject = new LinkedHashMap<String, Object>();
+        }
+        if (!(mapObject instanceof Map)) {
+            return;
+        }
+
+        final Map<String, Object> map = (Map<String, Object>) mapObject;
+
+        final MapDataType mapDataType = (MapDataType) dataType;
+        final DataType valueDataType = mapDataType.getValueType();
+        final Object coerced = DataTypeUtils.convertType(value, valueDataType, fieldName);
+
+        final Object replaced = map.put(mapKey, coerced);
+        if (replaced == null || !replaced.equals(coerced)) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public void incorporateSchema(final RecordSchema other) {
+        this.schema = DataTypeUtils.merge(this.schema, other);
+    }
+
+    @Override
+    public void incorporateInactiveFields() {
+        final List<RecordField> updatedFields = new ArrayList<>();
+
+        boolean fieldUpdated = false;
+        for (final RecordField field : schema.getFields()) {
+            final RecordField updated = MapRecord.getUpdatedRecordField(field, getValue(field));
+            if (!updated.equals(field)) {
+                fieldUpdated = true;
+            }
+
+            updatedFields.add(updated);
+        }
+
+        if (!fieldUpdated && (inactiveFields == null || inactiveFields.isEmpty())) {
+            return;
+        }
+
+        if (inactiveFields != null) {
+            for (final RecordField field : inactiveFields) {
+                if (!updatedFields.contains(field)) {
+                    updatedFields.add(field);
+                }
+            }
+        }
+
+        this.schema = new SimpleRecordSchema(updatedFields);
+    }
+
+    @Override
+    public Set<String> getRawFieldNames() {
+        alignWithSchema();
+
+        final Set<String> fieldNames = new LinkedHashSet<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                fieldNames.add(fields.get(i).getFieldName());
+            }
+        }
+        if (unknownValues != null) {
+            fieldNames.addAll(unknownValues.keySet());
+        }
+
+        return fieldNames;
+    }
+
+    /**
+     * Identifies values that are held in the primitive values of the Record rather than in its object values
+     */
+    private enum PrimitiveSlot {
+        INT,
+        LONG,
+        DOUBLE,
+        BOOLEAN;
+
+        Object box(final long bits) {
+            switch (this) {
+                case INT:
+                    return (int) bits;
+                case LONG:
+                    return bits;
+                case DOUBLE:
+                    return Double.longBitsToDouble(bits);
+                default:
+                    return bits != 0L;
+            }
+        }
+    }
+
+    /**
+     * Populates the values of a single ArrayRecord by the position of each field in the schema. This allows Record Readers to create
+     * Records without looking up each field by name or boxing primitive values. A Builder may be used to build only one Record.
+     */
+    public static class Builder {
+        private final RecordSchema schema;
+        private final List<RecordField> fields;
+        private Object[] values;
+        private long[] primitiveValues;
+        private Map<String, Object> unknownValues;
+
+        public Builder(final RecordSchema schema) {
+            this.schema = Objects.requireNonNull(schema);
+            this.fields = schema.getFields();
+            this.values = new Object[fields.size()];
+        }
+
+        /**
+         * @param fieldName the name or alias of the field
+         * @return the index of the field in the schema, or <code>-1</code> if the schema has no such field
+         */
+        public int getFieldIndex(final String fieldName) {
+            return schema.getFieldIndex(fieldName);
+        }
+
+        public Builder setValue(final int index, final Object value) {
+            getValues()[index] = wrap(value);
+            return this;
+        }
+
+        public Builder setInt(final int index, final int value) {
+            return setPrimitive(index, PrimitiveSlot.INT, value);
+        }
+
+        public Builder setLong(final int index, final long value) {
+            return setPrimitive(index, PrimitiveSlot.LONG, value);
+        }
+
+        public Builder setDouble(final int index, final double value) {
+            return setPrimitive(index, PrimitiveSlot.DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        public Builder setBoolean(final int index, final boolean value) {
+            return setPrimitive(index, PrimitiveSlot.BOOLEAN, value ? 1L : 0L);
+        }
+
+        private Builder setPrimitive(final int index, final PrimitiveSlot slot, final long bits) {
+            final Object[] values = getValues();
+            if (primitiveValues == null) {
+                primitiveValues = new long[values.length];
+            }
+
+            values[index] = slot;
+            primitiveValues[index] = bits;
+            return this;
+        }
+
+        /**
+         * Sets the value of a field that is not part of the schema, in the same way as when a MapRecord is created with a value for such a field
+         *
+         * @param fieldName the name of the field
+         * @param value the value of the field
+         * @return this Builder
+         */
+        public Builder setUnknownValue(final String fieldName, final Object value) {
+            getValues();
+            if (unknownValues == null) {
+                unknownValues = new LinkedHashMap<>();
+            }
+
+            unknownValues.put(fieldName, value);
+            return this;
+        }
+
+        private Object[] getValues() {
+            if (values == null) {
+                throw new IllegalStateException("The Record has already been built");
+            }
+
+            return values;
+        }
+
+        public ArrayRecord build() {
+            return build(null, false, false);
+        }
+
+        public ArrayRecord build(final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+            getValues();
+            final ArrayRecord record = new ArrayRecord(this, serializedForm, checkTypes, dropUnknownFields);
+            values = null;
+            return record;
+        }
+    }
+}
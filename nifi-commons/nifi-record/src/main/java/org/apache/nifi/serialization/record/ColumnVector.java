@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>
+ * The values of a single field for each of the rows of a {@link RecordBatch}. Values of BOOLEAN, BYTE, SHORT, INT and LONG fields are
+ * stored in a <code>long[]</code> and values of FLOAT and DOUBLE fields in a <code>double[]</code>, so that they can be read and written
+ * without being boxed. Values of all other types are stored as Objects.
+ * </p>
+ *
+ * <p>
+ * Each row of a column is either absent, meaning that no value was given for the field, null, or holds a value. Values that are given
+ * as Objects are coerced to the type of the field before they are stored.
+ * </p>
+ */
+public class ColumnVector {
+    private static final byte ABSENT = 0;
+    private static final byte NULL = 1;
+    private static final byte PRESENT = 2;
+
+    private final RecordField field;
+    private final RecordFieldType fieldType;
+    private final byte[] states;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    private final Object[] objectValues;
+
+    public ColumnVector(final RecordField field, final int capacity) {
+        this.field = Objects.requireNonNull(field);
+        this.fieldType = field.getDataType().getFieldType();
+        this.states = new byte[capacity];
+
+        long[] longValues = null;
+        double[] doubleValues = null;
+        Object[] objectValues = null;
+        switch (fieldType) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                longValues = new long[capacity];
+                break;
+            case FLOAT:
+            case DOUBLE:
+                doubleValues = new double[capacity];
+                break;
+            default:
+                objectValues = new Object[capacity];
+                break;
+        }
+
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+        this.objectValues = objectValues;
+    }
+
+    public RecordField getField() {
+        return field;
+    }
+
+    /**
+     * @return <code>true</code> if values of this column are stored as primitive <code>long</code> or <code>double</code> values
+     */
+    public boolean isPrimitive() {
+        return objectValues == null;
+    }
+
+    /**
+     * @param row the index of the row
+     * @return <code>true</code> if a value, including a null value, was given for the row
+     */
+    public boolean isPresent(final int row) {
+        return states[row] != ABSENT;
+    }
+
+    /**
+     * @param row the index of the row
+     * @return <code>true</code> if the row has no value, either because it is absent or because it was set to null
+     */
+    public boolean isNull(final int row) {
+        return states[row] != PRESENT;
+    }
+
+    public void setNull(final int row) {
+        states[row] = NULL;
+        if (objectValues != null) {
+            objectValues[row] = null;
+        }
+    }
+
+    public void setLong(final int row, final long value) {
+        if (longValues == null) {
+            setValue(row, value);
+            return;
+        }
+
+        longValues[row] = value;
+        states[row] = PRESENT;
+    }
+
+    public void setDouble(final int row, final double value) {
+        if (doubleValues == null) {
+            setValue(row, value);
+            return;
+        }
+
+        doubleValues[row] = value;
+        states[row] = PRESENT;
+    }
+
+    public void setBoolean(final int row, final boolean value) {
+        if (fieldType != RecordFieldType.BOOLEAN) {
+            setValue(row, value);
+            return;
+        }
+
+        longValues[row] = value ? 1L : 0L;
+        states[row] = PRESENT;
+    }
+
+    /**
+     * Sets the value of the given row, coercing it to the type of the field if necessary
+     *
+     * @param row the index of the row
+     * @param value the value, which may be <code>null</code>
+     * @throws IllegalTypeConversionException if the value cannot be coerced to the type of the field
+     */
+    public void setValue(final int row, final Object value) {
+        if (value == null) {
+            setNull(row);
+            return;
+        }
+
+        if (objectValues != null) {
+            objectValues[row] = value;
+            states[row] = PRESENT;
+            return;
+        }
+
+        final Object coerced = isStorableType(value) ? value : DataTypeUtils.convertType(value, field.getDataType(), field.getFieldName());
+        if (coerced == null) {
+            setNull(row);
+        } else if (fieldType == RecordFieldType.BOOLEAN) {
+            setBoolean(row, (Boolean) coerced);
+        } else if (doubleValues != null) {
+            setDouble(row, ((Number) coerced).doubleValue());
+        } else {
+            setLong(row, ((Number) coerced).longValue());
+        }
+    }
+
+    private boolean isStorableType(final Object value) {
+        switch (fieldType) {
+            case BOOLEAN:
+                return value instanceof Boolean;
+            case BYTE:
+                return value instanceof Byte;
+            case SHORT:
+                return value instanceof Short || value instanceof Byte;
+            case INT:
+                return value instanceof Integer || value instanceof Short || value instanceof Byte;
+            case LONG:
+                return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+            case FLOAT:
+                return value instanceof Float;
+            case DOUBLE:
+                return value instanceof Double || value instanceof Float;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @param row the index of the row
+     * @return the value of the row as an instance of the Java type that corresponds to the type of the field, or <code>null</code> if the row has no value
+     */
+    public Object getValue(final int row) {
+        if (states[row] != PRESENT) {
+            return null;
+        }
+
+        switch (fieldType) {
+            case BOOLEAN:
+                return longValues[row] != 0L;
+            case BYTE:
+                return (byte) longValues[row];
+            case SHORT:
+                return (short) longValues[row];
+            case INT:
+                return (int) longValues[row];
+            case LONG:
+                return longValues[row];
+            case FLOAT:
+                return (float) doubleValues[row];
+            case DOUBLE:
+                return doubleValues[row];
+            default:
+                return objectValues[row];
+        }
+    }
+
+    public long getLong(final int row) {
+        if (longValues != null && states[row] == PRESENT) {
+            return longValues[row];
+        }
+
+        return DataTypeUtils.toLong(getRequiredValue(row), field.getFieldName());
+    }
+
+    public double getDouble(final int row) {
+        if (doubleValues != null && states[row] == PRESENT) {
+            return doubleValues[row];
+        }
+
+        return DataTypeUtils.toDouble(getRequiredValue(row), field.getFieldName());
+    }
+
+    public boolean getBoolean(final int row) {
+        if (fieldType == RecordFieldType.BOOLEAN && states[row] == PRESENT) {
+            return longValues[row] != 0L;
+        }
+
+        return DataTypeUtils.toBoolean(getRequiredValue(row), field.getFieldName());
+    }
+
+    private Object getRequiredValue(final int row) {
+        final Object value = getValue(row);
+        if (value == null) {
+            throw new IllegalTypeConversionException("Field " + field.getFieldName() + " has no value in row " + row);
+        }
+
+        return value;
+    }
+
+    /**
+     * Marks the given number of rows, starting with the first, as absent and releases any Objects that they reference
+     *
+     * @param rowCount the number of rows to clear
+     */
+    void clear(final int rowCount) {
+        Arrays.fill(states, 0, rowCount, ABSENT);
+        if (objectValues != null) {
+            Arrays.fill(objectValues, 0, rowCount, null);
+        }
+    }
+
+    void setAbsent(final int row) {
+        states[row] = ABSENT;
+    }
+}
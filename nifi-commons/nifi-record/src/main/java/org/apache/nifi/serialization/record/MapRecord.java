@@ -29,7 +29,6 @@ import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
 import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashMap;
@@ -283,50 +282,12 @@ public class MapRecord implements Record {
 
     @Override
     public int hashCode() {
-        return 31 + 41 * values.hashCode() + 7 * schema.hashCode();
+        return RecordValues.hashCode(this);
     }
 
     @Override
     public boolean equals(final Object obj) {
-        if (obj == this) {
-            return true;
-        }
-        if (obj == null) {
-            return false;
-        }
-        if (!(obj instanceof MapRecord)) {
-            return false;
-        }
-        final MapRecord other = (MapRecord) obj;
-        return schema.equals(other.schema) && valuesEqual(values, other.values);
-    }
-
-    private boolean valuesEqual(final Map<String, Object> thisValues, final Map<String, Object> otherValues) {
-        if (thisValues == null || otherValues == null) {
-            return false;
-        }
-
-        if (thisValues.size() != otherValues.size()) {
-            return false;
-        }
-
-        for (final Map.Entry<String, Object> entry : thisValues.entrySet()) {
-            final Object thisValue = entry.getValue();
-            final Object otherValue = otherValues.get(entry.getKey());
-            if (Objects.equals(thisValue, otherValue)) {
-                continue;
-            }
-
-            if (thisValue instanceof Object[] && otherValue instanceof Object[]) {
-                if (!Arrays.equals((Object[]) thisValue, (Object[]) otherValue)) {
-                    return false;
-                }
-            } else {
-                return false;
-            }
-        }
-
-        return true;
+        return RecordValues.equals(this, obj);
     }
 
     @Override
@@ -346,42 +307,7 @@ public class MapRecord implements Record {
 
     public Map<String, Object> toMap(boolean convertSubRecords) {
         if (convertSubRecords) {
-            Map<String, Object> newMap = new LinkedHashMap<>();
-            values.forEach((key, value) -> {
-                Object valueToAdd;
-
-                if (value instanceof MapRecord) {
-                    valueToAdd = ((MapRecord) value).toMap(true);
-                } else if (value != null
-                        && value.getClass().isArray()
-                        && ((Object[]) value)[0] instanceof MapRecord) {
-                    Object[] records = (Object[]) value;
-                    Map<String, Object>[] maps = new Map[records.length];
-                    for (int index = 0; index < records.length; index++) {
-                        maps[index] = ((MapRecord) records[index]).toMap(true);
-                    }
-                    valueToAdd = maps;
-                } else if (value instanceof List) {
-                    List<?> valueList = (List<?>) value;
-                    if (!valueList.isEmpty() && valueList.get(0) instanceof MapRecord) {
-                        List<Map<String, Object>> newRecords = new ArrayList<>();
-                        for (Object o : valueList) {
-                            MapRecord rec = (MapRecord) o;
-                            newRecords.add(rec.toMap(true));
-                        }
-
-                        valueToAdd = newRecords;
-                    } else {
-                        valueToAdd = value;
-                    }
-                } else {
-                    valueToAdd = value;
-                }
-
-                newMap.put(key, valueToAdd);
-            });
-
-            return newMap;
+            return RecordValues.toMap(this);
         } else {
             return Collections.unmodifiableMap(values);
         }
@@ -549,7 +475,7 @@ public class MapRecord implements Record {
 
         boolean fieldUpdated = false;
         for (final RecordField field : schema.getFields()) {
-            final RecordField updated = getUpdatedRecordField(field);
+            final RecordField updated = getUpdatedRecordField(field, getValue(field));
             if (!updated.equals(field)) {
                 fieldUpdated = true;
             }
@@ -572,7 +498,15 @@ public class MapRecord implements Record {
         this.schema = new SimpleRecordSchema(updatedFields);
     }
 
-    private RecordField getUpdatedRecordField(final RecordField field) {
+    /**
+     * Determines the field that should be used in place of the given field when inactive fields are incorporated into the schema of a Record,
+     * so that the data type of the field accounts for the schemas of any child Records
+     *
+     * @param field the field
+     * @param value the value of the field in the Record
+     * @return the updated field, or the given field if it does not need to be updated
+     */
+    static RecordField getUpdatedRecordField(final RecordField field, final Object value) {
         final DataType dataType = field.getDataType();
         final RecordFieldType fieldType = dataType.getFieldType();
 
@@ -580,7 +514,6 @@ public class MapRecord implements Record {
             return field;
         }
 
-        final Object value = getValue(field);
         if (value == null) {
             return field;
         }
@@ -659,7 +592,7 @@ public class MapRecord implements Record {
         return field;
     }
 
-    private boolean isSimpleType(final RecordFieldType fieldType) {
+    private static boolean isSimpleType(final RecordFieldType fieldType) {
         switch (fieldType) {
             case ARRAY:
             case RECORD:
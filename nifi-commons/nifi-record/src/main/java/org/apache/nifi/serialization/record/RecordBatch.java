@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * A batch of rows that conform to a {@link RecordSchema}, held as one {@link ColumnVector} per field of the schema rather than as one
+ * {@link Record} per row. A RecordBatch has a fixed capacity and is intended to be filled, consumed and then cleared and filled again,
+ * so that reading and writing many rows does not require creating objects for each of them.
+ * </p>
+ *
+ * <p>
+ * A RecordBatch holds only the fields of its schema. Values for any other fields are not retained.
+ * </p>
+ */
+public class RecordBatch {
+    private final RecordSchema schema;
+    private final List<RecordField> fields;
+    private final ColumnVector[] columns;
+    private final int capacity;
+    private int rowCount = 0;
+
+    public RecordBatch(final RecordSchema schema, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cannot create a Record Batch with a capacity of " + capacity + ". Capacity must be a positive integer");
+        }
+
+        this.schema = Objects.requireNonNull(schema);
+        this.fields = schema.getFields();
+        this.capacity = capacity;
+        this.columns = new ColumnVector[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ColumnVector(fields.get(i), capacity);
+        }
+    }
+
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of rows in the batch
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    public boolean isFull() {
+        return rowCount == capacity;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param index the position of the field in the schema
+     * @return the column for the field
+     */
+    public ColumnVector getColumn(final int index) {
+        return columns[index];
+    }
+
+    /**
+     * Returns the index of the column that holds values for the given field, which is the column for the field's name or, if the schema
+     * has no field with that name, the column for the first of the field's aliases that the schema has a field for
+     *
+     * @param field the field
+     * @return the index of the column, or <code>-1</code> if the batch has no column for the field
+     */
+    public int getColumnIndex(final RecordField field) {
+        final int index = schema.getFieldIndex(field.getFieldName());
+        if (index >= 0) {
+            return index;
+        }
+
+        for (final String alias : field.getAliases()) {
+            final int aliasIndex = schema.getFieldIndex(alias);
+            if (aliasIndex >= 0) {
+                return aliasIndex;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Adds a row to the batch in which every column is absent
+     *
+     * @return the index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int addRow() {
+        if (rowCount == capacity) {
+            throw new IllegalStateException("Cannot add a row to the Record Batch because it already has " + capacity + " rows");
+        }
+
+        final int row = rowCount++;
+        for (final ColumnVector column : columns) {
+            column.setAbsent(row);
+        }
+
+        return row;
+    }
+
+    /**
+     * Adds a row to the batch that holds the values of the given Record for the fields of the batch's schema
+     *
+     * @param record the Record
+     * @return the index of the new row
+     * @throws IllegalStateException if the batch is full
+     */
+    public int addRecord(final Record record) {
+        final int row = addRow();
+
+        Set<String> rawFieldNames = null;
+        for (int i = 0; i < columns.length; i++) {
+            final RecordField field = fields.get(i);
+            final Object value = record.getValue(field);
+            if (value != null) {
+                columns[i].setValue(row, value);
+                continue;
+            }
+
+            if (rawFieldNames == null) {
+                rawFieldNames = record.getRawFieldNames();
+            }
+            if (isPresent(field, rawFieldNames)) {
+                columns[i].setNull(row);
+            }
+        }
+
+        return row;
+    }
+
+    private boolean isPresent(final RecordField field, final Set<String> rawFieldNames) {
+        if (rawFieldNames.contains(field.getFieldName())) {
+            return true;
+        }
+
+        for (final String alias : field.getAliases()) {
+            if (rawFieldNames.contains(alias)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates a Record that holds the values of the given row. The Record does not reference the batch, so it remains valid after the batch is cleared.
+     *
+     * @param row the index of the row
+     * @return a Record for the row
+     */
+    public Record getRecord(final int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Cannot get row " + row + " of a Record Batch that has " + rowCount + " rows");
+        }
+
+        final ArrayRecord.Builder builder = new ArrayRecord.Builder(schema);
+        for (int i = 0; i < columns.length; i++) {
+            final ColumnVector column = columns[i];
+            if (!column.isPresent(row)) {
+                continue;
+            }
+
+            if (column.isNull(row)) {
+                builder.setValue(i, null);
+                continue;
+            }
+
+            switch (fields.get(i).getDataType().getFieldType()) {
+                case INT:
+                    builder.setInt(i, (int) column.getLong(row));
+                    break;
+                case LONG:
+                    builder.setLong(i, column.getLong(row));
+                    break;
+                case DOUBLE:
+                    builder.setDouble(i, column.getDouble(row));
+                    break;
+                case BOOLEAN:
+                    builder.setBoolean(i, column.getBoolean(row));
+                    break;
+                default:
+                    builder.setValue(i, column.getValue(row));
+                    break;
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Removes all rows from the batch so that it can be filled again
+     */
+    public void clear() {
+        for (final ColumnVector column : columns) {
+            column.clear(rowCount);
+        }
+
+        rowCount = 0;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implements the parts of the {@link Record} contract that must behave the same way for every implementation, so that a {@link MapRecord} and
+ * an {@link ArrayRecord} that hold the same values in the same schema are equal, have the same hash code and are converted into the same Map.
+ */
+final class RecordValues {
+
+    private RecordValues() {
+    }
+
+    /**
+     * Two Records are equal if they have the same schema and the same value for every field, whether the value was given under the field's
+     * name or one of its aliases. Fields that are not in the schema must also have the same values. A field that has no value is equal to a
+     * field whose value is <code>null</code>. Array values are compared by their elements.
+     */
+    static boolean equals(final Record record, final Object obj) {
+        if (obj == record) {
+            return true;
+        }
+        if (!(obj instanceof Record)) {
+            return false;
+        }
+
+        final Record other = (Record) obj;
+        final RecordSchema schema = record.getSchema();
+        if (!schema.equals(other.getSchema())) {
+            return false;
+        }
+
+        for (final RecordField field : schema.getFields()) {
+            if (!Objects.deepEquals(record.getValue(field), other.getValue(field))) {
+                return false;
+            }
+        }
+
+        return unknownValuesEqual(record, other) && unknownValuesEqual(other, record);
+    }
+
+    private static boolean unknownValuesEqual(final Record record, final Record other) {
+        for (final String fieldName : record.getRawFieldNames()) {
+            if (record.getSchema().getField(fieldName).isEmpty() && !Objects.deepEquals(record.getValue(fieldName), other.getValue(fieldName))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static int hashCode(final Record record) {
+        final RecordSchema schema = record.getSchema();
+
+        int valuesHash = 0;
+        for (final RecordField field : schema.getFields()) {
+            valuesHash = 31 * valuesHash + valueHashCode(record.getValue(field));
+        }
+
+        for (final String fieldName : record.getRawFieldNames()) {
+            if (schema.getField(fieldName).isEmpty()) {
+                valuesHash += fieldName.hashCode() ^ valueHashCode(record.getValue(fieldName));
+            }
+        }
+
+        return 31 + 41 * valuesHash + 7 * schema.hashCode();
+    }
+
+    private static int valueHashCode(final Object value) {
+        return value == null ? 0 : Arrays.deepHashCode(new Object[] {value});
+    }
+
+    /**
+     * Converts the given Record into a Map, converting any Record values, and any arrays or Lists of Records, into Maps as well
+     */
+    static Map<String, Object> toMap(final Record record) {
+        final Map<String, Object> map = new LinkedHashMap<>(record.toMap());
+        map.replaceAll((key, value) -> convertSubRecords(value));
+        return map;
+    }
+
+    private static Object convertSubRecords(final Object value) {
+        if (value instanceof Record) {
+            return toMap((Record) value);
+        }
+
+        if (value instanceof Object[] && containsRecords(Arrays.asList((Object[]) value))) {
+            final Object[] records = (Object[]) value;
+            final Map<?, ?>[] maps = new Map[records.length];
+            for (int index = 0; index < records.length; index++) {
+                maps[index] = records[index] == null ? null : toMap((Record) records[index]);
+            }
+            return maps;
+        }
+
+        if (value instanceof List && containsRecords((List<?>) value)) {
+            final List<Object> maps = new ArrayList<>();
+            for (final Object record : (List<?>) value) {
+                maps.add(record == null ? null : toMap((Record) record));
+            }
+            return maps;
+        }
+
+        return value;
+    }
+
+    /**
+     * @return <code>true</code> if the given elements include at least one Record and every element is either a Record or <code>null</code>
+     */
+    private static boolean containsRecords(final List<?> elements) {
+        boolean recordFound = false;
+        for (final Object element : elements) {
+            if (element instanceof Record) {
+                recordFound = true;
+            } else if (element != null) {
+                return false;
+            }
+        }
+
+        return recordFound;
+    }
+}
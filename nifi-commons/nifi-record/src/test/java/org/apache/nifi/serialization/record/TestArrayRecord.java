@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.type.RecordDataType;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestArrayRecord {
+
+    private static final List<String> NAMES = Arrays.asList("id", "name", "alias1", "alias2", "score", "active", "greeting", "other", "missing");
+
+    @Test
+    public void testValuesMatchMapRecord() {
+        final RecordSchema schema = createSchema();
+
+        for (final Map<String, Object> values : createValueMaps()) {
+            final Record mapRecord = new MapRecord(schema, values);
+            final Record arrayRecord = new ArrayRecord(schema, values);
+
+            for (final String name : NAMES) {
+                assertEquals(mapRecord.getValue(name), arrayRecord.getValue(name), "Unexpected value of " + name + " for " + values);
+            }
+            for (final RecordField field : schema.getFields()) {
+                assertEquals(mapRecord.getValue(field), arrayRecord.getValue(field), "Unexpected value of " + field + " for " + values);
+            }
+
+            assertArrayEquals(mapRecord.getValues(), arrayRecord.getValues());
+            assertEquals(mapRecord.getAsString("score"), arrayRecord.getAsString("score"));
+
+            final Record droppingArrayRecord = new ArrayRecord(schema, values, false, true);
+            assertNull(droppingArrayRecord.getValue("other"));
+        }
+    }
+
+    @Test
+    public void testAliasPrecedence() {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("alias2", 1);
+        values.put("alias1", 33);
+        values.put("name", null);
+
+        final Record record = new ArrayRecord(createSchema(), values);
+        assertEquals(33, record.getValue("name"));
+        assertEquals(33, record.getValue("alias2"));
+
+        final RecordField withAlias = new RecordField("hello", RecordFieldType.STRING.getDataType(), null, set("alias2"));
+        assertEquals(33, record.getValue(withAlias));
+        assertNull(record.getValue(new RecordField("hello", RecordFieldType.STRING.getDataType())));
+    }
+
+    @Test
+    public void testBuilderPrimitiveValues() {
+        final RecordSchema schema = createSchema();
+        final ArrayRecord.Builder builder = new ArrayRecord.Builder(schema);
+        final int idIndex = builder.getFieldIndex("id");
+        final int scoreIndex = builder.getFieldIndex("score");
+        final int activeIndex = builder.getFieldIndex("active");
+        final int nameIndex = builder.getFieldIndex("alias1");
+
+        final ArrayRecord record = builder.setLong(idIndex, 42L)
+            .setDouble(scoreIndex, 1.5D)
+            .setBoolean(activeIndex, true)
+            .setValue(nameIndex, "John")
+            .setUnknownValue("other", "unknown")
+            .build();
+
+        assertEquals(42L, record.getLong(idIndex));
+        assertEquals(1.5D, record.getDouble(scoreIndex));
+        assertTrue(record.getBoolean(activeIndex));
+        assertEquals(42L, record.getValue("id"));
+        assertEquals(1.5D, record.getValue("score"));
+        assertEquals(Boolean.TRUE, record.getValue("active"));
+        assertEquals("John", record.getValue("name"));
+        assertEquals("unknown", record.getValue("other"));
+        assertEquals("Hello", record.getValue("greeting"));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("id", "name", "score", "active", "other")), record.getRawFieldNames());
+
+        record.setValue("id", 43L);
+        assertEquals(43L, record.getLong(idIndex));
+        assertThrows(IllegalStateException.class, builder::build);
+
+        final ArrayRecord emptyRecord = new ArrayRecord.Builder(schema).setInt(idIndex, 7).build();
+        assertEquals(7, emptyRecord.getInt(idIndex));
+        assertEquals(7L, emptyRecord.getLong(idIndex));
+        assertThrows(IllegalTypeConversionException.class, () -> emptyRecord.getDouble(scoreIndex));
+    }
+
+    @Test
+    public void testSchemaFieldsChanged() {
+        final SimpleRecordSchema schema = createSchema();
+        final ArrayRecord record = new ArrayRecord.Builder(schema)
+            .setLong(0, 1L)
+            .setValue(1, "John")
+            .setDouble(2, 2.5D)
+            .build();
+
+        schema.removeField("name");
+        assertEquals(1L, record.getValue("id"));
+        assertEquals(2.5D, record.getValue("score"));
+        assertEquals("John", record.getValue("name"));
+        assertEquals(4, record.getValues().length);
+
+        record.setValue("added", "value");
+        record.incorporateInactiveFields();
+        assertTrue(record.getSchema().getField("added").isPresent());
+        assertEquals("value", record.getValue("added"));
+        assertEquals(1L, record.getValue("id"));
+    }
+
+    @Test
+    public void testCheckTypes() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("required", RecordFieldType.INT.getDataType(), false));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        assertThrows(SchemaValidationException.class, () -> new ArrayRecord(schema, new HashMap<>(), true, false));
+        assertThrows(SchemaValidationException.class, () -> new ArrayRecord.Builder(schema).setValue(0, "text").build(null, true, false));
+
+        final ArrayRecord record = new ArrayRecord.Builder(schema).setValue(0, "12").build(null, true, false);
+        assertEquals("12", record.getValue("required"));
+        record.setValue("required", "13");
+        assertEquals(13, record.getValue("required"));
+    }
+
+    @Test
+    public void testEquals() {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", 1L);
+        values.put("name", "John");
+
+        final ArrayRecord record = new ArrayRecord(createSchema(), values);
+        final ArrayRecord built = new ArrayRecord.Builder(createSchema()).setLong(0, 1L).setValue(1, "John").build();
+        assertEquals(record, built);
+        assertEquals(record.hashCode(), built.hashCode());
+
+        built.setValue("name", "Jane");
+        assertFalse(record.equals(built));
+    }
+
+    @Test
+    public void testEqualsMapRecord() {
+        final RecordSchema schema = createSchema();
+        for (final Map<String, Object> values : createValueMaps()) {
+            final Record mapRecord = new MapRecord(schema, values);
+            final Record arrayRecord = new ArrayRecord(schema, values);
+
+            assertEquals(mapRecord, arrayRecord, "Unexpected result for " + values);
+            assertEquals(arrayRecord, mapRecord, "Unexpected result for " + values);
+            assertEquals(mapRecord.hashCode(), arrayRecord.hashCode(), "Unexpected result for " + values);
+        }
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", 1L);
+        final Record mapRecord = new MapRecord(schema, values);
+        final Record arrayRecord = new ArrayRecord(schema, values);
+        arrayRecord.setValue("id", 2L);
+        assertFalse(mapRecord.equals(arrayRecord));
+        assertFalse(arrayRecord.equals(mapRecord));
+    }
+
+    @Test
+    public void testToMapConvertsNestedRecords() {
+        final RecordSchema nestedSchema = new SimpleRecordSchema(List.of(new RecordField("value", RecordFieldType.STRING.getDataType())));
+        final RecordDataType nestedType = new RecordDataType(nestedSchema);
+        final RecordSchema schema = new SimpleRecordSchema(List.of(
+            new RecordField("nested", nestedType),
+            new RecordField("array", RecordFieldType.ARRAY.getArrayDataType(nestedType)),
+            new RecordField("list", RecordFieldType.ARRAY.getArrayDataType(nestedType))));
+
+        final Map<String, Object> nestedValues = Map.of("value", "a");
+        final Record nestedArrayRecord = new ArrayRecord(nestedSchema, nestedValues);
+        final Record nestedMapRecord = new MapRecord(nestedSchema, nestedValues);
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("nested", nestedArrayRecord);
+        values.put("array", new Object[] {nestedArrayRecord, nestedMapRecord});
+        values.put("list", List.of(nestedMapRecord, nestedArrayRecord));
+
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("nested", nestedValues);
+        expected.put("list", List.of(nestedValues, nestedValues));
+
+        final MapRecord mapRecord = new MapRecord(schema, values);
+        final ArrayRecord arrayRecord = new ArrayRecord(schema, values);
+        for (final Map<String, Object> converted : List.of(mapRecord.toMap(true), arrayRecord.toMap(true))) {
+            assertEquals(expected.get("nested"), converted.get("nested"));
+            assertArrayEquals(new Object[] {nestedValues, nestedValues}, (Object[]) converted.get("array"));
+            assertEquals(expected.get("list"), converted.get("list"));
+        }
+
+        assertEquals(mapRecord, arrayRecord);
+        assertEquals(mapRecord.hashCode(), arrayRecord.hashCode());
+    }
+
+    /**
+     * Compares the time taken and the memory allocated to create and read Records with MapRecord and ArrayRecord
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testPerformanceComparedToMapRecord() {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+        final RecordSchema schema = createSchema();
+        final List<RecordField> fields = schema.getFields();
+        final int recordCount = 5_000_000;
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            double total = 0;
+            for (int i = 0; i < recordCount; i++) {
+                final Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+                values.put("id", (long) i);
+                values.put("name", "name");
+                values.put("score", i * 0.5D);
+                values.put("active", (i & 1) == 0);
+                final Record record = new MapRecord(schema, values);
+
+                for (final RecordField field : fields) {
+                    total += record.getValue(field) == null ? 0 : 1;
+                }
+                total += (Double) record.getValue("score");
+            }
+            System.out.printf("MapRecord: %,d nanos and %,d bytes per Record (%s)%n", (System.nanoTime() - start) / recordCount,
+                (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / recordCount, total);
+
+            allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            total = 0;
+            for (int i = 0; i < recordCount; i++) {
+                final ArrayRecord record = new ArrayRecord.Builder(schema)
+                    .setLong(0, i)
+                    .setValue(1, "name")
+                    .setDouble(2, i * 0.5D)
+                    .setBoolean(3, (i & 1) == 0)
+                    .build();
+
+                for (final RecordField field : fields) {
+                    total += record.getValue(field) == null ? 0 : 1;
+                }
+                total += record.getDouble(2);
+            }
+            System.out.printf("ArrayRecord: %,d nanos and %,d bytes per Record (%s)%n", (System.nanoTime() - start) / recordCount,
+                (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / recordCount, total);
+        }
+    }
+
+    private static SimpleRecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.LONG.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType(), null, set("alias1", "alias2")));
+        fields.add(new RecordField("score", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("greeting", RecordFieldType.STRING.getDataType(), "Hello"));
+        return new SimpleRecordSchema(fields);
+    }
+
+    private static List<Map<String, Object>> createValueMaps() {
+        final List<Map<String, Object>> valueMaps = new ArrayList<>();
+        valueMaps.add(new HashMap<>());
+
+        final Object[][] entries = {
+            {"id", 1L}, {"id", null}, {"name", "John"}, {"name", null}, {"alias1", "Johnny"}, {"alias2", "J"},
+            {"score", 2.5D}, {"active", true}, {"greeting", "Hi"}, {"greeting", null}, {"other", "unknown"}
+        };
+
+        // Each combination of up to three entries, in the given order
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = i; j < entries.length; j++) {
+                for (int k = j; k < entries.length; k++) {
+                    final Map<String, Object> values = new LinkedHashMap<>();
+                    values.put((String) entries[i][0], entries[i][1]);
+                    values.put((String) entries[j][0], entries[j][1]);
+                    values.put((String) entries[k][0], entries[k][1]);
+                    valueMaps.add(values);
+                }
+            }
+        }
+
+        return valueMaps;
+    }
+
+    private static Set<String> set(final String... values) {
+        return new LinkedHashSet<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.AbstractRecordSetWriter;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.RecordBatchWriter;
+import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.WriteResult;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRecordBatch {
+
+    @Test
+    public void testColumnValues() {
+        final RecordBatch batch = new RecordBatch(createSchema(), 4);
+        final ColumnVector id = batch.getColumn(0);
+        final ColumnVector name = batch.getColumn(1);
+        final ColumnVector score = batch.getColumn(2);
+        final ColumnVector active = batch.getColumn(3);
+        assertTrue(id.isPrimitive());
+        assertFalse(name.isPrimitive());
+
+        final int first = batch.addRow();
+        id.setLong(first, 1L);
+        name.setValue(first, "John");
+        score.setValue(first, "2.5");
+        active.setBoolean(first, true);
+
+        final int second = batch.addRow();
+        id.setValue(second, 2);
+        score.setNull(second);
+
+        assertEquals(2, batch.getRowCount());
+        assertEquals(1L, id.getValue(first));
+        assertEquals(2L, id.getValue(second));
+        assertEquals(2.5D, score.getDouble(first));
+        assertEquals(Boolean.TRUE, active.getValue(first));
+
+        assertTrue(score.isPresent(second));
+        assertTrue(score.isNull(second));
+        assertFalse(name.isPresent(second));
+        assertNull(name.getValue(second));
+        assertThrows(IllegalTypeConversionException.class, () -> score.getDouble(second));
+        assertThrows(IllegalTypeConversionException.class, () -> id.setValue(first, new Object()));
+    }
+
+    @Test
+    public void testRecordsRoundTrip() {
+        final RecordSchema schema = createSchema();
+        final RecordBatch batch = new RecordBatch(schema, 2);
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", 1L);
+        values.put("full_name", "John");
+        values.put("score", null);
+        values.put("other", "dropped");
+        batch.addRecord(new MapRecord(schema, values));
+        batch.addRecord(new MapRecord(schema, Collections.singletonMap("id", 2L)));
+        assertTrue(batch.isFull());
+        assertThrows(IllegalStateException.class, batch::addRow);
+
+        final Record first = batch.getRecord(0);
+        assertEquals(1L, first.getValue("id"));
+        assertEquals("John", first.getValue("name"));
+        assertTrue(first.getRawFieldNames().contains("score"));
+        assertFalse(first.getRawFieldNames().contains("active"));
+        assertNull(first.getValue("other"));
+
+        final Record second = batch.getRecord(1);
+        assertEquals(2L, second.getValue("id"));
+        assertFalse(second.getRawFieldNames().contains("score"));
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+        assertEquals(1L, first.getValue("id"));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getRecord(0));
+
+        final RecordField aliased = new RecordField("nickname", RecordFieldType.STRING.getDataType(), null, Collections.singleton("name"));
+        assertEquals(1, batch.getColumnIndex(aliased));
+        assertEquals(-1, batch.getColumnIndex(new RecordField("other", RecordFieldType.STRING.getDataType())));
+    }
+
+    @Test
+    public void testRowAdapters() throws Exception {
+        final RecordSchema schema = createSchema();
+        final List<Record> records = new ArrayList<>();
+        for (long i = 0; i < 5; i++) {
+            records.add(new MapRecord(schema, Collections.singletonMap("id", i)));
+        }
+
+        final List<Record> written = new ArrayList<>();
+        final AbstractRecordSetWriter writer = new AbstractRecordSetWriter(new ByteArrayOutputStream()) {
+            @Override
+            protected Map<String, String> writeRecord(final Record record) {
+                written.add(record);
+                return Collections.emptyMap();
+            }
+
+            @Override
+            public String getMimeType() {
+                return "text/plain";
+            }
+        };
+
+        final RecordBatchReader batchReader = RecordBatchReader.of(createReader(schema, records));
+        assertSame(batchReader, RecordBatchReader.of(batchReader));
+
+        final RecordBatchWriter batchWriter = RecordBatchWriter.of(writer);
+        final RecordBatch batch = new RecordBatch(batchReader.getSchema(), 2);
+        batchWriter.beginRecordSet();
+
+        int batches = 0;
+        while (batchReader.nextBatch(batch) > 0) {
+            batchWriter.writeBatch(batch);
+            batches++;
+        }
+
+        final WriteResult writeResult = batchWriter.finishRecordSet();
+        assertEquals(3, batches);
+        assertEquals(5, writeResult.getRecordCount());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i).getValue("id"), written.get(i).getValue("id"));
+        }
+    }
+
+    private static RecordReader createReader(final RecordSchema schema, final List<Record> records) {
+        final Iterator<Record> iterator = records.iterator();
+        return new RecordReader() {
+            @Override
+            public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public RecordSchema getSchema() {
+                return schema;
+            }
+
+            @Override
+            public void close() throws IOException {
+            }
+        };
+    }
+
+    private static RecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.LONG.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType(), null, Collections.singleton("full_name")));
+        fields.add(new RecordField("score", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        return new SimpleRecordSchema(fields);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.util.file;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utility methods for files that are accessed through memory-mapped buffers.
+ */
+public class MappedFiles {
+
+    private static final int ZERO_BUFFER_SIZE = 64 * 1024;
+
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (final Exception e) {
+            // Mapped buffers are then released only when they are garbage collected
+            invokeCleaner = null;
+            unsafe = null;
+        }
+
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private MappedFiles() {
+    }
+
+    /**
+     * Allocates the disk space for the given region of a file by writing zeros to it. A region that extends beyond the end of the file
+     * would otherwise be created as a sparse region when it is mapped, and if the disk then filled up, writing to the mapped buffer would
+     * fail with a fatal error in the JVM rather than an IOException.
+     *
+     * @param channel the channel to write to
+     * @param position the position in the file at which the region starts
+     * @param length the number of bytes in the region
+     * @throws IOException if the space cannot be allocated, such as when the disk is full
+     */
+    public static void preallocate(final FileChannel channel, final long position, final long length) throws IOException {
+        final ByteBuffer zeros = ByteBuffer.allocateDirect((int) Math.min(length, ZERO_BUFFER_SIZE));
+
+        long offset = position;
+        final long end = position + length;
+        while (offset < end) {
+            zeros.clear();
+            zeros.limit((int) Math.min(zeros.capacity(), end - offset));
+            while (zeros.hasRemaining()) {
+                offset += channel.write(zeros, offset);
+            }
+        }
+    }
+
+    /**
+     * Unmaps the given buffer immediately, rather than waiting for it to be garbage collected, so that the memory is released and the
+     * file can be deleted or truncated. The buffer must not be accessed after this method is called.
+     *
+     * @param buffer the buffer to unmap
+     * @return <code>true</code> if the buffer was unmapped, <code>false</code> if the JVM does not allow buffers to be unmapped explicitly,
+     * in which case the buffer is unmapped when it is garbage collected
+     */
+    public static boolean unmap(final MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer == null || !buffer.isDirect()) {
+            return false;
+        }
+
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            return true;
+        } catch (final Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.util.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMappedFiles {
+
+    @Test
+    public void testPreallocate(@TempDir final Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("preallocated");
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+            MappedFiles.preallocate(channel, 3, 200_000);
+            assertEquals(200_003, channel.size());
+        }
+
+        final byte[] contents = Files.readAllBytes(file);
+        assertEquals(3, contents[2]);
+        for (int i = 3; i < contents.length; i++) {
+            assertEquals(0, contents[i]);
+        }
+    }
+
+    @Test
+    public void testUnmap(@TempDir final Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("mapped");
+        final MappedByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedFiles.preallocate(channel, 0, 4096);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 4096);
+            buffer.put(0, (byte) 7);
+        }
+
+        assertTrue(MappedFiles.unmap(buffer));
+        assertEquals(7, Files.readAllBytes(file)[0]);
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Coalesces the fsync requests of many concurrent writers into a single call to {@link WriteAheadJournal#fsync()}.
+ * </p>
+ *
+ * <p>
+ * Each writer first writes its transaction to the journal and then calls {@link #onWriteComplete()} in order to obtain a
+ * write sequence number. The writer then calls {@link #awaitSync(long, WriteAheadJournal)}. If no sync is currently in progress,
+ * the writer becomes the 'leader' of the next batch: it optionally waits for the configured batch window so that additional
+ * writers are able to join the batch, records the highest write sequence that has been completed, and then syncs the journal.
+ * All other writers park until a sync that encompasses their write sequence has completed. As a result, a single call to
+ * <code>FileChannel.force</code> makes durable the transactions of every writer that completed its write before the sync began.
+ * </p>
+ *
+ * <p>
+ * If the sync fails, the journal is poisoned and no writer is released as having been synced. Each waiting writer will in turn
+ * attempt to sync the journal itself and will receive the IOException that indicates that the journal has been poisoned.
+ * </p>
+ */
+public class GroupCommitSynchronizer {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitSynchronizer.class);
+
+    private final long batchWindowNanos;
+    private final AtomicLong writeSequence = new AtomicLong(0L);
+    private final AtomicLong syncCount = new AtomicLong(0L);
+    private final Object monitor = new Object();
+
+    private long syncedSequence = 0L; // guarded by monitor
+    private boolean syncInProgress = false; // guarded by monitor
+
+    /**
+     * @param batchWindowNanos the number of nanoseconds that the leader of a batch should wait before syncing, in order to allow
+     *            additional writers to join the batch. A value of 0 causes the leader to sync immediately, in which case batches are formed
+     *            only from those writers that complete their writes while a previous sync is in progress.
+     */
+    public GroupCommitSynchronizer(final long batchWindowNanos) {
+        if (batchWindowNanos < 0) {
+            throw new IllegalArgumentException("Batch window cannot be negative");
+        }
+
+        this.batchWindowNanos = batchWindowNanos;
+    }
+
+    /**
+     * Indicates that a writer has finished writing its transaction to the journal. This method must be called only after the data
+     * has been handed to the operating system so that a subsequent sync of the journal is guaranteed to include it.
+     *
+     * @return the write sequence that must be provided to {@link #awaitSync(long, WriteAheadJournal)}
+     */
+    public long onWriteComplete() {
+        return writeSequence.incrementAndGet();
+    }
+
+    /**
+     * Blocks until the journal has been synced to disk at least through the given write sequence, performing the sync on behalf of all
+     * pending writers if no other thread is currently doing so.
+     *
+     * @param sequence the write sequence returned by {@link #onWriteComplete()}
+     * @param journal the journal to sync
+     * @throws IOException if unable to sync the journal or if interrupted while waiting for the sync to complete
+     */
+    public void awaitSync(final long sequence, final WriteAheadJournal<?> journal) throws IOException {
+        synchronized (monitor) {
+            while (true) {
+                if (syncedSequence >= sequence) {
+                    return;
+                }
+
+                if (!syncInProgress) {
+                    syncInProgress = true;
+                    break;
+                }
+
+                try {
+                    monitor.wait();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for Write-Ahead Log journal to be synced to disk");
+                }
+            }
+        }
+
+        long targetSequence = 0L;
+        boolean synced = false;
+        try {
+            if (batchWindowNanos > 0) {
+                LockSupport.parkNanos(batchWindowNanos);
+            }
+
+            targetSequence = writeSequence.get();
+            journal.fsync();
+
+            if (!journal.isHealthy()) {
+                throw new IOException("Failed to sync Write-Ahead Log journal to disk because the journal is no longer healthy");
+            }
+
+            synced = true;
+            syncCount.incrementAndGet();
+            logger.trace("Synced journal through write sequence {}", targetSequence);
+        } finally {
+            synchronized (monitor) {
+                if (synced) {
+                    syncedSequence = Math.max(syncedSequence, targetSequence);
+                }
+
+                syncInProgress = false;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return the number of writes that have been registered via {@link #onWriteComplete()}
+     */
+    public long getWriteCount() {
+        return writeSequence.get();
+    }
+
+    /**
+     * @return the number of times that the journal has been synced to disk
+     */
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+}
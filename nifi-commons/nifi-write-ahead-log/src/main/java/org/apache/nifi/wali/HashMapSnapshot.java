@@ -25,6 +25,7 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -32,29 +33,121 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * A {@link WriteAheadSnapshot} that keeps the most recent version of every active record in a ConcurrentHashMap and
+ * writes all of them to a single Snapshot file on each checkpoint.
+ * </p>
+ *
+ * <p>
+ * If constructed with a positive number of delta snapshots, the snapshot additionally keeps track of which records have changed
+ * since the last checkpoint. A checkpoint then writes only those records to a 'delta' file, with records that were deleted or swapped out
+ * written as tombstones, so that the cost of a checkpoint is proportional to the number of records that changed rather than to the total
+ * number of records. Once the configured number of delta files exists, a background thread compacts them into a new, full Snapshot
+ * file, after which the delta files that it encompasses are removed. On recovery, the full Snapshot is restored, and then each newer delta
+ * file is applied in the order in which it was written.
+ * </p>
+ *
+ * <p>
+ * A checkpoint that writes a delta file captures only the changed records while updates to the Write-Ahead Log are blocked. Compaction
+ * reads the previous full Snapshot and the delta files back from disk, rather than capturing the records that are held in memory, so
+ * all records are copied while updates are blocked only for a checkpoint that writes a full Snapshot directly.
+ * </p>
+ *
+ * <p>
+ * Delta files are always applied during recovery, regardless of how the snapshot is configured, so incremental snapshots may be enabled or
+ * disabled without losing data. The first checkpoint after recovery always writes a full Snapshot, because the records that were recovered
+ * from journals are not known to have changed. Because delta files contain only changes, recovery fails if delta files exist but the full
+ * Snapshot that they apply to is missing or cannot be read, rather than restoring only the records that changed.
+ * </p>
+ */
 public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
     private static final Logger logger = LoggerFactory.getLogger(HashMapSnapshot.class);
-    private static final int ENCODING_VERSION = 1;
+    private static final int SEQUENTIAL_ENCODING_VERSION = 1;
+    private static final int CHUNKED_ENCODING_VERSION = 2;
+    private static final int CHUNK_RECORD_COUNT = 10_000;
+    private static final int CHUNK_SIZE_BYTES = 1024 * 1024;
+    static final int MAX_PENDING_CHUNKS_PER_THREAD = 4;
+    private static final String DELTA_FILENAME_PREFIX = "checkpoint.delta.";
+    private static final Pattern DELTA_FILENAME_PATTERN = Pattern.compile("checkpoint\\.delta\\.(\\d+)");
 
     private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, T> changedRecords = new ConcurrentHashMap<>();
     private final SerDeFactory<T> serdeFactory;
     private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
     private final File storageDirectory;
+    private final int maxDeltaSnapshots;
+    private final int encodingVersion;
+
+    // guarded by synchronizing on this
+    private boolean fullSnapshotRequired = true;
+    private long snapshotMaxTransactionId = -1L;
+    private long deltaSequence = 0L;
+    private int deltaCount = 0;
+    private boolean compactionInProgress = false;
 
     public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory) {
+        this(storageDirectory, serdeFactory, 0);
+    }
+
+    /**
+     * @param storageDirectory the directory to write the snapshot to
+     * @param serdeFactory the factory used to serialize and deserialize records
+     * @param maxDeltaSnapshots the number of delta snapshots to write before compacting them into a full snapshot,
+     *            or 0 to write a full snapshot on every checkpoint
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxDeltaSnapshots) {
+        this(storageDirectory, serdeFactory, maxDeltaSnapshots, false);
+    }
+
+    /**
+     * @param storageDirectory the directory to write the snapshot to
+     * @param serdeFactory the factory used to serialize and deserialize records
+     * @param maxDeltaSnapshots the number of delta snapshots to write before compacting them into a full snapshot,
+     *            or 0 to write a full snapshot on every checkpoint
+     * @param chunkedEncoding whether to write records in length-delimited chunks that can be deserialized concurrently on recovery.
+     *            Snapshots that are written in chunks cannot be read by versions of NiFi that predate the chunked encoding.
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxDeltaSnapshots, final boolean chunkedEncoding) {
+        if (maxDeltaSnapshots < 0) {
+            throw new IllegalArgumentException("Max number of delta snapshots cannot be negative");
+        }
+
         this.serdeFactory = serdeFactory;
         this.storageDirectory = storageDirectory;
+        this.maxDeltaSnapshots = maxDeltaSnapshots;
+        this.encodingVersion = chunkedEncoding ? CHUNKED_ENCODING_VERSION : SEQUENTIAL_ENCODING_VERSION;
+    }
+
+    private boolean isIncremental() {
+        return maxDeltaSnapshots > 0;
     }
 
     private SnapshotHeader validateHeader(final DataInputStream dataIn) throws IOException {
@@ -67,9 +160,9 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
 
         final int snapshotVersion = dataIn.readInt();
         logger.debug("Snapshot version for {} is {}", storageDirectory, snapshotVersion);
-        if (snapshotVersion > getVersion()) {
+        if (snapshotVersion > CHUNKED_ENCODING_VERSION) {
             throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " was written using version "
-                + snapshotVersion + " of the " + snapshotClass + " class; cannot restore using Version " + getVersion());
+                + snapshotVersion + " of the " + snapshotClass + " class; cannot restore using Version " + CHUNKED_ENCODING_VERSION);
         }
 
         final String serdeEncoding = dataIn.readUTF(); // ignore serde class name for now
@@ -84,14 +177,114 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         final int numRecords = dataIn.readInt();
         logger.debug("Number of Records for Snapshot at {} is {}", storageDirectory, numRecords);
 
+        // As of version 2, the SerDe's header is length-delimited so that it can be provided to additional SerDe instances
+        // in order to deserialize chunks of records concurrently.
         final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
-        serde.readHeader(dataIn);
+        final byte[] serdeHeader;
+        if (snapshotVersion >= CHUNKED_ENCODING_VERSION) {
+            serdeHeader = new byte[dataIn.readInt()];
+            dataIn.readFully(serdeHeader);
+            serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
+        } else {
+            serdeHeader = null;
+            serde.readHeader(dataIn);
+        }
+
+        return new SnapshotHeader(snapshotVersion, serde, serdeEncoding, serdeHeader, serdeVersion, maxTransactionId, numRecords);
+    }
+
+    /**
+     * Reads the records that follow the given header, handing each to the given consumer. If an executor is provided and the snapshot
+     * was written in chunks, each chunk is deserialized by the executor, in which case the consumer must be thread-safe and records will
+     * not necessarily be consumed in the order in which they were written.
+     */
+    private void readRecords(final DataInputStream dataIn, final SnapshotHeader header, final ExecutorService executor, final Consumer<T> recordConsumer) throws IOException {
+        if (header.getEncodingVersion() < CHUNKED_ENCODING_VERSION) {
+            readRecords(dataIn, header.getSerDe(), header.getSerDeVersion(), header.getNumRecords(), recordConsumer);
+            return;
+        }
+
+        final int recoveryThreads = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+        final int maxPendingChunks = MAX_PENDING_CHUNKS_PER_THREAD * recoveryThreads;
+        final Queue<Future<?>> pendingChunks = new ArrayDeque<>();
+        try {
+            int recordsRead = 0;
+            while (recordsRead < header.getNumRecords()) {
+                final int chunkRecordCount = dataIn.readInt();
+                final byte[] chunk = new byte[dataIn.readInt()];
+                dataIn.readFully(chunk);
+                recordsRead += chunkRecordCount;
+
+                if (executor == null) {
+                    readRecords(new DataInputStream(new ByteArrayInputStream(chunk)), header.getSerDe(), header.getSerDeVersion(), chunkRecordCount, recordConsumer);
+                    continue;
+                }
+
+                // Avoid holding too many chunks in memory if deserialization cannot keep up with reading the file
+                while (pendingChunks.size() >= maxPendingChunks) {
+                    waitFor(pendingChunks.remove());
+                }
+
+                pendingChunks.add(executor.submit(() -> {
+                    final SerDe<T> chunkSerDe = serdeFactory.createSerDe(header.getSerDeEncoding());
+                    chunkSerDe.readHeader(new DataInputStream(new ByteArrayInputStream(header.getSerDeHeader())));
+                    readRecords(new DataInputStream(new ByteArrayInputStream(chunk)), chunkSerDe, header.getSerDeVersion(), chunkRecordCount, recordConsumer);
+                    return null;
+                }));
+            }
+
+            while (!pendingChunks.isEmpty()) {
+                waitFor(pendingChunks.remove());
+            }
+        } finally {
+            for (final Future<?> future : pendingChunks) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void readRecords(final DataInputStream in, final SerDe<T> serde, final int serdeVersion, final int numRecords, final Consumer<T> recordConsumer) throws IOException {
+        for (int i = 0; i < numRecords; i++) {
+            final T record = serde.deserializeRecord(in, serdeVersion);
+            if (record == null) {
+                throw new EOFException();
+            }
+
+            recordConsumer.accept(record);
+        }
+    }
 
-        return new SnapshotHeader(serde, serdeVersion, maxTransactionId, numRecords);
+    private void waitFor(final Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Snapshot records to be deserialized");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException("Failed to deserialize Snapshot records", cause);
+        }
     }
 
     @Override
-    public SnapshotRecovery<T> recover() throws IOException {
+    public synchronized SnapshotRecovery<T> recover() throws IOException {
+        return recover(null);
+    }
+
+    @Override
+    public synchronized SnapshotRecovery<T> recover(final ExecutorService executor) throws IOException {
+        deleteIncompleteFiles();
+
         final File partialFile = getPartialFile();
         final File snapshotFile = getSnapshotFile();
         final boolean partialExists = partialFile.exists();
@@ -100,6 +293,7 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         // If there is no snapshot (which is the case before the first snapshot is ever created), then just
         // return an empty recovery.
         if (!partialExists && !snapshotExists) {
+            verifyNoDeltaFiles();
             return SnapshotRecovery.emptyRecovery();
         }
 
@@ -115,6 +309,7 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
 
         if (snapshotFile.length() == 0) {
+            verifyNoDeltaFiles();
             logger.warn("{} Found 0-byte Snapshot file; skipping Snapshot file in recovery", this);
             return SnapshotRecovery.emptyRecovery();
         }
@@ -125,41 +320,118 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             // Ensure that the header contains the information that we expect and retrieve the relevant information from the header.
             final SnapshotHeader header = validateHeader(dataIn);
 
-            final SerDe<T> serde = header.getSerDe();
-            final int serdeVersion = header.getSerDeVersion();
             final int numRecords = header.getNumRecords();
             final long maxTransactionId = header.getMaxTransactionId();
 
-            // Read all of the records that we expect to receive.
-            for (int i = 0; i < numRecords; i++) {
-                final T record = serde.deserializeRecord(dataIn, serdeVersion);
-                if (record == null) {
-                    throw new EOFException();
-                }
+            // Read all of the records that we expect to receive, followed by the location of any swap files.
+            final Set<String> swapLocations = new HashSet<>();
+            readFullSnapshot(dataIn, header, executor, recordMap, swapLocations);
+            this.swapLocations.addAll(swapLocations);
+
+            logger.info("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}",
+                new Object[] {this, numRecords, swapLocations.size(), maxTransactionId});
+
+            snapshotMaxTransactionId = maxTransactionId;
+            final long recoveredMaxTransactionId = recoverDeltas(maxTransactionId, executor);
+            return new StandardSnapshotRecovery<>(recordMap, new HashSet<>(this.swapLocations), snapshotFile, recoveredMaxTransactionId);
+        }
+    }
 
-                final UpdateType updateType = serde.getUpdateType(record);
-                if (updateType == UpdateType.DELETE) {
-                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+    /**
+     * Applies, in the order in which they were written, any delta files that were written after the snapshot that was recovered.
+     * Delta files that are already encompassed by the snapshot are deleted.
+     *
+     * @param snapshotTransactionId the max transaction ID of the recovered snapshot
+     * @return the max transaction ID of the last delta file that was applied, or the given transaction ID if no delta file was applied
+     */
+    private long recoverDeltas(final long snapshotTransactionId, final ExecutorService executor) throws IOException {
+        long maxTransactionId = snapshotTransactionId;
+
+        for (final DeltaFile deltaFile : getDeltaFiles()) {
+            deltaSequence = Math.max(deltaSequence, deltaFile.getSequence());
+
+            boolean encompassed = false;
+            try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile.getFile())))) {
+                final SnapshotHeader header = validateHeader(dataIn);
+                if (header.getMaxTransactionId() <= snapshotTransactionId) {
+                    encompassed = true;
                     continue;
                 }
 
-                logger.trace("Recovered from snapshot: {}", record);
-                recordMap.put(serde.getRecordIdentifier(record), record);
+                applyDeltaSnapshot(dataIn, header, executor, recordMap, swapLocations);
+                maxTransactionId = header.getMaxTransactionId();
+                deltaCount++;
+
+                logger.info("{} applied {} Records from Delta Snapshot {}, ending with Transaction ID {}", this, header.getNumRecords(), deltaFile.getFile(), maxTransactionId);
+            } finally {
+                if (encompassed) {
+                    logger.debug("{} Deleting Delta Snapshot {} because it is already encompassed by the Snapshot", this, deltaFile.getFile());
+                    Files.delete(deltaFile.getFile().toPath());
+                }
             }
+        }
 
-            // Determine the location of any swap files.
-            final int numSwapRecords = dataIn.readInt();
-            final Set<String> swapLocations = new HashSet<>();
-            for (int i = 0; i < numSwapRecords; i++) {
-                swapLocations.add(dataIn.readUTF());
+        return maxTransactionId;
+    }
+
+    private void verifyNoDeltaFiles() throws IOException {
+        final List<DeltaFile> deltaFiles = getDeltaFiles();
+        if (!deltaFiles.isEmpty()) {
+            throw new IOException("Found " + deltaFiles.size() + " Delta Snapshots in " + storageDirectory + " but no Snapshot to apply them to; "
+                + "cannot recover the Records that did not change since the Snapshot was written");
+        }
+    }
+
+    /**
+     * Reads the records and swap locations that follow the header of a full Snapshot into the given map and set. If an executor is provided,
+     * the map must be thread-safe.
+     */
+    private void readFullSnapshot(final DataInputStream dataIn, final SnapshotHeader header, final ExecutorService executor, final Map<Object, T> records,
+                                  final Set<String> swapFileLocations) throws IOException {
+        readRecords(dataIn, header, executor, record -> {
+            final UpdateType updateType = serdeFactory.getUpdateType(record);
+            if (updateType == UpdateType.DELETE) {
+                logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                return;
             }
-            this.swapLocations.addAll(swapLocations);
 
-            logger.info("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}",
-                new Object[] {this, numRecords, swapLocations.size(), maxTransactionId});
+            logger.trace("Recovered from snapshot: {}", record);
+            records.put(serdeFactory.getRecordIdentifier(record), record);
+        });
 
-            return new StandardSnapshotRecovery<>(recordMap, swapLocations, snapshotFile, maxTransactionId);
+        swapFileLocations.addAll(readSwapLocations(dataIn));
+    }
+
+    /**
+     * Applies the records and swap locations that follow the header of a Delta Snapshot to the given map and set. If an executor is provided,
+     * the map must be thread-safe.
+     */
+    private void applyDeltaSnapshot(final DataInputStream dataIn, final SnapshotHeader header, final ExecutorService executor, final Map<Object, T> records,
+                                    final Set<String> swapFileLocations) throws IOException {
+        // A Delta Snapshot contains at most one update for each record, so the order in which they are applied does not matter.
+        readRecords(dataIn, header, executor, record -> {
+            final Object recordId = serdeFactory.getRecordIdentifier(record);
+            final UpdateType updateType = serdeFactory.getUpdateType(record);
+            if (updateType == UpdateType.DELETE || updateType == UpdateType.SWAP_OUT) {
+                records.remove(recordId);
+            } else {
+                records.put(recordId, record);
+            }
+        });
+
+        // Each delta file contains the complete set of swap locations at the time that it was written.
+        final Set<String> deltaSwapLocations = readSwapLocations(dataIn);
+        swapFileLocations.clear();
+        swapFileLocations.addAll(deltaSwapLocations);
+    }
+
+    private Set<String> readSwapLocations(final DataInputStream dataIn) throws IOException {
+        final int numSwapRecords = dataIn.readInt();
+        final Set<String> swapFileLocations = new HashSet<>();
+        for (int i = 0; i < numSwapRecords; i++) {
+            swapFileLocations.add(dataIn.readUTF());
         }
+        return swapFileLocations;
     }
 
     @Override
@@ -168,7 +440,8 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         // (meaning records that have not been removed and are not swapped out), keyed by the
         // Record Identifier. It keeps only the most up-to-date version of the Record. This allows
         // us to write the snapshot very quickly without having to re-process the journal files.
-        // For each update, then, we will update the record in the map.
+        // For each update, then, we will update the record in the map. If writing incremental snapshots,
+        // we also keep the latest update for each Record that has changed since the last checkpoint.
         for (final T record : records) {
             final Object recordId = serdeFactory.getRecordIdentifier(record);
             final UpdateType updateType = serdeFactory.getUpdateType(record);
@@ -176,6 +449,7 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             switch (updateType) {
                 case DELETE:
                     recordMap.remove(recordId);
+                    recordChange(recordId, record);
                     break;
                 case SWAP_OUT:
                     final String location = serdeFactory.getLocation(record);
@@ -186,6 +460,7 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
                     } else {
                         recordMap.remove(recordId);
                         this.swapLocations.add(location);
+                        recordChange(recordId, record);
                     }
                     break;
                 case SWAP_IN:
@@ -198,14 +473,22 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
                         swapLocations.remove(swapLocation);
                     }
                     recordMap.put(recordId, record);
+                    recordChange(recordId, record);
                     break;
                 default:
                     recordMap.put(recordId, record);
+                    recordChange(recordId, record);
                     break;
             }
         }
     }
 
+    private void recordChange(final Object recordId, final T record) {
+        if (isIncremental()) {
+            changedRecords.put(recordId, record);
+        }
+    }
+
     @Override
     public int getRecordCount() {
         return recordMap.size();
@@ -223,11 +506,25 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
 
     @Override
     public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId, final Set<String> swapFileLocations) {
-        return new Snapshot(new HashMap<>(recordMap), new HashSet<>(swapFileLocations), maxTransactionId);
+        final Map<Object, T> changes = isIncremental() ? new HashMap<>(changedRecords) : Collections.emptyMap();
+        return new Snapshot(new HashMap<>(recordMap), new HashSet<>(swapFileLocations), maxTransactionId, changes);
     }
 
-    private int getVersion() {
-        return ENCODING_VERSION;
+    @Override
+    public SnapshotCapture<T> prepareCheckpoint(final long maxTransactionId, final Set<String> swapFileLocations) {
+        final Set<String> locations = swapFileLocations == null ? this.swapLocations : swapFileLocations;
+        if (!isIncremental() || isFullSnapshotRequired()) {
+            return prepareSnapshot(maxTransactionId, locations);
+        }
+
+        return new Snapshot(new HashMap<>(changedRecords), recordMap.size(), new HashSet<>(locations), maxTransactionId);
+    }
+
+    /**
+     * @return <code>true</code> if the next checkpoint will write a full Snapshot
+     */
+    private synchronized boolean isFullSnapshotRequired() {
+        return fullSnapshotRequired;
     }
 
     private File getPartialFile() {
@@ -240,8 +537,35 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
 
     @Override
     public synchronized void writeSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
-        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        final Map<Object, T> changes = getChanges(snapshot);
+        if (isIncremental() && !fullSnapshotRequired && changes != null) {
+            writeDeltaSnapshot(snapshot, changes);
+        } else if (!isComplete(snapshot)) {
+            // The changes were captured before a full Snapshot became required. They are retained, so the next checkpoint captures all records.
+            throw new IOException("Cannot write a full Snapshot from a capture of only the " + changes.size() + " changed Records; a full Snapshot will be written by the next checkpoint");
+        } else {
+            writeFullSnapshot(snapshot);
+
+            if (changes != null) {
+                discardChanges(changes);
+            }
+        }
+    }
 
+    @SuppressWarnings("unchecked")
+    private Map<Object, T> getChanges(final SnapshotCapture<T> snapshot) {
+        if (snapshot instanceof HashMapSnapshot.Snapshot) {
+            return ((Snapshot) snapshot).getChanges();
+        }
+
+        return null;
+    }
+
+    private boolean isComplete(final SnapshotCapture<T> snapshot) {
+        return !(snapshot instanceof HashMapSnapshot.Snapshot) || ((Snapshot) snapshot).isComplete();
+    }
+
+    private void writeFullSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
         final File snapshotFile = getSnapshotFile();
         final File partialFile = getPartialFile();
 
@@ -264,28 +588,165 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
 
         // Write to the partial file.
-        try (final FileOutputStream fileOut = new FileOutputStream(getPartialFile());
+        writeSnapshotFile(partialFile, snapshot.getMaxTransactionId(), snapshot.getRecords().values(), snapshot.getSwapLocations());
+
+        // If the snapshot file exists, delete it
+        if (snapshotFile.exists()) {
+            if (!snapshotFile.delete()) {
+                logger.warn("Unable to delete existing Snapshot file " + snapshotFile);
+            }
+        }
+
+        // Rename the partial file to Snapshot.
+        final boolean rename = partialFile.renameTo(snapshotFile);
+        if (!rename) {
+            throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
+        }
+
+        snapshotMaxTransactionId = snapshot.getMaxTransactionId();
+        fullSnapshotRequired = false;
+
+        // The full Snapshot encompasses all Delta Snapshots that have been written, so they are no longer needed.
+        deleteDeltaFiles(Long.MAX_VALUE);
+    }
+
+    private void writeDeltaSnapshot(final SnapshotCapture<T> snapshot, final Map<Object, T> changes) throws IOException {
+        final long sequence = deltaSequence + 1;
+        final File deltaFile = new File(storageDirectory, DELTA_FILENAME_PREFIX + sequence);
+        final File partialDeltaFile = new File(storageDirectory, DELTA_FILENAME_PREFIX + sequence + ".partial");
+
+        try {
+            writeSnapshotFile(partialDeltaFile, snapshot.getMaxTransactionId(), changes.values(), snapshot.getSwapLocations());
+            move(partialDeltaFile, deltaFile);
+        } catch (final IOException e) {
+            // The changes have not been discarded, so they will be written by the next Delta Snapshot.
+            Files.deleteIfExists(partialDeltaFile.toPath());
+            throw e;
+        }
+
+        deltaSequence = sequence;
+        deltaCount++;
+        discardChanges(changes);
+        logger.debug("{} wrote {} changed Records to Delta Snapshot {}", this, changes.size(), deltaFile);
+
+        if (deltaCount >= maxDeltaSnapshots && !compactionInProgress) {
+            compactionInProgress = true;
+
+            final long maxTransactionId = snapshot.getMaxTransactionId();
+            final Thread compactionThread = new Thread(() -> compact(sequence, maxTransactionId), "Compact Write-Ahead Log Snapshot");
+            compactionThread.setDaemon(true);
+            compactionThread.start();
+        }
+    }
+
+    /**
+     * Applies the Delta Snapshots up to and including the given sequence to the current full Snapshot, writes the result to a new, full
+     * Snapshot file and then removes the Delta Snapshots that it encompasses. The files are read back from disk so that the records held
+     * in memory need not be copied while updates to the Write-Ahead Log are blocked.
+     */
+    private void compact(final long deltaSequence, final long maxTransactionId) {
+        final File compactionFile = getCompactionFile();
+
+        try {
+            final long start = System.nanoTime();
+            final Map<Object, T> records = new HashMap<>();
+            final Set<String> swapFileLocations = new HashSet<>();
+
+            final long baseTransactionId;
+            try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(getSnapshotFile())))) {
+                final SnapshotHeader header = validateHeader(dataIn);
+                readFullSnapshot(dataIn, header, null, records, swapFileLocations);
+                baseTransactionId = header.getMaxTransactionId();
+            }
+
+            for (final DeltaFile deltaFile : getDeltaFiles()) {
+                if (deltaFile.getSequence() > deltaSequence) {
+                    break;
+                }
+
+                try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile.getFile())))) {
+                    final SnapshotHeader header = validateHeader(dataIn);
+                    if (header.getMaxTransactionId() > baseTransactionId) {
+                        applyDeltaSnapshot(dataIn, header, null, records, swapFileLocations);
+                    }
+                }
+            }
+
+            writeSnapshotFile(compactionFile, maxTransactionId, records.values(), swapFileLocations);
+
+            synchronized (this) {
+                // If a full Snapshot was written while compacting, it is at least as new as this one.
+                if (maxTransactionId <= snapshotMaxTransactionId) {
+                    logger.debug("{} discarding compacted Snapshot because a newer Snapshot has already been written", this);
+                    Files.deleteIfExists(compactionFile.toPath());
+                    return;
+                }
+
+                move(compactionFile, getSnapshotFile());
+                snapshotMaxTransactionId = maxTransactionId;
+                deleteDeltaFiles(deltaSequence);
+            }
+
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info("{} compacted {} Records into Snapshot with Max Transaction ID {} in {} milliseconds", this, records.size(), maxTransactionId, millis);
+        } catch (final Exception e) {
+            logger.error("{} failed to compact Delta Snapshots into a full Snapshot; will try again after the next Delta Snapshot is written", this, e);
+
+            try {
+                Files.deleteIfExists(compactionFile.toPath());
+            } catch (final IOException ioe) {
+                logger.warn("Unable to delete incomplete Snapshot file {}", compactionFile, ioe);
+            }
+        } finally {
+            synchronized (this) {
+                compactionInProgress = false;
+                notifyAll();
+            }
+        }
+    }
+
+    // Visible for testing
+    synchronized void waitForCompaction() throws InterruptedException {
+        while (compactionInProgress) {
+            wait();
+        }
+    }
+
+    private void discardChanges(final Map<Object, T> writtenChanges) {
+        // Only discard a change if the Record has not been updated again since the snapshot was captured
+        for (final Map.Entry<Object, T> entry : writtenChanges.entrySet()) {
+            changedRecords.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void writeSnapshotFile(final File file, final long maxTransactionId, final Collection<T> records, final Set<String> swapFileLocations) throws IOException {
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+
+        try (final FileOutputStream fileOut = new FileOutputStream(file);
             final OutputStream bufferedOut = new BufferedOutputStream(fileOut);
             final DataOutputStream dataOut = new DataOutputStream(bufferedOut)) {
 
             // Write out the header
             dataOut.writeUTF(HashMapSnapshot.class.getName());
-            dataOut.writeInt(getVersion());
+            dataOut.writeInt(encodingVersion);
             dataOut.writeUTF(serde.getClass().getName());
             dataOut.writeInt(serde.getVersion());
-            dataOut.writeLong(snapshot.getMaxTransactionId());
-            dataOut.writeInt(snapshot.getRecords().size());
-            serde.writeHeader(dataOut);
-
-            // Serialize each record
-            for (final T record : snapshot.getRecords().values()) {
-                logger.trace("Checkpointing {}", record);
-                serde.serializeRecord(record, dataOut);
+            dataOut.writeLong(maxTransactionId);
+            dataOut.writeInt(records.size());
+
+            if (encodingVersion < CHUNKED_ENCODING_VERSION) {
+                serde.writeHeader(dataOut);
+                for (final T record : records) {
+                    logger.trace("Checkpointing {}", record);
+                    serde.serializeRecord(record, dataOut);
+                }
+            } else {
+                writeChunks(serde, records, dataOut);
             }
 
             // Write out the number of swap locations, followed by the swap locations themselves.
-            dataOut.writeInt(snapshot.getSwapLocations().size());
-            for (final String swapLocation : snapshot.getSwapLocations()) {
+            dataOut.writeInt(swapFileLocations.size());
+            for (final String swapLocation : swapFileLocations) {
                 dataOut.writeUTF(swapLocation);
             }
 
@@ -294,38 +755,160 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             dataOut.flush();
             fileOut.getChannel().force(false);
         }
+    }
 
-        // If the snapshot file exists, delete it
-        if (snapshotFile.exists()) {
-            if (!snapshotFile.delete()) {
-                logger.warn("Unable to delete existing Snapshot file " + snapshotFile);
+    private void writeChunks(final SerDe<T> serde, final Collection<T> records, final DataOutputStream dataOut) throws IOException {
+        final ByteArrayDataOutputStream buffer = new ByteArrayDataOutputStream(CHUNK_SIZE_BYTES);
+        serde.writeHeader(buffer.getDataOutputStream());
+        dataOut.writeInt(buffer.getByteArrayOutputStream().size());
+        buffer.getByteArrayOutputStream().writeTo(dataOut);
+        buffer.getByteArrayOutputStream().reset();
+
+        // Serialize the records in chunks, each prefixed with the number of records and number of bytes that it contains,
+        // so that the chunks can be deserialized concurrently on recovery.
+        int chunkRecordCount = 0;
+        for (final T record : records) {
+            logger.trace("Checkpointing {}", record);
+            serde.serializeRecord(record, buffer.getDataOutputStream());
+            chunkRecordCount++;
+
+            if (chunkRecordCount >= CHUNK_RECORD_COUNT || buffer.getByteArrayOutputStream().size() >= CHUNK_SIZE_BYTES) {
+                writeChunk(buffer, chunkRecordCount, dataOut);
+                chunkRecordCount = 0;
             }
         }
 
-        // Rename the partial file to Snapshot.
-        final boolean rename = partialFile.renameTo(snapshotFile);
-        if (!rename) {
-            throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
+        if (chunkRecordCount > 0) {
+            writeChunk(buffer, chunkRecordCount, dataOut);
+        }
+    }
+
+    private void writeChunk(final ByteArrayDataOutputStream chunk, final int recordCount, final DataOutputStream out) throws IOException {
+        chunk.getDataOutputStream().flush();
+        out.writeInt(recordCount);
+        out.writeInt(chunk.getByteArrayOutputStream().size());
+        chunk.getByteArrayOutputStream().writeTo(out);
+        chunk.getByteArrayOutputStream().reset();
+    }
+
+    private void move(final File source, final File destination) throws IOException {
+        try {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private File getCompactionFile() {
+        return new File(storageDirectory, "checkpoint.compacting");
+    }
+
+    private List<DeltaFile> getDeltaFiles() {
+        final File[] files = storageDirectory.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+
+        final List<DeltaFile> deltaFiles = new ArrayList<>();
+        for (final File file : files) {
+            final Matcher matcher = DELTA_FILENAME_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                deltaFiles.add(new DeltaFile(file, Long.parseLong(matcher.group(1))));
+            }
+        }
+
+        deltaFiles.sort(Comparator.comparingLong(DeltaFile::getSequence));
+        return deltaFiles;
+    }
+
+    private void deleteDeltaFiles(final long maxSequence) {
+        int remaining = 0;
+        for (final DeltaFile deltaFile : getDeltaFiles()) {
+            if (deltaFile.getSequence() > maxSequence) {
+                remaining++;
+                continue;
+            }
+
+            if (!deltaFile.getFile().delete() && deltaFile.getFile().exists()) {
+                logger.warn("Unable to delete Delta Snapshot file {}; this file should be deleted manually", deltaFile.getFile());
+                remaining++;
+            }
+        }
+
+        deltaCount = remaining;
+    }
+
+    private void deleteIncompleteFiles() throws IOException {
+        Files.deleteIfExists(getCompactionFile().toPath());
+
+        final File[] files = storageDirectory.listFiles((dir, name) -> name.startsWith(DELTA_FILENAME_PREFIX) && name.endsWith(".partial"));
+        if (files != null) {
+            for (final File file : files) {
+                logger.debug("{} Deleting incomplete Delta Snapshot {}", this, file);
+                Files.delete(file.toPath());
+            }
         }
     }
 
 
     public class Snapshot implements SnapshotCapture<T> {
         private final Map<Object, T> records;
+        private final int recordCount;
         private final long maxTransactionId;
         private final Set<String> swapLocations;
+        private final Map<Object, T> changes;
 
         public Snapshot(final Map<Object, T> records, final Set<String> swapLocations, final long maxTransactionId) {
+            this(records, swapLocations, maxTransactionId, Collections.emptyMap());
+        }
+
+        public Snapshot(final Map<Object, T> records, final Set<String> swapLocations, final long maxTransactionId, final Map<Object, T> changes) {
             this.records = records;
+            this.recordCount = records.size();
             this.swapLocations = swapLocations;
             this.maxTransactionId = maxTransactionId;
+            this.changes = changes;
+        }
+
+        /**
+         * Creates a capture of only the Records that changed since the previous checkpoint, from which only a Delta Snapshot can be written
+         */
+        private Snapshot(final Map<Object, T> changes, final int recordCount, final Set<String> swapLocations, final long maxTransactionId) {
+            this.records = null;
+            this.recordCount = recordCount;
+            this.swapLocations = swapLocations;
+            this.maxTransactionId = maxTransactionId;
+            this.changes = changes;
+        }
+
+        /**
+         * @return <code>true</code> if this capture contains all active Records, <code>false</code> if it contains only the changed Records
+         */
+        public boolean isComplete() {
+            return records != null;
+        }
+
+        /**
+         * @return the latest update for each Record that changed since the previous checkpoint, if writing incremental snapshots
+         */
+        public Map<Object, T> getChanges() {
+            return changes;
         }
 
         @Override
         public final Map<Object, T> getRecords() {
+            if (records == null) {
+                throw new IllegalStateException("This capture contains only the Records that changed since the previous checkpoint");
+            }
+
             return records;
         }
 
+        @Override
+        public int getRecordCount() {
+            return recordCount;
+        }
+
         @Override
         public long getMaxTransactionId() {
             return maxTransactionId;
@@ -337,23 +920,60 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
     }
 
+    private static class DeltaFile {
+        private final File file;
+        private final long sequence;
+
+        public DeltaFile(final File file, final long sequence) {
+            this.file = file;
+            this.sequence = sequence;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
     private class SnapshotHeader {
+        private final int encodingVersion;
         private final SerDe<T> serde;
+        private final String serdeEncoding;
+        private final byte[] serdeHeader;
         private final int serdeVersion;
         private final int numRecords;
         private final long maxTransactionId;
 
-        public SnapshotHeader(final SerDe<T> serde, final int serdeVersion, final long maxTransactionId, final int numRecords) {
+        public SnapshotHeader(final int encodingVersion, final SerDe<T> serde, final String serdeEncoding, final byte[] serdeHeader, final int serdeVersion,
+                              final long maxTransactionId, final int numRecords) {
+            this.encodingVersion = encodingVersion;
             this.serde = serde;
+            this.serdeEncoding = serdeEncoding;
+            this.serdeHeader = serdeHeader;
             this.serdeVersion = serdeVersion;
             this.maxTransactionId = maxTransactionId;
             this.numRecords = numRecords;
         }
 
+        public int getEncodingVersion() {
+            return encodingVersion;
+        }
+
         public SerDe<T> getSerDe() {
             return serde;
         }
 
+        public String getSerDeEncoding() {
+            return serdeEncoding;
+        }
+
+        public byte[] getSerDeHeader() {
+            return serdeHeader;
+        }
+
         public int getSerDeVersion() {
             return serdeVersion;
         }
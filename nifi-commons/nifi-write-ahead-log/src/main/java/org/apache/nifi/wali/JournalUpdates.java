@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The net effect of all of the transactions in a single journal. Applying a JournalUpdates to a set of records yields the same result
+ * as applying each of the journal's transactions to those records in order, which allows a journal to be read before the records that
+ * it updates have been recovered.
+ */
+class JournalUpdates<T> {
+    private final Map<Object, T> recordsUpdated = new HashMap<>();
+    private final Set<Object> idsRemoved = new HashSet<>();
+    private final Set<String> swapLocationsAdded = new HashSet<>();
+    private final Set<String> swapLocationsRemoved = new HashSet<>();
+    private JournalRecovery recovery;
+
+    void applyTransaction(final Set<Object> transactionIdsRemoved, final Map<Object, T> transactionRecords,
+                          final Set<String> transactionSwapLocationsRemoved, final Set<String> transactionSwapLocationsAdded) {
+        for (final Object id : transactionIdsRemoved) {
+            recordsUpdated.remove(id);
+            idsRemoved.add(id);
+        }
+        recordsUpdated.putAll(transactionRecords);
+        idsRemoved.removeAll(transactionRecords.keySet());
+
+        swapLocationsAdded.removeAll(transactionSwapLocationsRemoved);
+        swapLocationsRemoved.addAll(transactionSwapLocationsRemoved);
+        swapLocationsRemoved.removeAll(transactionSwapLocationsAdded);
+        swapLocationsAdded.addAll(transactionSwapLocationsAdded);
+    }
+
+    void applyTo(final Map<Object, T> recordMap, final Set<String> swapLocations) {
+        for (final Object id : idsRemoved) {
+            recordMap.remove(id);
+        }
+        recordMap.putAll(recordsUpdated);
+
+        swapLocations.removeAll(swapLocationsRemoved);
+        swapLocations.addAll(swapLocationsAdded);
+    }
+
+    void setRecovery(final JournalRecovery recovery) {
+        this.recovery = recovery;
+    }
+
+    JournalRecovery getRecovery() {
+        return recovery;
+    }
+}
@@ -43,6 +43,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -54,9 +55,9 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final int DEFAULT_MAX_IN_HEAP_SERIALIZATION_BYTES = 5 * 1024 * 1024; // 5 MB
 
     private static final JournalSummary INACTIVE_JOURNAL_SUMMARY = new StandardJournalSummary(-1L, -1L, 0);
-    private static final int JOURNAL_ENCODING_VERSION = 1;
-    private static final byte TRANSACTION_FOLLOWS = 64;
-    private static final byte JOURNAL_COMPLETE = 127;
+    static final int JOURNAL_ENCODING_VERSION = 1;
+    static final byte TRANSACTION_FOLLOWS = 64;
+    static final byte JOURNAL_COMPLETE = 127;
     private static final int NUL_BYTE = 0;
 
     private final File journalFile;
@@ -376,12 +377,18 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     }
 
     @Override
-    public synchronized void fsync() throws IOException {
-        checkState();
+    public void fsync() throws IOException {
+        // Only the state check is performed while synchronized. The FileChannel is thread-safe, so forcing it to disk outside
+        // of the lock allows other threads to continue writing transactions to the journal while the sync is in progress.
+        final FileOutputStream out;
+        synchronized (this) {
+            checkState();
+            out = fileOut;
+        }
 
         try {
-            if (fileOut != null) {
-                fileOut.getChannel().force(false);
+            if (out != null) {
+                out.getChannel().force(false);
             }
         } catch (final IOException ioe) {
             poison(ioe);
@@ -411,10 +418,49 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     @Override
     public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
+        return recoverTransactions(recordMap, (idsRemoved, recordsUpdated, swapLocationsRemoved, swapLocationsAdded) -> {
+            for (final Object id : idsRemoved) {
+                recordMap.remove(id);
+            }
+            recordMap.putAll(recordsUpdated);
+            swapLocations.removeAll(swapLocationsRemoved);
+            swapLocations.addAll(swapLocationsAdded);
+        });
+    }
+
+    /**
+     * Recovers the updates from this journal without applying them to the current state of the records, so that the journal can be
+     * recovered concurrently with the Snapshot and with other journals. This is possible only if the SerDe that was used to write
+     * the journal does not require the current state of records in order to deserialize an edit.
+     *
+     * @return the updates that were recovered from the journal, or <code>null</code> if the journal must instead be recovered
+     *         via {@link #recoverRecords(Map, Set)} because its SerDe requires the current state of the records
+     * @throws IOException if unable to read the journal
+     */
+    JournalUpdates<T> recoverUpdates() throws IOException {
+        final JournalUpdates<T> updates = new JournalUpdates<>();
+        final JournalRecovery recovery = recoverTransactions(null, updates::applyTransaction);
+        if (recovery == null) {
+            return null;
+        }
+
+        updates.setRecovery(recovery);
+        return updates;
+    }
+
+    /**
+     * Reads each complete transaction from the journal and hands it to the given handler.
+     *
+     * @param currentRecordStates the current state of the records, or <code>null</code> if not available
+     * @param transactionHandler the handler that applies each transaction
+     * @return the results of the recovery, or <code>null</code> if the current record states were not provided but the journal's SerDe requires them
+     */
+    private JournalRecovery recoverTransactions(final Map<Object, T> currentRecordStates, final TransactionHandler<T> transactionHandler) throws IOException {
         long maxTransactionId = -1L;
         int updateCount = 0;
 
         boolean eofException = false;
+        boolean remainingBytesScanned = false;
         logger.info("Recovering records from journal {}", journalFile);
         final double journalLength = journalFile.length();
 
@@ -427,9 +473,22 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 // Validate that the header is what we expect and obtain the appropriate SerDe and Version information
                 final SerDeAndVersion serdeAndVersion = validateHeader(in);
                 final SerDe<T> serde = serdeAndVersion.getSerDe();
+                if (currentRecordStates == null && serde.isCurrentRecordStateRequired()) {
+                    logger.debug("Journal {} was written using a SerDe that requires the current state of records in order to recover", journalFile);
+                    return null;
+                }
+
+                final Map<Object, T> recordStates = currentRecordStates == null ? Collections.emptyMap() : currentRecordStates;
 
                 // Ensure that we get a valid transaction indicator
                 int transactionIndicator = in.read();
+                if (transactionIndicator == NUL_BYTE) {
+                    remainingBytesScanned = true;
+                    if (remainingBytesAreIncompleteTransaction(in)) {
+                        logIncompleteTransaction(byteCountingIn.getBytesConsumed());
+                        transactionIndicator = -1;
+                    }
+                }
                 if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
                     throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
                         + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
@@ -469,7 +528,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                     final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
 
                     while (transactionByteCountingIn.getBytesConsumed() < transactionLength || serde.isMoreInExternalFile()) {
-                        final T record = serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion());
+                        final T record = serde.deserializeEdit(transactionDis, recordStates, serdeAndVersion.getVersion());
 
                         // Update our RecordMap so that we have the most up-to-date version of the Record.
                         final Object recordId = serde.getRecordIdentifier(record);
@@ -516,16 +575,18 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                     }
 
                     // Apply the transaction
-                    for (final Object id : idsRemoved) {
-                        recordMap.remove(id);
-                    }
-                    recordMap.putAll(transactionRecordMap);
-                    swapLocations.removeAll(swapLocationsRemoved);
-                    swapLocations.addAll(swapLocationsAdded);
+                    transactionHandler.apply(idsRemoved, transactionRecordMap, swapLocationsRemoved, swapLocationsAdded);
                     updateCount += transactionUpdates;
 
                     // Check if there is another transaction to read
                     transactionIndicator = in.read();
+                    if (transactionIndicator == NUL_BYTE) {
+                        remainingBytesScanned = true;
+                        if (remainingBytesAreIncompleteTransaction(in)) {
+                            logIncompleteTransaction(byteCountingIn.getBytesConsumed());
+                            transactionIndicator = -1;
+                        }
+                    }
                     if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
                         throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
                             + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
@@ -549,8 +610,9 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 // If the stream consists solely of NUL bytes, then we want to treat it
                 // the same as an EOF because we see this happen when we suddenly lose power
                 // while writing to a file. However, if that is not the case, then something else has gone wrong.
-                // In such a case, there is not much that we can do but to re-throw the Exception.
-                if (remainingBytesAllNul(in)) {
+                // In such a case, there is not much that we can do but to re-throw the Exception. If the remaining bytes have already been
+                // scanned for an incomplete transaction, then they were not all NUL bytes.
+                if (!remainingBytesScanned && remainingBytesAllNul(in)) {
                     logger.warn("Failed to recover some of the data from Write-Ahead Log Journal because encountered trailing NUL bytes. "
                         + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes."
                         + "The following Exception was encountered while recovering the updates to the journal:", e);
@@ -585,6 +647,37 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         return true;
     }
 
+    /**
+     * The {@link MemoryMappedJournal} writes the transaction indicator of a transaction only after the rest of the transaction has been written.
+     * If NiFi is killed while it is writing a transaction, the journal ends with a NUL transaction indicator, followed by the part of the transaction
+     * that had been written, followed by NUL bytes. Because the transaction ID and length are written before the transaction's data, any data that
+     * was written lies within the length of the transaction.
+     *
+     * @param in the input stream to scan, positioned just after a NUL transaction indicator
+     * @return <code>true</code> if the remaining data consists of no more than a single transaction followed only by NUL bytes
+     * @throws IOException if unable to read from the given InputStream
+     */
+    private boolean remainingBytesAreIncompleteTransaction(final DataInputStream in) throws IOException {
+        try {
+            in.readLong();
+            final int transactionLength = in.readInt();
+            if (transactionLength < 0) {
+                return false;
+            }
+
+            in.skipNBytes(transactionLength);
+        } catch (final EOFException eof) {
+            return true;
+        }
+
+        return remainingBytesAllNul(in);
+    }
+
+    private void logIncompleteTransaction(final long bytesConsumed) {
+        logger.warn("After reading {} bytes from {}, encountered trailing NUL bytes that may contain a transaction that was not completely written. "
+            + "This will happen if NiFi was shutdown unexpectedly. The rest of this journal file will be skipped for recovery purposes.", bytesConsumed, journalFile);
+    }
+
 
     @Override
     public synchronized JournalSummary getSummary() {
@@ -595,6 +688,10 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         return new StandardJournalSummary(initialTransactionId, currentTransactionId - 1, transactionCount);
     }
 
+    private interface TransactionHandler<T> {
+        void apply(Set<Object> idsRemoved, Map<Object, T> recordsUpdated, Set<String> swapLocationsRemoved, Set<String> swapLocationsAdded);
+    }
+
     private class SerDeAndVersion {
         private final SerDe<T> serde;
         private final int version;
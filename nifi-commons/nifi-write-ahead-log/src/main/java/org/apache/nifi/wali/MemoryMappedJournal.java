@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.apache.nifi.util.file.MappedFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDe;
+import org.wali.SerDeFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * An implementation of {@link WriteAheadJournal} that writes to a journal file by way of memory-mapped segments, rather than through
+ * a FileOutputStream. The journal file is extended one segment at a time, and each segment is mapped into memory when it is first needed.
+ * As with {@link LengthDelimitedJournal}, the edits of a transaction are serialized into a pooled heap buffer without holding this journal's
+ * monitor. The buffer is then copied into the mapped region, which requires no system call per transaction.
+ * </p>
+ *
+ * <p>
+ * The data written to the journal uses exactly the same encoding as {@link LengthDelimitedJournal}. As a result, journals that are written
+ * by either implementation are recovered in the same manner, and the implementation can be changed without losing data. When the journal is
+ * closed, the file is truncated to the length of the data that was written. If NiFi is not shut down gracefully, the remainder of the last
+ * segment will consist of NUL bytes, which recovery treats in the same way as a journal that was interrupted by a sudden power loss.
+ * </p>
+ *
+ * <p>
+ * A transaction is copied into the mapped region only once it has been fully serialized. Its transaction ID, length and data are copied
+ * first, and its transaction indicator is written last. If NiFi is killed while a transaction is being copied, the journal ends with a NUL
+ * transaction indicator, followed by part of the transaction, followed by NUL bytes. {@link LengthDelimitedJournal} recognizes this as an
+ * incomplete transaction and discards it when the journal is recovered.
+ * </p>
+ *
+ * <p>
+ * The disk space for each segment is allocated by writing zeros to it before it is mapped. If the disk is full, this fails with an
+ * IOException that poisons the journal; otherwise, the failure would occur only when the mapped memory is written to, which the JVM
+ * cannot report as an IOException. The segments are unmapped when the journal is closed rather than when they are garbage collected.
+ * </p>
+ * */
+public class MemoryMappedJournal<T> implements WriteAheadJournal<T> {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryMappedJournal.class);
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024; // 64 MB
+
+    private static final JournalSummary INACTIVE_JOURNAL_SUMMARY = new StandardJournalSummary(-1L, -1L, 0);
+    private static final int TRANSACTION_PREAMBLE_LENGTH = 13; // 1 byte indicator, 8 byte transaction ID, 4 byte length
+
+    private final File journalFile;
+    private final SerDeFactory<T> serdeFactory;
+    private final ObjectPool<ByteArrayDataOutputStream> streamPool;
+    private final long initialTransactionId;
+    private final int segmentSize;
+    private final MappedSegmentOutputStream mappedOut = new MappedSegmentOutputStream();
+    private final DataOutputStream dataOut = new DataOutputStream(mappedOut);
+
+    private SerDe<T> serde;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int firstUnsyncedSegmentIndex = 0;
+    private int activeSyncCount = 0;
+    private long position = 0L;
+
+    private long currentTransactionId;
+    private int transactionCount;
+    private boolean headerWritten = false;
+
+    private volatile Throwable poisonCause = null;
+    private volatile boolean closed = false;
+
+    public MemoryMappedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId) {
+        this(journalFile, serdeFactory, streamPool, initialTransactionId, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public MemoryMappedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
+                               final int segmentSize) {
+        if (segmentSize < TRANSACTION_PREAMBLE_LENGTH) {
+            throw new IllegalArgumentException("Segment size must be at least " + TRANSACTION_PREAMBLE_LENGTH + " bytes");
+        }
+
+        this.journalFile = journalFile;
+        this.serdeFactory = serdeFactory;
+        this.streamPool = streamPool;
+        this.serde = serdeFactory.createSerDe(null);
+        this.initialTransactionId = initialTransactionId;
+        this.currentTransactionId = initialTransactionId;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public synchronized void writeHeader() throws IOException {
+        try {
+            channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            dataOut.writeUTF(LengthDelimitedJournal.class.getName());
+            dataOut.writeInt(LengthDelimitedJournal.JOURNAL_ENCODING_VERSION);
+
+            serde = serdeFactory.createSerDe(null);
+            dataOut.writeUTF(serde.getClass().getName());
+            dataOut.writeInt(serde.getVersion());
+
+            try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                 final DataOutputStream dos = new DataOutputStream(baos)) {
+
+                serde.writeHeader(dos);
+                dos.flush();
+
+                dataOut.writeInt(baos.size());
+                baos.writeTo(dataOut);
+            }
+
+            dataOut.flush();
+        } catch (final Throwable t) {
+            poison(t);
+
+            final IOException ioe = (t instanceof IOException) ? (IOException) t : new IOException("Failed to create journal file " + journalFile, t);
+            logger.error("Failed to create new journal file {} due to {}", journalFile, ioe.toString(), ioe);
+            throw ioe;
+        }
+
+        headerWritten = true;
+    }
+
+    @Override
+    public void update(final Collection<T> records, final RecordLookup<T> recordLookup) throws IOException {
+        if (!headerWritten) {
+            throw new IllegalStateException("Cannot update journal file " + journalFile + " because no header has been written yet.");
+        }
+
+        if (records.isEmpty()) {
+            return;
+        }
+
+        checkState();
+
+        final ByteArrayDataOutputStream bados = streamPool.borrowObject();
+        try {
+            // Serialize the transaction before copying any of it into the mapped segments, so that a failure to serialize leaves nothing behind
+            final DataOutputStream transactionOut = bados.getDataOutputStream();
+            for (final T record : records) {
+                final Object recordId = serde.getRecordIdentifier(record);
+                final T previousRecordState = recordLookup.lookup(recordId);
+                serde.serializeEdit(previousRecordState, record, transactionOut);
+            }
+            transactionOut.flush();
+
+            final ByteArrayOutputStream baos = bados.getByteArrayOutputStream();
+            final long transactionId;
+            synchronized (this) {
+                checkState();
+
+                final long transactionStart = position;
+                try {
+                    transactionId = currentTransactionId;
+
+                    // Copy the transaction ID, length and data first. The transaction indicator is written last, so that the transaction
+                    // is not recovered unless all of it has been copied.
+                    mappedOut.write(0);
+                    dataOut.writeLong(transactionId);
+                    dataOut.writeInt(baos.size());
+                    baos.writeTo(dataOut);
+                    dataOut.flush();
+                    putByte(transactionStart, LengthDelimitedJournal.TRANSACTION_FOLLOWS);
+
+                    currentTransactionId++;
+                    transactionCount++;
+                } catch (final Throwable t) {
+                    erase(transactionStart, position);
+                    position = transactionStart;
+                    poison(t);
+                    throw t;
+                }
+            }
+
+            logger.debug("Wrote Transaction {} to journal {} with length {} and {} records", transactionId, journalFile, baos.size(), records.size());
+        } catch (final Throwable t) {
+            poison(t);
+            throw t;
+        } finally {
+            streamPool.returnObject(bados);
+        }
+    }
+
+    private void checkState() throws IOException {
+        final Throwable cause = this.poisonCause;
+        if (cause != null) {
+            logger.debug("Cannot update Write Ahead Log because the log has already been poisoned", cause);
+            throw new IOException("Cannot update journal file " + journalFile + " because this journal has already encountered a failure when attempting to write to the file. "
+                + "If the repository is able to checkpoint, then this problem will resolve itself. However, if the repository is unable to be checkpointed "
+                + "(for example, due to being out of storage space or having too many open files), then this issue may require manual intervention.", cause);
+        }
+
+        if (closed) {
+            throw new IOException("Cannot update journal file " + journalFile + " because this journal has already been closed");
+        }
+    }
+
+    protected void poison(final Throwable t) {
+        this.poisonCause = t;
+
+        logger.error("Marking Write-Ahead journal file {} as poisoned due to {}", journalFile, t, t);
+
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+
+            closed = true;
+        } catch (final IOException innerIOE) {
+            t.addSuppressed(innerIOE);
+        }
+    }
+
+    @Override
+    public void fsync() throws IOException {
+        // Determine which segments have been written to since the last sync while holding the monitor, but force them to disk
+        // outside of the monitor so that other threads can continue to write to the journal while the sync is in progress.
+        final List<MappedByteBuffer> unsyncedSegments;
+        synchronized (this) {
+            checkState();
+
+            if (segments.isEmpty()) {
+                return;
+            }
+
+            unsyncedSegments = new ArrayList<>(segments.subList(firstUnsyncedSegmentIndex, segments.size()));
+            firstUnsyncedSegmentIndex = segments.size() - 1;
+
+            // The segments must not be unmapped while they are being forced to disk
+            activeSyncCount++;
+        }
+
+        try {
+            for (final MappedByteBuffer segment : unsyncedSegments) {
+                segment.force();
+            }
+        } catch (final Exception e) {
+            poison(e);
+        } finally {
+            synchronized (this) {
+                activeSyncCount--;
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            // The journal may have been closed because it was poisoned, in which case its segments are still mapped
+            releaseSegments();
+            return;
+        }
+
+        closed = true;
+
+        try {
+            if (channel != null) {
+                if (poisonCause == null) {
+                    mappedOut.write(LengthDelimitedJournal.JOURNAL_COMPLETE);
+
+                    for (final MappedByteBuffer segment : segments.subList(firstUnsyncedSegmentIndex, segments.size())) {
+                        segment.force();
+                    }
+
+                    releaseSegments();
+
+                    try {
+                        // Remove the unused, preallocated portion of the last segment. If the segments could not be unmapped, some operating
+                        // systems do not allow the file to be truncated; in that case, the trailing NUL bytes are ignored when the journal is recovered.
+                        channel.truncate(position);
+                    } catch (final IOException ioe) {
+                        logger.debug("Unable to truncate journal file {} to {} bytes", journalFile, position, ioe);
+                    }
+                }
+
+                channel.close();
+            }
+        } catch (final IOException ioe) {
+            poison(ioe);
+        }
+
+        releaseSegments();
+    }
+
+    private void releaseSegments() {
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        try {
+            while (activeSyncCount > 0) {
+                wait();
+            }
+        } catch (final InterruptedException ie) {
+            // Leave the segments to be unmapped when they are garbage collected, as a sync may still be using them
+            Thread.currentThread().interrupt();
+            segments.clear();
+            return;
+        }
+
+        for (final MappedByteBuffer segment : segments) {
+            MappedFiles.unmap(segment);
+        }
+        segments.clear();
+    }
+
+    @Override
+    public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
+        // The journal is written using the same encoding as the LengthDelimitedJournal, so recovery is delegated to it.
+        try (final LengthDelimitedJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, null, initialTransactionId)) {
+            return journal.recoverRecords(recordMap, swapLocations);
+        }
+    }
+
+    @Override
+    public synchronized JournalSummary getSummary() {
+        if (transactionCount < 1) {
+            return INACTIVE_JOURNAL_SUMMARY;
+        }
+
+        return new StandardJournalSummary(initialTransactionId, currentTransactionId - 1, transactionCount);
+    }
+
+    @Override
+    public synchronized boolean isHealthy() {
+        return !closed && poisonCause == null;
+    }
+
+    @Override
+    public void dispose() {
+        logger.debug("Deleting Journal {} because it is now encapsulated in the latest Snapshot", journalFile.getName());
+        if (!journalFile.delete() && journalFile.exists()) {
+            logger.warn("Unable to delete expired journal file " + journalFile + "; this file should be deleted manually.");
+        }
+    }
+
+    private MappedByteBuffer getSegment(final long offset) throws IOException {
+        final int segmentIndex = (int) (offset / segmentSize);
+        while (segments.size() <= segmentIndex) {
+            final long segmentStart = (long) segments.size() * segmentSize;
+            logger.debug("Mapping segment of {} bytes starting at offset {} of journal {}", segmentSize, segmentStart, journalFile);
+            MappedFiles.preallocate(channel, segmentStart, segmentSize);
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, segmentSize));
+        }
+
+        return segments.get(segmentIndex);
+    }
+
+    private void putByte(final long offset, final byte value) throws IOException {
+        getSegment(offset).put((int) (offset % segmentSize), value);
+    }
+
+    private void erase(final long start, final long end) {
+        try {
+            for (long offset = start; offset < end; offset++) {
+                putByte(offset, (byte) 0);
+            }
+        } catch (final Exception e) {
+            logger.warn("Failed to erase partially written transaction from journal file {}", journalFile, e);
+        }
+    }
+
+    /**
+     * An OutputStream that writes sequentially to the mapped segments of the journal, mapping a new segment whenever the current one is full.
+     */
+    private class MappedSegmentOutputStream extends OutputStream {
+        @Override
+        public void write(final int b) throws IOException {
+            final MappedByteBuffer segment = getSegment(position);
+            segment.put((int) (position % segmentSize), (byte) b);
+            position++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            int written = 0;
+            while (written < len) {
+                final MappedByteBuffer segment = getSegment(position);
+                final int segmentOffset = (int) (position % segmentSize);
+                final int bytesToWrite = Math.min(len - written, segmentSize - segmentOffset);
+                segment.put(segmentOffset, b, off + written, bytesToWrite);
+
+                written += bytesToWrite;
+                position += bytesToWrite;
+            }
+        }
+    }
+}
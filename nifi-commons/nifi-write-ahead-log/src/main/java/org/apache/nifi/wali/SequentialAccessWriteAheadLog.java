@@ -19,14 +19,22 @@ package org.apache.nifi.wali;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -53,6 +61,19 @@ import org.wali.WriteAheadRepository;
  * that records are recovered correctly if two threads simultaneously update the write-ahead log
  * with updates for the same record.
  * </p>
+ *
+ * <p>
+ * If a {@link GroupCommitSynchronizer} is provided, updates that request that the journal be synced to disk do not each
+ * sync the journal individually. Instead, concurrent updates are coalesced so that a single sync of the journal makes durable
+ * the updates of all callers that are waiting for a sync at that time.
+ * </p>
+ *
+ * <p>
+ * If constructed with more than one recovery thread, the records in the snapshot are deserialized concurrently on a fork/join pool,
+ * and journals whose SerDe does not require the current state of records are read while the snapshot is being recovered. The updates
+ * from each journal are then applied in the order in which the journals were written, so the outcome is the same as that of recovering
+ * with a single thread.
+ * </p>
  */
 public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
     private static final int PARTITION_INDEX = 0;
@@ -65,6 +86,10 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private final File journalsDirectory;
     protected final SerDeFactory<T> serdeFactory;
     private final SyncListener syncListener;
+    private final GroupCommitSynchronizer groupCommitSynchronizer;
+    private final WriteAheadJournalFactory<T> journalFactory;
+    private final int recoveryThreads;
+    private final Map<String, Long> recoveryTimings = new LinkedHashMap<>();
     private final Set<String> recoveredSwapLocations = new HashSet<>();
 
     private final ReadWriteLock journalRWLock = new ReentrantReadWriteLock();
@@ -88,6 +113,39 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, null);
+    }
+
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final GroupCommitSynchronizer groupCommitSynchronizer) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitSynchronizer, WriteAheadJournalFactory.lengthDelimited());
+    }
+
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final GroupCommitSynchronizer groupCommitSynchronizer, final WriteAheadJournalFactory<T> journalFactory) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitSynchronizer, journalFactory, 0);
+    }
+
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final GroupCommitSynchronizer groupCommitSynchronizer, final WriteAheadJournalFactory<T> journalFactory,
+                                         final int maxDeltaSnapshots) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitSynchronizer, journalFactory, maxDeltaSnapshots, 1);
+    }
+
+    /**
+     * @param maxDeltaSnapshots the number of incremental snapshots to write before compacting them into a full snapshot, or 0 to
+     *            write a full snapshot on every checkpoint
+     * @param recoveryThreads the number of threads to use for deserializing records on recovery. If greater than 1, the given
+     *            SerDeFactory must either create a new SerDe for each invocation of {@link SerDeFactory#createSerDe(String)} or create
+     *            SerDes that are thread-safe. Snapshots are then written in a chunked encoding that versions of NiFi that predate
+     *            concurrent recovery cannot read.
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final GroupCommitSynchronizer groupCommitSynchronizer, final WriteAheadJournalFactory<T> journalFactory,
+                                         final int maxDeltaSnapshots, final int recoveryThreads) throws IOException {
+        if (recoveryThreads < 1) {
+            throw new IllegalArgumentException("Number of recovery threads must be at least 1");
+        }
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,7 +153,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, maxDeltaSnapshots, recoveryThreads > 1);
         this.snapshot = hashMapSnapshot;
         this.recordLookup = hashMapSnapshot;
 
@@ -109,6 +167,9 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+        this.groupCommitSynchronizer = groupCommitSynchronizer;
+        this.journalFactory = journalFactory;
+        this.recoveryThreads = recoveryThreads;
     }
 
     @Override
@@ -122,7 +183,13 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journal.update(records, recordLookup);
 
             if (forceSync) {
-                journal.fsync();
+                if (groupCommitSynchronizer == null) {
+                    journal.fsync();
+                } else {
+                    final long writeSequence = groupCommitSynchronizer.onWriteComplete();
+                    groupCommitSynchronizer.awaitSync(writeSequence, journal);
+                }
+
                 syncListener.onSync(PARTITION_INDEX);
             }
 
@@ -144,27 +211,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long recoverStart = System.nanoTime();
         recovered = true;
-        snapshotRecovery = snapshot.recover();
-        this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
-
-        final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoverStart);
-
-        final Map<Object, T> recoveredRecords = snapshotRecovery.getRecords();
-        final Set<String> swapLocations = snapshotRecovery.getRecoveredSwapLocations();
 
         final File[] journalFiles = journalsDirectory.listFiles(this::isJournalFile);
         if (journalFiles == null) {
             throw new IOException("Cannot access the list of files in directory " + journalsDirectory + "; please ensure that appropriate file permissions are set.");
         }
 
-        if (snapshotRecovery.getRecoveryFile() == null) {
-            logger.info("No Snapshot File to recover from at {}. Now recovering records from {} journal files", storageDirectory, journalFiles.length);
-        } else {
-            logger.info("Successfully recovered {} records and {} swap files from Snapshot at {} with Max Transaction ID of {} in {} milliseconds. Now recovering records from {} journal files",
-                recoveredRecords.size(), swapLocations.size(), snapshotRecovery.getRecoveryFile(), snapshotRecovery.getMaxTransactionId(),
-                snapshotRecoveryMillis, journalFiles.length);
-        }
-
         final List<File> orderedJournalFiles = Arrays.asList(journalFiles);
         Collections.sort(orderedJournalFiles, new Comparator<File>() {
             @Override
@@ -176,39 +228,96 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             }
         });
 
-        final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
+        final ExecutorService recoveryExecutor = recoveryThreads > 1 ? new ForkJoinPool(recoveryThreads) : null;
+        final Map<File, Future<JournalUpdates<T>>> journalUpdateFutures = new HashMap<>();
+        final Map<Object, T> recoveredRecords;
+        final Set<String> swapLocations;
+        try {
+            // If recovering with multiple threads, read the journals while the snapshot is being recovered. Journal updates are
+            // still applied to the recovered records one journal at a time, in the order in which the journals were written.
+            // Only a bounded number of journals are read ahead so that decoded updates do not all have to be held in memory at once.
+            final Iterator<File> journalsToRead = orderedJournalFiles.iterator();
+            final int maxPendingJournals = HashMapSnapshot.MAX_PENDING_CHUNKS_PER_THREAD * recoveryThreads;
+            submitJournalReads(recoveryExecutor, journalsToRead, journalUpdateFutures, maxPendingJournals);
 
-        int totalUpdates = 0;
-        int journalFilesRecovered = 0;
-        int journalFilesSkipped = 0;
-        long maxTransactionId = snapshotTransactionId;
+            snapshotRecovery = snapshot.recover(recoveryExecutor);
+            this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
 
-        for (final File journalFile : orderedJournalFiles) {
-            final long journalMinTransactionId = getMinTransactionId(journalFile);
-            if (journalMinTransactionId < snapshotTransactionId) {
-                logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
-                    journalFile, journalMinTransactionId, snapshotTransactionId);
+            final long snapshotRecoveryEnd = System.nanoTime();
+            final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(snapshotRecoveryEnd - recoverStart);
+            recoveryTimings.put("Snapshot Recovery", snapshotRecoveryMillis);
 
-                journalFilesSkipped++;
-                continue;
+            recoveredRecords = snapshotRecovery.getRecords();
+            swapLocations = snapshotRecovery.getRecoveredSwapLocations();
+
+            if (snapshotRecovery.getRecoveryFile() == null) {
+                logger.info("No Snapshot File to recover from at {}. Now recovering records from {} journal files", storageDirectory, journalFiles.length);
+            } else {
+                logger.info("Successfully recovered {} records and {} swap files from Snapshot at {} with Max Transaction ID of {} in {} milliseconds. Now recovering records from {} journal files",
+                    recoveredRecords.size(), swapLocations.size(), snapshotRecovery.getRecoveryFile(), snapshotRecovery.getMaxTransactionId(),
+                    snapshotRecoveryMillis, journalFiles.length);
             }
 
-            logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
-            journalFilesRecovered++;
+            final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
+
+            int totalUpdates = 0;
+            int journalFilesRecovered = 0;
+            int journalFilesSkipped = 0;
+            long maxTransactionId = snapshotTransactionId;
+
+            for (final File journalFile : orderedJournalFiles) {
+                final Future<JournalUpdates<T>> journalUpdateFuture = journalUpdateFutures.remove(journalFile);
+                submitJournalReads(recoveryExecutor, journalsToRead, journalUpdateFutures, maxPendingJournals);
+
+                final long journalMinTransactionId = getMinTransactionId(journalFile);
+                if (journalMinTransactionId < snapshotTransactionId) {
+                    logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
+                        journalFile, journalMinTransactionId, snapshotTransactionId);
+
+                    if (journalUpdateFuture != null) {
+                        journalUpdateFuture.cancel(true);
+                    }
+
+                    journalFilesSkipped++;
+                    continue;
+                }
+
+                logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
+                journalFilesRecovered++;
+
+                final JournalUpdates<T> journalUpdates = journalUpdateFuture == null ? null : waitFor(journalUpdateFuture);
+                final JournalRecovery journalRecovery;
+                if (journalUpdates == null) {
+                    // All journal implementations share the length-delimited encoding, so journals are always recovered using the LengthDelimitedJournal,
+                    // regardless of which WriteAheadJournalFactory was used to write them.
+                    try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+                        journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
+                    }
+                } else {
+                    journalUpdates.applyTo(recoveredRecords, swapLocations);
+                    journalRecovery = journalUpdates.getRecovery();
+                }
 
-            try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
-                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
                 final int updates = journalRecovery.getUpdateCount();
 
                 logger.debug("Recovered {} updates from journal {}", updates, journalFile);
                 totalUpdates += updates;
                 maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
             }
-        }
 
-        logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
-            totalUpdates, journalFilesRecovered, journalFilesSkipped);
-        this.nextTransactionId = maxTransactionId + 1;
+            logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
+                totalUpdates, journalFilesRecovered, journalFilesSkipped);
+            this.nextTransactionId = maxTransactionId + 1;
+            recoveryTimings.put("Journal Recovery", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - snapshotRecoveryEnd));
+        } finally {
+            for (final Future<JournalUpdates<T>> future : journalUpdateFutures.values()) {
+                future.cancel(true);
+            }
+
+            if (recoveryExecutor != null) {
+                recoveryExecutor.shutdownNow();
+            }
+        }
 
         final long recoverNanos = System.nanoTime() - recoverStart;
         final long recoveryMillis = TimeUnit.MILLISECONDS.convert(recoverNanos, TimeUnit.NANOSECONDS);
@@ -216,11 +325,61 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.recoveredSwapLocations.addAll(swapLocations);
 
+        final long checkpointStart = System.nanoTime();
         checkpoint(this.recoveredSwapLocations);
+        recoveryTimings.put("Post-Recovery Checkpoint", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - checkpointStart));
 
         return recoveredRecords.values();
     }
 
+    private void submitJournalReads(final ExecutorService recoveryExecutor, final Iterator<File> journalsToRead, final Map<File, Future<JournalUpdates<T>>> journalUpdateFutures,
+                                    final int maxPendingJournals) {
+        if (recoveryExecutor == null) {
+            return;
+        }
+
+        while (journalUpdateFutures.size() < maxPendingJournals && journalsToRead.hasNext()) {
+            final File journalFile = journalsToRead.next();
+            journalUpdateFutures.put(journalFile, recoveryExecutor.submit(() -> recoverUpdates(journalFile)));
+        }
+    }
+
+    private JournalUpdates<T> recoverUpdates(final File journalFile) throws IOException {
+        try (final LengthDelimitedJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            return journal.recoverUpdates();
+        }
+    }
+
+    private JournalUpdates<T> waitFor(final Future<JournalUpdates<T>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for journal to be recovered");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException("Failed to recover journal", cause);
+        }
+    }
+
+    /**
+     * @return the number of milliseconds spent in each phase of recovery, in the order in which the phases occurred, or an empty map if
+     *         records have not yet been recovered
+     */
+    public synchronized Map<String, Long> getRecoveryTimings() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(recoveryTimings));
+    }
+
     private long getMinTransactionId(final File journalFile) {
         final String filename = journalFile.getName();
         final String numeral = filename.substring(0, filename.indexOf("."));
@@ -288,11 +447,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             final File[] existingFiles = journalsDirectory.listFiles(this::isJournalFile);
             existingJournals = (existingFiles == null) ? new File[0] : existingFiles;
 
-            if (swapLocations == null) {
-                snapshotCapture = snapshot.prepareSnapshot(nextTransactionId - 1);
-            } else {
-                snapshotCapture = snapshot.prepareSnapshot(nextTransactionId - 1, swapLocations);
-            }
+            snapshotCapture = snapshot.prepareCheckpoint(nextTransactionId - 1, swapLocations);
 
 
             // Create a new journal. We name the journal file <next transaction id>.journal but it is possible
@@ -305,7 +460,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
                 journalFile = new File(journalsDirectory, nextTransactionId + ".journal");
             }
 
-            journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, nextTransactionId);
+            journal = journalFactory.createJournal(journalFile, serdeFactory, streamPool, nextTransactionId);
             journal.writeHeader();
 
             logger.debug("Created new Journal starting with Transaction ID {}", nextTransactionId);
@@ -324,9 +479,9 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         final long totalNanos = System.nanoTime() - startNanos;
         final long millis = TimeUnit.NANOSECONDS.toMillis(totalNanos);
         logger.info("Checkpointed Write-Ahead Log with {} Records and {} Swap Files in {} milliseconds (Stop-the-world time = {} milliseconds), max Transaction ID {}",
-                snapshotCapture.getRecords().size(), snapshotCapture.getSwapLocations().size(), millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
+                snapshotCapture.getRecordCount(), snapshotCapture.getSwapLocations().size(), millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
 
-        return snapshotCapture.getRecords().size();
+        return snapshotCapture.getRecordCount();
     }
 
 
@@ -23,6 +23,13 @@ import java.util.Set;
 public interface SnapshotCapture<T> {
     Map<Object, T> getRecords();
 
+    /**
+     * @return the number of active records at the time of the capture
+     */
+    default int getRecordCount() {
+        return getRecords().size();
+    }
+
     long getMaxTransactionId();
 
     Set<String> getSwapLocations();
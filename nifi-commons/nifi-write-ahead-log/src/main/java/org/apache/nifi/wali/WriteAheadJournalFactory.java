@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.wali.SerDeFactory;
+
+import java.io.File;
+
+/**
+ * Creates the {@link WriteAheadJournal} that {@link SequentialAccessWriteAheadLog} writes to each time that it rolls over to a new journal file.
+ * Journals that are created by any factory must be recoverable by {@link LengthDelimitedJournal}.
+ */
+public interface WriteAheadJournalFactory<T> {
+
+    /**
+     * Creates a new journal that will write to the given file
+     *
+     * @param journalFile the file to write to
+     * @param serdeFactory the factory used to create the SerDe that serializes records
+     * @param streamPool a pool of buffers that the journal may use to serialize records
+     * @param initialTransactionId the ID of the first transaction to be written to the journal
+     * @return the journal
+     */
+    WriteAheadJournal<T> createJournal(File journalFile, SerDeFactory<T> serdeFactory, ObjectPool<ByteArrayDataOutputStream> streamPool, long initialTransactionId);
+
+    static <T> WriteAheadJournalFactory<T> lengthDelimited() {
+        return LengthDelimitedJournal::new;
+    }
+
+    static <T> WriteAheadJournalFactory<T> memoryMapped(final int segmentSize) {
+        return (journalFile, serdeFactory, streamPool, initialTransactionId) -> new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, initialTransactionId, segmentSize);
+    }
+}
@@ -20,16 +20,36 @@ package org.apache.nifi.wali;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public interface WriteAheadSnapshot<T> {
     SnapshotCapture<T> prepareSnapshot(long maxTransactionId);
 
     SnapshotCapture<T> prepareSnapshot(long maxTransactionId, Set<String> swapLocations);
 
+    /**
+     * Captures the state that is needed to write the next checkpoint. Unlike {@link #prepareSnapshot(long, Set)}, the capture need not
+     * provide every record if the implementation writes only the records that changed since the previous checkpoint, so this method is
+     * not required to copy all of the records while updates to the Write-Ahead Log are blocked.
+     *
+     * @param maxTransactionId the max transaction ID that the checkpoint encompasses
+     * @param swapLocations the swap locations to include in the checkpoint, or <code>null</code> to use the snapshot's own swap locations
+     */
+    default SnapshotCapture<T> prepareCheckpoint(long maxTransactionId, Set<String> swapLocations) {
+        return swapLocations == null ? prepareSnapshot(maxTransactionId) : prepareSnapshot(maxTransactionId, swapLocations);
+    }
+
     void writeSnapshot(SnapshotCapture<T> snapshot) throws IOException;
 
     SnapshotRecovery<T> recover() throws IOException;
 
+    /**
+     * Recovers the snapshot, using the given executor to deserialize records concurrently if the implementation supports doing so
+     */
+    default SnapshotRecovery<T> recover(ExecutorService executor) throws IOException {
+        return recover();
+    }
+
     void update(Collection<T> records);
 
     int getRecordCount();
@@ -92,6 +92,17 @@ public interface SerDe<T> {
      */
     T deserializeEdit(DataInputStream in, Map<Object, T> currentRecordStates, int version) throws IOException;
 
+    /**
+     * Indicates whether or not {@link #deserializeEdit(DataInputStream, Map, int)} must be provided the current state of each Record
+     * in order to deserialize an edit. If not, the edits that were written to a journal can be deserialized independently of all other
+     * journals, which allows the journals to be recovered concurrently.
+     *
+     * @return <code>true</code> if the current record states are needed in order to deserialize an edit, <code>false</code> otherwise
+     */
+    default boolean isCurrentRecordStateRequired() {
+        return true;
+    }
+
     /**
      * <p>
      * Reads a Record from the given {@link DataInputStream} and returns this
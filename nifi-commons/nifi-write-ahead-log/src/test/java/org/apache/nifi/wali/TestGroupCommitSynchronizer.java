@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.wali.DummyRecord;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestGroupCommitSynchronizer {
+
+    @Test
+    public void testSingleWriterSyncsImmediately() throws IOException {
+        final WriteAheadJournal<DummyRecord> journal = createJournal();
+        final GroupCommitSynchronizer synchronizer = new GroupCommitSynchronizer(0L);
+
+        final long sequence = synchronizer.onWriteComplete();
+        synchronizer.awaitSync(sequence, journal);
+
+        verify(journal, times(1)).fsync();
+        assertEquals(1, synchronizer.getSyncCount());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testWritersDuringSyncAreCoalesced() throws Exception {
+        final CountDownLatch firstSyncStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstSync = new CountDownLatch(1);
+
+        final WriteAheadJournal<DummyRecord> journal = createJournal();
+        doAnswer(invocation -> {
+            if (firstSyncStarted.getCount() > 0) {
+                firstSyncStarted.countDown();
+                releaseFirstSync.await();
+            }
+            return null;
+        }).when(journal).fsync();
+
+        final GroupCommitSynchronizer synchronizer = new GroupCommitSynchronizer(0L);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final long firstSequence = synchronizer.onWriteComplete();
+            final Future<?> leader = executor.submit(() -> {
+                synchronizer.awaitSync(firstSequence, journal);
+                return null;
+            });
+            assertTrue(firstSyncStarted.await(5, TimeUnit.SECONDS));
+
+            // These writes complete while the first sync is in progress, so they must all be made durable by a single additional sync.
+            final Future<?>[] followers = new Future<?>[3];
+            for (int i = 0; i < followers.length; i++) {
+                final long sequence = synchronizer.onWriteComplete();
+                followers[i] = executor.submit(() -> {
+                    synchronizer.awaitSync(sequence, journal);
+                    return null;
+                });
+            }
+
+            releaseFirstSync.countDown();
+            leader.get();
+            for (final Future<?> follower : followers) {
+                follower.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(4, synchronizer.getWriteCount());
+        assertEquals(2, synchronizer.getSyncCount());
+        verify(journal, times(2)).fsync();
+    }
+
+    @Test
+    public void testUnhealthyJournalAfterSyncThrows() throws IOException {
+        final WriteAheadJournal<DummyRecord> journal = createJournal();
+        when(journal.isHealthy()).thenReturn(false);
+
+        final GroupCommitSynchronizer synchronizer = new GroupCommitSynchronizer(0L);
+        final long sequence = synchronizer.onWriteComplete();
+        assertThrows(IOException.class, () -> synchronizer.awaitSync(sequence, journal));
+        assertEquals(0, synchronizer.getSyncCount());
+
+        // A failed sync must not release subsequent writers either
+        final long nextSequence = synchronizer.onWriteComplete();
+        assertThrows(IOException.class, () -> synchronizer.awaitSync(nextSequence, journal));
+    }
+
+    @Test
+    public void testNegativeBatchWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitSynchronizer(-1L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteAheadJournal<DummyRecord> createJournal() {
+        final WriteAheadJournal<DummyRecord> journal = mock(WriteAheadJournal.class);
+        when(journal.isHealthy()).thenReturn(true);
+        return journal;
+    }
+}
@@ -25,16 +25,24 @@ import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
 import org.wali.UpdateType;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -203,4 +211,272 @@ public class TestHashMapSnapshot {
         assertTrue(swapLocations.contains("SwapLocation-1"));
     }
 
+    @Test
+    public void testDeltaSnapshotsRoundTrip() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        snapshot.recover();
+
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("key", String.valueOf(i))));
+        }
+
+        // The first snapshot is always a full snapshot
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+        assertEquals(0, getDeltaFiles().length);
+
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.UPDATE).setProperty("key", "updated")));
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)));
+        final DummyRecord swapOutRecord = new DummyRecord("3", UpdateType.SWAP_OUT);
+        swapOutRecord.setSwapLocation("SwapLocation-1");
+        snapshot.update(Collections.singleton(swapOutRecord));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(20L));
+        assertEquals(1, getDeltaFiles().length);
+
+        snapshot.update(Collections.singleton(new DummyRecord("10", UpdateType.CREATE).setProperty("key", "10")));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(30L));
+        assertEquals(2, getDeltaFiles().length);
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+
+        final Map<Object, DummyRecord> recordMap = recovery.getRecords();
+        assertEquals(9, recordMap.size());
+        assertEquals("updated", recordMap.get("1").getProperties().get("key"));
+        assertFalse(recordMap.containsKey("2"));
+        assertFalse(recordMap.containsKey("3"));
+        assertEquals("10", recordMap.get("10").getProperties().get("key"));
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+    }
+
+    @Test
+    public void testDeltaSnapshotsCompactedIntoFullSnapshot() throws IOException, InterruptedException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2);
+        snapshot.recover();
+
+        snapshot.update(Collections.singleton(new DummyRecord("0", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(20L));
+        assertEquals(1, getDeltaFiles().length);
+
+        snapshot.update(Collections.singleton(new DummyRecord("0", UpdateType.DELETE)));
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(30L));
+
+        snapshot.waitForCompaction();
+        assertEquals(0, getDeltaFiles().length);
+        assertFalse(new File(storageDirectory, "checkpoint.compacting").exists());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), recovery.getRecords().keySet());
+    }
+
+    @Test
+    public void testCheckpointCapturesOnlyChangedRecords() throws IOException, InterruptedException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 3);
+        snapshot.recover();
+
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+
+        // The first checkpoint writes a full snapshot, so it captures all records
+        final SnapshotCapture<DummyRecord> fullCapture = snapshot.prepareCheckpoint(10L, null);
+        assertEquals(10, fullCapture.getRecords().size());
+        snapshot.writeSnapshot(fullCapture);
+
+        snapshot.update(Collections.singleton(new DummyRecord("10", UpdateType.CREATE)));
+        final SnapshotCapture<DummyRecord> deltaCapture = snapshot.prepareCheckpoint(20L, null);
+        assertEquals(11, deltaCapture.getRecordCount());
+        assertThrows(IllegalStateException.class, deltaCapture::getRecords);
+        snapshot.writeSnapshot(deltaCapture);
+        assertEquals(1, getDeltaFiles().length);
+
+        snapshot.update(Collections.singleton(new DummyRecord("0", UpdateType.DELETE)));
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(30L, null));
+        assertEquals(2, getDeltaFiles().length);
+
+        // The third Delta Snapshot is compacted into a full Snapshot from the files on disk, so its checkpoint also captures only the changes
+        snapshot.update(Collections.singleton(new DummyRecord("11", UpdateType.CREATE)));
+        final SnapshotCapture<DummyRecord> compactionCapture = snapshot.prepareCheckpoint(40L, null);
+        assertThrows(IllegalStateException.class, compactionCapture::getRecords);
+        snapshot.writeSnapshot(compactionCapture);
+
+        snapshot.waitForCompaction();
+        assertEquals(0, getDeltaFiles().length);
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 3).recover();
+        assertEquals(40L, recovery.getMaxTransactionId());
+        assertEquals(11, recovery.getRecords().size());
+        assertFalse(recovery.getRecords().containsKey("0"));
+    }
+
+    @Test
+    public void testDeltaSnapshotWithoutSnapshotNotRecovered() throws IOException {
+        writeSnapshotAndDelta();
+        Files.delete(new File(storageDirectory, "checkpoint").toPath());
+
+        // Restoring only the records in the delta would lose every record that did not change since the full snapshot
+        assertThrows(IOException.class, () -> new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover());
+        assertEquals(1, getDeltaFiles().length);
+
+        Files.write(new File(storageDirectory, "checkpoint").toPath(), new byte[0]);
+        assertThrows(IOException.class, () -> new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover());
+        assertEquals(1, getDeltaFiles().length);
+    }
+
+    @Test
+    public void testDeltaSnapshotWithTruncatedSnapshotNotRecovered() throws IOException {
+        writeSnapshotAndDelta();
+
+        final File snapshotFile = new File(storageDirectory, "checkpoint");
+        final byte[] snapshotBytes = Files.readAllBytes(snapshotFile.toPath());
+        Files.write(snapshotFile.toPath(), Arrays.copyOf(snapshotBytes, snapshotBytes.length - 10));
+
+        assertThrows(IOException.class, () -> new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover());
+        assertEquals(1, getDeltaFiles().length);
+
+        // Once the snapshot is restored, the delta is applied to it
+        Files.write(snapshotFile.toPath(), snapshotBytes);
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover();
+        assertEquals(20L, recovery.getMaxTransactionId());
+        assertEquals(new HashSet<>(Arrays.asList("0", "1", "2")), recovery.getRecords().keySet());
+    }
+
+    private void writeSnapshotAndDelta() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        snapshot.recover();
+
+        snapshot.update(Arrays.asList(new DummyRecord("0", UpdateType.CREATE), new DummyRecord("1", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(10L, null));
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(20L, null));
+        assertEquals(1, getDeltaFiles().length);
+    }
+
+    @Test
+    public void testFailedDeltaSnapshotRetainsChanges() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        snapshot.recover();
+
+        snapshot.update(Collections.singleton(new DummyRecord("0", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+
+        for (int i = 1; i < 5; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+
+        serde.setThrowIOEAfterNSerializeEdits(2);
+        assertThrows(IOException.class, () -> snapshot.writeSnapshot(snapshot.prepareSnapshot(20L)));
+        assertEquals(0, getDeltaFiles().length);
+
+        serde.setThrowIOEAfterNSerializeEdits(-1);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(30L));
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(5, recovery.getRecords().size());
+    }
+
+    @Test
+    public void testDeltaSnapshotsRecoveredWhenIncrementalSnapshotsDisabled() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        snapshot.recover();
+
+        snapshot.update(Collections.singleton(new DummyRecord("0", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(20L));
+        assertEquals(1, getDeltaFiles().length);
+
+        final HashMapSnapshot<DummyRecord> fullSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        final SnapshotRecovery<DummyRecord> recovery = fullSnapshot.recover();
+        assertEquals(20L, recovery.getMaxTransactionId());
+        assertEquals(2, recovery.getRecords().size());
+
+        // Writing a full snapshot removes the delta snapshots that it encompasses
+        fullSnapshot.writeSnapshot(fullSnapshot.prepareSnapshot(25L));
+        assertEquals(0, getDeltaFiles().length);
+        assertEquals(2, new HashMapSnapshot<>(storageDirectory, serdeFactory).recover().getRecords().size());
+    }
+
+    @Test
+    public void testRecoverWithMultipleThreads() throws IOException, InterruptedException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 0, true);
+
+        final int recordCount = 25_000;
+        for (int i = 0; i < recordCount; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("key", String.valueOf(i))));
+        }
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover(executor);
+            assertEquals(10L, recovery.getMaxTransactionId());
+
+            final Map<Object, DummyRecord> recordMap = recovery.getRecords();
+            assertEquals(recordCount, recordMap.size());
+            for (int i = 0; i < recordCount; i++) {
+                assertEquals(String.valueOf(i), recordMap.get(String.valueOf(i)).getProperties().get("key"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEncodingVersion() throws IOException {
+        final HashMapSnapshot<DummyRecord> sequentialSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        sequentialSnapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE).setProperty("key", "1")));
+        sequentialSnapshot.writeSnapshot(sequentialSnapshot.prepareSnapshot(5L));
+
+        // Unless chunked encoding is requested, the Snapshot is written using Version 1 so that it can be read by older versions
+        assertEquals(1, readEncodingVersion());
+
+        final HashMapSnapshot<DummyRecord> chunkedSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 0, true);
+        chunkedSnapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE).setProperty("key", "1")));
+        chunkedSnapshot.writeSnapshot(chunkedSnapshot.prepareSnapshot(6L));
+        assertEquals(2, readEncodingVersion());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(6L, recovery.getMaxTransactionId());
+        assertEquals("1", recovery.getRecords().get("1").getProperties().get("key"));
+    }
+
+    private int readEncodingVersion() throws IOException {
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(new File(storageDirectory, "checkpoint")))) {
+            in.readUTF();
+            return in.readInt();
+        }
+    }
+
+    @Test
+    public void testRecoverVersion1Snapshot() throws IOException {
+        // Version 1 of the Snapshot did not write the SerDe header or the records in length-delimited chunks
+        try (final DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(storageDirectory, "checkpoint")))) {
+            out.writeUTF(HashMapSnapshot.class.getName());
+            out.writeInt(1);
+            out.writeUTF(DummyRecordSerde.class.getName());
+            out.writeInt(serde.getVersion());
+            out.writeLong(8L);
+            out.writeInt(2);
+            serde.writeHeader(out);
+            serde.serializeRecord(new DummyRecord("1", UpdateType.CREATE).setProperty("key", "1"), out);
+            serde.serializeRecord(new DummyRecord("2", UpdateType.CREATE).setProperty("key", "2"), out);
+            out.writeInt(1);
+            out.writeUTF("SwapLocation-1");
+        }
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(8L, recovery.getMaxTransactionId());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), recovery.getRecords().keySet());
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+    }
+
+    private File[] getDeltaFiles() {
+        return storageDirectory.listFiles((dir, name) -> name.startsWith("checkpoint.delta."));
+    }
 }
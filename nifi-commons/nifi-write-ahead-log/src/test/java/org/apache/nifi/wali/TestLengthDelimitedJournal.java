@@ -287,6 +287,81 @@ public class TestLengthDelimitedJournal {
         }
     }
 
+    @Test
+    public void testRecoveredUpdatesMatchRecoveredRecords() throws IOException {
+        serde.setCurrentRecordStateRequired(false);
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+
+            final List<DummyRecord> firstTransaction = new ArrayList<>();
+            firstTransaction.add(new DummyRecord("1", UpdateType.CREATE));
+            firstTransaction.add(new DummyRecord("2", UpdateType.CREATE));
+            firstTransaction.add(new DummyRecord("3", UpdateType.CREATE));
+            journal.update(firstTransaction, key -> null);
+
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.UPDATE).setProperty("updated", "true")), key -> null);
+            journal.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)), key -> null);
+            journal.update(Collections.singleton(createSwapRecord("3", UpdateType.SWAP_OUT, "swap-1")), key -> null);
+            journal.update(Collections.singleton(createSwapRecord("3", UpdateType.SWAP_IN, "swap-1")), key -> null);
+            journal.update(Collections.singleton(createSwapRecord("0", UpdateType.SWAP_OUT, "swap-2")), key -> null);
+            journal.update(Collections.singleton(createSwapRecord("5", UpdateType.SWAP_IN, "swap-0")), key -> null);
+
+            final List<DummyRecord> lastTransaction = new ArrayList<>();
+            lastTransaction.add(new DummyRecord("4", UpdateType.CREATE));
+            lastTransaction.add(new DummyRecord("4", UpdateType.DELETE));
+            journal.update(lastTransaction, key -> null);
+        }
+
+        final Map<Object, DummyRecord> recordMap = createInitialRecords();
+        final Set<String> swapLocations = new HashSet<>(Collections.singleton("swap-0"));
+        final JournalRecovery recovery;
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            recovery = journal.recoverRecords(recordMap, swapLocations);
+        }
+
+        final JournalUpdates<DummyRecord> updates;
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            updates = journal.recoverUpdates();
+        }
+        assertNotNull(updates);
+        assertEquals(recovery.getUpdateCount(), updates.getRecovery().getUpdateCount());
+        assertEquals(recovery.getMaxTransactionId(), updates.getRecovery().getMaxTransactionId());
+
+        final Map<Object, DummyRecord> updatedRecordMap = createInitialRecords();
+        final Set<String> updatedSwapLocations = new HashSet<>(Collections.singleton("swap-0"));
+        updates.applyTo(updatedRecordMap, updatedSwapLocations);
+
+        assertEquals(recordMap, updatedRecordMap);
+        assertEquals(swapLocations, updatedSwapLocations);
+        assertEquals(new HashSet<>(Arrays.asList("1", "3", "5")), recordMap.keySet());
+        assertEquals(Collections.singleton("swap-2"), swapLocations);
+    }
+
+    @Test
+    public void testRecoverUpdatesRequiresIndependentSerDe() throws IOException {
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), key -> null);
+        }
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            assertNull(journal.recoverUpdates());
+        }
+    }
+
+    private Map<Object, DummyRecord> createInitialRecords() {
+        final Map<Object, DummyRecord> recordMap = new HashMap<>();
+        recordMap.put("0", new DummyRecord("0", UpdateType.CREATE));
+        return recordMap;
+    }
+
+    private DummyRecord createSwapRecord(final String id, final UpdateType updateType, final String swapLocation) {
+        final DummyRecord record = new DummyRecord(id, updateType);
+        record.setSwapLocation(swapLocation);
+        return record;
+    }
+
     @Test
     public void testMultipleThreadsCreatingOverflowDirectory() throws IOException, InterruptedException {
         final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<DummyRecord>(journalFile, serdeFactory, streamPool, 3820L, 100) {
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wali.DummyRecord;
+import org.wali.DummyRecordSerde;
+import org.wali.SerDeFactory;
+import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
+import org.wali.UpdateType;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMemoryMappedJournal {
+    private static final int SEGMENT_SIZE = 1024;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final File journalFile = new File("target/testMemoryMappedJournal/testJournal.journal");
+    private SerDeFactory<DummyRecord> serdeFactory;
+    private DummyRecordSerde serde;
+    private ObjectPool<ByteArrayDataOutputStream> streamPool;
+
+    @BeforeEach
+    public void setupJournal() throws IOException {
+        Files.deleteIfExists(journalFile.toPath());
+
+        if (!journalFile.getParentFile().exists()) {
+            Files.createDirectories(journalFile.getParentFile().toPath());
+        }
+
+        serde = new DummyRecordSerde();
+        serdeFactory = new SingletonSerDeFactory<>(serde);
+        streamPool = new BlockingQueuePool<>(1,
+            () -> new ByteArrayDataOutputStream(BUFFER_SIZE),
+            stream -> stream.getByteArrayOutputStream().size() < BUFFER_SIZE,
+            stream -> stream.getByteArrayOutputStream().reset());
+    }
+
+    @Test
+    public void testUpdatesSpanningSegmentsAreRecovered() throws IOException {
+        final int recordCount = 500;
+        try (final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE)) {
+            journal.writeHeader();
+
+            for (int i = 0; i < recordCount; i++) {
+                final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("index", String.valueOf(i));
+                journal.update(Collections.singleton(record), id -> null);
+            }
+
+            final JournalSummary summary = journal.getSummary();
+            assertEquals(recordCount, summary.getTransactionCount());
+            assertEquals(recordCount - 1, summary.getLastTransactionId());
+        }
+
+        assertTrue(journalFile.length() > SEGMENT_SIZE);
+        assertTrue(journalFile.length() % SEGMENT_SIZE != 0, "Journal should have been truncated to the length of its data");
+
+        final Map<Object, DummyRecord> recordMap = new HashMap<>();
+        final Set<String> swapLocations = new HashSet<>();
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            final JournalRecovery recovery = journal.recoverRecords(recordMap, swapLocations);
+            assertEquals(recordCount, recovery.getUpdateCount());
+            assertEquals(recordCount - 1, recovery.getMaxTransactionId());
+            assertFalse(recovery.isEOFExceptionEncountered());
+        }
+
+        assertEquals(recordCount, recordMap.size());
+        for (int i = 0; i < recordCount; i++) {
+            assertEquals(String.valueOf(i), recordMap.get(String.valueOf(i)).getProperties().get("index"));
+        }
+    }
+
+    @Test
+    public void testSegmentIsAllocatedWhenMapped() throws IOException {
+        try (final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE)) {
+            journal.writeHeader();
+            assertEquals(SEGMENT_SIZE, journalFile.length());
+
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), id -> null);
+            journal.fsync();
+        }
+
+        // The segments are unmapped on close, so the file is truncated to its data and can be deleted
+        assertTrue(journalFile.length() < SEGMENT_SIZE);
+        Files.delete(journalFile.toPath());
+    }
+
+    @Test
+    public void testRecoverJournalThatWasNotClosed() throws IOException {
+        final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE);
+        journal.writeHeader();
+
+        final List<DummyRecord> firstTransaction = new ArrayList<>();
+        firstTransaction.add(new DummyRecord("1", UpdateType.CREATE));
+        firstTransaction.add(new DummyRecord("2", UpdateType.CREATE));
+        journal.update(firstTransaction, id -> null);
+        journal.update(Collections.singleton(new DummyRecord("1", UpdateType.UPDATE).setProperty("abc", "123")), id -> null);
+        journal.fsync();
+
+        // Do not close the journal, as though NiFi were killed. The remainder of the segment consists of NUL bytes.
+        final Map<Object, DummyRecord> recordMap = new HashMap<>();
+        final Set<String> swapLocations = new HashSet<>();
+        journal.recoverRecords(recordMap, swapLocations);
+
+        assertEquals(2, recordMap.size());
+        assertEquals(Collections.singletonMap("abc", "123"), recordMap.get("1").getProperties());
+        assertNotNull(recordMap.get("2"));
+
+        journal.close();
+    }
+
+    @Test
+    public void testFailedTransactionIsErased() throws IOException {
+        try (final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE)) {
+            journal.writeHeader();
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), id -> null);
+
+            serde.setThrowIOEAfterNSerializeEdits(1);
+
+            final List<DummyRecord> failedTransaction = new ArrayList<>();
+            failedTransaction.add(new DummyRecord("2", UpdateType.CREATE));
+            failedTransaction.add(new DummyRecord("3", UpdateType.CREATE));
+            assertThrows(IOException.class, () -> journal.update(failedTransaction, id -> null));
+
+            assertFalse(journal.isHealthy());
+            assertThrows(IOException.class, () -> journal.update(Collections.singleton(new DummyRecord("4", UpdateType.CREATE)), id -> null));
+        }
+
+        final Map<Object, DummyRecord> recordMap = new HashMap<>();
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            journal.recoverRecords(recordMap, new HashSet<>());
+        }
+
+        assertEquals(Collections.singleton("1"), recordMap.keySet());
+    }
+
+    @Test
+    public void testRecoverJournalKilledWhileSerializing() throws IOException {
+        // Capture the contents of the journal file while the last transaction is being serialized, as though NiFi were killed at that point
+        final AtomicReference<byte[]> contentsWhileSerializing = new AtomicReference<>();
+        final DummyRecordSerde capturingSerde = new DummyRecordSerde() {
+            @Override
+            public synchronized void serializeEdit(final DummyRecord previousState, final DummyRecord record, final DataOutputStream out) throws IOException {
+                super.serializeEdit(previousState, record, out);
+                if (record.getId().equals("3")) {
+                    out.flush();
+                    contentsWhileSerializing.set(Files.readAllBytes(journalFile.toPath()));
+                }
+            }
+        };
+        serdeFactory = new SingletonSerDeFactory<>(capturingSerde);
+
+        try (final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE)) {
+            journal.writeHeader();
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), id -> null);
+
+            final List<DummyRecord> lastTransaction = new ArrayList<>();
+            lastTransaction.add(new DummyRecord("2", UpdateType.CREATE));
+            lastTransaction.add(new DummyRecord("3", UpdateType.CREATE));
+            lastTransaction.add(new DummyRecord("4", UpdateType.CREATE));
+            journal.update(lastTransaction, id -> null);
+        }
+
+        Files.write(journalFile.toPath(), contentsWhileSerializing.get());
+
+        final Map<Object, DummyRecord> recordMap = new HashMap<>();
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            journal.recoverRecords(recordMap, new HashSet<>());
+        }
+
+        assertEquals(Collections.singleton("1"), recordMap.keySet());
+    }
+
+    @Test
+    public void testRecoverJournalKilledWhileCopyingTransaction() throws IOException {
+        final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE);
+        journal.writeHeader();
+        journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), id -> null);
+        final byte[] contentsBefore = Files.readAllBytes(journalFile.toPath());
+
+        final List<DummyRecord> lastTransaction = new ArrayList<>();
+        lastTransaction.add(new DummyRecord("2", UpdateType.CREATE).setProperty("abc", "123"));
+        lastTransaction.add(new DummyRecord("3", UpdateType.CREATE).setProperty("xyz", "789"));
+        journal.update(lastTransaction, id -> null);
+        final byte[] contentsAfter = Files.readAllBytes(journalFile.toPath());
+        journal.close();
+
+        final int transactionStart = getFirstDifference(contentsBefore, contentsAfter);
+        int transactionEnd = contentsAfter.length;
+        while (contentsBefore[transactionEnd - 1] == contentsAfter[transactionEnd - 1]) {
+            transactionEnd--;
+        }
+        assertEquals(LengthDelimitedJournal.TRANSACTION_FOLLOWS, contentsAfter[transactionStart]);
+
+        // Recover the journal as it would be if NiFi were killed after copying each possible number of bytes of the last transaction,
+        // whose transaction indicator is written last
+        for (int copied = 0; copied < transactionEnd - transactionStart; copied++) {
+            final byte[] contents = Arrays.copyOf(contentsBefore, contentsBefore.length);
+            System.arraycopy(contentsAfter, transactionStart + 1, contents, transactionStart + 1, copied);
+            Files.write(journalFile.toPath(), contents);
+
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            try (final LengthDelimitedJournal<DummyRecord> recoveryJournal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+                recoveryJournal.recoverRecords(recordMap, new HashSet<>());
+            }
+
+            assertEquals(Collections.singleton("1"), recordMap.keySet(), "Recovered an incomplete transaction after copying " + copied + " bytes");
+        }
+    }
+
+    @Test
+    public void testDataFollowingIncompleteTransactionIsCorruption() throws IOException {
+        final MemoryMappedJournal<DummyRecord> journal = new MemoryMappedJournal<>(journalFile, serdeFactory, streamPool, 0L, SEGMENT_SIZE);
+        journal.writeHeader();
+        final byte[] contentsBefore = Files.readAllBytes(journalFile.toPath());
+        journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), id -> null);
+        journal.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE)), id -> null);
+        final byte[] contents = Files.readAllBytes(journalFile.toPath());
+        journal.close();
+
+        // Clear the transaction indicator of the first transaction. The second transaction cannot be part of an incomplete first transaction,
+        // so the journal must be reported as corrupt rather than having its remaining transactions silently skipped.
+        contents[getFirstDifference(contentsBefore, contents)] = 0;
+        Files.write(journalFile.toPath(), contents);
+
+        try (final LengthDelimitedJournal<DummyRecord> recoveryJournal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            assertThrows(IOException.class, () -> recoveryJournal.recoverRecords(new HashMap<>(), new HashSet<>()));
+        }
+    }
+
+    @Test
+    public void testWriteAheadLogWithMemoryMappedJournal() throws IOException {
+        final File storageDir = new File("target/testMemoryMappedJournal/wal");
+        deleteRecursively(storageDir);
+
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            null, WriteAheadJournalFactory.memoryMapped(SEGMENT_SIZE));
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        for (int i = 0; i < 100; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)), i % 10 == 0);
+        }
+        repo.checkpoint();
+        for (int i = 0; i < 50; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.DELETE)), false);
+        }
+        repo.shutdown();
+
+        // Recover using the default journal implementation to verify that the journals are interchangeable
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = new SequentialAccessWriteAheadLog<>(storageDir, new SingletonSerDeFactory<>(new DummyRecordSerde()));
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+        assertEquals(50, recovered.size());
+        recoveryRepo.shutdown();
+    }
+
+    private int getFirstDifference(final byte[] first, final byte[] second) {
+        int index = 0;
+        while (first[index] == second[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    private void deleteRecursively(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteRecursively(child);
+            }
+        }
+
+        file.delete();
+    }
+}
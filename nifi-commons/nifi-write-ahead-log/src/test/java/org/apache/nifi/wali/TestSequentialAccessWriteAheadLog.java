@@ -22,8 +22,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
+import org.wali.SerDe;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
 import org.wali.UpdateType;
 import org.wali.WriteAheadRepository;
 
@@ -40,12 +42,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -182,6 +186,99 @@ public class TestSequentialAccessWriteAheadLog {
         assertEquals(expected, new HashSet<>(recovered));
     }
 
+    @Test
+    public void testConcurrentUpdatesWithGroupCommit(TestInfo testInfo) throws IOException, InterruptedException {
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final GroupCommitSynchronizer groupCommitSynchronizer = new GroupCommitSynchronizer(0L);
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER, groupCommitSynchronizer);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int numThreads = 8;
+        final int updatesPerThread = 250;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            final int threadIndex = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        final DummyRecord record = new DummyRecord(threadIndex + "-" + j, UpdateType.CREATE);
+                        repo.update(Collections.singleton(record), true);
+                    }
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+        }
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(numThreads * updatesPerThread, groupCommitSynchronizer.getWriteCount());
+        assertTrue(groupCommitSynchronizer.getSyncCount() <= groupCommitSynchronizer.getWriteCount());
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        final Collection<DummyRecord> recovered = recoveryRepo.recoverRecords();
+        assertEquals(numThreads * updatesPerThread, recovered.size());
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testRecoverWithMultipleThreads(TestInfo testInfo) throws IOException {
+        final SerDeFactory<DummyRecord> serdeFactory = new IndependentSerDeFactory();
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int recordCount = 25_000;
+        final List<DummyRecord> records = new ArrayList<>();
+        for (int i = 0; i < recordCount; i++) {
+            records.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("key", String.valueOf(i)));
+        }
+        repo.update(records, false);
+        repo.checkpoint();
+
+        // Update the journal after the checkpoint so that recovery must apply journal updates on top of the snapshot
+        for (int i = 0; i < 100; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.DELETE)), false);
+        }
+        for (int i = 100; i < 200; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.UPDATE).setProperty("key", "updated")), false);
+        }
+        final DummyRecord swapOut = new DummyRecord("200", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("swap-1");
+        repo.update(Collections.singleton(swapOut), false);
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            null, WriteAheadJournalFactory.lengthDelimited(), 0, 4);
+        final Map<String, DummyRecord> recovered = recoveryRepo.recoverRecords().stream()
+            .collect(Collectors.toMap(DummyRecord::getId, Function.identity()));
+
+        assertEquals(recordCount - 101, recovered.size());
+        assertFalse(recovered.containsKey("0"));
+        assertFalse(recovered.containsKey("200"));
+        assertEquals("updated", recovered.get("150").getProperties().get("key"));
+        assertEquals("250", recovered.get("250").getProperties().get("key"));
+        assertEquals(Collections.singleton("swap-1"), recoveryRepo.getRecoveredSwapLocations());
+        assertTrue(recoveryRepo.getRecoveryTimings().containsKey("Snapshot Recovery"));
+        assertTrue(recoveryRepo.getRecoveryTimings().containsKey("Journal Recovery"));
+        recoveryRepo.shutdown();
+    }
+
     private SequentialAccessWriteAheadLog<DummyRecord> createRecoveryRepo(TestInfo testInfo) throws IOException {
         final File targetDir = new File("target");
         final File storageDir = new File(targetDir, testInfo.getTestMethod().get().getName());
@@ -378,6 +475,85 @@ public class TestSequentialAccessWriteAheadLog {
         }
     }
 
+    @Test
+    @Disabled("For manual performance testing")
+    public void testSyncedUpdatePerformance() throws IOException, InterruptedException {
+        final int[] threadCounts = new int[] {1, 8, 32, 128};
+        final long updatesPerRun = 50_000;
+
+        for (final boolean groupCommit : new boolean[] {false, true}) {
+            for (final int numThreads : threadCounts) {
+                final Path path = Paths.get("target/sequential-access-repo-synced");
+                deleteRecursively(path.toFile());
+                assertTrue(path.toFile().mkdirs());
+
+                final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+                final GroupCommitSynchronizer groupCommitSynchronizer = groupCommit ? new GroupCommitSynchronizer(0L) : null;
+                final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path.toFile(), serdeFactory, SyncListener.NOP_SYNC_LISTENER, groupCommitSynchronizer);
+                assertTrue(repo.recoverRecords().isEmpty());
+
+                final long updatesPerThread = updatesPerRun / numThreads;
+                final Thread[] threads = new Thread[numThreads];
+                for (int i = 0; i < numThreads; i++) {
+                    final int threadIndex = i;
+                    threads[i] = new Thread(() -> {
+                        for (int j = 0; j < updatesPerThread; j++) {
+                            final DummyRecord record = new DummyRecord(threadIndex + "-" + j, UpdateType.CREATE);
+                            try {
+                                repo.update(Collections.singleton(record), true);
+                            } catch (final IOException ioe) {
+                                throw new RuntimeException(ioe);
+                            }
+                        }
+                    });
+                }
+
+                final long start = System.nanoTime();
+                for (final Thread t : threads) {
+                    t.start();
+                }
+                for (final Thread t : threads) {
+                    t.join();
+                }
+
+                final long millis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                final long commitsPerSecond = updatesPerThread * numThreads * 1000 / millis;
+                final String syncs = groupCommitSynchronizer == null ? String.valueOf(updatesPerThread * numThreads) : String.valueOf(groupCommitSynchronizer.getSyncCount());
+                System.out.println((groupCommit ? "Group Commit" : "Individual Sync") + " with " + numThreads + " threads: "
+                    + NumberFormat.getInstance().format(commitsPerSecond) + " commits per second using " + syncs + " syncs");
+
+                repo.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Creates a new SerDe for each invocation, as is required when recovering with multiple threads
+     */
+    private static class IndependentSerDeFactory implements SerDeFactory<DummyRecord> {
+        @Override
+        public SerDe<DummyRecord> createSerDe(final String encodingName) {
+            final DummyRecordSerde serde = new DummyRecordSerde();
+            serde.setCurrentRecordStateRequired(false);
+            return serde;
+        }
+
+        @Override
+        public Object getRecordIdentifier(final DummyRecord record) {
+            return record.getId();
+        }
+
+        @Override
+        public UpdateType getUpdateType(final DummyRecord record) {
+            return record.getUpdateType();
+        }
+
+        @Override
+        public String getLocation(final DummyRecord record) {
+            return record.getSwapLocation();
+        }
+    }
+
     private void deleteRecursively(final File file) {
         final File[] children = file.listFiles();
         if (children != null) {
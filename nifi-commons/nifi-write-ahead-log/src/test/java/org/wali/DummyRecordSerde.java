@@ -37,6 +37,7 @@ public class DummyRecordSerde implements SerDe<DummyRecord> {
     private int throwIOEAfterNserializeEdits = -1;
     private int throwOOMEAfterNserializeEdits = -1;
     private int serializeEditCount = 0;
+    private boolean currentRecordStateRequired = true;
 
     private final Set<File> externalFilesWritten = new HashSet<>();
     private Queue<DummyRecord> externalRecords;
@@ -189,6 +190,15 @@ public class DummyRecordSerde implements SerDe<DummyRecord> {
         return 1;
     }
 
+    @Override
+    public synchronized boolean isCurrentRecordStateRequired() {
+        return currentRecordStateRequired;
+    }
+
+    public synchronized void setCurrentRecordStateRequired(final boolean required) {
+        this.currentRecordStateRequired = required;
+    }
+
     public synchronized void setThrowIOEAfterNSerializeEdits(final int n) {
         this.throwIOEAfterNserializeEdits = n;
     }
@@ -122,6 +122,17 @@ public interface FlowFileQueue {
      */
     boolean isActiveQueueEmpty();
 
+    /**
+     * Registers a listener that is to be notified whenever FlowFiles are added to the queue while no FlowFile in the queue is available for processing,
+     * so that the component that pulls from the queue can be triggered without polling the queue. Only a single listener is supported, so registering
+     * a listener replaces any listener that was previously registered. The listener is invoked by the thread that added the FlowFiles, after they have
+     * been added, and must not block. The default implementation does nothing, in which case the queue must be polled to determine when it has data.
+     *
+     * @param listener the listener to notify, or <code>null</code> to remove the listener that is currently registered
+     */
+    default void setFlowFileAvailabilityListener(Runnable listener) {
+    }
+
     void acknowledge(FlowFileRecord flowFile);
 
     void acknowledge(Collection<FlowFileRecord> flowFiles);
@@ -80,6 +80,18 @@ public interface FlowFileSwapManager {
      */
     SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IncompleteSwapFileException, IOException;
 
+    /**
+     * Indicates that the swap file at the given location is likely to be swapped in soon, so that the Swap Manager may begin reading it
+     * in the background. A subsequent call to {@link #swapIn(String, FlowFileQueue)} for the same location may then use the contents that
+     * were already read rather than waiting on external storage. This method must not update the FlowFile Repository or remove the swap file.
+     * The default implementation does nothing.
+     *
+     * @param swapLocation the location of the swap file
+     * @param flowFileQueue the queue to which the FlowFiles belong
+     */
+    default void prefetch(String swapLocation, FlowFileQueue flowFileQueue) {
+    }
+
     /**
      * Determines swap files that exist for the given FlowFileQueue
      *
@@ -132,4 +144,11 @@ public interface FlowFileSwapManager {
      * @return the ID of the queue, or <code>null</code> if unknown
      */
     String getQueueIdentifier(String swapLocation);
+
+    /**
+     * Releases any resources, such as background threads, that are held by the Swap Manager. Called when the queue that uses the Swap Manager
+     * is removed or when NiFi is shutting down. Swap Files are not affected. The default implementation does nothing.
+     */
+    default void shutdown() {
+    }
 }
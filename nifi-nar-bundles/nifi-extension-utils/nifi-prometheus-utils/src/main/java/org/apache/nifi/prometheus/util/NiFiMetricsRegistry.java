@@ -230,5 +230,24 @@ public class NiFiMetricsRegistry extends AbstractMetricsRegistry {
                 .labelNames("instance", "component_type", "component_name", "component_id", "parent_id",
                         "source_id", "source_name", "destination_id", "destination_name")
                 .register(registry));
+
+        // Site-to-Site metrics
+        nameToGaugeMap.put("SITE_TO_SITE_ACTIVE_SESSIONS",  Gauge.build()
+                .name("nifi_site_to_site_active_sessions")
+                .help("The number of Site-to-Site connections that are currently being serviced")
+                .labelNames("instance")
+                .register(registry));
+
+        nameToGaugeMap.put("SITE_TO_SITE_QUEUED_SESSIONS",  Gauge.build()
+                .name("nifi_site_to_site_queued_sessions")
+                .help("The number of Site-to-Site connections that are waiting to be serviced")
+                .labelNames("instance")
+                .register(registry));
+
+        nameToGaugeMap.put("SITE_TO_SITE_REJECTED_SESSIONS",  Gauge.build()
+                .name("nifi_site_to_site_rejected_sessions")
+                .help("Running total number of Site-to-Site connections that were closed without being serviced")
+                .labelNames("instance")
+                .register(registry));
     }
 }
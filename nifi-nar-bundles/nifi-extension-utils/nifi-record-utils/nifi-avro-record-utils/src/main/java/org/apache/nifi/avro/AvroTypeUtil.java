@@ -60,9 +60,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.ColumnVector;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -633,6 +636,47 @@ public class AvroTypeUtil {
             rec.put(fieldName, converted);
         }
 
+        populateDefaultValues(rec, avroSchema);
+        return rec;
+    }
+
+    /**
+     * Populates the given Avro Record with the values of a row of the given batch, in the same way as {@link #createAvroRecord(Record, Schema)}
+     * does for a Record. Every field of the Avro Record is set, so the same Avro Record may be populated and written for each row of a batch.
+     *
+     * @param avroRecord the Avro Record to populate
+     * @param batch the batch that holds the values
+     * @param row the index of the row in the batch
+     */
+    public static void populateAvroRecord(final GenericRecord avroRecord, final RecordBatch batch, final int row) {
+        final Schema avroSchema = avroRecord.getSchema();
+        for (final Field field : avroSchema.getFields()) {
+            avroRecord.put(field.pos(), null);
+        }
+
+        for (int i = 0; i < batch.getColumnCount(); i++) {
+            final ColumnVector column = batch.getColumn(i);
+            if (column.isNull(row)) {
+                continue;
+            }
+
+            final RecordField recordField = column.getField();
+            Field field = avroSchema.getField(recordField.getFieldName());
+            if (field == null) {
+                field = lookupField(avroSchema, recordField).getRight();
+                if (field == null) {
+                    continue;
+                }
+            }
+
+            final Object converted = convertToAvroObject(column.getValue(row), field.schema(), field.name(), StandardCharsets.UTF_8);
+            avroRecord.put(field.pos(), converted);
+        }
+
+        populateDefaultValues(avroRecord, avroSchema);
+    }
+
+    private static void populateDefaultValues(final GenericRecord rec, final Schema avroSchema) {
         // see if the Avro schema has any fields that aren't in the RecordSchema, and if those fields have a default
         // value then we want to populate it in the GenericRecord being produced
         for (final Field field : avroSchema.getFields()) {
@@ -648,8 +692,6 @@ public class AvroTypeUtil {
                 rec.put(field.name(), normalized);
             }
         }
-
-        return rec;
     }
 
     /**
@@ -926,31 +968,66 @@ public class AvroTypeUtil {
         final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
 
         for (final RecordField recordField : recordSchema.getFields()) {
-            final String relevantFieldName = getMatchingFieldName(avroRecord, recordField);
-            final Object value = (relevantFieldName == null) ? null : avroRecord.get(relevantFieldName);
+            values.put(recordField.getFieldName(), convertAvroFieldValue(avroRecord, recordField, charset));
+        }
 
-            final String fieldName = recordField.getFieldName();
-            try {
-                final Field avroField = avroRecord.getSchema().getField(relevantFieldName);
-                if (avroField == null) {
-                    values.put(fieldName, null);
-                    continue;
-                }
+        return values;
+    }
+
+    /**
+     * Converts the given Avro Record into an {@link ArrayRecord}, populating the values by the position of each field in the Record Schema
+     * rather than by creating a Map of values as {@link #convertAvroRecordToMap(GenericRecord, RecordSchema)} does
+     *
+     * @param avroRecord the Avro Record to convert
+     * @param recordSchema the schema of the Record to create
+     * @return the Record
+     */
+    public static ArrayRecord convertAvroRecordToArrayRecord(final GenericRecord avroRecord, final RecordSchema recordSchema) {
+        final ArrayRecord.Builder builder = new ArrayRecord.Builder(recordSchema);
 
-                final Schema fieldSchema = avroField.schema();
-                final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
+        final List<RecordField> recordFields = recordSchema.getFields();
+        for (int i = 0; i < recordFields.size(); i++) {
+            builder.setValue(i, convertAvroFieldValue(avroRecord, recordFields.get(i), StandardCharsets.UTF_8));
+        }
 
-                final DataType desiredType = recordField.getDataType();
-                final Object coercedValue = DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
+        return builder.build();
+    }
 
-                values.put(fieldName, coercedValue);
-            } catch (Exception ex) {
-                logger.debug("fail to convert field " + fieldName, ex );
-                throw ex;
-            }
+    /**
+     * Adds a row to the given batch that holds the values of the given Avro Record for the fields of the batch's schema,
+     * converted in the same way as {@link #convertAvroRecordToMap(GenericRecord, RecordSchema)} does
+     *
+     * @param avroRecord the Avro Record to convert
+     * @param batch the batch to add the row to
+     */
+    public static void addAvroRecordToBatch(final GenericRecord avroRecord, final RecordBatch batch) {
+        final int row = batch.addRow();
+        for (int i = 0; i < batch.getColumnCount(); i++) {
+            final ColumnVector column = batch.getColumn(i);
+            column.setValue(row, convertAvroFieldValue(avroRecord, column.getField(), StandardCharsets.UTF_8));
         }
+    }
 
-        return values;
+    private static Object convertAvroFieldValue(final GenericRecord avroRecord, final RecordField recordField, final Charset charset) {
+        final String relevantFieldName = getMatchingFieldName(avroRecord, recordField);
+        final Object value = (relevantFieldName == null) ? null : avroRecord.get(relevantFieldName);
+
+        final String fieldName = recordField.getFieldName();
+        try {
+            final Field avroField = avroRecord.getSchema().getField(relevantFieldName);
+            if (avroField == null) {
+                return null;
+            }
+
+            final Schema fieldSchema = avroField.schema();
+            final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
+
+            final DataType desiredType = recordField.getDataType();
+            return DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
+        } catch (Exception ex) {
+            logger.debug("fail to convert field " + fieldName, ex );
+            throw ex;
+        }
     }
 
     /**
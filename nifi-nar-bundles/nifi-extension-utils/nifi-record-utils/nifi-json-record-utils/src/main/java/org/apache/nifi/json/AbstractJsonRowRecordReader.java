@@ -213,13 +213,8 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
 
     @Override
     public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) throws IOException, MalformedRecordException {
-        final JsonNode nextNode = getNextJsonNode();
+        final JsonNode nextNode = nextRecordNode();
         if (nextNode == null) {
-            if (captureFieldPredicate != null) {
-                while (jsonParser.nextToken() != null) {
-                    captureCurrentField(captureFieldPredicate);
-                }
-            }
             return null;
         }
 
@@ -234,6 +229,22 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
         }
     }
 
+    /**
+     * Returns the JSON Element for the next Record, capturing any remaining fields once there are no more Records
+     *
+     * @return the JSON Element for the next Record, or <code>null</code> if there are no more Records
+     */
+    protected JsonNode nextRecordNode() throws IOException, MalformedRecordException {
+        final JsonNode nextNode = getNextJsonNode();
+        if (nextNode == null && captureFieldPredicate != null) {
+            while (jsonParser.nextToken() != null) {
+                captureCurrentField(captureFieldPredicate);
+            }
+        }
+
+        return nextNode;
+    }
+
     protected Object getRawNodeValue(final JsonNode fieldNode, final String fieldName) throws IOException {
         return getRawNodeValue(fieldNode, null, fieldName);
     }
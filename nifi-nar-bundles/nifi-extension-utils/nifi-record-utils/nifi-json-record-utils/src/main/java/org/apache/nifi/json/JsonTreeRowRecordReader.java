@@ -22,10 +22,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordBatchReader;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.ColumnVector;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -48,9 +52,10 @@ import java.util.Queue;
 import java.util.function.BiPredicate;
 import java.util.function.Supplier;
 
-public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
+public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader implements RecordBatchReader {
 
     private final RecordSchema schema;
+    private final boolean arrayRecordsEnabled = ArrayRecord.isArrayRecordsEnabled();
 
     public JsonTreeRowRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema,
                                    final String dateFormat, final String timeFormat, final String timestampFormat)
@@ -155,6 +160,9 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
 
     private Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final String fieldNamePrefix,
                                            final boolean coerceTypes, final boolean dropUnknown) throws IOException, MalformedRecordException {
+        if (arrayRecordsEnabled) {
+            return convertJsonNodeToArrayRecord(jsonNode, schema, fieldNamePrefix, coerceTypes, dropUnknown);
+        }
 
         final Map<String, Object> values = new LinkedHashMap<>(schema.getFieldCount() * 2);
 
@@ -203,6 +211,109 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
         return new MapRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
     }
 
+    @Override
+    public int nextBatch(final RecordBatch batch) throws IOException, MalformedRecordException {
+        batch.clear();
+
+        JsonNode jsonNode;
+        while (!batch.isFull() && (jsonNode = nextRecordNode()) != null) {
+            final int row = batch.addRow();
+
+            try {
+                for (int i = 0; i < batch.getColumnCount(); i++) {
+                    final ColumnVector column = batch.getColumn(i);
+                    final RecordField recordField = column.getField();
+                    final JsonNode childNode = getChildNode(jsonNode, recordField);
+                    if (childNode != null) {
+                        column.setValue(row, convertField(childNode, recordField.getFieldName(), recordField.getDataType(), true));
+                    }
+                }
+            } catch (final MalformedRecordException mre) {
+                throw mre;
+            } catch (final Exception e) {
+                throw new MalformedRecordException("Successfully parsed a JSON object from input but failed to convert into a Record object with the given schema", e);
+            }
+        }
+
+        return batch.getRowCount();
+    }
+
+    private Record convertJsonNodeToArrayRecord(final JsonNode jsonNode, final RecordSchema schema, final String fieldNamePrefix,
+                                                final boolean coerceTypes, final boolean dropUnknown) throws IOException, MalformedRecordException {
+
+        final ArrayRecord.Builder builder = new ArrayRecord.Builder(schema);
+        final List<RecordField> recordFields = schema.getFields();
+
+        if (dropUnknown) {
+            for (int i = 0; i < recordFields.size(); i++) {
+                final RecordField recordField = recordFields.get(i);
+                final JsonNode childNode = getChildNode(jsonNode, recordField);
+                if (childNode == null) {
+                    continue;
+                }
+
+                builder.setValue(i, convertChildNode(childNode, recordField, recordField.getFieldName(), fieldNamePrefix, coerceTypes, dropUnknown));
+            }
+        } else {
+            final Iterator<String> fieldNames = jsonNode.fieldNames();
+            while (fieldNames.hasNext()) {
+                final String fieldName = fieldNames.next();
+                final JsonNode childNode = jsonNode.get(fieldName);
+
+                final int fieldIndex = builder.getFieldIndex(fieldName);
+                if (fieldIndex < 0) {
+                    builder.setUnknownValue(fieldName, convertChildNode(childNode, null, fieldName, fieldNamePrefix, coerceTypes, dropUnknown));
+                    continue;
+                }
+
+                // As with a MapRecord, when the JSON has values for more than one of the field's name and aliases, the first non-null one is used
+                final RecordField recordField = recordFields.get(fieldIndex);
+                if (!recordField.getAliases().isEmpty() && !fieldName.equals(getValueFieldName(jsonNode, recordField))) {
+                    continue;
+                }
+
+                builder.setValue(fieldIndex, convertChildNode(childNode, recordField, fieldName, fieldNamePrefix, coerceTypes, dropUnknown));
+            }
+        }
+
+        final Supplier<String> supplier = jsonNode::toString;
+        return builder.build(SerializedForm.of(supplier, "application/json"), false, dropUnknown);
+    }
+
+    private String getValueFieldName(final JsonNode jsonNode, final RecordField recordField) {
+        String firstPresentName = null;
+        if (jsonNode.has(recordField.getFieldName())) {
+            if (!jsonNode.get(recordField.getFieldName()).isNull()) {
+                return recordField.getFieldName();
+            }
+            firstPresentName = recordField.getFieldName();
+        }
+
+        for (final String alias : recordField.getAliases()) {
+            if (jsonNode.has(alias)) {
+                if (!jsonNode.get(alias).isNull()) {
+                    return alias;
+                }
+                if (firstPresentName == null) {
+                    firstPresentName = alias;
+                }
+            }
+        }
+
+        return firstPresentName;
+    }
+
+    private Object convertChildNode(final JsonNode childNode, final RecordField recordField, final String fieldName, final String fieldNamePrefix,
+                                    final boolean coerceTypes, final boolean dropUnknown) throws IOException, MalformedRecordException {
+        if (coerceTypes && recordField != null) {
+            final DataType desiredType = recordField.getDataType();
+            final String fullFieldName = fieldNamePrefix == null ? fieldName : fieldNamePrefix + fieldName;
+            return convertField(childNode, fullFieldName, desiredType, dropUnknown);
+        }
+
+        return getRawNodeValue(childNode, recordField == null ? null : recordField.getDataType(), fieldName);
+    }
+
 
     protected Object convertField(final JsonNode fieldNode, final String fieldName, final DataType desiredType, final boolean dropUnknown) throws IOException, MalformedRecordException {
         if (fieldNode == null || fieldNode.isNull()) {
@@ -25,11 +25,14 @@ import org.apache.nifi.NullSuppression;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.schema.access.SchemaAccessWriter;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
+import org.apache.nifi.serialization.RecordBatchWriter;
 import org.apache.nifi.serialization.RecordSetWriter;
 import org.apache.nifi.serialization.WriteResult;
+import org.apache.nifi.serialization.record.ColumnVector;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.RawRecordWriter;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -45,12 +48,13 @@ import java.io.OutputStream;
 import java.math.BigInteger;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 
-public class WriteJsonResult extends AbstractRecordSetWriter implements RecordSetWriter, RawRecordWriter {
+public class WriteJsonResult extends AbstractRecordSetWriter implements RecordSetWriter, RecordBatchWriter, RawRecordWriter {
     private final ComponentLog logger;
     private final SchemaAccessWriter schemaAccess;
     private final RecordSchema recordSchema;
@@ -61,6 +65,8 @@ public class WriteJsonResult extends AbstractRecordSetWriter implements RecordSe
     private final Supplier<DateFormat> LAZY_TIME_FORMAT;
     private final Supplier<DateFormat> LAZY_TIMESTAMP_FORMAT;
     private String mimeType = "application/json";
+    private RecordSchema batchSchema;
+    private int[] batchColumnIndices;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -165,6 +171,84 @@ public class WriteJsonResult extends AbstractRecordSetWriter implements RecordSe
         return WriteResult.of(incrementRecordCount(), attributes);
     }
 
+    @Override
+    public WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        // If we are not writing an active record set, then we need to ensure that we write the
+        // schema information.
+        if (!isActiveRecordSet()) {
+            generator.flush();
+            schemaAccess.writeHeader(recordSchema, getOutputStream());
+        }
+
+        final List<RecordField> fields = recordSchema.getFields();
+        final int[] columnIndices = getBatchColumnIndices(batch);
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            try {
+                generator.writeStartObject();
+
+                for (int i = 0; i < columnIndices.length; i++) {
+                    final RecordField field = fields.get(i);
+                    final ColumnVector column = columnIndices[i] < 0 ? null : batch.getColumn(columnIndices[i]);
+                    if (column == null || column.isNull(row)) {
+                        if (nullSuppression == NullSuppression.NEVER_SUPPRESS || (nullSuppression == NullSuppression.SUPPRESS_MISSING) && column != null && column.isPresent(row)) {
+                            generator.writeNullField(field.getFieldName());
+                        }
+
+                        continue;
+                    }
+
+                    generator.writeFieldName(field.getFieldName());
+                    writeColumnValue(generator, column, row, field);
+                }
+
+                generator.writeEndObject();
+            } catch (final Exception e) {
+                logger.error("Failed to write row {} of a Record Batch with schema {} and writer schema {} as a JSON Object due to {}", row, batch.getSchema(), recordSchema, e.toString(), e);
+                throw e;
+            }
+
+            incrementRecordCount();
+        }
+
+        return WriteResult.of(getRecordCount(), schemaAccess.getAttributes(recordSchema));
+    }
+
+    private int[] getBatchColumnIndices(final RecordBatch batch) {
+        if (batch.getSchema() != batchSchema) {
+            final List<RecordField> fields = recordSchema.getFields();
+            final int[] columnIndices = new int[fields.size()];
+            for (int i = 0; i < columnIndices.length; i++) {
+                columnIndices[i] = batch.getColumnIndex(fields.get(i));
+            }
+
+            batchColumnIndices = columnIndices;
+            batchSchema = batch.getSchema();
+        }
+
+        return batchColumnIndices;
+    }
+
+    private void writeColumnValue(final JsonGenerator generator, final ColumnVector column, final int row, final RecordField field) throws IOException {
+        // Values that are stored as primitives can be written without being boxed when the column has the same type as the field being written
+        final RecordFieldType fieldType = field.getDataType().getFieldType();
+        if (column.isPrimitive() && column.getField().getDataType().getFieldType() == fieldType) {
+            switch (fieldType) {
+                case INT:
+                case LONG:
+                    generator.writeNumber(column.getLong(row));
+                    return;
+                case DOUBLE:
+                    generator.writeNumber(column.getDouble(row));
+                    return;
+                case BOOLEAN:
+                    generator.writeBoolean(column.getBoolean(row));
+                    return;
+            }
+        }
+
+        writeValue(generator, column.getValue(row), field.getFieldName(), field.getDataType());
+    }
+
     private void writeRecord(final Record record, final RecordSchema writeSchema, final JsonGenerator generator,
         final GeneratorTask startTask, final GeneratorTask endTask, final boolean schemaAware) throws IOException {
 
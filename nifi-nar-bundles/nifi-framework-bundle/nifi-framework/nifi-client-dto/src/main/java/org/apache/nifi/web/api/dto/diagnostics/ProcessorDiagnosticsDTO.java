@@ -35,6 +35,7 @@ public class ProcessorDiagnosticsDTO {
     private JVMDiagnosticsDTO jvmDiagnostics;
     private List<ThreadDumpDTO> threadDumps;
     private ClassLoaderDiagnosticsDTO classLoaderDiagnostics;
+    private VirtualThreadDiagnosticsDTO virtualThreadDiagnostics;
 
 
     @ApiModelProperty("Information about the Processor for which the Diagnostic Report is generated")
@@ -108,4 +109,13 @@ public class ProcessorDiagnosticsDTO {
     public void setClassLoaderDiagnostics(ClassLoaderDiagnosticsDTO classLoaderDiagnostics) {
         this.classLoaderDiagnostics = classLoaderDiagnostics;
     }
+
+    @ApiModelProperty("Diagnostic Information about the virtual threads that run the Processor, if the Processor is run on virtual threads")
+    public VirtualThreadDiagnosticsDTO getVirtualThreadDiagnostics() {
+        return virtualThreadDiagnostics;
+    }
+
+    public void setVirtualThreadDiagnostics(VirtualThreadDiagnosticsDTO virtualThreadDiagnostics) {
+        this.virtualThreadDiagnostics = virtualThreadDiagnostics;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.web.api.dto.diagnostics;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import javax.xml.bind.annotation.XmlType;
+
+@XmlType(name = "virtualThreadDiagnostics")
+public class VirtualThreadDiagnosticsDTO {
+    private Boolean runOnVirtualThreads;
+    private Long pinnedEventCount;
+    private Long pinnedMillis;
+    private String lastPinnedStackTrace;
+
+    @ApiModelProperty("Whether or not the component is currently scheduled to run on virtual threads")
+    public Boolean getRunOnVirtualThreads() {
+        return runOnVirtualThreads;
+    }
+
+    public void setRunOnVirtualThreads(Boolean runOnVirtualThreads) {
+        this.runOnVirtualThreads = runOnVirtualThreads;
+    }
+
+    @ApiModelProperty("The number of times that a virtual thread running the component was pinned to its carrier thread while blocked")
+    public Long getPinnedEventCount() {
+        return pinnedEventCount;
+    }
+
+    public void setPinnedEventCount(Long pinnedEventCount) {
+        this.pinnedEventCount = pinnedEventCount;
+    }
+
+    @ApiModelProperty("The total number of milliseconds that virtual threads running the component spent pinned to their carrier threads while blocked")
+    public Long getPinnedMillis() {
+        return pinnedMillis;
+    }
+
+    public void setPinnedMillis(Long pinnedMillis) {
+        this.pinnedMillis = pinnedMillis;
+    }
+
+    @ApiModelProperty("The stack trace of the virtual thread at the time that it was most recently pinned to its carrier thread, if it has been pinned")
+    public String getLastPinnedStackTrace() {
+        return lastPinnedStackTrace;
+    }
+
+    public void setLastPinnedStackTrace(String lastPinnedStackTrace) {
+        this.lastPinnedStackTrace = lastPinnedStackTrace;
+    }
+}
@@ -26,7 +26,12 @@ public class EncryptedRepositoryRecordSerdeFactory extends StandardRepositoryRec
     private final NiFiProperties niFiProperties;
 
     public EncryptedRepositoryRecordSerdeFactory(final ResourceClaimManager claimManager, final NiFiProperties niFiProperties, final FieldCache fieldCache) {
-        super(claimManager, fieldCache);
+        this(claimManager, niFiProperties, fieldCache, null);
+    }
+
+    public EncryptedRepositoryRecordSerdeFactory(final ResourceClaimManager claimManager, final NiFiProperties niFiProperties, final FieldCache fieldCache,
+                                                 final AttributeKeyDictionary attributeKeyDictionary) {
+        super(claimManager, fieldCache, attributeKeyDictionary);
         this.niFiProperties = niFiProperties;
     }
 
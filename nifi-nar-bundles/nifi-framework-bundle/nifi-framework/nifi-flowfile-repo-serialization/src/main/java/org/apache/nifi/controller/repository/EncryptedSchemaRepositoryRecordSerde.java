@@ -162,6 +162,11 @@ public class EncryptedSchemaRepositoryRecordSerde implements SerDe<SerializedRep
         // throw new EOFException();
     }
 
+    @Override
+    public boolean isCurrentRecordStateRequired() {
+        return false;
+    }
+
     /**
      * Returns the deserialized and decrypted {@link RepositoryRecord} from the input stream.
      *
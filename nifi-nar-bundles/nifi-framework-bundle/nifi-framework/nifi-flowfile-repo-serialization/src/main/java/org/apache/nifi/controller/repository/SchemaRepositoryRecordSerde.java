@@ -51,12 +51,18 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
 
     private final ResourceClaimManager resourceClaimManager;
     private final FieldCache fieldCache;
+    private final AttributeKeyDictionary attributeKeyDictionary;
     private volatile SchemaRecordReader reader;
     private RecordIterator recordIterator = null;
 
     public SchemaRepositoryRecordSerde(final ResourceClaimManager resourceClaimManager, final FieldCache fieldCache) {
+        this(resourceClaimManager, fieldCache, null);
+    }
+
+    public SchemaRepositoryRecordSerde(final ResourceClaimManager resourceClaimManager, final FieldCache fieldCache, final AttributeKeyDictionary attributeKeyDictionary) {
         this.resourceClaimManager = resourceClaimManager;
         this.fieldCache = fieldCache;
+        this.attributeKeyDictionary = attributeKeyDictionary;
     }
 
     @Override
@@ -121,6 +127,12 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
         throw new EOFException();
     }
 
+    @Override
+    public boolean isCurrentRecordStateRequired() {
+        // Each record is written in its entirety, so edits do not need to be merged with the current state of the record
+        return false;
+    }
+
     @Override
     public SerializedRepositoryRecord deserializeRecord(final DataInputStream in, final int version) throws IOException {
         if (recordIterator != null) {
@@ -189,7 +201,7 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
 
     @SuppressWarnings("unchecked")
     private SerializedRepositoryRecord createRecord(final Record record, final RepositoryRecordType type, final String swapLocation) {
-        final StandardFlowFileRecord.Builder ffBuilder = new StandardFlowFileRecord.Builder();
+        final StandardFlowFileRecord.Builder ffBuilder = new StandardFlowFileRecord.Builder().attributeKeyDictionary(attributeKeyDictionary);
         ffBuilder.id((Long) record.getFieldValue(RepositoryRecordSchema.RECORD_ID));
         ffBuilder.entryDate((Long) record.getFieldValue(FlowFileSchema.ENTRY_DATE));
 
@@ -27,26 +27,37 @@ public class StandardRepositoryRecordSerdeFactory implements RepositoryRecordSer
     private static final String LEGACY_SERDE_ENCODING_NAME = "org.apache.nifi.controller.repository.WriteAheadFlowFileRepository$WriteAheadRecordSerde";
     private final ResourceClaimManager resourceClaimManager;
     private final FieldCache fieldCache;
+    private final AttributeKeyDictionary attributeKeyDictionary;
 
     public StandardRepositoryRecordSerdeFactory(final ResourceClaimManager claimManager) {
         this(claimManager, new NoOpFieldCache());
     }
 
     public StandardRepositoryRecordSerdeFactory(final ResourceClaimManager claimManager, final FieldCache fieldCache) {
+        this(claimManager, fieldCache, null);
+    }
+
+    /**
+     * @param claimManager the Resource Claim Manager
+     * @param fieldCache the cache of deserialized field values
+     * @param attributeKeyDictionary the dictionary that recovered FlowFiles use to share attribute keys, or <code>null</code> to hold attributes in a HashMap
+     */
+    public StandardRepositoryRecordSerdeFactory(final ResourceClaimManager claimManager, final FieldCache fieldCache, final AttributeKeyDictionary attributeKeyDictionary) {
         this.resourceClaimManager = claimManager;
         this.fieldCache = fieldCache;
+        this.attributeKeyDictionary = attributeKeyDictionary;
     }
 
     @Override
     public SerDe<SerializedRepositoryRecord> createSerDe(final String encodingName) {
         if (encodingName == null || SchemaRepositoryRecordSerde.class.getName().equals(encodingName)) {
-            final SchemaRepositoryRecordSerde serde = new SchemaRepositoryRecordSerde(resourceClaimManager, fieldCache);
+            final SchemaRepositoryRecordSerde serde = new SchemaRepositoryRecordSerde(resourceClaimManager, fieldCache, attributeKeyDictionary);
             return serde;
         }
 
         if (WriteAheadRepositoryRecordSerde.class.getName().equals(encodingName)
             || LEGACY_SERDE_ENCODING_NAME.equals(encodingName)) {
-            final WriteAheadRepositoryRecordSerde serde = new WriteAheadRepositoryRecordSerde(resourceClaimManager);
+            final WriteAheadRepositoryRecordSerde serde = new WriteAheadRepositoryRecordSerde(resourceClaimManager, attributeKeyDictionary);
             return serde;
         }
 
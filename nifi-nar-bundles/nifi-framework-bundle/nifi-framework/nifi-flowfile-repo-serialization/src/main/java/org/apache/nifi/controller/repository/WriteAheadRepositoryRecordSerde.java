@@ -50,9 +50,15 @@ public class WriteAheadRepositoryRecordSerde extends RepositoryRecordSerde imple
 
     private long recordsRestored = 0L;
     private final ResourceClaimManager claimManager;
+    private final AttributeKeyDictionary attributeKeyDictionary;
 
     public WriteAheadRepositoryRecordSerde(final ResourceClaimManager claimManager) {
+        this(claimManager, null);
+    }
+
+    public WriteAheadRepositoryRecordSerde(final ResourceClaimManager claimManager, final AttributeKeyDictionary attributeKeyDictionary) {
         this.claimManager = claimManager;
+        this.attributeKeyDictionary = attributeKeyDictionary;
     }
 
     @Override
@@ -250,7 +256,7 @@ public class WriteAheadRepositoryRecordSerde extends RepositoryRecordSerde imple
                 + attributesChanged + " after successfully restoring " + recordsRestored + " records. The FlowFile Repository appears to be corrupt!");
         }
 
-        final FlowFileRecord flowFile = ffBuilder.build();
+        final FlowFileRecord flowFile = ffBuilder.attributeKeyDictionary(attributeKeyDictionary).build();
         String swapLocation = null;
         if (action == ACTION_SWAPPED_IN) {
             swapLocation = in.readUTF();
@@ -357,7 +363,7 @@ public class WriteAheadRepositoryRecordSerde extends RepositoryRecordSerde imple
                 + attributesChanged + " after successfully restoring " + recordsRestored + " records");
         }
 
-        final FlowFileRecord flowFile = ffBuilder.build();
+        final FlowFileRecord flowFile = ffBuilder.attributeKeyDictionary(attributeKeyDictionary).build();
         String swapLocation = null;
         if (action == ACTION_SWAPPED_IN) {
             swapLocation = in.readUTF();
@@ -18,6 +18,7 @@
 package org.apache.nifi.cluster.coordination.heartbeat;
 
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
 
 /**
  * A HeartbeatMonitor is responsible for monitoring some remote resource for heartbeats from each
@@ -62,4 +63,15 @@ public interface HeartbeatMonitor {
      * @return the address that heartbeats should be sent to when this node is elected coordinator.
      */
     String getHeartbeatAddress();
+
+    /**
+     * Returns the status of the flow, merged across all connected nodes from the component status that the nodes
+     * include in their heartbeats
+     *
+     * @return the merged status of the root Process Group, which the caller is free to modify, or <code>null</code> if
+     *         this monitor is not the active monitor for the cluster or the status of any connected node is not known
+     */
+    default ProcessGroupStatus getClusterComponentStatus() {
+        return null;
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.nifi.cluster.protocol;
 
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext;
 import org.apache.nifi.cluster.protocol.message.ClusterWorkloadRequestMessage;
 import org.apache.nifi.cluster.protocol.message.ClusterWorkloadResponseMessage;
 import org.apache.nifi.cluster.protocol.message.CommsTimingDetails;
@@ -33,12 +34,19 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Deque;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
     private static final Logger logger = LoggerFactory.getLogger(AbstractNodeProtocolSender.class);
@@ -47,6 +55,15 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
     private final ProtocolMessageMarshaller<ProtocolMessage> marshaller;
     private final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller;
 
+    /**
+     * The time after which an idle persistent connection to the Cluster Coordinator is closed rather than reused, which is well within
+     * the time for which the Cluster Coordinator keeps an idle connection open
+     */
+    private static final long PERSISTENT_CONNECTION_MAX_IDLE_MILLIS = 30_000L;
+
+    private final Set<String> binaryProtocolAddresses = ConcurrentHashMap.newKeySet();
+    private final Map<String, Deque<PersistentConnection>> persistentConnections = new ConcurrentHashMap<>();
+
     public AbstractNodeProtocolSender(final SocketConfiguration socketConfiguration, final ProtocolContext<ProtocolMessage> protocolContext) {
         this.socketConfiguration = socketConfiguration;
         this.protocolContext = protocolContext;
@@ -174,6 +191,12 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
     }
 
     private ProtocolMessage sendProtocolMessage(final ProtocolMessage msg, final String hostname, final int port, final CommsTimingDetails timingDetails) {
+        final String address = hostname + ":" + port;
+        final boolean binaryRepresentation = protocolContext instanceof BinaryProtocolContext && BinaryProtocolContext.hasBinaryRepresentation(msg);
+        if (binaryRepresentation && binaryProtocolAddresses.contains(address)) {
+            return sendBinaryProtocolMessage((BinaryProtocolContext) protocolContext, msg, hostname, port, timingDetails);
+        }
+
         final long dnsLookupStart = System.currentTimeMillis();
         final InetSocketAddress socketAddress = new InetSocketAddress(hostname, port);
 
@@ -216,12 +239,141 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             timingDetails.setReceiveFirstByteMillis(receiveFullStart - receiveStart);
             timingDetails.setReceiveFullResponseMillis(receiveEnd - receiveStart);
 
+            if (binaryRepresentation) {
+                negotiateBinaryProtocol(address, in);
+            }
+
             return response;
         } catch (IOException e) {
             throw new ProtocolException("Failed to send message to Cluster Coordinator", e);
         }
     }
 
+    /**
+     * Reads the binary schema version that the recipient may have advertised after its XML heartbeat response, so that subsequent heartbeats
+     * to the recipient are sent using the binary representation over a persistent connection.
+     */
+    private void negotiateBinaryProtocol(final String address, final InputStream in) {
+        try {
+            if (BinaryProtocolContext.readAdvertisedSchemaVersion(in) > 0 && binaryProtocolAddresses.add(address)) {
+                logger.info("Cluster Coordinator at {} supports binary protocol messages; will send subsequent messages using binary protocol over a persistent connection", address);
+            }
+        } catch (final IOException e) {
+            logger.debug("Cluster Coordinator at {} did not advertise binary protocol support", address, e);
+        }
+    }
+
+    private ProtocolMessage sendBinaryProtocolMessage(final BinaryProtocolContext binaryProtocolContext, final ProtocolMessage msg, final String hostname, final int port,
+                                                      final CommsTimingDetails timingDetails) {
+        final String address = hostname + ":" + port;
+        final ProtocolMessageMarshaller<ProtocolMessage> binaryMarshaller = binaryProtocolContext.createBinaryMarshaller();
+
+        // A pooled connection may have been closed by the Cluster Coordinator since it was last used. If the connection fails before
+        // the request has been written, or is closed before any of the response has been read, the Cluster Coordinator did not receive
+        // the message, so it is sent once more over a new connection. Any other failure, such as a timeout while awaiting the response,
+        // may occur after the message was processed, so the message is not sent again.
+        PersistentConnection connection = pollPersistentConnection(address);
+        while (true) {
+            final boolean reused = connection != null;
+            final long dnsLookupStart = System.currentTimeMillis();
+            final long connectStart;
+            try {
+                if (connection == null) {
+                    final InetSocketAddress socketAddress = new InetSocketAddress(hostname, port);
+                    connectStart = System.currentTimeMillis();
+                    connection = new PersistentConnection(SocketUtils.createSocket(socketAddress, socketConfiguration));
+                } else {
+                    connectStart = dnsLookupStart;
+                }
+            } catch (final IOException e) {
+                throw new ProtocolException("Failed to send message to Cluster Coordinator", e);
+            }
+
+            boolean stale = true;
+            try {
+                final long sendStart = System.currentTimeMillis();
+                binaryMarshaller.marshal(msg, connection.out);
+
+                final long receiveStart = System.currentTimeMillis();
+                connection.in.mark(1);
+                try {
+                    if (connection.in.read() == -1) {
+                        throw new EOFException("Cluster Coordinator closed connection");
+                    }
+                } catch (final SocketTimeoutException e) {
+                    stale = false;
+                    throw e;
+                }
+                connection.in.reset();
+                stale = false;
+
+                final long receiveFullStart = System.currentTimeMillis();
+                final ProtocolMessage response = unmarshaller.unmarshal(connection.in);
+                final long receiveEnd = System.currentTimeMillis();
+
+                timingDetails.setDnsLookupMillis(connectStart - dnsLookupStart);
+                timingDetails.setConnectMillis(sendStart - connectStart);
+                timingDetails.setSendRequestMillis(receiveStart - sendStart);
+                timingDetails.setReceiveFirstByteMillis(receiveFullStart - receiveStart);
+                timingDetails.setReceiveFullResponseMillis(receiveEnd - receiveStart);
+
+                connection.lastUsed = receiveEnd;
+                persistentConnections.computeIfAbsent(address, key -> new ConcurrentLinkedDeque<>()).offerFirst(connection);
+                return response;
+            } catch (final IOException e) {
+                connection.close();
+                connection = null;
+
+                if (!reused) {
+                    // The Cluster Coordinator may no longer support binary messages, for instance if it was replaced by a node of an earlier version
+                    binaryProtocolAddresses.remove(address);
+                    throw new ProtocolException("Failed to send '" + msg.getType() + "' protocol message to Cluster Coordinator at " + address, e);
+                }
+
+                if (!stale) {
+                    throw new ProtocolException("Failed to receive response to '" + msg.getType() + "' protocol message from Cluster Coordinator at " + address, e);
+                }
+
+                logger.debug("Failed to send '{}' protocol message over persistent connection to {}; will retry over a new connection", msg.getType(), address, e);
+            }
+        }
+    }
+
+    private PersistentConnection pollPersistentConnection(final String address) {
+        final Deque<PersistentConnection> connections = persistentConnections.get(address);
+        if (connections == null) {
+            return null;
+        }
+
+        final long minLastUsed = System.currentTimeMillis() - PERSISTENT_CONNECTION_MAX_IDLE_MILLIS;
+        PersistentConnection connection;
+        while ((connection = connections.pollFirst()) != null) {
+            if (connection.lastUsed >= minLastUsed) {
+                return connection;
+            }
+
+            connection.close();
+        }
+
+        return null;
+    }
+
+    private static class PersistentConnection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private volatile long lastUsed;
+
+        private PersistentConnection(final Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private void close() {
+            SocketUtils.closeQuietly(socket);
+        }
+    }
 
     protected abstract InetSocketAddress getServiceAddress() throws IOException;
 }
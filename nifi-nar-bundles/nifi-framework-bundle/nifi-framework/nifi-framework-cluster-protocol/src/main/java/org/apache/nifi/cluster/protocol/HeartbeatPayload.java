@@ -57,6 +57,7 @@ public class HeartbeatPayload {
     private long systemStartTime;
     private List<NodeConnectionStatus> clusterStatus;
     private long revisionUpdateCount;
+    private byte[] componentStatus;
 
     public int getActiveThreadCount() {
         return activeThreadCount;
@@ -106,6 +107,18 @@ public class HeartbeatPayload {
         this.revisionUpdateCount = revisionUpdateCount;
     }
 
+    /**
+     * @return the status of the node's components, encoded by a {@link org.apache.nifi.cluster.protocol.status.StatusDeltaEncoder},
+     *         or <code>null</code> if the node does not include the status of its components in heartbeats
+     */
+    public byte[] getComponentStatus() {
+        return componentStatus;
+    }
+
+    public void setComponentStatus(final byte[] componentStatus) {
+        this.componentStatus = componentStatus;
+    }
+
     public byte[] marshal() throws ProtocolException {
         final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
         marshal(this, payloadBytes);
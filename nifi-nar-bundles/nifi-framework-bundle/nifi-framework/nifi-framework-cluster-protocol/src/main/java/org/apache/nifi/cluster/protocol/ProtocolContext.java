@@ -37,4 +37,26 @@ public interface ProtocolContext<T> {
      * @return a unmarshaller
      */
     ProtocolMessageUnmarshaller<T> createUnmarshaller();
+
+    /**
+     * Creates a marshaller for serializing the response to the request that was last read by the given unmarshaller.
+     * By default, responses are serialized in the same way as any other message.
+     *
+     * @param requestUnmarshaller the unmarshaller, created by this context, that read the request
+     * @return a marshaller
+     */
+    default ProtocolMessageMarshaller<T> createResponseMarshaller(ProtocolMessageUnmarshaller<T> requestUnmarshaller) {
+        return createMarshaller();
+    }
+
+    /**
+     * Indicates whether the connection over which the given unmarshaller last read a request may be kept open, once the
+     * response has been sent, so that the peer can send further requests over it.
+     *
+     * @param requestUnmarshaller the unmarshaller, created by this context, that read the request
+     * @return true if the connection may be kept open; false if it must be closed
+     */
+    default boolean isPersistentConnection(ProtocolMessageUnmarshaller<T> requestUnmarshaller) {
+        return false;
+    }
 }
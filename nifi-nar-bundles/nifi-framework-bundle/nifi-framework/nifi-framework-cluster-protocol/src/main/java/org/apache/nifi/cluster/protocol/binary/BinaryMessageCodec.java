@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.binary;
+
+import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.coordination.node.OffloadCode;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes the bodies of the protocol messages that have a binary representation. The fields mirror those
+ * that are marshalled through JAXB, so a message has the same content regardless of the representation used to send it.
+ */
+final class BinaryMessageCodec {
+
+    private static final int NULL_LENGTH = -1;
+
+    private BinaryMessageCodec() {
+    }
+
+    static void writeHeartbeat(final HeartbeatMessage message, final DataOutputStream out) throws IOException {
+        final Heartbeat heartbeat = message.getHeartbeat();
+        writeNodeIdentifier(heartbeat.getNodeIdentifier(), out);
+        writeNodeConnectionStatus(heartbeat.getConnectionStatus(), out);
+        writeBytes(heartbeat.getPayload(), out);
+    }
+
+    static HeartbeatMessage readHeartbeat(final DataInputStream in) throws IOException {
+        final NodeIdentifier nodeIdentifier = readNodeIdentifier(in);
+        final NodeConnectionStatus connectionStatus = readNodeConnectionStatus(in);
+        final byte[] payload = readBytes(in);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeIdentifier, connectionStatus, payload));
+        return message;
+    }
+
+    static void writeHeartbeatResponse(final HeartbeatResponseMessage message, final DataOutputStream out) throws IOException {
+        final List<NodeConnectionStatus> statuses = message.getUpdatedNodeStatuses();
+        out.writeInt(statuses.size());
+        for (final NodeConnectionStatus status : statuses) {
+            writeNodeConnectionStatus(status, out);
+        }
+        writeString(message.getFlowElectionMessage(), out);
+    }
+
+    static HeartbeatResponseMessage readHeartbeatResponse(final DataInputStream in) throws IOException {
+        final int statusCount = in.readInt();
+        final List<NodeConnectionStatus> statuses = new ArrayList<>(statusCount);
+        for (int i = 0; i < statusCount; i++) {
+            statuses.add(readNodeConnectionStatus(in));
+        }
+
+        final HeartbeatResponseMessage message = new HeartbeatResponseMessage();
+        message.setUpdatedNodeStatuses(statuses);
+        message.setFlowElectionMessage(readString(in));
+        return message;
+    }
+
+    private static void writeNodeIdentifier(final NodeIdentifier nodeIdentifier, final DataOutputStream out) throws IOException {
+        out.writeBoolean(nodeIdentifier != null);
+        if (nodeIdentifier == null) {
+            return;
+        }
+
+        writeString(nodeIdentifier.getId(), out);
+        writeString(nodeIdentifier.getApiAddress(), out);
+        out.writeInt(nodeIdentifier.getApiPort());
+        writeString(nodeIdentifier.getSocketAddress(), out);
+        out.writeInt(nodeIdentifier.getSocketPort());
+        writeString(nodeIdentifier.getLoadBalanceAddress(), out);
+        out.writeInt(nodeIdentifier.getLoadBalancePort());
+        writeString(nodeIdentifier.getSiteToSiteAddress(), out);
+        writeInteger(nodeIdentifier.getSiteToSitePort(), out);
+        writeInteger(nodeIdentifier.getSiteToSiteHttpApiPort(), out);
+        out.writeBoolean(nodeIdentifier.isSiteToSiteSecure());
+    }
+
+    private static NodeIdentifier readNodeIdentifier(final DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final String id = readString(in);
+        final String apiAddress = readString(in);
+        final int apiPort = in.readInt();
+        final String socketAddress = readString(in);
+        final int socketPort = in.readInt();
+        final String loadBalanceAddress = readString(in);
+        final int loadBalancePort = in.readInt();
+        final String siteToSiteAddress = readString(in);
+        final Integer siteToSitePort = readInteger(in);
+        final Integer siteToSiteHttpApiPort = readInteger(in);
+        final boolean siteToSiteSecure = in.readBoolean();
+
+        return new NodeIdentifier(id, apiAddress, apiPort, socketAddress, socketPort, loadBalanceAddress, loadBalancePort,
+                siteToSiteAddress, siteToSitePort, siteToSiteHttpApiPort, siteToSiteSecure);
+    }
+
+    private static void writeNodeConnectionStatus(final NodeConnectionStatus status, final DataOutputStream out) throws IOException {
+        out.writeBoolean(status != null);
+        if (status == null) {
+            return;
+        }
+
+        out.writeLong(status.getUpdateIdentifier());
+        writeNodeIdentifier(status.getNodeIdentifier(), out);
+        writeEnum(status.getState(), out);
+        writeEnum(status.getOffloadCode(), out);
+        writeEnum(status.getDisconnectCode(), out);
+        writeString(status.getReason(), out);
+
+        final Long connectionRequestTime = status.getConnectionRequestTime();
+        out.writeBoolean(connectionRequestTime != null);
+        if (connectionRequestTime != null) {
+            out.writeLong(connectionRequestTime);
+        }
+    }
+
+    private static NodeConnectionStatus readNodeConnectionStatus(final DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final long updateId = in.readLong();
+        final NodeIdentifier nodeIdentifier = readNodeIdentifier(in);
+        final NodeConnectionState state = readEnum(NodeConnectionState.class, in);
+        final OffloadCode offloadCode = readEnum(OffloadCode.class, in);
+        final DisconnectionCode disconnectionCode = readEnum(DisconnectionCode.class, in);
+        final String reason = readString(in);
+        final Long connectionRequestTime = in.readBoolean() ? in.readLong() : null;
+
+        return new NodeConnectionStatus(updateId, nodeIdentifier, state, offloadCode, disconnectionCode, reason, connectionRequestTime);
+    }
+
+    /**
+     * Enum values are written by name rather than by ordinal so that constants can be added or reordered between versions
+     */
+    private static void writeEnum(final Enum<?> value, final DataOutputStream out) throws IOException {
+        writeString(value == null ? null : value.name(), out);
+    }
+
+    private static <E extends Enum<E>> E readEnum(final Class<E> enumType, final DataInputStream in) throws IOException {
+        final String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Unknown " + enumType.getSimpleName() + " [" + name + "]", e);
+        }
+    }
+
+    private static void writeInteger(final Integer value, final DataOutputStream out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeString(final String value, final DataOutputStream out) throws IOException {
+        writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8), out);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(final byte[] bytes, final DataOutputStream out) throws IOException {
+        if (bytes == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        // message bodies are read fully before being decoded, so the available bytes are the remainder of the body
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Failed reading protocol message due to invalid field length " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
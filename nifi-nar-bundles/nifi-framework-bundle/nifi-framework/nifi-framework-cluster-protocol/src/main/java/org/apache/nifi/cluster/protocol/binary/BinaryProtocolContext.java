@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.binary;
+
+import org.apache.nifi.cluster.protocol.ProtocolContext;
+import org.apache.nifi.cluster.protocol.ProtocolMessageMarshaller;
+import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+
+import javax.xml.bind.JAXBContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Implements a context for communicating internally amongst the cluster using a compact, schema-versioned binary
+ * representation of heartbeats and heartbeat responses, which are by far the most frequently exchanged messages.
+ * <p>
+ * A binary message is framed as a sentinel, the schema version, a message code and the length of the message body.
+ * All other messages are marshalled as XML exactly as {@link JaxbProtocolContext} does, so they are never copied into
+ * a binary frame.
+ * </p>
+ * <p>
+ * Nodes that run an earlier version only understand XML, so this context remains compatible with them:
+ * {@link #createMarshaller()} marshals XML, the unmarshallers accept both XML and binary messages, and the response to a
+ * request is marshalled in the representation of the request. After an XML heartbeat response, and only then, the version
+ * of the binary schema is advertised, which a peer can read using {@link #readAdvertisedSchemaVersion(InputStream)} in order
+ * to switch to the binary representation, and to a persistent connection, for its subsequent heartbeats.
+ * </p>
+ */
+public class BinaryProtocolContext implements ProtocolContext<ProtocolMessage> {
+
+    /**
+     * The current version of the binary schema. Peers decode messages of this version or any earlier version.
+     */
+    public static final int SCHEMA_VERSION = 1;
+
+    // JaxbProtocolContext starts each message with 0x5A; a different sentinel distinguishes binary messages
+    private static final int XML_MESSAGE_START_SENTINEL = 0x5A;
+    private static final int BINARY_MESSAGE_START_SENTINEL = 0x5B;
+
+    private static final int HEARTBEAT_MESSAGE_CODE = 1;
+    private static final int HEARTBEAT_RESPONSE_MESSAGE_CODE = 2;
+
+    private final JaxbProtocolContext<ProtocolMessage> xmlProtocolContext;
+
+    public BinaryProtocolContext(final JAXBContext jaxbContext) {
+        this.xmlProtocolContext = new JaxbProtocolContext<>(jaxbContext);
+    }
+
+    /**
+     * Creates a marshaller that serializes messages as XML, which every node understands. Use {@link #createBinaryMarshaller()}
+     * for peers that are known to understand the binary representation.
+     *
+     * @return a marshaller
+     */
+    @Override
+    public ProtocolMessageMarshaller<ProtocolMessage> createMarshaller() {
+        return xmlProtocolContext.createMarshaller();
+    }
+
+    /**
+     * Creates a marshaller that serializes heartbeats and heartbeat responses using the binary representation, and any other
+     * message as XML.
+     *
+     * @return a marshaller
+     */
+    public ProtocolMessageMarshaller<ProtocolMessage> createBinaryMarshaller() {
+        final ProtocolMessageMarshaller<ProtocolMessage> xmlMarshaller = xmlProtocolContext.createMarshaller();
+
+        return (msg, os) -> {
+            if (!hasBinaryRepresentation(msg)) {
+                xmlMarshaller.marshal(msg, os);
+                return;
+            }
+
+            // Heartbeats are small, so the body is buffered in order to write its length ahead of it
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final DataOutputStream bodyOut = new DataOutputStream(body);
+            final int messageCode;
+            if (msg instanceof HeartbeatMessage heartbeatMessage) {
+                messageCode = HEARTBEAT_MESSAGE_CODE;
+                BinaryMessageCodec.writeHeartbeat(heartbeatMessage, bodyOut);
+            } else {
+                messageCode = HEARTBEAT_RESPONSE_MESSAGE_CODE;
+                BinaryMessageCodec.writeHeartbeatResponse((HeartbeatResponseMessage) msg, bodyOut);
+            }
+            bodyOut.flush();
+
+            final DataOutputStream dos = new DataOutputStream(os);
+            dos.write(BINARY_MESSAGE_START_SENTINEL);
+            dos.write(SCHEMA_VERSION);
+            dos.write(messageCode);
+            dos.writeInt(body.size());
+            body.writeTo(dos);
+            dos.flush();
+        };
+    }
+
+    /**
+     * Creates an unmarshaller that deserializes messages in either representation, remembering the representation of the last message read.
+     *
+     * @return an unmarshaller
+     */
+    @Override
+    public ProtocolMessageUnmarshaller<ProtocolMessage> createUnmarshaller() {
+        return new NegotiatingUnmarshaller(xmlProtocolContext.createUnmarshaller());
+    }
+
+    @Override
+    public ProtocolMessageMarshaller<ProtocolMessage> createResponseMarshaller(final ProtocolMessageUnmarshaller<ProtocolMessage> requestUnmarshaller) {
+        if (isPersistentConnection(requestUnmarshaller)) {
+            return createBinaryMarshaller();
+        }
+
+        final ProtocolMessageMarshaller<ProtocolMessage> xmlMarshaller = xmlProtocolContext.createMarshaller();
+        return (msg, os) -> {
+            xmlMarshaller.marshal(msg, os);
+
+            // Only heartbeats switch to the binary representation, so no other response carries the advertisement.
+            // Nodes of earlier versions close the connection once they have read the response, ignoring the advertisement.
+            if (msg instanceof HeartbeatResponseMessage) {
+                os.write(BINARY_MESSAGE_START_SENTINEL);
+                os.write(SCHEMA_VERSION);
+                os.flush();
+            }
+        };
+    }
+
+    /**
+     * Indicates whether the given message is marshalled using the binary representation by {@link #createBinaryMarshaller()}. Peers
+     * send other messages as XML, each over a connection of its own.
+     *
+     * @param msg the message
+     * @return <code>true</code> if the message is a heartbeat or a heartbeat response
+     */
+    public static boolean hasBinaryRepresentation(final ProtocolMessage msg) {
+        return msg instanceof HeartbeatMessage || msg instanceof HeartbeatResponseMessage;
+    }
+
+    @Override
+    public boolean isPersistentConnection(final ProtocolMessageUnmarshaller<ProtocolMessage> requestUnmarshaller) {
+        return requestUnmarshaller instanceof NegotiatingUnmarshaller negotiatingUnmarshaller && negotiatingUnmarshaller.isLastMessageBinary();
+    }
+
+    /**
+     * Reads the binary schema version that a peer advertises after an XML response. Peers of earlier versions close the connection after the
+     * response, so this method returns once the peer has either written the advertisement or closed the connection.
+     *
+     * @param in the stream from which the XML response was read
+     * @return the binary schema version that the peer supports, or 0 if the peer does not support binary messages
+     * @throws IOException if unable to read from the stream
+     */
+    public static int readAdvertisedSchemaVersion(final InputStream in) throws IOException {
+        if (in.read() != BINARY_MESSAGE_START_SENTINEL) {
+            return 0;
+        }
+
+        final int schemaVersion = in.read();
+        return Math.max(schemaVersion, 0);
+    }
+
+    private static class NegotiatingUnmarshaller implements ProtocolMessageUnmarshaller<ProtocolMessage> {
+        private final ProtocolMessageUnmarshaller<ProtocolMessage> xmlUnmarshaller;
+        private volatile boolean lastMessageBinary;
+
+        private NegotiatingUnmarshaller(final ProtocolMessageUnmarshaller<ProtocolMessage> xmlUnmarshaller) {
+            this.xmlUnmarshaller = xmlUnmarshaller;
+        }
+
+        boolean isLastMessageBinary() {
+            return lastMessageBinary;
+        }
+
+        @Override
+        public ProtocolMessage unmarshal(final InputStream is) throws IOException {
+            // Only the sentinel is read ahead, and it is pushed back for XML messages, so no bytes beyond the message are consumed
+            final PushbackInputStream in = new PushbackInputStream(is, 1);
+            final int sentinel = in.read();
+            if (sentinel == -1) {
+                throw new EOFException();
+            }
+
+            if (sentinel == XML_MESSAGE_START_SENTINEL) {
+                in.unread(sentinel);
+                lastMessageBinary = false;
+                return xmlUnmarshaller.unmarshal(in);
+            }
+
+            if (sentinel != BINARY_MESSAGE_START_SENTINEL) {
+                throw new IOException("Failed reading protocol message due to malformed header");
+            }
+
+            final DataInputStream dis = new DataInputStream(in);
+            final int schemaVersion = dis.readUnsignedByte();
+            if (schemaVersion < 1 || schemaVersion > SCHEMA_VERSION) {
+                throw new IOException("Failed reading protocol message due to unsupported schema version " + schemaVersion);
+            }
+
+            final int messageCode = dis.readUnsignedByte();
+            final int bodyLength = dis.readInt();
+            if (bodyLength < 0) {
+                throw new IOException("Failed reading protocol message due to invalid length " + bodyLength);
+            }
+
+            final byte[] body = new byte[bodyLength];
+            dis.readFully(body);
+            lastMessageBinary = true;
+
+            final DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+            return switch (messageCode) {
+                case HEARTBEAT_MESSAGE_CODE -> BinaryMessageCodec.readHeartbeat(bodyIn);
+                case HEARTBEAT_RESPONSE_MESSAGE_CODE -> BinaryMessageCodec.readHeartbeatResponse(bodyIn);
+                default -> throw new IOException("Failed reading protocol message due to unknown message code " + messageCode);
+            };
+        }
+    }
+}
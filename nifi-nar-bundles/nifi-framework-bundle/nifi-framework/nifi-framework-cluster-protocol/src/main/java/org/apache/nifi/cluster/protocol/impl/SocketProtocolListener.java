@@ -16,15 +16,18 @@
  */
 package org.apache.nifi.cluster.protocol.impl;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.security.cert.Certificate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
@@ -70,6 +73,14 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
     private static final int EXCEPTION_THRESHOLD_MILLIS = 10_000;
     private volatile long tlsErrorLastSeen = -1;
 
+    /**
+     * The time for which a persistent connection is kept open while waiting for the next request. Nodes stop reusing an
+     * idle connection well before this, so that the connection is not closed while a node is sending a request over it.
+     */
+    static final int PERSISTENT_CONNECTION_IDLE_TIMEOUT_MILLIS = 60_000;
+
+    private final Semaphore persistentConnectionPermits;
+
     public SocketProtocolListener(
             final int numThreads,
             final int port,
@@ -83,6 +94,7 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
         }
 
         this.protocolContext = protocolContext;
+        this.persistentConnectionPermits = new Semaphore(Math.max(1, numThreads / 2));
     }
 
     @Override
@@ -129,16 +141,61 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
 
     @Override
     public void dispatchRequest(final Socket socket) {
+        final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+        final InputStream socketIn;
+        try {
+            socketIn = new BufferedInputStream(socket.getInputStream());
+        } catch (final IOException e) {
+            logger.warn("Failed processing protocol message from {} due to {}", socket.getInetAddress(), e.toString(), e);
+            return;
+        }
+
+        if (!dispatchRequest(socket, socketIn, unmarshaller, false)) {
+            return;
+        }
+
+        // The peer may send further requests over the same connection. As it occupies a thread while idle, the number of
+        // persistent connections is limited so that threads remain available to serve requests over new connections.
+        if (!persistentConnectionPermits.tryAcquire()) {
+            logger.debug("Closing connection from {} after response because the maximum number of persistent connections is in use", socket.getInetAddress());
+            return;
+        }
+
+        try {
+            while (dispatchRequest(socket, socketIn, unmarshaller, true)) {
+                logger.trace("Waiting for next request over persistent connection from {}", socket.getInetAddress());
+            }
+        } finally {
+            persistentConnectionPermits.release();
+        }
+    }
+
+    /**
+     * Reads a request from the socket, dispatches it to the appropriate handler and writes the response.
+     *
+     * @param socket the socket over which the request is received
+     * @param socketIn the buffered input stream of the socket, which is retained for all requests received over the socket
+     * @param unmarshaller the unmarshaller for the requests received over the socket
+     * @param awaitingRequest whether the socket is a persistent connection that is waiting for the peer's next request, in which case
+     * the peer closing the connection or leaving it idle is expected
+     * @return true if the connection may be kept open for further requests, false otherwise
+     */
+    private boolean dispatchRequest(final Socket socket, final InputStream socketIn, final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller, final boolean awaitingRequest) {
         String hostname = null;
         try {
-            final StopWatch stopWatch = new StopWatch(true);
             hostname = socket.getInetAddress().getHostName();
+
+            if (awaitingRequest && !awaitRequest(socket, socketIn)) {
+                logger.debug("Closing persistent connection from {}", hostname);
+                return false;
+            }
+
+            final StopWatch stopWatch = new StopWatch(true);
             final String requestId = UUID.randomUUID().toString();
             logger.debug("Received request {} from {}", requestId, hostname);
 
             // unmarshall message
-            final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
-            final ByteCountingInputStream countingIn = new ByteCountingInputStream(socket.getInputStream());
+            final ByteCountingInputStream countingIn = new ByteCountingInputStream(socketIn);
             InputStream wrappedInStream = countingIn;
             if (logger.isDebugEnabled()) {
                 final int maxMsgBuffer = 1024 * 1024;   // don't buffer more than 1 MB of the message
@@ -180,7 +237,7 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
                         logger.debug("Sending response for request {}", requestId);
 
                         // marshal message to output stream
-                        final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+                        final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createResponseMarshaller(unmarshaller);
                         marshaller.marshal(response, socket.getOutputStream());
                     } catch (final IOException ioe) {
                         throw new ProtocolException("Failed marshalling protocol message in response to message type: " + request.getType() + " due to " + ioe, ioe);
@@ -193,6 +250,8 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
             final String from = nodeId == null ? hostname : nodeId.toString();
             logger.info("Finished processing request {} (type={}, length={} bytes) from {} in {}",
                     requestId, request.getType(), countingIn.getBytesRead(), from, stopWatch.getDuration());
+
+            return protocolContext.isPersistentConnection(unmarshaller);
         } catch (final IOException | ProtocolException e) {
             String msg = "Failed processing protocol message from " + hostname + " due to ";
             // Suppress repeated TLS errors
@@ -209,6 +268,34 @@ public class SocketProtocolListener extends SocketListener implements ProtocolLi
                 publishBulletinWarning(msg + e);
             }
         }
+
+        return false;
+    }
+
+    /**
+     * Waits for the first byte of the next request over a persistent connection, using the idle timeout for persistent connections
+     * rather than the configured socket timeout, which then applies again while the rest of the request is read.
+     *
+     * @return true if a request is available, false if the peer closed the connection or left it idle for too long
+     */
+    private boolean awaitRequest(final Socket socket, final InputStream socketIn) throws IOException {
+        final int socketTimeout = socket.getSoTimeout();
+        socket.setSoTimeout(PERSISTENT_CONNECTION_IDLE_TIMEOUT_MILLIS);
+        try {
+            socketIn.mark(1);
+            if (socketIn.read() == -1) {
+                return false;
+            }
+            socketIn.reset();
+        } catch (final SocketTimeoutException e) {
+            return false;
+        } finally {
+            if (!socket.isClosed()) {
+                socket.setSoTimeout(socketTimeout);
+            }
+        }
+
+        return true;
     }
 
     private boolean handleTlsError(String msg, Throwable e) {
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.spring;
+
+import org.apache.nifi.cluster.protocol.ProtocolContext;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.util.NiFiProperties;
+import org.springframework.beans.factory.FactoryBean;
+
+/**
+ * Factory bean for creating a singleton ProtocolContext instance. The binary protocol context is used unless it has been
+ * disabled through {@link NiFiProperties#CLUSTER_PROTOCOL_BINARY_ENABLED}, in which case every message is exchanged as XML.
+ */
+public class ProtocolContextFactoryBean implements FactoryBean<ProtocolContext<ProtocolMessage>> {
+
+    private ProtocolContext<ProtocolMessage> protocolContext;
+    private NiFiProperties properties;
+
+    @Override
+    public ProtocolContext<ProtocolMessage> getObject() {
+        if (protocolContext == null) {
+            if (properties.isClusterProtocolBinaryEnabled()) {
+                protocolContext = new BinaryProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+            } else {
+                protocolContext = new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT);
+            }
+        }
+        return protocolContext;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return ProtocolContext.class;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+
+    public void setProperties(NiFiProperties properties) {
+        this.properties = properties;
+    }
+}
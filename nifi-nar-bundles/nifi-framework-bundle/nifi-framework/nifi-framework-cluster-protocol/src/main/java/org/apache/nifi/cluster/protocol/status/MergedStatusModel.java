@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.status;
+
+import org.apache.nifi.cluster.protocol.status.StatusRecordCodec.DecodedRecord;
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.PortStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the status of a flow merged across the {@link NodeStatusModel}s of several nodes. The merged status of a
+ * component is computed from the status of that component on each node, using the same rules as
+ * {@link ProcessGroupStatus#merge(ProcessGroupStatus, ProcessGroupStatus)}, so when the status of some components changes on
+ * a node, only the merged status of those components is computed again, rather than the merged status of the entire flow.
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class MergedStatusModel {
+
+    private final List<NodeStatusModel> nodeStatusModels;
+    private final Map<String, MergedComponent> components = new HashMap<>();
+    private String rootGroupId;
+
+    /**
+     * @param nodeStatusModels the models of the nodes whose status is merged, in the order in which their status is merged
+     */
+    public MergedStatusModel(final List<NodeStatusModel> nodeStatusModels) {
+        this.nodeStatusModels = new ArrayList<>(nodeStatusModels);
+
+        final Set<String> componentIds = new HashSet<>();
+        for (final NodeStatusModel nodeStatusModel : nodeStatusModels) {
+            componentIds.addAll(nodeStatusModel.getComponentIds());
+        }
+        update(componentIds);
+    }
+
+    /**
+     * Computes the merged status of the given components again, from the status that each node's model currently holds
+     *
+     * @param componentIds the identifiers of the components whose status changed on some node, as collected by
+     *                     {@link NodeStatusModel#apply(byte[], Set)}
+     */
+    public void update(final Collection<String> componentIds) {
+        // Replace the merged status of each component before attaching it to its parent Process Group, so that the children of a
+        // Process Group can be attached regardless of the order in which the Process Group and its children are updated
+        final List<MergedComponent> updatedComponents = new ArrayList<>(componentIds.size());
+        for (final String componentId : componentIds) {
+            final MergedComponent previous = components.get(componentId);
+            if (previous != null) {
+                detach(previous);
+            }
+
+            final MergedComponent merged = merge(componentId);
+            if (merged == null) {
+                components.remove(componentId);
+                if (componentId.equals(rootGroupId)) {
+                    rootGroupId = null;
+                }
+                continue;
+            }
+
+            if (merged.status() instanceof ProcessGroupStatus groupStatus) {
+                adoptChildren(groupStatus, previous == null ? null : (ProcessGroupStatus) previous.status());
+                if (merged.parentGroupId() == null) {
+                    rootGroupId = componentId;
+                }
+            }
+
+            components.put(componentId, merged);
+            updatedComponents.add(merged);
+        }
+
+        updatedComponents.forEach(this::attach);
+    }
+
+    /**
+     * Creates the merged status of the flow. Each invocation creates new status objects, which the caller is free to modify.
+     *
+     * @return the merged status of the root Process Group, including all of its descendants, or <code>null</code> if no node holds the status of the root Process Group
+     */
+    public ProcessGroupStatus createProcessGroupStatus() {
+        final MergedComponent root = rootGroupId == null ? null : components.get(rootGroupId);
+        return root == null ? null : ((ProcessGroupStatus) root.status()).clone();
+    }
+
+    private MergedComponent merge(final String componentId) {
+        DecodedRecord first = null;
+        ProcessGroupStatus container = null;
+        for (final NodeStatusModel nodeStatusModel : nodeStatusModels) {
+            final DecodedRecord record = nodeStatusModel.getRecord(componentId);
+            if (record == null) {
+                continue;
+            }
+
+            if (first == null) {
+                first = record;
+                if (record.type() != StatusRecordCodec.PROCESS_GROUP) {
+                    container = createContainer(record);
+                }
+            } else if (first.type() == StatusRecordCodec.PROCESS_GROUP) {
+                // The decoded status of a Process Group holds no child statuses, so only the status of the Process Group itself is merged
+                ProcessGroupStatus.merge((ProcessGroupStatus) first.status(), (ProcessGroupStatus) record.status());
+            } else if (record.type() == first.type()) {
+                // The status of the component in the first container is updated in place
+                ProcessGroupStatus.merge(container, createContainer(record));
+            }
+        }
+
+        return first == null ? null : new MergedComponent(first.type(), first.parentGroupId(), first.status());
+    }
+
+    /**
+     * Creates a Process Group status that holds only the status of the given component, so that it can be merged using
+     * {@link ProcessGroupStatus#merge(ProcessGroupStatus, ProcessGroupStatus)}
+     */
+    private static ProcessGroupStatus createContainer(final DecodedRecord record) {
+        final ProcessGroupStatus container = new ProcessGroupStatus();
+        container.setInputCount(0);
+        container.setInputContentSize(0L);
+        container.setOutputCount(0);
+        container.setOutputContentSize(0L);
+        container.setQueuedCount(0);
+        container.setQueuedContentSize(0L);
+        container.setBytesRead(0L);
+        container.setBytesWritten(0L);
+        container.setActiveThreadCount(0);
+        container.setStatelessActiveThreadCount(0);
+        container.setTerminatedThreadCount(0);
+
+        final MergedComponent component = new MergedComponent(record.type(), record.parentGroupId(), record.status());
+        add(container, component);
+        return container;
+    }
+
+    private static void adoptChildren(final ProcessGroupStatus groupStatus, final ProcessGroupStatus previousGroupStatus) {
+        // Merging a Process Group status replaces its child statuses, so the children are always held in lists owned by this model
+        groupStatus.setProcessGroupStatus(previousGroupStatus == null ? new ArrayList<>() : previousGroupStatus.getProcessGroupStatus());
+        groupStatus.setProcessorStatus(previousGroupStatus == null ? new ArrayList<>() : previousGroupStatus.getProcessorStatus());
+        groupStatus.setConnectionStatus(previousGroupStatus == null ? new ArrayList<>() : previousGroupStatus.getConnectionStatus());
+        groupStatus.setInputPortStatus(previousGroupStatus == null ? new ArrayList<>() : previousGroupStatus.getInputPortStatus());
+        groupStatus.setOutputPortStatus(previousGroupStatus == null ? new ArrayList<>() : previousGroupStatus.getOutputPortStatus());
+        groupStatus.setRemoteProcessGroupStatus(previousGroupStatus == null ? new ArrayList<>() : previousGroupStatus.getRemoteProcessGroupStatus());
+    }
+
+    private void attach(final MergedComponent component) {
+        final MergedComponent parent = component.parentGroupId() == null ? null : components.get(component.parentGroupId());
+        if (parent != null) {
+            add((ProcessGroupStatus) parent.status(), component);
+        }
+    }
+
+    private void detach(final MergedComponent component) {
+        final MergedComponent parent = component.parentGroupId() == null ? null : components.get(component.parentGroupId());
+        if (parent != null) {
+            getChildren((ProcessGroupStatus) parent.status(), component.type()).removeIf(status -> status == component.status());
+        }
+    }
+
+    private static void add(final ProcessGroupStatus groupStatus, final MergedComponent component) {
+        switch (component.type()) {
+            case StatusRecordCodec.PROCESS_GROUP -> groupStatus.getProcessGroupStatus().add((ProcessGroupStatus) component.status());
+            case StatusRecordCodec.PROCESSOR -> groupStatus.getProcessorStatus().add((ProcessorStatus) component.status());
+            case StatusRecordCodec.CONNECTION -> groupStatus.getConnectionStatus().add((ConnectionStatus) component.status());
+            case StatusRecordCodec.INPUT_PORT -> groupStatus.getInputPortStatus().add((PortStatus) component.status());
+            case StatusRecordCodec.OUTPUT_PORT -> groupStatus.getOutputPortStatus().add((PortStatus) component.status());
+            case StatusRecordCodec.REMOTE_PROCESS_GROUP -> groupStatus.getRemoteProcessGroupStatus().add((RemoteProcessGroupStatus) component.status());
+            default -> {
+            }
+        }
+    }
+
+    private static Collection<?> getChildren(final ProcessGroupStatus groupStatus, final int type) {
+        return switch (type) {
+            case StatusRecordCodec.PROCESS_GROUP -> groupStatus.getProcessGroupStatus();
+            case StatusRecordCodec.PROCESSOR -> groupStatus.getProcessorStatus();
+            case StatusRecordCodec.CONNECTION -> groupStatus.getConnectionStatus();
+            case StatusRecordCodec.INPUT_PORT -> groupStatus.getInputPortStatus();
+            case StatusRecordCodec.OUTPUT_PORT -> groupStatus.getOutputPortStatus();
+            case StatusRecordCodec.REMOTE_PROCESS_GROUP -> groupStatus.getRemoteProcessGroupStatus();
+            default -> new ArrayList<>();
+        };
+    }
+
+    private record MergedComponent(int type, String parentGroupId, Object status) {
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.status;
+
+import org.apache.nifi.cluster.protocol.status.StatusRecordCodec.DecodedRecord;
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.PortStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Maintains the status of a single node's flow from the statuses that the node encodes using a {@link StatusDeltaEncoder}.
+ * A delta is applied only if it follows the last status that was applied; otherwise, the model is out of sync with the node
+ * until the node sends its next full snapshot.
+ */
+public class NodeStatusModel {
+
+    private final Map<String, byte[]> records = new LinkedHashMap<>();
+    private String rootGroupId;
+    private long sequenceNumber;
+    private boolean synced = false;
+
+    /**
+     * Applies the given encoded status
+     *
+     * @param encodedStatus the status encoded by the node's {@link StatusDeltaEncoder}
+     * @return <code>true</code> if the status was applied, <code>false</code> if the status was a delta that does not follow
+     *         the last status that was applied, in which case the model is out of sync until the next full snapshot is applied
+     * @throws IOException if the encoded status is malformed, in which case the model is out of sync until the next full snapshot is applied
+     */
+    public boolean apply(final byte[] encodedStatus) throws IOException {
+        return apply(encodedStatus, new HashSet<>());
+    }
+
+    /**
+     * Applies the given encoded status, collecting the identifiers of the components whose status changed
+     *
+     * @param encodedStatus the status encoded by the node's {@link StatusDeltaEncoder}
+     * @param changedIds the set to which the identifiers of the components whose status was added, updated or removed are added
+     * @return <code>true</code> if the status was applied, <code>false</code> if the status was a delta that does not follow
+     *         the last status that was applied, in which case the model is out of sync until the next full snapshot is applied
+     * @throws IOException if the encoded status is malformed, in which case the model is out of sync until the next full snapshot is applied
+     */
+    public synchronized boolean apply(final byte[] encodedStatus, final Set<String> changedIds) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(encodedStatus)))) {
+            final int formatVersion = in.readInt();
+            if (formatVersion != StatusDeltaEncoder.FORMAT_VERSION) {
+                synced = false;
+                throw new IOException("Unsupported component status format version " + formatVersion);
+            }
+
+            final long deltaSequenceNumber = in.readLong();
+            final long baseSequenceNumber = in.readLong();
+            final boolean fullSnapshot = baseSequenceNumber == StatusDeltaEncoder.FULL_SNAPSHOT_BASE_SEQUENCE_NUMBER;
+            if (!fullSnapshot && (!synced || baseSequenceNumber != sequenceNumber)) {
+                synced = false;
+                return false;
+            }
+
+            // Read the entire status before updating the model so that a malformed status does not leave it partially updated
+            final int changedCount = in.readInt();
+            final List<DecodedRecord> changedRecords = new ArrayList<>(changedCount);
+            final List<byte[]> changedBytes = new ArrayList<>(changedCount);
+            for (int i = 0; i < changedCount; i++) {
+                final byte[] record = new byte[in.readInt()];
+                in.readFully(record);
+                changedRecords.add(StatusRecordCodec.decode(record));
+                changedBytes.add(record);
+            }
+
+            final int removedCount = in.readInt();
+            final List<String> removedIds = new ArrayList<>(removedCount);
+            for (int i = 0; i < removedCount; i++) {
+                removedIds.add(in.readUTF());
+            }
+
+            if (fullSnapshot) {
+                // A full snapshot removes every component that it does not hold
+                final Set<String> snapshotIds = new HashSet<>();
+                changedRecords.forEach(record -> snapshotIds.add(record.id()));
+                for (final String id : records.keySet()) {
+                    if (!snapshotIds.contains(id)) {
+                        removedIds.add(id);
+                    }
+                }
+                rootGroupId = null;
+            }
+            for (int i = 0; i < changedCount; i++) {
+                final DecodedRecord record = changedRecords.get(i);
+                final byte[] previousBytes = records.put(record.id(), changedBytes.get(i));
+                if (!Arrays.equals(previousBytes, changedBytes.get(i))) {
+                    changedIds.add(record.id());
+                }
+                if (record.type() == StatusRecordCodec.PROCESS_GROUP && record.parentGroupId() == null) {
+                    rootGroupId = record.id();
+                }
+            }
+            for (final String removedId : removedIds) {
+                if (records.remove(removedId) != null) {
+                    changedIds.add(removedId);
+                }
+            }
+
+            sequenceNumber = deltaSequenceNumber;
+            synced = true;
+            return true;
+        } catch (final IOException e) {
+            synced = false;
+            throw e;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the last status received from the node was applied
+     */
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * @return the sequence number of the last status that was applied
+     */
+    public synchronized long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * @return the identifiers of all components whose status is held by the model
+     */
+    synchronized Set<String> getComponentIds() {
+        return new HashSet<>(records.keySet());
+    }
+
+    /**
+     * Decodes the status of the given component. Each invocation creates a new status object, which the caller is free to modify.
+     *
+     * @param id the identifier of the component
+     * @return the decoded status of the component, or <code>null</code> if the model holds no status for the component
+     */
+    synchronized DecodedRecord getRecord(final String id) {
+        final byte[] record = records.get(id);
+        return record == null ? null : decode(record);
+    }
+
+    /**
+     * Creates the status of the node's flow. Each invocation creates new status objects, which the caller is free to modify.
+     *
+     * @return the status of the node's root Process Group, including all of its descendants, or <code>null</code> if the model is not in sync with the node
+     */
+    public synchronized ProcessGroupStatus createProcessGroupStatus() {
+        if (!synced || rootGroupId == null) {
+            return null;
+        }
+
+        final List<DecodedRecord> decodedRecords = new ArrayList<>(records.size());
+        final Map<String, ProcessGroupStatus> groupStatuses = new HashMap<>();
+        for (final byte[] record : records.values()) {
+            final DecodedRecord decodedRecord = decode(record);
+            decodedRecords.add(decodedRecord);
+            if (decodedRecord.type() == StatusRecordCodec.PROCESS_GROUP) {
+                groupStatuses.put(decodedRecord.id(), (ProcessGroupStatus) decodedRecord.status());
+            }
+        }
+
+        for (final DecodedRecord record : decodedRecords) {
+            final ProcessGroupStatus parent = record.parentGroupId() == null ? null : groupStatuses.get(record.parentGroupId());
+            if (parent == null) {
+                continue;
+            }
+
+            switch (record.type()) {
+                case StatusRecordCodec.PROCESS_GROUP -> parent.getProcessGroupStatus().add((ProcessGroupStatus) record.status());
+                case StatusRecordCodec.PROCESSOR -> parent.getProcessorStatus().add((ProcessorStatus) record.status());
+                case StatusRecordCodec.CONNECTION -> parent.getConnectionStatus().add((ConnectionStatus) record.status());
+                case StatusRecordCodec.INPUT_PORT -> parent.getInputPortStatus().add((PortStatus) record.status());
+                case StatusRecordCodec.OUTPUT_PORT -> parent.getOutputPortStatus().add((PortStatus) record.status());
+                case StatusRecordCodec.REMOTE_PROCESS_GROUP -> parent.getRemoteProcessGroupStatus().add((RemoteProcessGroupStatus) record.status());
+                default -> {
+                }
+            }
+        }
+
+        return groupStatuses.get(rootGroupId);
+    }
+
+    private static DecodedRecord decode(final byte[] record) {
+        try {
+            return StatusRecordCodec.decode(record);
+        } catch (final IOException e) {
+            // records are decoded when they are applied, so this is not expected
+            throw new IllegalStateException("Failed to decode component status", e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.status;
+
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.PortStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodes the status of a node's flow for inclusion in its heartbeats. Rather than the full status of every component, each
+ * encoded status holds only the components whose status changed since the previous encoded status, along with the
+ * components that were removed, so that the Cluster Coordinator can maintain the status of the node's flow incrementally,
+ * using a {@link NodeStatusModel}.
+ * <p>
+ * Each encoded status is numbered, and a delta identifies the sequence number of the status that it applies to. A delta
+ * without any changes carries the sequence number of the status that it applies to, so that the sequence number changes
+ * only when the status does. A full snapshot of the status is encoded for the first status, after {@link #reset()} is
+ * called, which should be done whenever an encoded status may not have been received, and periodically thereafter, so
+ * that a Cluster Coordinator that missed a status, or that was newly elected, does not remain out of sync for long.
+ * </p>
+ */
+public class StatusDeltaEncoder {
+
+    static final int FORMAT_VERSION = 1;
+    static final long FULL_SNAPSHOT_BASE_SEQUENCE_NUMBER = -1L;
+
+    public static final int DEFAULT_FULL_SNAPSHOT_INTERVAL = 12;
+
+    private final int fullSnapshotInterval;
+
+    private Map<String, byte[]> previousRecords = new HashMap<>();
+    private long sequenceNumber = 0L;
+    private int deltasSinceFullSnapshot = 0;
+    private boolean fullSnapshotRequired = true;
+
+    public StatusDeltaEncoder() {
+        this(DEFAULT_FULL_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * @param fullSnapshotInterval the number of deltas to encode after each full snapshot before the next full snapshot is encoded
+     */
+    public StatusDeltaEncoder(final int fullSnapshotInterval) {
+        if (fullSnapshotInterval < 0) {
+            throw new IllegalArgumentException("Full snapshot interval cannot be negative");
+        }
+        this.fullSnapshotInterval = fullSnapshotInterval;
+    }
+
+    /**
+     * Encodes the given status of a node's flow, relative to the status that was last encoded
+     *
+     * @param rootGroupStatus the status of the root Process Group, including the status of all of its descendants
+     * @return the encoded status
+     */
+    public synchronized byte[] encode(final ProcessGroupStatus rootGroupStatus) {
+        final Map<String, byte[]> records = new HashMap<>(Math.max(16, previousRecords.size() * 4 / 3 + 1));
+        addRecords(rootGroupStatus, null, records);
+
+        final boolean fullSnapshot = fullSnapshotRequired || deltasSinceFullSnapshot >= fullSnapshotInterval;
+        final long baseSequenceNumber = fullSnapshot ? FULL_SNAPSHOT_BASE_SEQUENCE_NUMBER : sequenceNumber;
+
+        final List<byte[]> changedRecords = new ArrayList<>();
+        for (final Map.Entry<String, byte[]> entry : records.entrySet()) {
+            if (fullSnapshot || !Arrays.equals(entry.getValue(), previousRecords.get(entry.getKey()))) {
+                changedRecords.add(entry.getValue());
+            }
+        }
+
+        final List<String> removedIds = new ArrayList<>();
+        if (!fullSnapshot) {
+            for (final String previousId : previousRecords.keySet()) {
+                if (!records.containsKey(previousId)) {
+                    removedIds.add(previousId);
+                }
+            }
+        }
+
+        // A delta without changes leaves the status as it was, so it keeps the sequence number of the status that it follows
+        if (fullSnapshot || !changedRecords.isEmpty() || !removedIds.isEmpty()) {
+            sequenceNumber++;
+        }
+        final byte[] encoded = encode(sequenceNumber, baseSequenceNumber, changedRecords, removedIds);
+
+        previousRecords = records;
+        fullSnapshotRequired = false;
+        deltasSinceFullSnapshot = fullSnapshot ? 0 : deltasSinceFullSnapshot + 1;
+        return encoded;
+    }
+
+    /**
+     * Causes the next encoded status to be a full snapshot. This should be called when the last encoded status may not
+     * have been received by the Cluster Coordinator.
+     */
+    public synchronized void reset() {
+        fullSnapshotRequired = true;
+    }
+
+    private static byte[] encode(final long sequenceNumber, final long baseSequenceNumber, final List<byte[]> changedRecords, final List<String> removedIds) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sequenceNumber);
+            out.writeLong(baseSequenceNumber);
+
+            out.writeInt(changedRecords.size());
+            for (final byte[] record : changedRecords) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+
+            out.writeInt(removedIds.size());
+            for (final String removedId : removedIds) {
+                out.writeUTF(removedId);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to encode component status", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void addRecords(final ProcessGroupStatus groupStatus, final String parentGroupId, final Map<String, byte[]> records) {
+        final String groupId = groupStatus.getId();
+        records.put(groupId, StatusRecordCodec.encodeProcessGroup(groupStatus, parentGroupId));
+
+        for (final ProcessorStatus processorStatus : groupStatus.getProcessorStatus()) {
+            records.put(processorStatus.getId(), StatusRecordCodec.encodeProcessor(processorStatus, groupId));
+        }
+        for (final ConnectionStatus connectionStatus : groupStatus.getConnectionStatus()) {
+            records.put(connectionStatus.getId(), StatusRecordCodec.encodeConnection(connectionStatus, groupId));
+        }
+        for (final PortStatus portStatus : groupStatus.getInputPortStatus()) {
+            records.put(portStatus.getId(), StatusRecordCodec.encodePort(portStatus, true, groupId));
+        }
+        for (final PortStatus portStatus : groupStatus.getOutputPortStatus()) {
+            records.put(portStatus.getId(), StatusRecordCodec.encodePort(portStatus, false, groupId));
+        }
+        for (final RemoteProcessGroupStatus remoteGroupStatus : groupStatus.getRemoteProcessGroupStatus()) {
+            records.put(remoteGroupStatus.getId(), StatusRecordCodec.encodeRemoteProcessGroup(remoteGroupStatus, groupId));
+        }
+        for (final ProcessGroupStatus childGroupStatus : groupStatus.getProcessGroupStatus()) {
+            addRecords(childGroupStatus, groupId, records);
+        }
+    }
+}
@@ -0,0 +1,524 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.status;
+
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.FlowFileAvailability;
+import org.apache.nifi.controller.status.LoadBalanceStatus;
+import org.apache.nifi.controller.status.PortStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+import org.apache.nifi.controller.status.RunStatus;
+import org.apache.nifi.controller.status.TransmissionStatus;
+import org.apache.nifi.controller.status.analytics.ConnectionStatusPredictions;
+import org.apache.nifi.registry.flow.VersionedFlowState;
+import org.apache.nifi.scheduling.ExecutionNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializes the status of a single component, without the status of any child components, into a record. Each record
+ * starts with the type of the component, its identifier and the identifier of its parent Process Group, so that the
+ * records of a flow can be compared individually and reassembled into a tree of statuses.
+ */
+final class StatusRecordCodec {
+
+    static final int PROCESS_GROUP = 1;
+    static final int PROCESSOR = 2;
+    static final int CONNECTION = 3;
+    static final int INPUT_PORT = 4;
+    static final int OUTPUT_PORT = 5;
+    static final int REMOTE_PROCESS_GROUP = 6;
+
+    private StatusRecordCodec() {
+    }
+
+    static byte[] encodeProcessGroup(final ProcessGroupStatus status, final String parentGroupId) {
+        final RecordWriter writer = new RecordWriter(PROCESS_GROUP, status.getId(), parentGroupId);
+        writer.writeString(status.getName());
+        writer.writeEnum(status.getVersionedFlowState());
+        writer.writeInteger(status.getInputCount());
+        writer.writeLongObject(status.getInputContentSize());
+        writer.writeInteger(status.getOutputCount());
+        writer.writeLongObject(status.getOutputContentSize());
+        writer.writeInteger(status.getActiveThreadCount());
+        writer.writeInteger(status.getStatelessActiveThreadCount());
+        writer.writeInteger(status.getTerminatedThreadCount());
+        writer.writeInteger(status.getQueuedCount());
+        writer.writeLongObject(status.getQueuedContentSize());
+        writer.writeLongObject(status.getBytesRead());
+        writer.writeLongObject(status.getBytesWritten());
+        writer.writeInt(status.getFlowFilesReceived());
+        writer.writeLong(status.getBytesReceived());
+        writer.writeInt(status.getFlowFilesSent());
+        writer.writeLong(status.getBytesSent());
+        writer.writeInt(status.getFlowFilesTransferred());
+        writer.writeLong(status.getBytesTransferred());
+        writer.writeLong(status.getProcessingNanos());
+        return writer.toByteArray();
+    }
+
+    static byte[] encodeProcessor(final ProcessorStatus status, final String parentGroupId) {
+        final RecordWriter writer = new RecordWriter(PROCESSOR, status.getId(), parentGroupId);
+        writer.writeString(status.getGroupId());
+        writer.writeString(status.getName());
+        writer.writeString(status.getType());
+        writer.writeEnum(status.getRunStatus());
+        writer.writeEnum(status.getExecutionNode());
+        writer.writeInt(status.getInputCount());
+        writer.writeLong(status.getInputBytes());
+        writer.writeInt(status.getOutputCount());
+        writer.writeLong(status.getOutputBytes());
+        writer.writeLong(status.getBytesRead());
+        writer.writeLong(status.getBytesWritten());
+        writer.writeInt(status.getInvocations());
+        writer.writeLong(status.getProcessingNanos());
+        writer.writeInt(status.getFlowFilesRemoved());
+        writer.writeLong(status.getAverageLineageDuration());
+        writer.writeInt(status.getActiveThreadCount());
+        writer.writeInt(status.getTerminatedThreadCount());
+        writer.writeInt(status.getFlowFilesReceived());
+        writer.writeLong(status.getBytesReceived());
+        writer.writeInt(status.getFlowFilesSent());
+        writer.writeLong(status.getBytesSent());
+        writer.writeCounters(status.getCounters());
+        return writer.toByteArray();
+    }
+
+    static byte[] encodeConnection(final ConnectionStatus status, final String parentGroupId) {
+        final RecordWriter writer = new RecordWriter(CONNECTION, status.getId(), parentGroupId);
+        writer.writeString(status.getGroupId());
+        writer.writeString(status.getName());
+        writer.writeString(status.getSourceId());
+        writer.writeString(status.getSourceName());
+        writer.writeString(status.getDestinationId());
+        writer.writeString(status.getDestinationName());
+        writer.writeString(status.getBackPressureDataSizeThreshold());
+        writer.writeLong(status.getBackPressureBytesThreshold());
+        writer.writeLong(status.getBackPressureObjectThreshold());
+        writer.writeInt(status.getInputCount());
+        writer.writeLong(status.getInputBytes());
+        writer.writeInt(status.getQueuedCount());
+        writer.writeLong(status.getQueuedBytes());
+        writer.writeInt(status.getOutputCount());
+        writer.writeLong(status.getOutputBytes());
+        writer.writeInt(status.getMaxQueuedCount());
+        writer.writeLong(status.getMaxQueuedBytes());
+        writer.writeLong(status.getTotalQueuedDuration());
+        writer.writeLong(status.getMaxQueuedDuration());
+        writer.writeEnum(status.getFlowFileAvailability());
+        writer.writeEnum(status.getLoadBalanceStatus());
+
+        final ConnectionStatusPredictions predictions = status.getPredictions();
+        writer.writeBoolean(predictions != null);
+        if (predictions != null) {
+            writer.writeLong(predictions.getPredictionIntervalMillis());
+            writer.writeInt(predictions.getNextPredictedQueuedCount());
+            writer.writeLong(predictions.getNextPredictedQueuedBytes());
+            writer.writeLong(predictions.getPredictedTimeToCountBackpressureMillis());
+            writer.writeLong(predictions.getPredictedTimeToBytesBackpressureMillis());
+            writer.writeInt(predictions.getPredictedPercentCount());
+            writer.writeInt(predictions.getPredictedPercentBytes());
+        }
+        return writer.toByteArray();
+    }
+
+    static byte[] encodePort(final PortStatus status, final boolean inputPort, final String parentGroupId) {
+        final RecordWriter writer = new RecordWriter(inputPort ? INPUT_PORT : OUTPUT_PORT, status.getId(), parentGroupId);
+        writer.writeString(status.getGroupId());
+        writer.writeString(status.getName());
+        writer.writeInteger(status.getActiveThreadCount());
+        writer.writeInt(status.getInputCount());
+        writer.writeLong(status.getInputBytes());
+        writer.writeInt(status.getOutputCount());
+        writer.writeLong(status.getOutputBytes());
+        writer.writeInt(status.getFlowFilesReceived());
+        writer.writeLong(status.getBytesReceived());
+        writer.writeInt(status.getFlowFilesSent());
+        writer.writeLong(status.getBytesSent());
+        writer.writeBooleanObject(status.getTransmitting());
+        writer.writeEnum(status.getRunStatus());
+        return writer.toByteArray();
+    }
+
+    static byte[] encodeRemoteProcessGroup(final RemoteProcessGroupStatus status, final String parentGroupId) {
+        final RecordWriter writer = new RecordWriter(REMOTE_PROCESS_GROUP, status.getId(), parentGroupId);
+        writer.writeString(status.getGroupId());
+        writer.writeEnum(status.getTransmissionStatus());
+        writer.writeString(status.getTargetUri());
+        writer.writeString(status.getName());
+        writer.writeString(status.getComments());
+        writer.writeString(status.getAuthorizationIssue());
+        final Date lastRefreshTime = status.getLastRefreshTime();
+        writer.writeLongObject(lastRefreshTime == null ? null : lastRefreshTime.getTime());
+        writer.writeInteger(status.getActiveThreadCount());
+        writer.writeInteger(status.getSentCount());
+        writer.writeLongObject(status.getSentContentSize());
+        writer.writeInteger(status.getReceivedCount());
+        writer.writeLongObject(status.getReceivedContentSize());
+        writer.writeInteger(status.getActiveRemotePortCount());
+        writer.writeInteger(status.getInactiveRemotePortCount());
+        writer.writeLong(status.getAverageLineageDuration());
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a record that was created by one of the encode methods
+     *
+     * @param record the record
+     * @return the decoded record
+     * @throws IOException if the record is malformed
+     */
+    static DecodedRecord decode(final byte[] record) throws IOException {
+        final RecordReader reader = new RecordReader(record);
+        final int type = reader.readByte();
+        final String id = reader.readString();
+        final String parentGroupId = reader.readString();
+
+        final Object status = switch (type) {
+            case PROCESS_GROUP -> decodeProcessGroup(reader, id);
+            case PROCESSOR -> decodeProcessor(reader, id);
+            case CONNECTION -> decodeConnection(reader, id);
+            case INPUT_PORT, OUTPUT_PORT -> decodePort(reader, id);
+            case REMOTE_PROCESS_GROUP -> decodeRemoteProcessGroup(reader, id);
+            default -> throw new IOException("Unknown component status record type " + type);
+        };
+
+        return new DecodedRecord(type, id, parentGroupId, status);
+    }
+
+    private static ProcessGroupStatus decodeProcessGroup(final RecordReader reader, final String id) throws IOException {
+        final ProcessGroupStatus status = new ProcessGroupStatus();
+        status.setId(id);
+        status.setName(reader.readString());
+        status.setVersionedFlowState(reader.readEnum(VersionedFlowState.class));
+        status.setInputCount(reader.readInteger());
+        status.setInputContentSize(reader.readLongObject());
+        status.setOutputCount(reader.readInteger());
+        status.setOutputContentSize(reader.readLongObject());
+        status.setActiveThreadCount(reader.readInteger());
+        status.setStatelessActiveThreadCount(reader.readInteger());
+        status.setTerminatedThreadCount(reader.readInteger());
+        status.setQueuedCount(reader.readInteger());
+        status.setQueuedContentSize(reader.readLongObject());
+        status.setBytesRead(reader.readLongObject());
+        status.setBytesWritten(reader.readLongObject());
+        status.setFlowFilesReceived(reader.readInt());
+        status.setBytesReceived(reader.readLong());
+        status.setFlowFilesSent(reader.readInt());
+        status.setBytesSent(reader.readLong());
+        status.setFlowFilesTransferred(reader.readInt());
+        status.setBytesTransferred(reader.readLong());
+        status.setProcessingNanos(reader.readLong());
+        return status;
+    }
+
+    private static ProcessorStatus decodeProcessor(final RecordReader reader, final String id) throws IOException {
+        final ProcessorStatus status = new ProcessorStatus();
+        status.setId(id);
+        status.setGroupId(reader.readString());
+        status.setName(reader.readString());
+        status.setType(reader.readString());
+        status.setRunStatus(reader.readEnum(RunStatus.class));
+        status.setExecutionNode(reader.readEnum(ExecutionNode.class));
+        status.setInputCount(reader.readInt());
+        status.setInputBytes(reader.readLong());
+        status.setOutputCount(reader.readInt());
+        status.setOutputBytes(reader.readLong());
+        status.setBytesRead(reader.readLong());
+        status.setBytesWritten(reader.readLong());
+        status.setInvocations(reader.readInt());
+        status.setProcessingNanos(reader.readLong());
+        status.setFlowFilesRemoved(reader.readInt());
+        status.setAverageLineageDuration(reader.readLong());
+        status.setActiveThreadCount(reader.readInt());
+        status.setTerminatedThreadCount(reader.readInt());
+        status.setFlowFilesReceived(reader.readInt());
+        status.setBytesReceived(reader.readLong());
+        status.setFlowFilesSent(reader.readInt());
+        status.setBytesSent(reader.readLong());
+        status.setCounters(reader.readCounters());
+        return status;
+    }
+
+    private static ConnectionStatus decodeConnection(final RecordReader reader, final String id) throws IOException {
+        final ConnectionStatus status = new ConnectionStatus();
+        status.setId(id);
+        status.setGroupId(reader.readString());
+        status.setName(reader.readString());
+        status.setSourceId(reader.readString());
+        status.setSourceName(reader.readString());
+        status.setDestinationId(reader.readString());
+        status.setDestinationName(reader.readString());
+        final String backPressureDataSizeThreshold = reader.readString();
+        if (backPressureDataSizeThreshold != null) {
+            // the threshold in bytes, which this also sets, is set afterward
+            status.setBackPressureDataSizeThreshold(backPressureDataSizeThreshold);
+        }
+        status.setBackPressureBytesThreshold(reader.readLong());
+        status.setBackPressureObjectThreshold(reader.readLong());
+        status.setInputCount(reader.readInt());
+        status.setInputBytes(reader.readLong());
+        status.setQueuedCount(reader.readInt());
+        status.setQueuedBytes(reader.readLong());
+        status.setOutputCount(reader.readInt());
+        status.setOutputBytes(reader.readLong());
+        status.setMaxQueuedCount(reader.readInt());
+        status.setMaxQueuedBytes(reader.readLong());
+        status.setTotalQueuedDuration(reader.readLong());
+        status.setMaxQueuedDuration(reader.readLong());
+        status.setFlowFileAvailability(reader.readEnum(FlowFileAvailability.class));
+        status.setLoadBalanceStatus(reader.readEnum(LoadBalanceStatus.class));
+
+        if (reader.readBoolean()) {
+            final ConnectionStatusPredictions predictions = new ConnectionStatusPredictions();
+            predictions.setPredictionIntervalMillis(reader.readLong());
+            predictions.setNextPredictedQueuedCount(reader.readInt());
+            predictions.setNextPredictedQueuedBytes(reader.readLong());
+            predictions.setPredictedTimeToCountBackpressureMillis(reader.readLong());
+            predictions.setPredictedTimeToBytesBackpressureMillis(reader.readLong());
+            predictions.setPredictedPercentCount(reader.readInt());
+            predictions.setPredictedPercentBytes(reader.readInt());
+            status.setPredictions(predictions);
+        }
+        return status;
+    }
+
+    private static PortStatus decodePort(final RecordReader reader, final String id) throws IOException {
+        final PortStatus status = new PortStatus();
+        status.setId(id);
+        status.setGroupId(reader.readString());
+        status.setName(reader.readString());
+        status.setActiveThreadCount(reader.readInteger());
+        status.setInputCount(reader.readInt());
+        status.setInputBytes(reader.readLong());
+        status.setOutputCount(reader.readInt());
+        status.setOutputBytes(reader.readLong());
+        status.setFlowFilesReceived(reader.readInt());
+        status.setBytesReceived(reader.readLong());
+        status.setFlowFilesSent(reader.readInt());
+        status.setBytesSent(reader.readLong());
+        status.setTransmitting(reader.readBooleanObject());
+        status.setRunStatus(reader.readEnum(RunStatus.class));
+        return status;
+    }
+
+    private static RemoteProcessGroupStatus decodeRemoteProcessGroup(final RecordReader reader, final String id) throws IOException {
+        final RemoteProcessGroupStatus status = new RemoteProcessGroupStatus();
+        status.setId(id);
+        status.setGroupId(reader.readString());
+        status.setTransmissionStatus(reader.readEnum(TransmissionStatus.class));
+        status.setTargetUri(reader.readString());
+        status.setName(reader.readString());
+        status.setComments(reader.readString());
+        status.setAuthorizationIssue(reader.readString());
+        final Long lastRefreshTime = reader.readLongObject();
+        status.setLastRefreshTime(lastRefreshTime == null ? null : new Date(lastRefreshTime));
+        status.setActiveThreadCount(reader.readInteger());
+        status.setSentCount(reader.readInteger());
+        status.setSentContentSize(reader.readLongObject());
+        status.setReceivedCount(reader.readInteger());
+        status.setReceivedContentSize(reader.readLongObject());
+        status.setActiveRemotePortCount(reader.readInteger());
+        status.setInactiveRemotePortCount(reader.readInteger());
+        status.setAverageLineageDuration(reader.readLong());
+        return status;
+    }
+
+    /**
+     * A decoded record, holding one of ProcessGroupStatus (without child statuses), ProcessorStatus, ConnectionStatus, PortStatus or RemoteProcessGroupStatus
+     */
+    record DecodedRecord(int type, String id, String parentGroupId, Object status) {
+    }
+
+    private static class RecordWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private RecordWriter(final int type, final String id, final String parentGroupId) {
+            writeByte(type);
+            writeString(id);
+            writeString(parentGroupId);
+        }
+
+        private void writeByte(final int value) {
+            try {
+                out.writeByte(value);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeBoolean(final boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        private void writeBooleanObject(final Boolean value) {
+            writeByte(value == null ? -1 : (value ? 1 : 0));
+        }
+
+        private void writeInt(final int value) {
+            try {
+                out.writeInt(value);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeLong(final long value) {
+            try {
+                out.writeLong(value);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeInteger(final Integer value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeInt(value);
+            }
+        }
+
+        private void writeLongObject(final Long value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeLong(value.longValue());
+            }
+        }
+
+        private void writeString(final String value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeInt(bytes.length);
+                try {
+                    out.write(bytes);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void writeEnum(final Enum<?> value) {
+            writeString(value == null ? null : value.name());
+        }
+
+        private void writeCounters(final Map<String, Long> counters) {
+            writeInt(counters == null ? -1 : counters.size());
+            if (counters != null) {
+                for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+                    writeString(entry.getKey());
+                    writeLongObject(entry.getValue());
+                }
+            }
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static class RecordReader {
+        private final DataInputStream in;
+
+        private RecordReader(final byte[] record) {
+            this.in = new DataInputStream(new ByteArrayInputStream(record));
+        }
+
+        private int readByte() throws IOException {
+            return in.readByte();
+        }
+
+        private boolean readBoolean() throws IOException {
+            return in.readByte() != 0;
+        }
+
+        private Boolean readBooleanObject() throws IOException {
+            final int value = in.readByte();
+            return value < 0 ? null : value != 0;
+        }
+
+        private int readInt() throws IOException {
+            return in.readInt();
+        }
+
+        private long readLong() throws IOException {
+            return in.readLong();
+        }
+
+        private Integer readInteger() throws IOException {
+            return readBoolean() ? in.readInt() : null;
+        }
+
+        private Long readLongObject() throws IOException {
+            return readBoolean() ? in.readLong() : null;
+        }
+
+        private String readString() throws IOException {
+            if (!readBoolean()) {
+                return null;
+            }
+
+            final int length = in.readInt();
+            if (length < 0 || length > in.available()) {
+                throw new IOException("Invalid string length " + length + " in component status record");
+            }
+
+            final byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private <E extends Enum<E>> E readEnum(final Class<E> enumType) throws IOException {
+            final String name = readString();
+            if (name == null) {
+                return null;
+            }
+
+            try {
+                return Enum.valueOf(enumType, name);
+            } catch (final IllegalArgumentException e) {
+                // the value may have been added in a later version
+                return null;
+            }
+        }
+
+        private Map<String, Long> readCounters() throws IOException {
+            final int size = in.readInt();
+            if (size < 0) {
+                return null;
+            }
+
+            final Map<String, Long> counters = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                counters.put(readString(), readLongObject());
+            }
+            return counters;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol;
+
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.binary.BinaryProtocolContext;
+import org.apache.nifi.cluster.protocol.impl.SocketProtocolListener;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.io.socket.ServerSocketConfiguration;
+import org.apache.nifi.io.socket.SocketConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestAbstractNodeProtocolSender {
+
+    private static final int SOCKET_TIMEOUT_MILLISECONDS = 1000;
+
+    private final AtomicInteger heartbeatsReceived = new AtomicInteger();
+    private volatile long responseDelayMillis;
+
+    private SocketProtocolListener listener;
+    private AbstractNodeProtocolSender sender;
+    private String address;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        final BinaryProtocolContext protocolContext = new BinaryProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+
+        final ServerSocketConfiguration serverConfiguration = new ServerSocketConfiguration();
+        serverConfiguration.setSocketTimeout(5000);
+        listener = new SocketProtocolListener(2, 0, serverConfiguration, protocolContext);
+        listener.addHandler(new HeartbeatHandler());
+        listener.start();
+        address = "localhost:" + listener.getPort();
+
+        final SocketConfiguration socketConfiguration = new SocketConfiguration();
+        socketConfiguration.setSocketTimeout(SOCKET_TIMEOUT_MILLISECONDS);
+        sender = new AbstractNodeProtocolSender(socketConfiguration, protocolContext) {
+            @Override
+            protected InetSocketAddress getServiceAddress() {
+                return new InetSocketAddress("localhost", listener.getPort());
+            }
+        };
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        listener.stop();
+    }
+
+    @Test
+    public void testHeartbeatOverPersistentConnection() {
+        // The first heartbeat is sent as XML, and the subsequent heartbeats as binary messages over a persistent connection
+        for (int i = 1; i <= 3; i++) {
+            sender.heartbeat(createHeartbeat(), address);
+            assertEquals(i, heartbeatsReceived.get());
+        }
+    }
+
+    @Test
+    public void testTimeoutOverPersistentConnectionNotRetried() throws InterruptedException {
+        sender.heartbeat(createHeartbeat(), address);
+        sender.heartbeat(createHeartbeat(), address);
+        assertEquals(2, heartbeatsReceived.get());
+
+        // The Cluster Coordinator received the message, so it must not be sent again over a new connection
+        responseDelayMillis = SOCKET_TIMEOUT_MILLISECONDS * 2;
+        assertThrows(ProtocolException.class, () -> sender.heartbeat(createHeartbeat(), address));
+        Thread.sleep(SOCKET_TIMEOUT_MILLISECONDS * 2);
+        assertEquals(3, heartbeatsReceived.get());
+
+        responseDelayMillis = 0;
+        sender.heartbeat(createHeartbeat(), address);
+        assertEquals(4, heartbeatsReceived.get());
+    }
+
+    private HeartbeatMessage createHeartbeat() {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, "localhost", null, null, false);
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED), new byte[0]));
+        return message;
+    }
+
+    private class HeartbeatHandler implements ProtocolHandler {
+        @Override
+        public ProtocolMessage handle(final ProtocolMessage msg, final Set<String> nodeIdentities) throws ProtocolException {
+            heartbeatsReceived.incrementAndGet();
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (final InterruptedException e) {
+                throw new ProtocolException(e);
+            }
+            return new HeartbeatResponseMessage();
+        }
+
+        @Override
+        public boolean canHandle(final ProtocolMessage msg) {
+            return msg instanceof HeartbeatMessage;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.binary;
+
+import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.coordination.node.OffloadCode;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.ProtocolMessageMarshaller;
+import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.PingMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestBinaryProtocolContext {
+
+    private final BinaryProtocolContext protocolContext = new BinaryProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+
+    @Test
+    public void testRoundTripHeartbeat() throws IOException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, "localhost", null, null, false);
+        final NodeConnectionStatus connectionStatus = new NodeConnectionStatus(12L, nodeId, NodeConnectionState.OFFLOADING, OffloadCode.OFFLOADED, null, "offloading", 1234L);
+        final byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, connectionStatus, payload));
+
+        final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+        final ProtocolMessage unmarshalled = unmarshaller.unmarshal(new ByteArrayInputStream(marshal(protocolContext.createBinaryMarshaller(), message)));
+        assertTrue(protocolContext.isPersistentConnection(unmarshaller));
+
+        final Heartbeat heartbeat = ((HeartbeatMessage) unmarshalled).getHeartbeat();
+        assertNodeIdentifierEquals(nodeId, heartbeat.getNodeIdentifier());
+        assertArrayEquals(payload, heartbeat.getPayload());
+
+        final NodeConnectionStatus status = heartbeat.getConnectionStatus();
+        assertEquals(connectionStatus, status);
+        assertEquals(12L, status.getUpdateIdentifier());
+        assertEquals(OffloadCode.OFFLOADED, status.getOffloadCode());
+        assertEquals("offloading", status.getReason());
+        assertNull(status.getDisconnectCode());
+        assertEquals(Long.valueOf(1234L), status.getConnectionRequestTime());
+    }
+
+    @Test
+    public void testRoundTripHeartbeatResponse() throws IOException {
+        final NodeIdentifier nodeId = new NodeIdentifier("id", "localhost", 8000, "localhost", 8001, "localhost", 8002, "localhost", 8003, 8004, true);
+        final HeartbeatResponseMessage message = new HeartbeatResponseMessage();
+        message.setUpdatedNodeStatuses(Arrays.asList(
+                new NodeConnectionStatus(nodeId, DisconnectionCode.LACK_OF_HEARTBEAT, "no heartbeat"),
+                new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED)));
+        message.setFlowElectionMessage("Found agreed upon flow");
+
+        final ProtocolMessage unmarshalled = protocolContext.createUnmarshaller().unmarshal(new ByteArrayInputStream(marshal(protocolContext.createBinaryMarshaller(), message)));
+
+        final HeartbeatResponseMessage response = (HeartbeatResponseMessage) unmarshalled;
+        assertEquals("Found agreed upon flow", response.getFlowElectionMessage());
+        assertEquals(2, response.getUpdatedNodeStatuses().size());
+
+        final NodeConnectionStatus disconnected = response.getUpdatedNodeStatuses().get(0);
+        assertEquals(message.getUpdatedNodeStatuses().get(0), disconnected);
+        assertEquals(NodeConnectionState.DISCONNECTED, disconnected.getState());
+        assertEquals(DisconnectionCode.LACK_OF_HEARTBEAT, disconnected.getDisconnectCode());
+        assertEquals("no heartbeat", disconnected.getReason());
+        assertNodeIdentifierEquals(nodeId, disconnected.getNodeIdentifier());
+        assertEquals(message.getUpdatedNodeStatuses().get(1), response.getUpdatedNodeStatuses().get(1));
+    }
+
+    @Test
+    public void testMessagesReadSequentially() throws IOException {
+        final HeartbeatResponseMessage first = new HeartbeatResponseMessage();
+        first.setFlowElectionMessage("first");
+        final HeartbeatResponseMessage second = new HeartbeatResponseMessage();
+        second.setFlowElectionMessage("second");
+
+        final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createBinaryMarshaller();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaller.marshal(first, out);
+        marshaller.marshal(second, out);
+
+        final InputStream in = new ByteArrayInputStream(out.toByteArray());
+        final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+        assertEquals("first", ((HeartbeatResponseMessage) unmarshaller.unmarshal(in)).getFlowElectionMessage());
+        assertEquals("second", ((HeartbeatResponseMessage) unmarshaller.unmarshal(in)).getFlowElectionMessage());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testOtherMessagesMarshalledAsXml() throws IOException {
+        final PingMessage message = new PingMessage();
+        message.setId("ping");
+        final byte[] xml = marshal(new JaxbProtocolContext<ProtocolMessage>(JaxbProtocolUtils.JAXB_CONTEXT).createMarshaller(), message);
+
+        // Only heartbeats are framed, so other messages are not buffered a second time and can be read by any node
+        assertArrayEquals(xml, marshal(protocolContext.createBinaryMarshaller(), message));
+
+        final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+        assertEquals("ping", ((PingMessage) unmarshaller.unmarshal(new ByteArrayInputStream(xml))).getId());
+        assertFalse(protocolContext.isPersistentConnection(unmarshaller));
+
+        // The response to an XML request is XML, and only a heartbeat response advertises the binary schema
+        final ProtocolMessageMarshaller<ProtocolMessage> responseMarshaller = protocolContext.createResponseMarshaller(unmarshaller);
+        assertArrayEquals(xml, marshal(responseMarshaller, message));
+
+        final HeartbeatResponseMessage heartbeatResponse = new HeartbeatResponseMessage();
+        final byte[] heartbeatResponseXml = marshal(new JaxbProtocolContext<ProtocolMessage>(JaxbProtocolUtils.JAXB_CONTEXT).createMarshaller(), heartbeatResponse);
+        final byte[] advertisedResponse = marshal(responseMarshaller, heartbeatResponse);
+        assertArrayEquals(heartbeatResponseXml, Arrays.copyOf(advertisedResponse, heartbeatResponseXml.length));
+
+        final InputStream advertisement = new ByteArrayInputStream(advertisedResponse, heartbeatResponseXml.length, advertisedResponse.length - heartbeatResponseXml.length);
+        assertEquals(BinaryProtocolContext.SCHEMA_VERSION, BinaryProtocolContext.readAdvertisedSchemaVersion(advertisement));
+        assertEquals(-1, advertisement.read());
+    }
+
+    @Test
+    public void testUnsupportedSchemaVersion() {
+        final byte[] message = {0x5B, (byte) (BinaryProtocolContext.SCHEMA_VERSION + 1), 1, 0, 0, 0, 0};
+        final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+        assertThrows(IOException.class, () -> unmarshaller.unmarshal(new ByteArrayInputStream(message)));
+        assertFalse(protocolContext.isPersistentConnection(unmarshaller));
+    }
+
+    @Test
+    public void testReadAdvertisedSchemaVersion() throws IOException {
+        assertEquals(BinaryProtocolContext.SCHEMA_VERSION, BinaryProtocolContext.readAdvertisedSchemaVersion(new ByteArrayInputStream(new byte[] {0x5B, BinaryProtocolContext.SCHEMA_VERSION})));
+        assertEquals(0, BinaryProtocolContext.readAdvertisedSchemaVersion(new ByteArrayInputStream(new byte[0])));
+        assertEquals(0, BinaryProtocolContext.readAdvertisedSchemaVersion(new ByteArrayInputStream(new byte[] {0x5B})));
+    }
+
+    private static byte[] marshal(final ProtocolMessageMarshaller<ProtocolMessage> marshaller, final ProtocolMessage message) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaller.marshal(message, out);
+        return out.toByteArray();
+    }
+
+    private static void assertNodeIdentifierEquals(final NodeIdentifier expected, final NodeIdentifier actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.getApiAddress(), actual.getApiAddress());
+        assertEquals(expected.getApiPort(), actual.getApiPort());
+        assertEquals(expected.getSocketAddress(), actual.getSocketAddress());
+        assertEquals(expected.getSocketPort(), actual.getSocketPort());
+        assertEquals(expected.getLoadBalanceAddress(), actual.getLoadBalanceAddress());
+        assertEquals(expected.getLoadBalancePort(), actual.getLoadBalancePort());
+        assertEquals(expected.getSiteToSiteAddress(), actual.getSiteToSiteAddress());
+        assertEquals(expected.getSiteToSitePort(), actual.getSiteToSitePort());
+        assertEquals(expected.getSiteToSiteHttpApiPort(), actual.getSiteToSiteHttpApiPort());
+        assertEquals(expected.isSiteToSiteSecure(), actual.isSiteToSiteSecure());
+    }
+}
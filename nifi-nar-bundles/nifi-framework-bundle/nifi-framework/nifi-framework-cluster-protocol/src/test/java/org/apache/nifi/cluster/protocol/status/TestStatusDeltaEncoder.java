@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.status;
+
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.LoadBalanceStatus;
+import org.apache.nifi.controller.status.PortStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+import org.apache.nifi.controller.status.RunStatus;
+import org.apache.nifi.controller.status.TransmissionStatus;
+import org.apache.nifi.controller.status.analytics.ConnectionStatusPredictions;
+import org.apache.nifi.registry.flow.VersionedFlowState;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStatusDeltaEncoder {
+
+    @Test
+    public void testFullSnapshotPreservesStatus() throws IOException {
+        final ProcessGroupStatus rootStatus = createRootStatus();
+        final NodeStatusModel model = new NodeStatusModel();
+        assertFalse(model.isSynced());
+        assertNull(model.createProcessGroupStatus());
+
+        assertTrue(model.apply(new StatusDeltaEncoder().encode(rootStatus)));
+        assertTrue(model.isSynced());
+        assertEquals(1L, model.getSequenceNumber());
+
+        final ProcessGroupStatus decoded = model.createProcessGroupStatus();
+        assertEquals(rootStatus.toString(), decoded.toString());
+        assertEquals(VersionedFlowState.UP_TO_DATE, decoded.getVersionedFlowState());
+        assertEquals(Integer.valueOf(2), decoded.getStatelessActiveThreadCount());
+
+        final ProcessGroupStatus childStatus = decoded.getProcessGroupStatus().iterator().next();
+        assertEquals("child", childStatus.getId());
+        assertNull(childStatus.getVersionedFlowState());
+
+        final ProcessorStatus processorStatus = childStatus.getProcessorStatus().iterator().next();
+        assertEquals("GenerateFlowFile", processorStatus.getType());
+        assertEquals(RunStatus.Running, processorStatus.getRunStatus());
+        assertEquals(Collections.singletonMap("counter", 5L), processorStatus.getCounters());
+
+        final ConnectionStatus connectionStatus = childStatus.getConnectionStatus().iterator().next();
+        assertEquals(2048L, connectionStatus.getBackPressureBytesThreshold());
+        assertEquals(LoadBalanceStatus.LOAD_BALANCE_ACTIVE, connectionStatus.getLoadBalanceStatus());
+        assertEquals(60000L, connectionStatus.getPredictions().getPredictedTimeToCountBackpressureMillis());
+
+        final RemoteProcessGroupStatus remoteStatus = decoded.getRemoteProcessGroupStatus().iterator().next();
+        assertEquals(TransmissionStatus.Transmitting, remoteStatus.getTransmissionStatus());
+        assertEquals("http://localhost:8080/nifi", remoteStatus.getTargetUri());
+        assertNull(remoteStatus.getComments());
+    }
+
+    @Test
+    public void testDeltaContainsOnlyChanges() throws IOException {
+        final StatusDeltaEncoder encoder = new StatusDeltaEncoder();
+        final NodeStatusModel model = new NodeStatusModel();
+
+        final ProcessGroupStatus rootStatus = createRootStatus();
+        final byte[] fullSnapshot = encoder.encode(rootStatus);
+        assertTrue(model.apply(fullSnapshot));
+
+        // a delta without changes keeps the sequence number of the status that it follows
+        final Set<String> changedIds = new HashSet<>();
+        final byte[] unchanged = encoder.encode(createRootStatus());
+        assertTrue(unchanged.length < fullSnapshot.length);
+        assertTrue(model.apply(unchanged, changedIds));
+        assertTrue(changedIds.isEmpty());
+        assertEquals(1L, model.getSequenceNumber());
+        assertEquals(rootStatus.toString(), model.createProcessGroupStatus().toString());
+
+        // change a processor and remove the output port
+        final ProcessGroupStatus updatedStatus = createRootStatus();
+        final ProcessGroupStatus childStatus = updatedStatus.getProcessGroupStatus().iterator().next();
+        childStatus.getProcessorStatus().iterator().next().setInvocations(42);
+        updatedStatus.setOutputPortStatus(Collections.emptyList());
+
+        final byte[] delta = encoder.encode(updatedStatus);
+        assertTrue(delta.length < fullSnapshot.length);
+        assertFalse(new NodeStatusModel().apply(delta));
+        assertTrue(model.apply(delta, changedIds));
+        assertEquals(Set.of("processor", "output"), changedIds);
+        assertEquals(2L, model.getSequenceNumber());
+
+        final ProcessGroupStatus decoded = model.createProcessGroupStatus();
+        assertEquals(updatedStatus.toString(), decoded.toString());
+        assertTrue(decoded.getOutputPortStatus().isEmpty());
+        assertEquals(42, decoded.getProcessGroupStatus().iterator().next().getProcessorStatus().iterator().next().getInvocations());
+    }
+
+    @Test
+    public void testMissedDeltaRequiresFullSnapshot() throws IOException {
+        final StatusDeltaEncoder encoder = new StatusDeltaEncoder(3);
+        final NodeStatusModel model = new NodeStatusModel();
+        assertTrue(model.apply(encoder.encode(createRootStatus())));
+
+        // the second status is never received
+        encoder.encode(createRootStatus(1));
+        assertFalse(model.apply(encoder.encode(createRootStatus(2))));
+        assertFalse(model.isSynced());
+        assertNull(model.createProcessGroupStatus());
+
+        // the next full snapshot brings the model up to date
+        assertFalse(model.apply(encoder.encode(createRootStatus(3))));
+        assertTrue(model.apply(encoder.encode(createRootStatus(4))));
+        assertTrue(model.isSynced());
+        assertEquals(5L, model.getSequenceNumber());
+        assertEquals(createRootStatus(4).toString(), model.createProcessGroupStatus().toString());
+    }
+
+    @Test
+    public void testResetEncodesFullSnapshot() throws IOException {
+        final StatusDeltaEncoder encoder = new StatusDeltaEncoder();
+        encoder.encode(createRootStatus());
+        encoder.encode(createRootStatus(1));
+
+        encoder.reset();
+        final NodeStatusModel model = new NodeStatusModel();
+        assertTrue(model.apply(encoder.encode(createRootStatus(2))));
+        assertEquals(createRootStatus(2).toString(), model.createProcessGroupStatus().toString());
+    }
+
+    @Test
+    public void testInvalidStatus() {
+        final NodeStatusModel model = new NodeStatusModel();
+        assertThrows(IOException.class, () -> model.apply(new byte[] {1, 2, 3}));
+        assertFalse(model.isSynced());
+    }
+
+    private static ProcessGroupStatus createRootStatus() {
+        return createRootStatus(0);
+    }
+
+    private static ProcessGroupStatus createRootStatus(final int invocations) {
+        final ProcessGroupStatus rootStatus = createGroupStatus("root", "NiFi Flow");
+        rootStatus.setVersionedFlowState(VersionedFlowState.UP_TO_DATE);
+        rootStatus.setStatelessActiveThreadCount(2);
+
+        final ProcessGroupStatus childStatus = createGroupStatus("child", "Child");
+        childStatus.setStatelessActiveThreadCount(0);
+        rootStatus.setProcessGroupStatus(Collections.singletonList(childStatus));
+
+        final ProcessorStatus processorStatus = new ProcessorStatus();
+        processorStatus.setId("processor");
+        processorStatus.setGroupId("child");
+        processorStatus.setName("Generate");
+        processorStatus.setType("GenerateFlowFile");
+        processorStatus.setRunStatus(RunStatus.Running);
+        processorStatus.setInvocations(invocations);
+        processorStatus.setOutputCount(10);
+        processorStatus.setOutputBytes(1024L);
+        processorStatus.setCounters(Collections.singletonMap("counter", 5L));
+        childStatus.setProcessorStatus(Collections.singletonList(processorStatus));
+
+        final ConnectionStatus connectionStatus = new ConnectionStatus();
+        connectionStatus.setId("connection");
+        connectionStatus.setGroupId("child");
+        connectionStatus.setName("success");
+        connectionStatus.setSourceId("processor");
+        connectionStatus.setSourceName("Generate");
+        connectionStatus.setDestinationId("output");
+        connectionStatus.setDestinationName("Output");
+        connectionStatus.setQueuedCount(3);
+        connectionStatus.setQueuedBytes(300L);
+        connectionStatus.setBackPressureBytesThreshold(2048L);
+        connectionStatus.setBackPressureObjectThreshold(100L);
+        connectionStatus.setBackPressureDataSizeThreshold("2 KB");
+        connectionStatus.setLoadBalanceStatus(LoadBalanceStatus.LOAD_BALANCE_ACTIVE);
+        final ConnectionStatusPredictions predictions = new ConnectionStatusPredictions();
+        predictions.setPredictedTimeToCountBackpressureMillis(60000L);
+        predictions.setNextPredictedQueuedCount(4);
+        connectionStatus.setPredictions(predictions);
+        childStatus.setConnectionStatus(Collections.singletonList(connectionStatus));
+
+        final PortStatus inputPortStatus = new PortStatus();
+        inputPortStatus.setId("input");
+        inputPortStatus.setGroupId("root");
+        inputPortStatus.setName("Input");
+        inputPortStatus.setRunStatus(RunStatus.Stopped);
+        inputPortStatus.setTransmitting(true);
+        rootStatus.setInputPortStatus(Collections.singletonList(inputPortStatus));
+
+        final PortStatus outputPortStatus = new PortStatus();
+        outputPortStatus.setId("output");
+        outputPortStatus.setGroupId("root");
+        outputPortStatus.setName("Output");
+        outputPortStatus.setRunStatus(RunStatus.Invalid);
+        rootStatus.setOutputPortStatus(Collections.singletonList(outputPortStatus));
+
+        final RemoteProcessGroupStatus remoteStatus = new RemoteProcessGroupStatus();
+        remoteStatus.setId("remote");
+        remoteStatus.setGroupId("root");
+        remoteStatus.setName("Remote");
+        remoteStatus.setTargetUri("http://localhost:8080/nifi");
+        remoteStatus.setTransmissionStatus(TransmissionStatus.Transmitting);
+        remoteStatus.setActiveRemotePortCount(1);
+        remoteStatus.setSentCount(7);
+        remoteStatus.setSentContentSize(700L);
+        rootStatus.setRemoteProcessGroupStatus(Collections.singletonList(remoteStatus));
+
+        return rootStatus;
+    }
+
+    private static ProcessGroupStatus createGroupStatus(final String id, final String name) {
+        final ProcessGroupStatus groupStatus = new ProcessGroupStatus();
+        groupStatus.setId(id);
+        groupStatus.setName(name);
+        groupStatus.setInputCount(1);
+        groupStatus.setInputContentSize(100L);
+        groupStatus.setOutputCount(2);
+        groupStatus.setOutputContentSize(200L);
+        groupStatus.setQueuedCount(3);
+        groupStatus.setQueuedContentSize(300L);
+        groupStatus.setBytesRead(400L);
+        groupStatus.setBytesWritten(500L);
+        groupStatus.setActiveThreadCount(1);
+        return groupStatus;
+    }
+}
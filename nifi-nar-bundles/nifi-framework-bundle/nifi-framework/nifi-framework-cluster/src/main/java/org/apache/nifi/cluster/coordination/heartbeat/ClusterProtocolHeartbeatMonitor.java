@@ -32,6 +32,7 @@ import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
 import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
 import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
 import org.apache.nifi.cluster.protocol.message.ProtocolMessage.MessageType;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +59,7 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
 
     private final String heartbeatAddress;
     private final ConcurrentMap<NodeIdentifier, NodeHeartbeat> heartbeatMessages = new ConcurrentHashMap<>();
+    private final ClusterStatusModel clusterStatusModel = new ClusterStatusModel();
 
     private volatile long purgeTimestamp = System.currentTimeMillis();
 
@@ -100,6 +102,7 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
         // that if we go the required amount of time without receiving a heartbeat, we do know to mark the node
         // as disconnected.
         heartbeatMessages.clear();
+        clusterStatusModel.clear();
         for (final NodeIdentifier nodeId : clusterCoordinator.getNodeIdentifiers()) {
             final NodeHeartbeat heartbeat = new StandardNodeHeartbeat(nodeId, System.currentTimeMillis(),
                     clusterCoordinator.getConnectionStatus(nodeId), 0, 0L, 0, System.currentTimeMillis(), 0L);
@@ -109,6 +112,7 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
 
     @Override
     public void onStop() {
+        clusterStatusModel.clear();
     }
 
     @Override
@@ -120,12 +124,14 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
     public synchronized void removeHeartbeat(final NodeIdentifier nodeId) {
         logger.debug("Deleting heartbeat for node {}", nodeId);
         heartbeatMessages.remove(nodeId);
+        clusterStatusModel.remove(nodeId);
     }
 
     @Override
     public synchronized void purgeHeartbeats() {
         logger.debug("Purging old heartbeats");
         heartbeatMessages.clear();
+        clusterStatusModel.clear();
         purgeTimestamp = System.currentTimeMillis();
     }
 
@@ -134,6 +140,15 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
         return purgeTimestamp;
     }
 
+    @Override
+    public ProcessGroupStatus getClusterComponentStatus() {
+        if (isStopped() || !clusterCoordinator.isActiveClusterCoordinator()) {
+            return null;
+        }
+
+        return clusterStatusModel.getMergedStatus(clusterCoordinator.getNodeIdentifiers(NodeConnectionState.CONNECTED));
+    }
+
     @Override
     public ProtocolMessage handle(final ProtocolMessage msg, Set<String> nodeIds) throws ProtocolException {
         switch (msg.getType()) {
@@ -165,6 +180,13 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
         heartbeatMessages.put(heartbeat.getNodeIdentifier(), nodeHeartbeat);
         logger.debug("Received new heartbeat from {}", nodeId);
 
+        final byte[] componentStatus = payload.getComponentStatus();
+        if (componentStatus == null) {
+            clusterStatusModel.remove(nodeId);
+        } else {
+            clusterStatusModel.update(nodeId, componentStatus);
+        }
+
         // Formulate a List of differences between our view of the cluster topology and the node's view
         // and send that back to the node so that it is in-sync with us
         List<NodeConnectionStatus> nodeStatusList = payload.getClusterStatus();
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.heartbeat;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.status.MergedStatusModel;
+import org.apache.nifi.cluster.protocol.status.NodeStatusModel;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maintains the status of the flow across the cluster from the component status that each node includes in its heartbeats.
+ * The status of each node is updated incrementally as heartbeats are received, and so is the status merged across the nodes:
+ * only the merged status of the components whose status changed on a node is computed again. The merged status is computed
+ * in full only when the set of nodes whose status is requested changes.
+ */
+class ClusterStatusModel {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterStatusModel.class);
+
+    private final ConcurrentMap<NodeIdentifier, NodeStatusModel> nodeStatusModels = new ConcurrentHashMap<>();
+
+    private MergedStatus mergedStatus;
+
+    /**
+     * Applies the component status that the given node included in a heartbeat
+     *
+     * @param nodeId the identifier of the node
+     * @param componentStatus the component status, encoded by the node
+     */
+    void update(final NodeIdentifier nodeId, final byte[] componentStatus) {
+        final NodeStatusModel nodeStatusModel = nodeStatusModels.computeIfAbsent(nodeId, id -> new NodeStatusModel());
+        final Set<String> changedIds = new HashSet<>();
+        try {
+            if (!nodeStatusModel.apply(componentStatus, changedIds)) {
+                logger.debug("Component status from {} does not follow the last status received; will wait for a full snapshot", nodeId);
+            }
+        } catch (final IOException e) {
+            logger.warn("Failed to apply component status from {}; will wait for a full snapshot", nodeId, e);
+        }
+
+        if (!changedIds.isEmpty()) {
+            synchronized (this) {
+                if (mergedStatus != null && mergedStatus.nodeStatusModels().contains(nodeStatusModel)) {
+                    mergedStatus.model().update(changedIds);
+                }
+            }
+        }
+    }
+
+    void remove(final NodeIdentifier nodeId) {
+        nodeStatusModels.remove(nodeId);
+    }
+
+    void clear() {
+        nodeStatusModels.clear();
+        synchronized (this) {
+            mergedStatus = null;
+        }
+    }
+
+    /**
+     * Returns the status of the flow merged across the given nodes
+     *
+     * @param nodeIds the identifiers of the nodes whose status should be merged
+     * @return the merged status of the root Process Group, which the caller is free to modify, or <code>null</code> if the
+     *         status of any of the given nodes is not known
+     */
+    synchronized ProcessGroupStatus getMergedStatus(final Collection<NodeIdentifier> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            return null;
+        }
+
+        // Merge the nodes in a consistent order so that the result does not depend on the order of the given identifiers
+        final List<NodeIdentifier> sortedNodeIds = nodeIds.stream()
+                .sorted(Comparator.comparing(NodeIdentifier::getId))
+                .toList();
+
+        final List<NodeStatusModel> sortedNodeStatusModels = new ArrayList<>(sortedNodeIds.size());
+        for (final NodeIdentifier nodeId : sortedNodeIds) {
+            final NodeStatusModel nodeStatusModel = nodeStatusModels.get(nodeId);
+            if (nodeStatusModel == null || !nodeStatusModel.isSynced()) {
+                return null;
+            }
+            sortedNodeStatusModels.add(nodeStatusModel);
+        }
+
+        // A node that is removed and then heartbeats again has a new model, so comparing the models detects that as well
+        if (mergedStatus == null || !mergedStatus.nodeStatusModels().equals(sortedNodeStatusModels)) {
+            mergedStatus = new MergedStatus(sortedNodeStatusModels, new MergedStatusModel(sortedNodeStatusModels));
+        }
+
+        return mergedStatus.model().createProcessGroupStatus();
+    }
+
+    private record MergedStatus(List<NodeStatusModel> nodeStatusModels, MergedStatusModel model) {
+    }
+}
@@ -43,6 +43,35 @@ public interface HttpResponseMapper {
      */
     NodeResponse mapResponses(URI uri, String httpMethod, Set<NodeResponse> nodeResponses, boolean merge);
 
+    /**
+     * Maps the responses from all nodes in the cluster to a single NodeResponse object that
+     * is appropriate to respond with, completing the given StreamingResponseMerge rather than
+     * reading the entities of the successful responses if the responses are to be merged
+     *
+     * @param uri the URI of the web request that was made
+     * @param httpMethod the HTTP Method that was used when making the request
+     * @param nodeResponses the responses received from the individual nodes
+     * @param merge whether or not the responses should be merged
+     * @param streamingMerge the merge that the bodies of the successful responses were provided to, or <code>null</code>
+     *            if the bodies of the responses were not streamed
+     *
+     * @return a single NodeResponse that represents the response that should be returned to the user/client
+     */
+    default NodeResponse mapResponses(URI uri, String httpMethod, Set<NodeResponse> nodeResponses, boolean merge, StreamingResponseMerge streamingMerge) {
+        return mapResponses(uri, httpMethod, nodeResponses, merge);
+    }
+
+    /**
+     * Creates a StreamingResponseMerge that is capable of merging the responses for the given URI & HTTP method as they are received
+     *
+     * @param uri the URI of the request
+     * @param httpMethod the HTTP Method of the request
+     * @return a StreamingResponseMerge for the request, or <code>null</code> if the responses cannot be merged as they are received
+     */
+    default StreamingResponseMerge createStreamingMerge(URI uri, String httpMethod) {
+        return null;
+    }
+
     /**
      * Returns a subset (or equal set) of the given Node Responses, such that all of those returned are the responses
      * that indicate that the node was unable to fulfill the request
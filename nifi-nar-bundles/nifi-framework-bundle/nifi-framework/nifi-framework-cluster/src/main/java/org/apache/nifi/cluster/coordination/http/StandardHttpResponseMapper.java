@@ -198,6 +198,11 @@ public class StandardHttpResponseMapper implements HttpResponseMapper {
 
     @Override
     public NodeResponse mapResponses(final URI uri, final String httpMethod, final Set<NodeResponse> nodeResponses, final boolean merge) {
+        return mapResponses(uri, httpMethod, nodeResponses, merge, null);
+    }
+
+    @Override
+    public NodeResponse mapResponses(final URI uri, final String httpMethod, final Set<NodeResponse> nodeResponses, final boolean merge, final StreamingResponseMerge streamingMerge) {
         final boolean hasSuccess = hasSuccessfulResponse(nodeResponses);
         if (!hasSuccess) {
             // If we have a response that is a 3xx, 4xx, or 5xx, then we want to choose that.
@@ -233,6 +238,11 @@ public class StandardHttpResponseMapper implements HttpResponseMapper {
             return clientResponse;
         }
 
+        if (streamingMerge != null) {
+            // The bodies of the successful responses have already been provided to the merge as they were received
+            return streamingMerge.merge(successResponses, problematicResponses, clientResponse);
+        }
+
         EndpointResponseMerger merger = getEndpointResponseMerger(uri, httpMethod);
         if (merger == null) {
             return clientResponse;
@@ -261,6 +271,16 @@ public class StandardHttpResponseMapper implements HttpResponseMapper {
         return getEndpointResponseMerger(uri, httpMethod) != null;
     }
 
+    @Override
+    public StreamingResponseMerge createStreamingMerge(final URI uri, final String httpMethod) {
+        final EndpointResponseMerger merger = getEndpointResponseMerger(uri, httpMethod);
+        if (merger instanceof StreamingEndpointResponseMerger) {
+            return ((StreamingEndpointResponseMerger) merger).createStreamingMerge(uri, httpMethod);
+        }
+
+        return null;
+    }
+
     private EndpointResponseMerger getEndpointResponseMerger(final URI uri, final String httpMethod) {
         return endpointMergers.stream().filter(p -> p.canHandle(uri, httpMethod)).findFirst().orElse(null);
     }
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http;
+
+import java.net.URI;
+
+/**
+ * <p>
+ * An EndpointResponseMerger that is also capable of merging the responses from the nodes as each response is received,
+ * rather than requiring that the entities of all nodes be read into memory before they are merged. This is valuable for
+ * endpoints whose responses may be very large, such as the results of a Provenance Query, as the heap that is necessary
+ * to merge the responses is then proportional to the size of the merged result instead of the number of nodes in the cluster.
+ * </p>
+ *
+ * <p>
+ * Implementations of this interface MUST be Thread-Safe.
+ * </p>
+ */
+public interface StreamingEndpointResponseMerger extends EndpointResponseMerger {
+
+    /**
+     * Creates a StreamingResponseMerge that can be used to merge the responses of a single replicated request as they are received
+     *
+     * @param uri the URI of the REST Endpoint
+     * @param method the HTTP Method used to interact with the REST Endpoint
+     *
+     * @return a StreamingResponseMerge for the request, or <code>null</code> if the responses for the given URI and HTTP Method
+     *         cannot be merged as they are received, in which case the responses will be merged via {@link #merge}
+     */
+    StreamingResponseMerge createStreamingMerge(URI uri, String method);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http;
+
+import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * <p>
+ * Merges the responses of the nodes for a single replicated request, incrementally, as the body of each node's response is received.
+ * The bodies that are provided to {@link #addResponse(NodeIdentifier, InputStream)} are consumed by the merge and are not retained
+ * by the NodeResponse, so the NodeResponse objects that are provided to {@link #merge(Set, Set, NodeResponse)} have no entity to read.
+ * </p>
+ *
+ * <p>
+ * Implementations of this interface MUST be Thread-Safe, as the responses of all nodes are provided concurrently.
+ * </p>
+ */
+public interface StreamingResponseMerge {
+
+    /**
+     * Reads the body of a successful response from the given node, incorporating the entity into the merge as it is read
+     *
+     * @param nodeId the identifier of the node that provided the response
+     * @param responseBody the body of the node's response
+     *
+     * @throws IOException if unable to read or parse the response body
+     */
+    void addResponse(NodeIdentifier nodeId, InputStream responseBody) throws IOException;
+
+    /**
+     * Completes the merge, once the responses of all nodes have been received
+     *
+     * @param successfulResponses the responses from nodes that were successful in handling the request
+     * @param problematicResponses the responses from nodes that were not successful in handling the request
+     * @param clientResponse the response that was chosen to be returned to the client
+     *
+     * @return a NodeResponse that is appropriate to return to the client/user
+     */
+    NodeResponse merge(Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses, NodeResponse clientResponse);
+
+}
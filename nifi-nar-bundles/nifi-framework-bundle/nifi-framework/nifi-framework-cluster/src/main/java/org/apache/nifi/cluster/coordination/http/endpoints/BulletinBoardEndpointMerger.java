@@ -17,6 +17,9 @@
 
 package org.apache.nifi.cluster.coordination.http.endpoints;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.nifi.cluster.coordination.http.StreamingEndpointResponseMerger;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
 import org.apache.nifi.cluster.manager.BulletinMerger;
 import org.apache.nifi.cluster.manager.NodeResponse;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
@@ -32,9 +35,12 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-public class BulletinBoardEndpointMerger extends AbstractSingleDTOEndpoint<BulletinBoardEntity, BulletinBoardDTO> {
+public class BulletinBoardEndpointMerger extends AbstractSingleDTOEndpoint<BulletinBoardEntity, BulletinBoardDTO> implements StreamingEndpointResponseMerger {
     public static final Pattern BULLETIN_BOARD_URI_PATTERN = Pattern.compile("/nifi-api/flow/bulletin-board");
 
+    private static final StreamingEntityReader<BulletinBoardEntity, BulletinEntity> ENTITY_READER =
+        new StreamingEntityReader<>(BulletinBoardEntity.class, BulletinEntity.class, "bulletinBoard", "bulletins");
+
     @Override
     public boolean canHandle(URI uri, String method) {
         return "GET".equalsIgnoreCase(method) && BULLETIN_BOARD_URI_PATTERN.matcher(uri.getPath()).matches();
@@ -50,6 +56,11 @@ public class BulletinBoardEndpointMerger extends AbstractSingleDTOEndpoint<Bulle
         return entity.getBulletinBoard();
     }
 
+    @Override
+    public StreamingResponseMerge createStreamingMerge(final URI uri, final String method) {
+        return canHandle(uri, method) ? new StreamingBulletinBoardMerge(this) : null;
+    }
+
     @Override
     protected void mergeResponses(BulletinBoardDTO clientDto, Map<NodeIdentifier, BulletinBoardDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses) {
         final Map<NodeIdentifier, List<BulletinEntity>> bulletinEntities = new HashMap<>();
@@ -64,4 +75,41 @@ public class BulletinBoardEndpointMerger extends AbstractSingleDTOEndpoint<Bulle
         clientDto.setBulletins(BulletinMerger.mergeBulletins(bulletinEntities, dtoMap.size()));
     }
 
+    /**
+     * Bulletins are grouped across all nodes when they are merged, so every bulletin is retained, but each is held only as a
+     * parsed BulletinEntity rather than also as part of the node's buffered response.
+     */
+    private static class StreamingBulletinBoardMerge extends StreamingDTOMerge<BulletinBoardEntity, BulletinBoardDTO, BulletinEntity> {
+        private final Map<NodeIdentifier, List<BulletinEntity>> bulletinEntities = new HashMap<>();
+
+        StreamingBulletinBoardMerge(final BulletinBoardEndpointMerger endpointMerger) {
+            super(endpointMerger, ENTITY_READER);
+        }
+
+        @Override
+        protected NodeElements<BulletinBoardDTO, BulletinEntity> createNodeElements(final NodeIdentifier nodeId) {
+            final List<BulletinEntity> nodeBulletins = new ArrayList<>();
+            return new NodeElements<>() {
+                @Override
+                public void addElement(final JsonNode entityPrefix, final BulletinEntity bulletin) {
+                    nodeBulletins.add(bulletin);
+                }
+
+                @Override
+                public void nodeCompleted(final BulletinBoardDTO nodeDto) {
+                    bulletinEntities.put(nodeId, nodeBulletins);
+                }
+            };
+        }
+
+        @Override
+        protected void restoreElements(final BulletinBoardDTO clientDto, final Map<NodeIdentifier, BulletinBoardDTO> dtoMap) {
+            for (final Map.Entry<NodeIdentifier, BulletinBoardDTO> entry : dtoMap.entrySet()) {
+                final List<BulletinEntity> nodeBulletins = bulletinEntities.get(entry.getKey());
+                if (nodeBulletins != null) {
+                    entry.getValue().setBulletins(nodeBulletins);
+                }
+            }
+        }
+    }
 }
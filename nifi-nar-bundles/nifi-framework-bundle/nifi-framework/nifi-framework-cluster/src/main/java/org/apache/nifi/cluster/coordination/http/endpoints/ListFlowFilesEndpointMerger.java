@@ -27,6 +27,9 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.nifi.cluster.coordination.http.StreamingEndpointResponseMerger;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
 import org.apache.nifi.cluster.manager.NodeResponse;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.controller.queue.ListFlowFileState;
@@ -35,10 +38,36 @@ import org.apache.nifi.web.api.dto.ListingRequestDTO;
 import org.apache.nifi.web.api.dto.QueueSizeDTO;
 import org.apache.nifi.web.api.entity.ListingRequestEntity;
 
-public class ListFlowFilesEndpointMerger extends AbstractSingleDTOEndpoint<ListingRequestEntity, ListingRequestDTO> {
+public class ListFlowFilesEndpointMerger extends AbstractSingleDTOEndpoint<ListingRequestEntity, ListingRequestDTO> implements StreamingEndpointResponseMerger {
     public static final Pattern LISTING_REQUESTS_URI = Pattern.compile("/nifi-api/flowfile-queues/[a-f0-9\\-]{36}/listing-requests");
     public static final Pattern LISTING_REQUEST_URI = Pattern.compile("/nifi-api/flowfile-queues/[a-f0-9\\-]{36}/listing-requests/[a-f0-9\\-]{36}");
 
+    private static final Comparator<FlowFileSummaryDTO> SUMMARY_COMPARATOR = new Comparator<FlowFileSummaryDTO>() {
+        @Override
+        public int compare(final FlowFileSummaryDTO dto1, final FlowFileSummaryDTO dto2) {
+            int positionCompare = dto1.getPosition().compareTo(dto2.getPosition());
+            if (positionCompare != 0) {
+                return positionCompare;
+            }
+
+            final String address1 = dto1.getClusterNodeAddress();
+            final String address2 = dto2.getClusterNodeAddress();
+            if (address1 == null && address2 == null) {
+                return 0;
+            }
+            if (address1 == null) {
+                return 1;
+            }
+            if (address2 == null) {
+                return -1;
+            }
+            return address1.compareTo(address2);
+        }
+    };
+
+    private static final StreamingEntityReader<ListingRequestEntity, FlowFileSummaryDTO> ENTITY_READER =
+        new StreamingEntityReader<>(ListingRequestEntity.class, FlowFileSummaryDTO.class, "listingRequest", "flowFileSummaries");
+
     @Override
     public boolean canHandle(URI uri, String method) {
         if (("GET".equalsIgnoreCase(method) || "DELETE".equalsIgnoreCase(method)) && LISTING_REQUEST_URI.matcher(uri.getPath()).matches()) {
@@ -61,31 +90,18 @@ public class ListFlowFilesEndpointMerger extends AbstractSingleDTOEndpoint<Listi
     }
 
     @Override
-    protected void mergeResponses(ListingRequestDTO clientDto, Map<NodeIdentifier, ListingRequestDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses) {
-        final Comparator<FlowFileSummaryDTO> comparator = new Comparator<FlowFileSummaryDTO>() {
-            @Override
-            public int compare(final FlowFileSummaryDTO dto1, final FlowFileSummaryDTO dto2) {
-                int positionCompare = dto1.getPosition().compareTo(dto2.getPosition());
-                if (positionCompare != 0) {
-                    return positionCompare;
-                }
+    public StreamingResponseMerge createStreamingMerge(final URI uri, final String method) {
+        // Only the retrieval of a listing request returns the FlowFile Summaries of every node
+        if ("GET".equalsIgnoreCase(method) && canHandle(uri, method)) {
+            return new StreamingListingMerge(this);
+        }
 
-                final String address1 = dto1.getClusterNodeAddress();
-                final String address2 = dto2.getClusterNodeAddress();
-                if (address1 == null && address2 == null) {
-                    return 0;
-                }
-                if (address1 == null) {
-                    return 1;
-                }
-                if (address2 == null) {
-                    return -1;
-                }
-                return address1.compareTo(address2);
-            }
-        };
+        return null;
+    }
 
-        final NavigableSet<FlowFileSummaryDTO> flowFileSummaries = new TreeSet<>(comparator);
+    @Override
+    protected void mergeResponses(ListingRequestDTO clientDto, Map<NodeIdentifier, ListingRequestDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses) {
+        final NavigableSet<FlowFileSummaryDTO> flowFileSummaries = new TreeSet<>(SUMMARY_COMPARATOR);
 
         ListFlowFileState state = null;
         int numStepsCompleted = 0;
@@ -95,8 +111,6 @@ public class ListFlowFilesEndpointMerger extends AbstractSingleDTOEndpoint<Listi
         boolean finished = true;
         for (final Map.Entry<NodeIdentifier, ListingRequestDTO> entry : dtoMap.entrySet()) {
             final NodeIdentifier nodeIdentifier = entry.getKey();
-            final String nodeAddress = nodeIdentifier.getApiAddress() + ":" + nodeIdentifier.getApiPort();
-
             final ListingRequestDTO nodeRequest = entry.getValue();
 
             numStepsTotal++;
@@ -124,11 +138,7 @@ public class ListFlowFilesEndpointMerger extends AbstractSingleDTOEndpoint<Listi
 
             if (nodeRequest.getFlowFileSummaries() != null) {
                 for (final FlowFileSummaryDTO summaryDTO : nodeRequest.getFlowFileSummaries()) {
-                    if (summaryDTO.getClusterNodeId() == null || summaryDTO.getClusterNodeAddress() == null) {
-                        summaryDTO.setClusterNodeId(nodeIdentifier.getId());
-                        summaryDTO.setClusterNodeAddress(nodeAddress);
-                    }
-
+                    populateClusterIdentifiers(summaryDTO, nodeIdentifier);
                     flowFileSummaries.add(summaryDTO);
 
                     // Keep the set from growing beyond our max
@@ -155,4 +165,80 @@ public class ListFlowFilesEndpointMerger extends AbstractSingleDTOEndpoint<Listi
         clientDto.getQueueSize().setObjectCount(objectCount);
     }
 
+    private static void populateClusterIdentifiers(final FlowFileSummaryDTO summaryDTO, final NodeIdentifier nodeIdentifier) {
+        if (summaryDTO.getClusterNodeId() == null || summaryDTO.getClusterNodeAddress() == null) {
+            summaryDTO.setClusterNodeId(nodeIdentifier.getId());
+            summaryDTO.setClusterNodeAddress(nodeIdentifier.getApiAddress() + ":" + nodeIdentifier.getApiPort());
+        }
+    }
+
+    /**
+     * Retains only the FlowFile Summaries at the front of the queues of all nodes, up to the maximum number of results of the listing,
+     * as the summaries are received.
+     */
+    private static class StreamingListingMerge extends StreamingDTOMerge<ListingRequestEntity, ListingRequestDTO, FlowFileSummaryDTO> {
+        private final NavigableSet<FlowFileSummaryDTO> flowFileSummaries = new TreeSet<>(SUMMARY_COMPARATOR);
+        private Integer maxResults;
+
+        StreamingListingMerge(final ListFlowFilesEndpointMerger endpointMerger) {
+            super(endpointMerger, ENTITY_READER);
+        }
+
+        @Override
+        protected NodeElements<ListingRequestDTO, FlowFileSummaryDTO> createNodeElements(final NodeIdentifier nodeId) {
+            return new NodeSummaries(nodeId);
+        }
+
+        private static void dropExcessSummaries(final NavigableSet<FlowFileSummaryDTO> summaries, final Integer maxResults) {
+            if (maxResults == null) {
+                return;
+            }
+
+            while (summaries.size() > maxResults) {
+                summaries.pollLast();
+            }
+        }
+
+        @Override
+        protected void restoreElements(final ListingRequestDTO clientDto, final Map<NodeIdentifier, ListingRequestDTO> dtoMap) {
+            clientDto.setFlowFileSummaries(new ArrayList<>(flowFileSummaries));
+        }
+
+        /**
+         * Retains the FlowFile summaries of a single node that can be among the merged summaries, which is at most the maximum number of results
+         */
+        private class NodeSummaries implements NodeElements<ListingRequestDTO, FlowFileSummaryDTO> {
+            private final NodeIdentifier nodeId;
+            private final NavigableSet<FlowFileSummaryDTO> nodeSummaries = new TreeSet<>(SUMMARY_COMPARATOR);
+            private Integer nodeMaxResults;
+
+            private NodeSummaries(final NodeIdentifier nodeId) {
+                this.nodeId = nodeId;
+            }
+
+            @Override
+            public void addElement(final JsonNode entityPrefix, final FlowFileSummaryDTO summaryDTO) {
+                if (nodeMaxResults == null) {
+                    final JsonNode maxResultsNode = entityPrefix.at("/listingRequest/maxResults");
+                    if (maxResultsNode.isNumber()) {
+                        nodeMaxResults = maxResultsNode.intValue();
+                    }
+                }
+
+                populateClusterIdentifiers(summaryDTO, nodeId);
+                nodeSummaries.add(summaryDTO);
+                dropExcessSummaries(nodeSummaries, nodeMaxResults);
+            }
+
+            @Override
+            public void nodeCompleted(final ListingRequestDTO nodeDto) {
+                if (maxResults == null) {
+                    maxResults = nodeDto.getMaxResults();
+                }
+
+                flowFileSummaries.addAll(nodeSummaries);
+                dropExcessSummaries(flowFileSummaries, maxResults);
+            }
+        }
+    }
 }
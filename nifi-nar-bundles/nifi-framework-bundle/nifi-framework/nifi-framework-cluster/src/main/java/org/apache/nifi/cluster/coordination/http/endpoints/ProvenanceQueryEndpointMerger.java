@@ -17,7 +17,9 @@
 
 package org.apache.nifi.cluster.coordination.http.endpoints;
 
-import org.apache.nifi.cluster.coordination.http.EndpointResponseMerger;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.nifi.cluster.coordination.http.StreamingEndpointResponseMerger;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
 import org.apache.nifi.cluster.manager.NodeResponse;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.util.FormatUtils;
@@ -32,17 +34,51 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
+public class ProvenanceQueryEndpointMerger extends AbstractSingleDTOEndpoint<ProvenanceEntity, ProvenanceDTO> implements StreamingEndpointResponseMerger {
     public static final String PROVENANCE_URI = "/nifi-api/provenance";
     public static final Pattern PROVENANCE_QUERY_URI = Pattern.compile("/nifi-api/provenance/[a-f0-9\\-]{36}");
 
+    // We do a sort based on time, such that the newest are included. If 2 events have the same timestamp, we do a secondary
+    // sort based on Cluster Node Identifier. If those are equal, we perform a tertiary sort based on the the event id
+    private static final Comparator<ProvenanceEventDTO> EVENT_COMPARATOR = new Comparator<ProvenanceEventDTO>() {
+        @Override
+        public int compare(final ProvenanceEventDTO o1, final ProvenanceEventDTO o2) {
+            final int eventTimeComparison = o1.getEventTime().compareTo(o2.getEventTime());
+            if (eventTimeComparison != 0) {
+                return -eventTimeComparison;
+            }
+
+            final String nodeId1 = o1.getClusterNodeId();
+            final String nodeId2 = o2.getClusterNodeId();
+            final int nodeIdComparison;
+            if (nodeId1 == null && nodeId2 == null) {
+                nodeIdComparison = 0;
+            } else if (nodeId1 == null) {
+                nodeIdComparison = 1;
+            } else if (nodeId2 == null) {
+                nodeIdComparison = -1;
+            } else {
+                nodeIdComparison = -nodeId1.compareTo(nodeId2);
+            }
+
+            if (nodeIdComparison != 0) {
+                return nodeIdComparison;
+            }
+
+            return -Long.compare(o1.getEventId(), o2.getEventId());
+        }
+    };
+
+    private static final StreamingEntityReader<ProvenanceEntity, ProvenanceEventDTO> ENTITY_READER =
+        new StreamingEntityReader<>(ProvenanceEntity.class, ProvenanceEventDTO.class, "provenance", "results", "provenanceEvents");
+
     @Override
     public boolean canHandle(URI uri, String method) {
         if ("POST".equalsIgnoreCase(method) && PROVENANCE_URI.equals(uri.getPath())) {
@@ -55,26 +91,26 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
 
 
     @Override
-    public NodeResponse merge(URI uri, String method, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses, NodeResponse clientResponse) {
-        if (!canHandle(uri, method)) {
-            throw new IllegalArgumentException("Cannot use Endpoint Mapper of type " + getClass().getSimpleName() + " to map responses for URI " + uri + ", HTTP Method " + method);
-        }
+    protected Class<ProvenanceEntity> getEntityClass() {
+        return ProvenanceEntity.class;
+    }
 
-        final ProvenanceEntity responseEntity = clientResponse.getClientResponse().readEntity(ProvenanceEntity.class);
-        final ProvenanceDTO dto = responseEntity.getProvenance();
+    @Override
+    protected ProvenanceDTO getDto(final ProvenanceEntity entity) {
+        return entity.getProvenance();
+    }
 
-        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new HashMap<>();
-        for (final NodeResponse nodeResponse : successfulResponses) {
-            final ProvenanceEntity nodeResponseEntity = nodeResponse == clientResponse ? responseEntity : nodeResponse.getClientResponse().readEntity(ProvenanceEntity.class);
-            final ProvenanceDTO nodeDto = nodeResponseEntity.getProvenance();
-            dtoMap.put(nodeResponse.getNodeId(), nodeDto);
+    @Override
+    public StreamingResponseMerge createStreamingMerge(final URI uri, final String method) {
+        // The results of a query are only returned when it is retrieved; the response to the POST that submits the query is small
+        if ("GET".equalsIgnoreCase(method) && canHandle(uri, method)) {
+            return new StreamingProvenanceMerge(this);
         }
 
-        mergeResponses(dto, dtoMap, successfulResponses, problematicResponses);
-        return new NodeResponse(clientResponse, responseEntity);
+        return null;
     }
 
-
+    @Override
     protected void mergeResponses(ProvenanceDTO clientDto, Map<NodeIdentifier, ProvenanceDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses) {
         final ProvenanceResultsDTO results = clientDto.getResults();
         final ProvenanceRequestDTO request = clientDto.getRequest();
@@ -98,17 +134,7 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
 
                 // populate the cluster identifier
                 for (final ProvenanceEventDTO eventDto : nodeResultDto.getProvenanceEvents()) {
-                    // if the cluster node id or node address is not set, then we need to populate them. If they
-                    // are already set, we don't want to populate them because it will be the case that they were populated
-                    // by the Cluster Coordinator when it federated the request, and we are now just receiving the response
-                    // from the Cluster Coordinator.
-                    if (eventDto.getClusterNodeId() == null || eventDto.getClusterNodeAddress() == null) {
-                        eventDto.setClusterNodeId(nodeIdentifier.getId());
-                        eventDto.setClusterNodeAddress(nodeAddress);
-                        // add node identifier to the event's id so that it is unique across cluster
-                        eventDto.setId(nodeIdentifier.getId() + eventDto.getId());
-                    }
-
+                    populateClusterIdentifiers(eventDto, nodeIdentifier);
                     allResults.add(eventDto);
                 }
             }
@@ -138,37 +164,8 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
         }
 
         // Since we get back up to the maximum number of results from each node, we need to sort those values and then
-        // grab only the first X number of them. We do a sort based on time, such that the newest are included.
-        // If 2 events have the same timestamp, we do a secondary sort based on Cluster Node Identifier. If those are
-        // equal, we perform a tertiary sort based on the the event id
-        Collections.sort(allResults, new Comparator<ProvenanceEventDTO>() {
-            @Override
-            public int compare(final ProvenanceEventDTO o1, final ProvenanceEventDTO o2) {
-                final int eventTimeComparison = o1.getEventTime().compareTo(o2.getEventTime());
-                if (eventTimeComparison != 0) {
-                    return -eventTimeComparison;
-                }
-
-                final String nodeId1 = o1.getClusterNodeId();
-                final String nodeId2 = o2.getClusterNodeId();
-                final int nodeIdComparison;
-                if (nodeId1 == null && nodeId2 == null) {
-                    nodeIdComparison = 0;
-                } else if (nodeId1 == null) {
-                    nodeIdComparison = 1;
-                } else if (nodeId2 == null) {
-                    nodeIdComparison = -1;
-                } else {
-                    nodeIdComparison = -nodeId1.compareTo(nodeId2);
-                }
-
-                if (nodeIdComparison != 0) {
-                    return nodeIdComparison;
-                }
-
-                return -Long.compare(o1.getEventId(), o2.getEventId());
-            }
-        });
+        // grab only the first X number of them.
+        Collections.sort(allResults, EVENT_COMPARATOR);
 
         final int maxResults = request.getMaxResults().intValue();
         final List<ProvenanceEventDTO> selectedResults;
@@ -197,4 +194,101 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
         clientDto.setPercentCompleted(percentageComplete);
         clientDto.setFinished(finished);
     }
+
+    private static void populateClusterIdentifiers(final ProvenanceEventDTO eventDto, final NodeIdentifier nodeIdentifier) {
+        // if the cluster node id or node address is not set, then we need to populate them. If they
+        // are already set, we don't want to populate them because it will be the case that they were populated
+        // by the Cluster Coordinator when it federated the request, and we are now just receiving the response
+        // from the Cluster Coordinator.
+        if (eventDto.getClusterNodeId() == null || eventDto.getClusterNodeAddress() == null) {
+            eventDto.setClusterNodeId(nodeIdentifier.getId());
+            eventDto.setClusterNodeAddress(nodeIdentifier.getApiAddress() + ":" + nodeIdentifier.getApiPort());
+            // add node identifier to the event's id so that it is unique across cluster
+            eventDto.setId(nodeIdentifier.getId() + eventDto.getId());
+        }
+    }
+
+    /**
+     * Retains only the newest events across all nodes, up to the maximum number of results of the query, as the events are received.
+     */
+    private static class StreamingProvenanceMerge extends StreamingDTOMerge<ProvenanceEntity, ProvenanceDTO, ProvenanceEventDTO> {
+        // ordered such that the head of the queue is the retained event that would be the first to be dropped
+        private final PriorityQueue<ProvenanceEventDTO> selectedEvents = new PriorityQueue<>(EVENT_COMPARATOR.reversed());
+        private Integer maxResults;
+
+        StreamingProvenanceMerge(final ProvenanceQueryEndpointMerger endpointMerger) {
+            super(endpointMerger, ENTITY_READER);
+        }
+
+        @Override
+        protected NodeElements<ProvenanceDTO, ProvenanceEventDTO> createNodeElements(final NodeIdentifier nodeId) {
+            return new NodeEvents(nodeId);
+        }
+
+        private static void dropExcessEvents(final PriorityQueue<ProvenanceEventDTO> events, final Integer maxResults) {
+            if (maxResults == null) {
+                return;
+            }
+
+            while (events.size() > maxResults) {
+                events.poll();
+            }
+        }
+
+        @Override
+        protected void restoreElements(final ProvenanceDTO clientDto, final Map<NodeIdentifier, ProvenanceDTO> dtoMap) {
+            // the events are merged regardless of which node they came from, so they can all be given to the client DTO
+            final ProvenanceResultsDTO clientResults = clientDto.getResults();
+            if (clientResults != null && clientResults.getProvenanceEvents() != null) {
+                clientResults.setProvenanceEvents(new ArrayList<>(selectedEvents));
+                return;
+            }
+
+            for (final ProvenanceDTO nodeDto : dtoMap.values()) {
+                final ProvenanceResultsDTO nodeResults = nodeDto.getResults();
+                if (nodeResults != null && nodeResults.getProvenanceEvents() != null) {
+                    nodeResults.setProvenanceEvents(new ArrayList<>(selectedEvents));
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Retains the events of a single node that can be among the selected events, which is at most the maximum number of results
+         */
+        private class NodeEvents implements NodeElements<ProvenanceDTO, ProvenanceEventDTO> {
+            private final NodeIdentifier nodeId;
+            private final PriorityQueue<ProvenanceEventDTO> nodeEvents = new PriorityQueue<>(EVENT_COMPARATOR.reversed());
+            private Integer nodeMaxResults;
+
+            private NodeEvents(final NodeIdentifier nodeId) {
+                this.nodeId = nodeId;
+            }
+
+            @Override
+            public void addElement(final JsonNode entityPrefix, final ProvenanceEventDTO eventDto) {
+                if (nodeMaxResults == null) {
+                    // the request precedes the results in the response, so the maximum is normally known before the first event
+                    final JsonNode maxResultsNode = entityPrefix.at("/provenance/request/maxResults");
+                    if (maxResultsNode.isNumber()) {
+                        nodeMaxResults = maxResultsNode.intValue();
+                    }
+                }
+
+                populateClusterIdentifiers(eventDto, nodeId);
+                nodeEvents.add(eventDto);
+                dropExcessEvents(nodeEvents, nodeMaxResults);
+            }
+
+            @Override
+            public void nodeCompleted(final ProvenanceDTO nodeDto) {
+                if (maxResults == null && nodeDto.getRequest() != null) {
+                    maxResults = nodeDto.getRequest().getMaxResults();
+                }
+
+                selectedEvents.addAll(nodeEvents);
+                dropExcessEvents(selectedEvents, maxResults);
+            }
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
+import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.web.api.entity.Entity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * A StreamingResponseMerge for the endpoints whose responses are merged by an {@link AbstractSingleDTOEndpoint} and whose size is
+ * dominated by a single array, such as the events of a Provenance Query. As each node's response is read, the elements of that array
+ * are handed to the {@link NodeElements} that {@link #createNodeElements(NodeIdentifier)} created for the node, which retains only those
+ * that can contribute to the merged result, while the remainder of each node's entity is kept so that it can be merged once all nodes
+ * have responded.
+ * </p>
+ *
+ * <p>
+ * The elements of a node are incorporated into the merged result only once the node's response has been read in full, so a node whose
+ * response cannot be read, for instance because the connection is reset part way through, contributes none of its elements.
+ * </p>
+ *
+ * <p>
+ * When the merge completes, the retained elements are put back into the DTOs by {@link #restoreElements(Object, Map)} and the
+ * DTOs are merged by the endpoint's {@link AbstractSingleDTOEndpoint#mergeResponses(Object, Map, Set, Set) mergeResponses}, so the
+ * merged response is the same as if every node's entity had been read in full.
+ * </p>
+ */
+abstract class StreamingDTOMerge<EntityType extends Entity, DtoType, ElementType> implements StreamingResponseMerge {
+    private final AbstractSingleDTOEndpoint<EntityType, DtoType> endpointMerger;
+    private final StreamingEntityReader<EntityType, ElementType> entityReader;
+    private final Map<NodeIdentifier, EntityType> nodeEntities = new HashMap<>(); // guarded by synchronizing on this
+
+    StreamingDTOMerge(final AbstractSingleDTOEndpoint<EntityType, DtoType> endpointMerger, final StreamingEntityReader<EntityType, ElementType> entityReader) {
+        this.endpointMerger = endpointMerger;
+        this.entityReader = entityReader;
+    }
+
+    @Override
+    public void addResponse(final NodeIdentifier nodeId, final InputStream responseBody) throws IOException {
+        // parse outside of the lock so that the responses of all nodes are parsed concurrently
+        final NodeElements<DtoType, ElementType> nodeElements = createNodeElements(nodeId);
+        final EntityType entity = entityReader.read(responseBody, nodeElements::addElement);
+        onEntity(nodeId, entity, nodeElements);
+    }
+
+    private synchronized void onEntity(final NodeIdentifier nodeId, final EntityType entity, final NodeElements<DtoType, ElementType> nodeElements) {
+        nodeEntities.put(nodeId, entity);
+        nodeElements.nodeCompleted(endpointMerger.getDto(entity));
+    }
+
+    @Override
+    public synchronized NodeResponse merge(final Set<NodeResponse> successfulResponses, final Set<NodeResponse> problematicResponses, final NodeResponse clientResponse) {
+        final EntityType clientEntity = nodeEntities.get(clientResponse.getNodeId());
+        if (clientEntity == null) {
+            // the chosen response had no body, so there is nothing to merge into
+            return clientResponse;
+        }
+
+        final Map<NodeIdentifier, DtoType> dtoMap = new HashMap<>();
+        for (final NodeResponse nodeResponse : successfulResponses) {
+            final EntityType nodeEntity = nodeEntities.get(nodeResponse.getNodeId());
+            if (nodeEntity != null) {
+                dtoMap.put(nodeResponse.getNodeId(), endpointMerger.getDto(nodeEntity));
+            }
+        }
+
+        final DtoType clientDto = endpointMerger.getDto(clientEntity);
+        restoreElements(clientDto, dtoMap);
+        endpointMerger.mergeResponses(clientDto, dtoMap, successfulResponses, problematicResponses);
+        return new NodeResponse(clientResponse, clientEntity);
+    }
+
+    /**
+     * Creates the holder of the elements of the given node's response
+     *
+     * @param nodeId the identifier of the node
+     * @return the holder of the node's elements
+     */
+    protected abstract NodeElements<DtoType, ElementType> createNodeElements(NodeIdentifier nodeId);
+
+    /**
+     * Puts the retained elements back into the DTOs so that they can be merged
+     *
+     * @param clientDto the DTO that the responses are to be merged into
+     * @param dtoMap the DTOs of all nodes, including the client DTO
+     */
+    protected abstract void restoreElements(DtoType clientDto, Map<NodeIdentifier, DtoType> dtoMap);
+
+    /**
+     * Holds the elements of the streamed array from a single node's response until the response has been read in full
+     */
+    protected interface NodeElements<DtoType, ElementType> {
+        /**
+         * Retains the given element if it can contribute to the merged result. Invoked by the thread that reads the node's response,
+         * without synchronizing on the merge.
+         *
+         * @param entityPrefix the portion of the node's entity that precedes the element in the response
+         * @param element the element
+         */
+        void addElement(JsonNode entityPrefix, ElementType element);
+
+        /**
+         * Incorporates the retained elements into the merged result. Invoked, while synchronized on the merge, once the node's response
+         * has been read in full.
+         *
+         * @param nodeDto the node's DTO, whose streamed array is empty
+         */
+        void nodeCompleted(DtoType nodeDto);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonInclude.Value;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Reads an Entity from the JSON body of a node's response, providing each element of one array within the Entity to a consumer
+ * as soon as the element has been parsed. The elements of the array are not retained, so the Entity that is returned contains an
+ * empty array in their place, and the largest part of the response never needs to be held in memory in its entirety.
+ * </p>
+ *
+ * <p>
+ * Each element is provided along with the portion of the Entity that precedes the array in the JSON, so that any values that are
+ * needed in order to make use of the elements, such as the maximum number of results, are available as the elements are received.
+ * </p>
+ */
+class StreamingEntityReader<EntityType, ElementType> {
+    // configured in the same way as the codec that the replication client uses to read entities
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+    private final Class<EntityType> entityClass;
+    private final Class<ElementType> elementClass;
+    private final List<String> arrayPath;
+
+    /**
+     * @param entityClass the type of Entity to read
+     * @param elementClass the type of the elements of the array
+     * @param arrayPath the names of the fields that lead from the root of the Entity to the array whose elements are to be streamed
+     */
+    StreamingEntityReader(final Class<EntityType> entityClass, final Class<ElementType> elementClass, final String... arrayPath) {
+        if (arrayPath.length == 0) {
+            throw new IllegalArgumentException("The path to the array to stream must be provided");
+        }
+
+        this.entityClass = entityClass;
+        this.elementClass = elementClass;
+        this.arrayPath = Arrays.asList(arrayPath);
+    }
+
+    /**
+     * Reads the Entity from the given stream, providing each element of the array to the given consumer as it is read
+     *
+     * @param in the stream to read the JSON from
+     * @param elementConsumer the consumer of the elements of the array
+     * @return the Entity, whose array is empty
+     * @throws IOException if unable to read or parse the JSON
+     */
+    EntityType read(final InputStream in, final ElementConsumer<ElementType> elementConsumer) throws IOException {
+        try (final JsonParser parser = OBJECT_MAPPER.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected response body to contain a JSON object but found " + parser.currentToken());
+            }
+
+            final ObjectNode root = OBJECT_MAPPER.createObjectNode();
+            readObject(parser, root, root, 0, elementConsumer);
+            return OBJECT_MAPPER.treeToValue(root, entityClass);
+        }
+    }
+
+    private void readObject(final JsonParser parser, final ObjectNode root, final ObjectNode node, final int depth, final ElementConsumer<ElementType> elementConsumer)
+            throws IOException {
+
+        final String pathElement = depth < arrayPath.size() ? arrayPath.get(depth) : null;
+        final boolean arrayDepth = depth == arrayPath.size() - 1;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            final String fieldName = parser.currentName();
+            final JsonToken valueToken = parser.nextToken();
+
+            if (fieldName.equals(pathElement)) {
+                if (arrayDepth && valueToken == JsonToken.START_ARRAY) {
+                    // leave an empty array in the tree so that the Entity indicates that the array was present
+                    node.putArray(fieldName);
+                    readElements(parser, root, elementConsumer);
+                    continue;
+                } else if (!arrayDepth && valueToken == JsonToken.START_OBJECT) {
+                    // attach the child before reading it so that the fields read so far are visible to the element consumer
+                    readObject(parser, root, node.putObject(fieldName), depth + 1, elementConsumer);
+                    continue;
+                }
+            }
+
+            node.set(fieldName, parser.readValueAsTree());
+        }
+
+        verifyToken(token, JsonToken.END_OBJECT);
+    }
+
+    private void readElements(final JsonParser parser, final JsonNode root, final ElementConsumer<ElementType> elementConsumer) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            verifyToken(token, JsonToken.START_OBJECT, JsonToken.VALUE_NULL);
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            final ElementType element = parser.readValueAs(elementClass);
+            elementConsumer.accept(root, element);
+        }
+    }
+
+    private static void verifyToken(final JsonToken token, final JsonToken... expectedTokens) throws IOException {
+        for (final JsonToken expectedToken : expectedTokens) {
+            if (token == expectedToken) {
+                return;
+            }
+        }
+
+        if (token == null) {
+            throw new IOException("Response body ended before the JSON was complete");
+        }
+
+        throw new IOException("Expected one of " + Arrays.toString(expectedTokens) + " in response body but found " + token);
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setDefaultPropertyInclusion(Value.construct(Include.NON_NULL, Include.ALWAYS));
+        objectMapper.setAnnotationIntrospector(new JaxbAnnotationIntrospector(objectMapper.getTypeFactory()));
+        return objectMapper;
+    }
+
+    /**
+     * Consumes the elements of the array as they are read
+     */
+    @FunctionalInterface
+    interface ElementConsumer<ElementType> {
+        /**
+         * @param entityPrefix the portion of the Entity that has been read before the element, as a JSON tree
+         * @param element the element
+         */
+        void accept(JsonNode entityPrefix, ElementType element);
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.nifi.cluster.coordination.http.replication;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import javax.ws.rs.core.Response;
@@ -28,4 +29,25 @@ public interface HttpReplicationClient {
 
     Response replicate(PreparedRequest request, String uri) throws IOException;
 
+    /**
+     * Replicates the request, providing the body of a successful (2xx) response to the given consumer as it is received.
+     * The Response that is returned has no entity if the body was provided to the consumer.
+     *
+     * @param request the prepared request
+     * @param uri the URI to replicate the request to
+     * @param bodyConsumer the consumer of the body of a successful response
+     * @return the response, without the body if the response was successful
+     * @throws IOException if unable to replicate the request or if the consumer fails to consume the response body
+     */
+    default Response replicate(final PreparedRequest request, final String uri, final ResponseBodyConsumer bodyConsumer) throws IOException {
+        final Response response = replicate(request, uri);
+        if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL && response.hasEntity()) {
+            try (final InputStream responseBody = response.readEntity(InputStream.class)) {
+                bodyConsumer.consume(responseBody);
+            }
+        }
+
+        return response;
+    }
+
 }
@@ -29,6 +29,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.nifi.cluster.coordination.http.HttpResponseMapper;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
 import org.apache.nifi.cluster.manager.NodeResponse;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.slf4j.Logger;
@@ -51,6 +52,7 @@ public class StandardAsyncClusterResponse implements AsyncClusterResponse {
     private final Runnable completedResultFetchedCallback;
     private final long creationTimeNanos;
     private final boolean merge;
+    private final StreamingResponseMerge streamingMerge;
     private final AtomicInteger responseBufferLeft;
 
     private final Map<NodeIdentifier, ResponseHolder> responseMap = new HashMap<>();
@@ -66,16 +68,28 @@ public class StandardAsyncClusterResponse implements AsyncClusterResponse {
 
     public StandardAsyncClusterResponse(final String id, final URI uri, final String method, final Set<NodeIdentifier> nodeIds, final HttpResponseMapper responseMapper,
         final CompletionCallback completionCallback, final Runnable completedResultFetchedCallback, final boolean merge) {
-        this(id, uri, method, nodeIds, responseMapper, completionCallback, completedResultFetchedCallback, merge, DEFAULT_RESPONSE_BUFFER_SIZE);
+        this(id, uri, method, nodeIds, responseMapper, completionCallback, completedResultFetchedCallback, merge, null);
+    }
+
+    public StandardAsyncClusterResponse(final String id, final URI uri, final String method, final Set<NodeIdentifier> nodeIds, final HttpResponseMapper responseMapper,
+        final CompletionCallback completionCallback, final Runnable completedResultFetchedCallback, final boolean merge, final StreamingResponseMerge streamingMerge) {
+        this(id, uri, method, nodeIds, responseMapper, completionCallback, completedResultFetchedCallback, merge, streamingMerge, DEFAULT_RESPONSE_BUFFER_SIZE);
     }
 
     public StandardAsyncClusterResponse(final String id, final URI uri, final String method, final Set<NodeIdentifier> nodeIds, final HttpResponseMapper responseMapper,
         final CompletionCallback completionCallback, final Runnable completedResultFetchedCallback, final boolean merge, final int responseBufferSize) {
+        this(id, uri, method, nodeIds, responseMapper, completionCallback, completedResultFetchedCallback, merge, null, responseBufferSize);
+    }
+
+    public StandardAsyncClusterResponse(final String id, final URI uri, final String method, final Set<NodeIdentifier> nodeIds, final HttpResponseMapper responseMapper,
+        final CompletionCallback completionCallback, final Runnable completedResultFetchedCallback, final boolean merge, final StreamingResponseMerge streamingMerge,
+        final int responseBufferSize) {
         this.id = id;
         this.nodeIds = Collections.unmodifiableSet(new HashSet<>(nodeIds));
         this.uri = uri;
         this.method = method;
         this.merge = merge;
+        this.streamingMerge = streamingMerge;
 
         if ("POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method) || "DELETE".equalsIgnoreCase(method)) {
             phase = VERIFICATION_PHASE;
@@ -108,6 +122,14 @@ public class StandardAsyncClusterResponse implements AsyncClusterResponse {
         return true;
     }
 
+    /**
+     * @return the merge that the bodies of successful node responses should be provided to as they are received,
+     *         or <code>null</code> if the responses are to be buffered and merged once all of them have been received
+     */
+    public StreamingResponseMerge getStreamingMerge() {
+        return streamingMerge;
+    }
+
     public void setPhase(final String phase) {
         this.phase = phase;
         phaseStartTime = System.nanoTime();
@@ -216,7 +238,7 @@ public class StandardAsyncClusterResponse implements AsyncClusterResponse {
             .collect(Collectors.toSet());
 
         final long start = System.nanoTime();
-        mergedResponse = responseMapper.mapResponses(uri, method, nodeResponses, merge);
+        mergedResponse = responseMapper.mapResponses(uri, method, nodeResponses, merge, streamingMerge);
         final long nanos = System.nanoTime() - start;
         addTiming("Map/Merge Responses", "All Nodes", nanos);
 
@@ -24,6 +24,7 @@ import org.apache.nifi.authorization.user.NiFiUserUtils;
 import org.apache.nifi.cluster.coordination.ClusterCoordinator;
 import org.apache.nifi.cluster.coordination.http.HttpResponseMapper;
 import org.apache.nifi.cluster.coordination.http.StandardHttpResponseMapper;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
 import org.apache.nifi.cluster.coordination.http.endpoints.ConnectionEndpointMerger;
 import org.apache.nifi.cluster.coordination.http.endpoints.ControllerServiceEndpointMerger;
 import org.apache.nifi.cluster.coordination.http.endpoints.FlowRegistryClientEndpointMerger;
@@ -421,8 +422,12 @@ public class ThreadPoolRequestReplicator implements RequestReplicator {
 
                 final Runnable responseConsumedCallback = () -> onResponseConsumed(requestId);
 
+                // For the endpoints that support it, merge the responses of a GET request as they are received
+                // instead of holding every node's entity in memory until all nodes have responded
+                final StreamingResponseMerge streamingMerge = merge && HttpMethod.GET.equalsIgnoreCase(method) ? responseMapper.createStreamingMerge(uri, method) : null;
+
                 response = new StandardAsyncClusterResponse(requestId, uri, method, nodeIds,
-                        responseMapper, completionCallback, responseConsumedCallback, merge);
+                        responseMapper, completionCallback, responseConsumedCallback, merge, streamingMerge);
                 responseMap.put(requestId, response);
             }
 
@@ -641,8 +646,13 @@ public class ThreadPoolRequestReplicator implements RequestReplicator {
         final long startNanos = System.nanoTime();
         logger.debug("Replicating request to {} {}, request ID = {}, headers = {}", request.getMethod(), uri, requestId, request.getHeaders());
 
-        // invoke the request
-        response = httpClient.replicate(request, uri.toString());
+        // invoke the request, providing the response body to the streaming merge as it is received, if there is one
+        final StreamingResponseMerge streamingMerge = clusterResponse.getStreamingMerge();
+        if (streamingMerge == null) {
+            response = httpClient.replicate(request, uri.toString());
+        } else {
+            response = httpClient.replicate(request, uri.toString(), responseBody -> streamingMerge.addResponse(nodeId, responseBody));
+        }
 
         final long nanos = System.nanoTime() - startNanos;
         clusterResponse.addTiming("Perform HTTP Request", nodeId.toString(), nanos);
@@ -55,6 +55,7 @@ import okhttp3.RequestBody;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.cluster.coordination.http.replication.HttpReplicationClient;
 import org.apache.nifi.cluster.coordination.http.replication.PreparedRequest;
+import org.apache.nifi.cluster.coordination.http.replication.ResponseBodyConsumer;
 import org.apache.nifi.remote.protocol.http.HttpHeaders;
 import org.apache.nifi.security.util.SslContextFactory;
 import org.apache.nifi.security.util.StandardTlsConfiguration;
@@ -69,6 +70,7 @@ import org.springframework.util.StreamUtils;
 public class OkHttpReplicationClient implements HttpReplicationClient {
     private static final Logger logger = LoggerFactory.getLogger(OkHttpReplicationClient.class);
     private static final Set<String> gzipEncodings = Stream.of("gzip", "x-gzip").collect(Collectors.toSet());
+    private static final byte[] EMPTY_RESPONSE_BODY = new byte[0];
 
     private final EntitySerializer jsonSerializer;
     private final EntitySerializer xmlSerializer;
@@ -142,6 +144,33 @@ public class OkHttpReplicationClient implements HttpReplicationClient {
         return response;
     }
 
+    @Override
+    public Response replicate(final PreparedRequest request, final String uri, final ResponseBodyConsumer bodyConsumer) throws IOException {
+        if (!(Objects.requireNonNull(request) instanceof OkHttpPreparedRequest)) {
+            throw new IllegalArgumentException("Replication Client is only able to replicate requests that the client itself has prepared");
+        }
+
+        logger.debug("Replicating request {} to {}, streaming the response body", request, uri);
+        final Call call = createCall((OkHttpPreparedRequest) request, uri);
+        final okhttp3.Response callResponse = call.execute();
+        final MultivaluedMap<String, String> responseHeaders = getHeaders(callResponse);
+        logger.debug("Received response code {} with headers {} for request {} to {}", callResponse.code(), responseHeaders, request, uri);
+
+        if (!callResponse.isSuccessful()) {
+            final byte[] responseBytes = getResponseBytes(callResponse);
+            return new JacksonResponse(jsonCodec, responseBytes, responseHeaders, URI.create(uri), callResponse.code(), callResponse::close);
+        }
+
+        // Provide the body to the consumer as it is read from the socket, rather than buffering it
+        try (final InputStream responseBody = getResponseStream(callResponse)) {
+            bodyConsumer.consume(responseBody);
+        } finally {
+            callResponse.close();
+        }
+
+        return new JacksonResponse(jsonCodec, EMPTY_RESPONSE_BODY, responseHeaders, URI.create(uri), callResponse.code(), null);
+    }
+
     /**
      * Returns {@code true} if the client has TLS enabled and configured. Even clients created without explicit
      * keystore and truststore values have a default cipher suite list available, but no keys to use.
@@ -179,6 +208,17 @@ public class OkHttpReplicationClient implements HttpReplicationClient {
         }
     }
 
+    private InputStream getResponseStream(final okhttp3.Response callResponse) throws IOException {
+        final InputStream rawStream = callResponse.body().byteStream();
+
+        final String contentEncoding = callResponse.header("Content-Encoding");
+        if (gzipEncodings.contains(contentEncoding)) {
+            return new GZIPInputStream(rawStream);
+        } else {
+            return rawStream;
+        }
+    }
+
     private Call createCall(final OkHttpPreparedRequest request, final String uri) {
         Request.Builder requestBuilder = new Request.Builder();
 
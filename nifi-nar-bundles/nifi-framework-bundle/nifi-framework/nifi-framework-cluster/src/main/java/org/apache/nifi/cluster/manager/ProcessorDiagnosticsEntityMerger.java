@@ -27,6 +27,7 @@ import org.apache.nifi.web.api.dto.diagnostics.NodeJVMDiagnosticsSnapshotDTO;
 import org.apache.nifi.web.api.dto.diagnostics.ProcessorDiagnosticsDTO;
 import org.apache.nifi.web.api.dto.diagnostics.RemoteQueuePartitionDTO;
 import org.apache.nifi.web.api.dto.diagnostics.ThreadDumpDTO;
+import org.apache.nifi.web.api.dto.diagnostics.VirtualThreadDiagnosticsDTO;
 import org.apache.nifi.web.api.entity.ControllerServiceEntity;
 import org.apache.nifi.web.api.entity.ProcessorDiagnosticsEntity;
 
@@ -97,6 +98,8 @@ public class ProcessorDiagnosticsEntityMerger implements ComponentEntityMerger<P
             final JVMDiagnosticsSnapshotDTO snapshot = diagnosticsDto.getJvmDiagnostics().getAggregateSnapshot();
             StatusMerger.merge(mergedJvmDiagnosticsSnapshot, snapshot, componentStatusSnapshotMillis);
 
+            mergeVirtualThreadDiagnostics(clientDto, diagnosticsDto.getVirtualThreadDiagnostics());
+
             final List<ThreadDumpDTO> threadDumps = diagnosticsEntity.getComponent().getThreadDumps();
             for (final ThreadDumpDTO threadDump : threadDumps) {
                 threadDump.setNodeAddress(nodeId.getApiAddress());
@@ -126,6 +129,25 @@ public class ProcessorDiagnosticsEntityMerger implements ComponentEntityMerger<P
         }
     }
 
+    private void mergeVirtualThreadDiagnostics(final ProcessorDiagnosticsDTO clientDto, final VirtualThreadDiagnosticsDTO nodeDiagnostics) {
+        if (nodeDiagnostics == null) {
+            return;
+        }
+
+        final VirtualThreadDiagnosticsDTO merged = clientDto.getVirtualThreadDiagnostics();
+        if (merged == null) {
+            clientDto.setVirtualThreadDiagnostics(nodeDiagnostics);
+            return;
+        }
+
+        merged.setRunOnVirtualThreads(Boolean.TRUE.equals(merged.getRunOnVirtualThreads()) || Boolean.TRUE.equals(nodeDiagnostics.getRunOnVirtualThreads()));
+        merged.setPinnedEventCount(merged.getPinnedEventCount() + nodeDiagnostics.getPinnedEventCount());
+        merged.setPinnedMillis(merged.getPinnedMillis() + nodeDiagnostics.getPinnedMillis());
+        if (merged.getLastPinnedStackTrace() == null) {
+            merged.setLastPinnedStackTrace(nodeDiagnostics.getLastPinnedStackTrace());
+        }
+    }
+
     private void mergeConnectionDiagnostics(final ProcessorDiagnosticsEntity clientEntity, final Map<NodeIdentifier, ProcessorDiagnosticsEntity> entityMap,
                                                                      final Function<ProcessorDiagnosticsEntity, Set<ConnectionDiagnosticsDTO>> extractConnections) {
 
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.heartbeat;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.status.StatusDeltaEncoder;
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestClusterStatusModel {
+
+    private final NodeIdentifier node1 = createNodeId("node-1", 8001);
+    private final NodeIdentifier node2 = createNodeId("node-2", 8002);
+
+    @Test
+    public void testMergedStatus() {
+        final ClusterStatusModel model = new ClusterStatusModel();
+        final StatusDeltaEncoder encoder1 = new StatusDeltaEncoder();
+        final StatusDeltaEncoder encoder2 = new StatusDeltaEncoder();
+        final List<NodeIdentifier> nodeIds = Arrays.asList(node1, node2);
+
+        model.update(node1, encoder1.encode(createRootStatus(1, 10)));
+        assertNull(model.getMergedStatus(nodeIds));
+        assertNull(model.getMergedStatus(Collections.emptyList()));
+
+        model.update(node2, encoder2.encode(createRootStatus(2, 20)));
+        final ProcessGroupStatus merged = model.getMergedStatus(nodeIds);
+        assertEquals(Integer.valueOf(30), merged.getQueuedCount());
+        assertEquals(30, getConnectionStatus(merged).getQueuedCount());
+        assertEquals(3, getProcessorStatus(merged).getInvocations());
+
+        // the caller is free to modify the returned status
+        getProcessorStatus(merged).setInvocations(1000);
+        final ProcessGroupStatus unchanged = model.getMergedStatus(nodeIds);
+        assertNotSame(merged, unchanged);
+        assertEquals(3, getProcessorStatus(unchanged).getInvocations());
+
+        model.update(node2, encoder2.encode(createRootStatus(5, 20)));
+        assertEquals(6, getProcessorStatus(model.getMergedStatus(nodeIds)).getInvocations());
+        assertEquals(1, getProcessorStatus(model.getMergedStatus(Collections.singletonList(node1))).getInvocations());
+
+        model.remove(node1);
+        assertNull(model.getMergedStatus(nodeIds));
+        assertEquals(5, getProcessorStatus(model.getMergedStatus(Collections.singletonList(node2))).getInvocations());
+
+        model.clear();
+        assertNull(model.getMergedStatus(Collections.singletonList(node2)));
+    }
+
+    @Test
+    public void testMissedDelta() {
+        final ClusterStatusModel model = new ClusterStatusModel();
+        final StatusDeltaEncoder encoder = new StatusDeltaEncoder();
+        final List<NodeIdentifier> nodeIds = Collections.singletonList(node1);
+
+        model.update(node1, encoder.encode(createRootStatus(1, 10)));
+        encoder.encode(createRootStatus(2, 10));
+        model.update(node1, encoder.encode(createRootStatus(3, 10)));
+        assertNull(model.getMergedStatus(nodeIds));
+
+        encoder.reset();
+        model.update(node1, encoder.encode(createRootStatus(4, 10)));
+        assertEquals(4, getProcessorStatus(model.getMergedStatus(nodeIds)).getInvocations());
+
+        model.update(node1, new byte[] {1, 2, 3});
+        assertNull(model.getMergedStatus(nodeIds));
+    }
+
+    @Test
+    public void testMergedStatusUpdatedIncrementally() {
+        final ClusterStatusModel model = new ClusterStatusModel();
+        final StatusDeltaEncoder encoder1 = new StatusDeltaEncoder();
+        final StatusDeltaEncoder encoder2 = new StatusDeltaEncoder();
+        final List<NodeIdentifier> nodeIds = Arrays.asList(node1, node2);
+
+        model.update(node1, encoder1.encode(createRootStatus(1, 10)));
+        model.update(node2, encoder2.encode(createRootStatus(2, 20)));
+        assertEquals(3, getProcessorStatus(model.getMergedStatus(nodeIds)).getInvocations());
+
+        // add a Process Group, along with a processor in it, and another processor to an existing Process Group on one node
+        final ProcessGroupStatus expandedStatus = createRootStatus(2, 20);
+        final ProcessGroupStatus childStatus = expandedStatus.getProcessGroupStatus().iterator().next();
+        final ProcessGroupStatus grandchildStatus = createGroupStatus("grandchild", 5);
+        grandchildStatus.setProcessorStatus(Collections.singletonList(createProcessorStatus("grandchild-processor", "grandchild", 7)));
+        childStatus.setProcessGroupStatus(Collections.singletonList(grandchildStatus));
+        childStatus.setProcessorStatus(Arrays.asList(createProcessorStatus("processor", "child", 2), createProcessorStatus("added-processor", "child", 4)));
+        model.update(node2, encoder2.encode(expandedStatus));
+
+        ProcessGroupStatus merged = model.getMergedStatus(nodeIds);
+        ProcessGroupStatus mergedChild = merged.getProcessGroupStatus().iterator().next();
+        assertEquals(2, mergedChild.getProcessorStatus().size());
+        assertEquals(3, getProcessorStatus(mergedChild, "processor").getInvocations());
+        assertEquals(4, getProcessorStatus(mergedChild, "added-processor").getInvocations());
+        final ProcessGroupStatus mergedGrandchild = mergedChild.getProcessGroupStatus().iterator().next();
+        assertEquals("grandchild", mergedGrandchild.getId());
+        assertEquals(Integer.valueOf(5), mergedGrandchild.getQueuedCount());
+        assertEquals(7, mergedGrandchild.getProcessorStatus().iterator().next().getInvocations());
+
+        // update the status of the child Process Group itself, which retains its children
+        model.update(node1, encoder1.encode(createRootStatus(1, 15)));
+        merged = model.getMergedStatus(nodeIds);
+        mergedChild = merged.getProcessGroupStatus().iterator().next();
+        assertEquals(Integer.valueOf(35), merged.getQueuedCount());
+        assertEquals(Integer.valueOf(35), mergedChild.getQueuedCount());
+        assertEquals(2, mergedChild.getProcessorStatus().size());
+        assertEquals(1, mergedChild.getProcessGroupStatus().size());
+
+        // remove the added components
+        model.update(node2, encoder2.encode(createRootStatus(2, 20)));
+        merged = model.getMergedStatus(nodeIds);
+        mergedChild = merged.getProcessGroupStatus().iterator().next();
+        assertEquals(1, mergedChild.getProcessorStatus().size());
+        assertTrue(mergedChild.getProcessGroupStatus().isEmpty());
+        assertEquals(3, getProcessorStatus(merged).getInvocations());
+        assertEquals(35, getConnectionStatus(merged).getQueuedCount());
+    }
+
+    private static ProcessorStatus getProcessorStatus(final ProcessGroupStatus groupStatus, final String id) {
+        return groupStatus.getProcessorStatus().stream()
+                .filter(status -> id.equals(status.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static ProcessorStatus getProcessorStatus(final ProcessGroupStatus rootStatus) {
+        return rootStatus.getProcessGroupStatus().iterator().next().getProcessorStatus().iterator().next();
+    }
+
+    private static ConnectionStatus getConnectionStatus(final ProcessGroupStatus rootStatus) {
+        return rootStatus.getProcessGroupStatus().iterator().next().getConnectionStatus().iterator().next();
+    }
+
+    private static ProcessGroupStatus createRootStatus(final int invocations, final int queuedCount) {
+        final ProcessorStatus processorStatus = createProcessorStatus("processor", "child", invocations);
+
+        final ConnectionStatus connectionStatus = new ConnectionStatus();
+        connectionStatus.setId("connection");
+        connectionStatus.setGroupId("child");
+        connectionStatus.setSourceId("processor");
+        connectionStatus.setDestinationId("processor");
+        connectionStatus.setQueuedCount(queuedCount);
+
+        final ProcessGroupStatus childStatus = createGroupStatus("child", queuedCount);
+        childStatus.setProcessorStatus(Collections.singletonList(processorStatus));
+        childStatus.setConnectionStatus(Collections.singletonList(connectionStatus));
+
+        final ProcessGroupStatus rootStatus = createGroupStatus("root", queuedCount);
+        rootStatus.setProcessGroupStatus(Collections.singletonList(childStatus));
+        return rootStatus;
+    }
+
+    private static ProcessorStatus createProcessorStatus(final String id, final String groupId, final int invocations) {
+        final ProcessorStatus processorStatus = new ProcessorStatus();
+        processorStatus.setId(id);
+        processorStatus.setGroupId(groupId);
+        processorStatus.setName("Processor");
+        processorStatus.setInvocations(invocations);
+        return processorStatus;
+    }
+
+    private static ProcessGroupStatus createGroupStatus(final String id, final int queuedCount) {
+        final ProcessGroupStatus groupStatus = new ProcessGroupStatus();
+        groupStatus.setId(id);
+        groupStatus.setName(id);
+        groupStatus.setQueuedCount(queuedCount);
+        groupStatus.setQueuedContentSize(queuedCount * 10L);
+        groupStatus.setInputCount(0);
+        groupStatus.setInputContentSize(0L);
+        groupStatus.setOutputCount(0);
+        groupStatus.setOutputContentSize(0L);
+        groupStatus.setActiveThreadCount(0);
+        groupStatus.setTerminatedThreadCount(0);
+        groupStatus.setBytesRead(0L);
+        groupStatus.setBytesWritten(0L);
+        groupStatus.setStatelessActiveThreadCount(0);
+        return groupStatus;
+    }
+
+    private static NodeIdentifier createNodeId(final String id, final int port) {
+        return new NodeIdentifier(id, "localhost", port, "localhost", port + 1000, "localhost", port + 2000, "localhost", null, null, false);
+    }
+}
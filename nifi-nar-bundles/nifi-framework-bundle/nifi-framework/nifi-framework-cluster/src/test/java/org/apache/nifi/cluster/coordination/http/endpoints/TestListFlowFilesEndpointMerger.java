@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonInclude.Value;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
+import org.apache.nifi.cluster.coordination.http.replication.okhttp.JacksonResponse;
+import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.queue.ListFlowFileState;
+import org.apache.nifi.web.api.dto.FlowFileSummaryDTO;
+import org.apache.nifi.web.api.dto.ListingRequestDTO;
+import org.apache.nifi.web.api.dto.QueueSizeDTO;
+import org.apache.nifi.web.api.entity.ListingRequestEntity;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestListFlowFilesEndpointMerger {
+    private static final String QUEUE_ID = "01234567-89ab-cdef-0123-456789abcdef";
+    private static final String LISTING_ID = "fedcba98-7654-3210-fedc-ba9876543210";
+    private static final URI LISTING_URI = URI.create("http://localhost:8080/nifi-api/flowfile-queues/" + QUEUE_ID + "/listing-requests/" + LISTING_ID);
+    private static final int MAX_RESULTS = 10;
+
+    @Test
+    public void testStreamingMergeMatchesMerge() throws IOException {
+        final ObjectMapper codec = new ObjectMapper();
+        codec.setDefaultPropertyInclusion(Value.construct(Include.NON_NULL, Include.ALWAYS));
+        codec.setAnnotationIntrospector(new JaxbAnnotationIntrospector(codec.getTypeFactory()));
+
+        final Map<NodeIdentifier, byte[]> responseBodies = new LinkedHashMap<>();
+        final Set<NodeResponse> nodeResponses = new HashSet<>();
+        for (int nodeIndex = 1; nodeIndex <= 3; nodeIndex++) {
+            final NodeIdentifier nodeId = new NodeIdentifier("node-" + nodeIndex, "localhost", 8000 + nodeIndex, "localhost", 9000 + nodeIndex,
+                "localhost", 10000 + nodeIndex, "localhost", 11000 + nodeIndex, 12000 + nodeIndex, false);
+
+            final byte[] responseBody = codec.writeValueAsBytes(createEntity(nodeIndex));
+            responseBodies.put(nodeId, responseBody);
+
+            final JacksonResponse response = new JacksonResponse(codec, responseBody, new MultivaluedHashMap<>(), LISTING_URI, 200, null);
+            nodeResponses.add(new NodeResponse(nodeId, "GET", LISTING_URI, response, 0L, "request-1"));
+        }
+
+        final ListFlowFilesEndpointMerger merger = new ListFlowFilesEndpointMerger();
+        final NodeResponse clientResponse = nodeResponses.iterator().next();
+        final ListingRequestEntity merged = (ListingRequestEntity) merger.merge(LISTING_URI, "GET", nodeResponses, Collections.emptySet(), clientResponse).getUpdatedEntity();
+
+        final StreamingResponseMerge streamingMerge = merger.createStreamingMerge(LISTING_URI, "GET");
+        for (final Map.Entry<NodeIdentifier, byte[]> entry : responseBodies.entrySet()) {
+            streamingMerge.addResponse(entry.getKey(), new ByteArrayInputStream(entry.getValue()));
+        }
+        final ListingRequestEntity streamed = (ListingRequestEntity) streamingMerge.merge(nodeResponses, Collections.emptySet(), clientResponse).getUpdatedEntity();
+
+        final ListingRequestDTO mergedListing = merged.getListingRequest();
+        final ListingRequestDTO streamedListing = streamed.getListingRequest();
+        assertEquals(MAX_RESULTS, streamedListing.getFlowFileSummaries().size());
+        assertEquals(getSummaryKeys(mergedListing.getFlowFileSummaries()), getSummaryKeys(streamedListing.getFlowFileSummaries()));
+        assertEquals(mergedListing.getQueueSize().getObjectCount(), streamedListing.getQueueSize().getObjectCount());
+        assertEquals(mergedListing.getQueueSize().getByteCount(), streamedListing.getQueueSize().getByteCount());
+        assertEquals(mergedListing.getLastUpdated(), streamedListing.getLastUpdated());
+        assertEquals(mergedListing.getFinished(), streamedListing.getFinished());
+        assertFalse(streamedListing.getFinished());
+
+        // the FlowFiles at the front of the queue on every node are listed first
+        assertEquals(List.of("1:localhost:8001", "1:localhost:8002", "1:localhost:8003"), getSummaryKeys(streamedListing.getFlowFileSummaries()).subList(0, 3));
+    }
+
+    @Test
+    public void testStreamingMergeOnlyForRetrievedListing() {
+        final ListFlowFilesEndpointMerger merger = new ListFlowFilesEndpointMerger();
+        assertNull(merger.createStreamingMerge(LISTING_URI, "DELETE"));
+        assertNull(merger.createStreamingMerge(URI.create("http://localhost:8080/nifi-api/flowfile-queues/" + QUEUE_ID + "/listing-requests"), "POST"));
+    }
+
+    private List<String> getSummaryKeys(final List<FlowFileSummaryDTO> summaries) {
+        return summaries.stream().map(summary -> summary.getPosition() + ":" + summary.getClusterNodeAddress()).collect(Collectors.toList());
+    }
+
+    private ListingRequestEntity createEntity(final int nodeIndex) {
+        final List<FlowFileSummaryDTO> summaries = new ArrayList<>();
+        for (int position = 1; position <= MAX_RESULTS; position++) {
+            final FlowFileSummaryDTO summary = new FlowFileSummaryDTO();
+            summary.setUuid("flowfile-" + nodeIndex + "-" + position);
+            summary.setPosition(position);
+            summary.setSize(100L * position);
+            summaries.add(summary);
+        }
+
+        final QueueSizeDTO queueSize = new QueueSizeDTO();
+        queueSize.setObjectCount(MAX_RESULTS * nodeIndex);
+        queueSize.setByteCount(1000L * nodeIndex);
+
+        final ListingRequestDTO listing = new ListingRequestDTO();
+        listing.setId(LISTING_ID);
+        listing.setMaxResults(MAX_RESULTS);
+        listing.setFlowFileSummaries(summaries);
+        listing.setQueueSize(queueSize);
+        listing.setLastUpdated(new Date(1_000_000L * nodeIndex));
+        listing.setFinished(nodeIndex != 3);
+        listing.setState(nodeIndex == 3 ? ListFlowFileState.CALCULATING_LIST.toString() : ListFlowFileState.COMPLETE.toString());
+
+        final ListingRequestEntity entity = new ListingRequestEntity();
+        entity.setListingRequest(listing);
+        return entity;
+    }
+}
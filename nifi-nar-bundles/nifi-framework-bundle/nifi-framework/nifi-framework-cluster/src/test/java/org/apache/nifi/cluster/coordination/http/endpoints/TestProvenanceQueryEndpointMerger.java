@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonInclude.Value;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import org.apache.nifi.cluster.coordination.http.StreamingResponseMerge;
+import org.apache.nifi.cluster.coordination.http.replication.okhttp.JacksonResponse;
+import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceEventDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceRequestDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceResultsDTO;
+import org.apache.nifi.web.api.entity.ProvenanceEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestProvenanceQueryEndpointMerger {
+    private static final URI QUERY_URI = URI.create("http://localhost:8080/nifi-api/provenance/01234567-89ab-cdef-0123-456789abcdef");
+    private static final int MAX_RESULTS = 25;
+
+    private final ObjectMapper codec = new ObjectMapper();
+    private final ProvenanceQueryEndpointMerger merger = new ProvenanceQueryEndpointMerger();
+
+    private Map<NodeIdentifier, byte[]> responseBodies;
+    private Set<NodeResponse> nodeResponses;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        // configured in the same way as the codec of the replication client
+        codec.setDefaultPropertyInclusion(Value.construct(Include.NON_NULL, Include.ALWAYS));
+        codec.setAnnotationIntrospector(new JaxbAnnotationIntrospector(codec.getTypeFactory()));
+
+        responseBodies = new LinkedHashMap<>();
+        nodeResponses = new HashSet<>();
+        for (int nodeIndex = 1; nodeIndex <= 3; nodeIndex++) {
+            final NodeIdentifier nodeId = new NodeIdentifier("node-" + nodeIndex, "localhost", 8000 + nodeIndex, "localhost", 9000 + nodeIndex,
+                "localhost", 10000 + nodeIndex, "localhost", 11000 + nodeIndex, 12000 + nodeIndex, false);
+
+            final byte[] responseBody = codec.writeValueAsBytes(createEntity(nodeIndex, nodeIndex == 2 ? 5 : MAX_RESULTS));
+            responseBodies.put(nodeId, responseBody);
+            nodeResponses.add(createNodeResponse(nodeId, responseBody));
+        }
+    }
+
+    @Test
+    public void testStreamingMergeMatchesMerge() throws IOException {
+        final NodeResponse clientResponse = nodeResponses.iterator().next();
+        final ProvenanceEntity merged = (ProvenanceEntity) merger.merge(QUERY_URI, "GET", nodeResponses, Collections.emptySet(), clientResponse).getUpdatedEntity();
+
+        final StreamingResponseMerge streamingMerge = merger.createStreamingMerge(QUERY_URI, "GET");
+        for (final Map.Entry<NodeIdentifier, byte[]> entry : responseBodies.entrySet()) {
+            streamingMerge.addResponse(entry.getKey(), new ByteArrayInputStream(entry.getValue()));
+        }
+        final ProvenanceEntity streamed = (ProvenanceEntity) streamingMerge.merge(nodeResponses, Collections.emptySet(), clientResponse).getUpdatedEntity();
+
+        final ProvenanceResultsDTO mergedResults = merged.getProvenance().getResults();
+        final ProvenanceResultsDTO streamedResults = streamed.getProvenance().getResults();
+        assertEquals(MAX_RESULTS, streamedResults.getProvenanceEvents().size());
+        assertEquals(getEventIds(mergedResults.getProvenanceEvents()), getEventIds(streamedResults.getProvenanceEvents()));
+        assertEquals(mergedResults.getTotalCount(), streamedResults.getTotalCount());
+        assertEquals(mergedResults.getTotal(), streamedResults.getTotal());
+        assertEquals(mergedResults.getOldestEvent(), streamedResults.getOldestEvent());
+        assertEquals(merged.getProvenance().getPercentCompleted(), streamed.getProvenance().getPercentCompleted());
+        assertEquals(merged.getProvenance().isFinished(), streamed.getProvenance().isFinished());
+        assertFalse(streamed.getProvenance().isFinished());
+
+        // the newest events of all nodes should be selected, and identified by the node that they came from
+        final ProvenanceEventDTO newestEvent = streamedResults.getProvenanceEvents().get(0);
+        assertEquals("node-3", newestEvent.getClusterNodeId());
+        assertEquals("localhost:8003", newestEvent.getClusterNodeAddress());
+        assertEquals("node-3" + newestEvent.getEventId(), newestEvent.getId());
+    }
+
+    @Test
+    public void testStreamingMergeOnlyForQueryResults() {
+        assertNull(merger.createStreamingMerge(URI.create("http://localhost:8080/nifi-api/provenance"), "POST"));
+        assertNull(merger.createStreamingMerge(QUERY_URI, "DELETE"));
+    }
+
+    @Test
+    public void testIncompleteResponseBody() {
+        final Map.Entry<NodeIdentifier, byte[]> entry = responseBodies.entrySet().iterator().next();
+        final byte[] truncated = Arrays.copyOf(entry.getValue(), entry.getValue().length / 2);
+
+        final StreamingResponseMerge streamingMerge = merger.createStreamingMerge(QUERY_URI, "GET");
+        assertThrows(IOException.class, () -> streamingMerge.addResponse(entry.getKey(), new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void testEventsOfIncompleteResponseBodyNotMerged() throws IOException {
+        final Set<NodeResponse> successfulResponses = new HashSet<>();
+        final Set<NodeResponse> problematicResponses = new HashSet<>();
+        final StreamingResponseMerge streamingMerge = merger.createStreamingMerge(QUERY_URI, "GET");
+        for (final Map.Entry<NodeIdentifier, byte[]> entry : responseBodies.entrySet()) {
+            final NodeResponse nodeResponse = nodeResponses.stream().filter(response -> response.getNodeId().equals(entry.getKey())).findFirst().orElseThrow();
+            if (!entry.getKey().getId().equals("node-3")) {
+                streamingMerge.addResponse(entry.getKey(), new ByteArrayInputStream(entry.getValue()));
+                successfulResponses.add(nodeResponse);
+                continue;
+            }
+
+            // the newest events are those of node-3, whose response is cut off after some of its events have been read
+            final byte[] truncated = Arrays.copyOf(entry.getValue(), entry.getValue().length * 3 / 4);
+            assertThrows(IOException.class, () -> streamingMerge.addResponse(entry.getKey(), new ByteArrayInputStream(truncated)));
+            problematicResponses.add(nodeResponse);
+        }
+
+        final NodeResponse clientResponse = successfulResponses.iterator().next();
+        final ProvenanceEntity streamed = (ProvenanceEntity) streamingMerge.merge(successfulResponses, problematicResponses, clientResponse).getUpdatedEntity();
+        final ProvenanceEntity merged = (ProvenanceEntity) merger.merge(QUERY_URI, "GET", successfulResponses, problematicResponses, clientResponse).getUpdatedEntity();
+
+        final List<ProvenanceEventDTO> streamedEvents = streamed.getProvenance().getResults().getProvenanceEvents();
+        assertEquals(MAX_RESULTS, streamedEvents.size());
+        assertEquals(getEventIds(merged.getProvenance().getResults().getProvenanceEvents()), getEventIds(streamedEvents));
+        assertTrue(streamedEvents.stream().noneMatch(event -> "node-3".equals(event.getClusterNodeId())));
+    }
+
+    private NodeResponse createNodeResponse(final NodeIdentifier nodeId, final byte[] responseBody) {
+        final JacksonResponse response = new JacksonResponse(codec, responseBody, new MultivaluedHashMap<>(), QUERY_URI, 200, null);
+        return new NodeResponse(nodeId, "GET", QUERY_URI, response, 0L, "request-1");
+    }
+
+    private List<String> getEventIds(final List<ProvenanceEventDTO> events) {
+        return events.stream().map(ProvenanceEventDTO::getId).collect(Collectors.toList());
+    }
+
+    private ProvenanceEntity createEntity(final int nodeIndex, final int eventCount) {
+        final List<ProvenanceEventDTO> events = new ArrayList<>();
+        for (int i = 0; i < eventCount; i++) {
+            final ProvenanceEventDTO event = new ProvenanceEventDTO();
+            event.setEventId((long) i);
+            event.setId(String.valueOf(i));
+            // interleave the events of the nodes, with some events of different nodes occurring at the same time
+            event.setEventTime(new Date(1_000_000L + i * 10L + (nodeIndex % 2)));
+            event.setEventType("RECEIVE");
+            event.setComponentId("component-" + i);
+            events.add(event);
+        }
+
+        final ProvenanceRequestDTO request = new ProvenanceRequestDTO();
+        request.setMaxResults(MAX_RESULTS);
+
+        final ProvenanceResultsDTO results = new ProvenanceResultsDTO();
+        results.setProvenanceEvents(events);
+        results.setTotalCount((long) eventCount * 4);
+        results.setTotal(String.valueOf(eventCount * 4));
+        results.setOldestEvent(new Date(1_000L * nodeIndex));
+        results.setGenerated(new Date());
+
+        final ProvenanceDTO provenance = new ProvenanceDTO();
+        provenance.setId("01234567-89ab-cdef-0123-456789abcdef");
+        provenance.setRequest(request);
+        provenance.setResults(results);
+        provenance.setPercentCompleted(nodeIndex == 2 ? 50 : 100);
+        provenance.setFinished(nodeIndex != 2);
+
+        final ProvenanceEntity entity = new ProvenanceEntity();
+        entity.setProvenance(provenance);
+        return entity;
+    }
+}
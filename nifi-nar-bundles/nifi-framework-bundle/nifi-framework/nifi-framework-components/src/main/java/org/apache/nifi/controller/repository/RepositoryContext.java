@@ -64,4 +64,12 @@ public interface RepositoryContext {
     ProvenanceEventBuilder createProvenanceEventBuilder();
 
     StateManager getStateManager();
+
+    /**
+     * @return the dictionary that FlowFiles created in this context use to share attribute keys, or <code>null</code> if the FlowFile Repository
+     * does not hold attributes compactly
+     */
+    default AttributeKeyDictionary getAttributeKeyDictionary() {
+        return null;
+    }
 }
@@ -240,6 +240,18 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         resetState();
     }
 
+    /**
+     * @return the number of FlowFiles that have been checkpointed by this session but not yet committed
+     */
+    public int getCheckpointedFlowFileCount() {
+        final Checkpoint currentCheckpoint = this.checkpoint;
+        if (currentCheckpoint == null || currentCheckpoint.records == null) {
+            return 0;
+        }
+
+        return currentCheckpoint.records.size();
+    }
+
     private void validateCommitState() {
         verifyTaskActive();
 
@@ -2018,6 +2030,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         attrs.put(CoreAttributes.UUID.key(), uuid);
 
         final FlowFileRecord fFile = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence())
+            .attributeKeyDictionary(context.getAttributeKeyDictionary())
             .addAttributes(attrs)
             .build();
         final StandardRepositoryRecord record = new StandardRepositoryRecord((FlowFileQueue) null);
@@ -2042,7 +2055,8 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         newAttributes.put(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
         newAttributes.put(CoreAttributes.UUID.key(), uuid);
 
-        final StandardFlowFileRecord.Builder fFileBuilder = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence());
+        final StandardFlowFileRecord.Builder fFileBuilder = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence())
+            .attributeKeyDictionary(context.getAttributeKeyDictionary());
 
         // copy all attributes from parent except for the "special" attributes. Copying the special attributes
         // can cause problems -- especially the ALTERNATE_IDENTIFIER, because copying can cause Provenance Events
@@ -2108,6 +2122,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         newAttributes.put(CoreAttributes.UUID.key(), uuid);
 
         final FlowFileRecord fFile = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence())
+            .attributeKeyDictionary(context.getAttributeKeyDictionary())
             .addAttributes(newAttributes)
             .lineageStart(lineageStartDate, lineageStartIndex)
             .build();
@@ -130,6 +130,8 @@ public class EventSumValue {
             return;
         }
 
+        empty = false;
+
         synchronized (other) {
             this.aggregateLineageMillis += other.aggregateLineageMillis;
             this.bytesRead += other.bytesRead;
@@ -150,6 +152,7 @@ public class EventSumValue {
             this.contentReadNanos += other.contentReadNanos;
             this.contentWriteNanos += other.contentWriteNanos;
             this.sessionCommitNanos += other.sessionCommitNanos;
+            this.gcMillis += other.gcMillis;
 
             final Map<String, Long> eventCounters = other.counters;
             if (eventCounters != null) {
@@ -192,6 +195,7 @@ public class EventSumValue {
             this.contentReadNanos -= other.contentReadNanos;
             this.contentWriteNanos -= other.contentWriteNanos;
             this.sessionCommitNanos -= other.sessionCommitNanos;
+            this.gcMillis -= other.gcMillis;
 
             final Map<String, Long> eventCounters = other.counters;
             if (eventCounters != null) {
@@ -26,11 +26,23 @@ import java.util.concurrent.ConcurrentMap;
 
 public class RingBufferEventRepository implements FlowFileEventRepository {
     private final int numMinutes;
-    private final EventSumValue aggregateValues = new EventSumValue(0L);
+    private final int stripeCount;
+    private final StripedEventSumValue aggregateValues;
     private final ConcurrentMap<String, EventContainer> componentEventMap = new ConcurrentHashMap<>();
 
     public RingBufferEventRepository(final int numMinutes) {
+        this(numMinutes, false);
+    }
+
+    /**
+     * @param numMinutes the number of minutes of events to keep for each component
+     * @param striped whether or not events should be accumulated in per-thread stripes that are merged when the events are reported. This reduces
+     *                the contention between threads that update the same component at the cost of more expensive reporting.
+     */
+    public RingBufferEventRepository(final int numMinutes, final boolean striped) {
         this.numMinutes = numMinutes;
+        this.stripeCount = striped ? StripedEventSumValue.getDefaultStripeCount() : 1;
+        this.aggregateValues = new StripedEventSumValue(stripeCount);
     }
 
     @Override
@@ -39,7 +51,11 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
 
     @Override
     public void updateRepository(final FlowFileEvent event, final String componentId) {
-        final EventContainer eventContainer = componentEventMap.computeIfAbsent(componentId, id -> new SecondPrecisionEventContainer(numMinutes));
+        EventContainer eventContainer = componentEventMap.get(componentId);
+        if (eventContainer == null) {
+            eventContainer = componentEventMap.computeIfAbsent(componentId, id -> createEventContainer());
+        }
+
         eventContainer.addEvent(event);
         aggregateValues.add(event);
     }
@@ -63,6 +79,10 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
         componentEventMap.remove(componentIdentifier);
     }
 
+    private EventContainer createEventContainer() {
+        return stripeCount > 1 ? new StripedEventContainer(numMinutes, stripeCount) : new SecondPrecisionEventContainer(numMinutes);
+    }
+
     @Override
     public FlowFileEvent reportAggregateEvent() {
         return aggregateValues.toFlowFileEvent();
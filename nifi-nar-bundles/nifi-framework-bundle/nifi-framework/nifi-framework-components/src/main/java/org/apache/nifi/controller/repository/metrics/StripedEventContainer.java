@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An EventContainer that accumulates the events added by each thread in a separate stripe, rather than adding every event to the
+ * shared per-second bins of a {@link SecondPrecisionEventContainer}. Each stripe holds the primitive totals of the events added during the current
+ * second. A stripe's totals are merged into the shared bins when a thread using the stripe adds an event in a later second, or when a report is
+ * generated, so the shared bins are updated at most once per second per stripe rather than once per event, and adding an event allocates no objects
+ * except when a new second begins.
+ */
+public class StripedEventContainer implements EventContainer {
+    private final int numBins;
+    private final SecondPrecisionEventContainer bins;
+    private final AtomicReferenceArray<Stripe> stripes;
+    private final int stripeMask;
+
+    public StripedEventContainer(final int numMinutes, final int stripeCount) {
+        this.numBins = numMinutes * 60 + 1;
+        this.bins = new SecondPrecisionEventContainer(numMinutes);
+
+        final int count = StripedEventSumValue.roundUpToPowerOfTwo(stripeCount);
+        this.stripes = new AtomicReferenceArray<>(count);
+        this.stripeMask = count - 1;
+    }
+
+    @Override
+    public void addEvent(final FlowFileEvent event) {
+        addEvent(event, System.currentTimeMillis());
+    }
+
+    void addEvent(final FlowFileEvent event, final long timestamp) {
+        final int index = StripedEventSumValue.getStripeIndex(stripeMask);
+
+        Stripe stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new Stripe());
+            stripe = stripes.get(index);
+        }
+
+        stripe.add(event, timestamp);
+    }
+
+    @Override
+    public void purgeEvents(final long cutoffEpochMillis) {
+        // no need to do anything
+    }
+
+    @Override
+    public FlowFileEvent generateReport(final long now) {
+        for (int i = 0; i < stripes.length(); i++) {
+            final Stripe stripe = stripes.get(i);
+            if (stripe != null) {
+                stripe.flush(now);
+            }
+        }
+
+        return bins.generateReport(now);
+    }
+
+    private class Stripe {
+        private EventSumValue currentSecondValue;
+        private long currentSecond = -1L;
+
+        synchronized void add(final FlowFileEvent event, final long timestamp) {
+            final long second = timestamp / 1000;
+            if (second != currentSecond) {
+                flush(timestamp);
+                currentSecondValue = new EventSumValue(timestamp);
+                currentSecond = second;
+            }
+
+            currentSecondValue.add(event);
+        }
+
+        synchronized void flush(final long now) {
+            if (currentSecondValue == null) {
+                return;
+            }
+
+            // If the values are so old that their bin has already expired, there is nothing to merge them into.
+            if (currentSecond > now / 1000 - numBins) {
+                bins.addEvent(currentSecondValue.toFlowFileEvent(), currentSecondValue.getTimestamp());
+            }
+
+            currentSecondValue = null;
+            currentSecond = -1L;
+        }
+    }
+}
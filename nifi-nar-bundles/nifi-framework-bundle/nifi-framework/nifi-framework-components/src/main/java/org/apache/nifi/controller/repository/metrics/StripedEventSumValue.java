@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A running total of FlowFile Events that is split into stripes, each of which is updated by a subset of threads, so that threads that add
+ * events concurrently rarely contend for the same lock. Adding an event updates only the primitive counters of the calling thread's stripe.
+ * The stripes are summed when the total is read, so reading is more expensive than adding.
+ */
+public class StripedEventSumValue {
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicReferenceArray<EventSumValue> stripes;
+    private final int stripeMask;
+
+    /**
+     * @param stripeCount the number of stripes, which is rounded up to a power of two
+     */
+    public StripedEventSumValue(final int stripeCount) {
+        final int count = roundUpToPowerOfTwo(stripeCount);
+        this.stripes = new AtomicReferenceArray<>(count);
+        this.stripeMask = count - 1;
+    }
+
+    public void add(final FlowFileEvent event) {
+        final int index = getStripeIndex(stripeMask);
+
+        EventSumValue stripe = stripes.get(index);
+        if (stripe == null) {
+            // Stripes are created only when first used so that components that are run by few threads use little memory
+            stripes.compareAndSet(index, null, new EventSumValue(0L));
+            stripe = stripes.get(index);
+        }
+
+        stripe.add(event);
+    }
+
+    public FlowFileEvent toFlowFileEvent() {
+        if (stripes.length() == 1) {
+            final EventSumValue stripe = stripes.get(0);
+            return stripe == null ? EmptyFlowFileEvent.INSTANCE : stripe.toFlowFileEvent();
+        }
+
+        final EventSumValue total = new EventSumValue(0L);
+        for (int i = 0; i < stripes.length(); i++) {
+            final EventSumValue stripe = stripes.get(i);
+            if (stripe != null) {
+                total.add(stripe);
+            }
+        }
+
+        return total.toFlowFileEvent();
+    }
+
+    /**
+     * @return the number of stripes to use so that threads running on different CPU cores are unlikely to share a stripe
+     */
+    public static int getDefaultStripeCount() {
+        return Math.min(MAX_STRIPES, roundUpToPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    /**
+     * Determines which stripe the calling thread should update. A given thread always maps to the same stripe.
+     *
+     * @param stripeMask one less than the number of stripes, which must be a power of two
+     * @return the index of the stripe for the calling thread
+     */
+    static int getStripeIndex(final int stripeMask) {
+        if (stripeMask == 0) {
+            return 0;
+        }
+
+        // Thread IDs are typically sequential, so spread them across the stripes
+        final long threadId = Thread.currentThread().threadId();
+        return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+    }
+
+    static int roundUpToPowerOfTwo(final int value) {
+        if (value <= 1) {
+            return 1;
+        }
+
+        return Math.min(MAX_STRIPES, Integer.highestOneBit(value - 1) << 1);
+    }
+}
@@ -18,12 +18,17 @@ package org.apache.nifi.controller.repository;
 
 import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -79,6 +84,79 @@ public class TestRingBufferEventRepository {
         repo.close();
     }
 
+    @Test
+    public void testStripedAccumulationMatchesSharedAccumulation() throws IOException, InterruptedException {
+        final RingBufferEventRepository sharedRepo = new RingBufferEventRepository(5, false);
+        final RingBufferEventRepository stripedRepo = new RingBufferEventRepository(5, true);
+
+        updateConcurrently(sharedRepo, 8, 5_000);
+        updateConcurrently(stripedRepo, 8, 5_000);
+
+        final long now = System.currentTimeMillis();
+        final FlowFileEvent sharedEvent = sharedRepo.reportTransferEvents("ABC", now);
+        final FlowFileEvent stripedEvent = stripedRepo.reportTransferEvents("ABC", now);
+        assertEquals(40_000, stripedEvent.getFlowFilesIn());
+        assertEquals(sharedEvent.getFlowFilesIn(), stripedEvent.getFlowFilesIn());
+        assertEquals(sharedEvent.getBytesWritten(), stripedEvent.getBytesWritten());
+        assertEquals(sharedEvent.getAggregateLineageMillis(), stripedEvent.getAggregateLineageMillis());
+        assertEquals(sharedEvent.getInvocations(), stripedEvent.getInvocations());
+
+        assertEquals(sharedRepo.reportAggregateEvent().getBytesRead(), stripedRepo.reportAggregateEvent().getBytesRead());
+        assertEquals(40_000, stripedRepo.reportAggregateEvent().getFlowFilesRemoved());
+
+        sharedRepo.close();
+        stripedRepo.close();
+    }
+
+    /**
+     * Compares the time taken for 64 threads to record session commits for a single component with and without striped accumulation
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testConcurrentUpdatePerformance() throws IOException, InterruptedException {
+        final int threadCount = 64;
+        final int eventsPerThread = 1_000_000;
+
+        for (int iteration = 0; iteration < 3; iteration++) {
+            for (final boolean striped : new boolean[] {false, true}) {
+                final RingBufferEventRepository repo = new RingBufferEventRepository(5, striped);
+                final long nanos = updateConcurrently(repo, threadCount, eventsPerThread);
+                final long totalEvents = (long) threadCount * eventsPerThread;
+                System.out.printf("Striped=%b: %d threads recorded %,d events in %,d millis (%,d nanos per event, %,d events per second)%n",
+                    striped, threadCount, totalEvents, TimeUnit.NANOSECONDS.toMillis(nanos), nanos / totalEvents, totalEvents * 1_000_000_000L / nanos);
+                repo.close();
+            }
+        }
+    }
+
+    private long updateConcurrently(final FlowFileEventRepository repo, final int threadCount, final int eventsPerThread) throws InterruptedException {
+        final FlowFileEvent event = generateEvent();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < eventsPerThread; j++) {
+                        repo.updateRepository(event, "ABC");
+                    }
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        final long start = System.nanoTime();
+        startLatch.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        return System.nanoTime() - start;
+    }
+
     private FlowFileEvent generateEvent() {
         return new FlowFileEvent() {
             @Override
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestStripedEventContainer {
+
+    @Test
+    public void testUpdateOncePerSecond() {
+        final StripedEventContainer container = new StripedEventContainer(5, 8);
+        final long startTime = System.currentTimeMillis();
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setBytesRead(100L);
+        event.setBytesWritten(100L);
+
+        for (int i=0; i < 5; i++) {
+            for (int j=0; j < 300; j++) {
+                container.addEvent(event, startTime + (i * 300_000) + (j * 1000));
+            }
+
+            final long timestamp = startTime + 300_000 * i + 300_000;
+            final FlowFileEvent result = container.generateReport(timestamp);
+            assertEquals(300 * 100, result.getBytesRead(), "Failure at i=" + i);
+            assertEquals(300 * 100, result.getBytesWritten(), "Failure at i=" + i);
+        }
+    }
+
+    @Test
+    public void testExpiresOnReportGeneration() {
+        final StripedEventContainer container = new StripedEventContainer(5, 8);
+        final long startTime = System.currentTimeMillis();
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setBytesRead(100L);
+        event.setBytesWritten(100L);
+
+        for (int j=0; j < 100; j++) {
+            container.addEvent(event, startTime + (j * 1000));
+        }
+
+        final FlowFileEvent resultAt5Mins = container.generateReport(startTime + 300_000);
+        assertEquals(100 * 100, resultAt5Mins.getBytesRead());
+
+        final FlowFileEvent resultAt5MinsPlus50Seconds = container.generateReport(startTime + 350_000);
+        assertEquals(50 * 100, resultAt5MinsPlus50Seconds.getBytesRead());
+
+        final FlowFileEvent resultAt5MinsPlus100Seconds = container.generateReport(startTime + 400_000);
+        assertEquals(0, resultAt5MinsPlus100Seconds.getBytesRead());
+    }
+
+    @Test
+    public void testReportIncludesEventsFromCurrentSecond() {
+        final StripedEventContainer container = new StripedEventContainer(5, 8);
+        final long startTime = System.currentTimeMillis();
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setFlowFilesIn(1);
+        event.setCounters(Collections.singletonMap("counter", 2L));
+
+        container.addEvent(event, startTime);
+        FlowFileEvent result = container.generateReport(startTime);
+        assertEquals(1, result.getFlowFilesIn());
+        assertEquals(2L, result.getCounters().get("counter").longValue());
+
+        // Events added in the same second after a report must be added to the same bin rather than replacing it
+        container.addEvent(event, startTime);
+        result = container.generateReport(startTime);
+        assertEquals(2, result.getFlowFilesIn());
+        assertEquals(4L, result.getCounters().get("counter").longValue());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final StripedEventContainer container = new StripedEventContainer(5, 4);
+        final int threadCount = 16;
+        final int eventsPerThread = 10_000;
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setFlowFilesIn(1);
+        event.setBytesRead(10L);
+        event.setGarbageCollectionMillis(1L);
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (final InterruptedException e) {
+                    return;
+                }
+
+                for (int j = 0; j < eventsPerThread; j++) {
+                    container.addEvent(event);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        startLatch.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final FlowFileEvent result = container.generateReport(System.currentTimeMillis());
+        assertEquals(threadCount * eventsPerThread, result.getFlowFilesIn());
+        assertEquals(threadCount * eventsPerThread * 10L, result.getBytesRead());
+        assertEquals(threadCount * eventsPerThread, result.getGargeCollectionMillis());
+    }
+}
@@ -19,14 +19,19 @@ package org.apache.nifi.controller;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.AttributeKeyDictionary;
 import org.apache.nifi.controller.repository.CaffeineFieldCache;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.CompressedSchemaSwapDeserializer;
+import org.apache.nifi.controller.swap.CompressedSchemaSwapSerializer;
 import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.controller.swap.SchemaSwapSerializer;
 import org.apache.nifi.controller.swap.SimpleSwapDeserializer;
@@ -34,6 +39,7 @@ import org.apache.nifi.controller.swap.StandardSwapContents;
 import org.apache.nifi.controller.swap.StandardSwapSummary;
 import org.apache.nifi.controller.swap.SwapDeserializer;
 import org.apache.nifi.controller.swap.SwapSerializer;
+import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.reporting.Severity;
 import org.apache.nifi.repository.schema.FieldCache;
@@ -65,6 +71,12 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -74,22 +86,37 @@ import java.util.stream.Stream;
  * An implementation of the {@link FlowFileSwapManager} that swaps FlowFiles
  * to/from local disk
  * </p>
+ *
+ * <p>
+ * Swap files are written using the {@link SchemaSwapSerializer}, or using the {@link CompressedSchemaSwapSerializer} if compression
+ * is enabled in nifi.properties. Swap files can be swapped in regardless of which of the two wrote them. When a queue indicates
+ * that a swap file will be needed soon, by calling {@link #prefetch(String, FlowFileQueue)}, the swap file is read and deserialized
+ * in the background so that the thread that swaps it in does not need to wait on the disk. The number of FlowFiles that are held
+ * in memory on behalf of prefetched swap files is bounded.
+ * </p>
  */
 public class FileSystemSwapManager implements FlowFileSwapManager {
 
     private static final Pattern SWAP_FILE_PATTERN = Pattern.compile("\\d+-.+?(\\..*?)?\\.swap");
     private static final Pattern TEMP_SWAP_FILE_PATTERN = Pattern.compile("\\d+-.+?(\\..*?)?\\.swap\\.part");
+    private static final int PREFETCH_THREAD_COUNT = 2;
+    private static final int MAX_PREFETCHED_SWAP_FILES = 32;
+    private static final int MAX_PREFETCHED_FLOWFILES = 50_000;
 
     public static final String EVENT_CATEGORY = "Swap FlowFiles";
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
 
     private final File storageDirectory;
+    private final boolean compressionEnabled;
     private final FieldCache fieldCache = new CaffeineFieldCache(10_000_000);
+    private final ConcurrentMap<String, Future<SwapContents>> prefetchedSwapContents = new ConcurrentHashMap<>();
 
     // effectively final
     private FlowFileRepository flowFileRepository;
     private EventReporter eventReporter;
     private ResourceClaimManager claimManager;
+    private ExecutorService prefetchExecutor; // created on first use; guarded by synchronizing on this
+    private boolean shutdown = false; // guarded by synchronizing on this
 
     private static final byte[] MAGIC_HEADER = {'S', 'W', 'A', 'P'};
 
@@ -98,13 +125,19 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        compressionEnabled = false;
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
-        this(nifiProperties.getFlowFileRepositoryPath());
+        this(nifiProperties.getFlowFileRepositoryPath(), nifiProperties.isSwapManagerCompressionEnabled());
     }
 
     public FileSystemSwapManager(final Path flowFileRepoPath) {
+        this(flowFileRepoPath, false);
+    }
+
+    public FileSystemSwapManager(final Path flowFileRepoPath, final boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
         this.storageDirectory = flowFileRepoPath.resolve("swap").toFile();
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
@@ -119,6 +152,30 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         this.flowFileRepository = initializationContext.getFlowFileRepository();
     }
 
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+
+        for (final String swapLocation : new ArrayList<>(prefetchedSwapContents.keySet())) {
+            cancelPrefetch(swapLocation);
+        }
+
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    private synchronized ExecutorService getPrefetchExecutor() {
+        if (shutdown) {
+            return null;
+        }
+
+        if (prefetchExecutor == null) {
+            prefetchExecutor = new FlowEngine(PREFETCH_THREAD_COUNT, "Swap File Prefetch", true);
+        }
+        return prefetchExecutor;
+    }
+
     protected InputStream getInputStream(final File file) throws IOException {
         return new FileInputStream(file);
     }
@@ -141,7 +198,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File swapTempFile = new File(swapFile.getParentFile(), swapFile.getName() + ".part");
         final String swapLocation = swapFile.getAbsolutePath();
 
-        final SwapSerializer serializer = new SchemaSwapSerializer();
+        final SwapSerializer serializer = compressionEnabled ? new CompressedSchemaSwapSerializer() : new SchemaSwapSerializer();
         try (final OutputStream os = getOutputStream(swapTempFile);
             final OutputStream out = new BufferedOutputStream(os)) {
             out.write(MAGIC_HEADER);
@@ -174,11 +231,12 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             warn("Cannot swap in FlowFiles from location " + swapLocation + " because the FlowFile Repository does not know about this Swap Location. " +
                 "This file should be manually removed. This typically occurs when a Swap File is written but the FlowFile Repository is not updated yet to reflect this. " +
                 "This is generally not a cause for concern, but may be indicative of a failure to update the FlowFile Repository.");
+            cancelPrefetch(swapLocation);
             final SwapSummary swapSummary = new StandardSwapSummary(new QueueSize(0, 0), 0L, Collections.emptyList(), 0L, 0L);
             return new StandardSwapContents(swapSummary, Collections.emptyList());
         }
 
-        final SwapContents swapContents = peek(swapLocation, flowFileQueue);
+        final SwapContents swapContents = shareAttributeKeys(getPrefetchedContents(swapLocation, flowFileQueue));
         flowFileRepository.swapFlowFilesIn(swapFile.getAbsolutePath(), swapContents.getFlowFiles(), flowFileQueue);
 
         if (!swapFile.delete()) {
@@ -188,6 +246,121 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         return swapContents;
     }
 
+    /**
+     * Rebuilds the given FlowFiles so that they share attribute keys through the FlowFile Repository's dictionary, if it has one, as the
+     * FlowFiles that are swapped in are otherwise deserialized into HashMaps.
+     */
+    private SwapContents shareAttributeKeys(final SwapContents swapContents) {
+        final AttributeKeyDictionary dictionary = flowFileRepository instanceof WriteAheadFlowFileRepository
+            ? ((WriteAheadFlowFileRepository) flowFileRepository).getAttributeKeyDictionary() : null;
+        if (dictionary == null) {
+            return swapContents;
+        }
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(swapContents.getFlowFiles().size());
+        for (final FlowFileRecord flowFile : swapContents.getFlowFiles()) {
+            flowFiles.add(new StandardFlowFileRecord.Builder().fromFlowFile(flowFile).attributeKeyDictionary(dictionary).build());
+        }
+
+        return new StandardSwapContents(swapContents.getSummary(), flowFiles);
+    }
+
+    @Override
+    public void prefetch(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        if (prefetchedSwapContents.containsKey(swapLocation)) {
+            return;
+        }
+
+        // Bound the number of FlowFiles that are held in memory on behalf of queues that have not yet swapped them in
+        if (prefetchedSwapContents.size() >= MAX_PREFETCHED_SWAP_FILES) {
+            logger.debug("Will not prefetch Swap File {} because {} Swap Files have already been prefetched", swapLocation, prefetchedSwapContents.size());
+            return;
+        }
+
+        final int prefetchedFlowFileCount = getPrefetchedFlowFileCount();
+        if (prefetchedFlowFileCount >= MAX_PREFETCHED_FLOWFILES) {
+            logger.debug("Will not prefetch Swap File {} because {} FlowFiles have already been prefetched", swapLocation, prefetchedFlowFileCount);
+            return;
+        }
+
+        final ExecutorService executor = getPrefetchExecutor();
+        if (executor == null) {
+            return;
+        }
+
+        try {
+            prefetchedSwapContents.computeIfAbsent(swapLocation, location -> executor.submit(() -> {
+                try {
+                    final SwapContents swapContents = peek(location, flowFileQueue);
+                    logger.debug("Prefetched {} FlowFiles from Swap File {}", swapContents.getFlowFiles().size(), location);
+                    return swapContents;
+                } catch (final Exception e) {
+                    // The Swap File will be read again when it is swapped in, and any failure will be handled then
+                    logger.debug("Failed to prefetch Swap File {}", location, e);
+                    return null;
+                }
+            }));
+        } catch (final RejectedExecutionException e) {
+            logger.debug("Will not prefetch Swap File {} because the Swap Manager has been shut down", swapLocation);
+        }
+    }
+
+    /**
+     * @return the number of FlowFiles in the Swap Files that have been prefetched but not yet swapped in
+     */
+    private int getPrefetchedFlowFileCount() {
+        int count = 0;
+        for (final Future<SwapContents> future : prefetchedSwapContents.values()) {
+            if (!future.isDone() || future.isCancelled()) {
+                continue;
+            }
+
+            try {
+                final SwapContents swapContents = future.get();
+                if (swapContents != null) {
+                    count += swapContents.getFlowFiles().size();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return count;
+            } catch (final ExecutionException e) {
+                // A failed prefetch holds no FlowFiles
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the contents of the given Swap File, using the contents that were read by {@link #prefetch(String, FlowFileQueue)} if
+     * the Swap File was prefetched and reading the Swap File otherwise
+     */
+    private SwapContents getPrefetchedContents(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        final Future<SwapContents> future = prefetchedSwapContents.remove(swapLocation);
+        if (future != null) {
+            try {
+                final SwapContents swapContents = future.get();
+                if (swapContents != null) {
+                    return swapContents;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for Swap File " + swapLocation + " to be read", e);
+            } catch (final ExecutionException e) {
+                logger.debug("Failed to prefetch Swap File {}; will read it again", swapLocation, e);
+            }
+        }
+
+        return peek(swapLocation, flowFileQueue);
+    }
+
+    private void cancelPrefetch(final String swapLocation) {
+        final Future<SwapContents> future = prefetchedSwapContents.remove(swapLocation);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
     @Override
     public SwapContents peek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
         final File swapFile = new File(swapLocation);
@@ -206,6 +379,10 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     @Override
     public void purge() {
+        for (final String swapLocation : new ArrayList<>(prefetchedSwapContents.keySet())) {
+            cancelPrefetch(swapLocation);
+        }
+
         final File[] swapFiles = storageDirectory.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(final File dir, final String name) {
@@ -380,6 +557,9 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         if (Arrays.equals(magicHeader, MAGIC_HEADER)) {
             final String serializationName = dis.readUTF();
+            if (serializationName.equals(CompressedSchemaSwapDeserializer.getSerializationName())) {
+                return new CompressedSchemaSwapDeserializer(fieldCache);
+            }
             if (serializationName.equals(SchemaSwapDeserializer.getSerializationName())) {
                 return new SchemaSwapDeserializer(fieldCache);
             }
@@ -465,6 +645,9 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             throw new FileNotFoundException("Could not change name of partition for swap location " + swapLocation + " because no swap file exists at that location");
         }
 
+        // The prefetched FlowFiles refer to the existing Swap Location, so they will be read again from the renamed file if needed
+        cancelPrefetch(swapLocation);
+
         final String existingFilename = existingFile.getName();
 
         final String newFilename;
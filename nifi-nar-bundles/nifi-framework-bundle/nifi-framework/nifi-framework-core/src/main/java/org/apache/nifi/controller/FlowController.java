@@ -41,6 +41,7 @@ import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.cluster.protocol.NodeProtocolSender;
 import org.apache.nifi.cluster.protocol.UnknownServiceAddressException;
 import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.status.StatusDeltaEncoder;
 import org.apache.nifi.components.ClassLoaderAwarePythonBridge;
 import org.apache.nifi.components.monitor.LongRunningTaskMonitor;
 import org.apache.nifi.components.state.StateManagerProvider;
@@ -80,6 +81,7 @@ import org.apache.nifi.controller.queue.clustered.server.ClusterLoadBalanceAutho
 import org.apache.nifi.controller.queue.clustered.server.ConnectionLoadBalanceServer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceAuthorizer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceProtocol;
+import org.apache.nifi.controller.queue.clustered.server.LoadBalanceServerThreadModel;
 import org.apache.nifi.controller.queue.clustered.server.StandardLoadBalanceProtocol;
 import org.apache.nifi.controller.reporting.ReportingTaskInstantiationException;
 import org.apache.nifi.controller.reporting.ReportingTaskProvider;
@@ -105,12 +107,15 @@ import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
+import org.apache.nifi.controller.scheduling.EventDrivenSchedulingAgent;
 import org.apache.nifi.controller.scheduling.LifecycleStateManager;
+import org.apache.nifi.controller.scheduling.ProcessorSchedulingMode;
 import org.apache.nifi.controller.scheduling.QuartzSchedulingAgent;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.scheduling.StandardLifecycleStateManager;
 import org.apache.nifi.controller.scheduling.StandardProcessScheduler;
 import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
+import org.apache.nifi.controller.scheduling.VirtualThreadMonitor;
 import org.apache.nifi.controller.serialization.FlowSerializationException;
 import org.apache.nifi.controller.serialization.FlowSerializer;
 import org.apache.nifi.controller.serialization.FlowSynchronizationException;
@@ -190,6 +195,7 @@ import org.apache.nifi.remote.RemoteGroupPort;
 import org.apache.nifi.remote.RemoteResourceManager;
 import org.apache.nifi.remote.RemoteSiteListener;
 import org.apache.nifi.remote.SocketRemoteSiteListener;
+import org.apache.nifi.remote.SocketRemoteSiteListenerThreadModel;
 import org.apache.nifi.remote.cluster.NodeInformant;
 import org.apache.nifi.remote.protocol.socket.SocketFlowFileServerProtocol;
 import org.apache.nifi.reporting.Bulletin;
@@ -231,6 +237,7 @@ import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -278,6 +285,8 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
     private final AtomicInteger maxTimerDrivenThreads;
     private final AtomicReference<FlowEngine> timerDrivenEngineRef;
+    private volatile EventDrivenSchedulingAgent eventDrivenSchedulingAgent;
+    private final VirtualThreadMonitor virtualThreadMonitor = new VirtualThreadMonitor();
 
     private final ContentRepository contentRepository;
     private final FlowFileRepository flowFileRepository;
@@ -310,6 +319,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     private final Set<NioAsyncLoadBalanceClientTask> loadBalanceClientTasks = new HashSet<>();
 
     private final ConcurrentMap<String, ProcessGroup> allProcessGroups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FlowFileSwapManager> connectionSwapManagers = new ConcurrentHashMap<>();
 
     private final ZooKeeperStateServer zooKeeperStateServer;
 
@@ -350,6 +360,8 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
      * the time to wait between heartbeats
      */
     private final int heartbeatDelaySeconds;
+    private final long sessionBatchNanos;
+    private final int sessionBatchSize;
 
     /**
      * The sensitive property string encryptor *
@@ -370,6 +382,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
      */
     private ScheduledFuture<?> heartbeatSenderFuture;
     private final Heartbeater heartbeater;
+    private final StatusDeltaEncoder componentStatusEncoder;
     private final HeartbeatMonitor heartbeatMonitor;
     private final PythonBridge pythonBridge;
     private final org.apache.nifi.bundle.Bundle pythonBundle;
@@ -609,7 +622,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
 
         final QuartzSchedulingAgent quartzSchedulingAgent = new QuartzSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory);
-        final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, this.nifiProperties);
+        final TimerDrivenSchedulingAgent timerDrivenAgent = createTimerDrivenSchedulingAgent(repositoryContextFactory);
         processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenAgent);
         processScheduler.setSchedulingAgent(SchedulingStrategy.CRON_DRIVEN, quartzSchedulingAgent);
 
@@ -634,6 +647,8 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         isSiteToSiteSecure = nifiProperties.isSiteToSiteSecure();
 
         this.heartbeatDelaySeconds = (int) FormatUtils.getTimeDuration(nifiProperties.getNodeHeartbeatInterval(), TimeUnit.SECONDS);
+        this.sessionBatchNanos = FormatUtils.getTimeDuration(nifiProperties.getProcessorSessionBatchDuration(), TimeUnit.NANOSECONDS);
+        this.sessionBatchSize = nifiProperties.getProcessorSessionBatchSize();
 
         this.snippetManager = new SnippetManager();
         this.reloadComponent = new StandardReloadComponent(this);
@@ -656,7 +671,22 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             RemoteResourceManager.setServerProtocolImplementation(SocketFlowFileServerProtocol.RESOURCE_NAME, SocketFlowFileServerProtocol.class);
 
             final NodeInformant nodeInformant = configuredForClustering ? new ClusterCoordinatorNodeInformant(clusterCoordinator) : null;
-            externalSiteListeners.add(new SocketRemoteSiteListener(remoteInputSocketPort, isSiteToSiteSecure ? sslContext : null, nifiProperties, nodeInformant));
+            final String socketThreadModelName = nifiProperties.getProperty(NiFiProperties.REMOTE_INPUT_SOCKET_THREAD_MODEL, NiFiProperties.DEFAULT_REMOTE_INPUT_SOCKET_THREAD_MODEL);
+            final SocketRemoteSiteListenerThreadModel socketThreadModel;
+            try {
+                socketThreadModel = SocketRemoteSiteListenerThreadModel.valueOf(socketThreadModelName.trim().toUpperCase());
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid value for property '" + NiFiProperties.REMOTE_INPUT_SOCKET_THREAD_MODEL + "': " + socketThreadModelName
+                        + ". Valid values are " + Arrays.toString(SocketRemoteSiteListenerThreadModel.values()), e);
+            }
+
+            final int maxSessions = nifiProperties.getIntegerProperty(NiFiProperties.REMOTE_INPUT_SOCKET_MAX_SESSIONS, NiFiProperties.DEFAULT_REMOTE_INPUT_SOCKET_MAX_SESSIONS);
+            final int maxQueuedSessions = nifiProperties.getIntegerProperty(NiFiProperties.REMOTE_INPUT_SOCKET_MAX_QUEUED_SESSIONS, NiFiProperties.DEFAULT_REMOTE_INPUT_SOCKET_MAX_QUEUED_SESSIONS);
+            final long queuedSessionTimeoutMillis = FormatUtils.getTimeDuration(nifiProperties.getProperty(NiFiProperties.REMOTE_INPUT_SOCKET_QUEUED_SESSION_TIMEOUT,
+                    NiFiProperties.DEFAULT_REMOTE_INPUT_SOCKET_QUEUED_SESSION_TIMEOUT), TimeUnit.MILLISECONDS);
+
+            externalSiteListeners.add(new SocketRemoteSiteListener(remoteInputSocketPort, isSiteToSiteSecure ? sslContext : null, nifiProperties, nodeInformant,
+                    socketThreadModel, maxSessions, maxQueuedSessions, queuedSessionTimeoutMillis));
         }
 
         if (remoteInputHttpPort == null) {
@@ -774,6 +804,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
         if (configuredForClustering) {
             heartbeater = new ClusterProtocolHeartbeater(protocolSender, clusterCoordinator, leaderElectionManager);
+            componentStatusEncoder = nifiProperties.isClusterProtocolHeartbeatStatusEnabled() ? new StatusDeltaEncoder() : null;
 
             // Check if there is already a cluster coordinator elected. If not, go ahead
             // and register for coordinator role. If there is already one elected, do not register until
@@ -814,8 +845,17 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
             final String timeoutPeriod = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_COMMS_TIMEOUT, NiFiProperties.DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT);
             final int timeoutMillis = (int) FormatUtils.getTimeDuration(timeoutPeriod, TimeUnit.MILLISECONDS);
 
+            final String threadModelName = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_SERVER_THREAD_MODEL, NiFiProperties.DEFAULT_LOAD_BALANCE_SERVER_THREAD_MODEL);
+            final LoadBalanceServerThreadModel threadModel;
+            try {
+                threadModel = LoadBalanceServerThreadModel.valueOf(threadModelName.trim().toUpperCase());
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid value for property '" + NiFiProperties.LOAD_BALANCE_SERVER_THREAD_MODEL + "': " + threadModelName
+                        + ". Valid values are " + Arrays.toString(LoadBalanceServerThreadModel.values()), e);
+            }
+
             loadBalanceServer = new ConnectionLoadBalanceServer(loadBalanceAddress.getHostName(), loadBalanceAddress.getPort(), sslContext,
-                    numThreads, loadBalanceProtocol, eventReporter, timeoutMillis);
+                    numThreads, loadBalanceProtocol, eventReporter, timeoutMillis, threadModel);
 
 
             final int connectionsPerNode = nifiProperties.getIntegerProperty(NiFiProperties.LOAD_BALANCE_CONNECTIONS_PER_NODE, NiFiProperties.DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE);
@@ -834,6 +874,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         } else {
             loadBalanceClientRegistry = null;
             heartbeater = null;
+            componentStatusEncoder = null;
             loadBalanceServer = null;
             loadBalanceClientThreadPool = null;
         }
@@ -853,6 +894,39 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         return ResourceFactory.getControllerResource();
     }
 
+    private TimerDrivenSchedulingAgent createTimerDrivenSchedulingAgent(final RepositoryContextFactory repositoryContextFactory) {
+        final String configuredMode = nifiProperties.getProcessorSchedulingMode();
+        ProcessorSchedulingMode schedulingMode;
+        try {
+            schedulingMode = ProcessorSchedulingMode.valueOf(configuredMode.toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            LOG.warn("Invalid value [{}] for property {}; valid values are {}. Will use {}",
+                configuredMode, NiFiProperties.PROCESSOR_SCHEDULING_MODE, Arrays.toString(ProcessorSchedulingMode.values()), ProcessorSchedulingMode.POLLING);
+            schedulingMode = ProcessorSchedulingMode.POLLING;
+        }
+
+        if (schedulingMode == ProcessorSchedulingMode.EVENT_DRIVEN) {
+            LOG.info("Components that require incoming FlowFiles will be triggered when FlowFiles become available");
+            eventDrivenSchedulingAgent = new EventDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, nifiProperties,
+                virtualThreadMonitor, maxTimerDrivenThreads.get());
+            return eventDrivenSchedulingAgent;
+        }
+
+        return new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, nifiProperties, virtualThreadMonitor);
+    }
+
+    /**
+     * @return the monitor that keeps track of the Processors that are run on virtual threads and of the times that those threads were pinned
+     */
+    public VirtualThreadMonitor getVirtualThreadMonitor() {
+        return virtualThreadMonitor;
+    }
+
+    private int getActiveEventDrivenThreadCount() {
+        final EventDrivenSchedulingAgent agent = eventDrivenSchedulingAgent;
+        return agent == null ? 0 : agent.getActiveThreadCount();
+    }
+
     private static FlowFileRepository createFlowFileRepository(final NiFiProperties properties, final ExtensionManager extensionManager, final ResourceClaimManager contentClaimManager) {
         final String implementationClassName = properties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_IMPLEMENTATION, DEFAULT_FLOWFILE_REPO_IMPLEMENTATION);
         if (implementationClassName == null) {
@@ -1553,6 +1627,10 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 LOG.info("Interrupted while waiting for controller termination.");
             }
 
+            for (final String connectionId : new ArrayList<>(connectionSwapManagers.keySet())) {
+                shutdownSwapManager(connectionId);
+            }
+
             try {
                 flowFileRepository.close();
             } catch (final Throwable t) {
@@ -1785,13 +1863,14 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     }
 
     public int getActiveTimerDrivenThreadCount() {
-        return timerDrivenEngineRef.get().getActiveCount();
+        return timerDrivenEngineRef.get().getActiveCount() + getActiveEventDrivenThreadCount();
     }
 
     public void setMaxTimerDrivenThreadCount(final int maxThreadCount) {
         writeLock.lock();
         try {
             setMaxThreadCount(maxThreadCount, "Timer Driven", this.timerDrivenEngineRef.get(), this.maxTimerDrivenThreads);
+            processScheduler.setMaxThreadCount(SchedulingStrategy.TIMER_DRIVEN, maxThreadCount);
         } finally {
             writeLock.unlock("setMaxTimerDrivenThreadCount");
         }
@@ -2266,6 +2345,7 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
             swapManager.initialize(initializationContext);
         }
+        connectionSwapManagers.put(id, swapManager);
 
         final FlowFileQueueFactory flowFileQueueFactory = new FlowFileQueueFactory() {
             @Override
@@ -2301,6 +2381,24 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         return connection;
     }
 
+    /**
+     * Shuts down the FlowFileSwapManager that was created for the Connection with the given identifier, if any
+     *
+     * @param connectionId the identifier of the Connection that has been removed
+     */
+    public void shutdownSwapManager(final String connectionId) {
+        final FlowFileSwapManager swapManager = connectionSwapManagers.remove(connectionId);
+        if (swapManager == null) {
+            return;
+        }
+
+        try (final NarCloseable narCloseable = NarCloseable.withNarLoader()) {
+            swapManager.shutdown();
+        } catch (final Exception e) {
+            LOG.warn("Failed to shutdown Swap Manager for Connection {}", connectionId, e);
+        }
+    }
+
 
     @Override
     public ReportingTaskNode getReportingTaskNode(final String identifier) {
@@ -2442,7 +2540,28 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
     }
 
     public int getActiveThreadCount() {
-        return timerDrivenEngineRef.get().getActiveCount();
+        return timerDrivenEngineRef.get().getActiveCount() + getActiveEventDrivenThreadCount();
+    }
+
+    /**
+     * @return the number of Site-to-Site connections that are currently being serviced by all Site-to-Site listeners
+     */
+    public int getActiveSiteToSiteSessionCount() {
+        return externalSiteListeners.stream().mapToInt(RemoteSiteListener::getActiveSessionCount).sum();
+    }
+
+    /**
+     * @return the number of Site-to-Site connections that are waiting to be serviced by all Site-to-Site listeners
+     */
+    public int getQueuedSiteToSiteSessionCount() {
+        return externalSiteListeners.stream().mapToInt(RemoteSiteListener::getQueuedSessionCount).sum();
+    }
+
+    /**
+     * @return the number of Site-to-Site connections that all Site-to-Site listeners have closed without servicing them
+     */
+    public long getRejectedSiteToSiteSessionCount() {
+        return externalSiteListeners.stream().mapToLong(RemoteSiteListener::getRejectedSessionCount).sum();
     }
 
 
@@ -3225,10 +3344,12 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
 
                 heartbeater.send(message);
             } catch (final UnknownServiceAddressException usae) {
+                resetComponentStatusEncoder();
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(usae.getMessage());
                 }
             } catch (final Throwable ex) {
+                resetComponentStatusEncoder();
                 LOG.warn("Failed to send heartbeat due to: " + ex);
                 if (LOG.isDebugEnabled()) {
                     LOG.warn("", ex);
@@ -3237,6 +3358,14 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         }
     }
 
+    private void resetComponentStatusEncoder() {
+        // The Cluster Coordinator may not have received the status that was encoded for this heartbeat,
+        // so the next heartbeat must contain the status of all components rather than only the changes
+        if (componentStatusEncoder != null) {
+            componentStatusEncoder.reset();
+        }
+    }
+
     HeartbeatMessage createHeartbeatMessage() {
         try {
             HeartbeatBean bean = heartbeatBeanRef.get();
@@ -3262,6 +3391,11 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
                 return null;
             }
 
+            // include the status of components that have changed since the last heartbeat
+            if (componentStatusEncoder != null) {
+                hbPayload.setComponentStatus(componentStatusEncoder.encode(eventAccess.getControllerStatus()));
+            }
+
             final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, hbPayload.marshal());
             final HeartbeatMessage message = new HeartbeatMessage();
             message.setHeartbeat(heartbeat);
@@ -3299,6 +3433,24 @@ public class FlowController implements ReportingTaskProvider, FlowAnalysisRulePr
         return nifiProperties.getPerformanceMetricTrackingPercentage();
     }
 
+    /**
+     * Returns the length of time for which the sessions of consecutive invocations of a Processor that supports batching are combined into a single commit,
+     * when the Processor's Run Duration is not configured
+     *
+     * @param timeUnit the desired time unit
+     * @return the session batch duration in the given time unit, or 0 if sessions are batched only according to each Processor's Run Duration
+     */
+    public long getSessionBatchDuration(final TimeUnit timeUnit) {
+        return timeUnit.convert(sessionBatchNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the maximum number of FlowFiles that are included in a single batched session commit, or 0 if the number is not limited
+     */
+    public int getSessionBatchSize() {
+        return sessionBatchSize;
+    }
+
     public Integer getRemoteSiteListeningPort() {
         return remoteInputSocketPort;
     }
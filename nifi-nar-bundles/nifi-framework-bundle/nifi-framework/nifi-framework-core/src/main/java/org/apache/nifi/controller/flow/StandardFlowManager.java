@@ -141,6 +141,12 @@ public class StandardFlowManager extends AbstractFlowManager implements FlowMana
         this.isSiteToSiteSecure = Boolean.TRUE.equals(nifiProperties.isSiteToSiteSecure());
     }
 
+    @Override
+    public void onConnectionRemoved(final Connection connection) {
+        super.onConnectionRemoved(connection);
+        flowController.shutdownSwapManager(connection.getIdentifier());
+    }
+
     public Port createPublicInputPort(String id, String name) {
         id = requireNonNull(id).intern();
         name = requireNonNull(name).intern();
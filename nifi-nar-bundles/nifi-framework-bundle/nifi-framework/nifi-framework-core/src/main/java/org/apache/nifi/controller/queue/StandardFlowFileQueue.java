@@ -179,6 +179,11 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
         return queueSize.getActiveCount() == 0 && queueSize.getSwappedCount() == 0;
     }
 
+    @Override
+    public void setFlowFileAvailabilityListener(final Runnable listener) {
+        queue.setFlowFileAvailabilityListener(listener);
+    }
+
     @Override
     public List<FlowFileRecord> poll(final FlowFileFilter filter, final Set<FlowFileRecord> expiredRecords, final PollStrategy pollStrategy) {
         return queue.poll(filter, expiredRecords, getFlowFileExpiration(TimeUnit.MILLISECONDS), pollStrategy);
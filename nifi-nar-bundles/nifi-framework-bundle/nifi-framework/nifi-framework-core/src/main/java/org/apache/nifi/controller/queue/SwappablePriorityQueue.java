@@ -60,6 +60,7 @@ public class SwappablePriorityQueue {
     private static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 10_000;
 
     private final int swapThreshold;
+    private final int swapPrefetchThreshold;
     private final FlowFileSwapManager swapManager;
     private final EventReporter eventReporter;
     private final FlowFileQueue flowFileQueue;
@@ -86,6 +87,8 @@ public class SwappablePriorityQueue {
     private ArrayList<FlowFileRecord> swapQueue;
     private boolean swapMode = false;
     private volatile long topPenaltyExpiration = -1L;
+    private String prefetchedSwapLocation = null;
+    private volatile Runnable flowFileAvailabilityListener;
 
     // The following members are used to keep metrics in memory for reporting purposes so that we don't have to constantly
     // read these values from swap files on disk.
@@ -96,6 +99,8 @@ public class SwappablePriorityQueue {
         final DropFlowFileAction dropAction, final String swapPartitionName) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
+        // Begin reading the next swap file once the active queue has been half drained, so that it is ready by the time the queue is empty
+        this.swapPrefetchThreshold = Math.min(swapThreshold, SWAP_RECORD_POLL_SIZE) / 2;
 
         this.activeQueue = new PriorityQueue<>(20, new QueuePrioritizer(Collections.emptyList()));
         this.swapQueue = new ArrayList<>();
@@ -290,6 +295,8 @@ public class SwappablePriorityQueue {
         // Calling this method when records are polled prevents this condition by migrating FlowFiles from the
         // Swap Queue to the Active Queue. However, we don't do this if there are FlowFiles already swapped out
         // to disk, because we want them to be swapped back in in the same order that they were swapped out.
+        prefetchSwapFileIfNecessary();
+
         if (!activeQueue.isEmpty()) {
             return;
         }
@@ -352,6 +359,27 @@ public class SwappablePriorityQueue {
         }
     }
 
+    /**
+     * If the active queue is running low and there are swap files waiting to be swapped in, asks the Swap Manager to begin reading
+     * the next swap file in the background, so that polling the queue does not have to wait on the disk when the active queue is empty.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private void prefetchSwapFileIfNecessary() {
+        if (swapLocations.isEmpty() || activeQueue.size() >= swapPrefetchThreshold) {
+            return;
+        }
+
+        final String nextSwapLocation = swapLocations.get(0);
+        if (nextSwapLocation.equals(prefetchedSwapLocation)) {
+            return;
+        }
+
+        prefetchedSwapLocation = nextSwapLocation;
+        logger.debug("Active queue for {} contains {} FlowFiles; requesting prefetch of Swap File {}", this, activeQueue.size(), nextSwapLocation);
+        swapManager.prefetch(nextSwapLocation, flowFileQueue);
+    }
+
     private void swapIn() {
         final String swapLocation = swapLocations.get(0);
         boolean partialContents = false;
@@ -468,9 +496,15 @@ public class SwappablePriorityQueue {
     }
 
 
+    public void setFlowFileAvailabilityListener(final Runnable listener) {
+        this.flowFileAvailabilityListener = listener;
+    }
+
     public void put(final FlowFileRecord flowFile) {
+        final boolean flowFileAvailable;
         writeLock.lock();
         try {
+            final boolean flowFileAvailableBefore = getFlowFileAvailability() == FlowFileAvailability.FLOWFILE_AVAILABLE;
             if (swapMode || activeQueue.size() >= swapThreshold) {
                 swapQueue.add(flowFile);
                 incrementSwapQueueSize(1, flowFile.getSize(), 0);
@@ -482,10 +516,15 @@ public class SwappablePriorityQueue {
             }
 
             updateTopPenaltyExpiration();
+            flowFileAvailable = !flowFileAvailableBefore && getFlowFileAvailability() == FlowFileAvailability.FLOWFILE_AVAILABLE;
             logger.trace("{} put to {}", flowFile, this);
         } finally {
             writeLock.unlock("put(FlowFileRecord)");
         }
+
+        if (flowFileAvailable) {
+            notifyFlowFileAvailable();
+        }
     }
 
     public void putAll(final Collection<FlowFileRecord> flowFiles) {
@@ -495,8 +534,10 @@ public class SwappablePriorityQueue {
             bytes += flowFile.getSize();
         }
 
+        final boolean flowFileAvailable;
         writeLock.lock();
         try {
+            final boolean flowFileAvailableBefore = getFlowFileAvailability() == FlowFileAvailability.FLOWFILE_AVAILABLE;
             if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
                 swapQueue.addAll(flowFiles);
                 incrementSwapQueueSize(numFiles, bytes, 0);
@@ -508,10 +549,28 @@ public class SwappablePriorityQueue {
             }
 
             updateTopPenaltyExpiration();
+            flowFileAvailable = !flowFileAvailableBefore && getFlowFileAvailability() == FlowFileAvailability.FLOWFILE_AVAILABLE;
             logger.trace("{} put to {}", flowFiles, this);
         } finally {
             writeLock.unlock("putAll");
         }
+
+        if (flowFileAvailable) {
+            notifyFlowFileAvailable();
+        }
+    }
+
+    private void notifyFlowFileAvailable() {
+        final Runnable listener = flowFileAvailabilityListener;
+        if (listener == null) {
+            return;
+        }
+
+        try {
+            listener.run();
+        } catch (final Exception e) {
+            logger.warn("{} failed to notify listener that FlowFiles are available", this, e);
+        }
     }
 
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
@@ -26,4 +26,16 @@ public interface FlowFileContentAccess {
 
     InputStream read(FlowFileRecord flowFile) throws IOException;
 
+    /**
+     * Returns the region of a file that holds the FlowFile's content, if the content is stored in a file exactly as it is to be sent. This allows
+     * the content to be transferred directly from the file to a socket, without being copied into the JVM.
+     *
+     * @param flowFile the FlowFile whose content is to be sent
+     * @return the region of the file that holds the FlowFile's content, or <code>null</code> if the content must be obtained via {@link #read(FlowFileRecord)}
+     * @throws IOException if unable to determine where the content is located
+     */
+    default ContentFileRegion getContentFileRegion(FlowFileRecord flowFile) throws IOException {
+        return null;
+    }
+
 }
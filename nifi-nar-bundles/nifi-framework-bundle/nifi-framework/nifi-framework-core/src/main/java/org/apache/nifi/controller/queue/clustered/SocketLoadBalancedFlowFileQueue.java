@@ -589,6 +589,11 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
         return localPartition.isActiveQueueEmpty();
     }
 
+    @Override
+    public void setFlowFileAvailabilityListener(final Runnable listener) {
+        localPartition.setFlowFileAvailabilityListener(listener);
+    }
+
     @Override
     public QueueDiagnostics getQueueDiagnostics() {
         partitionReadLock.lock();
@@ -18,6 +18,7 @@
 package org.apache.nifi.controller.queue.clustered.client.async.nio;
 
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
+import org.apache.nifi.controller.queue.clustered.ContentFileRegion;
 import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.TransactionThreshold;
 import org.apache.nifi.controller.queue.clustered.client.LoadBalanceFlowFileCodec;
@@ -30,6 +31,7 @@ import org.apache.nifi.remote.VersionNegotiator;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
 import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.stream.io.StreamUtils;
+import org.apache.nifi.util.file.MappedFiles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,8 +42,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalInt;
@@ -64,6 +69,10 @@ public class LoadBalanceSession {
     private static final Logger logger = LoggerFactory.getLogger(LoadBalanceSession.class);
     static final int MAX_DATA_FRAME_SIZE = 65535;
 
+    // Content that is at least this large is transferred directly from the Content Repository's file to the socket, when possible
+    static final int MIN_DIRECT_TRANSFER_SIZE = MAX_DATA_FRAME_SIZE;
+    private static final long MAX_MAPPED_REGION_SIZE = MAX_DATA_FRAME_SIZE * 128L;
+
     private final RegisteredPartition partition;
     private final Supplier<FlowFileRecord> flowFileSupplier;
     private final FlowFileContentAccess flowFileContentAccess;
@@ -85,6 +94,13 @@ public class LoadBalanceSession {
     private final List<FlowFileRecord> flowFilesSent = new ArrayList<>();
     private TransactionPhase phase = TransactionPhase.RECOMMEND_PROTOCOL_VERSION;
     private InputStream flowFileInputStream;
+    private FileChannel contentFileChannel;
+    private long contentFilePosition;
+    private long contentFileEnd;
+    private MappedByteBuffer mappedContent;
+    private long mappedContentPosition;
+    private long frameTransferPosition;
+    private long frameTransferRemaining;
     private final byte[] byteBuffer = new byte[MAX_DATA_FRAME_SIZE];
     private long readTimeout;
     private volatile LoadBalanceSessionState sessionState = LoadBalanceSessionState.ACTIVE;
@@ -137,6 +153,14 @@ public class LoadBalanceSession {
                 return bytesWritten > 0;
             }
 
+            // If the current data frame's content is being transferred directly from a file, continue the transfer.
+            if (frameTransferRemaining > 0) {
+                final long bytesTransferred = channel.transferFrom(contentFileChannel, frameTransferPosition, frameTransferRemaining);
+                frameTransferPosition += bytesTransferred;
+                frameTransferRemaining -= bytesTransferred;
+                return bytesTransferred > 0;
+            }
+
             // Check if the phase is one that needs to receive data and if so, call the appropriate method.
             switch (phase) {
                 case RECEIVE_SPACE_RESPONSE:
@@ -159,6 +183,7 @@ public class LoadBalanceSession {
             return bytesWritten > 0;
         } catch (final Exception e) {
             sessionState = LoadBalanceSessionState.COMPLETED_EXCEPTIONALLY;
+            closeContentFile();
             throw e;
         }
     }
@@ -169,6 +194,7 @@ public class LoadBalanceSession {
         }
 
         sessionState = LoadBalanceSessionState.CANCELED;
+        closeContentFile();
         return true;
     }
 
@@ -288,29 +314,24 @@ public class LoadBalanceSession {
     }
 
     private ByteBuffer getFlowFileContent() throws IOException {
-        // This method is fairly inefficient, copying lots of byte[]. Can do better. But keeping it simple for
-        // now to get this working. Revisit with optimizations later.
+        // When the content cannot be sent directly from a file, it is copied through byte arrays. This is less efficient
+        // but allows the content to be compressed and encrypted.
         try {
-            if (flowFileInputStream == null) {
+            if (flowFileInputStream == null && contentFileChannel == null && !openContentFile()) {
                 flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
             }
 
+            if (contentFileChannel != null) {
+                return getDirectDataFrame();
+            }
+
             final int bytesRead = StreamUtils.fillBuffer(flowFileInputStream, byteBuffer, false);
             if (bytesRead < 1) {
                 // If no data available, close the stream and move on to the next phase, returning a NO_DATA_FRAME buffer.
                 flowFileInputStream.close();
                 flowFileInputStream = null;
                 phase = TransactionPhase.GET_NEXT_FLOWFILE;
-
-                final ByteBuffer buffer = ByteBuffer.allocate(1);
-                buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
-                buffer.rewind();
-
-                checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
-
-                logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
-
-                return buffer;
+                return noDataFrame();
             }
 
             logger.trace("Sending Data Frame that is {} bytes long to Peer {}", bytesRead, peerDescription);
@@ -344,6 +365,134 @@ public class LoadBalanceSession {
         }
     }
 
+    /**
+     * Opens the file that holds the current FlowFile's content, if the content can be transferred directly from that file to the peer.
+     * This requires that the channel not be secured with TLS and that the content not be compressed, so that the bytes in the file are
+     * exactly the bytes that are to be sent.
+     *
+     * @return <code>true</code> if the content will be sent directly from the file, <code>false</code> if it must be read via a stream
+     */
+    private boolean openContentFile() throws IOException {
+        if (!channel.isDirectTransferSupported() || partition.getCompression() == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT
+                || currentFlowFile.getSize() < MIN_DIRECT_TRANSFER_SIZE) {
+            return false;
+        }
+
+        final ContentFileRegion region = flowFileContentAccess.getContentFileRegion(currentFlowFile);
+        if (region == null) {
+            return false;
+        }
+
+        final FileChannel fileChannel;
+        try {
+            fileChannel = FileChannel.open(region.getPath(), StandardOpenOption.READ);
+        } catch (final IOException e) {
+            // The content may have been moved since its location was determined, so fall back to reading it from the Content Repository.
+            logger.debug("Unable to open {} in order to send the content of {} directly to Peer {}; will read the content via the Content Repository instead",
+                    region, currentFlowFile, peerDescription, e);
+            return false;
+        }
+
+        final long regionEnd = region.getOffset() + region.getLength();
+        try {
+            final long fileSize = fileChannel.size();
+            if (fileSize < regionEnd) {
+                throw new EOFException("Expected " + currentFlowFile + " to contain " + currentFlowFile.getSize() + " bytes but the content repository only had "
+                        + Math.max(0L, fileSize - region.getOffset()) + " bytes for it");
+            }
+        } catch (final IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+
+        logger.debug("Sending content of {} to Peer {} directly from {}", currentFlowFile, peerDescription, region);
+        contentFileChannel = fileChannel;
+        contentFilePosition = region.getOffset();
+        contentFileEnd = regionEnd;
+        return true;
+    }
+
+    /**
+     * Creates the header of the next data frame for content that is sent directly from a file. The header is returned so that it will be written to
+     * the channel, and the frame's content is then transferred from the file by {@link #communicate()}. Because the content never enters the JVM, the
+     * checksum is calculated over a memory-mapped view of the file.
+     */
+    private ByteBuffer getDirectDataFrame() throws IOException {
+        final long remaining = contentFileEnd - contentFilePosition;
+        if (remaining < 1) {
+            closeContentFile();
+            phase = TransactionPhase.GET_NEXT_FLOWFILE;
+            return noDataFrame();
+        }
+
+        final int frameLength = (int) Math.min(MAX_DATA_FRAME_SIZE, remaining);
+        logger.trace("Sending Data Frame that is {} bytes long to Peer {} directly from file", frameLength, peerDescription);
+
+        final ByteBuffer header = ByteBuffer.allocate(5);
+        header.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        header.putInt(frameLength);
+        checksum.update(header.array(), 0, header.capacity());
+        checksum.update(getMappedContent(contentFilePosition, frameLength));
+
+        frameTransferPosition = contentFilePosition;
+        frameTransferRemaining = frameLength;
+        contentFilePosition += frameLength;
+
+        phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
+        header.rewind();
+        return header;
+    }
+
+    private ByteBuffer getMappedContent(final long position, final int length) throws IOException {
+        if (mappedContent == null || position + length > mappedContentPosition + mappedContent.capacity()) {
+            unmapContent();
+
+            final long mappedLength = Math.min(MAX_MAPPED_REGION_SIZE, contentFileEnd - position);
+            mappedContent = contentFileChannel.map(FileChannel.MapMode.READ_ONLY, position, mappedLength);
+            mappedContentPosition = position;
+        }
+
+        return mappedContent.slice((int) (position - mappedContentPosition), length);
+    }
+
+    /**
+     * Unmaps the region of the content file that is used to calculate checksums. The region is released explicitly, rather than when the buffer is
+     * garbage collected, so that sending many large FlowFiles does not keep their mapped regions resident until the next collection.
+     */
+    private void unmapContent() {
+        if (mappedContent != null) {
+            MappedFiles.unmap(mappedContent);
+            mappedContent = null;
+        }
+    }
+
+    private void closeContentFile() {
+        unmapContent();
+        frameTransferRemaining = 0L;
+
+        if (contentFileChannel != null) {
+            try {
+                contentFileChannel.close();
+            } catch (final IOException e) {
+                logger.warn("Failed to close file containing content of {} after sending to Peer {}", currentFlowFile, peerDescription, e);
+            }
+
+            contentFileChannel = null;
+        }
+    }
+
+    private ByteBuffer noDataFrame() {
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        buffer.rewind();
+
+        checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
+
+        return buffer;
+    }
+
     private byte[] compressDataFrame(final byte[] uncompressed, final int byteCount) throws IOException {
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
              final OutputStream gzipOut = new GZIPOutputStream(baos, 1)) {
@@ -27,6 +27,7 @@ import javax.net.ssl.SSLSession;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 import java.util.OptionalInt;
 
@@ -190,6 +191,33 @@ public class PeerChannel implements Closeable {
         return socketChannel.write(preparedBuffer);
     }
 
+    /**
+     * Indicates whether or not data can be written to the Socket Channel directly from a file via {@link #transferFrom(FileChannel, long, long)}.
+     * This is possible only when TLS is not configured, since otherwise the data must be encrypted before it is written.
+     *
+     * @return <code>true</code> if data can be transferred directly from a file, <code>false</code> otherwise
+     */
+    public boolean isDirectTransferSupported() {
+        return sslEngine == null;
+    }
+
+    /**
+     * Transfer bytes from the given file directly to the Socket Channel, without copying the bytes into the JVM
+     *
+     * @param fileChannel the file to transfer bytes from
+     * @param position the position in the file of the first byte to transfer
+     * @param count the maximum number of bytes to transfer
+     * @return Number of bytes written, which may be less than the number requested
+     * @throws IOException Thrown on failure to read from the file or write to the Socket Channel
+     */
+    public long transferFrom(final FileChannel fileChannel, final long position, final long count) throws IOException {
+        if (!isDirectTransferSupported()) {
+            throw new IllegalStateException("Cannot transfer data directly from a file to Peer " + peerDescription + " because the channel is secured with TLS");
+        }
+
+        return fileChannel.transferTo(position, count, socketChannel);
+    }
+
     /**
      * Read application data bytes into the provided buffer
      *
@@ -44,6 +44,13 @@ public interface LocalQueuePartition extends QueuePartition {
      */
     FlowFileAvailability getFlowFileAvailability();
 
+    /**
+     * Registers a listener that is to be notified whenever FlowFiles are added to the partition while no FlowFile in the partition is available for processing
+     *
+     * @param listener the listener to notify, or <code>null</code> to remove the listener that is currently registered
+     */
+    void setFlowFileAvailabilityListener(Runnable listener);
+
     /**
      * @return <code>true</code> if there is at least one FlowFile that has not yet been acknowledged, <code>false</code> if all FlowFiles have been acknowledged.
      */
@@ -108,6 +108,11 @@ public class SwappablePriorityQueueLocalPartition implements LocalQueuePartition
         return priorityQueue.getFlowFileAvailability();
     }
 
+    @Override
+    public void setFlowFileAvailabilityListener(final Runnable listener) {
+        priorityQueue.setFlowFileAvailabilityListener(listener);
+    }
+
     @Override
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final PollStrategy pollStrategy) {
         return priorityQueue.poll(expiredRecords, getExpiration(), pollStrategy);
@@ -53,6 +53,7 @@ public class ConnectionLoadBalanceServer {
     private final LoadBalanceProtocol loadBalanceProtocol;
     private final int connectionTimeoutMillis;
     private final EventReporter eventReporter;
+    private final LoadBalanceServerThreadModel threadModel;
 
     private final List<CommunicateAction> communicationActions = Collections.synchronizedList(new ArrayList<>());
 
@@ -62,12 +63,18 @@ public class ConnectionLoadBalanceServer {
 
     public ConnectionLoadBalanceServer(final String hostname, final int port, final SSLContext sslContext, final int numThreads, final LoadBalanceProtocol loadBalanceProtocol,
                                        final EventReporter eventReporter, final int connectionTimeoutMillis) {
+        this(hostname, port, sslContext, numThreads, loadBalanceProtocol, eventReporter, connectionTimeoutMillis, LoadBalanceServerThreadModel.PLATFORM);
+    }
+
+    public ConnectionLoadBalanceServer(final String hostname, final int port, final SSLContext sslContext, final int numThreads, final LoadBalanceProtocol loadBalanceProtocol,
+                                       final EventReporter eventReporter, final int connectionTimeoutMillis, final LoadBalanceServerThreadModel threadModel) {
         this.hostname = hostname;
         this.port = port;
         this.sslContext = sslContext;
         this.loadBalanceProtocol = loadBalanceProtocol;
         this.connectionTimeoutMillis = connectionTimeoutMillis;
         this.eventReporter = eventReporter;
+        this.threadModel = threadModel;
     }
 
     public void start() throws IOException {
@@ -104,10 +111,13 @@ public class ConnectionLoadBalanceServer {
             acceptConnection.stop();
         }
 
-        final Iterator<CommunicateAction> itr = communicationActions.iterator();
-        while (itr.hasNext()) {
-            itr.next().stop();
-            itr.remove();
+        // Actions remove themselves from the List when they complete, so the List must be locked while it is iterated over
+        synchronized (communicationActions) {
+            final Iterator<CommunicateAction> itr = communicationActions.iterator();
+            while (itr.hasNext()) {
+                itr.next().stop();
+                itr.remove();
+            }
         }
     }
 
@@ -265,11 +275,23 @@ public class ConnectionLoadBalanceServer {
                     socket.setSoTimeout(connectionTimeoutMillis);
 
                     final CommunicateAction communicateAction = new CommunicateAction(loadBalanceProtocol, socket, eventReporter);
-                    final Thread commsThread = new Thread(communicateAction);
-                    commsThread.setName("Load-Balance Server Thread-" + threadCounter.getAndIncrement());
-                    commsThread.start();
+                    final String threadName = "Load-Balance Server Thread-" + threadCounter.getAndIncrement();
+                    final Runnable removeOnCompletion = () -> {
+                        try {
+                            communicateAction.run();
+                        } finally {
+                            communicationActions.remove(communicateAction);
+                        }
+                    };
 
                     communicationActions.add(communicateAction);
+                    if (threadModel == LoadBalanceServerThreadModel.VIRTUAL) {
+                        Thread.ofVirtual().name(threadName).start(removeOnCompletion);
+                    } else {
+                        final Thread commsThread = new Thread(removeOnCompletion);
+                        commsThread.setName(threadName);
+                        commsThread.start();
+                    }
                 } catch (final Exception e) {
                     logger.error("{} Failed to accept connection from other node in cluster", ConnectionLoadBalanceServer.this, e);
                 }
@@ -285,6 +307,6 @@ public class ConnectionLoadBalanceServer {
 
     @Override
     public String toString() {
-        return "ConnectionLoadBalanceServer[hostname=" + hostname + ", port=" + port + ", secure=" + (sslContext != null) + "]";
+        return "ConnectionLoadBalanceServer[hostname=" + hostname + ", port=" + port + ", secure=" + (sslContext != null) + ", threadModel=" + threadModel + "]";
     }
 }
@@ -23,12 +23,14 @@ import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.IllegalClusterStateException;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.repository.AttributeKeyDictionary;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.RepositoryRecord;
 import org.apache.nifi.controller.repository.StandardFlowFileRecord;
 import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
@@ -92,6 +94,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     private static final int NO_DATA_AVAILABLE = 0;
 
     private final FlowFileRepository flowFileRepository;
+    private final AttributeKeyDictionary attributeKeyDictionary;
     private final ContentRepository contentRepository;
     private final ProvenanceRepository provenanceRepository;
     private final FlowController flowController;
@@ -103,6 +106,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     public StandardLoadBalanceProtocol(final FlowFileRepository flowFileRepository, final ContentRepository contentRepository, final ProvenanceRepository provenanceRepository,
                                        final FlowController flowController, final LoadBalanceAuthorizer authorizer) {
         this.flowFileRepository = flowFileRepository;
+        this.attributeKeyDictionary = flowFileRepository instanceof WriteAheadFlowFileRepository ? ((WriteAheadFlowFileRepository) flowFileRepository).getAttributeKeyDictionary() : null;
         this.contentRepository = contentRepository;
         this.provenanceRepository = provenanceRepository;
         this.flowController = flowController;
@@ -518,6 +522,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
 
         final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
             .id(flowFileRepository.getNextFlowFileSequence())
+            .attributeKeyDictionary(attributeKeyDictionary)
             .addAttributes(attributes)
             .addAttribute(CoreAttributes.UUID.key(), UUID.randomUUID().toString())
             .contentClaim(contentClaimTriple.getContentClaim())
@@ -579,13 +584,24 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
 
         long claimLength = 0;
         while (true) {
-            final InputStream limitedIn = new LimitedInputStream(in, dataFrameLength);
-            final ByteCountingInputStream bcis = new ByteCountingInputStream(limitedIn);
-            final InputStream contentIn = compressed ? new GZIPInputStream(bcis) : bcis;
-            final int decompressedSize = StreamUtils.fillBuffer(contentIn, buffer, false);
+            final int decompressedSize;
+            if (compressed) {
+                final InputStream limitedIn = new LimitedInputStream(in, dataFrameLength);
+                final ByteCountingInputStream bcis = new ByteCountingInputStream(limitedIn);
+                decompressedSize = StreamUtils.fillBuffer(new GZIPInputStream(bcis), buffer, false);
+
+                if (bcis.getBytesRead() < dataFrameLength) {
+                    throw new EOFException("Expected to receive a Data Frame of length " + dataFrameLength + " bytes but received only " + bcis.getBytesRead() + " bytes");
+                }
+            } else {
+                // Uncompressed frames are read directly into the buffer, avoiding the overhead of wrapping the stream for each frame
+                if (dataFrameLength < 0 || dataFrameLength > buffer.length) {
+                    throw new IOException("Received a Data Frame Length of " + dataFrameLength + " bytes from Peer " + peerDescription + " but the maximum supported length is "
+                        + buffer.length + " bytes");
+                }
 
-            if (bcis.getBytesRead() < dataFrameLength) {
-                throw new EOFException("Expected to receive a Data Frame of length " + dataFrameLength + " bytes but received only " + bcis.getBytesRead() + " bytes");
+                StreamUtils.read(in, buffer, dataFrameLength);
+                decompressedSize = dataFrameLength;
             }
 
             out.write(buffer, 0, decompressedSize);
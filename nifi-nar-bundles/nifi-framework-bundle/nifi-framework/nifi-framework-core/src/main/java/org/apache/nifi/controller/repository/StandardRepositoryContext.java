@@ -37,4 +37,10 @@ public class StandardRepositoryContext extends AbstractRepositoryContext impleme
     public ContentClaimWriteCache createContentClaimWriteCache(final PerformanceTracker performanceTracker) {
         return new StandardContentClaimWriteCache(getContentRepository(), performanceTracker);
     }
+
+    @Override
+    public AttributeKeyDictionary getAttributeKeyDictionary() {
+        final FlowFileRepository flowFileRepository = getFlowFileRepository();
+        return flowFileRepository instanceof WriteAheadFlowFileRepository ? ((WriteAheadFlowFileRepository) flowFileRepository).getAttributeKeyDictionary() : null;
+    }
 }
@@ -22,13 +22,16 @@ import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.repository.encryption.configuration.EncryptionProtocol;
 import org.apache.nifi.repository.schema.FieldCache;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.apache.nifi.wali.EncryptedSequentialAccessWriteAheadLog;
+import org.apache.nifi.wali.GroupCommitSynchronizer;
 import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
 import org.apache.nifi.wali.SnapshotCapture;
+import org.apache.nifi.wali.WriteAheadJournalFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wali.SyncListener;
@@ -43,6 +46,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,7 +54,9 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -87,17 +93,39 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     private static final String WRITE_AHEAD_LOG_IMPL = "nifi.flowfile.repository.wal.implementation";
     private static final String RETAIN_ORPHANED_FLOWFILES = "nifi.flowfile.repository.retain.orphaned.flowfiles";
     private static final String FLOWFILE_REPO_CACHE_SIZE = "nifi.flowfile.repository.wal.cache.characters";
+    private static final String GROUP_COMMIT_ENABLED = "nifi.flowfile.repository.group.commit.enabled";
+    private static final String GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.group.commit.window";
+    private static final String JOURNAL_IMPL = "nifi.flowfile.repository.wal.journal.implementation";
+    private static final String JOURNAL_SEGMENT_SIZE = "nifi.flowfile.repository.wal.journal.segment.size";
+    private static final String MAX_DELTA_SNAPSHOTS = "nifi.flowfile.repository.checkpoint.max.delta.snapshots";
+    private static final String RECOVERY_THREADS = "nifi.flowfile.repository.recovery.threads";
+    private static final String COMPACT_ATTRIBUTES_ENABLED = "nifi.flowfile.repository.compact.attributes.enabled";
+    private static final String COMPACT_ATTRIBUTES_MAX_KEYS = "nifi.flowfile.repository.compact.attributes.max.keys";
 
     static final String SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.SequentialAccessWriteAheadLog";
     static final String ENCRYPTED_SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.EncryptedSequentialAccessWriteAheadLog";
     private static final String DEFAULT_WAL_IMPLEMENTATION = SEQUENTIAL_ACCESS_WAL;
     private static final int DEFAULT_CACHE_SIZE = 10_000_000;
+    private static final String DEFAULT_GROUP_COMMIT_WINDOW = "0 millis";
+
+    static final String LENGTH_DELIMITED_JOURNAL = "org.apache.nifi.wali.LengthDelimitedJournal";
+    static final String MEMORY_MAPPED_JOURNAL = "org.apache.nifi.wali.MemoryMappedJournal";
+    private static final String DEFAULT_JOURNAL_IMPLEMENTATION = LENGTH_DELIMITED_JOURNAL;
+    private static final String DEFAULT_JOURNAL_SEGMENT_SIZE = "64 MB";
+    private static final int DEFAULT_COMPACT_ATTRIBUTES_MAX_KEYS = 65_536;
 
     private final String walImplementation;
     protected final NiFiProperties nifiProperties;
 
     private final AtomicLong flowFileSequenceGenerator = new AtomicLong(0L);
     private final boolean alwaysSync;
+    private final boolean groupCommitEnabled;
+    private final long groupCommitWindowNanos;
+    private final String journalImplementation;
+    private final int journalSegmentSize;
+    private final int maxDeltaSnapshots;
+    private final int recoveryThreads;
+    private final AttributeKeyDictionary attributeKeyDictionary;
     private final boolean retainOrphanedFlowFiles;
 
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadFlowFileRepository.class);
@@ -109,6 +137,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     private final int maxCharactersToCache;
 
     private volatile Collection<SerializedRepositoryRecord> recoveredRecords = null;
+    private final Map<String, Long> recoveryTimings = Collections.synchronizedMap(new LinkedHashMap<>());
     private final Set<ResourceClaim> orphanedResourceClaims = Collections.synchronizedSet(new HashSet<>());
 
     private final Set<String> swapLocationSuffixes = new HashSet<>(); // guarded by synchronizing on object itself
@@ -147,6 +176,13 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
      */
     public WriteAheadFlowFileRepository() {
         alwaysSync = false;
+        groupCommitEnabled = false;
+        groupCommitWindowNanos = 0L;
+        journalImplementation = null;
+        journalSegmentSize = 0;
+        maxDeltaSnapshots = 0;
+        recoveryThreads = 1;
+        attributeKeyDictionary = null;
         checkpointDelayMillis = 0L;
         checkpointExecutor = null;
         walImplementation = null;
@@ -157,6 +193,15 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     public WriteAheadFlowFileRepository(final NiFiProperties nifiProperties) {
         alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_ALWAYS_SYNC, "false"));
+        groupCommitEnabled = Boolean.parseBoolean(nifiProperties.getProperty(GROUP_COMMIT_ENABLED, "false"));
+        groupCommitWindowNanos = FormatUtils.getTimeDuration(nifiProperties.getProperty(GROUP_COMMIT_WINDOW, DEFAULT_GROUP_COMMIT_WINDOW), TimeUnit.NANOSECONDS);
+        journalImplementation = nifiProperties.getProperty(JOURNAL_IMPL, DEFAULT_JOURNAL_IMPLEMENTATION).trim();
+        journalSegmentSize = DataUnit.parseDataSize(nifiProperties.getProperty(JOURNAL_SEGMENT_SIZE, DEFAULT_JOURNAL_SEGMENT_SIZE), DataUnit.B).intValue();
+        maxDeltaSnapshots = Integer.parseInt(nifiProperties.getProperty(MAX_DELTA_SNAPSHOTS, "0").trim());
+        recoveryThreads = Integer.parseInt(nifiProperties.getProperty(RECOVERY_THREADS, "1").trim());
+        final boolean compactAttributesEnabled = Boolean.parseBoolean(nifiProperties.getProperty(COMPACT_ATTRIBUTES_ENABLED, "false"));
+        attributeKeyDictionary = compactAttributesEnabled
+            ? new AttributeKeyDictionary(nifiProperties.getIntegerProperty(COMPACT_ATTRIBUTES_MAX_KEYS, DEFAULT_COMPACT_ATTRIBUTES_MAX_KEYS)) : null;
         this.nifiProperties = nifiProperties;
 
         final String orphanedFlowFileProperty = nifiProperties.getProperty(RETAIN_ORPHANED_FLOWFILES);
@@ -198,9 +243,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
         if (EncryptedSequentialAccessWriteAheadLog.class.getName().equals(implementation) || encryptionConfigured) {
             logger.info("Creating Encrypted FlowFile Repository [{}]", EncryptedSequentialAccessWriteAheadLog.class.getName());
-            return new EncryptedRepositoryRecordSerdeFactory(claimManager, nifiProperties, fieldCache);
+            return new EncryptedRepositoryRecordSerdeFactory(claimManager, nifiProperties, fieldCache, attributeKeyDictionary);
         } else {
-            return new StandardRepositoryRecordSerdeFactory(claimManager, fieldCache);
+            return new StandardRepositoryRecordSerdeFactory(claimManager, fieldCache, attributeKeyDictionary);
         }
     }
 
@@ -218,10 +263,17 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // delete backup. On restore, if no files exist in partition's directory, would have to check backup directory
         this.serdeFactory = serdeFactory;
 
+        if (attributeKeyDictionary != null) {
+            logger.info("FlowFile attributes will be held in compact Maps sharing up to {} attribute keys", attributeKeyDictionary.getMaxKeys());
+        }
+
         // The specified implementation can be plaintext or encrypted; the only difference is the serde factory
         if (walImplementation.equals(SEQUENTIAL_ACCESS_WAL) || walImplementation.equals(ENCRYPTED_SEQUENTIAL_ACCESS_WAL)) {
             // TODO: May need to instantiate ESAWAL for clarity?
-            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
+            final GroupCommitSynchronizer groupCommitSynchronizer = createGroupCommitSynchronizer();
+            final WriteAheadJournalFactory<SerializedRepositoryRecord> journalFactory = createJournalFactory();
+            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this, groupCommitSynchronizer, journalFactory, maxDeltaSnapshots,
+                recoveryThreads);
         } else {
             throw new IllegalStateException("Cannot create Write-Ahead Log because the configured property '" + WRITE_AHEAD_LOG_IMPL + "' has an invalid value of '" + walImplementation
                     + "'. Please update nifi.properties to indicate a valid value for this property.");
@@ -230,6 +282,29 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         logger.info("Initialized FlowFile Repository");
     }
 
+    private GroupCommitSynchronizer createGroupCommitSynchronizer() {
+        if (!alwaysSync || !groupCommitEnabled) {
+            return null;
+        }
+
+        logger.info("FlowFile Repository will coalesce journal syncs using Group Commit with a batch window of {} nanos", groupCommitWindowNanos);
+        return new GroupCommitSynchronizer(groupCommitWindowNanos);
+    }
+
+    private WriteAheadJournalFactory<SerializedRepositoryRecord> createJournalFactory() {
+        if (journalImplementation.equals(LENGTH_DELIMITED_JOURNAL)) {
+            return WriteAheadJournalFactory.lengthDelimited();
+        }
+
+        if (journalImplementation.equals(MEMORY_MAPPED_JOURNAL)) {
+            logger.info("FlowFile Repository will write to memory-mapped journal segments of {} bytes", journalSegmentSize);
+            return WriteAheadJournalFactory.memoryMapped(journalSegmentSize);
+        }
+
+        throw new IllegalStateException("Cannot create Write-Ahead Log because the configured property '" + JOURNAL_IMPL + "' has an invalid value of '" + journalImplementation
+                + "'. Please update nifi.properties to indicate a valid value for this property.");
+    }
+
     @Override
     public void close() throws IOException {
         if (checkpointFuture != null) {
@@ -240,6 +315,14 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         wal.shutdown();
     }
 
+    /**
+     * @return the dictionary that FlowFiles belonging to this repository use to share attribute keys, or <code>null</code> if attributes
+     * are not held compactly
+     */
+    public AttributeKeyDictionary getAttributeKeyDictionary() {
+        return attributeKeyDictionary;
+    }
+
     @Override
     public boolean isVolatile() {
         return false;
@@ -708,7 +791,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     @Override
     public Set<String> findQueuesWithFlowFiles(final FlowFileSwapManager swapManager) throws IOException {
         if (recoveredRecords == null) {
-            recoveredRecords = wal.recoverRecords();
+            recoveredRecords = recoverRecords();
         }
 
         final Set<String> queueIds = new HashSet<>();
@@ -734,6 +817,53 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         return queueIds;
     }
 
+    private Collection<SerializedRepositoryRecord> recoverRecords() throws IOException {
+        final long start = System.nanoTime();
+        final Collection<SerializedRepositoryRecord> records = wal.recoverRecords();
+        recoveryTimings.put("Write-Ahead Log Recovery", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (wal instanceof SequentialAccessWriteAheadLog) {
+            for (final Map.Entry<String, Long> entry : ((SequentialAccessWriteAheadLog<?>) wal).getRecoveryTimings().entrySet()) {
+                recoveryTimings.put("Write-Ahead Log " + entry.getKey(), entry.getValue());
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Adds the recovered FlowFiles to their queues. Because the queues are independent of one another, each queue is populated
+     * by a separate task when recovering with multiple threads.
+     */
+    private void populateQueues(final Map<FlowFileQueue, List<FlowFileRecord>> queueContents) throws IOException {
+        if (recoveryThreads < 2 || queueContents.size() < 2) {
+            queueContents.forEach(FlowFileQueue::putAll);
+            return;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(recoveryThreads);
+        try {
+            pool.submit(() -> queueContents.entrySet().parallelStream().forEach(entry -> entry.getKey().putAll(entry.getValue()))).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while restoring FlowFiles to their queues", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Failed to restore FlowFiles to their queues", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of milliseconds spent in each phase of recovering the FlowFile Repository on startup, in the order in which
+     *         the phases occurred
+     */
+    public Map<String, Long> getRecoveryTimings() {
+        synchronized (recoveryTimings) {
+            return new LinkedHashMap<>(recoveryTimings);
+        }
+    }
+
     @Override
     public long loadFlowFiles(final QueueProvider queueProvider) throws IOException {
         // If we have already loaded the records from the write-ahead logs, use them. Otherwise, recover the records now.
@@ -743,7 +873,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         if (recoveredRecords == null) {
             // Since we used to use the MinimalLockingWriteAheadRepository, we need to ensure that if the FlowFile
             // Repo was written using that impl, that we properly recover from the implementation.
-            recordList = wal.recoverRecords();
+            recordList = recoverRecords();
         } else {
             recordList = recoveredRecords;
         }
@@ -761,6 +891,8 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
             queueMap.put(queue.getIdentifier(), queue);
         }
 
+        final long queuePopulationStart = System.nanoTime();
+        final Map<FlowFileQueue, List<FlowFileRecord>> queueContents = new HashMap<>();
         final List<SerializedRepositoryRecord> dropRecords = new ArrayList<>();
         int numFlowFilesMissingQueue = 0;
         long maxId = 0;
@@ -818,9 +950,12 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
                 claimManager.incrementClaimantCount(claim.getResourceClaim());
             }
 
-            flowFileQueue.put(record.getFlowFileRecord());
+            queueContents.computeIfAbsent(flowFileQueue, queue -> new ArrayList<>()).add(record.getFlowFileRecord());
         }
 
+        populateQueues(queueContents);
+        recoveryTimings.put("Queue Population", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuePopulationStart));
+
         // If recoveredRecords has been populated it need to be nulled out now because it is no longer useful and can be garbage collected.
         recoveredRecords = null;
 
@@ -840,6 +975,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
             final long updateEnd = System.nanoTime();
             final long updateMillis = TimeUnit.MILLISECONDS.convert(updateEnd - updateStart, TimeUnit.NANOSECONDS);
             logger.info("Successfully updated FlowFile Repository with {} Drop Records due to missing queues in {} milliseconds", dropRecords.size(), updateMillis);
+            recoveryTimings.put("Drop Record Update", updateMillis);
         }
 
         final Runnable checkpointRunnable = new Runnable() {
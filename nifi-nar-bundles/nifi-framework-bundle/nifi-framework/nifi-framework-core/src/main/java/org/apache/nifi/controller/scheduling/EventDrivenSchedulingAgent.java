@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.tasks.ConnectableTask;
+import org.apache.nifi.controller.tasks.InvocationResult;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.util.Connectables;
+import org.apache.nifi.util.NiFiProperties;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * A Scheduling Agent for Timer-Driven components that triggers Processors and Funnels when FlowFiles become available in one of their incoming
+ * queues, rather than polling them on a timer. A component that finds no work to do is not triggered again until FlowFiles are added to one of its
+ * queues, so idle components consume no CPU and new data is processed without waiting for the Bored Yield Duration to elapse.
+ * </p>
+ *
+ * <p>
+ * Only components that are driven entirely by their incoming data are triggered by events: components that have no incoming connections from other
+ * components, that are annotated with <code>@TriggerWhenEmpty</code>, that run only on the Primary Node, or that have a non-zero Run Schedule continue to be
+ * scheduled by the {@link TimerDrivenSchedulingAgent}, as are Processors that are configured to run on virtual threads, Ports and Reporting Tasks.
+ * </p>
+ *
+ * <p>
+ * Triggered components run in a {@link ForkJoinPool}, in which each worker thread has its own deque of tasks. A component that is triggered by a worker thread,
+ * for example because the worker just transferred FlowFiles to it, is queued on that worker's deque so that it is likely to run on the same thread while
+ * the FlowFiles are still in the CPU's cache. Idle worker threads steal tasks from the deques of busy ones.
+ * </p>
+ *
+ * <p>
+ * The Maximum Timer Driven Thread Count is divided between the {@link ForkJoinPool} and the {@link FlowEngine} that runs the components that are still
+ * polled, according to the <code>nifi.processor.scheduling.event.driven.thread.percentage</code> property, so that the two together do not use more
+ * threads than the configured maximum. Components run in the {@link ForkJoinPool} as {@link ForkJoinPool.ManagedBlocker}s, because they may block on I/O
+ * or while committing their sessions; the pool may start additional threads to replace blocked ones, but never more than its share of the
+ * Maximum Timer Driven Thread Count.
+ * </p>
+ */
+public class EventDrivenSchedulingAgent extends TimerDrivenSchedulingAgent {
+    // Components that have FlowFiles queued but are not running are triggered at this interval, so that they run once the FlowFiles' penalties expire
+    // or once back pressure is released by a component that is not triggered by events.
+    private static final long WORK_CHECK_INTERVAL_MILLIS = 100L;
+
+    private final int eventDrivenThreadPercentage;
+    private volatile ForkJoinPool workerPool; // replaced when the number of threads changes; guarded by synchronizing on this for writes
+    private int eventDrivenThreadCount; // guarded by synchronizing on this
+    private final Map<Connectable, EventDrivenTask> eventDrivenTasks = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> workCheckFuture;
+
+    public EventDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
+                                      final NiFiProperties nifiProperties, final VirtualThreadMonitor virtualThreadMonitor, final int maxThreadCount) {
+        super(flowController, flowEngine, contextFactory, nifiProperties, virtualThreadMonitor);
+
+        eventDrivenThreadPercentage = nifiProperties.getProcessorSchedulingEventDrivenThreadPercentage();
+        setMaxThreadCount(maxThreadCount);
+        workCheckFuture = flowEngine.scheduleWithFixedDelay(this::triggerComponentsWithWork, WORK_CHECK_INTERVAL_MILLIS, WORK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        workCheckFuture.cancel(false);
+        synchronized (this) {
+            workerPool.shutdown();
+        }
+        super.shutdown();
+    }
+
+    @Override
+    public void doSchedule(final Connectable connectable, final LifecycleState scheduleState) {
+        if (!isTriggeredByEvents(connectable)) {
+            super.doSchedule(connectable, scheduleState);
+            return;
+        }
+
+        final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+        final EventDrivenTask eventDrivenTask = new EventDrivenTask(connectableTask, scheduleState);
+        eventDrivenTasks.put(connectable, eventDrivenTask);
+
+        for (final Connection connection : connectable.getIncomingConnections()) {
+            connection.getFlowFileQueue().setFlowFileAvailabilityListener(eventDrivenTask::trigger);
+        }
+
+        scheduleState.setFutures(Collections.emptyList());
+
+        // Trigger the component once in case FlowFiles were queued while it was stopped
+        eventDrivenTask.trigger();
+        logger.info("Scheduled {} to run with up to {} threads when FlowFiles are available", connectable, connectable.getMaxConcurrentTasks());
+    }
+
+    @Override
+    public void doUnschedule(final Connectable connectable, final LifecycleState lifecycleState) {
+        final EventDrivenTask eventDrivenTask = eventDrivenTasks.remove(connectable);
+        if (eventDrivenTask == null) {
+            super.doUnschedule(connectable, lifecycleState);
+            return;
+        }
+
+        for (final Connection connection : connectable.getIncomingConnections()) {
+            connection.getFlowFileQueue().setFlowFileAvailabilityListener(null);
+        }
+
+        eventDrivenTask.cancel();
+        logger.info("Stopped scheduling {} to run", connectable);
+    }
+
+    @Override
+    public void onEvent(final Connectable connectable) {
+        final EventDrivenTask eventDrivenTask = eventDrivenTasks.get(connectable);
+        if (eventDrivenTask != null) {
+            eventDrivenTask.trigger();
+        }
+    }
+
+    /**
+     * Divides the given Maximum Timer Driven Thread Count between the threads that run components that are triggered by events and the
+     * threads of the Timer Driven Thread Pool. Each of the two is given at least one thread.
+     *
+     * @param maxThreads the Maximum Timer Driven Thread Count
+     */
+    @Override
+    public synchronized void setMaxThreadCount(final int maxThreads) {
+        final int eventDrivenThreads = getEventDrivenThreadCount(maxThreads, eventDrivenThreadPercentage);
+        final int timerDrivenThreads = Math.max(1, maxThreads - eventDrivenThreads);
+
+        flowEngine.setCorePoolSize(timerDrivenThreads);
+        setEventDrivenThreadCount(eventDrivenThreads);
+        logger.info("Of the Maximum Timer Driven Thread Count of {}, {} threads will run components that are triggered by events and {} threads will run components that are polled",
+            maxThreads, eventDrivenThreads, timerDrivenThreads);
+    }
+
+    @Override
+    public synchronized void incrementMaxThreadCount(final int toAdd) {
+        super.incrementMaxThreadCount(toAdd);
+        setEventDrivenThreadCount(eventDrivenThreadCount + toAdd);
+    }
+
+    static int getEventDrivenThreadCount(final int maxThreads, final int eventDrivenThreadPercentage) {
+        return Math.max(1, (int) ((long) maxThreads * eventDrivenThreadPercentage / 100));
+    }
+
+    /**
+     * The maximum size of a {@link ForkJoinPool} cannot be changed once it has been created, so the pool is replaced when the number of threads changes.
+     * Tasks that have already been submitted to the previous pool are allowed to finish.
+     */
+    private void setEventDrivenThreadCount(final int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalStateException("Cannot reduce the number of threads that run components that are triggered by events to " + threadCount);
+        }
+
+        if (workerPool != null && threadCount == eventDrivenThreadCount) {
+            return;
+        }
+
+        final ForkJoinPool previousPool = workerPool;
+        workerPool = createWorkerPool(threadCount);
+        eventDrivenThreadCount = threadCount;
+
+        if (previousPool != null) {
+            previousPool.shutdown();
+        }
+    }
+
+    private ForkJoinPool createWorkerPool(final int threadCount) {
+        // Up to one thread per core runs components at a time. Components that block are replaced with additional threads, but only up to the
+        // given number of threads. If all of them are blocked, submitted tasks wait rather than being rejected.
+        final int parallelism = Math.min(threadCount, Runtime.getRuntime().availableProcessors());
+        return new ForkJoinPool(parallelism, new EventDrivenThreadFactory(),
+            (thread, throwable) -> logger.error("Uncaught exception in {}", thread.getName(), throwable), true,
+            0, threadCount, 1, pool -> true, 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the number of threads that are currently running components that are triggered by events
+     */
+    public int getActiveThreadCount() {
+        return workerPool.getActiveThreadCount();
+    }
+
+    boolean isTriggeredByEvents(final Connectable connectable) {
+        final ConnectableType connectableType = connectable.getConnectableType();
+        if (connectableType != ConnectableType.PROCESSOR && connectableType != ConnectableType.FUNNEL) {
+            return false;
+        }
+
+        return connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS) == 0L
+            && !connectable.isTriggerWhenEmpty()
+            && !connectable.isIsolated()
+            && !isRunOnVirtualThreads(connectable)
+            && Connectables.hasNonLoopConnection(connectable);
+    }
+
+    private void triggerComponentsWithWork() {
+        final long now = System.currentTimeMillis();
+        for (final EventDrivenTask eventDrivenTask : eventDrivenTasks.values()) {
+            if (eventDrivenTask.isIdle() && eventDrivenTask.getConnectable().getYieldExpiration() <= now && Connectables.flowFilesQueued(eventDrivenTask.getConnectable())) {
+                eventDrivenTask.trigger();
+            }
+        }
+    }
+
+    private static boolean isBackPressureEngaged(final Connectable connectable) {
+        for (final Connection connection : connectable.getConnections()) {
+            if (connection.getFlowFileQueue().isFull()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private class EventDrivenTask {
+        private final ConnectableTask connectableTask;
+        private final Connectable connectable;
+        private final LifecycleState scheduleState;
+        private final AtomicInteger activeTasks = new AtomicInteger(0);
+        private final AtomicReference<ScheduledFuture<?>> yieldFutureRef = new AtomicReference<>();
+        private volatile boolean blockedByBackPressure = false;
+
+        EventDrivenTask(final ConnectableTask connectableTask, final LifecycleState scheduleState) {
+            this.connectableTask = connectableTask;
+            this.connectable = connectableTask.getConnectable();
+            this.scheduleState = scheduleState;
+        }
+
+        Connectable getConnectable() {
+            return connectable;
+        }
+
+        boolean isIdle() {
+            return activeTasks.get() == 0;
+        }
+
+        /**
+         * Submits a task to run the component, unless the component is already running with its maximum number of Concurrent Tasks
+         */
+        void trigger() {
+            if (!scheduleState.isScheduled()) {
+                return;
+            }
+
+            int active;
+            do {
+                active = activeTasks.get();
+                if (active >= connectable.getMaxConcurrentTasks()) {
+                    return;
+                }
+            } while (!activeTasks.compareAndSet(active, active + 1));
+
+            try {
+                workerPool.execute(this::run);
+            } catch (final RejectedExecutionException e) {
+                activeTasks.decrementAndGet();
+                logger.debug("Unable to trigger {} because the Scheduling Agent has been shut down", connectable);
+            }
+        }
+
+        void cancel() {
+            final ScheduledFuture<?> yieldFuture = yieldFutureRef.getAndSet(null);
+            if (yieldFuture != null) {
+                yieldFuture.cancel(false);
+            }
+        }
+
+        private void run() {
+            final InvocationBlocker invocationBlocker = new InvocationBlocker(connectableTask);
+            try {
+                ForkJoinPool.managedBlock(invocationBlocker);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                activeTasks.decrementAndGet();
+            }
+
+            final InvocationResult invocationResult = invocationBlocker.getInvocationResult();
+
+            if (!scheduleState.isScheduled()) {
+                return;
+            }
+
+            // If the component is yielded, trigger it again once the yield has expired.
+            final long yieldMillis = connectable.getYieldExpiration() - System.currentTimeMillis();
+            if (yieldMillis > 0) {
+                triggerAfterYield(yieldMillis);
+                return;
+            }
+
+            if (invocationResult.isYield()) {
+                logger.debug("{} is waiting for work due to {}", connectable, invocationResult.getYieldExplanation());
+
+                // If back pressure is engaged, the component is triggered again once a downstream component has processed some of the FlowFiles.
+                // Otherwise, FlowFiles may have become available after the task determined that there was no work to do, while this task still counted
+                // toward the component's Concurrent Tasks, in which case the notification was ignored and the component must be triggered now.
+                blockedByBackPressure = isBackPressureEngaged(connectable);
+                if (!blockedByBackPressure && Connectables.flowFilesQueued(connectable)) {
+                    trigger();
+                }
+
+                return;
+            }
+
+            blockedByBackPressure = false;
+            if (Connectables.flowFilesQueued(connectable)) {
+                // Trigger the component twice so that the number of threads running it grows toward the number of Concurrent Tasks while there is work to do.
+                trigger();
+                trigger();
+            }
+
+            // This task may have freed up space in its incoming queues, so components that were blocked from transferring FlowFiles into those queues may now run.
+            triggerUpstreamComponents();
+        }
+
+        private void triggerAfterYield(final long yieldMillis) {
+            final ScheduledFuture<?> yieldFuture = flowEngine.schedule(this::trigger, yieldMillis, TimeUnit.MILLISECONDS);
+            final ScheduledFuture<?> previousFuture = yieldFutureRef.getAndSet(yieldFuture);
+            if (previousFuture != null) {
+                previousFuture.cancel(false);
+            }
+        }
+
+        private void triggerUpstreamComponents() {
+            for (final Connection connection : connectable.getIncomingConnections()) {
+                final Connectable source = connection.getSource();
+                if (source == connectable || connection.getFlowFileQueue().isFull()) {
+                    continue;
+                }
+
+                final EventDrivenTask sourceTask = eventDrivenTasks.get(source);
+                if (sourceTask != null && sourceTask.blockedByBackPressure) {
+                    sourceTask.trigger();
+                }
+            }
+        }
+    }
+
+    /**
+     * Invokes a component from within {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)} so that the pool is aware that the
+     * component may block
+     */
+    private static class InvocationBlocker implements ForkJoinPool.ManagedBlocker {
+        private final ConnectableTask connectableTask;
+        private InvocationResult invocationResult;
+        private boolean invoked = false;
+
+        InvocationBlocker(final ConnectableTask connectableTask) {
+            this.connectableTask = connectableTask;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                invocationResult = connectableTask.invoke();
+            } finally {
+                invoked = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return invoked;
+        }
+
+        InvocationResult getInvocationResult() {
+            return invocationResult;
+        }
+    }
+
+    private static class EventDrivenThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger(0);
+
+        @Override
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Event-Driven Process Thread-" + threadCount.incrementAndGet());
+            return thread;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.nifi.controller.scheduling;
 
 import org.apache.nifi.connectable.Connectable;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
 import org.apache.nifi.controller.ReportingTaskNode;
 import org.apache.nifi.controller.tasks.ConnectableTask;
 import org.apache.nifi.controller.tasks.InvocationResult;
@@ -27,17 +28,36 @@ import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent {
     private final long noWorkYieldNanos;
+    private final Set<String> virtualThreadTypes;
+    private final VirtualThreadMonitor virtualThreadMonitor;
+    private final Map<Connectable, List<VirtualThreadTask>> virtualThreadTasks = new ConcurrentHashMap<>();
 
     public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
                                       final NiFiProperties nifiProperties) {
+        this(flowController, flowEngine, contextFactory, nifiProperties, new VirtualThreadMonitor());
+    }
+
+    public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
+                                      final NiFiProperties nifiProperties, final VirtualThreadMonitor virtualThreadMonitor) {
         super(flowEngine, flowController, contextFactory);
+        this.virtualThreadMonitor = virtualThreadMonitor;
+        this.virtualThreadTypes = nifiProperties.getProcessorVirtualThreadTypes();
+        if (!virtualThreadTypes.isEmpty()) {
+            logger.info("Processors of the following types will be run on virtual threads: {}", virtualThreadTypes);
+            virtualThreadMonitor.start();
+        }
 
         final String boredYieldDuration = nifiProperties.getBoredYieldDuration();
         try {
@@ -49,6 +69,12 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
 
     @Override
     public void shutdown() {
+        for (final List<VirtualThreadTask> tasks : virtualThreadTasks.values()) {
+            tasks.forEach(VirtualThreadTask::cancel);
+        }
+        virtualThreadTasks.clear();
+        virtualThreadMonitor.close();
+
         flowEngine.shutdown();
     }
 
@@ -67,6 +93,11 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
 
     @Override
     public void doSchedule(final Connectable connectable, final LifecycleState scheduleState) {
+        if (isRunOnVirtualThreads(connectable)) {
+            scheduleOnVirtualThreads(connectable, scheduleState);
+            return;
+        }
+
         final List<ScheduledFuture<?>> futures = new ArrayList<>();
         final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
 
@@ -163,6 +194,15 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
 
     @Override
     public void doUnschedule(final Connectable connectable, final LifecycleState lifecycleState) {
+        final List<VirtualThreadTask> tasks = virtualThreadTasks.remove(connectable);
+        if (tasks != null) {
+            // stop scheduling to run but do not interrupt currently running tasks.
+            tasks.forEach(VirtualThreadTask::cancel);
+            virtualThreadMonitor.onComponentUnscheduled(connectable.getIdentifier());
+            logger.info("Stopped scheduling {} to run", connectable);
+            return;
+        }
+
         for (final ScheduledFuture<?> future : lifecycleState.getFutures()) {
             // stop scheduling to run but do not interrupt currently running tasks.
             future.cancel(false);
@@ -188,4 +228,110 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
     @Override
     public void setMaxThreadCount(final int maxThreads) {
     }
+
+    /**
+     * Determines whether or not the given component should be run on virtual threads, based on the Processor types configured in the
+     * <code>nifi.processor.virtual.thread.types</code> property
+     *
+     * @param connectable the component
+     * @return <code>true</code> if the component is a Processor whose type is configured to run on virtual threads, <code>false</code> otherwise
+     */
+    protected boolean isRunOnVirtualThreads(final Connectable connectable) {
+        if (virtualThreadTypes.isEmpty() || !(connectable instanceof ProcessorNode)) {
+            return false;
+        }
+
+        final ProcessorNode processorNode = (ProcessorNode) connectable;
+        return virtualThreadTypes.contains(processorNode.getCanonicalClassName()) || virtualThreadTypes.contains(processorNode.getComponentType());
+    }
+
+    private void scheduleOnVirtualThreads(final Connectable connectable, final LifecycleState scheduleState) {
+        final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+
+        // Each Concurrent Task is run on its own virtual thread, so the number of Concurrent Tasks still limits the number of concurrent invocations.
+        final List<VirtualThreadTask> tasks = new ArrayList<>();
+        for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
+            tasks.add(new VirtualThreadTask(connectableTask, scheduleState));
+        }
+
+        virtualThreadTasks.put(connectable, tasks);
+        virtualThreadMonitor.onComponentScheduled(connectable.getIdentifier());
+        scheduleState.setFutures(Collections.emptyList());
+
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).start(VirtualThreadMonitor.createThreadName(connectable.getIdentifier(), i + 1));
+        }
+
+        logger.info("Scheduled {} to run with {} virtual threads", connectable, tasks.size());
+    }
+
+    /**
+     * Repeatedly triggers a component on a virtual thread, waiting between invocations in the same way that the Timer-Driven Thread Pool would.
+     * Waiting parks only the virtual thread, not its carrier thread.
+     */
+    private class VirtualThreadTask implements Runnable {
+        private final ConnectableTask connectableTask;
+        private final Connectable connectable;
+        private final LifecycleState scheduleState;
+        private final CountDownLatch cancelLatch = new CountDownLatch(1);
+
+        VirtualThreadTask(final ConnectableTask connectableTask, final LifecycleState scheduleState) {
+            this.connectableTask = connectableTask;
+            this.connectable = connectableTask.getConnectable();
+            this.scheduleState = scheduleState;
+        }
+
+        void start(final String threadName) {
+            Thread.ofVirtual().name(threadName).start(this);
+        }
+
+        void cancel() {
+            cancelLatch.countDown();
+        }
+
+        @Override
+        public void run() {
+            while (isRunning()) {
+                final InvocationResult invocationResult;
+                try {
+                    invocationResult = connectableTask.invoke();
+                } catch (final Throwable t) {
+                    logger.error("Failed to trigger {}", connectable, t);
+                    waitNanos(connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS));
+                    continue;
+                }
+
+                if (invocationResult.isYield()) {
+                    logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
+                }
+
+                final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+                final long yieldMillis = connectable.getYieldExpiration() - System.currentTimeMillis();
+                if (yieldMillis > 0) {
+                    waitNanos(Math.max(schedulingNanos, TimeUnit.MILLISECONDS.toNanos(yieldMillis)));
+                } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
+                    waitNanos(Math.max(schedulingNanos, noWorkYieldNanos));
+                } else {
+                    waitNanos(schedulingNanos);
+                }
+            }
+        }
+
+        private boolean isRunning() {
+            return cancelLatch.getCount() > 0 && scheduleState.isScheduled();
+        }
+
+        private void waitNanos(final long nanos) {
+            if (nanos <= 0L) {
+                return;
+            }
+
+            try {
+                cancelLatch.await(nanos, TimeUnit.NANOSECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+            }
+        }
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the components that are run on virtual threads and of the times that those virtual threads were pinned to their carrier threads,
+ * which happens when a virtual thread blocks while holding a monitor or while calling native code. A pinned virtual thread occupies its carrier
+ * thread until it is unblocked, so a component that is frequently pinned can prevent all other virtual threads from running.
+ * Pinned events are obtained from the JDK Flight Recorder's <code>jdk.VirtualThreadPinned</code> event and are attributed to components based on
+ * the name of the virtual thread, as created by {@link #createThreadName(String, int)}.
+ */
+public class VirtualThreadMonitor implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+
+    private static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+    private static final String THREAD_NAME_PREFIX = "Virtual Timer-Driven Process Thread-";
+    private static final int MAX_STACK_FRAMES = 32;
+
+    private final Set<String> virtualThreadComponentIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, VirtualThreadPinnedStatistics> pinnedStatistics = new ConcurrentHashMap<>();
+    private volatile RecordingStream recordingStream;
+
+    /**
+     * Begins listening for pinned events. If the JDK Flight Recorder is not available, a warning is logged and pinned events are not reported.
+     */
+    public synchronized void start() {
+        if (recordingStream != null) {
+            return;
+        }
+
+        try {
+            final RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT_NAME).withThreshold(PINNED_THRESHOLD).withStackTrace();
+            stream.onEvent(PINNED_EVENT_NAME, this::onPinnedEvent);
+            stream.setMaxAge(Duration.ofMinutes(1));
+            stream.startAsync();
+            recordingStream = stream;
+        } catch (final Exception e) {
+            logger.warn("Unable to listen for virtual threads being pinned to their carrier threads; pinned events will not be reported", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    /**
+     * Creates the name for a virtual thread that runs the component with the given identifier, so that pinned events can be attributed to the component
+     *
+     * @param componentId the identifier of the component
+     * @param taskNumber the number of the Concurrent Task that the virtual thread runs
+     * @return the name for the virtual thread
+     */
+    public static String createThreadName(final String componentId, final int taskNumber) {
+        return THREAD_NAME_PREFIX + taskNumber + " (" + componentId + ")";
+    }
+
+    static String getComponentId(final String threadName) {
+        if (threadName == null || !threadName.startsWith(THREAD_NAME_PREFIX) || !threadName.endsWith(")")) {
+            return null;
+        }
+
+        final int openParenIndex = threadName.lastIndexOf('(');
+        if (openParenIndex < 0) {
+            return null;
+        }
+
+        return threadName.substring(openParenIndex + 1, threadName.length() - 1);
+    }
+
+    public void onComponentScheduled(final String componentId) {
+        virtualThreadComponentIds.add(componentId);
+    }
+
+    public void onComponentUnscheduled(final String componentId) {
+        virtualThreadComponentIds.remove(componentId);
+    }
+
+    /**
+     * @param componentId the identifier of a component
+     * @return <code>true</code> if the component is currently scheduled to run on virtual threads, <code>false</code> otherwise
+     */
+    public boolean isRunOnVirtualThreads(final String componentId) {
+        return virtualThreadComponentIds.contains(componentId);
+    }
+
+    /**
+     * @param componentId the identifier of a component
+     * @return the pinned events for virtual threads that ran the component, since NiFi was started
+     */
+    public VirtualThreadPinnedStatistics getPinnedStatistics(final String componentId) {
+        return pinnedStatistics.getOrDefault(componentId, VirtualThreadPinnedStatistics.EMPTY);
+    }
+
+    /**
+     * @return the pinned events for each component whose virtual threads have been pinned, keyed by component identifier
+     */
+    public Map<String, VirtualThreadPinnedStatistics> getPinnedStatistics() {
+        return Collections.unmodifiableMap(pinnedStatistics);
+    }
+
+    void recordPinnedEvent(final String threadName, final Duration duration, final String stackTrace) {
+        final String componentId = getComponentId(threadName);
+        if (componentId == null) {
+            return;
+        }
+
+        pinnedStatistics.merge(componentId, VirtualThreadPinnedStatistics.EMPTY.add(duration.toNanos(), stackTrace),
+            (existing, added) -> existing.add(added.getPinnedNanos(), added.getLastStackTrace()));
+        logger.debug("Virtual Thread {} was pinned to its carrier thread for {}", threadName, duration);
+    }
+
+    private void onPinnedEvent(final RecordedEvent event) {
+        final RecordedThread thread = event.getThread();
+        if (thread == null) {
+            return;
+        }
+
+        recordPinnedEvent(thread.getJavaName(), event.getDuration(), formatStackTrace(event.getStackTrace()));
+    }
+
+    private static String formatStackTrace(final RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        int frameCount = 0;
+        for (final RecordedFrame frame : stackTrace.getFrames()) {
+            if (frameCount++ == MAX_STACK_FRAMES) {
+                sb.append("\t...\n");
+                break;
+            }
+
+            sb.append("\tat ").append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName());
+            if (frame.getLineNumber() > 0) {
+                sb.append(" (line ").append(frame.getLineNumber()).append(')');
+            }
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+}
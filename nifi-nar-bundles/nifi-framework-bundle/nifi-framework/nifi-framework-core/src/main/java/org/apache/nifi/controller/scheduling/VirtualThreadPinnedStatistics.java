@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+/**
+ * A snapshot of the number of times that virtual threads running a component were pinned to their carrier threads
+ */
+public class VirtualThreadPinnedStatistics {
+    public static final VirtualThreadPinnedStatistics EMPTY = new VirtualThreadPinnedStatistics(0L, 0L, null);
+
+    private final long pinnedEventCount;
+    private final long pinnedNanos;
+    private final String lastStackTrace;
+
+    public VirtualThreadPinnedStatistics(final long pinnedEventCount, final long pinnedNanos, final String lastStackTrace) {
+        this.pinnedEventCount = pinnedEventCount;
+        this.pinnedNanos = pinnedNanos;
+        this.lastStackTrace = lastStackTrace;
+    }
+
+    /**
+     * @return the number of times that a virtual thread was pinned to its carrier thread for at least the monitor's threshold
+     */
+    public long getPinnedEventCount() {
+        return pinnedEventCount;
+    }
+
+    /**
+     * @return the total number of nanoseconds that virtual threads spent pinned to their carrier threads
+     */
+    public long getPinnedNanos() {
+        return pinnedNanos;
+    }
+
+    /**
+     * @return the stack trace of the virtual thread when it was most recently pinned, or <code>null</code> if it has not been pinned
+     */
+    public String getLastStackTrace() {
+        return lastStackTrace;
+    }
+
+    VirtualThreadPinnedStatistics add(final long nanos, final String stackTrace) {
+        return new VirtualThreadPinnedStatistics(pinnedEventCount + 1, pinnedNanos + nanos, stackTrace == null ? lastStackTrace : stackTrace);
+    }
+}
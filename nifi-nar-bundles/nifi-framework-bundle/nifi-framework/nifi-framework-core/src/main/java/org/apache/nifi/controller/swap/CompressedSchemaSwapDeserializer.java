@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.repository.schema.FieldCache;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+import org.xerial.snappy.SnappyFramedInputStream;
+
+/**
+ * Reads swap files that were written by the {@link CompressedSchemaSwapSerializer}, verifying the checksum of each compressed chunk.
+ */
+public class CompressedSchemaSwapDeserializer implements SwapDeserializer {
+    private final SwapDeserializer schemaDeserializer;
+
+    public CompressedSchemaSwapDeserializer() {
+        this(new NoOpFieldCache());
+    }
+
+    public CompressedSchemaSwapDeserializer(final FieldCache fieldCache) {
+        this.schemaDeserializer = new SchemaSwapDeserializer(fieldCache);
+    }
+
+    @Override
+    public SwapContents deserializeFlowFiles(final DataInputStream in, final String swapLocation, final FlowFileQueue queue, final ResourceClaimManager claimManager) throws IOException {
+        return schemaDeserializer.deserializeFlowFiles(decompress(in), swapLocation, queue, claimManager);
+    }
+
+    @Override
+    public SwapSummary getSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager) throws IOException {
+        return schemaDeserializer.getSwapSummary(decompress(in), swapLocation, claimManager);
+    }
+
+    private static DataInputStream decompress(final DataInputStream in) throws IOException {
+        return new DataInputStream(new SnappyFramedInputStream(in, true));
+    }
+
+    public static String getSerializationName() {
+        return CompressedSchemaSwapSerializer.SERIALIZATION_NAME;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.stream.io.NonCloseableOutputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+/**
+ * Writes FlowFiles using the same schema as the {@link SchemaSwapSerializer} but compresses the serialized form using the
+ * Snappy framing format. Each chunk of the compressed stream carries a CRC-32C checksum of its uncompressed data, which is
+ * verified when the swap file is read, so that a corrupt swap file is detected rather than producing invalid FlowFiles.
+ */
+public class CompressedSchemaSwapSerializer implements SwapSerializer {
+    static final String SERIALIZATION_NAME = "Compressed Schema Swap Serialization";
+
+    private final SwapSerializer schemaSerializer = new SchemaSwapSerializer();
+
+    @Override
+    public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
+        try (final OutputStream compressedOut = new SnappyFramedOutputStream(new NonCloseableOutputStream(out))) {
+            schemaSerializer.serializeFlowFiles(toSwap, queue, swapLocation, compressedOut);
+        }
+    }
+
+    @Override
+    public String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+}
@@ -77,6 +77,8 @@ public class ConnectableTask {
     private final AtomicLong invocations = new AtomicLong(0L);
     private volatile SampledMetrics sampledMetrics = new SampledMetrics();
     private final int perfTrackingNthIteration;
+    private final long defaultBatchNanos;
+    private final int maxBatchFlowFiles;
 
     public ConnectableTask(final SchedulingAgent schedulingAgent, final Connectable connectable,
                            final FlowController flowController, final RepositoryContextFactory contextFactory, final LifecycleState lifecycleState) {
@@ -104,6 +106,9 @@ public class ConnectableTask {
         } else {
             perfTrackingNthIteration = 100 / perfTrackingPercentage;
         }
+
+        defaultBatchNanos = flowController.getSessionBatchDuration(TimeUnit.NANOSECONDS);
+        maxBatchFlowFiles = flowController.getSessionBatchSize();
     }
 
     public Connectable getConnectable() {
@@ -157,6 +162,25 @@ public class ConnectableTask {
         return isSourceComponent || Connectables.flowFilesQueued(connectable);
     }
 
+    /**
+     * Determines how long the sessions of consecutive invocations should be combined into a single commit. A Processor's configured Run Duration
+     * takes precedence; Processors whose Run Duration is not configured use the session batch duration that is configured for the framework, if any.
+     *
+     * @return the number of nanoseconds for which sessions should be batched, or 0 if each invocation should commit its own session
+     */
+    private long getBatchNanos() {
+        final long runDurationNanos = connectable.getRunDuration(TimeUnit.NANOSECONDS);
+        if (runDurationNanos > 0L || connectable.getConnectableType() != ConnectableType.PROCESSOR) {
+            return runDurationNanos;
+        }
+
+        return defaultBatchNanos;
+    }
+
+    private boolean isBatchFull(final StandardProcessSession batchSession) {
+        return maxBatchFlowFiles > 0 && batchSession.getCheckpointedFlowFileCount() >= maxBatchFlowFiles;
+    }
+
     private boolean isBackPressureEngaged() {
         return connectable.getIncomingConnections().stream()
             .filter(con -> con.getSource() == connectable)
@@ -213,7 +237,7 @@ public class ConnectableTask {
 
         final PerformanceTracker performanceTracker = measureExpensiveMetrics ? new NanoTimePerformanceTracker() : new NopPerformanceTracker();
 
-        final long batchNanos = connectable.getRunDuration(TimeUnit.NANOSECONDS);
+        final long batchNanos = getBatchNanos();
         final ProcessSessionFactory sessionFactory;
         final StandardProcessSession rawSession;
         final boolean batch;
@@ -256,6 +280,10 @@ public class ConnectableTask {
                         return InvocationResult.DO_NOT_YIELD;
                     }
 
+                    if (isBatchFull(rawSession)) {
+                        return InvocationResult.DO_NOT_YIELD;
+                    }
+
                     if (connectable.getScheduledState() != ScheduledState.RUNNING) {
                         break;
                     }
@@ -19,6 +19,7 @@ package org.apache.nifi.diagnostics.bootstrap.tasks;
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.diagnostics.DiagnosticTask;
@@ -30,6 +31,7 @@ import org.apache.nifi.util.FormatUtils;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class RepositoryDiagnosticTask implements DiagnosticTask {
     private final FlowController flowController;
@@ -74,6 +76,13 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
         details.add("FlowFile Repository File Store: " + repository.getFileStoreName());
         details.add("FlowFile Repository Storage Capacity: " + FormatUtils.formatDataSize(repository.getStorageCapacity()));
         details.add("FlowFile Repository Usable Space: " + FormatUtils.formatDataSize(repository.getUsableStorageSpace()));
+
+        if (repository instanceof WriteAheadFlowFileRepository) {
+            final Map<String, Long> recoveryTimings = ((WriteAheadFlowFileRepository) repository).getRecoveryTimings();
+            for (final Map.Entry<String, Long> entry : recoveryTimings.entrySet()) {
+                details.add("FlowFile Repository Startup Recovery - " + entry.getKey() + ": " + entry.getValue() + " millis");
+            }
+        }
     }
 
     private void captureDiagnostics(final ContentRepository repository, final ProcessGroupStatus status, final List<String> details) throws IOException {
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.diagnostics.bootstrap.tasks;
+
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.scheduling.VirtualThreadMonitor;
+import org.apache.nifi.controller.scheduling.VirtualThreadPinnedStatistics;
+import org.apache.nifi.diagnostics.DiagnosticTask;
+import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
+import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadDiagnosticTask implements DiagnosticTask {
+    private final FlowController flowController;
+
+    public VirtualThreadDiagnosticTask(final FlowController flowController) {
+        this.flowController = flowController;
+    }
+
+    @Override
+    public DiagnosticsDumpElement captureDump(final boolean verbose) {
+        final List<String> details = new ArrayList<>();
+        final VirtualThreadMonitor virtualThreadMonitor = flowController.getVirtualThreadMonitor();
+
+        for (final ProcessorNode processorNode : flowController.getFlowManager().getRootGroup().findAllProcessors()) {
+            final boolean runOnVirtualThreads = virtualThreadMonitor.isRunOnVirtualThreads(processorNode.getIdentifier());
+            final VirtualThreadPinnedStatistics statistics = virtualThreadMonitor.getPinnedStatistics(processorNode.getIdentifier());
+            if (!runOnVirtualThreads && statistics.getPinnedEventCount() == 0L) {
+                continue;
+            }
+
+            details.add(processorNode + " - Running on Virtual Threads: " + runOnVirtualThreads + ", Pinned Events: " + statistics.getPinnedEventCount()
+                + ", Total Time Pinned: " + TimeUnit.NANOSECONDS.toMillis(statistics.getPinnedNanos()) + " millis");
+
+            if (verbose && statistics.getLastStackTrace() != null) {
+                details.add("Most recent pinned stack trace:\n" + statistics.getLastStackTrace());
+            }
+        }
+
+        if (details.isEmpty()) {
+            details.add("No Processors are running on Virtual Threads");
+        }
+
+        return new StandardDiagnosticsDumpElement("Virtual Threads", details);
+    }
+}
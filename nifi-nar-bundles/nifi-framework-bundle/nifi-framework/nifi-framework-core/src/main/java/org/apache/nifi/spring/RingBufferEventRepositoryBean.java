@@ -17,17 +17,20 @@
 package org.apache.nifi.spring;
 
 import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.util.NiFiProperties;
 import org.springframework.beans.factory.FactoryBean;
 
 public class RingBufferEventRepositoryBean implements FactoryBean<RingBufferEventRepository> {
 
     private RingBufferEventRepository repository;
+    private NiFiProperties nifiProperties;
 
     @Override
     public RingBufferEventRepository getObject() throws Exception {
         if (repository == null) {
             // create the h2 repository
-            repository = new RingBufferEventRepository(5);
+            final boolean striped = nifiProperties != null && nifiProperties.isComponentStatusStripedAccumulation();
+            repository = new RingBufferEventRepository(5, striped);
         }
         return repository;
     }
@@ -41,4 +44,8 @@ public class RingBufferEventRepositoryBean implements FactoryBean<RingBufferEven
     public boolean isSingleton() {
         return true;
     }
+
+    public void setNifiProperties(final NiFiProperties nifiProperties) {
+        this.nifiProperties = nifiProperties;
+    }
 }
@@ -43,6 +43,7 @@ public class MockSwapManager implements FlowFileSwapManager {
     public final Map<String, List<FlowFileRecord>> swappedOut = new HashMap<>();
     public int swapOutCalledCount = 0;
     public int swapInCalledCount = 0;
+    public final List<String> prefetchedLocations = new ArrayList<>();
 
     public int incompleteSwapFileRecordsToInclude = -1;
 
@@ -122,6 +123,11 @@ public class MockSwapManager implements FlowFileSwapManager {
         return new StandardSwapContents(getSwapSummary(swapLocation), swappedOut.get(swapLocation));
     }
 
+    @Override
+    public void prefetch(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        prefetchedLocations.add(swapLocation);
+    }
+
     @Override
     public SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IOException {
         swapInCalledCount++;
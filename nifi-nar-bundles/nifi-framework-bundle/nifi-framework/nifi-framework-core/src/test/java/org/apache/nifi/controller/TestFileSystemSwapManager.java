@@ -21,8 +21,11 @@ import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
+import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.CompressedSchemaSwapDeserializer;
+import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.junit.jupiter.api.Test;
@@ -37,6 +40,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -45,7 +50,9 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -94,6 +101,124 @@ public class TestFileSystemSwapManager {
                 () -> swapManager.swapOut(flowFileRecords, flowFileQueue, "partition-1"));
     }
 
+    @Test
+    public void testSwapOutWritesCompressedSwapFile() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, true);
+
+        final String swapLocation = swapManager.swapOut(createFlowFileRecords(10000), flowFileQueue, "partition-1");
+
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(swapLocation))) {
+            final byte[] magicHeader = new byte[4];
+            in.readFully(magicHeader);
+            assertEquals("SWAP", new String(magicHeader, StandardCharsets.UTF_8));
+            assertEquals(CompressedSchemaSwapDeserializer.getSerializationName(), in.readUTF());
+        }
+
+        final SwapSummary swapSummary = swapManager.getSwapSummary(swapLocation);
+        assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+
+        final SwapContents swapContents = swapManager.peek(swapLocation, flowFileQueue);
+        assertEquals(10000, swapContents.getFlowFiles().size());
+        assertEquals(50L, swapContents.getFlowFiles().get(50).getSize());
+    }
+
+    @Test
+    public void testSwapOutWritesUncompressedSwapFileByDefault() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo);
+
+        final String swapLocation = swapManager.swapOut(createFlowFileRecords(100), flowFileQueue, "partition-1");
+
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(swapLocation))) {
+            final byte[] magicHeader = new byte[4];
+            in.readFully(magicHeader);
+            assertEquals("SWAP", new String(magicHeader, StandardCharsets.UTF_8));
+            assertEquals(SchemaSwapDeserializer.getSerializationName(), in.readUTF());
+        }
+
+        final SwapContents swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(100, swapContents.getFlowFiles().size());
+    }
+
+    @Test
+    public void testSwapInPrefetchedSwapFile() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo);
+
+        final String swapLocation = swapManager.swapOut(createFlowFileRecords(10000), flowFileQueue, null);
+        swapManager.prefetch(swapLocation, flowFileQueue);
+
+        final SwapContents swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(10000, swapContents.getFlowFiles().size());
+        assertFalse(new File(swapLocation).exists());
+        Mockito.verify(flowFileRepo).swapFlowFilesIn(any(), any(), any());
+    }
+
+    @Test
+    public void testSwapInAfterShutdown() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo);
+
+        final String swapLocation = swapManager.swapOut(createFlowFileRecords(100), flowFileQueue, null);
+        swapManager.shutdown();
+
+        // Prefetching is a no-op once the Swap Manager has been shut down, but the Swap File can still be swapped in
+        swapManager.prefetch(swapLocation, flowFileQueue);
+        final SwapContents swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(100, swapContents.getFlowFiles().size());
+    }
+
+    @Test
+    public void testCorruptCompressedSwapFileNotSwappedIn() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, true);
+
+        final String swapLocation = swapManager.swapOut(createFlowFileRecords(10000), flowFileQueue, null);
+
+        // Corrupt a byte of the last compressed chunk
+        try (final RandomAccessFile raf = new RandomAccessFile(swapLocation, "rw")) {
+            final long position = raf.length() - 16;
+            raf.seek(position);
+            final int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+
+        swapManager.prefetch(swapLocation, flowFileQueue);
+        assertThrows(IOException.class, () -> swapManager.swapIn(swapLocation, flowFileQueue));
+        assertTrue(new File(swapLocation).exists());
+        Mockito.verify(flowFileRepo, Mockito.never()).swapFlowFilesIn(any(), any(), any());
+    }
+
+    private List<FlowFileRecord> createFlowFileRecords(final int count) {
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            flowFileRecords.add(new MockFlowFileRecord(i));
+        }
+        return flowFileRecords;
+    }
+
     @Test
     public void testSwapFileUnknownToRepoNotSwappedIn() throws IOException {
         final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
@@ -153,7 +278,11 @@ public class TestFileSystemSwapManager {
     public Path temporaryFolder;
 
     private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo) {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder);
+        return createSwapManager(flowFileRepo, false);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo, final boolean compressionEnabled) {
+        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder, compressionEnabled);
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         swapManager.initialize(new SwapManagerInitializationContext() {
             @Override
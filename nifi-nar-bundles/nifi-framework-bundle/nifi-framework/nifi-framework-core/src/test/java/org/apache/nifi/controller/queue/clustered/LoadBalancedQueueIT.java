@@ -41,6 +41,7 @@ import org.apache.nifi.controller.queue.clustered.partition.RoundRobinPartitione
 import org.apache.nifi.controller.queue.clustered.server.ConnectionLoadBalanceServer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceAuthorizer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceProtocol;
+import org.apache.nifi.controller.queue.clustered.server.LoadBalanceServerThreadModel;
 import org.apache.nifi.controller.queue.clustered.server.NotAuthorizedException;
 import org.apache.nifi.controller.queue.clustered.server.StandardLoadBalanceProtocol;
 import org.apache.nifi.controller.repository.ContentNotFoundException;
@@ -307,6 +308,121 @@ public class LoadBalancedQueueIT {
         }
     }
 
+    @Test
+    @Timeout(120)
+    public void testMultipleNodeThroughputWithPlatformThreads() throws IOException, InterruptedException {
+        transferToMultipleNodes(LoadBalanceServerThreadModel.PLATFORM);
+    }
+
+    @Test
+    @Timeout(120)
+    public void testMultipleNodeThroughputWithVirtualThreads() throws IOException, InterruptedException {
+        transferToMultipleNodes(LoadBalanceServerThreadModel.VIRTUAL);
+    }
+
+    private void transferToMultipleNodes(final LoadBalanceServerThreadModel threadModel) throws IOException, InterruptedException {
+        localNodeId = new NodeIdentifier("unit-test-local", "localhost", 7090, "localhost", 7090, "localhost", 7090, null, null, null, false, null);
+        nodeIdentifiers.add(localNodeId);
+
+        final int serverCount = 5;
+        final int connectionsPerNode = 4;
+        final int clientThreadCount = 4;
+        final int flowFileCount = 20_000;
+
+        final int timeoutMillis = 30000;
+        final LoadBalanceProtocol loadBalanceProtocol = new StandardLoadBalanceProtocol(serverFlowFileRepo, serverContentRepo, serverProvRepo, flowController, ALWAYS_AUTHORIZED);
+        final SSLContext sslContext = null;
+
+        final ConnectionLoadBalanceServer[] servers = new ConnectionLoadBalanceServer[serverCount];
+        final NioAsyncLoadBalanceClientTask[] clientTasks = new NioAsyncLoadBalanceClientTask[clientThreadCount];
+        final NioAsyncLoadBalanceClientRegistry clientRegistry = new NioAsyncLoadBalanceClientRegistry(createClientFactory(sslContext), connectionsPerNode);
+
+        try {
+            for (int i = 0; i < serverCount; i++) {
+                final ConnectionLoadBalanceServer server = new ConnectionLoadBalanceServer("localhost", 0, sslContext, 2, loadBalanceProtocol, eventReporter, timeoutMillis, threadModel);
+                servers[i] = server;
+                server.start();
+
+                final NodeIdentifier nodeId = new NodeIdentifier("unit-test-" + i, "localhost", 8090 + i, "localhost", 8090, "localhost", server.getPort(), null, null, null, false, null);
+                nodeIdentifiers.add(nodeId);
+            }
+
+            clientRegistry.start();
+
+            final NodeConnectionStatus connectionStatus = mock(NodeConnectionStatus.class);
+            when(connectionStatus.getState()).thenReturn(NodeConnectionState.CONNECTED);
+            when(clusterCoordinator.getConnectionStatus(any(NodeIdentifier.class))).thenReturn(connectionStatus);
+
+            for (int i = 0; i < clientThreadCount; i++) {
+                clientTasks[i] = new NioAsyncLoadBalanceClientTask(clientRegistry, clusterCoordinator, eventReporter);
+                final Thread clientThread = new Thread(clientTasks[i]);
+                clientThread.setDaemon(true);
+                clientThread.start();
+            }
+
+            final SocketLoadBalancedFlowFileQueue flowFileQueue = new SocketLoadBalancedFlowFileQueue(queueId, processScheduler, clientFlowFileRepo, clientProvRepo,
+                    clientContentRepo, resourceClaimManager, clusterCoordinator, clientRegistry, flowFileSwapManager, flowFileCount, eventReporter);
+
+            // Send every FlowFile to a remote node so that all of the data passes through the servers
+            final RoundRobinPartitioner roundRobinPartitioner = new RoundRobinPartitioner();
+            flowFileQueue.setFlowFilePartitioner(new FlowFilePartitioner() {
+                @Override
+                public QueuePartition getPartition(final FlowFileRecord flowFile, final QueuePartition[] partitions, final QueuePartition localPartition) {
+                    final QueuePartition[] remotePartitions = Arrays.stream(partitions).filter(partition -> partition != localPartition).toArray(QueuePartition[]::new);
+                    return roundRobinPartitioner.getPartition(flowFile, remotePartitions, localPartition);
+                }
+
+                @Override
+                public boolean isRebalanceOnClusterResize() {
+                    return false;
+                }
+
+                @Override
+                public boolean isRebalanceOnFailure() {
+                    return true;
+                }
+            });
+
+            try {
+                final byte[] payload = new byte[1024];
+                Arrays.fill(payload, (byte) 'A');
+                final ContentClaim contentClaim = createContentClaim(payload);
+
+                for (int i = 0; i < flowFileCount; i++) {
+                    final Map<String, String> attributes = new HashMap<>();
+                    attributes.put("index", String.valueOf(i));
+                    flowFileQueue.put(new MockFlowFileRecord(attributes, payload.length, contentClaim));
+                }
+
+                final long start = System.nanoTime();
+                flowFileQueue.startLoadBalancing();
+
+                final long endTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(90L);
+                while (serverRepoRecords.size() < flowFileCount && System.currentTimeMillis() < endTime) {
+                    Thread.sleep(10L);
+                }
+
+                final long millis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                assertEquals(flowFileCount, serverRepoRecords.size());
+
+                final Set<String> indices = new HashSet<>();
+                for (final RepositoryRecord serverRecord : serverRepoRecords) {
+                    indices.add(serverRecord.getCurrent().getAttribute("index"));
+                }
+                assertEquals(flowFileCount, indices.size());
+
+                System.out.println("Transferred " + flowFileCount + " FlowFiles to " + serverCount + " nodes using " + threadModel + " server threads in " + millis + " millis ("
+                        + (flowFileCount * 1000L / millis) + " FlowFiles/sec)");
+            } finally {
+                flowFileQueue.stopLoadBalancing();
+            }
+        } finally {
+            Arrays.stream(clientTasks).filter(Objects::nonNull).forEach(NioAsyncLoadBalanceClientTask::stop);
+            clientRegistry.getAllClients().forEach(AsyncLoadBalanceClient::stop);
+            Arrays.stream(servers).filter(Objects::nonNull).forEach(ConnectionLoadBalanceServer::stop);
+        }
+    }
+
     @Test
     @Timeout(90)
     public void testFailover() throws IOException, InterruptedException {
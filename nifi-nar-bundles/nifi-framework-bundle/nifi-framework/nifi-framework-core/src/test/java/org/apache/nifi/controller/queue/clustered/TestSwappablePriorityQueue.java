@@ -42,6 +42,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -530,6 +531,77 @@ public class TestSwappablePriorityQueue {
         queue.poll(exp, 500000);
     }
 
+    @Test
+    public void testSwapFilePrefetchedWhenActiveQueueLow() {
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new MockFlowFileRecord());
+        }
+
+        assertEquals(1, swapManager.swappedOut.size());
+        final String swapLocation = swapManager.swappedOut.keySet().iterator().next();
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            assertNotNull(queue.poll(exp, 500000));
+        }
+
+        // The active queue has not yet dropped below half of the swap threshold
+        assertTrue(swapManager.prefetchedLocations.isEmpty());
+
+        for (int i = 0; i < 4000; i++) {
+            assertNotNull(queue.poll(exp, 500000));
+        }
+
+        // The swap file is prefetched only once
+        assertEquals(Collections.singletonList(swapLocation), swapManager.prefetchedLocations);
+        assertEquals(0, swapManager.swapInCalledCount);
+
+        for (int i = 0; i < 1001; i++) {
+            assertNotNull(queue.poll(exp, 500000));
+        }
+
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(Collections.singletonList(swapLocation), swapManager.prefetchedLocations);
+    }
+
+    @Test
+    public void testFlowFileAvailabilityListenerNotifiedWhenFlowFileBecomesAvailable() {
+        final AtomicInteger notifications = new AtomicInteger(0);
+        queue.setFlowFileAvailabilityListener(notifications::incrementAndGet);
+
+        queue.put(new MockFlowFileRecord());
+        assertEquals(1, notifications.get());
+
+        // A FlowFile was already available, so there is nothing new to notify about
+        queue.put(new MockFlowFileRecord());
+        queue.putAll(List.of(new MockFlowFileRecord(), new MockFlowFileRecord()));
+        assertEquals(1, notifications.get());
+
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        assertEquals(4, queue.poll(10, expired, 0L).size());
+
+        queue.putAll(List.of(new MockFlowFileRecord(), new MockFlowFileRecord()));
+        assertEquals(2, notifications.get());
+
+        queue.setFlowFileAvailabilityListener(null);
+        assertEquals(2, queue.poll(10, expired, 0L).size());
+        queue.put(new MockFlowFileRecord());
+        assertEquals(2, notifications.get());
+    }
+
+    @Test
+    public void testFlowFileAvailabilityListenerNotifiedWhenOnlyPenalizedFlowFilesQueued() {
+        final MockFlowFileRecord penalizedFlowFile = new MockFlowFileRecord();
+        penalizedFlowFile.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.put(penalizedFlowFile);
+
+        final AtomicInteger notifications = new AtomicInteger(0);
+        queue.setFlowFileAvailabilityListener(notifications::incrementAndGet);
+
+        queue.put(new MockFlowFileRecord());
+        assertEquals(1, notifications.get());
+    }
+
     @Test
     public void testSwapInWhenThresholdIsLessThanSwapSize() {
         // create a queue where the swap threshold is less than 10k
@@ -19,6 +19,7 @@ package org.apache.nifi.controller.queue.clustered.client.async.nio;
 
 import org.apache.nifi.controller.MockFlowFileRecord;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
+import org.apache.nifi.controller.queue.clustered.ContentFileRegion;
 import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
 import org.apache.nifi.controller.queue.clustered.SimpleLimitThreshold;
 import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlowFileCodec;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -39,6 +41,8 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -53,6 +57,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestLoadBalanceSession {
 
@@ -270,4 +275,97 @@ public class TestLoadBalanceSession {
 
         assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
     }
+
+    @Test
+    @Timeout(10)
+    public void testLargeContentTransferredDirectlyFromFile(@TempDir final Path tempDir) throws InterruptedException, IOException {
+        final int contentOffset = 100;
+        final byte[] content = new byte[200_000];
+        for (int i=0; i < content.length; i++) {
+            content[i] = (byte) ('A' + (i % 26));
+        }
+
+        // Place the content in the middle of the file, as the Content Repository does when multiple FlowFiles share a Resource Claim
+        final byte[] fileContents = new byte[contentOffset + content.length + 50];
+        System.arraycopy(content, 0, fileContents, contentOffset, content.length);
+        final Path contentFile = tempDir.resolve("content");
+        Files.write(contentFile, fileContents);
+
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(content.length);
+        flowFiles.offer(flowFile1);
+
+        final FlowFileContentAccess contentAccess = new FlowFileContentAccess() {
+            @Override
+            public InputStream read(final FlowFileRecord flowFile) {
+                return fail("Content should have been transferred directly from the file");
+            }
+
+            @Override
+            public ContentFileRegion getContentFileRegion(final FlowFileRecord flowFile) {
+                return new ContentFileRegion(contentFile, contentOffset, flowFile.getSize());
+            }
+        };
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId) -> {}, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
+
+        final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
+
+        socketChannel.configureBlocking(false);
+        final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+        final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+            new SimpleLimitThreshold(100, 10_000_000));
+
+        Thread.sleep(100L);
+
+        while (transaction.communicate()) {
+        }
+
+        socketChannel.close();
+
+        final Checksum expectedChecksum = new CRC32();
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        expectedOut.write(1); // Protocol Version
+
+        final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
+
+        expectedDos.writeUTF("unit-test-connection");
+
+        expectedDos.write(LoadBalanceProtocolConstants.CHECK_SPACE);
+        expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
+        expectedDos.writeInt(76); // metadata length
+        expectedDos.writeInt(1); // 1 attribute
+        expectedDos.writeInt(4); // length of attribute
+        expectedDos.write("uuid".getBytes());
+        expectedDos.writeInt(flowFile1.getAttribute("uuid").length());
+        expectedDos.write(flowFile1.getAttribute("uuid").getBytes());
+        expectedDos.writeLong(flowFile1.getLineageStartDate()); // lineage start date
+        expectedDos.writeLong(flowFile1.getEntryDate()); // entry date
+        expectedDos.writeLong(flowFile1.getPenaltyExpirationMillis()); // penalty expiration time
+
+        // data frames are the same as those that are sent when the content is read from a stream
+        for (int frameStart = 0; frameStart < content.length; frameStart += LoadBalanceSession.MAX_DATA_FRAME_SIZE) {
+            final int frameEnd = Math.min(content.length, frameStart + LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+            expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            expectedDos.writeInt(frameEnd - frameStart);
+            expectedDos.write(Arrays.copyOfRange(content, frameStart, frameEnd));
+        }
+        expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        expectedDos.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
+        expectedDos.writeLong(expectedChecksum.getValue());
+        expectedDos.write(LoadBalanceProtocolConstants.COMPLETE_TRANSACTION);
+
+        final byte[] expectedSent = expectedOut.toByteArray();
+
+        while (received.size() < expectedSent.length) {
+            Thread.sleep(10L);
+        }
+        final byte[] dataSent = received.toByteArray();
+
+        assertArrayEquals(expectedSent, dataSent);
+
+        assertEquals(Arrays.asList(flowFile1), transaction.getAndPurgeFlowFilesSent());
+    }
 }
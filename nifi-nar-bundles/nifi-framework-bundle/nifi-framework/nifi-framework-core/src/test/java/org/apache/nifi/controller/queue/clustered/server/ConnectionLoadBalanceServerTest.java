@@ -82,6 +82,23 @@ class ConnectionLoadBalanceServerTest {
         }
     }
 
+    @Test
+    void testSslContextSocketHandshakeCompletedVirtualThreads() throws IOException {
+        final ConnectionLoadBalanceServer server = getServer(new SslHandshakeCompletedLoadBalanceProtocol(), LoadBalanceServerThreadModel.VIRTUAL);
+
+        try {
+            server.start();
+
+            final SSLSocketFactory socketFactory = sslContext.getSocketFactory();
+            try (final Socket socket = socketFactory.createSocket()) {
+                final SSLSocket sslSocket = assertSocketConnected(socket, server.getPort());
+                assertTimeoutPreemptively(SOCKET_TIMEOUT, sslSocket::startHandshake, "TLS handshake failed");
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
     @Test
     void testHandshakeCompletedProtocolException() throws IOException {
         final ConnectionLoadBalanceServer server = getServer(new ReceiveFlowFilesSslExceptionLoadBalanceProtocol());
@@ -111,6 +128,10 @@ class ConnectionLoadBalanceServerTest {
     }
 
     private ConnectionLoadBalanceServer getServer(final LoadBalanceProtocol loadBalanceProtocol) {
+        return getServer(loadBalanceProtocol, LoadBalanceServerThreadModel.PLATFORM);
+    }
+
+    private ConnectionLoadBalanceServer getServer(final LoadBalanceProtocol loadBalanceProtocol, final LoadBalanceServerThreadModel threadModel) {
         return new ConnectionLoadBalanceServer(
                 LOCALHOST,
                 0,
@@ -118,7 +139,8 @@ class ConnectionLoadBalanceServerTest {
                 SERVER_THREADS,
                 loadBalanceProtocol,
                 eventReporter,
-                SOCKET_TIMEOUT_MILLIS
+                SOCKET_TIMEOUT_MILLIS,
+                threadModel
         );
     }
 
@@ -534,6 +534,30 @@ public class StandardProcessSessionIT {
         assertEquals(2, bCounters);
     }
 
+    @Test
+    public void testCheckpointedFlowFileCount() {
+        final Relationship relationship = new Relationship.Builder().name("A").build();
+        assertEquals(0, session.getCheckpointedFlowFileCount());
+
+        session.transfer(session.create(), relationship);
+        assertEquals(0, session.getCheckpointedFlowFileCount());
+        session.checkpoint();
+        assertEquals(1, session.getCheckpointedFlowFileCount());
+
+        session.transfer(session.create(), relationship);
+        session.transfer(session.create(), relationship);
+        session.checkpoint();
+        assertEquals(3, session.getCheckpointedFlowFileCount());
+
+        // FlowFiles that are rolled back after a checkpoint do not affect the FlowFiles that were checkpointed
+        session.transfer(session.create(), relationship);
+        session.rollback();
+        assertEquals(3, session.getCheckpointedFlowFileCount());
+
+        session.commit();
+        assertEquals(0, session.getCheckpointedFlowFileCount());
+    }
+
     @Test
     public void testCombineCounters() {
         final Relationship relationship = new Relationship.Builder().name("A").build();
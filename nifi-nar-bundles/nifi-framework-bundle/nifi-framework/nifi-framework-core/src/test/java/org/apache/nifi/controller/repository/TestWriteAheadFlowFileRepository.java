@@ -611,6 +611,7 @@ public class TestWriteAheadFlowFileRepository {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void testRestartWithOneRecord() throws IOException {
         final Path path = Paths.get("target/test-repo");
         if (Files.exists(path)) {
@@ -634,6 +635,10 @@ public class TestWriteAheadFlowFileRepository {
             flowFileCollection.add((FlowFileRecord) invocation.getArguments()[0]);
             return null;
         }).when(queue).put(any(FlowFileRecord.class));
+        doAnswer((Answer<Object>) invocation -> {
+            flowFileCollection.addAll((Collection<FlowFileRecord>) invocation.getArguments()[0]);
+            return null;
+        }).when(queue).putAll(any(Collection.class));
 
         when(connection.getFlowFileQueue()).thenReturn(queue);
 
@@ -679,6 +684,10 @@ public class TestWriteAheadFlowFileRepository {
         assertEquals(40L, flowFile.getSize());
         assertEquals("world", flowFile.getAttribute("hello"));
 
+        final Map<String, Long> recoveryTimings = repo2.getRecoveryTimings();
+        assertTrue(recoveryTimings.containsKey("Write-Ahead Log Recovery"));
+        assertTrue(recoveryTimings.containsKey("Queue Population"));
+
         repo2.close();
     }
 
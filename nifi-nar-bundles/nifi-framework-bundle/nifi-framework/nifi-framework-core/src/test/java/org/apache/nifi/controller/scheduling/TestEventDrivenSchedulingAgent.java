@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestEventDrivenSchedulingAgent {
+
+    @Test
+    public void testEventDrivenThreadCount() {
+        assertEquals(7, EventDrivenSchedulingAgent.getEventDrivenThreadCount(10, 75));
+        assertEquals(75, EventDrivenSchedulingAgent.getEventDrivenThreadCount(100, 75));
+        assertEquals(1, EventDrivenSchedulingAgent.getEventDrivenThreadCount(10, 1));
+
+        // At least one thread always runs components that are triggered by events
+        assertEquals(1, EventDrivenSchedulingAgent.getEventDrivenThreadCount(1, 75));
+    }
+}
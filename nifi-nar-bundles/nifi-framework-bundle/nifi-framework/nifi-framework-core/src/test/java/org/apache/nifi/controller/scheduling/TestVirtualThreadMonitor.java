@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVirtualThreadMonitor {
+    private static final String COMPONENT_ID = "3f2b6c1e-0185-1000-a6d4-8a6f0c9e4b21";
+
+    @Test
+    public void testComponentIdFromThreadName() {
+        assertEquals(COMPONENT_ID, VirtualThreadMonitor.getComponentId(VirtualThreadMonitor.createThreadName(COMPONENT_ID, 12)));
+        assertNull(VirtualThreadMonitor.getComponentId("Timer-Driven Process Thread-1"));
+        assertNull(VirtualThreadMonitor.getComponentId(null));
+    }
+
+    @Test
+    public void testRecordPinnedEvents() {
+        final VirtualThreadMonitor monitor = new VirtualThreadMonitor();
+        final String threadName = VirtualThreadMonitor.createThreadName(COMPONENT_ID, 1);
+
+        monitor.recordPinnedEvent(threadName, Duration.ofMillis(25), "stack trace 1");
+        monitor.recordPinnedEvent(threadName, Duration.ofMillis(40), null);
+        monitor.recordPinnedEvent("Some Other Thread", Duration.ofMillis(40), null);
+
+        final VirtualThreadPinnedStatistics statistics = monitor.getPinnedStatistics(COMPONENT_ID);
+        assertEquals(2L, statistics.getPinnedEventCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(65), statistics.getPinnedNanos());
+        assertEquals("stack trace 1", statistics.getLastStackTrace());
+        assertEquals(1, monitor.getPinnedStatistics().size());
+
+        assertEquals(0L, monitor.getPinnedStatistics("unknown").getPinnedEventCount());
+    }
+
+    @Test
+    public void testScheduledComponents() {
+        final VirtualThreadMonitor monitor = new VirtualThreadMonitor();
+        assertFalse(monitor.isRunOnVirtualThreads(COMPONENT_ID));
+
+        monitor.onComponentScheduled(COMPONENT_ID);
+        assertTrue(monitor.isRunOnVirtualThreads(COMPONENT_ID));
+
+        monitor.onComponentUnscheduled(COMPONENT_ID);
+        assertFalse(monitor.isRunOnVirtualThreads(COMPONENT_ID));
+    }
+
+    @Test
+    @Timeout(30)
+    public void testPinnedEventReported() throws InterruptedException {
+        try (final VirtualThreadMonitor monitor = new VirtualThreadMonitor()) {
+            monitor.start();
+
+            final Object lock = new Object();
+            final Thread thread = Thread.ofVirtual().name(VirtualThreadMonitor.createThreadName(COMPONENT_ID, 1)).start(() -> {
+                // Sleeping while holding a monitor pins the virtual thread to its carrier thread
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(100L);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            thread.join();
+
+            while (monitor.getPinnedStatistics(COMPONENT_ID).getPinnedEventCount() == 0L) {
+                Thread.sleep(50L);
+            }
+
+            final VirtualThreadPinnedStatistics statistics = monitor.getPinnedStatistics(COMPONENT_ID);
+            assertEquals(1L, statistics.getPinnedEventCount());
+            assertTrue(statistics.getPinnedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertNotNull(statistics.getLastStackTrace());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.nar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Persists the extensions that were discovered in an unpacked NAR, so that the service files of a NAR that has not
+ * changed since it was last unpacked do not have to be scanned again. The manifest is stored in the working directory
+ * of the NAR, next to the digest that {@link NarUnpacker} writes, and is only used while that digest is unchanged.
+ */
+final class ExtensionManifestCache {
+    static final String MANIFEST_FILENAME = "nar-extension-manifest";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtensionManifestCache.class);
+    private static final String DIGEST_PROPERTY = "nar.digest";
+    private static final String CLASS_NAME_SEPARATOR = ",";
+
+    private ExtensionManifestCache() {
+    }
+
+    /**
+     * Returns the implementation class names of each of the given extension types that were stored for the NAR unpacked into the given
+     * working directory.
+     *
+     * @param workingDirectory the working directory of the NAR
+     * @param extensionTypes the names of the extension types of interest
+     * @return the implementation class names keyed by extension type name, or <code>null</code> if there is no manifest for the current
+     * contents of the NAR or if the manifest does not cover all of the given extension types
+     */
+    static Map<String, Set<String>> read(final File workingDirectory, final Collection<String> extensionTypes) {
+        final String digest = getDigest(workingDirectory);
+        final File manifestFile = new File(workingDirectory, MANIFEST_FILENAME);
+        if (digest == null || !manifestFile.exists()) {
+            return null;
+        }
+
+        final Properties properties = new Properties();
+        try (final Reader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (final IOException e) {
+            logger.warn("Unable to read extension manifest {}; the extensions of the NAR will be discovered again", manifestFile, e);
+            return null;
+        }
+
+        if (!digest.equals(properties.getProperty(DIGEST_PROPERTY))) {
+            logger.debug("Extension manifest {} does not match the digest of the NAR; the extensions of the NAR will be discovered again", manifestFile);
+            return null;
+        }
+
+        final Map<String, Set<String>> implementationClassNames = new HashMap<>();
+        for (final String extensionType : extensionTypes) {
+            final String classNames = properties.getProperty(extensionType);
+            if (classNames == null) {
+                logger.debug("Extension manifest {} does not contain extensions of type {}; the extensions of the NAR will be discovered again", manifestFile, extensionType);
+                return null;
+            }
+
+            final Set<String> classNameSet = new LinkedHashSet<>();
+            if (!classNames.isEmpty()) {
+                classNameSet.addAll(Arrays.asList(classNames.split(CLASS_NAME_SEPARATOR)));
+            }
+            implementationClassNames.put(extensionType, classNameSet);
+        }
+
+        return implementationClassNames;
+    }
+
+    /**
+     * Stores the implementation class names of each extension type that were discovered for the NAR unpacked into the given working directory.
+     * Nothing is stored if the working directory does not contain the digest of a NAR, as is the case for the system bundle.
+     *
+     * @param workingDirectory the working directory of the NAR
+     * @param implementationClassNames the implementation class names keyed by extension type name
+     */
+    static void write(final File workingDirectory, final Map<String, Set<String>> implementationClassNames) {
+        final String digest = getDigest(workingDirectory);
+        if (digest == null) {
+            return;
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty(DIGEST_PROPERTY, digest);
+        implementationClassNames.forEach((extensionType, classNames) -> properties.setProperty(extensionType, String.join(CLASS_NAME_SEPARATOR, classNames)));
+
+        // write to a temporary file first so that a partially written manifest is never read
+        final Path manifestPath = new File(workingDirectory, MANIFEST_FILENAME).toPath();
+        final Path tempPath = new File(workingDirectory, MANIFEST_FILENAME + ".tmp").toPath();
+        try {
+            try (final Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Extensions discovered in the NAR unpacked to this directory");
+            }
+            Files.move(tempPath, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            logger.warn("Unable to write extension manifest {}; the extensions of the NAR will be discovered again on the next restart", manifestPath, e);
+        }
+    }
+
+    private static String getDigest(final File workingDirectory) {
+        if (workingDirectory == null) {
+            return null;
+        }
+
+        final File digestFile = new File(workingDirectory, NarUnpacker.HASH_FILENAME);
+        if (!digestFile.exists()) {
+            return null;
+        }
+
+        try {
+            return HexFormat.of().formatHex(Files.readAllBytes(digestFile.toPath()));
+        } catch (final IOException e) {
+            logger.debug("Unable to read NAR digest {}", digestFile, e);
+            return null;
+        }
+    }
+}
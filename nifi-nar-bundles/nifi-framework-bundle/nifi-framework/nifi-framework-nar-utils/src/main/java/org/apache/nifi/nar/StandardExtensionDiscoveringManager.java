@@ -38,6 +38,11 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.apache.nifi.annotation.behavior.RequiresInstanceClassLoading;
 import org.apache.nifi.authentication.LoginIdentityProvider;
@@ -155,10 +160,19 @@ public class StandardExtensionDiscoveringManager implements ExtensionDiscovering
 
     @Override
     public void discoverExtensions(final Set<Bundle> narBundles, final boolean logDetails) {
+        final long discoveryStart = System.currentTimeMillis();
+
+        // scanning the service files of a bundle does not depend on any other bundle, so the bundles are scanned concurrently. The extensions
+        // are then registered one bundle at a time, in the order given, so that parent bundles are still registered before their children
+        final AtomicInteger cachedBundleCount = new AtomicInteger();
+        final List<Map<Class, Set<String>>> bundleImplementationClassNames = getImplementationClassNames(narBundles, cachedBundleCount);
+        final long scanMillis = System.currentTimeMillis() - discoveryStart;
+
         // get the current context class loader
         ClassLoader currentContextClassLoader = Thread.currentThread().getContextClassLoader();
 
         // consider each nar class loader
+        int bundleIndex = 0;
         for (final Bundle bundle : narBundles) {
             // Must set the context class loader to the nar classloader itself
             // so that static initialization techniques that depend on the context class loader will work properly
@@ -166,7 +180,7 @@ public class StandardExtensionDiscoveringManager implements ExtensionDiscovering
             Thread.currentThread().setContextClassLoader(ncl);
 
             final long loadStart = System.currentTimeMillis();
-            loadExtensions(bundle);
+            loadExtensions(bundle, bundleImplementationClassNames.get(bundleIndex++));
             final long loadMillis = System.currentTimeMillis() - loadStart;
             if (logDetails) {
                 logger.info("Loaded extensions for {} in {} millis", bundle.getBundleDetails(), loadMillis);
@@ -180,6 +194,80 @@ public class StandardExtensionDiscoveringManager implements ExtensionDiscovering
         if (currentContextClassLoader != null) {
             Thread.currentThread().setContextClassLoader(currentContextClassLoader);
         }
+
+        final long discoveryMillis = System.currentTimeMillis() - discoveryStart;
+        logger.info("Discovered extensions in {} bundles in {} millis: scanning service files took {} millis ({} bundles from extension manifest cache), registering extensions took {} millis",
+            narBundles.size(), discoveryMillis, scanMillis, cachedBundleCount.get(), discoveryMillis - scanMillis);
+    }
+
+    /**
+     * Determines the implementation class names of each extension type for each of the given bundles, using the extension manifest
+     * that is stored for a bundle whenever its NAR has not changed, and scanning the service files of the bundle otherwise.
+     *
+     * @param bundles the bundles whose extensions are to be determined
+     * @param cachedBundleCount incremented for each bundle whose extensions were read from the extension manifest
+     * @return the implementation class names keyed by extension type for each bundle, in the order of the given bundles
+     */
+    private List<Map<Class, Set<String>>> getImplementationClassNames(final Collection<Bundle> bundles, final AtomicInteger cachedBundleCount) {
+        final List<Map<Class, Set<String>>> implementationClassNames = new ArrayList<>(bundles.size());
+        if (bundles.isEmpty()) {
+            return implementationClassNames;
+        }
+
+        final int threadCount = Math.min(bundles.size(), Runtime.getRuntime().availableProcessors());
+        final AtomicInteger threadIndex = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            final Thread thread = new Thread(runnable, "Discover Extensions-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final List<Future<Map<Class, Set<String>>>> futures = new ArrayList<>(bundles.size());
+            for (final Bundle bundle : bundles) {
+                futures.add(executor.submit(() -> getImplementationClassNames(bundle, cachedBundleCount)));
+            }
+
+            for (final Future<Map<Class, Set<String>>> future : futures) {
+                implementationClassNames.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while discovering extensions", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Failed to discover extensions", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return implementationClassNames;
+    }
+
+    private Map<Class, Set<String>> getImplementationClassNames(final Bundle bundle, final AtomicInteger cachedBundleCount) {
+        final File workingDirectory = bundle.getBundleDetails().getWorkingDirectory();
+        final Map<String, Class> extensionTypesByName = new HashMap<>();
+        definitionMap.keySet().forEach(extensionType -> extensionTypesByName.put(extensionType.getName(), extensionType));
+
+        final Map<String, Set<String>> cachedClassNames = ExtensionManifestCache.read(workingDirectory, extensionTypesByName.keySet());
+        if (cachedClassNames != null) {
+            logger.debug("Using extension manifest of {} because its NAR has not changed", bundle);
+            cachedBundleCount.incrementAndGet();
+
+            final Map<Class, Set<String>> implementationClassNames = new HashMap<>();
+            cachedClassNames.forEach((extensionTypeName, classNames) -> implementationClassNames.put(extensionTypesByName.get(extensionTypeName), classNames));
+            return implementationClassNames;
+        }
+
+        final Map<Class, Set<String>> implementationClassNames = scanImplementationClassNames(bundle);
+
+        final Map<String, Set<String>> classNamesToCache = new HashMap<>();
+        implementationClassNames.forEach((extensionType, classNames) -> classNamesToCache.put(extensionType.getName(), classNames));
+        ExtensionManifestCache.write(workingDirectory, classNamesToCache);
+
+        return implementationClassNames;
     }
 
     public void setPythonBridge(final PythonBridge pythonBridge) {
@@ -262,32 +350,61 @@ public class StandardExtensionDiscoveringManager implements ExtensionDiscovering
      * @param bundle from which to load extensions
      */
     private void loadExtensions(final Bundle bundle) {
+        loadExtensions(bundle, scanImplementationClassNames(bundle));
+    }
+
+    /**
+     * Loads the extensions with the given implementation class names from the specified bundle.
+     *
+     * @param bundle from which to load extensions
+     * @param implementationClassNames the implementation class names keyed by extension type
+     */
+    private void loadExtensions(final Bundle bundle, final Map<Class, Set<String>> implementationClassNames) {
+        for (final Map.Entry<Class, Set<String>> entry : implementationClassNames.entrySet()) {
+            final Class extensionType = entry.getKey();
+
+            for (final String implementationClassName : entry.getValue()) {
+                try {
+                    loadExtension(implementationClassName, extensionType, bundle);
+                    logger.debug("Successfully loaded {} {} from {}", extensionType.getSimpleName(), implementationClassName, bundle);
+                } catch (final Exception e) {
+                    logger.error("Failed to register {} of type {} in bundle {}" , extensionType.getSimpleName(), implementationClassName, bundle, e);
+                }
+            }
+        }
+
+        classLoaderBundleLookup.put(bundle.getClassLoader(), bundle);
+    }
+
+    /**
+     * Scans the service files of the specified bundle for the implementations of each extension type.
+     *
+     * @param bundle the bundle to scan
+     * @return the implementation class names keyed by extension type
+     */
+    private Map<Class, Set<String>> scanImplementationClassNames(final Bundle bundle) {
+        final Map<Class, Set<String>> implementationClassNames = new HashMap<>();
         for (final Class extensionType : definitionMap.keySet()) {
             final String serviceType = extensionType.getName();
+            final Set<String> extensionClassNames = new LinkedHashSet<>();
 
             try {
                 final Set<URL> serviceResourceUrls = getServiceFileURLs(bundle, extensionType);
                 logger.debug("Bundle {} has the following Services File URLs for {}: {}", bundle, serviceType, serviceResourceUrls);
 
                 for (final URL serviceResourceUrl : serviceResourceUrls) {
-                    final Set<String> implementationClassNames = getServiceFileImplementationClassNames(serviceResourceUrl);
-                    logger.debug("Bundle {} defines {} implementations of interface {}", bundle, implementationClassNames.size(), serviceType);
-
-                    for (final String implementationClassName : implementationClassNames) {
-                        try {
-                            loadExtension(implementationClassName, extensionType, bundle);
-                            logger.debug("Successfully loaded {} {} from {}", extensionType.getSimpleName(), implementationClassName, bundle);
-                        } catch (final Exception e) {
-                            logger.error("Failed to register {} of type {} in bundle {}" , extensionType.getSimpleName(), implementationClassName, bundle, e);
-                        }
-                    }
+                    final Set<String> serviceFileClassNames = getServiceFileImplementationClassNames(serviceResourceUrl);
+                    logger.debug("Bundle {} defines {} implementations of interface {}", bundle, serviceFileClassNames.size(), serviceType);
+                    extensionClassNames.addAll(serviceFileClassNames);
                 }
             } catch (final IOException e) {
                 throw new RuntimeException("Failed to get resources of type " + serviceType + " from bundle " + bundle);
             }
+
+            implementationClassNames.put(extensionType, extensionClassNames);
         }
 
-        classLoaderBundleLookup.put(bundle.getClassLoader(), bundle);
+        return implementationClassNames;
     }
 
     private Set<String> getServiceFileImplementationClassNames(final URL serviceFileUrl) throws IOException {
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.nar;
+
+import org.apache.nifi.bundle.Bundle;
+import org.apache.nifi.bundle.BundleCoordinate;
+import org.apache.nifi.bundle.BundleDetails;
+import org.apache.nifi.processor.Processor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExtensionManifestCacheTest {
+
+    private static final String FIRST_PROCESSOR = "org.apache.nifi.processors.FirstProcessor";
+    private static final String SECOND_PROCESSOR = "org.apache.nifi.processors.SecondProcessor";
+
+    @TempDir
+    private Path workingDirectory;
+
+    @Test
+    public void testUnchangedNarIsNotScannedAgain() throws IOException {
+        writeDigest(new byte[] {1, 2, 3});
+        writeProcessorServiceFile(FIRST_PROCESSOR);
+
+        assertEquals(Collections.singleton(FIRST_PROCESSOR), discoverProcessors());
+        assertTrue(new File(workingDirectory.toFile(), ExtensionManifestCache.MANIFEST_FILENAME).exists());
+
+        // the service file is not scanned again while the digest of the NAR is unchanged
+        writeProcessorServiceFile(SECOND_PROCESSOR);
+        assertEquals(Collections.singleton(FIRST_PROCESSOR), discoverProcessors());
+
+        writeDigest(new byte[] {4, 5, 6});
+        assertEquals(Collections.singleton(SECOND_PROCESSOR), discoverProcessors());
+    }
+
+    @Test
+    public void testManifestRequiresAllExtensionTypes() throws IOException {
+        writeDigest(new byte[] {1, 2, 3});
+        ExtensionManifestCache.write(workingDirectory.toFile(), Map.of(Processor.class.getName(), Set.of(FIRST_PROCESSOR, SECOND_PROCESSOR)));
+
+        final Map<String, Set<String>> classNames = ExtensionManifestCache.read(workingDirectory.toFile(), Collections.singleton(Processor.class.getName()));
+        assertEquals(Set.of(FIRST_PROCESSOR, SECOND_PROCESSOR), classNames.get(Processor.class.getName()));
+
+        assertNull(ExtensionManifestCache.read(workingDirectory.toFile(), Arrays.asList(Processor.class.getName(), "org.apache.nifi.OtherExtension")));
+    }
+
+    @Test
+    public void testNoManifestWithoutDigest() {
+        ExtensionManifestCache.write(workingDirectory.toFile(), Map.of(Processor.class.getName(), Set.of(FIRST_PROCESSOR)));
+
+        assertNull(ExtensionManifestCache.read(workingDirectory.toFile(), Collections.singleton(Processor.class.getName())));
+        assertFalse(new File(workingDirectory.toFile(), ExtensionManifestCache.MANIFEST_FILENAME).exists());
+    }
+
+    private Set<String> discoverProcessors() throws IOException {
+        final BundleDetails bundleDetails = new BundleDetails.Builder()
+                .workingDir(workingDirectory.toFile())
+                .coordinate(new BundleCoordinate("org.apache.nifi", "nifi-test-nar", "1.0.0"))
+                .build();
+
+        try (final URLClassLoader parentClassLoader = new URLClassLoader(new URL[0], null);
+             final URLClassLoader bundleClassLoader = new URLClassLoader(new URL[] {workingDirectory.toUri().toURL()}, parentClassLoader)) {
+            final StandardExtensionDiscoveringManager extensionManager = new StandardExtensionDiscoveringManager();
+            extensionManager.discoverExtensions(Collections.singleton(new Bundle(bundleDetails, bundleClassLoader)), false);
+
+            return extensionManager.getExtensions(Processor.class).stream()
+                    .map(ExtensionDefinition::getImplementationClassName)
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private void writeDigest(final byte[] digest) throws IOException {
+        Files.write(workingDirectory.resolve(NarUnpacker.HASH_FILENAME), digest);
+    }
+
+    private void writeProcessorServiceFile(final String processorClassName) throws IOException {
+        final Path servicesDirectory = Files.createDirectories(workingDirectory.resolve("META-INF").resolve("services"));
+        Files.write(servicesDirectory.resolve(Processor.class.getName()), processorClassName.getBytes(StandardCharsets.UTF_8));
+    }
+}
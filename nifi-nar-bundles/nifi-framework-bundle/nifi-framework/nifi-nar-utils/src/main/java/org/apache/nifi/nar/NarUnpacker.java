@@ -43,10 +43,17 @@ import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
@@ -63,7 +70,7 @@ import static java.lang.String.format;
 public final class NarUnpacker {
     public static final String BUNDLED_DEPENDENCIES_DIRECTORY = "NAR-INF/bundled-dependencies";
     private static final Logger logger = LoggerFactory.getLogger(NarUnpacker.class);
-    private static final String HASH_FILENAME = "nar-digest";
+    public static final String HASH_FILENAME = "nar-digest";
     private static final FileFilter NAR_FILTER = pathname -> {
         final String nameToTest = pathname.getName().toLowerCase();
         return nameToTest.endsWith(".nar") && pathname.isFile();
@@ -129,13 +136,14 @@ public final class NarUnpacker {
             if (!narFiles.isEmpty()) {
                 final long startTime = System.nanoTime();
                 logger.info("Expanding " + narFiles.size() + " NAR files with all processors...");
+
+                // read the manifest of each nar up front so that the framework and jetty nars can be identified before any expansion happens
+                final Map<File, List<File>> narFilesByWorkingDirectory = new LinkedHashMap<>();
                 for (File narFile : narFiles) {
                     if (!narFile.canRead()) {
                         throw new IllegalStateException("Unable to read NAR file: " + narFile.getAbsolutePath());
                     }
 
-                    logger.debug("Expanding NAR file: " + narFile.getAbsolutePath());
-
                     // get the manifest for this nar
                     try (final JarFile nar = new JarFile(narFile)) {
                         BundleCoordinate bundleCoordinate = createBundleCoordinate(nar.getManifest());
@@ -151,24 +159,47 @@ public final class NarUnpacker {
                                 throw new IllegalStateException("Multiple framework NARs discovered. Only one framework is permitted.");
                             }
 
-                            // unpack the framework nar
-                            unpackedFramework = unpackNar(narFile, frameworkWorkingDir, verifyHash, unpackMode);
+                            // record the framework nar
+                            unpackedFramework = getNarWorkingDirectory(narFile, frameworkWorkingDir);
+                            narFilesByWorkingDirectory.computeIfAbsent(unpackedFramework, key -> new ArrayList<>()).add(narFile);
                         } else if (NarClassLoaders.JETTY_NAR_ID.equals(bundleCoordinate.getId())) {
                             if (unpackedJetty != null) {
                                 throw new IllegalStateException("Multiple Jetty NARs discovered. Only one Jetty NAR is permitted.");
                             }
 
-                            // unpack and record the Jetty nar
-                            unpackedJetty = unpackNar(narFile, extensionsWorkingDir, verifyHash, unpackMode);
+                            // record the Jetty nar
+                            unpackedJetty = getNarWorkingDirectory(narFile, extensionsWorkingDir);
                             unpackedExtensions.add(unpackedJetty);
+                            narFilesByWorkingDirectory.computeIfAbsent(unpackedJetty, key -> new ArrayList<>()).add(narFile);
                         } else {
-                            // unpack and record the extension nar
-                            final File unpackedExtension = unpackNar(narFile, extensionsWorkingDir, verifyHash, unpackMode);
+                            // record the extension nar
+                            final File unpackedExtension = getNarWorkingDirectory(narFile, extensionsWorkingDir);
                             unpackedExtensions.add(unpackedExtension);
+                            narFilesByWorkingDirectory.computeIfAbsent(unpackedExtension, key -> new ArrayList<>()).add(narFile);
                         }
                     }
                 }
 
+                final long manifestsRead = System.nanoTime();
+
+                // unpack and verify the hash of the nars concurrently. nars with the same file name in different library directories
+                // share a working directory, so those are unpacked one after another, in the order in which they were found
+                final List<Callable<File>> unpackTasks = new ArrayList<>();
+                for (final Map.Entry<File, List<File>> entry : narFilesByWorkingDirectory.entrySet()) {
+                    final File baseWorkingDirectory = entry.getKey().getParentFile();
+                    unpackTasks.add(() -> {
+                        File unpackedNar = null;
+                        for (final File narFile : entry.getValue()) {
+                            logger.debug("Expanding NAR file: " + narFile.getAbsolutePath());
+                            unpackedNar = unpackNar(narFile, baseWorkingDirectory, verifyHash, unpackMode);
+                        }
+                        return unpackedNar;
+                    });
+                }
+                invokeAll(unpackTasks, "Expand NAR");
+
+                final long narsExpanded = System.nanoTime();
+
                 if (requireFrameworkNar) {
                     // ensure we've found the framework nar
                     if (unpackedFramework == null) {
@@ -213,11 +244,16 @@ public final class NarUnpacker {
                 final long duration = System.nanoTime() - startTime;
                 logger.info("NAR loading process took " + duration + " nanoseconds "
                         + "(" + (int) TimeUnit.SECONDS.convert(duration, TimeUnit.NANOSECONDS) + " seconds).");
+                logger.info("NAR loading breakdown: reading manifests took {} millis, expanding and verifying {} NARs took {} millis, removing stale working directories took {} millis",
+                        TimeUnit.NANOSECONDS.toMillis(manifestsRead - startTime), unpackTasks.size(),
+                        TimeUnit.NANOSECONDS.toMillis(narsExpanded - manifestsRead), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - narsExpanded));
             }
 
+            final long mappingStart = System.nanoTime();
             unpackedNars.putAll(createUnpackedNarBundleCoordinateMap(extensionsWorkingDir));
             final ExtensionMapping extensionMapping = new ExtensionMapping();
             mapExtensions(unpackedNars, docsWorkingDir, extensionMapping);
+            logger.info("Mapping extensions of {} NARs took {} millis", unpackedNars.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mappingStart));
 
             // unpack docs for the system bundle which will catch any JARs directly in the lib directory that might have docs
             unpackBundleDocs(docsWorkingDir, extensionMapping, systemBundle.getBundleDetails().getCoordinate(), systemBundle.getBundleDetails().getWorkingDirectory());
@@ -261,16 +297,75 @@ public final class NarUnpacker {
     }
 
     private static void mapExtensions(final Map<File, BundleCoordinate> unpackedNars, final File docsDirectory, final ExtensionMapping mapping) throws IOException {
+        if (docsDirectory == null) {
+            return;
+        }
+
+        // each nar writes its documentation to a directory of its own, so the nars can be mapped concurrently as long as
+        // every nar is given its own mapping, which is merged into the overall mapping afterwards
+        final List<Callable<ExtensionMapping>> mappingTasks = new ArrayList<>();
         for (final Map.Entry<File, BundleCoordinate> entry : unpackedNars.entrySet()) {
             final File unpackedNar = entry.getKey();
             final BundleCoordinate bundleCoordinate = entry.getValue();
 
             final File bundledDependencies = new File(unpackedNar, BUNDLED_DEPENDENCIES_DIRECTORY);
 
-            if (docsDirectory != null) {
-                unpackBundleDocs(docsDirectory, mapping, bundleCoordinate, bundledDependencies);
+            mappingTasks.add(() -> {
+                final ExtensionMapping narMapping = new ExtensionMapping();
+                unpackBundleDocs(docsDirectory, narMapping, bundleCoordinate, bundledDependencies);
+                return narMapping;
+            });
+        }
+
+        for (final ExtensionMapping narMapping : invokeAll(mappingTasks, "Map NAR Extensions")) {
+            mapping.merge(narMapping);
+        }
+    }
+
+    /**
+     * Runs the given tasks using a number of threads bounded by the number of available processors and returns their results in the order of the tasks.
+     *
+     * @param tasks the tasks to run
+     * @param threadNamePrefix the prefix of the names of the threads that run the tasks
+     * @return the results of the tasks
+     * @throws IOException if any of the tasks failed with an IOException
+     */
+    private static <T> List<T> invokeAll(final List<Callable<T>> tasks, final String threadNamePrefix) throws IOException {
+        final List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return results;
+        }
+
+        final int threadCount = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        final AtomicInteger threadIndex = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            final Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (final Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + threadNamePrefix + " tasks to complete", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            } else if (cause instanceof RuntimeException re) {
+                throw re;
+            } else if (cause instanceof Error error) {
+                throw error;
             }
+            throw new IOException(threadNamePrefix + " task failed", cause);
+        } finally {
+            executor.shutdownNow();
         }
+
+        return results;
     }
 
     public static void mapExtension(final File unpackedNar, final BundleCoordinate bundleCoordinate, final File docsDirectory, final ExtensionMapping mapping) throws IOException {
@@ -303,7 +398,7 @@ public final class NarUnpacker {
      * @throws IOException if unable to explode nar
      */
     public static File unpackNar(final File nar, final File baseWorkingDirectory, final boolean verifyHash, final NarUnpackMode unpackMode) throws IOException {
-        final File narWorkingDirectory = new File(baseWorkingDirectory, nar.getName() + "-unpacked");
+        final File narWorkingDirectory = getNarWorkingDirectory(nar, baseWorkingDirectory);
 
         // if the working directory doesn't exist, unpack the nar
         if (!narWorkingDirectory.exists()) {
@@ -331,6 +426,10 @@ public final class NarUnpacker {
         return narWorkingDirectory;
     }
 
+    private static File getNarWorkingDirectory(final File nar, final File baseWorkingDirectory) {
+        return new File(baseWorkingDirectory, nar.getName() + "-unpacked");
+    }
+
     private static void unpackIndividualJars(final File nar, final File workingDirectory, final byte[] hash, final NarUnpackMode unpackMode) throws IOException {
         switch (unpackMode) {
             case UNPACK_INDIVIDUAL_JARS:
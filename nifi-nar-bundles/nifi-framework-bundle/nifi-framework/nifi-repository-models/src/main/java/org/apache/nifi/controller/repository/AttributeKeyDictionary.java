@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * A dictionary of attribute keys that allows FlowFiles to share a single instance of each attribute key rather than each FlowFile holding
+ * its own copy of the key. Each FlowFile Repository creates its own dictionary, which is given to the FlowFiles that belong to the repository
+ * using {@link StandardFlowFileRecord.Builder#attributeKeyDictionary(AttributeKeyDictionary)}.
+ * </p>
+ *
+ * <p>
+ * Because some flows create attribute keys that are unique to a single FlowFile, the number of keys held by the dictionary is bounded.
+ * Once the dictionary is full, {@link #canonicalize(String)} returns <code>null</code> for any key that has not already been added, and
+ * FlowFiles with such a key hold their attributes in a regular Map.
+ * </p>
+ *
+ * <b>Thread Safe</b>
+ */
+public final class AttributeKeyDictionary {
+    private final int maxKeys;
+    private final Map<String, String> keys = new ConcurrentHashMap<>();
+
+    public AttributeKeyDictionary(final int maxKeys) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("Maximum number of attribute keys must be at least 1");
+        }
+
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Returns the instance of the given key that is held by this dictionary, adding the key to the dictionary if it has not yet been seen
+     * and the dictionary is not full
+     *
+     * @param key the attribute key
+     * @return the dictionary's instance of the key, or <code>null</code> if the key is not in the dictionary and the dictionary is full
+     */
+    String canonicalize(final String key) {
+        final String existing = keys.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        synchronized (this) {
+            if (keys.size() >= maxKeys) {
+                return keys.get(key);
+            }
+
+            final String previous = keys.putIfAbsent(key, key);
+            return previous == null ? key : previous;
+        }
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+}
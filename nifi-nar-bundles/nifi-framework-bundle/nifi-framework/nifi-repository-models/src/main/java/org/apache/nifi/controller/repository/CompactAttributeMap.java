@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that holds its keys and values in a single array. Keys are shared with all other FlowFiles of the
+ * same FlowFile Repository through an {@link AttributeKeyDictionary}. A {@link java.util.HashMap} needs a table and an entry object per attribute,
+ * in addition to its own copy of each key; this Map needs only an array of entries and a small hash index regardless of the number of attributes,
+ * which greatly reduces the heap consumed by large numbers of queued FlowFiles.
+ * </p>
+ *
+ * <p>
+ * The hash index is an open-addressing table of 16-bit entry positions that is probed linearly. Because keys are shared, a probe compares keys
+ * first by reference and then by value. Values are stored as Strings, so a lookup does not allocate.
+ * </p>
+ *
+ * <b>Immutable - Thread Safe</b>
+ */
+final class CompactAttributeMap extends AbstractMap<String, String> {
+    // Positions in the index are 16-bit, with 0 denoting an empty slot
+    private static final int MAX_ENTRIES = Character.MAX_VALUE - 1;
+
+    private final AttributeKeyDictionary dictionary;
+    private final String[] entries; // the key of each entry is followed by its value
+    private final char[] index; // for each occupied slot, the number of the entry in the entries array, plus 1
+    private Set<Map.Entry<String, String>> entrySet;
+
+    private CompactAttributeMap(final AttributeKeyDictionary dictionary, final String[] entries) {
+        this.dictionary = dictionary;
+        this.entries = entries;
+        this.index = createIndex(entries);
+    }
+
+    /**
+     * Returns a compact, immutable representation of the given attributes. Entries whose value is <code>null</code> are retained.
+     * If any of the keys is <code>null</code> or cannot be added to the given dictionary because it is full, the given Map is returned as-is.
+     *
+     * @param attributes the attributes to represent
+     * @param dictionary the dictionary that provides the instance of each key
+     * @return a compact representation of the given attributes, or the given attributes if they cannot be represented compactly
+     */
+    static Map<String, String> of(final Map<String, String> attributes, final AttributeKeyDictionary dictionary) {
+        if (attributes == null || attributes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (attributes instanceof CompactAttributeMap && ((CompactAttributeMap) attributes).dictionary == dictionary) {
+            return attributes;
+        }
+        if (attributes.size() > MAX_ENTRIES) {
+            return attributes;
+        }
+
+        final String[] entries = new String[attributes.size() * 2];
+        int entryIndex = 0;
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            final String key = entry.getKey();
+            if (key == null) {
+                return attributes;
+            }
+
+            final String dictionaryKey = dictionary.canonicalize(key);
+            if (dictionaryKey == null) {
+                return attributes;
+            }
+
+            entries[entryIndex++] = dictionaryKey;
+            entries[entryIndex++] = entry.getValue();
+        }
+
+        return new CompactAttributeMap(dictionary, entries);
+    }
+
+    /**
+     * @return the dictionary that provides the keys of this Map
+     */
+    AttributeKeyDictionary getDictionary() {
+        return dictionary;
+    }
+
+    private static char[] createIndex(final String[] entries) {
+        // Keep the table at most half full so that probe sequences stay short
+        final int entryCount = entries.length / 2;
+        final char[] index = new char[Integer.highestOneBit(Math.max(1, entryCount) * 2) << 1];
+        final int mask = index.length - 1;
+
+        for (int entry = 0; entry < entryCount; entry++) {
+            int slot = hash(entries[entry * 2]) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = (char) (entry + 1);
+        }
+
+        return index;
+    }
+
+    private static int hash(final String key) {
+        final int hashCode = key.hashCode();
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return entries.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int entryIndex = indexOf(key);
+        return entryIndex < 0 ? null : entries[entryIndex + 1];
+    }
+
+    /**
+     * @return the index of the given key in the entries array, or -1 if the key is not present
+     */
+    private int indexOf(final Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        final String searchKey = (String) key;
+        final int mask = index.length - 1;
+        int slot = hash(searchKey) & mask;
+        int position;
+        while ((position = index[slot]) != 0) {
+            final int entryIndex = (position - 1) * 2;
+            final String entryKey = entries[entryIndex];
+            if (entryKey == searchKey || entryKey.equals(searchKey)) {
+                return entryIndex;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+        @Override
+        public int size() {
+            return CompactAttributeMap.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < entries.length;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    final Map.Entry<String, String> entry = new SimpleImmutableEntry<>(entries[index], entries[index + 1]);
+                    index += 2;
+                    return entry;
+                }
+            };
+        }
+    }
+}
@@ -37,6 +37,12 @@ import java.util.regex.Pattern;
  * A flow file is a logical notion of an item in a flow with its associated attributes and identity which can be used as a reference for its actual content.
  * </p>
  *
+ * <p>
+ * If the FlowFile was built with an {@link AttributeKeyDictionary}, attributes are held in a {@link CompactAttributeMap} in order to minimize
+ * the heap that is required for FlowFiles that are queued. A FlowFile that is built from a FlowFile
+ * whose attributes are held compactly uses the same dictionary.
+ * </p>
+ *
  * <b>Immutable - Thread Safe</b>
  *
  */
@@ -56,7 +62,9 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     private StandardFlowFileRecord(final Builder builder) {
         this.id = builder.bId;
-        this.attributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        final Map<String, String> builderAttributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        final AttributeKeyDictionary dictionary = builder.bAttributeKeyDictionary;
+        this.attributes = dictionary == null ? builderAttributes : CompactAttributeMap.of(builderAttributes, dictionary);
         this.entryDate = builder.bEntryDate;
         this.lineageStartDate = builder.bLineageStartDate;
         this.lineageStartIndex = builder.bLineageStartIndex;
@@ -105,7 +113,8 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     @Override
     public Map<String, String> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        // A CompactAttributeMap is immutable, so there is no need to wrap it.
+        return this.attributes instanceof CompactAttributeMap ? this.attributes : Collections.unmodifiableMap(this.attributes);
     }
 
     @Override
@@ -184,6 +193,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         private long bQueueDateIndex = 0L;
         private Map<String, String> bAttributes;
         private boolean bAttributesCopied = false;
+        private AttributeKeyDictionary bAttributeKeyDictionary;
 
         public Builder id(final long id) {
             bId = id;
@@ -294,6 +304,18 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             return this;
         }
 
+        /**
+         * Specifies the dictionary that is used to share attribute keys between FlowFiles. If not <code>null</code>, the FlowFile holds its
+         * attributes in a compact, immutable Map; otherwise, which is the default, it holds its attributes in a HashMap.
+         *
+         * @param dictionary the dictionary to use, or <code>null</code> to hold attributes in a HashMap
+         * @return this Builder
+         */
+        public Builder attributeKeyDictionary(final AttributeKeyDictionary dictionary) {
+            this.bAttributeKeyDictionary = dictionary;
+            return this;
+        }
+
         public Builder contentClaim(final ContentClaim claim) {
             this.bClaim = claim;
             return this;
@@ -328,6 +350,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             // UnmodifiableMap, though, so that Processors cannot directly modify that Map.
             bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes : specFlowFile.getAttributes();
             bAttributesCopied = false;
+            bAttributeKeyDictionary = bAttributes instanceof CompactAttributeMap ? ((CompactAttributeMap) bAttributes).getDictionary() : null;
             bClaim = specFlowFile.getContentClaim();
             bClaimOffset = specFlowFile.getContentClaimOffset();
             bLastQueueDate = specFlowFile.getLastQueueDate();
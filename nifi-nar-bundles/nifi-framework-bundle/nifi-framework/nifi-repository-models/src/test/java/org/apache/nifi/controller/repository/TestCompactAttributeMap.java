@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompactAttributeMap {
+
+    @Test
+    public void testRoundTrip() {
+        final Map<String, String> attributes = createAttributes(20, 0);
+        attributes.put("empty", "");
+        attributes.put("latin", "caf\u00e9");
+        attributes.put("wide", "\u65e5\u672c\u8a9e");
+        attributes.put("\u30ad\u30fc", "key with wide characters");
+
+        final Map<String, String> compact = CompactAttributeMap.of(attributes, new AttributeKeyDictionary(100));
+        assertEquals(attributes, compact);
+        assertEquals(compact, attributes);
+        assertEquals(attributes.hashCode(), compact.hashCode());
+        assertEquals(attributes.size(), compact.size());
+
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            assertTrue(compact.containsKey(entry.getKey()));
+            assertEquals(entry.getValue(), compact.get(entry.getKey()));
+        }
+
+        assertNull(compact.get("missing"));
+        assertNull(compact.get(1));
+        assertFalse(compact.containsKey("missing"));
+    }
+
+    @Test
+    public void testKeysSharedThroughDictionary() {
+        final AttributeKeyDictionary dictionary = new AttributeKeyDictionary(100);
+        final Map<String, String> first = CompactAttributeMap.of(Collections.singletonMap(new String("abc"), "1"), dictionary);
+        final Map<String, String> second = CompactAttributeMap.of(Collections.singletonMap(new String("abc"), "2"), dictionary);
+
+        assertEquals(1, dictionary.size());
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        assertEquals("2", second.get("abc"));
+    }
+
+    @Test
+    public void testPlainMapWhenDictionaryFull() {
+        final AttributeKeyDictionary dictionary = new AttributeKeyDictionary(2);
+        final Map<String, String> attributes = createAttributes(10, 0);
+
+        final Map<String, String> fallback = CompactAttributeMap.of(attributes, dictionary);
+        assertEquals(2, dictionary.size());
+        assertSame(attributes, fallback);
+
+        // Keys that were added before the dictionary filled up are still shared
+        final Map<String, String> sharedKeys = new HashMap<>();
+        for (final String key : attributes.keySet()) {
+            if (dictionary.canonicalize(key) != null) {
+                sharedKeys.put(key, "value");
+            }
+        }
+        assertEquals(2, sharedKeys.size());
+        assertTrue(CompactAttributeMap.of(sharedKeys, dictionary) instanceof CompactAttributeMap);
+    }
+
+    @Test
+    public void testNullValuesRetained() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("abc", null);
+        attributes.put("hello", "world");
+
+        final Map<String, String> compact = CompactAttributeMap.of(attributes, new AttributeKeyDictionary(100));
+        assertTrue(compact instanceof CompactAttributeMap);
+        assertEquals(attributes, compact);
+        assertEquals(2, compact.size());
+        assertTrue(compact.containsKey("abc"));
+        assertNull(compact.get("abc"));
+    }
+
+    @Test
+    public void testPlainMapWhenNullKey() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put(null, "xyz");
+        attributes.put("hello", "world");
+
+        assertSame(attributes, CompactAttributeMap.of(attributes, new AttributeKeyDictionary(100)));
+    }
+
+    @Test
+    public void testKeysWithCollidingHashCodes() {
+        // "Aa" and "BB" have the same hash code, so every combination of them does as well
+        final Map<String, String> attributes = new HashMap<>();
+        final String[] parts = {"Aa", "BB"};
+        for (final String first : parts) {
+            for (final String second : parts) {
+                for (final String third : parts) {
+                    final String key = first + second + third;
+                    if (!key.equals("BBBBBB")) {
+                        attributes.put(key, third + second + first);
+                    }
+                }
+            }
+        }
+        attributes.putAll(createAttributes(100, 0));
+
+        final Map<String, String> compact = CompactAttributeMap.of(attributes, new AttributeKeyDictionary(1000));
+        assertEquals(attributes, compact);
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            assertEquals(entry.getValue(), compact.get(new String(entry.getKey())));
+        }
+        assertNull(compact.get("BBBBBB"));
+        assertFalse(compact.containsKey("BBBBBB"));
+    }
+
+    @Test
+    public void testImmutable() {
+        final AttributeKeyDictionary dictionary = new AttributeKeyDictionary(100);
+        final Map<String, String> compact = CompactAttributeMap.of(createAttributes(5, 0), dictionary);
+        assertSame(compact, CompactAttributeMap.of(compact, dictionary));
+        assertThrows(UnsupportedOperationException.class, () -> compact.put("abc", "xyz"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.remove("uuid"));
+    }
+
+    @Test
+    public void testFlowFileAttributesDefaultToHashMap() {
+        final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder().id(1L).addAttribute("abc", "xyz").build();
+        assertEquals("xyz", flowFile.getAttribute("abc"));
+        assertFalse(flowFile.getAttributes() instanceof CompactAttributeMap);
+        assertThrows(UnsupportedOperationException.class, () -> flowFile.getAttributes().put("abc", "123"));
+    }
+
+    @Test
+    public void testFlowFileAttributes() {
+        final AttributeKeyDictionary dictionary = new AttributeKeyDictionary(100);
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .attributeKeyDictionary(dictionary)
+            .addAttribute("uuid", UUID.randomUUID().toString())
+            .addAttribute("abc", "xyz")
+            .build();
+
+        assertTrue(original.getAttributes() instanceof CompactAttributeMap);
+
+        final FlowFileRecord unmodified = new StandardFlowFileRecord.Builder().fromFlowFile(original).size(10L).build();
+        assertSame(original.getAttributes(), unmodified.getAttributes());
+
+        final FlowFileRecord modified = new StandardFlowFileRecord.Builder().fromFlowFile(original).addAttribute("hello", "world").removeAttributes("abc").build();
+        assertEquals("world", modified.getAttribute("hello"));
+        assertNull(modified.getAttribute("abc"));
+        assertEquals("xyz", original.getAttribute("abc"));
+        assertEquals(original.getAttribute("uuid"), modified.getAttribute("uuid"));
+
+        // A FlowFile that is built from another keeps using its dictionary
+        assertTrue(modified.getAttributes() instanceof CompactAttributeMap);
+        assertSame(dictionary, ((CompactAttributeMap) modified.getAttributes()).getDictionary());
+    }
+
+    @Test
+    public void testDictionariesAreIndependent() {
+        final AttributeKeyDictionary firstDictionary = new AttributeKeyDictionary(1);
+        final AttributeKeyDictionary secondDictionary = new AttributeKeyDictionary(1);
+
+        final FlowFileRecord first = new StandardFlowFileRecord.Builder().id(1L).attributeKeyDictionary(firstDictionary).addAttribute("abc", "xyz").build();
+        final FlowFileRecord second = new StandardFlowFileRecord.Builder().id(2L).attributeKeyDictionary(secondDictionary).addAttribute("hello", "world").build();
+
+        assertTrue(first.getAttributes() instanceof CompactAttributeMap);
+        assertTrue(second.getAttributes() instanceof CompactAttributeMap);
+        assertEquals(1, firstDictionary.size());
+        assertEquals(1, secondDictionary.size());
+    }
+
+    @Test
+    @Disabled("Intended only for local performance testing before/after making changes")
+    public void testMemoryAndGarbageCollection() {
+        for (final int attributeCount : new int[] {10, 20, 30}) {
+            measure("HashMap", attributeCount, HashMap::new);
+            final AttributeKeyDictionary dictionary = new AttributeKeyDictionary(1000);
+            measure("CompactAttributeMap", attributeCount, attributes -> CompactAttributeMap.of(attributes, dictionary));
+        }
+    }
+
+    private void measure(final String description, final int attributeCount, final Function<Map<String, String>, Map<String, String>> mapFactory) {
+        final int flowFileCount = 250_000;
+
+        System.gc();
+        final long heapBefore = getUsedHeap();
+        final long gcMillisBefore = getGarbageCollectionMillis();
+        final long start = System.nanoTime();
+
+        final List<Map<String, String>> maps = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            maps.add(mapFactory.apply(createAttributes(attributeCount, i)));
+        }
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final long gcMillis = getGarbageCollectionMillis() - gcMillisBefore;
+        System.gc();
+        final long bytesPerFlowFile = (getUsedHeap() - heapBefore - (long) flowFileCount * 4) / flowFileCount;
+
+        System.out.println(description + " with " + attributeCount + " attributes: " + bytesPerFlowFile + " bytes per FlowFile, created "
+            + maps.size() + " in " + millis + " millis, " + gcMillis + " millis spent in garbage collection");
+    }
+
+    private static long getUsedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long getGarbageCollectionMillis() {
+        long millis = 0L;
+        for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0L, bean.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static Map<String, String> createAttributes(final int attributeCount, final int index) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", UUID.randomUUID().toString());
+        attributes.put("filename", "file-" + index + ".json");
+        attributes.put("path", "./");
+        for (int i = 3; i < attributeCount; i++) {
+            attributes.put("attribute-" + i, "value-" + index + "-" + i);
+        }
+        return attributes;
+    }
+}
@@ -97,6 +97,13 @@ public class NiFi implements NiFiEntryPoint {
             System.setProperty("java.security.krb5.conf", kerberosConfigFilePath);
         }
 
+        // The Expression Language is evaluated by components that have no access to nifi.properties, so it reads its settings from system properties
+        System.setProperty(NiFiProperties.EXPRESSION_LANGUAGE_BYTECODE_ENABLED, String.valueOf(properties.isExpressionLanguageBytecodeEnabled()));
+        System.setProperty(NiFiProperties.EXPRESSION_LANGUAGE_BYTECODE_COMPILE_THRESHOLD, String.valueOf(properties.getExpressionLanguageBytecodeCompileThreshold()));
+
+        // Record Readers likewise have no access to nifi.properties
+        System.setProperty(NiFiProperties.RECORD_ARRAY_BACKED_ENABLED, String.valueOf(properties.isRecordArrayBackedEnabled()));
+
         setDefaultUncaughtExceptionHandler();
 
         // register the shutdown hook
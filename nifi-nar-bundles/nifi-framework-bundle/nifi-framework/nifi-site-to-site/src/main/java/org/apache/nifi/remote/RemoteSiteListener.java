@@ -29,4 +29,25 @@ public interface RemoteSiteListener {
     void stop();
 
     void destroy();
+
+    /**
+     * @return the number of Site-to-Site connections that are currently being serviced, or 0 if the listener does not track its connections
+     */
+    default int getActiveSessionCount() {
+        return 0;
+    }
+
+    /**
+     * @return the number of Site-to-Site connections that are waiting to be serviced, or 0 if the listener does not queue connections
+     */
+    default int getQueuedSessionCount() {
+        return 0;
+    }
+
+    /**
+     * @return the number of Site-to-Site connections that have been closed without being serviced, or 0 if the listener does not limit its connections
+     */
+    default long getRejectedSessionCount() {
+        return 0;
+    }
 }
@@ -34,7 +34,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
@@ -67,6 +75,16 @@ public class SocketRemoteSiteListener implements RemoteSiteListener {
     private final AtomicReference<ProcessGroup> rootGroup = new AtomicReference<>();
     private final NiFiProperties nifiProperties;
     private final PeerDescriptionModifier peerDescriptionModifier;
+    private final SocketRemoteSiteListenerThreadModel threadModel;
+    private final Semaphore sessionPermits;
+    private final int maxQueuedSessions;
+    private final long queuedSessionTimeoutNanos;
+
+    private final BlockingQueue<QueuedSocket> queuedSockets = new LinkedBlockingQueue<>();
+    private final Set<Thread> workerThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong rejectedSessions = new AtomicLong();
+    private final AtomicLong workerThreadCount = new AtomicLong();
 
     private static final int EXCEPTION_THRESHOLD_MILLIS = 10_000;
     private volatile long tlsErrorLastSeen = -1;
@@ -80,10 +98,37 @@ public class SocketRemoteSiteListener implements RemoteSiteListener {
     }
 
     public SocketRemoteSiteListener(final int socketPort, final SSLContext sslContext, final NiFiProperties nifiProperties, final NodeInformant nodeInformant) {
+        this(socketPort, sslContext, nifiProperties, nodeInformant, SocketRemoteSiteListenerThreadModel.PLATFORM, 0, 0, 0);
+    }
+
+    /**
+     * @param maxSessions the maximum number of connections to service at the same time, or 0 to service every connection as soon as it is accepted
+     * @param maxQueuedSessions the maximum number of connections that may wait to be serviced once maxSessions connections are being serviced;
+     * any further connection is closed immediately. Ignored if maxSessions is 0.
+     * @param queuedSessionTimeoutMillis the maximum number of milliseconds that a connection may wait to be serviced before it is closed,
+     * or 0 to let connections wait until they are serviced. Ignored if maxSessions is 0.
+     */
+    public SocketRemoteSiteListener(final int socketPort, final SSLContext sslContext, final NiFiProperties nifiProperties, final NodeInformant nodeInformant,
+                                    final SocketRemoteSiteListenerThreadModel threadModel, final int maxSessions, final int maxQueuedSessions,
+                                    final long queuedSessionTimeoutMillis) {
+        if (maxSessions < 0) {
+            throw new IllegalArgumentException("Maximum number of sessions cannot be negative");
+        }
+        if (maxQueuedSessions < 0) {
+            throw new IllegalArgumentException("Maximum number of queued sessions cannot be negative");
+        }
+        if (queuedSessionTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Queued session timeout cannot be negative");
+        }
+
         this.socketPort = socketPort;
         this.sslContext = sslContext;
         this.nifiProperties = nifiProperties;
         this.nodeInformant = nodeInformant;
+        this.threadModel = threadModel;
+        this.sessionPermits = maxSessions == 0 ? null : new Semaphore(maxSessions);
+        this.maxQueuedSessions = maxQueuedSessions;
+        this.queuedSessionTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queuedSessionTimeoutMillis);
         peerDescriptionModifier = new PeerDescriptionModifier(nifiProperties);
     }
 
@@ -94,238 +139,357 @@ public class SocketRemoteSiteListener implements RemoteSiteListener {
 
     @Override
     public void start() throws IOException {
-        final boolean secure = (sslContext != null);
-        final List<Thread> threads = new ArrayList<>();
-
         stopped.set(false);
 
-        final Thread listenerThread = new Thread(new Runnable() {
-            private int threadCount = 0;
+        final Thread listenerThread = new Thread(() -> {
+            try (final ServerSocket serverSocket = createServerSocket()) {
+                serverSocket.setSoTimeout(2000);
 
-            @Override
-            public void run() {
+                while (!stopped.get()) {
 
-                try (final ServerSocket serverSocket = createServerSocket()) {
-                    serverSocket.setSoTimeout(2000);
+                    final Socket acceptedSocket = acceptConnection(serverSocket);
+                    expireQueuedSessions();
 
-                    while (!stopped.get()) {
+                    if (acceptedSocket == null) {
+                        continue;
+                    }
 
-                        final Socket acceptedSocket = acceptConnection(serverSocket);
+                    if (stopped.get()) {
+                        closeQuietly(acceptedSocket);
+                        break;
+                    }
 
-                        if (acceptedSocket == null) {
-                            continue;
-                        }
+                    admitConnection(acceptedSocket);
+                }
 
-                        if (stopped.get()) {
-                            break;
-                        }
+            } catch (final IOException e) {
+                LOG.error("Unable to open server socket due to {}", e.toString());
+                if (LOG.isDebugEnabled()) {
+                    LOG.error("", e);
+                }
+            }
 
-                        final Thread thread = createWorkerThread(acceptedSocket);
-                        thread.setName("Site-to-Site Worker Thread-" + (threadCount++));
-                        LOG.debug("Handing connection to {}", thread);
-                        thread.start();
-                        threads.add(thread);
-                        threads.removeIf(t -> !t.isAlive());
+            QueuedSocket queuedSocket;
+            while ((queuedSocket = queuedSockets.poll()) != null) {
+                closeQuietly(queuedSocket.socket());
+            }
 
-                    }
+            for (final Thread workerThread : workerThreads) {
+                workerThread.interrupt();
+            }
+        });
 
-                } catch (final IOException e) {
-                    LOG.error("Unable to open server socket due to {}", e.toString());
-                    if (LOG.isDebugEnabled()) {
-                        LOG.error("", e);
+        listenerThread.setName("Site-to-Site Listener");
+        listenerThread.start();
+    }
+
+    @Override
+    public int getActiveSessionCount() {
+        return activeSessions.get();
+    }
+
+    @Override
+    public int getQueuedSessionCount() {
+        return queuedSockets.size();
+    }
+
+    /**
+     * @return the number of Site-to-Site connections that have been closed without being serviced, either because too many connections were
+     * already active and queued or because they waited longer than the queued session timeout
+     */
+    @Override
+    public long getRejectedSessionCount() {
+        return rejectedSessions.get();
+    }
+
+    private void admitConnection(final Socket socket) {
+        if (sessionPermits == null || sessionPermits.tryAcquire()) {
+            startWorker(socket);
+            return;
+        }
+
+        // Only the listener thread adds to the queue, so its size cannot grow between checking and adding
+        if (queuedSockets.size() < maxQueuedSessions) {
+            queuedSockets.add(new QueuedSocket(socket, System.nanoTime()));
+            LOG.debug("Queued connection from {} because {} sessions are active; {} sessions are queued", socket.getInetAddress(), getActiveSessionCount(), getQueuedSessionCount());
+
+            // A session may have finished after the permit was requested but before the Socket was queued
+            startQueuedSessions();
+            return;
+        }
+
+        rejectedSessions.incrementAndGet();
+        LOG.warn("Closing connection from {} because {} sessions are active and {} sessions are queued; {} connections have been rejected",
+            socket.getInetAddress(), getActiveSessionCount(), getQueuedSessionCount(), getRejectedSessionCount());
+        closeQuietly(socket);
+    }
+
+    private void startQueuedSessions() {
+        while (!queuedSockets.isEmpty() && sessionPermits.tryAcquire()) {
+            final Socket socket = pollQueuedSocket();
+            if (socket == null) {
+                sessionPermits.release();
+            } else {
+                startWorker(socket);
+            }
+        }
+    }
+
+    /**
+     * Removes the connection that has waited the longest from the queue, closing any connection on the way that has waited longer than the queued session timeout
+     *
+     * @return the connection to service next, or null if no connection is queued
+     */
+    private Socket pollQueuedSocket() {
+        QueuedSocket queuedSocket;
+        while ((queuedSocket = queuedSockets.poll()) != null) {
+            if (!isExpired(queuedSocket, System.nanoTime())) {
+                return queuedSocket.socket();
+            }
+
+            closeExpired(queuedSocket);
+        }
+
+        return null;
+    }
+
+    /**
+     * Closes queued connections that have waited longer than the queued session timeout, so that clients that have already given up are not serviced later
+     */
+    private void expireQueuedSessions() {
+        if (queuedSessionTimeoutNanos == 0 || queuedSockets.isEmpty()) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final List<QueuedSocket> expiredSockets = new ArrayList<>();
+        queuedSockets.removeIf(queuedSocket -> isExpired(queuedSocket, now) && expiredSockets.add(queuedSocket));
+        expiredSockets.forEach(this::closeExpired);
+    }
+
+    private boolean isExpired(final QueuedSocket queuedSocket, final long now) {
+        return queuedSessionTimeoutNanos > 0 && now - queuedSocket.queuedNanos() > queuedSessionTimeoutNanos;
+    }
+
+    private void closeExpired(final QueuedSocket queuedSocket) {
+        rejectedSessions.incrementAndGet();
+        LOG.warn("Closing connection from {} because it waited more than {} millis to be serviced; {} connections have been rejected",
+            queuedSocket.socket().getInetAddress(), TimeUnit.NANOSECONDS.toMillis(queuedSessionTimeoutNanos), getRejectedSessionCount());
+        closeQuietly(queuedSocket.socket());
+    }
+
+    private void startWorker(final Socket socket) {
+        // The worker holds its permit, if any, while it services queued connections, so that it releases the permit only once the queue is empty
+        final Runnable worker = () -> {
+            try {
+                Socket nextSocket = socket;
+                while (nextSocket != null) {
+                    activeSessions.incrementAndGet();
+                    try {
+                        communicate(nextSocket);
+                    } finally {
+                        activeSessions.decrementAndGet();
                     }
+
+                    nextSocket = stopped.get() ? null : pollQueuedSocket();
                 }
+            } finally {
+                workerThreads.remove(Thread.currentThread());
 
+                if (sessionPermits != null) {
+                    sessionPermits.release();
+                    startQueuedSessions();
+                }
+            }
+        };
 
-                for(Thread thread : threads) {
-                    if(thread != null) {
-                        thread.interrupt();
-                    }
+        final Thread.Builder threadBuilder = threadModel == SocketRemoteSiteListenerThreadModel.VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform();
+        final Thread workerThread = threadBuilder.name("Site-to-Site Worker Thread-" + workerThreadCount.getAndIncrement()).unstarted(worker);
+        workerThreads.add(workerThread);
+        LOG.debug("Handing connection to {}", workerThread);
+        workerThread.start();
+    }
+
+    private void communicate(final Socket socket) {
+        LOG.debug("{} Determining URL of connection", this);
+        final InetAddress inetAddress = socket.getInetAddress();
+        String clientHostName = inetAddress.getHostName();
+        final int slashIndex = clientHostName.indexOf("/");
+        if (slashIndex == 0) {
+            clientHostName = clientHostName.substring(1);
+        } else if (slashIndex > 0) {
+            clientHostName = clientHostName.substring(0, slashIndex);
+        }
+
+        final int clientPort = socket.getPort();
+        final String peerUri = "nifi://" + clientHostName + ":" + clientPort;
+        LOG.debug("{} Connection URL is {}", this, peerUri);
+
+        final CommunicationsSession commsSession;
+        final String dn;
+        try {
+            if (sslContext != null) {
+                LOG.trace("{} Connection is secure", this);
+                final SSLSocket sslSocket = (SSLSocket) socket;
+                dn = getPeerIdentity(sslSocket);
+
+                commsSession = new SocketCommunicationsSession(socket);
+                commsSession.setUserDn(dn);
+
+            } else {
+                LOG.trace("{} Connection is not secure", this);
+                commsSession = new SocketCommunicationsSession(socket);
+                dn = null;
+            }
+        } catch (final Exception e) {
+            // TODO: Add SocketProtocolListener#handleTlsError logic here
+            String msg = String.format("RemoteSiteListener Unable to accept connection from %s due to %s", socket, e.getLocalizedMessage());
+            // Suppress repeated TLS errors
+            if (isTlsError(e)) {
+                boolean printedAsWarning = handleTlsError(msg);
+
+                // TODO: Move into handleTlsError and refactor shared behavior
+                // If the error was printed as a warning, reset the last seen timer
+                if (printedAsWarning) {
+                    tlsErrorLastSeen = System.currentTimeMillis();
+                }
+            } else {
+                LOG.error(msg);
+                if (LOG.isDebugEnabled()) {
+                    LOG.error("", e);
                 }
             }
+            return;
+        }
 
-            private Thread createWorkerThread(Socket socket) {
-                return new Thread(new Runnable() {
-                    @Override
-                    public void run() {
-                        LOG.debug("{} Determining URL of connection", this);
-                        final InetAddress inetAddress = socket.getInetAddress();
-                        String clientHostName = inetAddress.getHostName();
-                        final int slashIndex = clientHostName.indexOf("/");
-                        if (slashIndex == 0) {
-                            clientHostName = clientHostName.substring(1);
-                        } else if (slashIndex > 0) {
-                            clientHostName = clientHostName.substring(0, slashIndex);
-                        }
+        LOG.info("Received connection from {}, User DN: {}", socket.getInetAddress(), dn);
 
-                        final int clientPort = socket.getPort();
-                        final String peerUri = "nifi://" + clientHostName + ":" + clientPort;
-                        LOG.debug("{} Connection URL is {}", this, peerUri);
+        final InputStream socketIn;
+        final OutputStream socketOut;
 
-                        final CommunicationsSession commsSession;
-                        final String dn;
-                        try {
-                            if (secure) {
-                                LOG.trace("{} Connection is secure", this);
-                                final SSLSocket sslSocket = (SSLSocket) socket;
-                                dn = getPeerIdentity(sslSocket);
-
-                                commsSession = new SocketCommunicationsSession(socket);
-                                commsSession.setUserDn(dn);
-
-                            } else {
-                                LOG.trace("{} Connection is not secure", this);
-                                commsSession = new SocketCommunicationsSession(socket);
-                                dn = null;
-                            }
-                        } catch (final Exception e) {
-                            // TODO: Add SocketProtocolListener#handleTlsError logic here
-                            String msg = String.format("RemoteSiteListener Unable to accept connection from %s due to %s", socket, e.getLocalizedMessage());
-                            // Suppress repeated TLS errors
-                            if (isTlsError(e)) {
-                                boolean printedAsWarning = handleTlsError(msg);
-
-                                // TODO: Move into handleTlsError and refactor shared behavior
-                                // If the error was printed as a warning, reset the last seen timer
-                                if (printedAsWarning) {
-                                    tlsErrorLastSeen = System.currentTimeMillis();
-                                }
-                            } else {
-                                LOG.error(msg);
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.error("", e);
-                                }
-                            }
-                            return;
-                        }
+        try {
+            socketIn = commsSession.getInput().getInputStream();
+            socketOut = commsSession.getOutput().getOutputStream();
+        } catch (final IOException e) {
+            LOG.error("Connection dropped from {} before any data was transmitted", peerUri);
+            try {
+                commsSession.close();
+            } catch (final IOException ioe) {
+            }
 
-                        LOG.info("Received connection from {}, User DN: {}", socket.getInetAddress(), dn);
+            return;
+        }
 
-                        final InputStream socketIn;
-                        final OutputStream socketOut;
+        final DataInputStream dis = new DataInputStream(socketIn);
+        final DataOutputStream dos = new DataOutputStream(socketOut);
 
-                        try {
-                            socketIn = commsSession.getInput().getInputStream();
-                            socketOut = commsSession.getOutput().getOutputStream();
-                        } catch (final IOException e) {
-                            LOG.error("Connection dropped from {} before any data was transmitted", peerUri);
-                            try {
-                                commsSession.close();
-                            } catch (final IOException ioe) {
-                            }
+        ServerProtocol protocol = null;
+        Peer peer = null;
+        try {
+            // ensure that we are communicating with another NiFi
+            LOG.debug("Verifying magic bytes...");
+            verifyMagicBytes(dis, peerUri);
+
+            LOG.debug("Receiving Server Protocol Negotiation");
+            protocol = RemoteResourceFactory.receiveServerProtocolNegotiation(dis, dos);
+            protocol.setRootProcessGroup(rootGroup.get());
+            protocol.setNodeInformant(nodeInformant);
+            if (protocol instanceof PeerDescriptionModifiable) {
+                ((PeerDescriptionModifiable) protocol).setPeerDescriptionModifier(peerDescriptionModifier);
+            }
 
-                            return;
-                        }
+            final PeerDescription description = new PeerDescription(clientHostName, clientPort, sslContext != null);
+            peer = new Peer(description, commsSession, peerUri, "nifi://localhost:" + getPort());
+            LOG.debug("Handshaking....");
+            protocol.handshake(peer);
 
-                        final DataInputStream dis = new DataInputStream(socketIn);
-                        final DataOutputStream dos = new DataOutputStream(socketOut);
+            if (!protocol.isHandshakeSuccessful()) {
+                LOG.error("Handshake failed with {}; closing connection", peer);
+                try {
+                    peer.close();
+                } catch (final IOException e) {
+                    LOG.warn("Failed to close {} due to {}", peer, e);
+                }
 
-                        ServerProtocol protocol = null;
-                        Peer peer = null;
-                        try {
-                            // ensure that we are communicating with another NiFi
-                            LOG.debug("Verifying magic bytes...");
-                            verifyMagicBytes(dis, peerUri);
-
-                            LOG.debug("Receiving Server Protocol Negotiation");
-                            protocol = RemoteResourceFactory.receiveServerProtocolNegotiation(dis, dos);
-                            protocol.setRootProcessGroup(rootGroup.get());
-                            protocol.setNodeInformant(nodeInformant);
-                            if (protocol instanceof PeerDescriptionModifiable) {
-                                ((PeerDescriptionModifiable) protocol).setPeerDescriptionModifier(peerDescriptionModifier);
-                            }
+                // no need to shutdown protocol because we failed to perform handshake
+                return;
+            }
 
-                            final PeerDescription description = new PeerDescription(clientHostName, clientPort, sslContext != null);
-                            peer = new Peer(description, commsSession, peerUri, "nifi://localhost:" + getPort());
-                            LOG.debug("Handshaking....");
-                            protocol.handshake(peer);
-
-                            if (!protocol.isHandshakeSuccessful()) {
-                                LOG.error("Handshake failed with {}; closing connection", peer);
-                                try {
-                                    peer.close();
-                                } catch (final IOException e) {
-                                    LOG.warn("Failed to close {} due to {}", peer, e);
-                                }
-
-                                // no need to shutdown protocol because we failed to perform handshake
-                                return;
-                            }
+            commsSession.setTimeout((int) protocol.getRequestExpiration());
 
-                            commsSession.setTimeout((int) protocol.getRequestExpiration());
-
-                            LOG.info("Successfully negotiated ServerProtocol {} Version {} with {}",
-                                protocol.getResourceName(), protocol.getVersionNegotiator().getVersion(), peer);
-
-                            try {
-                                while (!protocol.isShutdown()) {
-                                    LOG.trace("Getting Protocol Request Type...");
-
-                                    int timeoutCount = 0;
-                                    RequestType requestType = null;
-
-                                    while (requestType == null) {
-                                        try {
-                                            requestType = protocol.getRequestType(peer);
-                                        } catch (final SocketTimeoutException e) {
-                                            // Give the timeout a bit longer (twice as long) to receive the Request Type,
-                                            // in order to attempt to receive more data without shutting down the socket if we don't
-                                            // have to.
-                                            LOG.debug("{} Timed out waiting to receive RequestType using {} with {}", this, protocol, peer);
-                                            timeoutCount++;
-                                            requestType = null;
-
-                                            if (timeoutCount >= 2) {
-                                                throw e;
-                                            }
-                                        }
-                                    }
-
-                                    handleRequest(protocol, peer, requestType);
-                                }
-                                LOG.debug("Finished communicating with {} ({})", peer, protocol);
-                            } catch (final Exception e) {
-                                LOG.error("Unable to communicate with remote instance {} ({}) due to {}; closing connection", peer, protocol, e.toString());
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.error("", e);
-                                }
-                            }
-                        } catch (final IOException e) {
-                            LOG.error("Unable to communicate with remote instance {} due to {}; closing connection", peer, e.toString());
-                            if (LOG.isDebugEnabled()) {
-                                LOG.error("", e);
-                            }
-                        } catch (final Throwable t) {
-                            LOG.error("Handshake failed when communicating with {}; closing connection. Reason for failure: {}", peerUri, t.toString());
-                            if (LOG.isDebugEnabled()) {
-                                LOG.error("", t);
-                            }
-                        } finally {
-                            LOG.trace("Cleaning up");
-                            try {
-                                if (protocol != null && peer != null) {
-                                    protocol.shutdown(peer);
-                                }
-                            } catch (final Exception protocolException) {
-                                LOG.warn("Failed to shutdown protocol due to {}", protocolException.toString());
-                            }
+            LOG.info("Successfully negotiated ServerProtocol {} Version {} with {}",
+                protocol.getResourceName(), protocol.getVersionNegotiator().getVersion(), peer);
+
+            try {
+                while (!protocol.isShutdown()) {
+                    LOG.trace("Getting Protocol Request Type...");
+
+                    int timeoutCount = 0;
+                    RequestType requestType = null;
 
-                            try {
-                                if (peer != null) {
-                                    peer.close();
-                                }
-                            } catch (final Exception peerException) {
-                                LOG.warn("Failed to close peer due to {}; some resources may not be appropriately cleaned up", peerException.toString());
+                    while (requestType == null) {
+                        try {
+                            requestType = protocol.getRequestType(peer);
+                        } catch (final SocketTimeoutException e) {
+                            // Give the timeout a bit longer (twice as long) to receive the Request Type,
+                            // in order to attempt to receive more data without shutting down the socket if we don't
+                            // have to.
+                            LOG.debug("{} Timed out waiting to receive RequestType using {} with {}", this, protocol, peer);
+                            timeoutCount++;
+                            requestType = null;
+
+                            if (timeoutCount >= 2) {
+                                throw e;
                             }
-                            LOG.trace("Finished cleaning up");
                         }
                     }
-                });
+
+                    handleRequest(protocol, peer, requestType);
+                }
+                LOG.debug("Finished communicating with {} ({})", peer, protocol);
+            } catch (final Exception e) {
+                LOG.error("Unable to communicate with remote instance {} ({}) due to {}; closing connection", peer, protocol, e.toString());
+                if (LOG.isDebugEnabled()) {
+                    LOG.error("", e);
+                }
+            }
+        } catch (final IOException e) {
+            LOG.error("Unable to communicate with remote instance {} due to {}; closing connection", peer, e.toString());
+            if (LOG.isDebugEnabled()) {
+                LOG.error("", e);
+            }
+        } catch (final Throwable t) {
+            LOG.error("Handshake failed when communicating with {}; closing connection. Reason for failure: {}", peerUri, t.toString());
+            if (LOG.isDebugEnabled()) {
+                LOG.error("", t);
+            }
+        } finally {
+            LOG.trace("Cleaning up");
+            try {
+                if (protocol != null && peer != null) {
+                    protocol.shutdown(peer);
+                }
+            } catch (final Exception protocolException) {
+                LOG.warn("Failed to shutdown protocol due to {}", protocolException.toString());
             }
-        });
 
-        listenerThread.setName("Site-to-Site Listener");
-        listenerThread.start();
+            try {
+                if (peer != null) {
+                    peer.close();
+                }
+            } catch (final Exception peerException) {
+                LOG.warn("Failed to close peer due to {}; some resources may not be appropriately cleaned up", peerException.toString());
+            }
+            LOG.trace("Finished cleaning up");
+        }
+    }
+
+    private void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (final IOException e) {
+            LOG.debug("Failed to close {}", socket, e);
+        }
     }
 
     private boolean isTlsError(final Throwable e) {
@@ -397,6 +561,7 @@ public class SocketRemoteSiteListener implements RemoteSiteListener {
                     acceptedSocket = serverSocket.accept();
                 } catch (final SocketTimeoutException ste) {
                     LOG.trace("SocketTimeoutException occurred. {}", ste.getMessage());
+                    expireQueuedSessions();
                 }
             }
         } catch (final IOException e) {
@@ -477,4 +642,12 @@ public class SocketRemoteSiteListener implements RemoteSiteListener {
             throw new HandshakeException("Handshake with " + peerDescription + " failed because the Magic Header was not present");
         }
     }
+
+    @Override
+    public String toString() {
+        return "SocketRemoteSiteListener[port=" + socketPort + ", secure=" + (sslContext != null) + ", threadModel=" + threadModel + "]";
+    }
+
+    private record QueuedSocket(Socket socket, long queuedNanos) {
+    }
 }
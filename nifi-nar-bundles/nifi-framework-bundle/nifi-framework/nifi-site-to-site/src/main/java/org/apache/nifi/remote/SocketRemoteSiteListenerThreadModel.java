@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.remote;
+
+/**
+ * The type of thread that the {@link SocketRemoteSiteListener} uses to service each Site-to-Site connection
+ */
+public enum SocketRemoteSiteListenerThreadModel {
+    /**
+     * Each connection is serviced by a dedicated platform thread
+     */
+    PLATFORM,
+
+    /**
+     * Each connection is serviced by a virtual thread. A virtual thread does not hold on to an operating system thread while it
+     * waits for data from the peer, so a large number of connections can be serviced by a small number of carrier threads.
+     */
+    VIRTUAL;
+}
@@ -23,11 +23,19 @@ import org.apache.nifi.util.NiFiProperties;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -75,4 +83,86 @@ public class TestSocketRemoteSiteListener {
 
     }
 
+    @Test
+    public void testSessionAdmission() throws Exception {
+        final int port = getAvailablePort();
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(null, Collections.emptyMap());
+        final SocketRemoteSiteListener listener = new SocketRemoteSiteListener(port, null, nifiProperties, null, SocketRemoteSiteListenerThreadModel.VIRTUAL, 1, 1, 0);
+
+        listener.start();
+        try (final Socket activeSocket = connect(port);
+             final Socket queuedSocket = connect(port)) {
+
+            waitFor(() -> listener.getActiveSessionCount() == 1 && listener.getQueuedSessionCount() == 1);
+
+            // Both the active and the queued sessions are taken, so the next connection is closed without being serviced
+            try (final Socket rejectedSocket = connect(port)) {
+                rejectedSocket.setSoTimeout(5000);
+                assertEquals(-1, rejectedSocket.getInputStream().read());
+            }
+            assertEquals(1, listener.getRejectedSessionCount());
+
+            // Once the active session finishes, the queued session is serviced
+            activeSocket.close();
+            waitFor(() -> listener.getActiveSessionCount() == 1 && listener.getQueuedSessionCount() == 0);
+
+            queuedSocket.close();
+            waitFor(() -> listener.getActiveSessionCount() == 0);
+        } finally {
+            listener.stop();
+        }
+    }
+
+    @Test
+    public void testQueuedSessionTimeout() throws Exception {
+        final int port = getAvailablePort();
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(null, Collections.emptyMap());
+        final SocketRemoteSiteListener listener = new SocketRemoteSiteListener(port, null, nifiProperties, null, SocketRemoteSiteListenerThreadModel.VIRTUAL, 1, 1, 500);
+
+        listener.start();
+        try (final Socket activeSocket = connect(port);
+             final Socket queuedSocket = connect(port)) {
+
+            waitFor(() -> listener.getActiveSessionCount() == 1 && listener.getQueuedSessionCount() == 1);
+
+            // The queued session is closed without being serviced once it has waited longer than the timeout, even though the active session has not finished
+            queuedSocket.setSoTimeout(5000);
+            assertEquals(-1, queuedSocket.getInputStream().read());
+            assertEquals(0, listener.getQueuedSessionCount());
+            assertEquals(1, listener.getRejectedSessionCount());
+            assertEquals(1, listener.getActiveSessionCount());
+        } finally {
+            listener.stop();
+        }
+    }
+
+    private Socket connect(final int port) throws IOException, InterruptedException {
+        // The listener binds its port on a separate thread, so the port may not be open yet right after the listener is started
+        final long expiration = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                return new Socket(InetAddress.getLoopbackAddress(), port);
+            } catch (final ConnectException e) {
+                if (System.currentTimeMillis() > expiration) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private int getAvailablePort() throws IOException {
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    private void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long expiration = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < expiration) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(condition.getAsBoolean());
+    }
 }
@@ -377,6 +377,17 @@ public interface NiFiServiceFacade {
      */
     ProcessGroupStatusEntity getProcessGroupStatus(String groupId, boolean recursive);
 
+    /**
+     * Returns the status of the process group across the cluster, as maintained by the Cluster Coordinator from the
+     * component status that each node includes in its heartbeats.
+     *
+     * @param groupId group
+     * @param recursive whether to include the status of descendant process groups
+     * @return The process group status, or <code>null</code> if this node is not the Cluster Coordinator or the status
+     *         of every connected node is not yet known
+     */
+    ProcessGroupStatusEntity getClusterProcessGroupStatus(String groupId, boolean recursive);
+
     /**
      * Gets the process group status history.
      *
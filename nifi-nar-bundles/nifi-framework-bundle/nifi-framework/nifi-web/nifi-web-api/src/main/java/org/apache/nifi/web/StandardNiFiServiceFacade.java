@@ -3600,8 +3600,28 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
     @Override
     public ProcessGroupStatusEntity getProcessGroupStatus(final String groupId, final boolean recursive) {
         final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
+        return createProcessGroupStatusEntity(processGroup, controllerFacade.getProcessGroupStatus(groupId), recursive);
+    }
+
+    @Override
+    public ProcessGroupStatusEntity getClusterProcessGroupStatus(final String groupId, final boolean recursive) {
+        final ProcessGroupStatus clusterStatus = heartbeatMonitor == null ? null : heartbeatMonitor.getClusterComponentStatus();
+        if (clusterStatus == null) {
+            return null;
+        }
+
+        final ProcessGroupStatus groupStatus = controllerFacade.getClusterProcessGroupStatus(groupId, clusterStatus);
+        if (groupStatus == null) {
+            return null;
+        }
+
+        final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
+        return createProcessGroupStatusEntity(processGroup, groupStatus, recursive);
+    }
+
+    private ProcessGroupStatusEntity createProcessGroupStatusEntity(final ProcessGroup processGroup, final ProcessGroupStatus processGroupStatus, final boolean recursive) {
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(processGroup);
-        final ProcessGroupStatusDTO dto = dtoFactory.createProcessGroupStatusDto(processGroup, controllerFacade.getProcessGroupStatus(groupId));
+        final ProcessGroupStatusDTO dto = dtoFactory.createProcessGroupStatusDto(processGroup, processGroupStatus);
 
         // prune the response as necessary
         if (!recursive) {
@@ -6142,6 +6162,11 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         nifiMetricsRegistry.setDataPoint(taskDuration, "TOTAL_TASK_DURATION",
                 instanceId, ROOT_PROCESS_GROUP, rootPGName, rootPGId, "");
 
+        // Add the Site-to-Site session counts to the NiFi metrics registry
+        nifiMetricsRegistry.setDataPoint(controllerFacade.getActiveSiteToSiteSessionCount(), "SITE_TO_SITE_ACTIVE_SESSIONS", instanceId);
+        nifiMetricsRegistry.setDataPoint(controllerFacade.getQueuedSiteToSiteSessionCount(), "SITE_TO_SITE_QUEUED_SESSIONS", instanceId);
+        nifiMetricsRegistry.setDataPoint(controllerFacade.getRejectedSiteToSiteSessionCount(), "SITE_TO_SITE_REJECTED_SESSIONS", instanceId);
+
         PrometheusMetricsUtil.createJvmMetrics(jvmMetricsRegistry, JmxJvmMetrics.getInstance(), instanceId);
 
         final Map<String, Double> aggregatedMetrics = new HashMap<>();
@@ -2456,6 +2456,14 @@ public class FlowResource extends ApplicationResource {
         if (isReplicateRequest()) {
             // determine where this request should be sent
             if (clusterNodeId == null) {
+                // when the status from each node is not needed, use the status that the nodes have reported in their heartbeats, if available
+                if (!nodewise) {
+                    final ProcessGroupStatusEntity clusterEntity = serviceFacade.getClusterProcessGroupStatus(groupId, recursive);
+                    if (clusterEntity != null) {
+                        return generateOkResponse(clusterEntity).build();
+                    }
+                }
+
                 final NodeResponse nodeResponse = replicateNodeResponse(HttpMethod.GET);
                 final ProcessGroupStatusEntity entity = (ProcessGroupStatusEntity) nodeResponse.getUpdatedEntity();
 
@@ -101,6 +101,8 @@ import org.apache.nifi.controller.queue.RemoteQueuePartitionDiagnostics;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.scheduling.VirtualThreadMonitor;
+import org.apache.nifi.controller.scheduling.VirtualThreadPinnedStatistics;
 import org.apache.nifi.controller.service.ControllerServiceNode;
 import org.apache.nifi.controller.service.ControllerServiceProvider;
 import org.apache.nifi.controller.state.SortedStateUtils;
@@ -200,6 +202,7 @@ import org.apache.nifi.web.api.dto.diagnostics.ProcessorDiagnosticsDTO;
 import org.apache.nifi.web.api.dto.diagnostics.RemoteQueuePartitionDTO;
 import org.apache.nifi.web.api.dto.diagnostics.RepositoryUsageDTO;
 import org.apache.nifi.web.api.dto.diagnostics.ThreadDumpDTO;
+import org.apache.nifi.web.api.dto.diagnostics.VirtualThreadDiagnosticsDTO;
 import org.apache.nifi.web.api.dto.flow.FlowBreadcrumbDTO;
 import org.apache.nifi.web.api.dto.flow.FlowDTO;
 import org.apache.nifi.web.api.dto.flow.ProcessGroupFlowDTO;
@@ -3769,6 +3772,7 @@ public final class DtoFactory {
        procDiagnostics.setProcessor(createProcessorDto(procNode));
        procDiagnostics.setProcessorStatus(createProcessorStatusDto(procStatus));
        procDiagnostics.setThreadDumps(createThreadDumpDtos(procNode));
+       procDiagnostics.setVirtualThreadDiagnostics(createVirtualThreadDiagnosticsDto(procNode, flowController.getVirtualThreadMonitor()));
 
        final Set<ControllerServiceDiagnosticsDTO> referencedServiceDiagnostics = createReferencedServiceDiagnostics(procNode.getEffectivePropertyValues(),
            flowController.getControllerServiceProvider(), serviceEntityFactory);
@@ -3777,6 +3781,21 @@ public final class DtoFactory {
        return procDiagnostics;
    }
 
+   private VirtualThreadDiagnosticsDTO createVirtualThreadDiagnosticsDto(final ProcessorNode procNode, final VirtualThreadMonitor virtualThreadMonitor) {
+       final boolean runOnVirtualThreads = virtualThreadMonitor.isRunOnVirtualThreads(procNode.getIdentifier());
+       final VirtualThreadPinnedStatistics pinnedStatistics = virtualThreadMonitor.getPinnedStatistics(procNode.getIdentifier());
+       if (!runOnVirtualThreads && pinnedStatistics.getPinnedEventCount() == 0L) {
+           return null;
+       }
+
+       final VirtualThreadDiagnosticsDTO dto = new VirtualThreadDiagnosticsDTO();
+       dto.setRunOnVirtualThreads(runOnVirtualThreads);
+       dto.setPinnedEventCount(pinnedStatistics.getPinnedEventCount());
+       dto.setPinnedMillis(TimeUnit.NANOSECONDS.toMillis(pinnedStatistics.getPinnedNanos()));
+       dto.setLastPinnedStackTrace(pinnedStatistics.getLastStackTrace());
+       return dto;
+   }
+
    private Set<ControllerServiceDiagnosticsDTO> createReferencedServiceDiagnostics(final Map<PropertyDescriptor, String> properties, final ControllerServiceProvider serviceProvider,
        final Function<String, ControllerServiceEntity> serviceEntityFactory) {
 
@@ -145,6 +145,7 @@ import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ControllerFacade implements Authorizable {
@@ -439,6 +440,18 @@ public class ControllerFacade implements Authorizable {
         return flowController.getInstanceId();
     }
 
+    public int getActiveSiteToSiteSessionCount() {
+        return flowController.getActiveSiteToSiteSessionCount();
+    }
+
+    public int getQueuedSiteToSiteSessionCount() {
+        return flowController.getQueuedSiteToSiteSessionCount();
+    }
+
+    public long getRejectedSiteToSiteSessionCount() {
+        return flowController.getRejectedSiteToSiteSessionCount();
+    }
+
     /**
      * Gets the comments of this controller.
      *
@@ -684,6 +697,104 @@ public class ControllerFacade implements Authorizable {
         return processGroupStatus;
     }
 
+    /**
+     * Gets the status for the specified process group from the given status of the flow across the cluster. The names and
+     * other details of components that the current user is not permitted to read are removed, as they are when obtaining
+     * the status of this node.
+     *
+     * @param groupId group id
+     * @param clusterStatus the status of the root process group, merged across the cluster
+     * @return the status for the specified process group, or <code>null</code> if the group is not part of the given status
+     */
+    public ProcessGroupStatus getClusterProcessGroupStatus(final String groupId, final ProcessGroupStatus clusterStatus) {
+        final ProcessGroup group = flowController.getFlowManager().getGroup(groupId);
+        if (group == null) {
+            throw new ResourceNotFoundException(String.format("Unable to locate group with id '%s'.", groupId));
+        }
+
+        final ProcessGroupStatus groupStatus = findProcessGroupStatus(clusterStatus, group.getIdentifier());
+        if (groupStatus == null) {
+            return null;
+        }
+
+        final NiFiUser user = NiFiUserUtils.getNiFiUser();
+        filterClusterProcessGroupStatus(groupStatus, authorizable -> authorizable != null && authorizable.isAuthorized(authorizer, RequestAction.READ, user));
+        return groupStatus;
+    }
+
+    private ProcessGroupStatus findProcessGroupStatus(final ProcessGroupStatus groupStatus, final String groupId) {
+        if (groupId.equals(groupStatus.getId())) {
+            return groupStatus;
+        }
+
+        for (final ProcessGroupStatus childGroupStatus : groupStatus.getProcessGroupStatus()) {
+            final ProcessGroupStatus found = findProcessGroupStatus(childGroupStatus, groupId);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    private void filterClusterProcessGroupStatus(final ProcessGroupStatus groupStatus, final Predicate<Authorizable> isAuthorized) {
+        // components that are not known to this node, such as those that are being added or removed, are treated as not readable
+        final FlowManager flowManager = flowController.getFlowManager();
+        final ProcessGroup group = flowManager.getGroup(groupStatus.getId());
+        if (!isAuthorized.test(group)) {
+            groupStatus.setName(groupStatus.getId());
+        }
+
+        for (final ProcessorStatus processorStatus : groupStatus.getProcessorStatus()) {
+            if (!isAuthorized.test(flowManager.getProcessorNode(processorStatus.getId()))) {
+                processorStatus.setName(processorStatus.getId());
+                processorStatus.setType("Processor");
+            }
+        }
+
+        for (final ConnectionStatus connectionStatus : groupStatus.getConnectionStatus()) {
+            final Connection connection = flowManager.getConnection(connectionStatus.getId());
+            if (!isAuthorized.test(connection)) {
+                connectionStatus.setName(connectionStatus.getId());
+            }
+            if (connection == null || !isAuthorized.test(connection.getSource())) {
+                connectionStatus.setSourceName(connectionStatus.getSourceId());
+            }
+            if (connection == null || !isAuthorized.test(connection.getDestination())) {
+                connectionStatus.setDestinationName(connectionStatus.getDestinationId());
+            }
+
+            // the queued durations are only included in the status of this node when reporting, not for users
+            connectionStatus.setTotalQueuedDuration(0L);
+            connectionStatus.setMaxQueuedDuration(0L);
+        }
+
+        for (final PortStatus portStatus : groupStatus.getInputPortStatus()) {
+            if (!isAuthorized.test(flowManager.getInputPort(portStatus.getId()))) {
+                portStatus.setName(portStatus.getId());
+            }
+        }
+
+        for (final PortStatus portStatus : groupStatus.getOutputPortStatus()) {
+            if (!isAuthorized.test(flowManager.getOutputPort(portStatus.getId()))) {
+                portStatus.setName(portStatus.getId());
+            }
+        }
+
+        for (final RemoteProcessGroupStatus remoteProcessGroupStatus : groupStatus.getRemoteProcessGroupStatus()) {
+            final RemoteProcessGroup remoteProcessGroup = group == null ? null : group.getRemoteProcessGroup(remoteProcessGroupStatus.getId());
+            if (!isAuthorized.test(remoteProcessGroup)) {
+                remoteProcessGroupStatus.setName(remoteProcessGroupStatus.getId());
+                remoteProcessGroupStatus.setComments(null);
+                remoteProcessGroupStatus.setTargetUri(null);
+            }
+        }
+
+        for (final ProcessGroupStatus childGroupStatus : groupStatus.getProcessGroupStatus()) {
+            filterClusterProcessGroupStatus(childGroupStatus, isAuthorized);
+        }
+    }
+
     /**
      * Gets the status for the specified processor.
      *
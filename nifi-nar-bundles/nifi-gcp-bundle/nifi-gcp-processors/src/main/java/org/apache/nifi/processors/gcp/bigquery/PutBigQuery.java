@@ -62,7 +62,6 @@ import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.processors.gcp.bigquery.proto.ProtoUtils;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 
 import java.io.IOException;
@@ -460,14 +459,14 @@ public class PutBigQuery extends AbstractBigQueryProcessor {
             // BigQuery is not case sensitive on the column names but the protobuf message
             // expect all column names to be lower case
             key = key.toLowerCase();
-            if (obj instanceof MapRecord) {
-                result.put(key, convertMapRecord(((MapRecord) obj).toMap()));
+            if (obj instanceof Record) {
+                result.put(key, convertMapRecord(((Record) obj).toMap()));
             } else if (obj instanceof Object[]
                 && ((Object[]) obj).length > 0
-                && ((Object[]) obj)[0] instanceof MapRecord) {
+                && ((Object[]) obj)[0] instanceof Record) {
                 List<Map<String, Object>> lmapr = new ArrayList<>();
                 for (Object mapr : ((Object[]) obj)) {
-                    lmapr.add(convertMapRecord(((MapRecord) mapr).toMap()));
+                    lmapr.add(convertMapRecord(((Record) mapr).toMap()));
                 }
                 result.put(key, lmapr);
             } else if (obj instanceof Timestamp) {
@@ -20,9 +20,10 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.nifi.avro.AvroTypeUtil;
 import org.apache.nifi.parquet.stream.NifiParquetInputFile;
-import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.RecordBatchReader;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.parquet.avro.AvroParquetReader;
 import org.apache.parquet.hadoop.ParquetReader;
@@ -33,7 +34,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
 
-public class ParquetRecordReader implements RecordReader {
+public class ParquetRecordReader implements RecordBatchReader {
 
     private GenericRecord lastParquetRecord;
     private RecordSchema recordSchema;
@@ -81,6 +82,18 @@ public class ParquetRecordReader implements RecordReader {
         return record;
     }
 
+    @Override
+    public int nextBatch(final RecordBatch batch) throws IOException {
+        batch.clear();
+
+        while (!batch.isFull() && lastParquetRecord != null) {
+            AvroTypeUtil.addAvroRecordToBatch(lastParquetRecord, batch);
+            lastParquetRecord = parquetReader.read();
+        }
+
+        return batch.getRowCount();
+    }
+
     @Override
     public RecordSchema getSchema() {
         return recordSchema;
@@ -17,6 +17,7 @@
 package org.apache.nifi.parquet.record;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.nifi.avro.AvroTypeUtil;
@@ -25,7 +26,10 @@ import org.apache.nifi.parquet.stream.NifiParquetOutputFile;
 import org.apache.nifi.parquet.utils.ParquetConfig;
 import org.apache.nifi.schema.access.SchemaAccessWriter;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
+import org.apache.nifi.serialization.RecordBatchWriter;
+import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.parquet.avro.AvroParquetWriter;
 import org.apache.parquet.hadoop.ParquetWriter;
@@ -38,13 +42,14 @@ import java.util.Map;
 
 import static org.apache.nifi.parquet.utils.ParquetUtils.applyCommonConfig;
 
-public class WriteParquetResult extends AbstractRecordSetWriter {
+public class WriteParquetResult extends AbstractRecordSetWriter implements RecordBatchWriter {
 
     private final Schema schema;
     private final ParquetWriter<GenericRecord> parquetWriter;
     private final ComponentLog componentLogger;
     private SchemaAccessWriter accessWriter;
     private RecordSchema recordSchema;
+    private GenericRecord batchRecord;
 
     public WriteParquetResult(final Schema avroSchema, final RecordSchema recordSchema, final SchemaAccessWriter accessWriter, final OutputStream out,
                               final ParquetConfig parquetConfig, final ComponentLog componentLogger) throws IOException {
@@ -69,6 +74,23 @@ public class WriteParquetResult extends AbstractRecordSetWriter {
         return Collections.emptyMap();
     }
 
+    @Override
+    public WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        // The Parquet Writer copies the values of each Avro Record into its column stores when it is written,
+        // so the same Avro Record can be populated for every row
+        if (batchRecord == null) {
+            batchRecord = new GenericData.Record(schema);
+        }
+
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            AvroTypeUtil.populateAvroRecord(batchRecord, batch, row);
+            parquetWriter.write(batchRecord);
+            incrementRecordCount();
+        }
+
+        return WriteResult.of(getRecordCount(), Collections.emptyMap());
+    }
+
     @Override
     protected Map<String, String> onFinishRecordSet() {
         return accessWriter.getAttributes(recordSchema);
@@ -22,18 +22,28 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.nifi.avro.AvroTypeUtil;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.controller.ConfigurationContext;
 import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.parquet.record.WriteParquetResult;
+import org.apache.nifi.parquet.utils.ParquetConfig;
 import org.apache.nifi.reporting.InitializationException;
+import org.apache.nifi.schema.access.NopSchemaAccessWriter;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.RecordBatchWriter;
 import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.RecordSetWriter;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.util.MockComponentLog;
 import org.apache.nifi.util.MockConfigurationContext;
 import org.apache.nifi.util.TestRunner;
 import org.apache.nifi.util.TestRunners;
 import org.apache.parquet.avro.AvroParquetWriter;
 import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.hadoop.util.HadoopOutputFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,17 +51,22 @@ import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 @DisabledOnOs({ OS.WINDOWS })
 public class TestParquetReader {
@@ -106,6 +121,36 @@ public class TestParquetReader {
         }
     }
 
+    @Test
+    public void testReadAndWriteInBatches() throws IOException, MalformedRecordException {
+        final Schema schema = getSchema();
+        final File parquetFile = new File("target/TestParquetReader-testReadAndWriteInBatches-" + System.currentTimeMillis());
+
+        final int numUsers = 5;
+        try (final ParquetWriter<GenericRecord> writer = createParquetWriter(schema, parquetFile)) {
+            for (int i = 0; i < numUsers; i++) {
+                final GenericRecord user = new GenericData.Record(schema);
+                user.put("name", "Bob" + i);
+                user.put("favorite_number", i % 2 == 0 ? null : i);
+                user.put("favorite_color", i % 3 == 0 ? null : "blue" + i);
+                writer.write(user);
+            }
+        }
+
+        final byte[] parquetBytes = IOUtils.toByteArray(parquetFile.toURI());
+
+        final List<Record> records = new ArrayList<>();
+        final byte[] rowOutput = readAndWrite(parquetBytes, 0, records);
+
+        // A batch size that does not divide the number of records, so that the last batch is only partially filled
+        final List<Record> batchRecords = new ArrayList<>();
+        final byte[] batchOutput = readAndWrite(parquetBytes, 2, batchRecords);
+
+        assertEquals(numUsers, records.size());
+        assertEquals(records, batchRecords);
+        assertArrayEquals(rowOutput, batchOutput);
+    }
+
     @Test
     public void testReader() throws InitializationException, IOException  {
         final TestRunner runner = TestRunners.newTestRunner(TestParquetProcessor.class);
@@ -126,6 +171,41 @@ public class TestParquetReader {
     }
 
 
+    private byte[] readAndWrite(final byte[] parquetBytes, final int batchSize, final List<Record> recordsRead) throws IOException, MalformedRecordException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParquetConfig parquetConfig = new ParquetConfig();
+        parquetConfig.setCompressionCodec(CompressionCodecName.UNCOMPRESSED);
+
+        try (final InputStream in = new ByteArrayInputStream(parquetBytes);
+             final RecordReader recordReader = parquetReaderFactory.createRecordReader(Collections.emptyMap(), in, parquetBytes.length, componentLog);
+             final RecordSetWriter recordSetWriter = new WriteParquetResult(AvroTypeUtil.extractAvroSchema(recordReader.getSchema()), recordReader.getSchema(),
+                     new NopSchemaAccessWriter(), out, parquetConfig, componentLog)) {
+
+            recordSetWriter.beginRecordSet();
+            if (batchSize > 0) {
+                final RecordBatchReader batchReader = assertInstanceOf(RecordBatchReader.class, recordReader);
+                final RecordBatchWriter batchWriter = assertInstanceOf(RecordBatchWriter.class, recordSetWriter);
+                final RecordBatch batch = new RecordBatch(recordReader.getSchema(), batchSize);
+
+                while (batchReader.nextBatch(batch) > 0) {
+                    for (int row = 0; row < batch.getRowCount(); row++) {
+                        recordsRead.add(batch.getRecord(row));
+                    }
+                    batchWriter.writeBatch(batch);
+                }
+            } else {
+                Record record;
+                while ((record = recordReader.nextRecord()) != null) {
+                    recordsRead.add(record);
+                    recordSetWriter.write(record);
+                }
+            }
+            recordSetWriter.finishRecordSet();
+        }
+
+        return out.toByteArray();
+    }
+
     private Schema getSchema() throws IOException {
         final File schemaFile = new File(SCHEMA_PATH);
         final String schemaString = IOUtils.toString(new FileInputStream(schemaFile), StandardCharsets.UTF_8);
@@ -20,14 +20,18 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.index.EventIndexType;
 import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.EventFileCompression;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
@@ -56,6 +60,8 @@ public class RepositoryConfiguration {
     private List<SearchableField> searchableFields = new ArrayList<>();
     private List<SearchableField> searchableAttributes = new ArrayList<>();
     private boolean compress = true;
+    private EventFileCompression compressionCodec = EventFileCompression.GZIP;
+    private EventIndexType eventIndexType = EventIndexType.LUCENE;
     private boolean alwaysSync = false;
     private int queryThreadPoolSize = 2;
     private int indexThreadPoolSize = 1;
@@ -226,6 +232,34 @@ public class RepositoryConfiguration {
         this.compress = compress;
     }
 
+    /**
+     * @return the codec that is used to compress event files when they are rolled over
+     */
+    public EventFileCompression getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    /**
+     * @param compressionCodec the codec to use to compress event files when they are rolled over
+     */
+    public void setCompressionCodec(final EventFileCompression compressionCodec) {
+        this.compressionCodec = Objects.requireNonNull(compressionCodec);
+    }
+
+    /**
+     * @return the implementation of the index that is used to search events
+     */
+    public EventIndexType getEventIndexType() {
+        return eventIndexType;
+    }
+
+    /**
+     * @param eventIndexType the implementation of the index to use to search events
+     */
+    public void setEventIndexType(final EventIndexType eventIndexType) {
+        this.eventIndexType = Objects.requireNonNull(eventIndexType);
+    }
+
     /**
      * @return the number of threads to use to query the repo
      */
@@ -402,6 +436,8 @@ public class RepositoryConfiguration {
         final long rolloverBytes = DataUnit.parseDataSize(rolloverSize, DataUnit.B).longValue();
 
         final boolean compressOnRollover = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESS_ON_ROLLOVER));
+        final String compressionCodecName = nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESSION_CODEC, EventFileCompression.GZIP.name());
+        final String eventIndexTypeName = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEX_IMPLEMENTATION, EventIndexType.LUCENE.name());
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
 
@@ -422,6 +458,24 @@ public class RepositoryConfiguration {
             maxAttrChars = defaultMaxAttrChars;
         }
 
+        EventFileCompression compressionCodec;
+        try {
+            compressionCodec = EventFileCompression.valueOf(compressionCodecName.trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            compressionCodec = EventFileCompression.GZIP;
+            logger.warn("Found compression codec property set to " + compressionCodecName + " but valid values are " + Arrays.toString(EventFileCompression.values())
+                + "; using " + compressionCodec + " instead");
+        }
+
+        EventIndexType eventIndexType;
+        try {
+            eventIndexType = EventIndexType.valueOf(eventIndexTypeName.trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            eventIndexType = EventIndexType.LUCENE;
+            logger.warn("Found index implementation property set to " + eventIndexTypeName + " but valid values are " + Arrays.toString(EventIndexType.values())
+                + "; using " + eventIndexType + " instead");
+        }
+
         final List<SearchableField> searchableFields = SearchableFieldParser.extractSearchableFields(indexedFieldString, true);
         final List<SearchableField> searchableAttributes = SearchableFieldParser.extractSearchableFields(indexedAttrString, false);
 
@@ -435,6 +489,8 @@ public class RepositoryConfiguration {
             config.addStorageDirectory(entry.getKey(), entry.getValue().toFile());
         }
         config.setCompressOnRollover(compressOnRollover);
+        config.setCompressionCodec(compressionCodec);
+        config.setEventIndexType(eventIndexType);
         config.setSearchableFields(searchableFields);
         config.setSearchableAttributes(searchableAttributes);
         config.setMaxEventFileCapacity(rolloverBytes);
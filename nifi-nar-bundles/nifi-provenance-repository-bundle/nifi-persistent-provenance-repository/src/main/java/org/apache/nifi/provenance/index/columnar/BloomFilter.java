@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+/**
+ * <p>
+ * A Bloom Filter over String values, which allows an {@link IndexSegment} to be skipped entirely when searching for a FlowFile UUID or
+ * filename that it does not contain. Each value is hashed to {@link #HASH_COUNT} bits using double hashing.
+ * </p>
+ *
+ * <p>
+ * Bits are only ever set, never cleared. A value that is added before a row is published to readers is therefore visible to any reader
+ * that can see the row, which allows the filter of the active segment to be read without locking.
+ * </p>
+ */
+final class BloomFilter {
+    static final int HASH_COUNT = 5;
+    static final int BITS_PER_VALUE = 8;
+
+    private final long[] bits;
+    private final int bitCount;
+
+    BloomFilter(final int expectedValues) {
+        this(new long[Math.max(16, (int) (((long) expectedValues * BITS_PER_VALUE + 63) / 64))]);
+    }
+
+    BloomFilter(final long[] bits) {
+        this.bits = bits;
+        this.bitCount = bits.length * 64;
+    }
+
+    void add(final String value) {
+        final int hash1 = value.hashCode();
+        final int hash2 = mix(hash1);
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final int bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param value the value to check
+     * @return <code>false</code> if the value has definitely not been added to the filter, <code>true</code> if it may have been added
+     */
+    boolean mightContain(final String value) {
+        final int hash1 = value.hashCode();
+        final int hash2 = mix(hash1);
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final int bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    long[] getBits() {
+        return bits;
+    }
+
+    private static int mix(final int hash) {
+        // Finalization step of MurmurHash3, which gives a second hash that is independent enough of String.hashCode()
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+}
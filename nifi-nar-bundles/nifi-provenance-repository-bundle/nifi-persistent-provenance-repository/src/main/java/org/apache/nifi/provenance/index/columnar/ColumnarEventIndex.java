@@ -0,0 +1,763 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.authorization.AccessDeniedException;
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.StandardLineageResult;
+import org.apache.nifi.provenance.StandardQueryResult;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.lucene.CachedQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsPerProcessorQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsQuery;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
+import org.apache.nifi.reporting.Severity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An {@link EventIndex} that stores the most commonly searched fields of each event in compact, columnar segments rather than in Lucene
+ * documents. Events are appended directly to an in-memory {@link SegmentBuilder} for their partition by the thread that registers them, which
+ * is considerably less expensive than building and analyzing a Lucene document, so no background indexing threads are required and events are
+ * searchable as soon as they are added.
+ * </p>
+ *
+ * <p>
+ * When a segment becomes full, or when it has been accepting events for {@link #MAX_SEGMENT_AGE_MILLIS}, it is sealed and written to the
+ * <code>columnar-index</code> directory of its partition in the background. Each segment records the range of event times and IDs that it
+ * contains, which event types it contains, a dictionary of its Component IDs, and a Bloom Filter of its FlowFile UUIDs and filenames, so most
+ * segments can be skipped by a query without reading their columns. Segments are deleted once all of their events have aged off.
+ * </p>
+ *
+ * <p>
+ * This index does not offer full-text search. Terms on fields other than Component ID, FlowFile UUID, Event Type, Filename, and Details are
+ * supported, but they are evaluated by reading the candidate events from the Event Store, which is considerably slower than searching a Lucene index.
+ * </p>
+ */
+public class ColumnarEventIndex implements EventIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEventIndex.class);
+    private static final String EVENT_CATEGORY = "Provenance Repository";
+
+    static final String INDEX_DIRECTORY_NAME = "columnar-index";
+    public static final int DEFAULT_MAX_EVENTS_PER_SEGMENT = 65_536;
+    public static final long MAX_SEGMENT_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final int MAX_UNDELETED_QUERY_RESULTS = 10;
+    public static final int MAX_LINEAGE_NODES = 1000;
+    public static final int MAX_LINEAGE_UUIDS = 100;
+
+    private static final Comparator<IndexSegment> NEWEST_SEGMENT_FIRST = Comparator.comparingLong(IndexSegment::getMaxEventId).reversed();
+
+    private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final RepositoryConfiguration config;
+    private final EventReporter eventReporter;
+    private final int maxEventsPerSegment;
+    private final ExecutorService queryExecutor;
+    private final ExecutorService persistExecutor;
+
+    private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private LatestEventsPerProcessorQuery latestEventsPerProcessorQuery; // effectively final
+
+    private ScheduledExecutorService maintenanceExecutor; // effectively final
+    private EventStore eventStore;
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final EventReporter eventReporter) {
+        this(config, DEFAULT_MAX_EVENTS_PER_SEGMENT, eventReporter);
+    }
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final int maxEventsPerSegment, final EventReporter eventReporter) {
+        this.config = config;
+        this.eventReporter = eventReporter;
+        this.maxEventsPerSegment = maxEventsPerSegment;
+
+        queryExecutor = Executors.newFixedThreadPool(config.getQueryThreadPoolSize(), new NamedThreadFactory("Provenance Query"));
+        persistExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("Persist Provenance Index Segments"));
+    }
+
+    @Override
+    public void initialize(final EventStore eventStore) {
+        this.eventStore = eventStore;
+
+        for (final Map.Entry<String, File> entry : config.getStorageDirectories().entrySet()) {
+            final Partition partition = new Partition(entry.getKey(), new File(entry.getValue(), INDEX_DIRECTORY_NAME));
+            partition.recover();
+            partitions.put(entry.getKey(), partition);
+        }
+
+        maintenanceExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Provenance Repository Maintenance"));
+        maintenanceExecutor.scheduleWithFixedDelay(this::performMaintenance, 1, 1, TimeUnit.MINUTES);
+        maintenanceExecutor.scheduleWithFixedDelay(this::purgeObsoleteQueries, 30, 30, TimeUnit.SECONDS);
+        maintenanceExecutor.scheduleWithFixedDelay(this::sealExpiredSegments, 10, 10, TimeUnit.SECONDS);
+
+        cachedQueries.add(new LatestEventsQuery());
+        latestEventsPerProcessorQuery = new LatestEventsPerProcessorQuery();
+        cachedQueries.add(latestEventsPerProcessorQuery);
+    }
+
+    @Override
+    public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            addEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    protected void addEvent(final ProvenanceEventRecord event, final StorageSummary location) {
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            cachedQuery.update(event, location);
+        }
+
+        final String partitionName = location.getPartitionName().orElse(null);
+        getPartition(partitionName).add(event, location.getEventId());
+    }
+
+    private Partition getPartition(final String partitionName) {
+        return partitions.computeIfAbsent(String.valueOf(partitionName), name -> {
+            logger.warn("Received Provenance Event for unknown partition {}; its index segments will be held in memory and not persisted", name);
+            return new Partition(name, null);
+        });
+    }
+
+    @Override
+    public boolean isReindexNecessary() {
+        return true;
+    }
+
+    @Override
+    public void reindexEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        addEvents(events);
+    }
+
+    @Override
+    public long getMinimumEventIdToReindex(final String partitionName) {
+        // Events in segments that had not been persisted when NiFi was stopped must be indexed again
+        final Partition partition = partitions.get(partitionName);
+        return partition == null ? 0L : partition.getMaxPersistedEventId() + 1;
+    }
+
+    @Override
+    public void commitChanges(final String partitionName) throws IOException {
+        final Partition partition = partitions.get(partitionName);
+        if (partition == null) {
+            return;
+        }
+
+        final Future<?> future = partition.seal();
+        if (future == null) {
+            return;
+        }
+
+        try {
+            future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Provenance Index Segment to be persisted", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Failed to persist Provenance Index Segment for partition " + partitionName, e.getCause());
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long total = 0L;
+        for (final Partition partition : partitions.values()) {
+            for (final IndexSegment segment : partition.getSealedSegments()) {
+                total += segment.getSize();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
+        validate(query);
+
+        // Check if we have any cached queries first that can give us the answer
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            final Optional<List<Long>> eventIdListOption = cachedQuery.evaluate(query);
+            if (eventIdListOption.isPresent()) {
+                final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, 1, userId);
+                querySubmissionMap.put(query.getIdentifier(), submission);
+
+                final List<Long> eventIds = eventIdListOption.get();
+                logger.debug("Cached Query {} produced {} Event IDs for {}: {}", cachedQuery, eventIds.size(), query, eventIds);
+
+                queryExecutor.submit(() -> {
+                    try {
+                        final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, EventTransformer.EMPTY_TRANSFORMER);
+                        submission.getResult().update(events, eventIds.size());
+                    } catch (final Exception e) {
+                        submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
+                        logger.error("Failed to retrieve Provenance Events from store", e);
+                    }
+                });
+
+                awaitQuickCompletion(submission.getResult()::awaitCompletion);
+                return submission;
+            }
+        }
+
+        final ColumnarQuery columnarQuery = ColumnarQuery.fromQuery(query);
+        final List<IndexSegment> segments = getSegments(columnarQuery);
+        segments.sort(NEWEST_SEGMENT_FIRST);
+
+        final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, segments.size(), userId);
+        querySubmissionMap.put(query.getIdentifier(), submission);
+        logger.debug("Submitting query {} with identifier {} against {} index segments", columnarQuery, query.getIdentifier(), segments.size());
+
+        if (segments.isEmpty()) {
+            submission.getResult().update(Collections.emptyList(), 0L);
+        } else {
+            for (final IndexSegment segment : segments) {
+                queryExecutor.submit(new SegmentQueryTask(columnarQuery, segment, submission.getResult(), query.getMaxResults(),
+                    eventStore, authorizer, EventTransformer.EMPTY_TRANSFORMER));
+            }
+        }
+
+        awaitQuickCompletion(submission.getResult()::awaitCompletion);
+        return submission;
+    }
+
+    /**
+     * @return all segments, including the active segment of each partition, that might contain events that match the given query
+     */
+    private List<IndexSegment> getSegments(final ColumnarQuery query) {
+        final List<IndexSegment> segments = new ArrayList<>();
+        for (final Partition partition : partitions.values()) {
+            for (final IndexSegment segment : partition.getSegments()) {
+                if (query.mightMatch(segment)) {
+                    segments.add(segment);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private void awaitQuickCompletion(final CompletionAwaiter awaiter) {
+        // Some computations will complete very quickly. In this case, we don't want to wait for the client to submit a second
+        // request to obtain the result. Instead, we want to just wait some short period of time for the computation to complete.
+        try {
+            awaiter.awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface CompletionAwaiter {
+        boolean awaitCompletion(long time, TimeUnit unit) throws InterruptedException;
+    }
+
+    @Override
+    public Optional<ProvenanceEventRecord> getLatestCachedEvent(final String componentId) throws IOException {
+        final List<Long> eventIds = latestEventsPerProcessorQuery.getLatestEventIds(componentId);
+        if (eventIds.isEmpty()) {
+            logger.info("There are no recent Provenance Events cached for Component with ID {}", componentId);
+            return Optional.empty();
+        }
+
+        final Long latestEventId = eventIds.get(eventIds.size() - 1);
+        final Optional<ProvenanceEventRecord> latestEvent = eventStore.getEvent(latestEventId);
+        if (latestEvent.isPresent()) {
+            logger.info("Returning {} as the most recent Provenance Events cached for Component with ID {}", latestEvent.get(), componentId);
+        } else {
+            logger.info("There are no recent Provenance Events cached for Component with ID {}", componentId);
+        }
+
+        return latestEvent;
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final long eventId, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        final Optional<ProvenanceEventRecord> eventOption;
+        try {
+            eventOption = eventStore.getEvent(eventId);
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Event with ID {} to calculate data lineage", eventId, e);
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, getIdentity(user));
+            result.getResult().setError("Failed to retrieve Provenance Event with ID " + eventId + ". See logs for more information.");
+            return result;
+        }
+
+        if (!eventOption.isPresent()) {
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, getIdentity(user));
+            result.getResult().setError("Could not find Provenance Event with ID " + eventId);
+            lineageSubmissionMap.put(result.getLineageIdentifier(), result);
+            return result;
+        }
+
+        final ProvenanceEventRecord event = eventOption.get();
+        return submitLineageComputation(Collections.singleton(event.getFlowFileUuid()), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE,
+            eventId, event.getLineageStartDate(), Long.MAX_VALUE);
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final String flowFileUuid, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        return submitLineageComputation(Collections.singleton(flowFileUuid), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE, null, 0L, Long.MAX_VALUE);
+    }
+
+    private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
+        final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+
+        if (flowFileUuids.size() > MAX_LINEAGE_UUIDS) {
+            throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
+        }
+
+        final ColumnarQuery lineageQuery = ColumnarQuery.forLineage(flowFileUuids, startTimestamp, endTimestamp);
+        final List<IndexSegment> segments = getSegments(lineageQuery);
+        segments.sort(NEWEST_SEGMENT_FIRST.reversed());
+
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, segments.size(), getIdentity(user));
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+
+        if (segments.isEmpty()) {
+            submission.getResult().update(Collections.emptyList(), 0L);
+        } else {
+            for (final IndexSegment segment : segments) {
+                queryExecutor.submit(new SegmentQueryTask(lineageQuery, segment, submission.getResult(), MAX_LINEAGE_NODES,
+                    eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+            }
+        }
+
+        awaitQuickCompletion(submission.getResult()::awaitCompletion);
+        return submission;
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandChildren(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        return submitExpansion(eventId, user, authorizer, LineageComputationType.EXPAND_CHILDREN);
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandParents(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        return submitExpansion(eventId, user, authorizer, LineageComputationType.EXPAND_PARENTS);
+    }
+
+    private ComputeLineageSubmission submitExpansion(final long eventId, final NiFiUser user, final EventAuthorizer authorizer, final LineageComputationType computationType) {
+        final String userId = getIdentity(user);
+        final boolean expandChildren = computationType == LineageComputationType.EXPAND_CHILDREN;
+
+        try {
+            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
+            if (!eventOption.isPresent()) {
+                final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+                lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                submission.getResult().update(Collections.emptyList(), 0L);
+                return submission;
+            }
+
+            final ProvenanceEventRecord event = eventOption.get();
+            switch (event.getEventType()) {
+                case CLONE:
+                case FORK:
+                case JOIN:
+                case REPLAY: {
+                    if (expandChildren) {
+                        return submitLineageComputation(event.getChildUuids(), user, authorizer, computationType, eventId, event.getEventTime(), Long.MAX_VALUE);
+                    }
+                    return submitLineageComputation(event.getParentUuids(), user, authorizer, computationType, eventId, event.getLineageStartDate(), event.getEventTime());
+                }
+                default: {
+                    final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+                    lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its "
+                        + (expandChildren ? "children" : "parents") + " cannot be expanded");
+                    return submission;
+                }
+            }
+        } catch (final Exception e) {
+            final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, Collections.emptyList(), 1, userId);
+            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+            submission.getResult().setError("Failed to expand " + (expandChildren ? "children" : "parents") + " for lineage of event with ID " + eventId + " due to: " + e);
+            return submission;
+        }
+    }
+
+    private static String getIdentity(final NiFiUser user) {
+        return user == null ? null : user.getIdentity();
+    }
+
+    @Override
+    public AsyncLineageSubmission retrieveLineageSubmission(final String lineageIdentifier, final NiFiUser user) {
+        final AsyncLineageSubmission submission = lineageSubmissionMap.get(lineageIdentifier);
+        final String userId = submission.getSubmitterIdentity();
+
+        if (user == null && userId == null) {
+            return submission;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because no user id was provided");
+        }
+
+        if (userId == null || userId.equals(user.getIdentity())) {
+            return submission;
+        }
+
+        throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because " + user.getIdentity() + " is not the user who submitted the request");
+    }
+
+    @Override
+    public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
+        final QuerySubmission submission = querySubmissionMap.get(queryIdentifier);
+        final String userId = submission.getSubmitterIdentity();
+
+        if (user == null && userId == null) {
+            return submission;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because no user id was provided");
+        }
+
+        if (userId == null || userId.equals(user.getIdentity())) {
+            return submission;
+        }
+
+        throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because " + user.getIdentity() + " is not the user who submitted the request");
+    }
+
+    private void validate(final Query query) {
+        final int numQueries = querySubmissionMap.size();
+        if (numQueries > MAX_UNDELETED_QUERY_RESULTS) {
+            purgeObsoleteQueries();
+            if (querySubmissionMap.size() > MAX_UNDELETED_QUERY_RESULTS) {
+                throw new IllegalStateException("Cannot process query because there are currently " + numQueries + " queries whose results have not "
+                    + "been deleted due to poorly behaving clients not issuing DELETE requests. Please try again later.");
+            }
+        }
+
+        if (query.getEndDate() != null && query.getStartDate() != null && query.getStartDate().getTime() > query.getEndDate().getTime()) {
+            throw new IllegalArgumentException("Query End Time cannot be before Query Start Time");
+        }
+    }
+
+    List<IndexSegment> getSealedSegments(final String partitionName) {
+        final Partition partition = partitions.get(partitionName);
+        return partition == null ? Collections.emptyList() : partition.getSealedSegments();
+    }
+
+    void sealExpiredSegments() {
+        final long now = System.currentTimeMillis();
+        for (final Partition partition : partitions.values()) {
+            partition.sealIfOlderThan(now - MAX_SEGMENT_AGE_MILLIS);
+        }
+    }
+
+    void performMaintenance() {
+        // Retry any segments that previously failed to be persisted
+        for (final Partition partition : partitions.values()) {
+            partition.persistRemaining();
+        }
+
+        try {
+            final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
+
+            // If there are no events in the store, all sealed segments have aged off
+            final long firstEventId = firstEvents.isEmpty() ? Long.MAX_VALUE : firstEvents.get(0).getEventId();
+            logger.debug("First Event ID is {}; will delete any Provenance Index Segment whose events are all older than this", firstEventId);
+
+            for (final Partition partition : partitions.values()) {
+                partition.removeSegmentsBefore(firstEventId);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to perform background maintenance procedures", e);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to perform maintenance of Provenance Repository. See logs for more information.");
+        }
+    }
+
+    private void purgeObsoleteQueries() {
+        try {
+            final Date now = new Date();
+
+            final Iterator<Map.Entry<String, AsyncQuerySubmission>> queryIterator = querySubmissionMap.entrySet().iterator();
+            while (queryIterator.hasNext()) {
+                final Map.Entry<String, AsyncQuerySubmission> entry = queryIterator.next();
+
+                final StandardQueryResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    queryIterator.remove();
+                }
+            }
+
+            final Iterator<Map.Entry<String, AsyncLineageSubmission>> lineageIterator = lineageSubmissionMap.entrySet().iterator();
+            while (lineageIterator.hasNext()) {
+                final Map.Entry<String, AsyncLineageSubmission> entry = lineageIterator.next();
+
+                final StandardLineageResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    lineageIterator.remove();
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to expire Provenance Query Results", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        queryExecutor.shutdownNow();
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+        }
+
+        // Persist the active segments so that their events do not need to be indexed again on restart
+        for (final Partition partition : partitions.values()) {
+            partition.seal();
+        }
+
+        persistExecutor.shutdown();
+        try {
+            if (!persistExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Timed out waiting for Provenance Index Segments to be persisted; the events in those segments will be indexed again on restart");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The segments that index the events of a single partition
+     */
+    private class Partition {
+        private final String name;
+        private final File directory;
+        private final List<IndexSegment> sealedSegments = new CopyOnWriteArrayList<>();
+        private SegmentBuilder activeSegment;
+        private final Queue<SegmentBuilder> unpersistedSegments = new ArrayDeque<>(); // guarded by synchronizing on this
+        private volatile long maxPersistedEventId = -1L;
+
+        Partition(final String name, final File directory) {
+            this.name = name;
+            this.directory = directory;
+            this.activeSegment = new SegmentBuilder(name, maxEventsPerSegment);
+        }
+
+        void recover() {
+            try {
+                Files.createDirectories(directory.toPath());
+            } catch (final IOException e) {
+                logger.error("Failed to create Provenance Index directory {}", directory, e);
+                return;
+            }
+
+            final File[] files = directory.listFiles();
+            if (files == null) {
+                return;
+            }
+
+            final List<IndexSegment> recovered = new ArrayList<>();
+            for (final File file : files) {
+                if (!file.getName().endsWith(SegmentFile.FILE_EXTENSION)) {
+                    // A temporary file that was being written when NiFi was stopped. Its events will be indexed again.
+                    deleteFile(file);
+                    continue;
+                }
+
+                try {
+                    final SegmentFile segment = SegmentFile.open(file, name);
+                    recovered.add(segment);
+                    maxPersistedEventId = Math.max(maxPersistedEventId, segment.getMaxEventId());
+                } catch (final IOException e) {
+                    logger.warn("Provenance Index Segment {} could not be read and will be deleted; its events will be indexed again", file, e);
+                    deleteFile(file);
+                }
+            }
+
+            recovered.sort(NEWEST_SEGMENT_FIRST.reversed());
+            sealedSegments.addAll(recovered);
+            logger.info("Recovered {} Provenance Index Segments for partition {}; maximum indexed Event ID is {}", recovered.size(), name, maxPersistedEventId);
+        }
+
+        synchronized void add(final ProvenanceEventRecord event, final long eventId) {
+            if (!activeSegment.add(event, eventId)) {
+                seal();
+                activeSegment.add(event, eventId);
+            }
+        }
+
+        /**
+         * Replaces the active segment with an empty one and persists the active segment in the background
+         *
+         * @return a Future that completes when the segment has been persisted, or <code>null</code> if the active segment is empty
+         */
+        synchronized Future<?> seal() {
+            final SegmentBuilder segment = activeSegment;
+            if (segment.getEventCount() == 0) {
+                return null;
+            }
+
+            sealedSegments.add(segment);
+            activeSegment = new SegmentBuilder(name, maxEventsPerSegment);
+
+            if (directory == null) {
+                return null;
+            }
+
+            unpersistedSegments.add(segment);
+            return persistRemaining();
+        }
+
+        /**
+         * Persists, in the background, any sealed segments that have not yet been persisted
+         *
+         * @return a Future that completes when the segments have been persisted or one of them has failed, or <code>null</code> if there is nothing to persist
+         */
+        synchronized Future<?> persistRemaining() {
+            if (unpersistedSegments.isEmpty() || persistExecutor.isShutdown()) {
+                return null;
+            }
+
+            return persistExecutor.submit(this::persistSegments);
+        }
+
+        /**
+         * Persists the unpersisted segments in the order in which they were sealed. If a segment cannot be persisted, the segments that were sealed
+         * after it are not persisted either, so that the persisted segments always cover a contiguous range of this partition's events and the maximum
+         * persisted Event ID is the point from which events must be indexed again on restart. The remaining segments are persisted the next time that
+         * a segment is sealed or that maintenance is performed.
+         */
+        private void persistSegments() {
+            while (true) {
+                final SegmentBuilder segment;
+                synchronized (this) {
+                    segment = unpersistedSegments.peek();
+                }
+
+                if (segment == null || !persist(segment)) {
+                    return;
+                }
+
+                synchronized (this) {
+                    unpersistedSegments.remove(segment);
+                }
+            }
+        }
+
+        synchronized void sealIfOlderThan(final long timestamp) {
+            if (activeSegment.getEventCount() > 0 && activeSegment.getCreationTime() < timestamp) {
+                seal();
+            }
+        }
+
+        private boolean persist(final SegmentBuilder segment) {
+            final long start = System.nanoTime();
+            try {
+                final SegmentFile segmentFile = SegmentFile.write(segment, directory);
+
+                final int index = sealedSegments.indexOf(segment);
+                if (index < 0) {
+                    // The segment aged off while it was being written
+                    deleteFile(segmentFile.getFile());
+                } else {
+                    sealedSegments.set(index, segmentFile);
+                }
+
+                maxPersistedEventId = Math.max(maxPersistedEventId, segment.getMaxEventId());
+
+                final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                logger.debug("Persisted Provenance Index Segment with {} events to {} in {} millis", segment.getEventCount(), segmentFile.getFile(), millis);
+                return true;
+            } catch (final Exception e) {
+                // Leave the segment in memory so that its events remain searchable. Persisting it will be retried, and until it succeeds,
+                // its events will be indexed again on restart.
+                logger.error("Failed to persist Provenance Index Segment for partition {}", name, e);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to persist Provenance Index Segment for partition " + name
+                    + ". See logs for more information.");
+                return false;
+            }
+        }
+
+        void removeSegmentsBefore(final long firstEventId) {
+            for (final IndexSegment segment : sealedSegments) {
+                if (segment.getMaxEventId() < firstEventId) {
+                    sealedSegments.remove(segment);
+
+                    if (segment instanceof SegmentFile) {
+                        deleteFile(((SegmentFile) segment).getFile());
+                    } else {
+                        // All of the segment's events have aged off, so there is no longer any need to persist it
+                        synchronized (this) {
+                            unpersistedSegments.remove(segment);
+                        }
+                    }
+                    logger.debug("Removed expired Provenance Index Segment {}", segment);
+                }
+            }
+        }
+
+        long getMaxPersistedEventId() {
+            return maxPersistedEventId;
+        }
+
+        List<IndexSegment> getSealedSegments() {
+            return sealedSegments;
+        }
+
+        synchronized List<IndexSegment> getSegments() {
+            final List<IndexSegment> segments = new ArrayList<>(sealedSegments);
+            segments.add(activeSegment);
+            return segments;
+        }
+
+        private void deleteFile(final File file) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (final IOException e) {
+                logger.warn("Failed to delete Provenance Index file {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * A Provenance {@link Query} or lineage computation, prepared for evaluation against {@link IndexSegment}s. Values are compared in the
+ * same way as a Lucene index compares them: case-insensitively, against the entire value, with <code>*</code> and <code>?</code> treated as wildcards.
+ * </p>
+ *
+ * <p>
+ * Terms on the Component ID, FlowFile UUID, Event Type, Filename, and Details fields, as well as bounds on the event time and file size, are
+ * evaluated against the columns of each segment. Terms on any other field cannot be answered by the index, so the events that match the
+ * indexed terms must be retrieved from the Event Store and verified using {@link #matchesUnindexedTerms(ProvenanceEventRecord)}.
+ * </p>
+ */
+final class ColumnarQuery {
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final long minFileSize;
+    private final long maxFileSize;
+    private final List<Term> indexedTerms;
+    private final List<Term> unindexedTerms;
+    private final Set<String> lineageUuids;
+
+    private ColumnarQuery(final long minEventTime, final long maxEventTime, final long minFileSize, final long maxFileSize,
+                          final List<Term> terms, final Set<String> lineageUuids) {
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.minFileSize = minFileSize;
+        this.maxFileSize = maxFileSize;
+        this.lineageUuids = lineageUuids;
+
+        final List<Term> indexed = new ArrayList<>();
+        final List<Term> unindexed = new ArrayList<>();
+        for (final Term term : terms) {
+            if (term.column == null) {
+                unindexed.add(term);
+            } else {
+                indexed.add(term);
+            }
+        }
+        this.indexedTerms = indexed;
+        this.unindexedTerms = unindexed;
+    }
+
+    static ColumnarQuery fromQuery(final Query query) {
+        final List<Term> terms = new ArrayList<>();
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String searchValue = searchTerm.getValue();
+            if (searchValue == null) {
+                throw new IllegalArgumentException("Empty search value not allowed (for term '" + searchTerm.getSearchableField().getFriendlyName() + "')");
+            }
+
+            terms.add(new Term(searchTerm.getSearchableField(), searchValue, Boolean.TRUE.equals(searchTerm.isInverted())));
+        }
+
+        final long minFileSize = query.getMinFileSize() == null ? 0L : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+        final long maxFileSize = query.getMaxFileSize() == null ? Long.MAX_VALUE : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+        final long minEventTime = query.getStartDate() == null ? 0L : query.getStartDate().getTime();
+        final long maxEventTime = query.getEndDate() == null ? Long.MAX_VALUE : query.getEndDate().getTime();
+
+        return new ColumnarQuery(minEventTime, maxEventTime, minFileSize, maxFileSize, terms, null);
+    }
+
+    /**
+     * Creates a query for all events that pertain to any of the given FlowFiles, including events whose parents, children, or source refer to them
+     */
+    static ColumnarQuery forLineage(final Collection<String> flowFileUuids, final long minEventTime, final long maxEventTime) {
+        final Set<String> uuids = new HashSet<>();
+        for (final String uuid : flowFileUuids) {
+            uuids.add(uuid.toLowerCase());
+        }
+
+        return new ColumnarQuery(minEventTime, maxEventTime, 0L, Long.MAX_VALUE, Collections.emptyList(), uuids);
+    }
+
+    /**
+     * @return <code>true</code> if the query has terms that the index cannot evaluate, so that events must be verified after they are retrieved
+     */
+    boolean isVerificationRequired() {
+        return !unindexedTerms.isEmpty();
+    }
+
+    boolean matchesUnindexedTerms(final ProvenanceEventRecord event) {
+        for (final Term term : unindexedTerms) {
+            final String value = getFieldValue(event, term.field);
+            if (term.matches(value == null ? null : value.toLowerCase()) == term.inverted) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines, using only the summary of the given segment, whether or not any event in the segment could match the query
+     */
+    boolean mightMatch(final IndexSegment segment) {
+        if (segment.getEventCount() == 0 || segment.getMaxEventTime() < minEventTime || segment.getMinEventTime() > maxEventTime) {
+            return false;
+        }
+
+        for (final Term term : indexedTerms) {
+            if (term.column == SegmentColumn.EVENT_TYPE && !term.inverted) {
+                long matchingTypes = 0L;
+                for (final ProvenanceEventType eventType : ProvenanceEventType.values()) {
+                    if (term.matches(eventType.name().toLowerCase())) {
+                        matchingTypes |= 1L << eventType.ordinal();
+                    }
+                }
+
+                if ((segment.getEventTypeMask() & matchingTypes) == 0) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the events in the given segment that match the indexed terms of the query
+     *
+     * @param reader the reader for the segment to search
+     * @return the IDs of the matching events, most recently indexed first
+     * @throws IOException if unable to read the segment
+     */
+    long[] search(final SegmentReader reader) throws IOException {
+        final int eventCount = reader.getEventCount();
+        if (eventCount == 0 || !mightContainValues(reader)) {
+            return new long[0];
+        }
+
+        final List<IntPredicate> predicates = new ArrayList<>();
+        if (minEventTime > 0L || maxEventTime < Long.MAX_VALUE) {
+            final long[] eventTimes = reader.getLongs(SegmentColumn.EVENT_TIME);
+            predicates.add(row -> eventTimes[row] >= minEventTime && eventTimes[row] <= maxEventTime);
+        }
+        if (minFileSize > 0L || maxFileSize < Long.MAX_VALUE) {
+            final long[] fileSizes = reader.getLongs(SegmentColumn.FILE_SIZE);
+            predicates.add(row -> fileSizes[row] >= minFileSize && fileSizes[row] <= maxFileSize);
+        }
+        for (final Term term : indexedTerms) {
+            predicates.add(bind(term, reader));
+        }
+        if (lineageUuids != null) {
+            final SegmentReader.StringColumn flowFileUuids = reader.getStrings(SegmentColumn.FLOWFILE_UUID);
+            final SegmentReader.StringColumn linkedUuids = reader.getStrings(SegmentColumn.LINKED_UUIDS);
+            predicates.add(row -> anyUuidMatches(flowFileUuids.get(row), linkedUuids.get(row), lineageUuids::contains));
+        }
+
+        final long[] eventIds = reader.getLongs(SegmentColumn.EVENT_ID);
+        final IntPredicate[] predicateArray = predicates.toArray(new IntPredicate[0]);
+        long[] matches = new long[16];
+        int matchCount = 0;
+
+        rows: for (int row = eventCount - 1; row >= 0; row--) {
+            for (final IntPredicate predicate : predicateArray) {
+                if (!predicate.test(row)) {
+                    continue rows;
+                }
+            }
+
+            if (matchCount == matches.length) {
+                final long[] expanded = new long[matches.length * 2];
+                System.arraycopy(matches, 0, expanded, 0, matchCount);
+                matches = expanded;
+            }
+            matches[matchCount++] = eventIds[row];
+        }
+
+        if (matchCount == matches.length) {
+            return matches;
+        }
+
+        final long[] trimmed = new long[matchCount];
+        System.arraycopy(matches, 0, trimmed, 0, matchCount);
+        return trimmed;
+    }
+
+    /**
+     * Uses the segment's dictionary of Component IDs and its Bloom Filter to determine whether or not the segment could contain the values that the query requires
+     */
+    private boolean mightContainValues(final SegmentReader reader) throws IOException {
+        for (final Term term : indexedTerms) {
+            if (term.column == SegmentColumn.COMPONENT_ID && !term.inverted && reader.getComponentIds().stream().noneMatch(id -> term.matches(id.toLowerCase()))) {
+                return false;
+            }
+        }
+
+        return mightContainBloomValues(reader);
+    }
+
+    private boolean mightContainBloomValues(final SegmentReader reader) throws IOException {
+        BloomFilter bloomFilter = null;
+        for (final Term term : indexedTerms) {
+            if (term.pattern != null || term.inverted || (term.column != SegmentColumn.FLOWFILE_UUID && term.column != SegmentColumn.FILENAME)) {
+                continue;
+            }
+
+            if (bloomFilter == null) {
+                bloomFilter = reader.getBloomFilter();
+            }
+            if (!bloomFilter.mightContain(term.value)) {
+                return false;
+            }
+        }
+
+        if (lineageUuids != null) {
+            if (bloomFilter == null) {
+                bloomFilter = reader.getBloomFilter();
+            }
+            for (final String uuid : lineageUuids) {
+                if (bloomFilter.mightContain(uuid)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    private IntPredicate bind(final Term term, final SegmentReader reader) throws IOException {
+        final boolean inverted = term.inverted;
+
+        switch (term.column) {
+            case COMPONENT_ID: {
+                // Evaluate the term once per distinct Component ID rather than once per event
+                final List<String> componentIds = reader.getComponentIds();
+                final boolean[] componentMatches = new boolean[componentIds.size()];
+                for (int i = 0; i < componentMatches.length; i++) {
+                    componentMatches[i] = term.matches(componentIds.get(i).toLowerCase());
+                }
+
+                final int[] componentIndexes = reader.getComponentIndexes();
+                return row -> {
+                    final int componentIndex = componentIndexes[row];
+                    final boolean matches = componentIndex != SegmentBuilder.NO_COMPONENT && componentMatches[componentIndex];
+                    return matches != inverted;
+                };
+            }
+            case EVENT_TYPE: {
+                final ProvenanceEventType[] eventTypes = ProvenanceEventType.values();
+                final boolean[] typeMatches = new boolean[eventTypes.length];
+                for (final ProvenanceEventType eventType : eventTypes) {
+                    typeMatches[eventType.ordinal()] = term.matches(eventType.name().toLowerCase());
+                }
+
+                final byte[] eventTypeOrdinals = reader.getEventTypes();
+                return row -> typeMatches[eventTypeOrdinals[row]] != inverted;
+            }
+            case FLOWFILE_UUID: {
+                final SegmentReader.StringColumn flowFileUuids = reader.getStrings(SegmentColumn.FLOWFILE_UUID);
+                final SegmentReader.StringColumn linkedUuids = reader.getStrings(SegmentColumn.LINKED_UUIDS);
+                return row -> anyUuidMatches(flowFileUuids.get(row), linkedUuids.get(row), term::matches) != inverted;
+            }
+            default: {
+                final SegmentReader.StringColumn values = reader.getStrings(term.column);
+                return row -> term.matches(values.get(row)) != inverted;
+            }
+        }
+    }
+
+    private static boolean anyUuidMatches(final String flowFileUuid, final String linkedUuids, final Predicate<String> matcher) {
+        if (flowFileUuid != null && matcher.test(flowFileUuid)) {
+            return true;
+        }
+
+        if (linkedUuids != null) {
+            for (final String linkedUuid : linkedUuids.split(" ")) {
+                if (matcher.test(linkedUuid)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static SegmentColumn getColumn(final SearchableField field) {
+        if (field.isAttribute()) {
+            return null;
+        }
+        if (SearchableFields.ComponentID.equals(field)) {
+            return SegmentColumn.COMPONENT_ID;
+        }
+        if (SearchableFields.FlowFileUUID.equals(field)) {
+            return SegmentColumn.FLOWFILE_UUID;
+        }
+        if (SearchableFields.EventType.equals(field)) {
+            return SegmentColumn.EVENT_TYPE;
+        }
+        if (SearchableFields.Filename.equals(field)) {
+            return SegmentColumn.FILENAME;
+        }
+        if (SearchableFields.Details.equals(field)) {
+            return SegmentColumn.DETAILS;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the given field for the given event, in the same way that the value would be indexed by a Lucene index
+     */
+    static String getFieldValue(final ProvenanceEventRecord event, final SearchableField field) {
+        if (field.isAttribute()) {
+            return event.getAttribute(field.getSearchableFieldName());
+        }
+        if (SearchableFields.FlowFileUUID.equals(field)) {
+            return event.getFlowFileUuid();
+        }
+        if (SearchableFields.Filename.equals(field)) {
+            return event.getAttribute(CoreAttributes.FILENAME.key());
+        }
+        if (SearchableFields.ComponentID.equals(field)) {
+            return event.getComponentId();
+        }
+        if (SearchableFields.AlternateIdentifierURI.equals(field)) {
+            return event.getAlternateIdentifierUri();
+        }
+        if (SearchableFields.EventType.equals(field)) {
+            return event.getEventType().name();
+        }
+        if (SearchableFields.Relationship.equals(field)) {
+            return event.getRelationship();
+        }
+        if (SearchableFields.Details.equals(field)) {
+            return event.getDetails();
+        }
+        if (SearchableFields.ContentClaimSection.equals(field)) {
+            return event.getContentClaimSection();
+        }
+        if (SearchableFields.ContentClaimContainer.equals(field)) {
+            return event.getContentClaimContainer();
+        }
+        if (SearchableFields.ContentClaimIdentifier.equals(field)) {
+            return event.getContentClaimIdentifier();
+        }
+        if (SearchableFields.SourceQueueIdentifier.equals(field)) {
+            return event.getSourceQueueIdentifier();
+        }
+        if (SearchableFields.TransitURI.equals(field)) {
+            return event.getTransitUri();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarQuery[indexedTerms=" + indexedTerms + ", unindexedTerms=" + unindexedTerms + ", lineageUuids=" + lineageUuids
+            + ", eventTime=[" + minEventTime + ", " + maxEventTime + "], fileSize=[" + minFileSize + ", " + maxFileSize + "]]";
+    }
+
+    private static final class Term {
+        private final SearchableField field;
+        private final SegmentColumn column;
+        private final String value;
+        private final Pattern pattern;
+        private final boolean inverted;
+
+        private Term(final SearchableField field, final String value, final boolean inverted) {
+            this.field = field;
+            this.column = getColumn(field);
+            this.value = value.toLowerCase();
+            this.pattern = value.contains("*") || value.contains("?") ? toPattern(this.value) : null;
+            this.inverted = inverted;
+        }
+
+        /**
+         * @param candidate the lower-case value of the field, or <code>null</code> if the event has no value for the field
+         */
+        boolean matches(final String candidate) {
+            if (candidate == null) {
+                return false;
+            }
+
+            return pattern == null ? value.equals(candidate) : pattern.matcher(candidate).matches();
+        }
+
+        private static Pattern toPattern(final String wildcard) {
+            final StringBuilder regex = new StringBuilder();
+            int literalStart = 0;
+            for (int i = 0; i < wildcard.length(); i++) {
+                final char c = wildcard.charAt(i);
+                if (c == '*' || c == '?') {
+                    if (i > literalStart) {
+                        regex.append(Pattern.quote(wildcard.substring(literalStart, i)));
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                    literalStart = i + 1;
+                }
+            }
+            if (literalStart < wildcard.length()) {
+                regex.append(Pattern.quote(wildcard.substring(literalStart)));
+            }
+
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        @Override
+        public String toString() {
+            return (inverted ? "NOT " : "") + field.getSearchableFieldName() + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.IOException;
+
+/**
+ * A contiguous range of indexed events from a single partition. The summary that is exposed by a segment allows a query to skip
+ * the segment without reading any of its columns.
+ */
+interface IndexSegment {
+
+    /**
+     * @return the name of the partition whose events are indexed by this segment
+     */
+    String getPartitionName();
+
+    /**
+     * @return the number of events in the segment
+     */
+    int getEventCount();
+
+    long getMinEventId();
+
+    long getMaxEventId();
+
+    long getMinEventTime();
+
+    long getMaxEventTime();
+
+    /**
+     * @return a bit mask of the ordinals of the Provenance Event Types that are present in the segment
+     */
+    long getEventTypeMask();
+
+    /**
+     * @return the number of bytes that the segment occupies on disk, or 0 if the segment has not yet been persisted
+     */
+    long getSize();
+
+    /**
+     * @return a reader for the columns of the segment. The reader sees only those events that had been added to the segment when it was created.
+     * @throws IOException if unable to open the segment
+     */
+    SegmentReader createReader() throws IOException;
+}
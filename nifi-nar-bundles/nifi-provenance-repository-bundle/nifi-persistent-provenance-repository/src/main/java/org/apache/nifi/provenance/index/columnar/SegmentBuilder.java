@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.lucene.LuceneUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * The in-memory segment to which newly indexed events are appended. Each column is an array that is allocated up front with room for
+ * the maximum number of events in a segment, so that adding an event never copies any data and creates no objects beyond the lower-case
+ * values of its String fields.
+ * </p>
+ *
+ * <p>
+ * Only a single thread may add events at a time, but the segment may be searched concurrently without locking: all of an event's values
+ * are written before the event count is incremented, and readers only consider the events that were counted when the reader was created.
+ * </p>
+ */
+final class SegmentBuilder implements IndexSegment {
+    static final int NO_COMPONENT = -1;
+
+    private final String partitionName;
+    private final int capacity;
+    private final long creationTime = System.currentTimeMillis();
+
+    private final long[] eventIds;
+    private final long[] eventTimes;
+    private final long[] fileSizes;
+    private final byte[] eventTypes;
+    private final int[] componentIndexes;
+    private final String[] flowFileUuids;
+    private final String[] linkedUuids;
+    private final String[] filenames;
+    private final String[] details;
+    private final BloomFilter bloomFilter;
+
+    private final Map<String, Integer> componentIndexLookup = new HashMap<>();
+    private final String[] componentIds;
+    private volatile int componentCount = 0;
+
+    private volatile int eventCount = 0;
+    private volatile long minEventId = Long.MAX_VALUE;
+    private volatile long maxEventId = Long.MIN_VALUE;
+    private volatile long minEventTime = Long.MAX_VALUE;
+    private volatile long maxEventTime = Long.MIN_VALUE;
+    private volatile long eventTypeMask = 0L;
+
+    SegmentBuilder(final String partitionName, final int capacity) {
+        this.partitionName = partitionName;
+        this.capacity = capacity;
+
+        eventIds = new long[capacity];
+        eventTimes = new long[capacity];
+        fileSizes = new long[capacity];
+        eventTypes = new byte[capacity];
+        componentIndexes = new int[capacity];
+        flowFileUuids = new String[capacity];
+        linkedUuids = new String[capacity];
+        filenames = new String[capacity];
+        details = new String[capacity];
+        componentIds = new String[capacity];
+
+        // Most events have a FlowFile UUID and a filename, and a few have linked UUIDs
+        bloomFilter = new BloomFilter(capacity * 2);
+    }
+
+    /**
+     * Adds the given event to the segment
+     *
+     * @param event the event to add
+     * @param eventId the ID of the event in the Event Store
+     * @return <code>true</code> if the event was added, <code>false</code> if the segment is full
+     */
+    boolean add(final ProvenanceEventRecord event, final long eventId) {
+        final int row = eventCount;
+        if (row >= capacity) {
+            return false;
+        }
+
+        final String flowFileUuid = toLowerCase(event.getFlowFileUuid());
+        final String linked = getLinkedUuids(event);
+        final String filename = toLowerCase(LuceneUtil.truncateIndexField(event.getAttribute(CoreAttributes.FILENAME.key())));
+
+        eventIds[row] = eventId;
+        eventTimes[row] = event.getEventTime();
+        fileSizes[row] = event.getFileSize();
+        eventTypes[row] = (byte) event.getEventType().ordinal();
+        componentIndexes[row] = getComponentIndex(event.getComponentId());
+        flowFileUuids[row] = flowFileUuid;
+        linkedUuids[row] = linked;
+        filenames[row] = filename;
+        details[row] = toLowerCase(LuceneUtil.truncateIndexField(event.getDetails()));
+
+        addToBloomFilter(bloomFilter, flowFileUuid, linked, filename);
+
+        minEventId = Math.min(minEventId, eventId);
+        maxEventId = Math.max(maxEventId, eventId);
+        minEventTime = Math.min(minEventTime, event.getEventTime());
+        maxEventTime = Math.max(maxEventTime, event.getEventTime());
+        eventTypeMask |= 1L << event.getEventType().ordinal();
+
+        // Publish the event to readers
+        eventCount = row + 1;
+        return true;
+    }
+
+    static void addToBloomFilter(final BloomFilter bloomFilter, final String flowFileUuid, final String linkedUuids, final String filename) {
+        if (flowFileUuid != null) {
+            bloomFilter.add(flowFileUuid);
+        }
+        if (linkedUuids != null) {
+            for (final String uuid : linkedUuids.split(" ")) {
+                bloomFilter.add(uuid);
+            }
+        }
+        if (filename != null) {
+            bloomFilter.add(filename);
+        }
+    }
+
+    private int getComponentIndex(final String componentId) {
+        if (componentId == null) {
+            return NO_COMPONENT;
+        }
+
+        final Integer existing = componentIndexLookup.get(componentId);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int index = componentCount;
+        componentIds[index] = componentId;
+        componentIndexLookup.put(componentId, index);
+        componentCount = index + 1;
+        return index;
+    }
+
+    /**
+     * Determines the UUIDs, other than the event's own FlowFile UUID, that should be considered a match when searching for a FlowFile UUID. These are the
+     * same UUIDs that a Lucene index associates with the event, so that lineage can be computed in the same way.
+     */
+    static String getLinkedUuids(final ProvenanceEventRecord event) {
+        final ProvenanceEventType eventType = event.getEventType();
+        final List<String> uuids;
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            uuids = event.getChildUuids();
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            uuids = event.getParentUuids();
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                return sourceIdentifier.substring(lastColon + 1).toLowerCase();
+            }
+            return null;
+        } else {
+            return null;
+        }
+
+        StringBuilder sb = null;
+        for (final String uuid : uuids) {
+            if (uuid.equals(event.getFlowFileUuid())) {
+                continue;
+            }
+
+            if (sb == null) {
+                sb = new StringBuilder();
+            } else {
+                sb.append(' ');
+            }
+            sb.append(uuid.toLowerCase());
+        }
+
+        return sb == null ? null : sb.toString();
+    }
+
+    private static String toLowerCase(final String value) {
+        return value == null ? null : value.toLowerCase();
+    }
+
+    long getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public String getPartitionName() {
+        return partitionName;
+    }
+
+    @Override
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public long getEventTypeMask() {
+        return eventTypeMask;
+    }
+
+    @Override
+    public long getSize() {
+        return 0L;
+    }
+
+    @Override
+    public SegmentReader createReader() {
+        // Read the event count before the dictionary so that the dictionary contains every component that the counted events refer to
+        final int count = eventCount;
+        final List<String> components = Arrays.asList(componentIds).subList(0, componentCount);
+
+        return new SegmentReader() {
+            @Override
+            public int getEventCount() {
+                return count;
+            }
+
+            @Override
+            public List<String> getComponentIds() {
+                return components;
+            }
+
+            @Override
+            public BloomFilter getBloomFilter() {
+                return bloomFilter;
+            }
+
+            @Override
+            public long[] getLongs(final SegmentColumn column) {
+                switch (column) {
+                    case EVENT_ID:
+                        return eventIds;
+                    case EVENT_TIME:
+                        return eventTimes;
+                    case FILE_SIZE:
+                        return fileSizes;
+                    default:
+                        throw new IllegalArgumentException(column + " is not a numeric column");
+                }
+            }
+
+            @Override
+            public byte[] getEventTypes() {
+                return eventTypes;
+            }
+
+            @Override
+            public int[] getComponentIndexes() {
+                return componentIndexes;
+            }
+
+            @Override
+            public StringColumn getStrings(final SegmentColumn column) {
+                final String[] values = getStringArray(column);
+                return row -> values[row];
+            }
+        };
+    }
+
+    private String[] getStringArray(final SegmentColumn column) {
+        switch (column) {
+            case FLOWFILE_UUID:
+                return flowFileUuids;
+            case LINKED_UUIDS:
+                return linkedUuids;
+            case FILENAME:
+                return filenames;
+            case DETAILS:
+                return details;
+            default:
+                throw new IllegalArgumentException(column + " is not a String column");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentBuilder[partition=" + partitionName + ", events=" + eventCount + "]";
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+/**
+ * The columns that make up an {@link IndexSegment}. Each column holds one value per event, in the order in which the events were indexed,
+ * with the exception of the Bloom Filter, which summarizes the FlowFile UUID, Linked UUID, and Filename columns of the entire segment.
+ * The ordinal of each column identifies it in a segment file, so new columns may only be added to the end.
+ */
+enum SegmentColumn {
+    EVENT_ID,
+    EVENT_TIME,
+    FILE_SIZE,
+    EVENT_TYPE,
+    COMPONENT_ID,
+    FLOWFILE_UUID,
+
+    /**
+     * The UUIDs of the parents, children, or source of the FlowFile, which are considered to match a search on FlowFile UUID in the same way
+     * that they are for a Lucene index, separated by a space
+     */
+    LINKED_UUIDS,
+    FILENAME,
+    DETAILS,
+    BLOOM_FILTER;
+}
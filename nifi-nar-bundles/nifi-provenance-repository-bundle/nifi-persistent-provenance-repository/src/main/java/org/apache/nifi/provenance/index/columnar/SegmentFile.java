@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * An {@link IndexSegment} that has been persisted to disk. Only the header of the file, which holds the segment's summary and its
+ * dictionary of Component IDs, is kept in memory. Each column is stored contiguously, so a query reads only the columns that it needs.
+ * </p>
+ *
+ * <p>
+ * The file is laid out as follows, with all numbers written in big-endian order:
+ * </p>
+ * <ul>
+ * <li>int format version</li>
+ * <li>int event count</li>
+ * <li>long min event id, long max event id, long min event time, long max event time, long event type mask</li>
+ * <li>int number of Component IDs, followed by each Component ID in modified UTF-8</li>
+ * <li>for each {@link SegmentColumn}, in order of ordinal: long offset of the column from the start of the file, int length of the column in bytes</li>
+ * <li>the columns</li>
+ * </ul>
+ * <p>
+ * Numeric columns hold one long per event, the event type column holds one byte per event, and the Component ID column holds one int per event.
+ * A String column holds the length of each event's UTF-8 encoded value as an int, or -1 if there is no value, followed by the values themselves.
+ * The Bloom Filter column holds the filter's bits as longs.
+ * </p>
+ */
+final class SegmentFile implements IndexSegment {
+    static final String FILE_EXTENSION = ".segment";
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private final File file;
+    private final String partitionName;
+    private final int eventCount;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final long eventTypeMask;
+    private final List<String> componentIds;
+    private final long[] columnOffsets;
+    private final int[] columnLengths;
+
+    private SegmentFile(final File file, final String partitionName, final DataInputStream in) throws IOException {
+        this.file = file;
+        this.partitionName = partitionName;
+
+        final int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Cannot read Provenance Index Segment " + file + " because it has an unsupported format version of " + version);
+        }
+
+        eventCount = in.readInt();
+        minEventId = in.readLong();
+        maxEventId = in.readLong();
+        minEventTime = in.readLong();
+        maxEventTime = in.readLong();
+        eventTypeMask = in.readLong();
+
+        final int componentCount = in.readInt();
+        final List<String> components = new ArrayList<>(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            components.add(in.readUTF());
+        }
+        componentIds = Collections.unmodifiableList(components);
+
+        final SegmentColumn[] columns = SegmentColumn.values();
+        columnOffsets = new long[columns.length];
+        columnLengths = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnOffsets[i] = in.readLong();
+            columnLengths[i] = in.readInt();
+        }
+
+        final long lastColumnEnd = columnOffsets[columns.length - 1] + columnLengths[columns.length - 1];
+        if (file.length() < lastColumnEnd) {
+            throw new EOFException("Provenance Index Segment " + file + " is truncated: expected " + lastColumnEnd + " bytes but found " + file.length());
+        }
+    }
+
+    /**
+     * Reads the header of the given segment file
+     *
+     * @param file the segment file
+     * @param partitionName the name of the partition whose events are indexed by the segment
+     * @return the segment
+     * @throws IOException if unable to read the file or the file is not a valid segment
+     */
+    static SegmentFile open(final File file, final String partitionName) throws IOException {
+        try (final InputStream fis = new FileInputStream(file);
+             final DataInputStream in = new DataInputStream(new BufferedInputStream(fis))) {
+            return new SegmentFile(file, partitionName, in);
+        }
+    }
+
+    /**
+     * Writes all events in the given segment to a new segment file in the given directory. The file is written under a temporary name
+     * and then renamed, so a segment file that exists is always complete.
+     *
+     * @param segment the segment to persist
+     * @param directory the directory to write the segment file to
+     * @return the persisted segment
+     * @throws IOException if unable to write the file
+     */
+    static SegmentFile write(final IndexSegment segment, final File directory) throws IOException {
+        final SegmentColumn[] columns = SegmentColumn.values();
+        final byte[][] columnData = new byte[columns.length][];
+        final byte[] dictionary;
+        final int eventCount;
+
+        try (final SegmentReader reader = segment.createReader()) {
+            eventCount = reader.getEventCount();
+            for (final SegmentColumn column : columns) {
+                columnData[column.ordinal()] = encode(column, reader, eventCount);
+            }
+
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final DataOutputStream dos = new DataOutputStream(baos);
+            dos.writeInt(reader.getComponentIds().size());
+            for (final String componentId : reader.getComponentIds()) {
+                dos.writeUTF(componentId);
+            }
+            dictionary = baos.toByteArray();
+        }
+
+        final File file = new File(directory, getFilename(segment.getMinEventId()));
+        final File tempFile = new File(directory, file.getName() + ".tmp");
+
+        try (final FileOutputStream fos = new FileOutputStream(tempFile);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(eventCount);
+            out.writeLong(segment.getMinEventId());
+            out.writeLong(segment.getMaxEventId());
+            out.writeLong(segment.getMinEventTime());
+            out.writeLong(segment.getMaxEventTime());
+            out.writeLong(segment.getEventTypeMask());
+            out.write(dictionary);
+
+            long offset = out.size() + columns.length * (Long.BYTES + Integer.BYTES);
+            for (final byte[] data : columnData) {
+                out.writeLong(offset);
+                out.writeInt(data.length);
+                offset += data.length;
+            }
+
+            for (final byte[] data : columnData) {
+                out.write(data);
+            }
+
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file, segment.getPartitionName());
+    }
+
+    static String getFilename(final long minEventId) {
+        return minEventId + FILE_EXTENSION;
+    }
+
+    private static byte[] encode(final SegmentColumn column, final SegmentReader reader, final int eventCount) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(baos);
+
+        switch (column) {
+            case EVENT_ID:
+            case EVENT_TIME:
+            case FILE_SIZE: {
+                final long[] values = reader.getLongs(column);
+                for (int i = 0; i < eventCount; i++) {
+                    out.writeLong(values[i]);
+                }
+                break;
+            }
+            case EVENT_TYPE:
+                out.write(reader.getEventTypes(), 0, eventCount);
+                break;
+            case COMPONENT_ID: {
+                final int[] values = reader.getComponentIndexes();
+                for (int i = 0; i < eventCount; i++) {
+                    out.writeInt(values[i]);
+                }
+                break;
+            }
+            case BLOOM_FILTER: {
+                // The filter of an in-memory segment is sized for a full segment, so build one that is sized for the number of events in the segment
+                final BloomFilter bloomFilter = new BloomFilter(eventCount * 2);
+                final SegmentReader.StringColumn flowFileUuids = reader.getStrings(SegmentColumn.FLOWFILE_UUID);
+                final SegmentReader.StringColumn linkedUuids = reader.getStrings(SegmentColumn.LINKED_UUIDS);
+                final SegmentReader.StringColumn filenames = reader.getStrings(SegmentColumn.FILENAME);
+                for (int i = 0; i < eventCount; i++) {
+                    SegmentBuilder.addToBloomFilter(bloomFilter, flowFileUuids.get(i), linkedUuids.get(i), filenames.get(i));
+                }
+
+                for (final long bits : bloomFilter.getBits()) {
+                    out.writeLong(bits);
+                }
+                break;
+            }
+            default: {
+                final SegmentReader.StringColumn values = reader.getStrings(column);
+                final byte[][] encoded = new byte[eventCount][];
+                for (int i = 0; i < eventCount; i++) {
+                    final String value = values.get(i);
+                    if (value == null) {
+                        out.writeInt(NULL_LENGTH);
+                    } else {
+                        encoded[i] = value.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(encoded[i].length);
+                    }
+                }
+
+                for (final byte[] value : encoded) {
+                    if (value != null) {
+                        out.write(value);
+                    }
+                }
+                break;
+            }
+        }
+
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    @Override
+    public String getPartitionName() {
+        return partitionName;
+    }
+
+    @Override
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public long getEventTypeMask() {
+        return eventTypeMask;
+    }
+
+    @Override
+    public long getSize() {
+        return file.length();
+    }
+
+    @Override
+    public SegmentReader createReader() throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        return new SegmentReader() {
+            @Override
+            public int getEventCount() {
+                return eventCount;
+            }
+
+            @Override
+            public List<String> getComponentIds() {
+                return componentIds;
+            }
+
+            @Override
+            public BloomFilter getBloomFilter() throws IOException {
+                final ByteBuffer buffer = readColumn(SegmentColumn.BLOOM_FILTER);
+                final long[] bits = new long[buffer.remaining() / Long.BYTES];
+                buffer.asLongBuffer().get(bits);
+                return new BloomFilter(bits);
+            }
+
+            @Override
+            public long[] getLongs(final SegmentColumn column) throws IOException {
+                final long[] values = new long[eventCount];
+                readColumn(column).asLongBuffer().get(values);
+                return values;
+            }
+
+            @Override
+            public byte[] getEventTypes() throws IOException {
+                return readColumn(SegmentColumn.EVENT_TYPE).array();
+            }
+
+            @Override
+            public int[] getComponentIndexes() throws IOException {
+                final int[] values = new int[eventCount];
+                readColumn(SegmentColumn.COMPONENT_ID).asIntBuffer().get(values);
+                return values;
+            }
+
+            @Override
+            public StringColumn getStrings(final SegmentColumn column) throws IOException {
+                final ByteBuffer buffer = readColumn(column);
+                final int[] lengths = new int[eventCount];
+                buffer.asIntBuffer().get(lengths);
+
+                final int[] offsets = new int[eventCount];
+                int offset = eventCount * Integer.BYTES;
+                for (int i = 0; i < eventCount; i++) {
+                    offsets[i] = offset;
+                    offset += Math.max(0, lengths[i]);
+                }
+
+                final byte[] data = buffer.array();
+                return row -> lengths[row] == NULL_LENGTH ? null : new String(data, offsets[row], lengths[row], StandardCharsets.UTF_8);
+            }
+
+            private ByteBuffer readColumn(final SegmentColumn column) throws IOException {
+                final ByteBuffer buffer = ByteBuffer.allocate(columnLengths[column.ordinal()]);
+                long position = columnOffsets[column.ordinal()];
+                while (buffer.hasRemaining()) {
+                    final int bytesRead = channel.read(buffer, position);
+                    if (bytesRead < 0) {
+                        throw new EOFException("Unexpected end of Provenance Index Segment " + file + " while reading column " + column);
+                    }
+                    position += bytesRead;
+                }
+
+                buffer.flip();
+                return buffer;
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentFile[" + file + "]";
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.store.EventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches a single {@link IndexSegment} and updates the given result with the matching events, in the same way that the
+ * Lucene-based QueryTask searches a single index directory.
+ */
+class SegmentQueryTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentQueryTask.class);
+
+    private final ColumnarQuery query;
+    private final IndexSegment segment;
+    private final ProgressiveResult queryResult;
+    private final int maxResults;
+    private final EventStore eventStore;
+    private final EventAuthorizer authorizer;
+    private final EventTransformer transformer;
+
+    SegmentQueryTask(final ColumnarQuery query, final IndexSegment segment, final ProgressiveResult result, final int maxResults,
+                     final EventStore eventStore, final EventAuthorizer authorizer, final EventTransformer unauthorizedTransformer) {
+        this.query = query;
+        this.segment = segment;
+        this.queryResult = result;
+        this.maxResults = maxResults;
+        this.eventStore = eventStore;
+        this.authorizer = authorizer;
+        this.transformer = unauthorizedTransformer;
+    }
+
+    @Override
+    public void run() {
+        if (queryResult.getTotalHitCount() >= maxResults) {
+            logger.debug("Will not query index segment {} because maximum results have already been obtained", segment);
+            queryResult.update(Collections.emptyList(), 0L);
+            return;
+        }
+
+        if (queryResult.isFinished()) {
+            logger.debug("Will not query index segment {} because the query is already finished", segment);
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+        final long[] eventIds;
+        try (final SegmentReader reader = segment.createReader()) {
+            eventIds = query.search(reader);
+        } catch (final FileNotFoundException | NoSuchFileException e) {
+            // The segment has aged off since the query was submitted
+            logger.debug("Attempted to search Provenance Index Segment {} but it no longer exists", segment);
+            queryResult.update(Collections.emptyList(), 0L);
+            return;
+        } catch (final Exception e) {
+            logger.error("Failed to query Provenance Index Segment {}", segment, e);
+            queryResult.setError("Failed to query index segment " + segment + " due to " + e);
+            return;
+        }
+
+        final long searchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.debug("Searching {} for {} found {} candidate events in {} millis", segment, query, eventIds.length, searchMillis);
+
+        if (eventIds.length == 0) {
+            queryResult.update(Collections.emptyList(), 0L);
+            return;
+        }
+
+        try {
+            if (query.isVerificationRequired()) {
+                readAndVerifyEvents(eventIds);
+            } else {
+                final List<Long> idsToRead = toList(eventIds, 0, Math.min(eventIds.length, maxResults));
+                final List<ProvenanceEventRecord> events = eventStore.getEvents(idsToRead, authorizer, transformer);
+                queryResult.update(events, eventIds.length);
+            }
+
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            logger.debug("Successfully queried index segment {} for {} in {} millis", segment, query, millis);
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Events for index segment {}", segment, e);
+            queryResult.setError("Failed to retrieve Provenance Events from store; see logs for more details");
+        }
+    }
+
+    /**
+     * Reads the candidate events in batches, keeping only those that match the terms of the query that are not indexed, until the maximum
+     * number of results has been found. The reported hit count is therefore only the number of candidates that were verified to match.
+     */
+    private void readAndVerifyEvents(final long[] eventIds) throws IOException {
+        final List<ProvenanceEventRecord> matchingEvents = new ArrayList<>();
+        final int batchSize = Math.max(1, maxResults);
+        for (int start = 0; start < eventIds.length && matchingEvents.size() < maxResults; start += batchSize) {
+            final List<Long> idsToRead = toList(eventIds, start, Math.min(eventIds.length, start + batchSize));
+            for (final ProvenanceEventRecord event : eventStore.getEvents(idsToRead, authorizer, transformer)) {
+                if (query.matchesUnindexedTerms(event) && matchingEvents.size() < maxResults) {
+                    matchingEvents.add(event);
+                }
+            }
+
+            if (queryResult.isFinished()) {
+                return;
+            }
+        }
+
+        queryResult.update(matchingEvents, matchingEvents.size());
+    }
+
+    private static List<Long> toList(final long[] values, final int start, final int end) {
+        final List<Long> list = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+}
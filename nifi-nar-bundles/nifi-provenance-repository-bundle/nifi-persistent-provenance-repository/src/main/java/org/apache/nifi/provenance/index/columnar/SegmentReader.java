@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Provides access to the columns of an {@link IndexSegment}. A column is only read when it is requested, so a query reads only the
+ * columns that it needs. The arrays that are returned may be larger than the number of events and must not be modified.
+ */
+interface SegmentReader extends Closeable {
+
+    /**
+     * @return the number of events that are visible to this reader
+     */
+    int getEventCount();
+
+    /**
+     * @return the dictionary of Component IDs, whose indexes are the values of the {@link SegmentColumn#COMPONENT_ID} column
+     */
+    List<String> getComponentIds();
+
+    BloomFilter getBloomFilter() throws IOException;
+
+    long[] getLongs(SegmentColumn column) throws IOException;
+
+    /**
+     * @return the ordinals of the Provenance Event Types
+     */
+    byte[] getEventTypes() throws IOException;
+
+    /**
+     * @return the index of each event's Component ID in the dictionary
+     */
+    int[] getComponentIndexes() throws IOException;
+
+    /**
+     * @return the lower-case values of the given String column
+     */
+    StringColumn getStrings(SegmentColumn column) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    @FunctionalInterface
+    interface StringColumn {
+        /**
+         * @param row the index of the event within the segment
+         * @return the value for the event, or <code>null</code> if the event has no value
+         */
+        String get(int row);
+    }
+}
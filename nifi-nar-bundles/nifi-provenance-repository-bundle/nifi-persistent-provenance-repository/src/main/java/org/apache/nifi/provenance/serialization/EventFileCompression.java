@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.apache.nifi.stream.io.GZIPOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p>
+ * The codecs that may be used to compress the blocks of a Provenance Event File. Each block of an Event File is compressed
+ * independently so that a reader is able to skip directly to the block that contains an event, as indicated by the Table of Contents.
+ * </p>
+ *
+ * <p>
+ * The codec that was used to compress an Event File is identified both by the file's extension and by the compression flag in the
+ * header of its Table of Contents, so a repository may contain Event Files that were compressed using different codecs, such as after
+ * the configured codec has been changed.
+ * </p>
+ */
+public enum EventFileCompression {
+    /**
+     * GZIP at compression level 1. This is the codec that has always been used, so it is the default.
+     */
+    GZIP(1, ".gz") {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+
+    /**
+     * The LZ4 Frame format. Compresses less than GZIP but compresses and decompresses several times faster.
+     */
+    LZ4(2, ".lz4") {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new LZ4FrameInputStream(in);
+        }
+    },
+
+    /**
+     * Zstandard at compression level 1. Typically compresses better than GZIP and decompresses considerably faster.
+     */
+    ZSTD(3, ".zst") {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new ZstdOutputStream(out, 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    };
+
+    /**
+     * The value of the compression flag in a Table of Contents file whose Event File is not compressed
+     */
+    public static final int UNCOMPRESSED_TOC_FLAG = 0;
+
+    private final int tocFlag;
+    private final String fileExtension;
+
+    EventFileCompression(final int tocFlag, final String fileExtension) {
+        this.tocFlag = tocFlag;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Wraps the given OutputStream so that data written to the returned stream is compressed. The returned stream must be closed in order
+     * to complete the compressed block, and closing it closes the given stream.
+     *
+     * @param out the stream to write compressed data to
+     * @return a stream that compresses the data written to it
+     * @throws IOException if unable to write the codec's header to the given stream
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the given InputStream so that data read from the returned stream is decompressed
+     *
+     * @param in the stream of compressed data
+     * @return a stream of the decompressed data
+     * @throws IOException if unable to read the codec's header from the given stream
+     */
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * @return the value that is written to the compression flag of a Table of Contents file to indicate that its Event File was compressed using this codec
+     */
+    public int getTocFlag() {
+        return tocFlag;
+    }
+
+    /**
+     * @return the extension that is appended to the name of an Event File when it is compressed using this codec, such as <code>.gz</code>
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Determines which codec was used to compress a file, based on its extension
+     *
+     * @param filename the name of the Event File
+     * @return the codec that was used to compress the file, or <code>null</code> if the file is not compressed
+     */
+    public static EventFileCompression fromFilename(final String filename) {
+        for (final EventFileCompression compression : values()) {
+            if (filename.endsWith(compression.fileExtension)) {
+                return compression;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines which codec is indicated by the compression flag of a Table of Contents file
+     *
+     * @param tocFlag the value of the compression flag
+     * @return the codec that is indicated by the flag, or <code>null</code> if the flag indicates that the Event File is not compressed
+     * @throws IllegalArgumentException if the flag does not indicate any known codec
+     */
+    public static EventFileCompression fromTocFlag(final int tocFlag) {
+        if (tocFlag == UNCOMPRESSED_TOC_FLAG) {
+            return null;
+        }
+
+        for (final EventFileCompression compression : values()) {
+            if (compression.tocFlag == tocFlag) {
+                return compression;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown compression flag: " + tocFlag);
+    }
+}
@@ -35,10 +35,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.zip.GZIPInputStream;
+import java.util.List;
 
 public class RecordReaders {
+    // Decompressing the first block may require reading a full block of compressed data before the header is available
+    private static final int HEADER_READ_LIMIT = 256 * 1024;
+
     /**
      * Creates a new Record Reader that is capable of reading Provenance Event Journals
      *
@@ -81,11 +85,11 @@ public class RecordReaders {
                 final File dir = file.getParentFile();
                 final String baseName = LuceneUtil.substringBefore(file.getName(), ".prov");
 
-                // depending on which rollover actions have occurred, we could have 2 possibilities for the
-                // filename that we need. The majority of the time, we will use the extension ".prov.gz"
+                // depending on which rollover actions have occurred, we could have several possibilities for the
+                // filename that we need. The majority of the time, we will use a compressed extension such as ".prov.gz"
                 // because most often we are compressing on rollover and most often we have already finished
                 // compressing by the time that we are querying the data.
-                for (final String extension : new String[]{".prov.gz", ".prov"}) {
+                for (final String extension : getEventFileExtensions()) {
                     file = new File(dir, baseName + extension);
                     if (file.exists()) {
                         try {
@@ -113,8 +117,9 @@ public class RecordReaders {
             final InputStream bufferedInStream = new BufferedInputStream(fis);
             final String serializationName;
             try {
-                bufferedInStream.mark(4096);
-                final InputStream in = filename.endsWith(".gz") ? new GZIPInputStream(bufferedInStream) : bufferedInStream;
+                bufferedInStream.mark(HEADER_READ_LIMIT);
+                final EventFileCompression compression = EventFileCompression.fromFilename(filename);
+                final InputStream in = compression == null ? bufferedInStream : compression.decompress(bufferedInStream);
                 final DataInputStream dis = new DataInputStream(in);
                 serializationName = dis.readUTF();
                 bufferedInStream.reset();
@@ -165,4 +170,13 @@ public class RecordReaders {
             throw ioe;
         }
     }
+
+    private static List<String> getEventFileExtensions() {
+        final List<String> extensions = new ArrayList<>();
+        for (final EventFileCompression compression : EventFileCompression.values()) {
+            extensions.add(".prov" + compression.getFileExtension());
+        }
+        extensions.add(".prov");
+        return extensions;
+    }
 }
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import org.apache.nifi.provenance.serialization.EventFileCompression;
+
 import java.io.Closeable;
 import java.io.File;
 
@@ -37,6 +39,12 @@ public interface TocReader extends Closeable {
      */
     boolean isCompressed();
 
+    /**
+     * Indicates which codec the corresponding Journal file is compressed with
+     * @return the codec that the event file is compressed with, or <code>null</code> if the event file is not compressed
+     */
+    EventFileCompression getCompression();
+
     /**
      * @return the file that holds the TOC information
      */
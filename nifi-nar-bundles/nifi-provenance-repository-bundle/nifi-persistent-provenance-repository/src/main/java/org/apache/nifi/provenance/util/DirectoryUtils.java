@@ -17,6 +17,8 @@
 
 package org.apache.nifi.provenance.util;
 
+import org.apache.nifi.provenance.serialization.EventFileCompression;
+
 import java.io.File;
 import java.io.FileFilter;
 import java.util.Comparator;
@@ -26,13 +28,22 @@ import java.util.regex.Pattern;
 public class DirectoryUtils {
     public static final Pattern INDEX_DIRECTORY_NAME_PATTERN = Pattern.compile("(?:lucene-\\d+-)?index-(.*)");
     public static final FileFilter INDEX_FILE_FILTER = f -> INDEX_DIRECTORY_NAME_PATTERN.matcher(f.getName()).matches();
-    public static final FileFilter EVENT_FILE_FILTER = f -> f.getName().endsWith(".prov") || f.getName().endsWith(".prov.gz");
+    public static final FileFilter EVENT_FILE_FILTER = f -> isEventFile(f.getName());
     public static final Comparator<File> SMALLEST_ID_FIRST = (a, b) -> Long.compare(getMinId(a), getMinId(b));
     public static final Comparator<File> LARGEST_ID_FIRST = SMALLEST_ID_FIRST.reversed();
     public static final Comparator<File> OLDEST_INDEX_FIRST = (a, b) -> Long.compare(getIndexTimestamp(a), getIndexTimestamp(b));
     public static final Comparator<File> NEWEST_INDEX_FIRST = OLDEST_INDEX_FIRST.reversed();
 
 
+    private static boolean isEventFile(final String filename) {
+        if (filename.endsWith(".prov")) {
+            return true;
+        }
+
+        final EventFileCompression compression = EventFileCompression.fromFilename(filename);
+        return compression != null && filename.endsWith(".prov" + compression.getFileExtension());
+    }
+
     public static long getMinId(final File file) {
         final String filename = file.getName();
         final int firstDotIndex = filename.indexOf(".");
@@ -0,0 +1,409 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageNode;
+import org.apache.nifi.provenance.lineage.LineageNodeType;
+import org.apache.nifi.provenance.lineage.ProvenanceEventLineageNode;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QueryResult;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.ArrayListEventStore;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.store.StorageResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisabledOnOs(OS.WINDOWS)
+@Timeout(value = 60)
+public class TestColumnarEventIndex {
+
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+
+    @BeforeEach
+    public void setup() {
+        idGenerator.set(0L);
+    }
+
+    @Test
+    public void addThenQueryWithEmptyQuery() throws IOException, InterruptedException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = createIndex(createConfig(), 10, eventStore);
+
+        final ProvenanceEventRecord event = addEvent(index, eventStore, createEvent());
+
+        final List<ProvenanceEventRecord> matchingEvents = query(index, new Query(UUID.randomUUID().toString()));
+        assertEquals(1, matchingEvents.size());
+        assertEquals(event, matchingEvents.get(0));
+
+        index.close();
+    }
+
+    @Test
+    public void testQuerySpecificField() throws IOException, InterruptedException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = createIndex(createConfig(), 10, eventStore);
+
+        final ProvenanceEventRecord event = addEvent(index, eventStore, createEvent());
+        addEvent(index, eventStore, createEvent());
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, event.getFlowFileUuid().toUpperCase(), null));
+
+        final List<ProvenanceEventRecord> matchingEvents = query(index, query);
+        assertEquals(1, matchingEvents.size());
+        assertEquals(event, matchingEvents.get(0));
+
+        index.close();
+    }
+
+    @Test
+    public void testQueryInverseSpecificField() throws IOException, InterruptedException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = createIndex(createConfig(), 10, eventStore);
+
+        final ProvenanceEventRecord event1 = addEvent(index, eventStore, createEvent(System.currentTimeMillis(), "11111111-1111-1111-1111-111111111111", "component-1"));
+        final ProvenanceEventRecord event2 = addEvent(index, eventStore, createEvent(System.currentTimeMillis(), "22222222-2222-2222-2222-222222222222", "component-2"));
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, event1.getFlowFileUuid(), Boolean.TRUE));
+
+        final List<ProvenanceEventRecord> matchingEvents = query(index, query);
+        assertEquals(1, matchingEvents.size());
+        assertEquals(event2, matchingEvents.get(0));
+
+        index.close();
+    }
+
+    @Test
+    public void testQueryComponentIdWithWildcard() throws IOException, InterruptedException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = createIndex(createConfig(), 10, eventStore);
+
+        final ProvenanceEventRecord event1 = addEvent(index, eventStore, createEvent(System.currentTimeMillis(), UUID.randomUUID().toString(), "component-1"));
+        addEvent(index, eventStore, createEvent(System.currentTimeMillis(), UUID.randomUUID().toString(), "other-2"));
+        final ProvenanceEventRecord event3 = addEvent(index, eventStore, createEvent(System.currentTimeMillis(), UUID.randomUUID().toString(), "component-3"));
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "Component-*", null));
+
+        final List<ProvenanceEventRecord> matchingEvents = query(index, query);
+        assertEquals(2, matchingEvents.size());
+
+        // Newest events are returned first
+        assertEquals(event3, matchingEvents.get(0));
+        assertEquals(event1, matchingEvents.get(1));
+
+        index.close();
+    }
+
+    @Test
+    public void testQueryAttributeNotStoredInIndex() throws IOException, InterruptedException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = createIndex(createConfig(), 10, eventStore);
+
+        addEvent(index, eventStore, createEvent());
+        final ProvenanceEventRecord event = addEvent(index, eventStore, createEvent(System.currentTimeMillis(), UUID.randomUUID().toString(), "component-1", "true"));
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.newSearchableAttribute("updated"), "true", null));
+
+        final List<ProvenanceEventRecord> matchingEvents = query(index, query);
+        assertEquals(1, matchingEvents.size());
+        assertEquals(event, matchingEvents.get(0));
+
+        index.close();
+    }
+
+    @Test
+    public void testUnauthorizedEventsGetPlaceholdersForLineage() throws IOException, InterruptedException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+
+        // Use a small segment size so that the lineage spans several segments
+        final ColumnarEventIndex index = createIndex(createConfig(), 2, eventStore);
+
+        final long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            addEvent(index, eventStore, createEvent(timestamp, "1234", "component-1"));
+        }
+        addEvent(index, eventStore, createEvent(timestamp, "5678", "component-1"));
+
+        final ComputeLineageSubmission submission = index.submitLineageComputation(1L, createUser(), EventAuthorizer.DENY_ALL);
+        assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+
+        final List<LineageNode> nodes = submission.getResult().getNodes();
+        assertEquals(3, nodes.size());
+
+        for (final LineageNode node : nodes) {
+            assertEquals(LineageNodeType.PROVENANCE_EVENT_NODE, node.getNodeType());
+            final ProvenanceEventLineageNode eventNode = (ProvenanceEventLineageNode) node;
+            assertEquals(ProvenanceEventType.UNKNOWN, eventNode.getEventType());
+        }
+
+        index.close();
+    }
+
+    @Test
+    public void testSegmentsRecoveredOnRestart() throws IOException, InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+
+        final ColumnarEventIndex index = createIndex(repoConfig, 3, eventStore);
+        assertEquals(0L, index.getMinimumEventIdToReindex("1"));
+
+        ProvenanceEventRecord firstEvent = null;
+        for (int i = 0; i < 7; i++) {
+            final ProvenanceEventRecord event = addEvent(index, eventStore, createEvent());
+            if (firstEvent == null) {
+                firstEvent = event;
+            }
+        }
+
+        index.commitChanges("1");
+        assertEquals(3, index.getSealedSegments("1").size());
+        assertTrue(index.getSize() > 0L);
+        index.close();
+
+        final ColumnarEventIndex recoveredIndex = createIndex(repoConfig, 3, eventStore);
+        assertEquals(7L, recoveredIndex.getMinimumEventIdToReindex("1"));
+
+        final List<IndexSegment> segments = recoveredIndex.getSealedSegments("1");
+        assertEquals(3, segments.size());
+        for (final IndexSegment segment : segments) {
+            assertTrue(segment instanceof SegmentFile);
+        }
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, firstEvent.getFlowFileUuid(), null));
+
+        final List<ProvenanceEventRecord> matchingEvents = query(recoveredIndex, query);
+        assertEquals(1, matchingEvents.size());
+        assertEquals(firstEvent, matchingEvents.get(0));
+
+        recoveredIndex.close();
+    }
+
+    @Test
+    public void testSegmentsPersistedInOrderAfterWriteFailure() throws IOException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = createIndex(repoConfig, 2, eventStore);
+
+        addEvent(index, eventStore, createEvent());
+        addEvent(index, eventStore, createEvent());
+        index.commitChanges("1");
+        assertEquals(2L, index.getMinimumEventIdToReindex("1"));
+
+        // Replace the index directory with a regular file so that the next segment cannot be written
+        final File indexDirectory = new File(repoConfig.getStorageDirectories().get("1"), ColumnarEventIndex.INDEX_DIRECTORY_NAME);
+        final File movedDirectory = new File(indexDirectory.getParentFile(), "moved-index");
+        assertTrue(indexDirectory.renameTo(movedDirectory));
+        assertTrue(indexDirectory.createNewFile());
+
+        addEvent(index, eventStore, createEvent());
+        addEvent(index, eventStore, createEvent());
+        index.commitChanges("1");
+        assertEquals(2L, index.getMinimumEventIdToReindex("1"));
+
+        assertTrue(indexDirectory.delete());
+        assertTrue(movedDirectory.renameTo(indexDirectory));
+
+        // The segment that failed must be persisted before the next one, or its events would not be indexed again on restart
+        addEvent(index, eventStore, createEvent());
+        addEvent(index, eventStore, createEvent());
+        index.commitChanges("1");
+        assertEquals(6L, index.getMinimumEventIdToReindex("1"));
+        index.close();
+
+        final ColumnarEventIndex recoveredIndex = createIndex(repoConfig, 2, eventStore);
+        assertEquals(6L, recoveredIndex.getMinimumEventIdToReindex("1"));
+        assertEquals(3, recoveredIndex.getSealedSegments("1").size());
+        recoveredIndex.close();
+    }
+
+    @Test
+    public void testExpiration() throws IOException {
+        final ColumnarEventIndex index = new ColumnarEventIndex(createConfig(), 1, EventReporter.NO_OP);
+
+        final ProvenanceEventRecord firstEvent = createEvent(500000L);
+        final ProvenanceEventRecord secondEvent = createEvent();
+
+        final EventStore eventStore = Mockito.mock(EventStore.class);
+        Mockito.when(eventStore.getEvents(0L, 1)).thenReturn(Collections.singletonList(secondEvent));
+        index.initialize(eventStore);
+
+        index.addEvent(firstEvent, createStorageSummary(firstEvent.getEventId()));
+        index.addEvent(secondEvent, createStorageSummary(secondEvent.getEventId()));
+        index.commitChanges("1");
+
+        final List<IndexSegment> segments = index.getSealedSegments("1");
+        assertEquals(2, segments.size());
+        final File expiredFile = ((SegmentFile) segments.get(0)).getFile();
+        assertTrue(expiredFile.exists());
+
+        index.performMaintenance();
+
+        assertEquals(1, index.getSealedSegments("1").size());
+        assertEquals(secondEvent.getEventId(), index.getSealedSegments("1").get(0).getMaxEventId());
+        assertFalse(expiredFile.exists());
+
+        index.close();
+    }
+
+    private List<ProvenanceEventRecord> query(final ColumnarEventIndex index, final Query query) throws InterruptedException {
+        final QuerySubmission submission = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test user");
+        assertNotNull(submission);
+
+        final QueryResult result = submission.getResult();
+        assertNotNull(result);
+        assertTrue(result.awaitCompletion(4000, TimeUnit.MILLISECONDS));
+        assertNull(result.getError());
+
+        final List<ProvenanceEventRecord> matchingEvents = result.getMatchingEvents();
+        assertNotNull(matchingEvents);
+        return matchingEvents;
+    }
+
+    private ColumnarEventIndex createIndex(final RepositoryConfiguration repoConfig, final int maxEventsPerSegment, final EventStore eventStore) {
+        final ColumnarEventIndex index = new ColumnarEventIndex(repoConfig, maxEventsPerSegment, EventReporter.NO_OP);
+        index.initialize(eventStore);
+        return index;
+    }
+
+    private ProvenanceEventRecord addEvent(final ColumnarEventIndex index, final ArrayListEventStore eventStore, final ProvenanceEventRecord event) {
+        final StorageResult storageResult = eventStore.addEvent(event);
+        index.addEvents(storageResult.getStorageLocations());
+        return event;
+    }
+
+    private StorageSummary createStorageSummary(final long eventId) {
+        return new StorageSummary(eventId, "1.prov", "1", 1, 2L, 2L);
+    }
+
+    private NiFiUser createUser() {
+        return new NiFiUser() {
+            @Override
+            public String getIdentity() {
+                return "unit test";
+            }
+
+            @Override
+            public Set<String> getGroups() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public Set<String> getIdentityProviderGroups() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public Set<String> getAllGroups() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public NiFiUser getChain() {
+                return null;
+            }
+
+            @Override
+            public boolean isAnonymous() {
+                return false;
+            }
+
+            @Override
+            public String getClientAddress() {
+                return "127.0.0.1";
+            }
+        };
+    }
+
+    private RepositoryConfiguration createConfig() {
+        final RepositoryConfiguration config = new RepositoryConfiguration();
+        final File storageDir = new File("target/storage/" + getClass().getSimpleName() + "/" + UUID.randomUUID());
+        config.addStorageDirectory("1", storageDir);
+        assertTrue(storageDir.exists() || storageDir.mkdirs());
+        return config;
+    }
+
+    private ProvenanceEventRecord createEvent() {
+        return createEvent(System.currentTimeMillis());
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp) {
+        return createEvent(timestamp, UUID.randomUUID().toString(), "component-1");
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp, final String uuid, final String componentId) {
+        return createEvent(timestamp, uuid, componentId, null);
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp, final String uuid, final String componentId, final String updated) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+        final Map<String, String> updatedAttributes = new HashMap<>();
+        if (updated != null) {
+            updatedAttributes.put("updated", updated);
+        }
+
+        return new StandardProvenanceEventRecord.Builder()
+                .setEventType(ProvenanceEventType.CONTENT_MODIFIED)
+                .setAttributes(previousAttributes, updatedAttributes)
+                .setComponentId(componentId)
+                .setComponentType("unit test")
+                .setEventId(idGenerator.getAndIncrement())
+                .setEventTime(timestamp)
+                .setFlowFileEntryDate(timestamp)
+                .setFlowFileUUID(uuid)
+                .setLineageStartDate(timestamp)
+                .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+                .build();
+    }
+}
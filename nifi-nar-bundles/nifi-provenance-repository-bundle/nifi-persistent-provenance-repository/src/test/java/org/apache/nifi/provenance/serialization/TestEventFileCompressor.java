@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import org.apache.nifi.provenance.EventIdFirstSchemaRecordWriter;
+import org.apache.nifi.provenance.IdentifierLookup;
+import org.apache.nifi.provenance.ProvenanceEventBuilder;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.TestUtil;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.stream.io.LimitingInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEventFileCompressor {
+
+    @ParameterizedTest
+    @EnumSource(EventFileCompression.class)
+    public void testCompressedEventFileReadable(final EventFileCompression compression, @TempDir final File tempDir) throws IOException {
+        final int eventCount = 1000;
+        final File eventFile = writeEventFile(tempDir, eventCount, 4096, false);
+        final File compressedFile = compress(eventFile, compression);
+        assertTrue(compressedFile.getName().endsWith(".prov" + compression.getFileExtension()));
+        assertTrue(compressedFile.length() < eventFile.length());
+
+        try (final TocReader tocReader = new StandardTocReader(TocUtil.getTocFile(compressedFile))) {
+            assertTrue(tocReader.isCompressed());
+            assertSame(compression, tocReader.getCompression());
+        }
+
+        assertTrue(eventFile.delete());
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, null, 2048)) {
+            for (int i = 0; i < eventCount; i++) {
+                final StandardProvenanceEventRecord event = reader.nextRecord();
+                assertEquals(i, event.getEventId());
+            }
+            assertNull(reader.nextRecord());
+        }
+
+        // Skipping to an event requires each block to be decompressed independently
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, null, 2048)) {
+            assertTrue(reader.getTocReader().getBlockOffset(2) > 0);
+
+            final Optional<ProvenanceEventRecord> event = reader.skipToEvent(eventCount - 10);
+            assertTrue(event.isPresent());
+            assertEquals(eventCount - 10, event.get().getEventId());
+        }
+    }
+
+    @Test
+    public void testReadsEventFilesCompressedWithDifferentCodecs(@TempDir final File tempDir) throws IOException {
+        final List<File> compressedFiles = new ArrayList<>();
+        for (final EventFileCompression compression : EventFileCompression.values()) {
+            final File partitionDir = new File(tempDir, compression.name());
+            final File eventFile = writeEventFile(partitionDir, 100, 4096, false);
+            compressedFiles.add(compress(eventFile, compression));
+            assertTrue(eventFile.delete());
+        }
+
+        for (final File compressedFile : compressedFiles) {
+            // Find the file based on the name of the uncompressed file, as is done when an event is retrieved from the index
+            final File uncompressedFile = new File(compressedFile.getParentFile(), "0.prov");
+            try (final RecordReader reader = RecordReaders.newRecordReader(uncompressedFile, null, 2048)) {
+                assertEquals(0L, reader.nextRecord().getEventId());
+            }
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testCompressionPerformance(@TempDir final File tempDir) throws IOException {
+        // This is a simple micro-benchmark to compare the throughput and compression ratio of each codec on event files that resemble
+        // those of a typical flow, using the block size of the WriteAheadProvenanceRepository.
+        final File eventFile = writeEventFile(tempDir, 250_000, 1024 * 32, true);
+        final long uncompressedBytes = eventFile.length();
+        final File tocFile = TocUtil.getTocFile(eventFile);
+        final byte[] uncompressedToc = Files.readAllBytes(tocFile.toPath());
+
+        for (int iteration = 0; iteration < 3; iteration++) {
+            for (final EventFileCompression compression : EventFileCompression.values()) {
+                Files.write(tocFile.toPath(), uncompressedToc);
+
+                final long compressStart = System.nanoTime();
+                final File compressedFile = compress(eventFile, compression);
+                final long compressNanos = System.nanoTime() - compressStart;
+
+                final long decompressStart = System.nanoTime();
+                final long decompressedBytes = decompressAllBlocks(compressedFile, compression);
+                final long decompressNanos = System.nanoTime() - decompressStart;
+                assertEquals(uncompressedBytes, decompressedBytes);
+
+                System.out.printf("%-5s compressed %,d bytes to %,d bytes (ratio %.2f); compress %.1f MB/sec, decompress %.1f MB/sec%n",
+                    compression, uncompressedBytes, compressedFile.length(), (double) uncompressedBytes / compressedFile.length(),
+                    megabytesPerSecond(uncompressedBytes, compressNanos), megabytesPerSecond(uncompressedBytes, decompressNanos));
+
+                Files.delete(compressedFile.toPath());
+            }
+        }
+    }
+
+    private static double megabytesPerSecond(final long bytes, final long nanos) {
+        return bytes / (1024D * 1024D) / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static long decompressAllBlocks(final File compressedFile, final EventFileCompression compression) throws IOException {
+        final byte[] buffer = new byte[65536];
+        long bytesRead = 0L;
+
+        try (final TocReader tocReader = new StandardTocReader(TocUtil.getTocFile(compressedFile));
+             final InputStream in = new BufferedInputStream(new FileInputStream(compressedFile))) {
+
+            for (int blockIndex = 0; tocReader.getBlockOffset(blockIndex) >= 0; blockIndex++) {
+                final long blockEnd = tocReader.getBlockOffset(blockIndex + 1);
+                final long blockLength = blockEnd < 0 ? compressedFile.length() - tocReader.getBlockOffset(blockIndex) : blockEnd - tocReader.getBlockOffset(blockIndex);
+
+                final InputStream blockIn = compression.decompress(new LimitingInputStream(in, blockLength));
+                int len;
+                while ((len = blockIn.read(buffer)) > 0) {
+                    bytesRead += len;
+                }
+            }
+        }
+
+        return bytesRead;
+    }
+
+    private File compress(final File eventFile, final EventFileCompression compression) throws IOException {
+        final File tocFile = TocUtil.getTocFile(eventFile);
+        final File compressedFile = new File(eventFile.getParentFile(), eventFile.getName() + compression.getFileExtension());
+        final File compressedTocFile = new File(tocFile.getParentFile(), tocFile.getName() + ".tmp");
+
+        EventFileCompressor.compress(eventFile, new StandardTocReader(tocFile), compressedFile, new StandardTocWriter(compressedTocFile, compression, false), compression);
+
+        // Replace the TOC, as the EventFileCompressor does once the uncompressed file has been deleted
+        Files.move(compressedTocFile.toPath(), tocFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        return compressedFile;
+    }
+
+    private File writeEventFile(final File directory, final int eventCount, final int blockSize, final boolean realistic) throws IOException {
+        final File eventFile = new File(directory, "0.prov");
+        final File tocFile = TocUtil.getTocFile(eventFile);
+        Files.createDirectories(directory.toPath());
+
+        final AtomicLong idGenerator = new AtomicLong(0L);
+        try (final RecordWriter writer = new EventIdFirstSchemaRecordWriter(eventFile, idGenerator, new StandardTocWriter(tocFile, false, false), false,
+                blockSize, IdentifierLookup.EMPTY)) {
+            writer.writeHeader(0L);
+
+            final List<ProvenanceEventRecord> batch = new ArrayList<>();
+            for (int i = 0; i < eventCount; i++) {
+                batch.add(realistic ? createRealisticEvent(i) : TestUtil.createEvent());
+                if (batch.size() == 1000) {
+                    writer.writeRecords(batch);
+                    batch.clear();
+                }
+            }
+            writer.writeRecords(batch);
+            writer.flush();
+        }
+
+        return eventFile;
+    }
+
+    private static ProvenanceEventRecord createRealisticEvent(final int index) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", UUID.randomUUID().toString());
+        attributes.put("filename", "record-" + index + ".json");
+        attributes.put("path", "./");
+        attributes.put("mime.type", "application/json");
+        attributes.put("record.count", String.valueOf(index % 1000));
+        attributes.put("kafka.topic", "events-" + (index % 8));
+        attributes.put("kafka.partition", String.valueOf(index % 16));
+        attributes.put("kafka.offset", String.valueOf(1_000_000L + index));
+        attributes.put("schema.name", "event-schema-v" + (index % 3));
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(index % 5 == 0 ? ProvenanceEventType.RECEIVE : ProvenanceEventType.ATTRIBUTES_MODIFIED);
+        builder.setTransitUri("kafka://broker-" + (index % 3) + ":9092/events-" + (index % 8));
+        builder.fromFlowFile(TestUtil.createFlowFile(index, 1024L + index % 4096, attributes));
+        builder.setComponentId(UUID.nameUUIDFromBytes(String.valueOf(index % 20).getBytes()).toString());
+        builder.setComponentType("ConsumeKafkaRecord_2_6");
+        builder.setCurrentContentClaim("default", String.valueOf(index % 1024), "1700000000000-" + (index / 100), (index % 100) * 1024L, 1024L + index % 4096);
+        return builder.build();
+    }
+}
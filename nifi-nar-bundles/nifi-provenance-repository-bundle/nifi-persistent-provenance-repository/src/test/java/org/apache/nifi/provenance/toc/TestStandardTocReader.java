@@ -18,6 +18,9 @@ package org.apache.nifi.provenance.toc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.DataOutputStream;
@@ -27,6 +30,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.UUID;
 
+import org.apache.nifi.provenance.serialization.EventFileCompression;
 import org.junit.jupiter.api.Test;
 
 public class TestStandardTocReader {
@@ -63,6 +67,48 @@ public class TestStandardTocReader {
     }
 
 
+    @Test
+    public void testDetectsCompressionCodec() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID());
+
+        try {
+            try (final StandardTocWriter writer = new StandardTocWriter(file, (EventFileCompression) null, false)) {
+                writer.addBlockOffset(0L, 0L);
+            }
+            try (final StandardTocReader reader = new StandardTocReader(file)) {
+                assertFalse(reader.isCompressed());
+                assertNull(reader.getCompression());
+            }
+
+            for (final EventFileCompression compression : EventFileCompression.values()) {
+                try (final StandardTocWriter writer = new StandardTocWriter(file, compression, false)) {
+                    writer.addBlockOffset(0L, 0L);
+                }
+                try (final StandardTocReader reader = new StandardTocReader(file)) {
+                    assertTrue(reader.isCompressed());
+                    assertSame(compression, reader.getCompression());
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUnknownCompressionFlag() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID());
+        try (final OutputStream out = new FileOutputStream(file)) {
+            out.write(StandardTocWriter.VERSION);
+            out.write(99);
+        }
+
+        try {
+            assertThrows(IOException.class, () -> new StandardTocReader(file));
+        } finally {
+            file.delete();
+        }
+    }
+
     @Test
     public void testGetBlockIndexV1() throws IOException {
         final File file = new File("target/" + UUID.randomUUID());
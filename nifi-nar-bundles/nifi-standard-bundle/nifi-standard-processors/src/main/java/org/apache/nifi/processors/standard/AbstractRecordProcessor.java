@@ -29,12 +29,15 @@ import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.io.StreamCallback;
 import org.apache.nifi.schema.access.SchemaNotFoundException;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.RecordBatchWriter;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
 import org.apache.nifi.serialization.RecordSetWriter;
 import org.apache.nifi.serialization.RecordSetWriterFactory;
 import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSchema;
 
 import java.io.IOException;
@@ -112,6 +115,7 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         final RecordReaderFactory readerFactory = context.getProperty(RECORD_READER).asControllerService(RecordReaderFactory.class);
         final RecordSetWriterFactory writerFactory = context.getProperty(RECORD_WRITER).asControllerService(RecordSetWriterFactory.class);
         final boolean includeZeroRecordFlowFiles = context.getProperty(INCLUDE_ZERO_RECORD_FLOWFILES).isSet()? context.getProperty(INCLUDE_ZERO_RECORD_FLOWFILES).asBoolean():true;
+        final int recordBatchSize = getRecordBatchSize(context);
 
         final Map<String, String> attributes = new HashMap<>();
         final AtomicInteger recordCount = new AtomicInteger();
@@ -125,6 +129,20 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
 
                     try (final RecordReader reader = readerFactory.createRecordReader(originalAttributes, in, original.getSize(), getLogger())) {
 
+                        // Records that are not changed by the Processor can be read and written a batch at a time, using the Reader's schema
+                        if (recordBatchSize > 0) {
+                            final RecordSchema writeSchema = writerFactory.getSchema(originalAttributes, reader.getSchema());
+                            try (final RecordSetWriter writer = writerFactory.createWriter(getLogger(), writeSchema, out, originalAttributes)) {
+                                final WriteResult writeResult = writeBatches(RecordBatchReader.of(reader), RecordBatchWriter.of(writer), recordBatchSize);
+                                attributes.put("record.count", String.valueOf(writeResult.getRecordCount()));
+                                attributes.put(CoreAttributes.MIME_TYPE.key(), writer.getMimeType());
+                                attributes.putAll(writeResult.getAttributes());
+                                recordCount.set(writeResult.getRecordCount());
+                            }
+
+                            return;
+                        }
+
                         // Get the first record and process it before we create the Record Writer. We do this so that if the Processor
                         // updates the Record's schema, we can provide an updated schema to the Record Writer. If there are no records,
                         // then we can simply create the Writer with the Reader's schema and begin & end the Record Set.
@@ -199,5 +217,28 @@ public abstract class AbstractRecordProcessor extends AbstractProcessor {
         getLogger().info("Successfully converted {} records for {}", new Object[] {count, flowFile});
     }
 
+    private WriteResult writeBatches(final RecordBatchReader reader, final RecordBatchWriter writer, final int recordBatchSize)
+            throws IOException, MalformedRecordException {
+        final RecordBatch batch = new RecordBatch(reader.getSchema(), recordBatchSize);
+
+        writer.beginRecordSet();
+        while (reader.nextBatch(batch) > 0) {
+            writer.writeBatch(batch);
+        }
+
+        return writer.finishRecordSet();
+    }
+
+    /**
+     * Returns the number of Records to read into each {@link RecordBatch} and write together, in which case Records are not passed to
+     * {@link #process(Record, FlowFile, ProcessContext, long)}. Only Processors that do not change Records should return a positive value.
+     *
+     * @param context the Process Context
+     * @return the number of Records in each batch, or <code>0</code> to process one Record at a time
+     */
+    protected int getRecordBatchSize(final ProcessContext context) {
+        return 0;
+    }
+
     protected abstract Record process(Record record, FlowFile flowFile, ProcessContext context, long count);
 }
@@ -27,8 +27,10 @@ import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
 import org.apache.nifi.annotation.documentation.UseCase;
 import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.expression.ExpressionLanguageScope;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.serialization.record.Record;
 
 import java.util.ArrayList;
@@ -56,13 +58,32 @@ import java.util.List;
 )
 public class ConvertRecord extends AbstractRecordProcessor {
 
+    static final PropertyDescriptor RECORD_BATCH_SIZE = new PropertyDescriptor.Builder()
+        .name("record-batch-size")
+        .displayName("Record Batch Size")
+        .description("The number of Records to read into columns at a time and write together. Record Readers and Writers that support batches, such as "
+            + "the Avro, CSV, JSON and Parquet Readers and Writers, then convert the data without creating an object for each Record, while other "
+            + "Readers and Writers still handle one Record at a time. Only fields that are part of the Reader's schema are written when batching. "
+            + "If 0, Records are converted one at a time.")
+        .expressionLanguageSupported(ExpressionLanguageScope.NONE)
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .defaultValue("0")
+        .required(true)
+        .build();
+
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
         final List<PropertyDescriptor> properties = new ArrayList<>(super.getSupportedPropertyDescriptors());
         properties.add(INCLUDE_ZERO_RECORD_FLOWFILES);
+        properties.add(RECORD_BATCH_SIZE);
         return properties;
     }
 
+    @Override
+    protected int getRecordBatchSize(final ProcessContext context) {
+        return context.getProperty(RECORD_BATCH_SIZE).asInteger();
+    }
+
     @Override
     protected Record process(final Record record, final FlowFile flowFile, final ProcessContext context, final long count) {
         return record;
@@ -88,6 +88,74 @@ public class TestConvertRecord {
         out.assertContentEquals("header\nJohn Doe,48\nJane Doe,47\nJimmy Doe,14\n");
     }
 
+    @Test
+    public void testSuccessfulConversionInBatches() throws InitializationException {
+        final MockRecordParser readerService = new MockRecordParser();
+        final MockRecordWriter writerService = new MockRecordWriter("header", false);
+
+        final TestRunner runner = TestRunners.newTestRunner(ConvertRecord.class);
+        runner.addControllerService("reader", readerService);
+        runner.enableControllerService(readerService);
+        runner.addControllerService("writer", writerService);
+        runner.enableControllerService(writerService);
+
+        runner.setProperty(ConvertRecord.RECORD_READER, "reader");
+        runner.setProperty(ConvertRecord.RECORD_WRITER, "writer");
+        runner.setProperty(ConvertRecord.RECORD_BATCH_SIZE, "2");
+
+        readerService.addSchemaField("name", RecordFieldType.STRING);
+        readerService.addSchemaField("age", RecordFieldType.INT);
+
+        readerService.addRecord("John Doe", 48);
+        readerService.addRecord("Jane Doe", 47);
+        readerService.addRecord("Jimmy Doe", 14);
+
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(ConvertRecord.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(ConvertRecord.REL_SUCCESS).get(0);
+
+        out.assertAttributeEquals("record.count", "3");
+        out.assertAttributeEquals("mime.type", "text/plain");
+        out.assertContentEquals("header\nJohn Doe,48\nJane Doe,47\nJimmy Doe,14\n");
+    }
+
+    @Test
+    public void testCSVToJSONInBatches() throws InitializationException {
+        final TestRunner runner = TestRunners.newTestRunner(ConvertRecord.class);
+
+        final CSVReader csvReader = new CSVReader();
+        runner.addControllerService("csv-reader", csvReader);
+        runner.enableControllerService(csvReader);
+
+        final JsonRecordSetWriter jsonWriter = new JsonRecordSetWriter();
+        runner.addControllerService("json-writer", jsonWriter);
+        runner.enableControllerService(jsonWriter);
+
+        runner.setProperty(ConvertRecord.RECORD_READER, "csv-reader");
+        runner.setProperty(ConvertRecord.RECORD_WRITER, "json-writer");
+
+        final String content = "id,name,balance,active\n" +
+                "1,John Doe,4750.89,true\n" +
+                "2,Jane Doe,,false\n" +
+                "3,Jimmy Doe,-12.5,true\n";
+
+        runner.enqueue(content);
+        runner.run();
+
+        runner.setProperty(ConvertRecord.RECORD_BATCH_SIZE, "2");
+        runner.enqueue(content);
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(ConvertRecord.REL_SUCCESS, 2);
+        final MockFlowFile converted = runner.getFlowFilesForRelationship(ConvertRecord.REL_SUCCESS).get(0);
+        final MockFlowFile convertedInBatches = runner.getFlowFilesForRelationship(ConvertRecord.REL_SUCCESS).get(1);
+
+        convertedInBatches.assertAttributeEquals("record.count", "3");
+        convertedInBatches.assertContentEquals(converted.getContent());
+    }
+
     @Test
     public void testDropEmpty() throws InitializationException {
         final MockRecordParser readerService = new MockRecordParser();
@@ -35,6 +35,9 @@ public abstract class DistributedCacheServer extends AbstractControllerService {
     public static final String EVICTION_STRATEGY_LRU = "Least Recently Used";
     public static final String EVICTION_STRATEGY_FIFO = "First In, First Out";
 
+    public static final String PERSISTENCE_STRATEGY_WRITE_AHEAD_LOG = "Write-Ahead Log";
+    public static final String PERSISTENCE_STRATEGY_LOG_STRUCTURED = "Log-Structured";
+
     public static final PropertyDescriptor PORT = new PropertyDescriptor.Builder()
         .name("Port")
         .description("The port to listen on for incoming connections")
@@ -69,6 +72,30 @@ public abstract class DistributedCacheServer extends AbstractControllerService {
         .required(false)
         .addValidator(StandardValidators.createDirectoryExistsValidator(true, true))
         .build();
+    public static final PropertyDescriptor PERSISTENCE_STRATEGY = new PropertyDescriptor.Builder()
+        .name("persistence-strategy")
+        .displayName("Persistence Strategy")
+        .description("Determines how the cache is persisted in the Persistence Directory. " + PERSISTENCE_STRATEGY_WRITE_AHEAD_LOG + " records every change "
+            + "in a Write-Ahead Log and loads every entry into memory on startup. " + PERSISTENCE_STRATEGY_LOG_STRUCTURED + " appends entries to "
+            + "memory-mapped segment files, from which they are read, so that only an index of the keys is rebuilt on startup, and compacts the "
+            + "segments in the background. Entries persisted with one strategy are not available to the other.")
+        .required(true)
+        .allowableValues(PERSISTENCE_STRATEGY_WRITE_AHEAD_LOG, PERSISTENCE_STRATEGY_LOG_STRUCTURED)
+        .defaultValue(PERSISTENCE_STRATEGY_WRITE_AHEAD_LOG)
+        .dependsOn(PERSISTENCE_PATH)
+        .build();
+    public static final PropertyDescriptor SYNC_INTERVAL = new PropertyDescriptor.Builder()
+        .name("sync-interval")
+        .displayName("Sync Interval")
+        .description("How often changes to a cache persisted with the " + PERSISTENCE_STRATEGY_LOG_STRUCTURED + " Persistence Strategy are forced to disk. "
+            + "A change is acknowledged once it has been written to a memory-mapped segment file, so it survives NiFi stopping or crashing, but "
+            + "changes made within this interval before the operating system crashes or the host loses power may be lost. A value of 0 sec "
+            + "forces changes to disk only when a segment file is filled, during compaction and on shutdown.")
+        .required(true)
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .defaultValue("1 sec")
+        .dependsOn(PERSISTENCE_STRATEGY, PERSISTENCE_STRATEGY_LOG_STRUCTURED)
+        .build();
     public static final PropertyDescriptor MAX_READ_SIZE = new PropertyDescriptor.Builder()
         .name("maximum-read-size")
         .displayName("Maximum Read Size")
@@ -87,6 +114,8 @@ public abstract class DistributedCacheServer extends AbstractControllerService {
         properties.add(MAX_CACHE_ENTRIES);
         properties.add(EVICTION_POLICY);
         properties.add(PERSISTENCE_PATH);
+        properties.add(PERSISTENCE_STRATEGY);
+        properties.add(SYNC_INTERVAL);
         properties.add(SSL_CONTEXT_SERVICE);
         properties.add(MAX_READ_SIZE);
         return properties;
@@ -17,10 +17,13 @@
 package org.apache.nifi.distributed.cache.server;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
 import org.apache.nifi.controller.ConfigurationContext;
+import org.apache.nifi.distributed.cache.server.set.LogStructuredSetCache;
 import org.apache.nifi.distributed.cache.server.set.StandardSetCacheServer;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.ssl.SSLContextService;
@@ -38,6 +41,7 @@ public class DistributedSetCacheServer extends DistributedCacheServer {
         final int maxSize = context.getProperty(MAX_CACHE_ENTRIES).asInteger();
         final String evictionPolicyName = context.getProperty(EVICTION_POLICY).getValue();
         final int maxReadSize = context.getProperty(MAX_READ_SIZE).asDataSize(DataUnit.B).intValue();
+        final String persistenceStrategy = context.getProperty(PERSISTENCE_STRATEGY).getValue();
 
         final SSLContext sslContext = sslContextService == null ? null : sslContextService.createContext();
 
@@ -59,6 +63,20 @@ public class DistributedSetCacheServer extends DistributedCacheServer {
         try {
             final File persistenceDir = persistencePath == null ? null : new File(persistencePath);
 
+            if (persistenceDir != null && PERSISTENCE_STRATEGY_LOG_STRUCTURED.equals(persistenceStrategy)) {
+                final long syncIntervalMillis = context.getProperty(SYNC_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS);
+                final LogStructuredSetCache logStructuredCache = new LogStructuredSetCache(getIdentifier(), maxSize, evictionPolicy, persistenceDir, syncIntervalMillis);
+                try {
+                    logStructuredCache.restore();
+                } catch (final IOException e) {
+                    logStructuredCache.shutdown();
+                    throw e;
+                }
+
+                // The cache persists itself, so no Persistence Directory is given to the server
+                return new StandardSetCacheServer(getLogger(), getIdentifier(), sslContext, port, logStructuredCache, null, maxReadSize);
+            }
+
             return new StandardSetCacheServer(getLogger(), getIdentifier(), sslContext, port, maxSize, evictionPolicy, persistenceDir, maxReadSize);
         } catch (final Exception e) {
             throw new RuntimeException(e);
@@ -18,10 +18,14 @@ package org.apache.nifi.distributed.cache.server.map;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.SeeAlso;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.controller.ConfigurationContext;
 import org.apache.nifi.distributed.cache.server.CacheServer;
 import org.apache.nifi.distributed.cache.server.DistributedCacheServer;
@@ -35,6 +39,32 @@ import org.apache.nifi.ssl.SSLContextService;
 @SeeAlso(classNames = {"org.apache.nifi.distributed.cache.client.DistributedMapCacheClientService", "org.apache.nifi.ssl.StandardSSLContextService"})
 public class DistributedMapCacheServer extends DistributedCacheServer {
 
+    public static final String CACHE_STORAGE_HEAP = "Heap";
+    public static final String CACHE_STORAGE_OFF_HEAP = "Striped Off-Heap";
+
+    public static final PropertyDescriptor CACHE_STORAGE = new PropertyDescriptor.Builder()
+        .name("cache-storage")
+        .displayName("Cache Storage")
+        .description("Determines how cache entries are stored. " + CACHE_STORAGE_HEAP + " keeps entries on the Java heap, guarded by a single lock. "
+            + CACHE_STORAGE_OFF_HEAP + " keeps keys and values in direct memory, outside of the Java heap, and divides entries between independently "
+            + "locked stripes, each of which evicts from its own share of the Maximum Cache Entries. Each stripe allocates direct memory in slabs of "
+            + "64 KB to 1 MB, sized from its share of the Maximum Cache Entries, and holds a partially filled slab for each size of entry that it "
+            + "stores, so the direct memory required is the size of the keys and values plus up to a few megabytes per stripe. There are at most "
+            + "four stripes per available processor, and one stripe per 1024 Maximum Cache Entries. Direct memory is limited by the "
+            + "-XX:MaxDirectMemorySize JVM argument, which defaults to the maximum heap size. Entries of a cache persisted with the "
+            + PERSISTENCE_STRATEGY_LOG_STRUCTURED + " Persistence Strategy are read from memory-mapped files, regardless of this property.")
+        .required(true)
+        .allowableValues(CACHE_STORAGE_HEAP, CACHE_STORAGE_OFF_HEAP)
+        .defaultValue(CACHE_STORAGE_HEAP)
+        .build();
+
+    @Override
+    protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+        final List<PropertyDescriptor> properties = new ArrayList<>(super.getSupportedPropertyDescriptors());
+        properties.add(CACHE_STORAGE);
+        return properties;
+    }
+
     @Override
     protected CacheServer createCacheServer(final ConfigurationContext context) {
         final int port = context.getProperty(PORT).asInteger();
@@ -43,6 +73,8 @@ public class DistributedMapCacheServer extends DistributedCacheServer {
         final int maxSize = context.getProperty(MAX_CACHE_ENTRIES).asInteger();
         final String evictionPolicyName = context.getProperty(EVICTION_POLICY).getValue();
         final int maxReadSize = context.getProperty(MAX_READ_SIZE).asDataSize(DataUnit.B).intValue();
+        final String cacheStorage = context.getProperty(CACHE_STORAGE).getValue();
+        final String persistenceStrategy = context.getProperty(PERSISTENCE_STRATEGY).getValue();
 
         final SSLContext sslContext;
         if (sslContextService == null) {
@@ -69,6 +101,25 @@ public class DistributedMapCacheServer extends DistributedCacheServer {
         try {
             final File persistenceDir = persistencePath == null ? null : new File(persistencePath);
 
+            if (persistenceDir != null && PERSISTENCE_STRATEGY_LOG_STRUCTURED.equals(persistenceStrategy)) {
+                final long syncIntervalMillis = context.getProperty(SYNC_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS);
+                final LogStructuredMapCache logStructuredCache = new LogStructuredMapCache(getIdentifier(), maxSize, evictionPolicy, persistenceDir, syncIntervalMillis);
+                try {
+                    logStructuredCache.restore();
+                } catch (final IOException e) {
+                    logStructuredCache.shutdown();
+                    throw e;
+                }
+
+                // The cache persists itself, so no Persistence Directory is given to the server
+                return new StandardMapCacheServer(getLogger(), getIdentifier(), sslContext, port, logStructuredCache, null, maxReadSize);
+            }
+
+            if (CACHE_STORAGE_OFF_HEAP.equals(cacheStorage)) {
+                final MapCache offHeapCache = new StripedMapCache(getIdentifier(), maxSize, evictionPolicy);
+                return new StandardMapCacheServer(getLogger(), getIdentifier(), sslContext, port, offHeapCache, persistenceDir, maxReadSize);
+            }
+
             return createMapCacheServer(port, maxSize, sslContext, evictionPolicy, persistenceDir, maxReadSize);
         } catch (final Exception e) {
             throw new RuntimeException(e);
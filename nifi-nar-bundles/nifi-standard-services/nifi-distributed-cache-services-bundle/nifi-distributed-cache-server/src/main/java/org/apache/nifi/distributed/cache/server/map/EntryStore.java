@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Storage for the keys and values of a {@link StripedMapCache}. Each entry is identified by the address returned when it is stored,
+ * along with the lengths of its key and value, which the cache keeps alongside the address.
+ */
+interface EntryStore {
+
+    /**
+     * Stores the remaining bytes of the given key and value, without changing the position of either buffer
+     *
+     * @return the address of the stored entry
+     */
+    long store(ByteBuffer key, ByteBuffer value, long revision) throws IOException;
+
+    byte[] readKey(long address, int keyLength);
+
+    byte[] readValue(long address, int keyLength, int valueLength);
+
+    /**
+     * @return <code>true</code> if the key of the entry at the given address equals the remaining bytes of the given key
+     */
+    boolean matches(long address, ByteBuffer key);
+
+    /**
+     * Releases an entry that is no longer part of the cache
+     *
+     * @param deleted <code>true</code> if the key was removed from the cache, <code>false</code> if the entry was replaced by
+     * another entry with the same key
+     */
+    void release(long address, int keyLength, int valueLength, boolean deleted) throws IOException;
+
+    /**
+     * Releases all resources held by the store, after which no address may be used
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.distributed.cache.server.EvictionPolicy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link StripedMapCache} whose keys and values are persisted in a {@link LogStructuredStore} and read back from its memory-mapped
+ * segment files, rather than being held in memory. Restoring the cache after a restart replays the log to rebuild the index of keys,
+ * without reading any values, and a background task compacts segments whose records are mostly no longer live.
+ * <p>
+ * Hit counts and access times are not persisted, so restored entries are evicted in the order in which they were last written.
+ * </p>
+ * <p>
+ * A change is acknowledged once it has been written to the memory-mapped segment, before it has been forced to disk. It survives NiFi
+ * stopping or crashing, but changes made since the segment was last forced to disk, which happens at the configured sync interval,
+ * may be lost if the operating system crashes or the host loses power.
+ * </p>
+ */
+public class LogStructuredMapCache extends StripedMapCache {
+
+    static final double COMPACTION_LIVE_FRACTION = 0.5D;
+
+    private static final long COMPACTION_INTERVAL_SECONDS = 30;
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredMapCache.class);
+
+    private final String serviceIdentifier;
+
+    private final LogStructuredStore store;
+
+    private final long syncIntervalMillis;
+
+    private final ScheduledExecutorService maintenanceExecutor;
+
+    /**
+     * @param syncIntervalMillis the number of milliseconds between forcing changes to disk, or <code>0</code> to force them to disk only
+     *            when a segment is filled, during compaction and on shutdown
+     */
+    public LogStructuredMapCache(final String serviceIdentifier, final int maxSize, final EvictionPolicy evictionPolicy, final File persistencePath,
+                                 final long syncIntervalMillis) throws IOException {
+        this(serviceIdentifier, maxSize, evictionPolicy, new LogStructuredStore(persistencePath, LogStructuredStore.DEFAULT_SEGMENT_SIZE), syncIntervalMillis, true);
+    }
+
+    LogStructuredMapCache(final String serviceIdentifier, final int maxSize, final EvictionPolicy evictionPolicy, final LogStructuredStore store,
+                          final long syncIntervalMillis, final boolean scheduleMaintenance) {
+        super(serviceIdentifier, maxSize, evictionPolicy, Runtime.getRuntime().availableProcessors() * 4, capacity -> store);
+        this.serviceIdentifier = serviceIdentifier;
+        this.store = store;
+        this.syncIntervalMillis = syncIntervalMillis;
+
+        if (scheduleMaintenance) {
+            maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "Log-Structured Cache Maintenance [" + serviceIdentifier + "]");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            maintenanceExecutor = null;
+        }
+    }
+
+    /**
+     * Rebuilds the cache from the log, after which the cache may be used and compaction and syncing are scheduled
+     */
+    public synchronized void restore() throws IOException {
+        store.recover(new LogStructuredStore.RecordVisitor() {
+            @Override
+            public void visitPut(final ByteBuffer key, final long address, final int keyLength, final int valueLength, final long revision) throws IOException {
+                recover(key, address, keyLength, valueLength, revision);
+            }
+
+            @Override
+            public void visitDelete(final ByteBuffer key, final long address) throws IOException {
+                recoverDeletion(key);
+            }
+        });
+
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.scheduleWithFixedDelay(this::compactQuietly, COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            if (syncIntervalMillis > 0) {
+                maintenanceExecutor.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Compacts every segment in which no more than half of the bytes belong to live records, and writes appended records to disk
+     *
+     * @return the number of segments compacted
+     */
+    synchronized int compact() throws IOException {
+        int compacted = 0;
+        for (final int segmentId : store.getCompactableSegments(COMPACTION_LIVE_FRACTION)) {
+            store.compact(segmentId, new LogStructuredStore.RecordVisitor() {
+                @Override
+                public void visitPut(final ByteBuffer key, final long address, final int keyLength, final int valueLength, final long revision) throws IOException {
+                    relocate(key, address, store::copy);
+                }
+
+                @Override
+                public void visitDelete(final ByteBuffer key, final long address) throws IOException {
+                    // A deletion only needs to be kept while the key is absent, since a later record for the key supersedes it
+                    updateIfAbsent(key, address, store::copy);
+                }
+            });
+            compacted++;
+        }
+
+        store.force();
+        return compacted;
+    }
+
+    private void compactQuietly() {
+        try {
+            final int compacted = compact();
+            if (compacted > 0) {
+                logger.debug("Compacted {} segments of {}", compacted, this);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to compact {}", this, e);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            store.force();
+        } catch (final Exception e) {
+            logger.error("Failed to sync {} to disk", this, e);
+        }
+    }
+
+    int getSegmentCount() {
+        return store.getSegmentCount();
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+            try {
+                maintenanceExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Waits for any compaction that is still running, since shutting down unmaps the segments that it reads
+        synchronized (this) {
+            super.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LogStructuredMapCache[service id=" + serviceIdentifier + "]";
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.apache.nifi.util.file.MappedFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link EntryStore} that appends entries to a log of memory-mapped segment files, from which entries are also read. Removing an
+ * entry appends a deletion record, so that the log can be replayed in order to recover the entries after a restart. Once most of the
+ * records in a segment are no longer live, the segment can be compacted by copying its live records to the end of the log and
+ * deleting the segment file.
+ * <p>
+ * Each record is laid out as a one byte record type, the key length, the value length, the revision, the key, the value and a CRC-32
+ * checksum of all of the preceding bytes. Segment files are created at their full size by writing zeros to them, so that the disk space
+ * is allocated before the file is mapped and running out of disk space fails the append that needed a new segment, rather than the
+ * JVM. A record type of zero therefore marks the end of the records in a segment, and a record whose checksum does not match, such as
+ * one partially written before a crash, is treated as the end of its segment.
+ * </p>
+ * <p>
+ * Appended records are written to the mapped files, and so survive the JVM exiting, but are only forced to disk when a segment is
+ * filled, before a compacted segment is deleted, on {@link #force()} and on close. Records appended since the last of these may be
+ * lost if the operating system crashes or the host loses power.
+ * </p>
+ * <p>
+ * The store is thread-safe. An address holds the segment identifier in the upper 32 bits and the offset of the record within the
+ * segment in the lower 32 bits.
+ * </p>
+ */
+class LogStructuredStore implements EntryStore {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    static final byte PUT_RECORD = 1;
+
+    static final byte DELETE_RECORD = 2;
+
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int RECORD_OVERHEAD = HEADER_LENGTH + Integer.BYTES;
+
+    private static final String SEGMENT_DIRECTORY = "segments";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final Pattern SEGMENT_FILE_PATTERN = Pattern.compile("(\\d+)\\" + SEGMENT_SUFFIX);
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredStore.class);
+
+    private final File segmentDirectory;
+
+    private final int segmentSize;
+
+    private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final FileChannel lockChannel;
+
+    private final FileLock lock;
+
+    // Guarded by this
+    private Segment activeSegment;
+
+    LogStructuredStore(final File persistencePath, final int segmentSize) throws IOException {
+        this.segmentDirectory = new File(persistencePath, SEGMENT_DIRECTORY);
+        this.segmentSize = segmentSize;
+
+        if (!segmentDirectory.exists() && !segmentDirectory.mkdirs()) {
+            throw new IOException("Failed to create directory " + segmentDirectory);
+        }
+
+        lockChannel = FileChannel.open(new File(segmentDirectory, ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            lockChannel.close();
+            throw new IOException("Directory " + segmentDirectory + " is already in use by another cache", e);
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Directory " + segmentDirectory + " is already in use by another process");
+        }
+    }
+
+    /**
+     * Opens the existing segments and replays their records in order. Records appended from now on, including any deletion records
+     * appended by the visitor, are written to a new segment, so that existing segments are never written to again. This must be
+     * called before the store is used by any other thread.
+     */
+    void recover(final RecordVisitor visitor) throws IOException {
+        final List<Segment> recovered = new ArrayList<>();
+        final File[] files = segmentDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final Matcher matcher = SEGMENT_FILE_PATTERN.matcher(file.getName());
+                if (matcher.matches()) {
+                    final int segmentId = Integer.parseInt(matcher.group(1));
+                    final Segment segment = new Segment(segmentId, file, (int) file.length());
+                    segments.put(segmentId, segment);
+                    recovered.add(segment);
+                }
+            }
+        }
+
+        synchronized (this) {
+            final int nextSegmentId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            activeSegment = createSegment(nextSegmentId, segmentSize);
+        }
+
+        recovered.sort(Comparator.comparingInt(segment -> segment.id));
+        for (final Segment segment : recovered) {
+            recover(segment, visitor);
+        }
+    }
+
+    private void recover(final Segment segment, final RecordVisitor visitor) throws IOException {
+        final MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_OVERHEAD <= segment.capacity) {
+            final byte recordType = buffer.get(position);
+            if (recordType == 0) {
+                break;
+            }
+
+            final int keyLength = buffer.getInt(position + 1);
+            final int valueLength = buffer.getInt(position + 5);
+            final long recordLength = (long) RECORD_OVERHEAD + keyLength + valueLength;
+            if ((recordType != PUT_RECORD && recordType != DELETE_RECORD) || keyLength < 0 || valueLength < 0
+                    || position + recordLength > segment.capacity || !isChecksumValid(buffer, position, (int) recordLength)) {
+                logger.warn("Found invalid record at offset {} of {}; ignoring the remainder of the segment", position, segment.file);
+                break;
+            }
+
+            final long address = address(segment.id, position);
+            final ByteBuffer key = buffer.slice(position + HEADER_LENGTH, keyLength);
+            if (recordType == PUT_RECORD) {
+                segment.liveBytes += recordLength;
+                visitor.visitPut(key, address, keyLength, valueLength, buffer.getLong(position + 9));
+            } else {
+                visitor.visitDelete(key, address);
+            }
+
+            position += (int) recordLength;
+        }
+
+        segment.writePosition = position;
+    }
+
+    @Override
+    public long store(final ByteBuffer key, final ByteBuffer value, final long revision) throws IOException {
+        return append(PUT_RECORD, key, value, revision);
+    }
+
+    @Override
+    public byte[] readKey(final long address, final int keyLength) {
+        final byte[] key = new byte[keyLength];
+        getSegment(address).buffer.get(offset(address) + HEADER_LENGTH, key);
+        return key;
+    }
+
+    @Override
+    public byte[] readValue(final long address, final int keyLength, final int valueLength) {
+        final byte[] value = new byte[valueLength];
+        getSegment(address).buffer.get(offset(address) + HEADER_LENGTH + keyLength, value);
+        return value;
+    }
+
+    @Override
+    public boolean matches(final long address, final ByteBuffer key) {
+        return getSegment(address).buffer.slice(offset(address) + HEADER_LENGTH, key.remaining()).mismatch(key) == -1;
+    }
+
+    @Override
+    public synchronized void release(final long address, final int keyLength, final int valueLength, final boolean deleted) throws IOException {
+        final Segment segment = getSegment(address);
+        segment.liveBytes -= RECORD_OVERHEAD + keyLength + valueLength;
+
+        if (deleted) {
+            final ByteBuffer key = segment.buffer.slice(offset(address) + HEADER_LENGTH, keyLength);
+            append(DELETE_RECORD, key, ByteBuffer.allocate(0), 0);
+        }
+    }
+
+    /**
+     * @return the identifiers of the segments, other than the segment being appended to, in which no more than the given
+     * fraction of the bytes belong to live records
+     */
+    synchronized List<Integer> getCompactableSegments(final double maxLiveFraction) {
+        final List<Integer> compactable = new ArrayList<>();
+        for (final Segment segment : segments.values()) {
+            if (segment != activeSegment && segment.liveBytes <= segment.writePosition * maxLiveFraction) {
+                compactable.add(segment.id);
+            }
+        }
+        return compactable;
+    }
+
+    /**
+     * Offers each record of the given segment to the given relocator, which may copy the record to the end of the log, and then
+     * deletes the segment. Deletion records are only offered if an older segment exists, since they are otherwise no longer needed.
+     */
+    void compact(final int segmentId, final RecordVisitor relocator) throws IOException {
+        final Segment segment = segments.get(segmentId);
+        if (segment == null) {
+            return;
+        }
+
+        final boolean oldest = segments.firstKey() == segmentId;
+        final MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position < segment.writePosition) {
+            final byte recordType = buffer.get(position);
+            final int keyLength = buffer.getInt(position + 1);
+            final int valueLength = buffer.getInt(position + 5);
+            final ByteBuffer key = buffer.slice(position + HEADER_LENGTH, keyLength);
+            final long address = address(segmentId, position);
+
+            if (recordType == PUT_RECORD) {
+                relocator.visitPut(key, address, keyLength, valueLength, buffer.getLong(position + 9));
+            } else if (!oldest) {
+                relocator.visitDelete(key, address);
+            }
+
+            position += RECORD_OVERHEAD + keyLength + valueLength;
+        }
+
+        synchronized (this) {
+            // The copies must be on disk before the segment holding the originals is deleted
+            force();
+            segments.remove(segmentId);
+            segment.close();
+        }
+        if (!segment.file.delete()) {
+            logger.warn("Failed to delete compacted segment {}", segment.file);
+        }
+    }
+
+    /**
+     * Appends a copy of the record at the given address to the end of the log
+     *
+     * @return the address of the copy
+     */
+    synchronized long copy(final long address) throws IOException {
+        final Segment source = getSegment(address);
+        final int offset = offset(address);
+        final int recordLength = RECORD_OVERHEAD + source.buffer.getInt(offset + 1) + source.buffer.getInt(offset + 5);
+
+        final Segment segment = getSegmentForAppend(recordLength);
+        final int position = segment.writePosition;
+        segment.buffer.put(position, source.buffer, offset, recordLength);
+        segment.writePosition += recordLength;
+
+        if (source.buffer.get(offset) == PUT_RECORD) {
+            source.liveBytes -= recordLength;
+            segment.liveBytes += recordLength;
+        }
+        return address(segment.id, position);
+    }
+
+    /**
+     * Writes the records appended so far to the underlying files
+     */
+    synchronized void force() {
+        if (activeSegment != null) {
+            activeSegment.buffer.force();
+        }
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            for (final Segment segment : segments.values()) {
+                segment.buffer.force();
+                segment.close();
+            }
+            segments.clear();
+            activeSegment = null;
+        } finally {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    private synchronized long append(final byte recordType, final ByteBuffer key, final ByteBuffer value, final long revision) throws IOException {
+        final int keyLength = key.remaining();
+        final int valueLength = value.remaining();
+        final int recordLength = RECORD_OVERHEAD + keyLength + valueLength;
+
+        final Segment segment = getSegmentForAppend(recordLength);
+        final MappedByteBuffer buffer = segment.buffer;
+        final int position = segment.writePosition;
+        buffer.put(position, recordType);
+        buffer.putInt(position + 1, keyLength);
+        buffer.putInt(position + 5, valueLength);
+        buffer.putLong(position + 9, revision);
+        buffer.put(position + HEADER_LENGTH, key, key.position(), keyLength);
+        buffer.put(position + HEADER_LENGTH + keyLength, value, value.position(), valueLength);
+
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(position, recordLength - Integer.BYTES));
+        buffer.putInt(position + recordLength - Integer.BYTES, (int) checksum.getValue());
+
+        segment.writePosition += recordLength;
+        if (recordType == PUT_RECORD) {
+            segment.liveBytes += recordLength;
+        }
+        return address(segment.id, position);
+    }
+
+    private Segment getSegmentForAppend(final int recordLength) throws IOException {
+        if (activeSegment == null) {
+            throw new IOException("Log-structured store for " + segmentDirectory + " has not been recovered or has been closed");
+        }
+
+        if (activeSegment.writePosition + recordLength > activeSegment.capacity) {
+            activeSegment.buffer.force();
+            // Records larger than the segment size are given a segment of their own
+            activeSegment = createSegment(activeSegment.id + 1, Math.max(segmentSize, recordLength));
+        }
+        return activeSegment;
+    }
+
+    private Segment createSegment(final int segmentId, final int capacity) throws IOException {
+        final File file = new File(segmentDirectory, String.format("%010d%s", segmentId, SEGMENT_SUFFIX));
+        final Segment segment = new Segment(segmentId, file, capacity);
+        segments.put(segmentId, segment);
+        return segment;
+    }
+
+    private Segment getSegment(final long address) {
+        final Segment segment = segments.get((int) (address >>> 32));
+        if (segment == null) {
+            throw new IllegalStateException("No segment exists for address " + address);
+        }
+        return segment;
+    }
+
+    private static boolean isChecksumValid(final MappedByteBuffer buffer, final int position, final int recordLength) {
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(position, recordLength - Integer.BYTES));
+        return (int) checksum.getValue() == buffer.getInt(position + recordLength - Integer.BYTES);
+    }
+
+    private static long address(final int segmentId, final int offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static int offset(final long address) {
+        return (int) address;
+    }
+
+    /**
+     * Receives the records of the log, whose keys are given as buffers over the mapped segment that are only valid during the call
+     */
+    interface RecordVisitor {
+        void visitPut(ByteBuffer key, long address, int keyLength, int valueLength, long revision) throws IOException;
+
+        void visitDelete(ByteBuffer key, long address) throws IOException;
+    }
+
+    private static class Segment {
+        private final int id;
+        private final File file;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        // Guarded by the store
+        private int writePosition;
+        private long liveBytes;
+
+        private Segment(final int id, final File file, final int capacity) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.capacity = capacity;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                final long length = channel.size();
+                if (length < capacity) {
+                    MappedFiles.preallocate(channel, length, capacity - length);
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            } catch (final IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Closes the segment and unmaps its buffer, so that the disk space of a deleted segment is released immediately rather than when
+         * the buffer is garbage collected. The cache only reads from a segment while a live entry refers to it, and no entry refers to a
+         * segment once it has been compacted or the cache has been shut down.
+         */
+        private void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                MappedFiles.unmap(buffer);
+            }
+        }
+    }
+}
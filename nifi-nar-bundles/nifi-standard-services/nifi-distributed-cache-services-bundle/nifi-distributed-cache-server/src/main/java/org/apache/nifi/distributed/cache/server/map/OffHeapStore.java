@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slab allocator that stores byte sequences outside of the Java heap. Memory is allocated in direct slabs, each of which is
+ * divided into chunks of a single size class, so that a chunk released by one entry can be reused by another entry of a similar
+ * size without fragmenting the slab. Byte sequences that are larger than a slab are given a dedicated direct buffer of their own.
+ * <p>
+ * A location within the store is addressed by a long holding the slab index in the upper 32 bits and the offset within the slab in
+ * the lower 32 bits. Each key is stored immediately followed by its value. Instances are not thread-safe and must be guarded by the caller.
+ * </p>
+ */
+class OffHeapStore implements EntryStore {
+
+    static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private static final int MINIMUM_CHUNK_SIZE = 32;
+
+    private static final double CHUNK_GROWTH_FACTOR = 1.25D;
+
+    private final int slabSize;
+
+    private final int[] chunkSizes;
+
+    private final LongStack[] freeChunks;
+
+    private final int[] currentSlabs;
+
+    private final int[] currentOffsets;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    private final LongStack freeSlabIndexes = new LongStack();
+
+    private long allocatedBytes;
+
+    OffHeapStore() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    OffHeapStore(final int slabSize) {
+        if (slabSize < MINIMUM_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Slab size must be at least " + MINIMUM_CHUNK_SIZE + " bytes");
+        }
+        this.slabSize = slabSize;
+
+        final List<Integer> sizes = new ArrayList<>();
+        int chunkSize = MINIMUM_CHUNK_SIZE;
+        while (chunkSize < slabSize) {
+            sizes.add(chunkSize);
+            // Chunks are kept 8-byte aligned
+            chunkSize = Math.max(chunkSize + 8, ((int) (chunkSize * CHUNK_GROWTH_FACTOR) + 7) & ~7);
+        }
+        sizes.add(slabSize);
+
+        chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        freeChunks = new LongStack[chunkSizes.length];
+        currentSlabs = new int[chunkSizes.length];
+        currentOffsets = new int[chunkSizes.length];
+        for (int i = 0; i < chunkSizes.length; i++) {
+            freeChunks[i] = new LongStack();
+            currentSlabs[i] = -1;
+        }
+    }
+
+    /**
+     * Allocates space for a byte sequence of the given length
+     *
+     * @param length the number of bytes to allocate
+     * @return the address of the allocated space
+     */
+    long allocate(final int length) {
+        if (length > slabSize) {
+            final int slabIndex = addSlab(ByteBuffer.allocateDirect(length));
+            allocatedBytes += length;
+            return address(slabIndex, 0);
+        }
+
+        final int chunkClass = getChunkClass(length);
+        final LongStack free = freeChunks[chunkClass];
+        if (!free.isEmpty()) {
+            return free.pop();
+        }
+
+        final int chunkSize = chunkSizes[chunkClass];
+        if (currentSlabs[chunkClass] < 0 || currentOffsets[chunkClass] + chunkSize > slabSize) {
+            currentSlabs[chunkClass] = addSlab(ByteBuffer.allocateDirect(slabSize));
+            currentOffsets[chunkClass] = 0;
+            allocatedBytes += slabSize;
+        }
+
+        final long address = address(currentSlabs[chunkClass], currentOffsets[chunkClass]);
+        currentOffsets[chunkClass] += chunkSize;
+        return address;
+    }
+
+    /**
+     * Releases space that was previously allocated
+     *
+     * @param address the address returned from {@link #allocate(int)}
+     * @param length the length that was given to {@link #allocate(int)}
+     */
+    void free(final long address, final int length) {
+        if (length > slabSize) {
+            final int slabIndex = slabIndex(address);
+            slabs.set(slabIndex, null);
+            freeSlabIndexes.push(slabIndex);
+            allocatedBytes -= length;
+            return;
+        }
+
+        freeChunks[getChunkClass(length)].push(address);
+    }
+
+    void write(final long address, final int position, final ByteBuffer source) {
+        slab(address).put(offset(address) + position, source, source.position(), source.remaining());
+    }
+
+    byte[] read(final long address, final int position, final int length) {
+        final byte[] bytes = new byte[length];
+        slab(address).get(offset(address) + position, bytes);
+        return bytes;
+    }
+
+    boolean matches(final long address, final int position, final ByteBuffer expected) {
+        final int length = expected.remaining();
+        final int start = offset(address) + position;
+        return slab(address).slice(start, length).mismatch(expected) == -1;
+    }
+
+    @Override
+    public long store(final ByteBuffer key, final ByteBuffer value, final long revision) {
+        final int keyLength = key.remaining();
+        final long address = allocate(keyLength + value.remaining());
+        write(address, 0, key);
+        write(address, keyLength, value);
+        return address;
+    }
+
+    @Override
+    public byte[] readKey(final long address, final int keyLength) {
+        return read(address, 0, keyLength);
+    }
+
+    @Override
+    public byte[] readValue(final long address, final int keyLength, final int valueLength) {
+        return read(address, keyLength, valueLength);
+    }
+
+    @Override
+    public boolean matches(final long address, final ByteBuffer key) {
+        return matches(address, 0, key);
+    }
+
+    @Override
+    public void release(final long address, final int keyLength, final int valueLength, final boolean deleted) {
+        free(address, keyLength + valueLength);
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * @return the number of bytes of direct memory held by this store
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Releases all slabs, invalidating every address previously returned from this store
+     */
+    void clear() {
+        slabs.clear();
+        freeSlabIndexes.clear();
+        for (int i = 0; i < chunkSizes.length; i++) {
+            freeChunks[i].clear();
+            currentSlabs[i] = -1;
+            currentOffsets[i] = 0;
+        }
+        allocatedBytes = 0;
+    }
+
+    private int getChunkClass(final int length) {
+        final int index = Arrays.binarySearch(chunkSizes, length);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int addSlab(final ByteBuffer slab) {
+        if (freeSlabIndexes.isEmpty()) {
+            slabs.add(slab);
+            return slabs.size() - 1;
+        }
+
+        final int slabIndex = (int) freeSlabIndexes.pop();
+        slabs.set(slabIndex, slab);
+        return slabIndex;
+    }
+
+    private ByteBuffer slab(final long address) {
+        return slabs.get(slabIndex(address));
+    }
+
+    private static long address(final int slabIndex, final int offset) {
+        return ((long) slabIndex << 32) | offset;
+    }
+
+    private static int slabIndex(final long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(final long address) {
+        return (int) address;
+    }
+
+    private static class LongStack {
+        private long[] values = new long[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(final long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long pop() {
+            return values[--size];
+        }
+
+        void clear() {
+            values = new long[16];
+            size = 0;
+        }
+    }
+}
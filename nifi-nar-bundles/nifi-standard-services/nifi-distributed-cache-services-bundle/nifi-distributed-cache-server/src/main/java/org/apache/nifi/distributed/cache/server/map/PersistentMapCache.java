@@ -180,7 +180,11 @@ public class PersistentMapCache implements MapCache {
 
     @Override
     public void shutdown() throws IOException {
-        wali.shutdown();
+        try {
+            wali.shutdown();
+        } finally {
+            wrapped.shutdown();
+        }
     }
 
     private static class MapWaliRecord {
@@ -59,14 +59,24 @@ public class StandardMapCacheServer extends EventCacheServer {
             final File persistencePath,
             final int maxReadLength
     ) throws IOException {
-        super(log, port);
+        this(log, identifier, sslContext, port, new SimpleMapCache(identifier, maxCacheEntries, evictionPolicy), persistencePath, maxReadLength);
+    }
 
-        final MapCache simpleCache = new SimpleMapCache(identifier, maxCacheEntries, evictionPolicy);
+    public StandardMapCacheServer(
+            final ComponentLog log,
+            final String identifier,
+            final SSLContext sslContext,
+            final int port,
+            final MapCache memoryCache,
+            final File persistencePath,
+            final int maxReadLength
+    ) throws IOException {
+        super(log, port);
 
         if (persistencePath == null) {
-            this.cache = simpleCache;
+            this.cache = memoryCache;
         } else {
-            final PersistentMapCache persistentCache = new PersistentMapCache(identifier, persistencePath, simpleCache);
+            final PersistentMapCache persistentCache = new PersistentMapCache(identifier, persistencePath, memoryCache);
             persistentCache.restore();
             this.cache = persistentCache;
         }
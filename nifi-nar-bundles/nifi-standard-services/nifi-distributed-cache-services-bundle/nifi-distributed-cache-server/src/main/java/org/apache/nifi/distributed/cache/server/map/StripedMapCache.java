@@ -0,0 +1,730 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+import org.apache.nifi.distributed.cache.server.EvictionPolicy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link MapCache} that divides its entries between a number of independently locked stripes, so that operations on keys in
+ * different stripes do not contend with one another, and that keeps the keys and values outside of the Java heap, in direct memory
+ * or, for a {@link LogStructuredMapCache}, in memory-mapped files.
+ * <p>
+ * Each stripe holds an equal share of the maximum number of entries and evicts from its own entries in constant time: FIFO and
+ * LRU order are kept in a linked list, and LFU order in a list of hit count buckets, with entries that have the same hit count
+ * evicted in the order in which they reached that count. Caches too small to be divided into stripes of at least
+ * {@value #MINIMUM_STRIPE_ENTRIES} entries use a single stripe, so that eviction is exact for the whole cache.
+ * </p>
+ * <p>
+ * Each stripe has its own {@link OffHeapStore}, which holds a partially filled slab for every size class of entry that it stores.
+ * Slabs are therefore sized from the number of entries in the stripe, between {@value #MINIMUM_SLAB_SIZE} and
+ * {@value OffHeapStore#DEFAULT_SLAB_SIZE} bytes, so that a small cache does not reserve a megabyte of direct memory per size class and stripe.
+ * </p>
+ */
+public class StripedMapCache implements MapCache {
+
+    static final int MINIMUM_STRIPE_ENTRIES = 1024;
+
+    static final int MINIMUM_SLAB_SIZE = 64 * 1024;
+
+    private static final int SLAB_BYTES_PER_ENTRY = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedMapCache.class);
+
+    private final String serviceIdentifier;
+
+    private final Stripe[] stripes;
+
+    private final int stripeShift;
+
+    public StripedMapCache(final String serviceIdentifier, final int maxSize, final EvictionPolicy evictionPolicy) {
+        this(serviceIdentifier, maxSize, evictionPolicy, Runtime.getRuntime().availableProcessors() * 4, capacity -> new OffHeapStore(getSlabSize(capacity)));
+    }
+
+    StripedMapCache(final String serviceIdentifier, final int maxSize, final EvictionPolicy evictionPolicy, final int concurrencyLevel, final int slabSize) {
+        this(serviceIdentifier, maxSize, evictionPolicy, concurrencyLevel, capacity -> new OffHeapStore(slabSize));
+    }
+
+    /**
+     * @param storeFactory creates the store of each stripe from the maximum number of entries in the stripe, and may return the same
+     * thread-safe store for every stripe
+     */
+    StripedMapCache(final String serviceIdentifier, final int maxSize, final EvictionPolicy evictionPolicy, final int concurrencyLevel,
+                    final IntFunction<EntryStore> storeFactory) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.serviceIdentifier = serviceIdentifier;
+
+        final int maxStripes = Math.max(1, Math.min(concurrencyLevel, maxSize / MINIMUM_STRIPE_ENTRIES));
+        final int stripeCount = Integer.highestOneBit(maxStripes);
+        stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            final int capacity = maxSize / stripeCount + (i < maxSize % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe(capacity, evictionPolicy, storeFactory.apply(capacity));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StripedMapCache[service id=" + serviceIdentifier + "]";
+    }
+
+    @Override
+    public MapPutResult putIfAbsent(final ByteBuffer key, final ByteBuffer value) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node == null) {
+                return stripe.put(key, value, hash, null);
+            }
+
+            stripe.hit(node);
+            final MapCacheRecord record = stripe.toRecord(node);
+            return new MapPutResult(false, record, record, null);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public MapPutResult put(final ByteBuffer key, final ByteBuffer value) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            return stripe.put(key, value, hash, stripe.find(key, hash));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(final ByteBuffer key) {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node == null) {
+                return false;
+            }
+
+            stripe.hit(node);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public ByteBuffer get(final ByteBuffer key) {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node == null) {
+                return null;
+            }
+
+            stripe.hit(node);
+            return ByteBuffer.wrap(stripe.readValue(node));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<ByteBuffer, ByteBuffer> subMap(final List<ByteBuffer> keys) {
+        if (keys == null) {
+            return null;
+        }
+        final Map<ByteBuffer, ByteBuffer> results = new HashMap<>(keys.size());
+        for (final ByteBuffer key : keys) {
+            results.put(key, get(key));
+        }
+        return results;
+    }
+
+    @Override
+    public ByteBuffer remove(final ByteBuffer key) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node == null) {
+                return null;
+            }
+
+            final ByteBuffer value = ByteBuffer.wrap(stripe.readValue(node));
+            stripe.remove(node, true);
+            return value;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<ByteBuffer, ByteBuffer> removeByPattern(final String regex) throws IOException {
+        final Pattern pattern = Pattern.compile(regex);
+        final Map<ByteBuffer, ByteBuffer> removedMap = new HashMap<>();
+        for (final Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (final Node bucket : stripe.table) {
+                    Node node = bucket;
+                    while (node != null) {
+                        final Node next = node.next;
+                        final byte[] key = stripe.readKey(node);
+                        // Keys are matched as Strings of the default charset, as in SimpleMapCache
+                        if (pattern.matcher(new String(key)).matches()) {
+                            removedMap.put(ByteBuffer.wrap(key), ByteBuffer.wrap(stripe.readValue(node)));
+                            stripe.remove(node, true);
+                        }
+                        node = next;
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return removedMap;
+    }
+
+    @Override
+    public MapCacheRecord fetch(final ByteBuffer key) {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node == null) {
+                return null;
+            }
+
+            stripe.hit(node);
+            return stripe.toRecord(node);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public MapPutResult replace(final MapCacheRecord inputRecord) throws IOException {
+        final ByteBuffer key = inputRecord.getKey();
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node != null) {
+                stripe.hit(node);
+                if (inputRecord.getRevision() != node.revision) {
+                    // The key has been updated by other operation.
+                    return new MapPutResult(false, inputRecord, stripe.toRecord(node), null);
+                }
+            }
+
+            return stripe.put(key, inputRecord.getValue(), hash, node);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the keys in the cache, which is not updated by subsequent changes to the cache
+     */
+    @Override
+    public Set<ByteBuffer> keySet() {
+        final Set<ByteBuffer> keys = new HashSet<>();
+        for (final Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (final Node bucket : stripe.table) {
+                    for (Node node = bucket; node != null; node = node.next) {
+                        keys.add(ByteBuffer.wrap(stripe.readKey(node)));
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        final Set<EntryStore> stores = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.clear();
+                stores.add(stripe.store);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        for (final EntryStore store : stores) {
+            store.close();
+        }
+    }
+
+    /**
+     * Adds an entry that was previously stored, replacing any entry with the same key, as when recovering the cache from persistent storage
+     */
+    void recover(final ByteBuffer key, final long address, final int keyLength, final int valueLength, final long revision) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node existing = stripe.find(key, hash);
+            if (existing != null) {
+                stripe.remove(existing, false);
+            } else if (stripe.size >= stripe.capacity) {
+                stripe.evict();
+            }
+
+            stripe.insert(new Node(hash, address, keyLength, valueLength, revision));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry with the given key without deleting it from the store, as when recovering the cache from persistent storage
+     */
+    void recoverDeletion(final ByteBuffer key) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node existing = stripe.find(key, hash);
+            if (existing != null) {
+                stripe.remove(existing, false);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the entry with the given key to a new address, provided that the entry is currently stored at the given address
+     *
+     * @return <code>true</code> if the entry was moved
+     */
+    boolean relocate(final ByteBuffer key, final long address, final AddressUpdate update) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            final Node node = stripe.find(key, hash);
+            if (node == null || node.address != address) {
+                return false;
+            }
+
+            node.address = update.update(address);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given update if the cache does not contain the given key, while preventing the key from being added
+     *
+     * @return <code>true</code> if the update was run
+     */
+    boolean updateIfAbsent(final ByteBuffer key, final long address, final AddressUpdate update) throws IOException {
+        final int hash = hash(key);
+        final Stripe stripe = getStripe(hash);
+        stripe.lock.lock();
+        try {
+            if (stripe.find(key, hash) != null) {
+                return false;
+            }
+
+            update.update(address);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries in the cache
+     */
+    int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of bytes of direct memory held by the cache
+     */
+    long getAllocatedBytes() {
+        long allocatedBytes = 0;
+        for (final Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.store instanceof OffHeapStore offHeapStore) {
+                    allocatedBytes += offHeapStore.getAllocatedBytes();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return allocatedBytes;
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * @return the size of the slabs of a stripe that holds the given number of entries
+     */
+    static int getSlabSize(final int stripeEntries) {
+        final long slabSize = Long.highestOneBit((long) stripeEntries * SLAB_BYTES_PER_ENTRY);
+        return (int) Math.max(MINIMUM_SLAB_SIZE, Math.min(OffHeapStore.DEFAULT_SLAB_SIZE, slabSize));
+    }
+
+    private Stripe getStripe(final int hash) {
+        // The stripe is chosen with the upper bits of the hash, leaving the lower bits to choose a slot within the stripe's table
+        return stripes.length == 1 ? stripes[0] : stripes[hash >>> stripeShift];
+    }
+
+    private static int hash(final ByteBuffer key) {
+        // ByteBuffer hash codes are poorly distributed for short keys, so the bits are mixed before use
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Moves or copies the entry at a given address in the store
+     */
+    @FunctionalInterface
+    interface AddressUpdate {
+        long update(long address) throws IOException;
+    }
+
+    /**
+     * An entry of the cache, whose key and value are held in the stripe's {@link EntryStore}
+     */
+    private static class Node {
+        private final int hash;
+        private long address;
+        private final int keyLength;
+        private final int valueLength;
+        private final long revision;
+
+        private Node next;
+
+        private Node before;
+        private Node after;
+        private FrequencyBucket bucket;
+
+        private Node(final int hash, final long address, final int keyLength, final int valueLength, final long revision) {
+            this.hash = hash;
+            this.address = address;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+            this.revision = revision;
+        }
+    }
+
+    /**
+     * A doubly linked list of Nodes, ordered from the next Node to evict to the last
+     */
+    private static class NodeList {
+        Node head;
+        Node tail;
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        void append(final Node node) {
+            node.before = tail;
+            node.after = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.after = node;
+            }
+            tail = node;
+        }
+
+        void unlink(final Node node) {
+            if (node.before == null) {
+                head = node.after;
+            } else {
+                node.before.after = node.after;
+            }
+            if (node.after == null) {
+                tail = node.before;
+            } else {
+                node.after.before = node.before;
+            }
+            node.before = null;
+            node.after = null;
+        }
+    }
+
+    /**
+     * The Nodes that have been hit a given number of times, linked to the buckets of the next lower and higher hit counts
+     */
+    private static class FrequencyBucket extends NodeList {
+        private final int hitCount;
+        private FrequencyBucket lower;
+        private FrequencyBucket higher;
+
+        private FrequencyBucket(final int hitCount) {
+            this.hitCount = hitCount;
+        }
+    }
+
+    private static class Stripe {
+        private static final int INITIAL_TABLE_SIZE = 16;
+
+        private final Lock lock = new ReentrantLock();
+        private final int capacity;
+        private final EvictionPolicy evictionPolicy;
+        private final EntryStore store;
+
+        private Node[] table = new Node[INITIAL_TABLE_SIZE];
+        private int size;
+
+        // Eviction order for FIFO and LRU
+        private final NodeList order = new NodeList();
+
+        // Eviction order for LFU, starting from the bucket with the lowest hit count
+        private FrequencyBucket lowestBucket;
+
+        private Stripe(final int capacity, final EvictionPolicy evictionPolicy, final EntryStore store) {
+            this.capacity = capacity;
+            this.evictionPolicy = evictionPolicy;
+            this.store = store;
+        }
+
+        private Node find(final ByteBuffer key, final int hash) {
+            final int keyLength = key.remaining();
+            for (Node node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+                if (node.hash == hash && node.keyLength == keyLength && store.matches(node.address, key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        private MapPutResult put(final ByteBuffer key, final ByteBuffer value, final int hash, final Node existing) throws IOException {
+            final long revision = existing == null ? 0 : existing.revision + 1;
+            final long address = store.store(key, value, revision);
+
+            final MapCacheRecord existingRecord;
+            MapCacheRecord evicted = null;
+            if (existing == null) {
+                existingRecord = null;
+                if (size >= capacity) {
+                    evicted = evict();
+                }
+            } else {
+                existingRecord = toRecord(existing);
+                remove(existing, false);
+            }
+
+            final Node node = new Node(hash, address, key.remaining(), value.remaining(), revision);
+            insert(node);
+
+            return new MapPutResult(true, new MapCacheRecord(key, value, revision), existingRecord, evicted);
+        }
+
+        private MapCacheRecord evict() throws IOException {
+            final Node node = evictionPolicy == EvictionPolicy.LFU ? lowestBucket.head : order.head;
+            final MapCacheRecord record = toRecord(node);
+            remove(node, true);
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Evicting key {} from cache", new String(record.getKey().array(), StandardCharsets.UTF_8));
+            }
+
+            return record;
+        }
+
+        private void insert(final Node node) {
+            if (size >= table.length * 3 / 4) {
+                resize();
+            }
+
+            final int index = node.hash & (table.length - 1);
+            node.next = table[index];
+            table[index] = node;
+            size++;
+
+            if (evictionPolicy == EvictionPolicy.LFU) {
+                if (lowestBucket == null || lowestBucket.hitCount != 0) {
+                    final FrequencyBucket bucket = new FrequencyBucket(0);
+                    bucket.higher = lowestBucket;
+                    if (lowestBucket != null) {
+                        lowestBucket.lower = bucket;
+                    }
+                    lowestBucket = bucket;
+                }
+                node.bucket = lowestBucket;
+                lowestBucket.append(node);
+            } else {
+                order.append(node);
+            }
+        }
+
+        private void remove(final Node node, final boolean deleted) throws IOException {
+            final int index = node.hash & (table.length - 1);
+            if (table[index] == node) {
+                table[index] = node.next;
+            } else {
+                Node previous = table[index];
+                while (previous.next != node) {
+                    previous = previous.next;
+                }
+                previous.next = node.next;
+            }
+            node.next = null;
+            size--;
+
+            if (evictionPolicy == EvictionPolicy.LFU) {
+                final FrequencyBucket bucket = node.bucket;
+                bucket.unlink(node);
+                node.bucket = null;
+                removeIfEmpty(bucket);
+            } else {
+                order.unlink(node);
+            }
+
+            store.release(node.address, node.keyLength, node.valueLength, deleted);
+        }
+
+        private void hit(final Node node) {
+            if (evictionPolicy == EvictionPolicy.LRU) {
+                order.unlink(node);
+                order.append(node);
+            } else if (evictionPolicy == EvictionPolicy.LFU) {
+                final FrequencyBucket bucket = node.bucket;
+                FrequencyBucket higher = bucket.higher;
+                if (higher == null || higher.hitCount != bucket.hitCount + 1) {
+                    higher = new FrequencyBucket(bucket.hitCount + 1);
+                    higher.lower = bucket;
+                    higher.higher = bucket.higher;
+                    if (bucket.higher != null) {
+                        bucket.higher.lower = higher;
+                    }
+                    bucket.higher = higher;
+                }
+
+                bucket.unlink(node);
+                removeIfEmpty(bucket);
+                node.bucket = higher;
+                higher.append(node);
+            }
+        }
+
+        private void removeIfEmpty(final FrequencyBucket bucket) {
+            if (!bucket.isEmpty()) {
+                return;
+            }
+
+            if (bucket.lower == null) {
+                lowestBucket = bucket.higher;
+            } else {
+                bucket.lower.higher = bucket.higher;
+            }
+            if (bucket.higher != null) {
+                bucket.higher.lower = bucket.lower;
+            }
+        }
+
+        private void resize() {
+            final Node[] resized = new Node[table.length * 2];
+            for (final Node bucket : table) {
+                Node node = bucket;
+                while (node != null) {
+                    final Node next = node.next;
+                    final int index = node.hash & (resized.length - 1);
+                    node.next = resized[index];
+                    resized[index] = node;
+                    node = next;
+                }
+            }
+            table = resized;
+        }
+
+        private byte[] readKey(final Node node) {
+            return store.readKey(node.address, node.keyLength);
+        }
+
+        private byte[] readValue(final Node node) {
+            return store.readValue(node.address, node.keyLength, node.valueLength);
+        }
+
+        private MapCacheRecord toRecord(final Node node) {
+            return new MapCacheRecord(ByteBuffer.wrap(readKey(node)), ByteBuffer.wrap(readValue(node)), node.revision);
+        }
+
+        private void clear() {
+            table = new Node[INITIAL_TABLE_SIZE];
+            size = 0;
+            order.head = null;
+            order.tail = null;
+            lowestBucket = null;
+        }
+    }
+}
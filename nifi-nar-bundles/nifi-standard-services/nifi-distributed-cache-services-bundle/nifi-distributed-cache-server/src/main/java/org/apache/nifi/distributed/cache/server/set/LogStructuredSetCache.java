@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.set;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.nifi.distributed.cache.server.EvictionPolicy;
+import org.apache.nifi.distributed.cache.server.map.LogStructuredMapCache;
+import org.apache.nifi.distributed.cache.server.map.MapCacheRecord;
+import org.apache.nifi.distributed.cache.server.map.MapPutResult;
+
+/**
+ * A {@link SetCache} persisted in a log of memory-mapped files, storing each value of the set as a key of a {@link LogStructuredMapCache}
+ * with an empty value.
+ */
+public class LogStructuredSetCache implements SetCache {
+
+    private static final ByteBuffer EMPTY_VALUE = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private final String serviceIdentifier;
+
+    private final LogStructuredMapCache cache;
+
+    public LogStructuredSetCache(final String serviceIdentifier, final int maxSize, final EvictionPolicy evictionPolicy, final File persistencePath,
+                                 final long syncIntervalMillis) throws IOException {
+        this.serviceIdentifier = serviceIdentifier;
+        this.cache = new LogStructuredMapCache(serviceIdentifier, maxSize, evictionPolicy, persistencePath, syncIntervalMillis);
+    }
+
+    public void restore() throws IOException {
+        cache.restore();
+    }
+
+    @Override
+    public SetCacheResult addIfAbsent(final ByteBuffer value) throws IOException {
+        final MapPutResult putResult = cache.putIfAbsent(value, EMPTY_VALUE);
+        final MapCacheRecord evicted = putResult.getEvicted();
+        return new SetCacheResult(putResult.isSuccessful(), new SetCacheRecord(value), evicted == null ? null : new SetCacheRecord(evicted.getKey()));
+    }
+
+    @Override
+    public SetCacheResult contains(final ByteBuffer value) throws IOException {
+        final boolean contained = cache.containsKey(value);
+        return new SetCacheResult(contained, contained ? new SetCacheRecord(value) : null, null);
+    }
+
+    @Override
+    public SetCacheResult remove(final ByteBuffer value) throws IOException {
+        final boolean removed = cache.remove(value) != null;
+        return new SetCacheResult(removed, removed ? new SetCacheRecord(value) : null, null);
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        cache.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "LogStructuredSetCache[service id=" + serviceIdentifier + "]";
+    }
+}
@@ -56,14 +56,24 @@ public class StandardSetCacheServer extends EventCacheServer {
             final File persistencePath,
             final int maxReadLength
     ) throws IOException {
-        super(log, port);
+        this(log, identifier, sslContext, port, new SimpleSetCache(identifier, maxCacheEntries, evictionPolicy), persistencePath, maxReadLength);
+    }
 
-        final SetCache simpleCache = new SimpleSetCache(identifier, maxCacheEntries, evictionPolicy);
+    public StandardSetCacheServer(
+            final ComponentLog log,
+            final String identifier,
+            final SSLContext sslContext,
+            final int port,
+            final SetCache memoryCache,
+            final File persistencePath,
+            final int maxReadLength
+    ) throws IOException {
+        super(log, port);
 
         if (persistencePath == null) {
-            this.cache = simpleCache;
+            this.cache = memoryCache;
         } else {
-            final PersistentSetCache persistentCache = new PersistentSetCache(identifier, persistencePath, simpleCache);
+            final PersistentSetCache persistentCache = new PersistentSetCache(identifier, persistencePath, memoryCache);
             persistentCache.restore();
             this.cache = persistentCache;
         }
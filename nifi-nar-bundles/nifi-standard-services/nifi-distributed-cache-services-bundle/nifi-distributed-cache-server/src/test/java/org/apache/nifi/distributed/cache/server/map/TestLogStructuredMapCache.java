@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import org.apache.nifi.distributed.cache.server.EvictionPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLogStructuredMapCache {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path persistencePath;
+
+    @Test
+    public void testRestore() throws Exception {
+        LogStructuredMapCache cache = createCache(1000, EvictionPolicy.LRU);
+        for (int i = 0; i < 200; i++) {
+            cache.put(buffer("key-" + i), buffer("value-" + i));
+        }
+        for (int i = 0; i < 200; i += 2) {
+            cache.put(buffer("key-" + i), buffer("updated-" + i));
+        }
+        for (int i = 0; i < 200; i += 3) {
+            cache.remove(buffer("key-" + i));
+        }
+        cache.removeByPattern("key-1\\d");
+        cache.shutdown();
+
+        cache = createCache(1000, EvictionPolicy.LRU);
+        for (int i = 0; i < 200; i++) {
+            final MapCacheRecord record = cache.fetch(buffer("key-" + i));
+            if (i % 3 == 0 || (i >= 10 && i < 20)) {
+                assertNull(record, "Unexpected value for key-" + i);
+            } else {
+                assertEquals((i % 2 == 0 ? "updated-" : "value-") + i, string(record.getValue()));
+                assertEquals(i % 2 == 0 ? 1 : 0, record.getRevision());
+            }
+        }
+        assertFalse(cache.putIfAbsent(buffer("key-1"), buffer("other")).isSuccessful());
+        assertEquals(new HashSet<>(Arrays.asList(buffer("key-1"), buffer("key-2"))), new HashSet<>(cache.subMap(Arrays.asList(buffer("key-1"), buffer("key-2"))).keySet()));
+        cache.shutdown();
+    }
+
+    @Test
+    public void testDirectoryLocked() throws Exception {
+        final LogStructuredMapCache cache = createCache(10, EvictionPolicy.FIFO);
+        try {
+            assertThrows(IOException.class, () -> new LogStructuredStore(persistencePath.toFile(), SEGMENT_SIZE));
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void testEvictionsPersisted() throws Exception {
+        LogStructuredMapCache cache = createCache(2, EvictionPolicy.FIFO);
+        cache.put(buffer("a"), buffer("1"));
+        cache.put(buffer("b"), buffer("2"));
+        assertEquals("a", string(cache.put(buffer("c"), buffer("3")).getEvicted().getKey()));
+        cache.shutdown();
+
+        cache = createCache(2, EvictionPolicy.FIFO);
+        assertNull(cache.get(buffer("a")));
+        assertEquals("2", string(cache.get(buffer("b"))));
+        assertEquals("3", string(cache.get(buffer("c"))));
+
+        // Restored entries are evicted in the order in which they were written
+        assertEquals("b", string(cache.put(buffer("d"), buffer("4")).getEvicted().getKey()));
+        cache.shutdown();
+
+        // Restoring into a smaller cache evicts the oldest entries
+        cache = createCache(1, EvictionPolicy.FIFO);
+        assertNull(cache.get(buffer("c")));
+        assertEquals("4", string(cache.get(buffer("d"))));
+        cache.shutdown();
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        LogStructuredMapCache cache = createCache(1000, EvictionPolicy.LFU);
+        cache.put(buffer("deleted"), buffer("value"));
+        cache.put(buffer("re-added"), buffer("first"));
+        final byte[] large = new byte[SEGMENT_SIZE * 2];
+        Arrays.fill(large, (byte) 'x');
+        cache.put(buffer("large"), ByteBuffer.wrap(large));
+
+        for (int pass = 0; pass < 20; pass++) {
+            for (int i = 0; i < 50; i++) {
+                cache.put(buffer("key-" + i), buffer("value-" + pass + "-" + i));
+            }
+            if (pass == 5) {
+                cache.remove(buffer("deleted"));
+                cache.remove(buffer("re-added"));
+            }
+            if (pass == 10) {
+                cache.put(buffer("re-added"), buffer("second"));
+            }
+        }
+
+        final int segmentsBefore = cache.getSegmentCount();
+        assertTrue(cache.compact() > 0);
+        assertTrue(cache.getSegmentCount() < segmentsBefore, "Compaction should have removed segments");
+        assertEquals(cache.getSegmentCount(), getSegmentFileCount(), "Compacted segment files should have been deleted");
+        assertCompactedValues(cache, large);
+
+        // A second compaction finds the segments holding copied records, which are mostly live, and compacts them no further
+        cache.compact();
+        assertCompactedValues(cache, large);
+        cache.shutdown();
+
+        cache = createCache(1000, EvictionPolicy.LFU);
+        assertCompactedValues(cache, large);
+        cache.compact();
+        cache.shutdown();
+
+        cache = createCache(1000, EvictionPolicy.LFU);
+        assertCompactedValues(cache, large);
+        cache.shutdown();
+    }
+
+    @Test
+    public void testPartiallyWrittenRecordIgnored() throws Exception {
+        LogStructuredMapCache cache = createCache(100, EvictionPolicy.FIFO);
+        cache.put(buffer("a"), buffer("1"));
+        cache.put(buffer("b"), buffer("2"));
+        cache.shutdown();
+
+        // Corrupt the final byte of the checksum of the last record, as though it had not been completely written
+        final File segment = new File(persistencePath.toFile(), "segments/0000000001.log");
+        final int lastRecordEnd = 2 * (17 + 1 + 1 + 4);
+        try (final RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(lastRecordEnd - 1);
+            final int checksumByte = file.read();
+            file.seek(lastRecordEnd - 1);
+            file.write(checksumByte ^ 0xFF);
+        }
+
+        cache = createCache(100, EvictionPolicy.FIFO);
+        assertEquals("1", string(cache.get(buffer("a"))));
+        assertNull(cache.get(buffer("b")));
+        cache.put(buffer("c"), buffer("3"));
+        cache.shutdown();
+
+        cache = createCache(100, EvictionPolicy.FIFO);
+        assertEquals("1", string(cache.get(buffer("a"))));
+        assertEquals("3", string(cache.get(buffer("c"))));
+        cache.shutdown();
+    }
+
+    /**
+     * Compares the time taken to restore PersistentMapCache, which loads every entry into the heap, and LogStructuredMapCache
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testRestorePerformanceComparedToPersistentMapCache() throws Exception {
+        final int entries = 2_000_000;
+        final File walDirectory = new File(persistencePath.toFile(), "wal");
+        final File logDirectory = new File(persistencePath.toFile(), "log");
+
+        PersistentMapCache persistentCache = new PersistentMapCache("service-id", walDirectory, new SimpleMapCache("service-id", entries, EvictionPolicy.LRU));
+        persistentCache.restore();
+        LogStructuredMapCache logStructuredCache = new LogStructuredMapCache("service-id", entries, EvictionPolicy.LRU, logDirectory, 0);
+        logStructuredCache.restore();
+        for (int i = 0; i < entries; i++) {
+            persistentCache.putIfAbsent(buffer("dedup-" + i), buffer("description of flow file " + i));
+            logStructuredCache.putIfAbsent(buffer("dedup-" + i), buffer("description of flow file " + i));
+        }
+        persistentCache.shutdown();
+        logStructuredCache.shutdown();
+
+        for (int iteration = 0; iteration < 3; iteration++) {
+            long start = System.nanoTime();
+            persistentCache = new PersistentMapCache("service-id", walDirectory, new SimpleMapCache("service-id", entries, EvictionPolicy.LRU));
+            persistentCache.restore();
+            System.out.printf("PersistentMapCache restored %,d entries in %,d millis%n", entries, (System.nanoTime() - start) / 1_000_000);
+            persistentCache.shutdown();
+
+            start = System.nanoTime();
+            logStructuredCache = new LogStructuredMapCache("service-id", entries, EvictionPolicy.LRU, logDirectory, 0);
+            logStructuredCache.restore();
+            System.out.printf("LogStructuredMapCache restored %,d entries in %,d millis%n", entries, (System.nanoTime() - start) / 1_000_000);
+            logStructuredCache.shutdown();
+        }
+    }
+
+    private void assertCompactedValues(final LogStructuredMapCache cache, final byte[] large) throws IOException {
+        for (int i = 0; i < 50; i++) {
+            assertEquals("value-19-" + i, string(cache.get(buffer("key-" + i))));
+        }
+        assertNull(cache.get(buffer("deleted")));
+        assertEquals("second", string(cache.get(buffer("re-added"))));
+        assertEquals(ByteBuffer.wrap(large), cache.get(buffer("large")));
+        assertEquals(52, cache.keySet().size());
+    }
+
+    private int getSegmentFileCount() {
+        final File[] segmentFiles = new File(persistencePath.toFile(), "segments").listFiles((dir, name) -> name.endsWith(".log"));
+        return segmentFiles == null ? 0 : segmentFiles.length;
+    }
+
+    private LogStructuredMapCache createCache(final int maxSize, final EvictionPolicy evictionPolicy) throws IOException {
+        final LogStructuredStore store = new LogStructuredStore(persistencePath.toFile(), SEGMENT_SIZE);
+        final LogStructuredMapCache cache = new LogStructuredMapCache("service-id", maxSize, evictionPolicy, store, 0, false);
+        cache.restore();
+        return cache;
+    }
+
+    private static ByteBuffer buffer(final String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.distributed.cache.server.map;
+
+import org.apache.nifi.distributed.cache.server.EvictionPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStripedMapCache {
+
+    @Test
+    public void testBasicOperations() throws Exception {
+        final StripedMapCache cache = new StripedMapCache("service-id", 2, EvictionPolicy.FIFO);
+
+        final ByteBuffer key1 = buffer("key1");
+        final ByteBuffer key2 = buffer("key2");
+        final ByteBuffer key3 = buffer("key3");
+
+        assertNull(cache.get(key1));
+        assertNull(cache.fetch(key1));
+
+        MapPutResult putResult = cache.put(key1, buffer("value1-0"));
+        assertTrue(putResult.isSuccessful());
+        assertNull(putResult.getExisting());
+        assertNull(putResult.getEvicted());
+        assertEquals(0, putResult.getRecord().getRevision());
+
+        putResult = cache.put(key1, buffer("value1-1"));
+        assertTrue(putResult.isSuccessful());
+        assertEquals(1, putResult.getRecord().getRevision());
+        assertEquals(key1, putResult.getExisting().getKey());
+        assertEquals("value1-0", string(putResult.getExisting().getValue()));
+        assertNull(putResult.getEvicted());
+
+        putResult = cache.put(key2, buffer("value2-0"));
+        assertNull(putResult.getExisting());
+        assertNull(putResult.getEvicted());
+
+        putResult = cache.put(key3, buffer("value3-0"));
+        assertNotNull(putResult.getEvicted(), "The first key should be evicted");
+        assertEquals("key1", string(putResult.getEvicted().getKey()));
+        assertEquals("value1-1", string(putResult.getEvicted().getValue()));
+        assertEquals(2, cache.size());
+
+        assertEquals("value2-0", string(cache.remove(key2)));
+        assertNull(cache.remove(key2));
+        assertFalse(cache.containsKey(key2));
+
+        putResult = cache.put(key2, buffer("value2-0"));
+        assertNull(putResult.getEvicted());
+        assertEquals(0, putResult.getRecord().getRevision(), "Revision should start from 0");
+
+        putResult = cache.putIfAbsent(key2, buffer("other"));
+        assertFalse(putResult.isSuccessful());
+        assertEquals("value2-0", string(putResult.getExisting().getValue()));
+
+        final Map<ByteBuffer, ByteBuffer> results = cache.subMap(Arrays.asList(key1, key2, key3));
+        assertEquals(3, results.size());
+        assertNull(results.get(key1));
+        assertEquals("value2-0", string(results.get(key2)));
+        assertEquals(new HashSet<>(Arrays.asList(key2, key3)), cache.keySet());
+    }
+
+    @Test
+    public void testOptimisticLock() throws Exception {
+        final StripedMapCache cache = new StripedMapCache("service-id", 2, EvictionPolicy.FIFO);
+        final ByteBuffer key = buffer("key1");
+
+        MapPutResult putResult = cache.replace(new MapCacheRecord(key, buffer("valueC1-0")));
+        assertTrue(putResult.isSuccessful(), "Replace should succeed if there's no existing key.");
+
+        putResult = cache.replace(new MapCacheRecord(key, buffer("valueC2-0")));
+        assertFalse(putResult.isSuccessful(), "Replace should fail.");
+
+        final MapCacheRecord c1 = cache.fetch(key);
+        final MapCacheRecord c2 = cache.fetch(key);
+        assertEquals(0, c1.getRevision());
+
+        putResult = cache.replace(new MapCacheRecord(key, buffer("valueC1-1"), c1.getRevision()));
+        assertTrue(putResult.isSuccessful(), "Replace should succeed since revision matched.");
+        assertEquals(1, putResult.getRecord().getRevision());
+
+        putResult = cache.replace(new MapCacheRecord(key, buffer("valueC2-1"), c2.getRevision()));
+        assertFalse(putResult.isSuccessful(), "Replace should fail.");
+        assertEquals("valueC1-1", string(cache.get(key)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        final StripedMapCache cache = new StripedMapCache("service-id", 3, EvictionPolicy.LRU);
+        cache.put(buffer("a"), buffer("1"));
+        cache.put(buffer("b"), buffer("2"));
+        cache.put(buffer("c"), buffer("3"));
+
+        assertNotNull(cache.get(buffer("a")));
+        assertTrue(cache.containsKey(buffer("b")));
+
+        assertEquals("c", string(cache.put(buffer("d"), buffer("4")).getEvicted().getKey()));
+        assertEquals("a", string(cache.put(buffer("e"), buffer("5")).getEvicted().getKey()));
+    }
+
+    @Test
+    public void testLeastFrequentlyUsedEviction() throws Exception {
+        final StripedMapCache cache = new StripedMapCache("service-id", 3, EvictionPolicy.LFU);
+        cache.put(buffer("a"), buffer("1"));
+        cache.put(buffer("b"), buffer("2"));
+        cache.put(buffer("c"), buffer("3"));
+
+        cache.get(buffer("a"));
+        cache.get(buffer("a"));
+        cache.get(buffer("b"));
+        cache.get(buffer("c"));
+        cache.get(buffer("c"));
+
+        assertEquals("b", string(cache.put(buffer("d"), buffer("4")).getEvicted().getKey()));
+        assertEquals("d", string(cache.put(buffer("e"), buffer("5")).getEvicted().getKey()));
+
+        // Updating a value resets its hit count
+        cache.put(buffer("a"), buffer("6"));
+        assertEquals("e", string(cache.put(buffer("f"), buffer("7")).getEvicted().getKey()));
+        assertEquals("a", string(cache.put(buffer("g"), buffer("8")).getEvicted().getKey()));
+    }
+
+    @Test
+    public void testRemoveByPattern() throws Exception {
+        final StripedMapCache cache = new StripedMapCache("service-id", 10_000, EvictionPolicy.LFU, 4, 1024);
+        assertEquals(4, cache.getStripeCount());
+        for (int i = 0; i < 1000; i++) {
+            cache.put(buffer("key-" + i), buffer("value-" + i));
+        }
+
+        final Map<ByteBuffer, ByteBuffer> removed = cache.removeByPattern("key-1\\d*");
+        assertEquals(111, removed.size());
+        assertEquals("value-123", string(removed.get(buffer("key-123"))));
+        assertEquals(889, cache.size());
+        assertEquals(889, cache.keySet().size());
+        assertNull(cache.get(buffer("key-1")));
+        assertEquals("value-2", string(cache.get(buffer("key-2"))));
+    }
+
+    @Test
+    public void testValuesOfVaryingSizes() throws Exception {
+        final StripedMapCache cache = new StripedMapCache("service-id", 100, EvictionPolicy.FIFO, 1, 4096);
+        final byte[] large = new byte[5000];
+        Arrays.fill(large, (byte) 'x');
+
+        // Space released by replaced and evicted entries is reused rather than allocated again
+        long allocatedBytes = 0;
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < 300; i++) {
+                final byte[] value = Arrays.copyOf(large, i * 17 % 2000);
+                cache.put(buffer("key-" + i % 150), ByteBuffer.wrap(value));
+                assertEquals(ByteBuffer.wrap(value), cache.get(buffer("key-" + i % 150)));
+            }
+            if (pass == 2) {
+                assertEquals(allocatedBytes, cache.getAllocatedBytes());
+            }
+            allocatedBytes = cache.getAllocatedBytes();
+        }
+
+        // Values larger than a slab are allocated separately and released when removed
+        cache.put(buffer("large"), ByteBuffer.wrap(large));
+        assertEquals(ByteBuffer.wrap(large), cache.get(buffer("large")));
+        assertEquals(allocatedBytes + large.length + "large".length(), cache.getAllocatedBytes());
+        cache.remove(buffer("large"));
+        assertEquals(allocatedBytes, cache.getAllocatedBytes());
+
+        cache.shutdown();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getAllocatedBytes());
+    }
+
+    @Test
+    public void testSlabsSizedFromStripeEntries() throws Exception {
+        assertEquals(StripedMapCache.MINIMUM_SLAB_SIZE, StripedMapCache.getSlabSize(1));
+        assertEquals(StripedMapCache.MINIMUM_SLAB_SIZE, StripedMapCache.getSlabSize(StripedMapCache.MINIMUM_STRIPE_ENTRIES));
+        assertEquals(256 * 1024, StripedMapCache.getSlabSize(5000));
+        assertEquals(OffHeapStore.DEFAULT_SLAB_SIZE, StripedMapCache.getSlabSize(Integer.MAX_VALUE));
+
+        // Entries of two size classes in a small cache reserve one minimum slab for each
+        final StripedMapCache cache = new StripedMapCache("service-id", 100, EvictionPolicy.FIFO);
+        cache.put(buffer("key-1"), buffer("value-1"));
+        cache.put(buffer("key-2"), ByteBuffer.wrap(new byte[100]));
+        assertEquals(2L * StripedMapCache.MINIMUM_SLAB_SIZE, cache.getAllocatedBytes());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final int threads = 8;
+        final int keysPerThread = 5000;
+        // Keys are not spread exactly evenly between stripes, so the cache is made large enough that no stripe evicts
+        final StripedMapCache cache = new StripedMapCache("service-id", threads * keysPerThread * 2, EvictionPolicy.LRU, 16, 4096);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < keysPerThread; i++) {
+                        final ByteBuffer key = buffer(threadIndex + "-" + i);
+                        cache.put(key, buffer("value-" + i));
+                        final MapCacheRecord record = cache.fetch(key);
+                        cache.replace(new MapCacheRecord(key, buffer("replaced-" + i), record.getRevision()));
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final Set<ByteBuffer> keys = cache.keySet();
+        assertEquals(threads * keysPerThread, keys.size());
+        for (final ByteBuffer key : keys) {
+            final MapCacheRecord record = cache.fetch(key);
+            assertEquals(1, record.getRevision());
+            assertTrue(string(record.getValue()).startsWith("replaced-"));
+        }
+    }
+
+    /**
+     * Compares the heap used and the time taken to fill SimpleMapCache and StripedMapCache with short dedup-style keys
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testHeapUsageComparedToSimpleMapCache() throws Exception {
+        final int entries = 2_000_000;
+        final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+        for (int iteration = 0; iteration < 3; iteration++) {
+            for (final boolean striped : new boolean[] {false, true}) {
+                System.gc();
+                final long heapBefore = memoryMXBean.getHeapMemoryUsage().getUsed();
+                final long start = System.nanoTime();
+
+                final MapCache cache = striped ? new StripedMapCache("service-id", entries, EvictionPolicy.LRU)
+                        : new SimpleMapCache("service-id", entries, EvictionPolicy.LRU);
+                for (int i = 0; i < entries; i++) {
+                    cache.putIfAbsent(buffer("dedup-" + i), buffer("description of flow file " + i));
+                }
+
+                final long nanos = System.nanoTime() - start;
+                System.gc();
+                System.out.printf("%s: %,d nanos and %,d heap bytes per entry%n", cache, nanos / entries,
+                        (memoryMXBean.getHeapMemoryUsage().getUsed() - heapBefore) / entries);
+                cache.shutdown();
+            }
+        }
+    }
+
+    private static ByteBuffer buffer(final String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+}
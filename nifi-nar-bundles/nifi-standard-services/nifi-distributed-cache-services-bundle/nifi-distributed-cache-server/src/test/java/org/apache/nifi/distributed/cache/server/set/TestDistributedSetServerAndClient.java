@@ -214,6 +214,36 @@ public class TestDistributedSetServerAndClient {
         }
     }
 
+    @Test
+    public void testLogStructuredSetServerAndClient() throws InitializationException, IOException {
+        runner.setProperty(server, DistributedSetCacheServer.PERSISTENCE_PATH, dataFile.getAbsolutePath());
+        runner.setProperty(server, DistributedSetCacheServer.PERSISTENCE_STRATEGY, DistributedSetCacheServer.PERSISTENCE_STRATEGY_LOG_STRUCTURED);
+        runner.enableControllerService(server);
+
+        final Serializer<String> serializer = new StringSerializer();
+        DistributedSetCacheClientService client = createClient(server.getPort());
+        try {
+            assertTrue(client.addIfAbsent("test", serializer));
+            assertTrue(client.addIfAbsent("test2", serializer));
+            assertFalse(client.addIfAbsent("test", serializer));
+            assertTrue(client.remove("test2", serializer));
+        } finally {
+            client.close();
+        }
+
+        // Restart the server, which recovers the set from the log
+        runner.disableControllerService(server);
+        runner.enableControllerService(server);
+
+        client = createClient(server.getPort());
+        try {
+            assertTrue(client.contains("test", serializer));
+            assertFalse(client.contains("test2", serializer));
+        } finally {
+            client.close();
+        }
+    }
+
     @Test
     public void testLimitServiceReadSize() throws InitializationException, IOException {
         runner.enableControllerService(server);
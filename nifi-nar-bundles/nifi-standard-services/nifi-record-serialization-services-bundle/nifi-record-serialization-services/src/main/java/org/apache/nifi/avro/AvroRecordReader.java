@@ -19,15 +19,19 @@ package org.apache.nifi.avro;
 
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.MalformedRecordException;
-import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSchema;
 
 import java.io.IOException;
 import java.util.Map;
 
-public abstract class AvroRecordReader implements RecordReader {
+public abstract class AvroRecordReader implements RecordBatchReader {
+
+    private final boolean arrayRecordsEnabled = ArrayRecord.isArrayRecordsEnabled();
 
     protected abstract GenericRecord nextAvroRecord() throws IOException;
 
@@ -40,6 +44,10 @@ public abstract class AvroRecordReader implements RecordReader {
             }
 
             final RecordSchema schema = getSchema();
+            if (arrayRecordsEnabled) {
+                return AvroTypeUtil.convertAvroRecordToArrayRecord(record, schema);
+            }
+
             final Map<String, Object> values = AvroTypeUtil.convertAvroRecordToMap(record, schema);
             return new MapRecord(schema, values);
         } catch (IOException e) {
@@ -50,4 +58,22 @@ public abstract class AvroRecordReader implements RecordReader {
             throw new MalformedRecordException("Error while getting next record", e);
         }
     }
+
+    @Override
+    public int nextBatch(final RecordBatch batch) throws IOException, MalformedRecordException {
+        batch.clear();
+
+        try {
+            GenericRecord record;
+            while (!batch.isFull() && (record = nextAvroRecord()) != null) {
+                AvroTypeUtil.addAvroRecordToBatch(record, batch);
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next record", e);
+        }
+
+        return batch.getRowCount();
+    }
 }
@@ -18,6 +18,7 @@
 package org.apache.nifi.avro;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.BinaryEncoder;
@@ -26,7 +27,10 @@ import org.apache.avro.io.EncoderFactory;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.schema.access.SchemaAccessWriter;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
+import org.apache.nifi.serialization.RecordBatchWriter;
+import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSchema;
 
 import java.io.BufferedOutputStream;
@@ -35,7 +39,7 @@ import java.io.OutputStream;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 
-public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
+public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter implements RecordBatchWriter {
     private final SchemaAccessWriter schemaAccessWriter;
     private final RecordSchema recordSchema;
     private final Schema avroSchema;
@@ -43,6 +47,7 @@ public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
     private final OutputStream buffered;
     private final DatumWriter<GenericRecord> datumWriter;
     private final BlockingQueue<BinaryEncoder> recycleQueue;
+    private GenericRecord batchRecord;
     private boolean closed = false;
 
     public WriteAvroResultWithExternalSchema(final Schema avroSchema, final RecordSchema recordSchema, final SchemaAccessWriter schemaAccessWriter,
@@ -90,6 +95,27 @@ public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
         return schemaAccessWriter.getAttributes(recordSchema);
     }
 
+    @Override
+    public WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        if (!isActiveRecordSet()) {
+            flush();
+            schemaAccessWriter.writeHeader(recordSchema, getOutputStream());
+        }
+
+        // Each Avro Record is encoded when it is written, so the same Avro Record can be populated for every row
+        if (batchRecord == null) {
+            batchRecord = new GenericData.Record(avroSchema);
+        }
+
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            AvroTypeUtil.populateAvroRecord(batchRecord, batch, row);
+            datumWriter.write(batchRecord, encoder);
+            incrementRecordCount();
+        }
+
+        return WriteResult.of(getRecordCount(), schemaAccessWriter.getAttributes(recordSchema));
+    }
+
     @Override
     public void flush() throws IOException {
         encoder.flush();
@@ -25,15 +25,20 @@ import java.util.Map;
 import org.apache.avro.Schema;
 import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
+import org.apache.nifi.serialization.RecordBatchWriter;
+import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 
-public class WriteAvroResultWithSchema extends AbstractRecordSetWriter {
+public class WriteAvroResultWithSchema extends AbstractRecordSetWriter implements RecordBatchWriter {
 
     private final DataFileWriter<GenericRecord> dataFileWriter;
     private final Schema schema;
+    private GenericRecord batchRecord;
 
     public WriteAvroResultWithSchema(final Schema schema, final OutputStream out, final CodecFactory codec) throws IOException {
         super(out);
@@ -62,6 +67,22 @@ public class WriteAvroResultWithSchema extends AbstractRecordSetWriter {
         return Collections.emptyMap();
     }
 
+    @Override
+    public WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        // Each Avro Record is serialized when it is appended, so the same Avro Record can be populated for every row
+        if (batchRecord == null) {
+            batchRecord = new GenericData.Record(schema);
+        }
+
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            AvroTypeUtil.populateAvroRecord(batchRecord, batch, row);
+            dataFileWriter.append(batchRecord);
+            incrementRecordCount();
+        }
+
+        return WriteResult.of(getRecordCount(), Collections.emptyMap());
+    }
+
     @Override
     public String getMimeType() {
         return "application/avro-binary";
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,17 +35,26 @@ import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.ColumnVector;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 
-public class CSVRecordReader extends AbstractCSVRecordReader {
+public class CSVRecordReader extends AbstractCSVRecordReader implements RecordBatchReader {
     private final CSVParser csvParser;
 
+    private final boolean arrayRecordsEnabled = ArrayRecord.isArrayRecordsEnabled();
+
     private List<RecordField> recordFields;
+    private int[] schemaFieldIndices;
+    private RecordSchema batchSchema;
+    private int[] batchColumnIndices;
 
     public CSVRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema, final CSVFormat csvFormat, final boolean hasHeader, final boolean ignoreHeader,
                            final String dateFormat, final String timeFormat, final String timestampFormat, final String encoding, final boolean trimDoubleQuote) throws IOException {
@@ -83,6 +93,10 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
             final List<RecordField> recordFields = getRecordFields();
             final int numFieldNames = recordFields.size();
             for (final CSVRecord csvRecord : csvParser) {
+                if (arrayRecordsEnabled) {
+                    return createArrayRecord(csvRecord, schema, recordFields, coerceTypes, dropUnknownFields);
+                }
+
                 final Map<String, Object> values = new LinkedHashMap<>(recordFields.size() * 2);
                 for (int i = 0; i < csvRecord.size(); i++) {
                     final String rawValue = csvRecord.get(i);
@@ -125,6 +139,92 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
     }
 
 
+    @Override
+    public int nextBatch(final RecordBatch batch) throws MalformedRecordException {
+        batch.clear();
+
+        try {
+            final List<RecordField> recordFields = getRecordFields();
+            final int[] columnIndices = getBatchColumnIndices(batch.getSchema(), recordFields);
+            final Iterator<CSVRecord> csvRecords = csvParser.iterator();
+
+            while (!batch.isFull() && csvRecords.hasNext()) {
+                final CSVRecord csvRecord = csvRecords.next();
+                final int row = batch.addRow();
+
+                final int columnCount = Math.min(csvRecord.size(), columnIndices.length);
+                for (int i = 0; i < columnCount; i++) {
+                    final int columnIndex = columnIndices[i];
+                    if (columnIndex < 0) {
+                        continue;
+                    }
+
+                    final ColumnVector column = batch.getColumn(columnIndex);
+                    column.setValue(row, convert(csvRecord.get(i), column.getField().getDataType(), recordFields.get(i).getFieldName()));
+                }
+            }
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next record", e);
+        }
+
+        return batch.getRowCount();
+    }
+
+    private int[] getBatchColumnIndices(final RecordSchema recordSchema, final List<RecordField> recordFields) {
+        if (recordSchema == schema) {
+            return schemaFieldIndices;
+        }
+
+        if (recordSchema != batchSchema) {
+            final int[] columnIndices = new int[recordFields.size()];
+            for (int i = 0; i < columnIndices.length; i++) {
+                columnIndices[i] = recordSchema.getFieldIndex(recordFields.get(i).getFieldName());
+            }
+
+            batchColumnIndices = columnIndices;
+            batchSchema = recordSchema;
+        }
+
+        return batchColumnIndices;
+    }
+
+    private Record createArrayRecord(final CSVRecord csvRecord, final RecordSchema schema, final List<RecordField> recordFields,
+                                     final boolean coerceTypes, final boolean dropUnknownFields) {
+        final ArrayRecord.Builder builder = new ArrayRecord.Builder(schema);
+        final int numFieldNames = recordFields.size();
+        for (int i = 0; i < csvRecord.size(); i++) {
+            final String rawValue = csvRecord.get(i);
+
+            if (i >= numFieldNames) {
+                if (!dropUnknownFields) {
+                    builder.setUnknownValue("unknown_field_index_" + i, rawValue);
+                }
+
+                continue;
+            }
+
+            final RecordField recordField = recordFields.get(i);
+            final String rawFieldName = recordField.getFieldName();
+            final DataType dataType = recordField.getDataType();
+
+            final Object value;
+            if (coerceTypes) {
+                value = convert(rawValue, dataType, rawFieldName);
+            } else {
+                value = convertSimpleIfPossible(rawValue, dataType, rawFieldName);
+            }
+
+            final int schemaFieldIndex = schemaFieldIndices[i];
+            if (schemaFieldIndex < 0) {
+                builder.setUnknownValue(rawFieldName, value);
+            } else {
+                builder.setValue(schemaFieldIndex, value);
+            }
+        }
+
+        return builder.build(null, coerceTypes, dropUnknownFields);
+    }
+
     private List<RecordField> getRecordFields() {
         if (this.recordFields != null) {
             return this.recordFields;
@@ -147,6 +247,13 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
             }
         }
 
+        // The position in the schema of the field for each column, so that Array Records can be populated without looking up each field by name
+        final int[] fieldIndices = new int[fields.size()];
+        for (int i = 0; i < fieldIndices.length; i++) {
+            fieldIndices[i] = schema.getFieldIndex(fields.get(i).getFieldName());
+        }
+
+        this.schemaFieldIndices = fieldIndices;
         this.recordFields = fields;
         return fields;
     }
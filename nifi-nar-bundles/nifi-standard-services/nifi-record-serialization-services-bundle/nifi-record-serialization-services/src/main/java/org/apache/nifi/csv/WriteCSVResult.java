@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -28,16 +29,20 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.nifi.schema.access.SchemaAccessWriter;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
+import org.apache.nifi.serialization.RecordBatchWriter;
 import org.apache.nifi.serialization.RecordSetWriter;
 import org.apache.nifi.serialization.WriteResult;
+import org.apache.nifi.serialization.record.ColumnVector;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.RawRecordWriter;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
 
-public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSetWriter, RawRecordWriter {
+public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSetWriter, RecordBatchWriter, RawRecordWriter {
     private final RecordSchema recordSchema;
     private final SchemaAccessWriter schemaWriter;
     private final String dateFormat;
@@ -48,6 +53,8 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
     private final boolean includeHeaderLine;
     private boolean headerWritten = false;
     private String[] fieldNames;
+    private RecordSchema batchSchema;
+    private int[] batchColumnIndices;
 
     public WriteCSVResult(final CSVFormat csvFormat, final RecordSchema recordSchema, final SchemaAccessWriter schemaWriter, final OutputStream out,
         final String dateFormat, final String timeFormat, final String timestampFormat, final boolean includeHeaderLine, final String charSet) throws IOException {
@@ -173,6 +180,70 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
         return record.getAsString(recordField, getFormat(recordField));
     }
 
+    @Override
+    public WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        // If we are not writing an active record set, then we need to ensure that we write the
+        // schema information.
+        if (!isActiveRecordSet()) {
+            schemaWriter.writeHeader(recordSchema, getOutputStream());
+        }
+
+        includeHeaderIfNecessary(null, true);
+
+        final List<RecordField> recordFields = recordSchema.getFields();
+        final int[] columnIndices = getBatchColumnIndices(batch);
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            for (int i = 0; i < fieldValues.length; i++) {
+                final int columnIndex = columnIndices[i];
+                fieldValues[i] = columnIndex < 0 ? null : getFieldValue(batch.getColumn(columnIndex), row, recordFields.get(i));
+            }
+
+            printer.printRecord(fieldValues);
+            incrementRecordCount();
+        }
+
+        return WriteResult.of(getRecordCount(), schemaWriter.getAttributes(recordSchema));
+    }
+
+    private int[] getBatchColumnIndices(final RecordBatch batch) {
+        if (batch.getSchema() != batchSchema) {
+            final List<RecordField> recordFields = recordSchema.getFields();
+            final int[] columnIndices = new int[recordFields.size()];
+            for (int i = 0; i < columnIndices.length; i++) {
+                columnIndices[i] = batch.getColumnIndex(recordFields.get(i));
+            }
+
+            batchColumnIndices = columnIndices;
+            batchSchema = batch.getSchema();
+        }
+
+        return batchColumnIndices;
+    }
+
+    private Object getFieldValue(final ColumnVector column, final int row, final RecordField recordField) {
+        final Object value = column.getValue(row);
+        if (value == null) {
+            return null;
+        }
+
+        switch (recordField.getDataType().getFieldType()) {
+            case BIGINT:
+            case BYTE:
+            case DECIMAL:
+            case DOUBLE:
+            case FLOAT:
+            case LONG:
+            case INT:
+            case SHORT:
+                if (value instanceof Number) {
+                    return value;
+                }
+                break;
+        }
+
+        return DataTypeUtils.toString(value, getFormat(recordField));
+    }
+
     @Override
     public WriteResult writeRawRecord(final Record record) throws IOException {
         // If we are not writing an active record set, then we need to ensure that we write the
@@ -20,18 +20,28 @@ package org.apache.nifi.avro;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.Schema.Type;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DatumWriter;
+import org.apache.nifi.schema.access.NopSchemaAccessWriter;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.RecordBatchWriter;
+import org.apache.nifi.serialization.RecordSetWriter;
 import org.apache.nifi.serialization.SimpleRecordSchema;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.util.MockComponentLog;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
@@ -48,12 +58,15 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class TestAvroReaderWithEmbeddedSchema {
@@ -332,6 +345,106 @@ public class TestAvroReaderWithEmbeddedSchema {
         }
     }
 
+    @Test
+    public void testReadAndWriteInBatches() throws IOException, MalformedRecordException {
+        final Schema schema = new Schema.Parser().parse(new File("src/test/resources/avro/datatypes.avsc"));
+        final Schema subRecordSchema = schema.getField("record").schema();
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
+        try (final DataFileWriter<GenericRecord> dataFileWriter = new DataFileWriter<>(datumWriter);
+             final DataFileWriter<GenericRecord> writer = dataFileWriter.create(schema, baos)) {
+
+            for (int i = 0; i < 5; i++) {
+                final GenericRecord subRecord = new GenericData.Record(subRecordSchema);
+                subRecord.put("field1", "sub-" + i);
+
+                final GenericRecord record = new GenericData.Record(schema);
+                record.put("string", "string-" + i);
+                record.put("int", i);
+                record.put("long", Long.MAX_VALUE - i);
+                record.put("double", i * 1.5D);
+                record.put("float", i * 0.25F);
+                record.put("boolean", i % 2 == 0);
+                record.put("bytes", ByteBuffer.wrap(("bytes-" + i).getBytes(StandardCharsets.UTF_8)));
+                record.put("nullOrLong", i % 2 == 0 ? null : (long) i);
+                record.put("array", Arrays.asList(i, i + 1));
+                record.put("record", subRecord);
+                record.put("map", Collections.singletonMap("key-" + i, subRecord));
+                writer.append(record);
+            }
+        }
+
+        final byte[] source = baos.toByteArray();
+
+        final List<Record> records = new ArrayList<>();
+        final byte[] rowOutput = readAndWrite(source, false, 0, records);
+
+        // A batch size that does not divide the number of records, so that the last batch is only partially filled
+        final List<Record> batchRecords = new ArrayList<>();
+        final byte[] batchOutput = readAndWrite(source, false, 2, batchRecords);
+
+        assertEquals(5, records.size());
+        assertEquals(records, batchRecords);
+        assertArrayEquals(rowOutput, batchOutput);
+
+        // Avro data files begin with a random sync marker, so compare the Avro Records that were written rather than the bytes
+        final List<GenericRecord> rowAvroRecords = readAvroRecords(readAndWrite(source, true, 0, new ArrayList<>()));
+        final List<GenericRecord> batchAvroRecords = readAvroRecords(readAndWrite(source, true, 2, new ArrayList<>()));
+        assertEquals(5, rowAvroRecords.size());
+        assertEquals(rowAvroRecords, batchAvroRecords);
+    }
+
+    private byte[] readAndWrite(final byte[] source, final boolean embedSchema, final int batchSize, final List<Record> recordsRead) throws IOException, MalformedRecordException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (final AvroRecordReader reader = new AvroReaderWithEmbeddedSchema(new ByteArrayInputStream(source));
+             final RecordSetWriter writer = createWriter(reader.getSchema(), embedSchema, out)) {
+
+            writer.beginRecordSet();
+            if (batchSize > 0) {
+                final RecordBatchReader batchReader = assertInstanceOf(RecordBatchReader.class, reader);
+                final RecordBatchWriter batchWriter = assertInstanceOf(RecordBatchWriter.class, writer);
+                final RecordBatch batch = new RecordBatch(reader.getSchema(), batchSize);
+
+                while (batchReader.nextBatch(batch) > 0) {
+                    for (int row = 0; row < batch.getRowCount(); row++) {
+                        recordsRead.add(batch.getRecord(row));
+                    }
+                    batchWriter.writeBatch(batch);
+                }
+            } else {
+                Record record;
+                while ((record = reader.nextRecord()) != null) {
+                    recordsRead.add(record);
+                    writer.write(record);
+                }
+            }
+            writer.finishRecordSet();
+        }
+
+        return out.toByteArray();
+    }
+
+    private RecordSetWriter createWriter(final RecordSchema recordSchema, final boolean embedSchema, final ByteArrayOutputStream out) throws IOException {
+        final Schema avroSchema = AvroTypeUtil.extractAvroSchema(recordSchema);
+        if (embedSchema) {
+            return new WriteAvroResultWithSchema(avroSchema, out, CodecFactory.nullCodec());
+        }
+
+        return new WriteAvroResultWithExternalSchema(avroSchema, recordSchema, new NopSchemaAccessWriter(), out, new LinkedBlockingQueue<BinaryEncoder>(),
+            new MockComponentLog("id", new Object()));
+    }
+
+    private List<GenericRecord> readAvroRecords(final byte[] data) throws IOException {
+        final List<GenericRecord> avroRecords = new ArrayList<>();
+        try (final DataFileStream<GenericRecord> dataFileStream = new DataFileStream<>(new ByteArrayInputStream(data), new GenericDatumReader<>())) {
+            dataFileStream.forEach(avroRecords::add);
+        }
+
+        return avroRecords;
+    }
+
     private Object[] toObjectArray(final byte[] bytes) {
         final Object[] array = new Object[bytes.length];
         for (int i = 0; i < bytes.length; i++) {
@@ -18,6 +18,7 @@
 package org.apache.nifi.csv;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,10 +36,14 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.DuplicateHeaderMode;
 import org.apache.commons.text.StringEscapeUtils;
 import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.schema.access.SchemaNameAsAttribute;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordBatchReader;
+import org.apache.nifi.serialization.RecordBatchWriter;
 import org.apache.nifi.serialization.SimpleRecordSchema;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -47,6 +52,7 @@ import org.mockito.Mockito;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -1013,4 +1019,65 @@ public class TestCSVRecordReader {
             assertEquals("\"\"\"", name);
         }
     }
+
+    @Test
+    public void testReadAndWriteInBatches() throws IOException, MalformedRecordException {
+        final String text = "id,name,balance,active,joined,visits\n"
+            + "1,John Doe,4750.89,true,2005-02-11,12\n"
+            + "2,\"Doe, Jane\",,false,,\n"
+            + "3,Jimmy Doe,-12.5,true,2019-07-30,9223372036854775807\n"
+            + "4,,0,,1999-12-31,0\n"
+            + "5,Jenny Doe\n";
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("joined", RecordFieldType.DATE.getDataType()));
+        fields.add(new RecordField("visits", RecordFieldType.LONG.getDataType()));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final List<Record> records = new ArrayList<>();
+        final ByteArrayOutputStream rowOut = new ByteArrayOutputStream();
+        try (final CSVRecordReader reader = createReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), schema, format);
+             final WriteCSVResult writer = createWriter(schema, rowOut)) {
+
+            writer.beginRecordSet();
+            Record record;
+            while ((record = reader.nextRecord()) != null) {
+                records.add(record);
+                writer.write(record);
+            }
+            assertEquals(5, writer.finishRecordSet().getRecordCount());
+        }
+
+        // A batch size that does not divide the number of records, so that the last batch is only partially filled
+        final List<Record> batchRecords = new ArrayList<>();
+        final ByteArrayOutputStream batchOut = new ByteArrayOutputStream();
+        try (final CSVRecordReader reader = createReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), schema, format);
+             final WriteCSVResult writer = createWriter(schema, batchOut)) {
+
+            final RecordBatchReader batchReader = assertInstanceOf(RecordBatchReader.class, reader);
+            final RecordBatchWriter batchWriter = assertInstanceOf(RecordBatchWriter.class, writer);
+            final RecordBatch batch = new RecordBatch(schema, 2);
+
+            batchWriter.beginRecordSet();
+            while (batchReader.nextBatch(batch) > 0) {
+                for (int row = 0; row < batch.getRowCount(); row++) {
+                    batchRecords.add(batch.getRecord(row));
+                }
+                batchWriter.writeBatch(batch);
+            }
+            assertEquals(5, batchWriter.finishRecordSet().getRecordCount());
+        }
+
+        assertEquals(records, batchRecords);
+        assertEquals(rowOut.toString(StandardCharsets.UTF_8), batchOut.toString(StandardCharsets.UTF_8));
+    }
+
+    private WriteCSVResult createWriter(final RecordSchema schema, final ByteArrayOutputStream out) throws IOException {
+        return new WriteCSVResult(CSVFormat.DEFAULT, schema, new SchemaNameAsAttribute(), out,
+            RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), true, "UTF-8");
+    }
 }
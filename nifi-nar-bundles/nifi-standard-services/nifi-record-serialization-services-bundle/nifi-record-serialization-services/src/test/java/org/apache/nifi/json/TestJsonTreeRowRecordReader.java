@@ -27,9 +27,11 @@ import org.apache.nifi.schema.inference.InferSchemaAccessStrategy;
 import org.apache.nifi.schema.inference.TimeValueInference;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -61,6 +63,7 @@ import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -270,6 +273,49 @@ class TestJsonTreeRowRecordReader {
         }
     }
 
+    @Test
+    void testReadArrayWithArrayRecords() throws IOException, MalformedRecordException {
+        final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
+
+        System.setProperty(ArrayRecord.ARRAY_RECORDS_ENABLED_PROPERTY, "true");
+        try (final InputStream in = new FileInputStream("src/test/resources/json/bank-account-array.json");
+             final JsonTreeRowRecordReader reader = new JsonTreeRowRecordReader(in, mock(ComponentLog.class), schema, dateFormat, timeFormat, timestampFormat)) {
+
+            final Record firstRecord = reader.nextRecord();
+            assertInstanceOf(ArrayRecord.class, firstRecord);
+            assertArrayEquals(new Object[] {1, "John Doe", 4750.89, "123 My Street", "My City", "MS", "11111", "USA"}, firstRecord.getValues());
+
+            final Record secondRecord = reader.nextRecord(true, true);
+            assertInstanceOf(ArrayRecord.class, secondRecord);
+            assertArrayEquals(new Object[] {2, "Jane Doe", 4820.09, "321 Your Street", "Your City", "NY", "33333", "USA"}, secondRecord.getValues());
+
+            assertNull(reader.nextRecord());
+        } finally {
+            System.clearProperty(ArrayRecord.ARRAY_RECORDS_ENABLED_PROPERTY);
+        }
+    }
+
+    @Test
+    void testReadArrayInBatches() throws IOException, MalformedRecordException {
+        final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
+
+        try (final InputStream in = new FileInputStream("src/test/resources/json/bank-account-array.json");
+             final JsonTreeRowRecordReader reader = new JsonTreeRowRecordReader(in, mock(ComponentLog.class), schema, dateFormat, timeFormat, timestampFormat)) {
+
+            final RecordBatch batch = new RecordBatch(reader.getSchema(), 1);
+            assertEquals(1, reader.nextBatch(batch));
+            assertArrayEquals(new Object[] {1, "John Doe", 4750.89, "123 My Street", "My City", "MS", "11111", "USA"}, batch.getRecord(0).getValues());
+            assertEquals(1L, batch.getColumn(0).getLong(0));
+
+            assertEquals(1, reader.nextBatch(batch));
+            assertArrayEquals(new Object[] {2, "Jane Doe", 4820.09, "321 Your Street", "Your City", "NY", "33333", "USA"}, batch.getRecord(0).getValues());
+            assertEquals(4820.09, batch.getColumn(2).getDouble(0));
+
+            assertEquals(0, reader.nextBatch(batch));
+            assertTrue(batch.isEmpty());
+        }
+    }
+
     @Test
     void testReadOneLinePerJSON() throws IOException, MalformedRecordException {
         final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
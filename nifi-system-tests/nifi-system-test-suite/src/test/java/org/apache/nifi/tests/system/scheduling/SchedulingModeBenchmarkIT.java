@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.tests.system.scheduling;
+
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.tests.system.NiFiSystemIT;
+import org.apache.nifi.toolkit.cli.impl.client.nifi.NiFiClientException;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceEventDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceSearchValueDTO;
+import org.apache.nifi.web.api.entity.ProcessorEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the end-to-end latency of a linear flow and the CPU consumed by a large number of idle Processors, so that
+ * the Processor Scheduling Modes can be compared. These tests are run only when the <code>nifi.test.performance</code>
+ * system property is set to <code>true</code>, and they log their results rather than asserting on them, as the
+ * results depend heavily on the machine that they are run on.
+ */
+@EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+public abstract class SchedulingModeBenchmarkIT extends NiFiSystemIT {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingModeBenchmarkIT.class);
+
+    private static final int LATENCY_CHAIN_LENGTH = 10;
+    private static final int LATENCY_FLOWFILE_COUNT = 500;
+
+    private static final int IDLE_CHAIN_COUNT = 20;
+    private static final int IDLE_CHAIN_LENGTH = 25;
+    private static final long IDLE_WARMUP_MILLIS = 10_000L;
+    private static final long IDLE_SAMPLE_MILLIS = 30_000L;
+
+    /**
+     * @return the value of the <code>nifi.processor.scheduling.mode</code> property to benchmark
+     */
+    protected abstract String getProcessorSchedulingMode();
+
+    @Override
+    protected Map<String, String> getNifiPropertiesOverrides() {
+        return Collections.singletonMap("nifi.processor.scheduling.mode", getProcessorSchedulingMode());
+    }
+
+    @Override
+    protected boolean isDestroyEnvironmentAfterEachTest() {
+        // Each test needs its own repositories so that the provenance query and the CPU samples are not affected by other tests.
+        return true;
+    }
+
+    @Test
+    public void testEndToEndLatency() throws NiFiClientException, IOException, InterruptedException {
+        ProcessorEntity generate = getClientUtil().createProcessor("GenerateFlowFile");
+        generate = getClientUtil().updateProcessorProperties(generate, Collections.singletonMap("Batch Size", "1"));
+        generate = getClientUtil().updateProcessorSchedulingPeriod(generate, "20 millis");
+
+        final List<ProcessorEntity> processors = new ArrayList<>();
+        ProcessorEntity previous = generate;
+        for (int i = 0; i < LATENCY_CHAIN_LENGTH; i++) {
+            final ProcessorEntity passThrough = getClientUtil().createProcessor("PassThrough");
+            getClientUtil().createConnection(previous, passThrough, "success");
+            processors.add(passThrough);
+            previous = passThrough;
+        }
+
+        final ProcessorEntity terminate = getClientUtil().createProcessor("TerminateFlowFile");
+        getClientUtil().createConnection(previous, terminate, "success");
+        processors.add(terminate);
+
+        for (final ProcessorEntity processor : processors) {
+            getClientUtil().startProcessor(processor);
+        }
+
+        // Let the downstream Processors become idle before any data arrives, as they would be in a flow that receives data intermittently.
+        Thread.sleep(5_000L);
+        getClientUtil().startProcessor(generate);
+
+        final Map<SearchableField, ProvenanceSearchValueDTO> searchTerms = createComponentIdSearchTerms(terminate.getId());
+        waitFor(() -> getDropEvents(searchTerms).size() >= LATENCY_FLOWFILE_COUNT, 1000L);
+        getClientUtil().stopProcessor(generate);
+
+        final List<Long> lineageDurations = getDropEvents(searchTerms).stream()
+            .map(ProvenanceEventDTO::getLineageDuration)
+            .sorted()
+            .collect(Collectors.toList());
+        assertFalse(lineageDurations.isEmpty());
+
+        final double average = lineageDurations.stream().mapToLong(Long::longValue).average().orElse(0D);
+        final long p50 = lineageDurations.get(lineageDurations.size() / 2);
+        final long p99 = lineageDurations.get((int) Math.ceil(lineageDurations.size() * 0.99D) - 1);
+        logger.info("Scheduling Mode {}: end-to-end latency through {} Processors for {} FlowFiles: average = {} millis, p50 = {} millis, p99 = {} millis",
+            getProcessorSchedulingMode(), processors.size(), lineageDurations.size(), String.format("%.2f", average), p50, p99);
+    }
+
+    @Test
+    public void testIdleCpuUsage() throws NiFiClientException, IOException, InterruptedException {
+        final Optional<ProcessHandle> nifiProcess = findNiFiProcess();
+        assumeTrue(nifiProcess.isPresent(), "Could not find the NiFi process in order to measure its CPU usage");
+
+        // Create chains of Processors whose source is never started, so that every other Processor is running but has no work to do.
+        final List<ProcessorEntity> idleProcessors = new ArrayList<>();
+        for (int chain = 0; chain < IDLE_CHAIN_COUNT; chain++) {
+            ProcessorEntity previous = getClientUtil().createProcessor("GenerateFlowFile");
+            for (int i = 0; i < IDLE_CHAIN_LENGTH; i++) {
+                final ProcessorEntity passThrough = getClientUtil().createProcessor("PassThrough");
+                getClientUtil().createConnection(previous, passThrough, "success");
+                idleProcessors.add(passThrough);
+                previous = passThrough;
+            }
+
+            final ProcessorEntity terminate = getClientUtil().createProcessor("TerminateFlowFile");
+            getClientUtil().createConnection(previous, terminate, "success");
+            idleProcessors.add(terminate);
+        }
+
+        for (final ProcessorEntity processor : idleProcessors) {
+            getClientUtil().startProcessor(processor);
+        }
+
+        Thread.sleep(IDLE_WARMUP_MILLIS);
+
+        final Duration cpuBefore = getTotalCpuDuration(nifiProcess.get());
+        final long start = System.nanoTime();
+        Thread.sleep(IDLE_SAMPLE_MILLIS);
+        final Duration cpuAfter = getTotalCpuDuration(nifiProcess.get());
+        final long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        final long cpuMillis = cpuAfter.minus(cpuBefore).toMillis();
+        logger.info("Scheduling Mode {}: {} idle Processors consumed {} millis of CPU time in {} millis ({}% of one core)",
+            getProcessorSchedulingMode(), idleProcessors.size(), cpuMillis, elapsedMillis, String.format("%.2f", cpuMillis * 100D / elapsedMillis));
+    }
+
+    private Map<SearchableField, ProvenanceSearchValueDTO> createComponentIdSearchTerms(final String componentId) {
+        final ProvenanceSearchValueDTO searchValueDto = new ProvenanceSearchValueDTO();
+        searchValueDto.setValue(componentId);
+        searchValueDto.setInverse(false);
+        return Collections.singletonMap(SearchableFields.ComponentID, searchValueDto);
+    }
+
+    private List<ProvenanceEventDTO> getDropEvents(final Map<SearchableField, ProvenanceSearchValueDTO> searchTerms) throws NiFiClientException, IOException {
+        return getClientUtil().queryProvenance(searchTerms, null, null).getProvenance().getResults().getProvenanceEvents().stream()
+            .filter(event -> ProvenanceEventType.DROP.name().equals(event.getEventType()))
+            .filter(event -> event.getLineageDuration() != null)
+            .collect(Collectors.toList());
+    }
+
+    private Optional<ProcessHandle> findNiFiProcess() {
+        final String instanceDirectory = getNiFiInstance().getInstanceDirectory().getAbsolutePath();
+
+        // The NiFi process is started by the bootstrap process, and both refer to the instance directory, but only the NiFi process runs the NiFi main class.
+        return ProcessHandle.allProcesses()
+            .filter(process -> process.info().commandLine()
+                .map(commandLine -> commandLine.contains(instanceDirectory) && commandLine.contains("org.apache.nifi.NiFi"))
+                .orElse(false))
+            .findFirst();
+    }
+
+    private Duration getTotalCpuDuration(final ProcessHandle process) {
+        return process.info().totalCpuDuration().orElse(Duration.ZERO);
+    }
+}